@@ -0,0 +1,142 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package org.questdb;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.griffin.engine.orderby.SortRunJob;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class OrderByRadixSortBenchmark {
+
+    private static final Log LOG = LogFactory.getLog(OrderByRadixSortBenchmark.class);
+    private static final int NUM_ROWS = 10_000_000;
+    private static final String ROOT = System.getProperty("java.io.tmpdir");
+    @Param({"i64", "i32", "ts"})
+    public String column;
+    @Param({"true", "false"})
+    public boolean radixSort;
+    @Param({"1", "4"})
+    public int workerCount;
+    private SqlCompiler compiler;
+    private SqlExecutionContextImpl ctx;
+    private CairoEngine engine;
+    private RecordCursorFactory factory;
+    private WorkerPool workerPool;
+
+    public static void main(String[] args) throws RunnerException, SqlException {
+        try (CairoEngine engine = new CairoEngine(new DefaultCairoConfiguration(ROOT))) {
+            SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, 1)
+                    .with(
+                            AllowAllCairoSecurityContext.INSTANCE,
+                            null,
+                            null,
+                            -1,
+                            null
+                    );
+            try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                compiler.compile("create table if not exists x as (select" +
+                        " rnd_long() i64," +
+                        " rnd_int() i32," +
+                        " rnd_timestamp(to_timestamp('2015', 'yyyy'), to_timestamp('2016', 'yyyy'), 0) ts" +
+                        " from long_sequence(" + NUM_ROWS + "))", sqlExecutionContext);
+            }
+        }
+
+        Options opt = new OptionsBuilder()
+                .include(OrderByRadixSortBenchmark.class.getSimpleName())
+                .warmupIterations(2)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+
+        LogFactory.haltInstance();
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(ROOT) {
+            @Override
+            public boolean isSqlRadixSortEnabled() {
+                return radixSort;
+            }
+        };
+        engine = new CairoEngine(configuration);
+        // the query thread sorts runs alongside the pool
+        if (workerCount > 1) {
+            workerPool = new WorkerPool(() -> workerCount - 1);
+            workerPool.assign(new SortRunJob(engine.getMessageBus()));
+            workerPool.start(LOG);
+        }
+        ctx = new SqlExecutionContextImpl(engine, workerCount);
+        compiler = new SqlCompiler(engine);
+        factory = compiler.compile("select * from x order by " + column, ctx).getRecordCursorFactory();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        factory.close();
+        compiler.close();
+        if (workerPool != null) {
+            workerPool.halt();
+            workerPool = null;
+        }
+        engine.close();
+    }
+
+    @Benchmark
+    public void testOrderBySingleColumn() throws SqlException {
+        try (RecordCursor cursor = factory.getCursor(ctx)) {
+            final Record ignored = cursor.getRecord();
+            // noinspection StatementWithEmptyBody
+            while (cursor.hasNext()) {
+                // access 'record' instance for field values
+            }
+        }
+    }
+}
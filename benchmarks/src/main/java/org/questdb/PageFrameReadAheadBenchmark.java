@@ -0,0 +1,147 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package org.questdb;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.DefaultCairoConfiguration;
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.log.LogFactory;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures filtered scans over a cold page cache with and without page frame read-ahead.
+ * The page cache is dropped before each invocation, which requires write access to
+ * /proc/sys/vm/drop_caches (i.e. running as root). Without it, the numbers reflect
+ * a warm cache and the two modes are expected to be on par.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class PageFrameReadAheadBenchmark {
+
+    private static final String DROP_CACHES = "/proc/sys/vm/drop_caches";
+    private static final int NUM_ROWS = 100_000_000;
+    private static final String ROOT = System.getProperty("java.io.tmpdir");
+    @Param({"0", "4", "16"})
+    public int readAheadCount;
+    private SqlCompiler compiler;
+    private SqlExecutionContextImpl ctx;
+    private CairoEngine engine;
+    private RecordCursorFactory factory;
+
+    public static void main(String[] args) throws RunnerException, SqlException {
+        try (CairoEngine engine = new CairoEngine(new DefaultCairoConfiguration(ROOT))) {
+            SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, 1)
+                    .with(
+                            AllowAllCairoSecurityContext.INSTANCE,
+                            null,
+                            null,
+                            -1,
+                            null
+                    );
+            try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                compiler.compile("create table if not exists x as (select" +
+                        " rnd_long() i64," +
+                        " rnd_double() d," +
+                        " rnd_str(4, 16, 2) s," +
+                        " timestamp_sequence(400000000000, 100000) ts" +
+                        " from long_sequence(" + NUM_ROWS + ")) timestamp(ts) partition by hour", sqlExecutionContext);
+            }
+        }
+
+        Options opt = new OptionsBuilder()
+                .include(PageFrameReadAheadBenchmark.class.getSimpleName())
+                .warmupIterations(1)
+                .measurementIterations(5)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+
+        LogFactory.haltInstance();
+    }
+
+    @Setup(Level.Invocation)
+    public void dropCaches() {
+        try (FileOutputStream out = new FileOutputStream(DROP_CACHES)) {
+            out.write("3".getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException ignore) {
+            // no write access, the scan runs warm
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setup() throws Exception {
+        final int readAheadCount = this.readAheadCount;
+        final CairoConfiguration configuration = new DefaultCairoConfiguration(ROOT) {
+            @Override
+            public int getSqlPageFrameReadAheadCount() {
+                return readAheadCount;
+            }
+        };
+        engine = new CairoEngine(configuration);
+        ctx = new SqlExecutionContextImpl(engine, 1);
+        ctx.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+        compiler = new SqlCompiler(engine);
+        factory = compiler.compile("select * from x where d < 0.001 and s <> 'abc'", ctx).getRecordCursorFactory();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        factory.close();
+        compiler.close();
+        engine.close();
+    }
+
+    @Benchmark
+    public void testColdScan() throws SqlException {
+        try (RecordCursor cursor = factory.getCursor(ctx)) {
+            final Record ignored = cursor.getRecord();
+            // noinspection StatementWithEmptyBody
+            while (cursor.hasNext()) {
+                // access 'record' instance for field values
+            }
+        }
+    }
+}
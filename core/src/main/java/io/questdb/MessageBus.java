@@ -99,6 +99,12 @@ public interface MessageBus extends Closeable {
 
     MPSequence getQueryCacheEventPubSeq();
 
+    Sequence getSortRunPubSeq();
+
+    RingQueue<SortRunTask> getSortRunQueue();
+
+    Sequence getSortRunSubSeq();
+
     FanOut getTableWriterEventFanOut();
 
     MPSequence getTableWriterEventPubSeq();
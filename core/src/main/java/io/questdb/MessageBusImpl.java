@@ -68,6 +68,9 @@ public class MessageBusImpl implements MessageBus {
     private final MCSequence[] pageFrameReduceSubSeq;
     private final MPSequence queryCacheEventPubSeq;
     private final FanOut queryCacheEventSubSeq;
+    private final MPSequence sortRunPubSeq;
+    private final RingQueue<SortRunTask> sortRunQueue;
+    private final MCSequence sortRunSubSeq;
     private final MPSequence tableWriterEventPubSeq;
     private final RingQueue<TableWriterTask> tableWriterEventQueue;
     private final FanOut tableWriterEventSubSeq;
@@ -127,6 +130,11 @@ public class MessageBusImpl implements MessageBus {
         this.latestBySubSeq = new MCSequence(latestByQueue.getCycle());
         latestByPubSeq.then(latestBySubSeq).then(latestByPubSeq);
 
+        this.sortRunQueue = new RingQueue<>(SortRunTask::new, configuration.getSortRunQueueCapacity());
+        this.sortRunPubSeq = new MPSequence(sortRunQueue.getCycle());
+        this.sortRunSubSeq = new MCSequence(sortRunQueue.getCycle());
+        sortRunPubSeq.then(sortRunSubSeq).then(sortRunPubSeq);
+
         this.tableWriterEventQueue = new RingQueue<>(
                 TableWriterTask::new,
                 configuration.getWriterCommandQueueSlotSize(),
@@ -357,6 +365,21 @@ public class MessageBusImpl implements MessageBus {
         return queryCacheEventPubSeq;
     }
 
+    @Override
+    public Sequence getSortRunPubSeq() {
+        return sortRunPubSeq;
+    }
+
+    @Override
+    public RingQueue<SortRunTask> getSortRunQueue() {
+        return sortRunQueue;
+    }
+
+    @Override
+    public Sequence getSortRunSubSeq() {
+        return sortRunSubSeq;
+    }
+
     @Override
     public FanOut getTableWriterEventFanOut() {
         return tableWriterEventSubSeq;
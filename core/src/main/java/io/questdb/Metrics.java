@@ -24,9 +24,13 @@
 
 package io.questdb;
 
+import io.questdb.cairo.PartitionTieringMetrics;
+import io.questdb.cairo.TableReaderMetrics;
 import io.questdb.cairo.TableWriterMetrics;
+import io.questdb.cairo.wal.WalMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
 import io.questdb.cutlass.pgwire.PGWireMetrics;
+import io.questdb.griffin.engine.cache.ResultCacheMetrics;
 import io.questdb.metrics.*;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Os;
@@ -39,20 +43,28 @@ public class Metrics implements Scrapable {
     private final HealthMetricsImpl healthCheck;
     private final JsonQueryMetrics jsonQuery;
     private final MetricsRegistry metricsRegistry;
+    private final PartitionTieringMetrics partitionTiering;
     private final PGWireMetrics pgWire;
+    private final ResultCacheMetrics resultCache;
     private final Runtime runtime = Runtime.getRuntime();
     private final VirtualGauge.StatProvider jvmFreeMemRef = runtime::freeMemory;
     private final VirtualGauge.StatProvider jvmTotalMemRef = runtime::totalMemory;
     private final VirtualGauge.StatProvider jvmMaxMemRef = runtime::maxMemory;
+    private final TableReaderMetrics tableReader;
     private final TableWriterMetrics tableWriter;
+    private final WalMetrics wal;
 
     Metrics(boolean enabled, MetricsRegistry metricsRegistry) {
         this.enabled = enabled;
         this.gcMetrics = new GCMetrics();
         this.jsonQuery = new JsonQueryMetrics(metricsRegistry);
         this.pgWire = new PGWireMetrics(metricsRegistry);
+        this.partitionTiering = new PartitionTieringMetrics(metricsRegistry);
+        this.resultCache = new ResultCacheMetrics(metricsRegistry);
         this.healthCheck = new HealthMetricsImpl(metricsRegistry);
+        this.tableReader = new TableReaderMetrics(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
+        this.wal = new WalMetrics(metricsRegistry);
         createMemoryGauges(metricsRegistry);
         this.metricsRegistry = metricsRegistry;
     }
@@ -77,10 +89,18 @@ public class Metrics implements Scrapable {
         return jsonQuery;
     }
 
+    public PartitionTieringMetrics partitionTiering() {
+        return partitionTiering;
+    }
+
     public PGWireMetrics pgWire() {
         return pgWire;
     }
 
+    public ResultCacheMetrics resultCache() {
+        return resultCache;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
         metricsRegistry.scrapeIntoPrometheus(sink);
@@ -89,10 +109,18 @@ public class Metrics implements Scrapable {
         }
     }
 
+    public TableReaderMetrics tableReader() {
+        return tableReader;
+    }
+
     public TableWriterMetrics tableWriter() {
         return tableWriter;
     }
 
+    public WalMetrics wal() {
+        return wal;
+    }
+
     private void createMemoryGauges(MetricsRegistry metricsRegistry) {
         for (int i = 0; i < MemoryTag.SIZE; i++) {
             metricsRegistry.newGauge(i);
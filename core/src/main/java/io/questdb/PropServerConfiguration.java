@@ -74,6 +74,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String backupRoot;
     private final CharSequence backupTempDirName;
     private final int binaryEncodingMaxLength;
+    private final int bloomFilterBitsPerValue;
+    private final boolean bloomFilterEnabled;
     private final BuildInformation buildInformation;
     private final boolean cairoAttachPartitionCopy;
     private final String cairoAttachPartitionSuffix;
@@ -110,6 +112,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final IODispatcherConfiguration httpIODispatcherConfiguration = new PropHttpIODispatcherConfiguration();
     private final PropHttpMinIODispatcherConfiguration httpMinIODispatcherConfiguration = new PropHttpMinIODispatcherConfiguration();
     private final PropHttpMinServerConfiguration httpMinServerConfiguration = new PropHttpMinServerConfiguration();
+    private final boolean groupCommitEnabled;
+    private final long groupCommitWindowMicros;
     private final boolean httpMinServerEnabled;
     private final HttpServerConfiguration httpServerConfiguration = new PropHttpServerConfiguration();
     private final boolean httpServerEnabled;
@@ -170,10 +174,18 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean o3QuickSortEnabled;
     private final int parallelIndexThreshold;
     private final boolean parallelIndexingEnabled;
+    private final boolean partitionCompressionEnabled;
+    private final long partitionCompressionInterval;
+    private final long partitionCompressionMinAgeUs;
+    private final long partitionTieringInterval;
+    private final long partitionTieringMinAgeUs;
+    private final String partitionTieringRoot;
     private final boolean pgEnabled;
     private final PGWireConfiguration pgWireConfiguration = new PropPGWireConfiguration();
     private final PropPGWireDispatcherConfiguration propPGWireDispatcherConfiguration = new PropPGWireDispatcherConfiguration();
     private final int queryCacheEventQueueCapacity;
+    private final boolean readerLazyColumnMappingEnabled;
+    private final boolean readerMmapCacheEnabled;
     private final int readerPoolMaxSegments;
     private final double rerunExponentialWaitMultiplier;
     private final int rerunInitialWaitQueueSize;
@@ -193,6 +205,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final String snapshotInstanceId;
     private final boolean snapshotRecoveryEnabled;
     private final String snapshotRoot;
+    private final int sortRunQueueCapacity;
     private final long spinLockTimeout;
     private final int sqlAnalyticColumnPoolCapacity;
     private final int sqlAnalyticRowIdMaxPages;
@@ -227,6 +240,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlJitBindVarsMemoryMaxPages;
     private final int sqlJitBindVarsMemoryPageSize;
     private final boolean sqlJitDebugEnabled;
+    private final boolean sqlJitGroupByEnabled;
     private final int sqlJitIRMemoryMaxPages;
     private final int sqlJitIRMemoryPageSize;
     private final int sqlJitMode;
@@ -246,9 +260,19 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlModelPoolCapacity;
     private final int sqlPageFrameMaxRows;
     private final int sqlPageFrameMinRows;
+    private final int sqlPageFrameReadAheadCount;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
+    private final boolean sqlParallelGroupByEnabled;
+    private final boolean sqlParallelSampleByEnabled;
+    private final boolean sqlParallelTopKEnabled;
+    private final boolean sqlRadixSortEnabled;
+    private final long sqlRadixSortMinRunSize;
     private final int sqlRenameTableModelPoolCapacity;
+    private final boolean sqlResultCacheEnabled;
+    private final long sqlResultCacheMaxEntrySize;
+    private final long sqlResultCacheMemoryLimit;
+    private final long sqlResultCachePageSize;
     private final int sqlSmallMapKeyCapacity;
     private final int sqlSortKeyMaxPages;
     private final long sqlSortKeyPageSize;
@@ -256,8 +280,13 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long sqlSortLightValuePageSize;
     private final int sqlSortValueMaxPages;
     private final int sqlSortValuePageSize;
+    private final long sqlSpillMemoryBudget;
+    private final int sqlSpillPartitionCount;
+    private final CharSequence sqlSpillRoot;
     private final int sqlStrFunctionBufferMaxSize;
     private final int sqlTxnScoreboardEntryCount;
+    private final int sqlVectorizedBatchSize;
+    private final boolean sqlVectorizedFunctionsEnabled;
     private final int sqlWithClauseModelPoolCapacity;
     private final StaticContentProcessorConfiguration staticContentProcessorConfiguration = new PropStaticContentProcessorConfiguration();
     private final String systemTableNamePrefix;
@@ -275,10 +304,14 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean walApplyWorkerHaltOnError;
     private final long walApplyWorkerSleepThreshold;
     private final long walApplyWorkerYieldThreshold;
+    private final long walApplyTableTimeQuota;
     private final boolean walEnabledDefault;
     private final long walPurgeInterval;
     private final int walRecreateDistressedSequencerAttempts;
     private final long walSegmentRolloverRowCount;
+    private final boolean walSquashEnabled;
+    private final long walSquashMaxRows;
+    private final long walSquashMaxSize;
     private final int walTxnNotificationQueueCapacity;
     private final long workStealTimeoutNanos;
     private final long writerAsyncCommandBusyWaitTimeout;
@@ -291,6 +324,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final long writerFileOpenOpts;
     private final long writerMiscAppendPageSize;
     private final int writerTickRowsCountMod;
+    private final int zoneMapBlockRowCount;
+    private final boolean zoneMapEnabled;
     private long cairoSqlCopyMaxIndexChunkSize;
     private int connectionPoolInitialCapacity;
     private int connectionStringPoolCapacity;
@@ -452,11 +487,15 @@ public class PropServerConfiguration implements ServerConfiguration {
         this.mkdirMode = getInt(properties, env, PropertyKey.CAIRO_MKDIR_MODE, 509);
         this.maxFileNameLength = getInt(properties, env, PropertyKey.CAIRO_MAX_FILE_NAME_LENGTH, 127);
         this.walEnabledDefault = getBoolean(properties, env, PropertyKey.CAIRO_WAL_ENABLED_DEFAULT, false);
+        this.walApplyTableTimeQuota = getLong(properties, env, PropertyKey.CAIRO_WAL_APPLY_TABLE_TIME_QUOTA, 1000);
         this.walPurgeInterval = getLong(properties, env, PropertyKey.CAIRO_WAL_PURGE_INTERVAL, 30_000);
         this.walTxnNotificationQueueCapacity = getQueueCapacity(properties, env, PropertyKey.CAIRO_WAL_TXN_NOTIFICATION_QUEUE_CAPACITY, 4096);
         this.walRecreateDistressedSequencerAttempts = getInt(properties, env, PropertyKey.CAIRO_WAL_RECREATE_DISTRESSED_SEQUENCER_ATTEMPTS, 3);
         this.isWalSupported = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SUPPORTED, false);
         this.walSegmentRolloverRowCount = getLong(properties, env, PropertyKey.CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT, 200_000);
+        this.walSquashEnabled = getBoolean(properties, env, PropertyKey.CAIRO_WAL_SQUASH_ENABLED, false);
+        this.walSquashMaxRows = getLong(properties, env, PropertyKey.CAIRO_WAL_SQUASH_MAX_ROWS, 1_000_000);
+        this.walSquashMaxSize = getLongSize(properties, env, PropertyKey.CAIRO_WAL_SQUASH_MAX_SIZE, 64 * Numbers.SIZE_1MB);
 
         this.dbDirectory = getString(properties, env, PropertyKey.CAIRO_ROOT, DB_DIRECTORY);
         String tmpRoot;
@@ -737,6 +776,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.maxSwapFileCount = getInt(properties, env, PropertyKey.CAIRO_MAX_SWAP_FILE_COUNT, 30);
             this.parallelIndexThreshold = getInt(properties, env, PropertyKey.CAIRO_PARALLEL_INDEX_THRESHOLD, 100000);
             this.readerPoolMaxSegments = getInt(properties, env, PropertyKey.CAIRO_READER_POOL_MAX_SEGMENTS, 5);
+            this.readerLazyColumnMappingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_READER_LAZY_COLUMN_MAPPING_ENABLED, false);
+            this.readerMmapCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_READER_MMAP_CACHE_ENABLED, false);
             this.spinLockTimeout = getLong(properties, env, PropertyKey.CAIRO_SPIN_LOCK_TIMEOUT, 1_000);
             this.httpSqlCacheEnabled = getBoolean(properties, env, PropertyKey.HTTP_QUERY_CACHE_ENABLED, true);
             this.httpSqlCacheBlockCount = getInt(properties, env, PropertyKey.HTTP_QUERY_CACHE_BLOCK_COUNT, 4);
@@ -760,6 +801,9 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlSortKeyPageSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_KEY_PAGE_SIZE, 4 * Numbers.SIZE_1MB);
             this.sqlSortKeyMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_KEY_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlSortLightValuePageSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_PAGE_SIZE, 8 * 1048576);
+            this.sqlSpillMemoryBudget = getLongSize(properties, env, PropertyKey.CAIRO_SQL_SPILL_MEMORY_BUDGET, 0);
+            this.sqlSpillPartitionCount = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SQL_SPILL_PARTITION_COUNT, 16));
+            this.sqlSpillRoot = getString(properties, env, PropertyKey.CAIRO_SQL_SPILL_ROOT, tmpRoot);
             this.sqlSortLightValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlHashJoinValuePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE, 16777216);
             this.sqlHashJoinValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES, Integer.MAX_VALUE);
@@ -770,6 +814,12 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlSortValueMaxPages = getIntSize(properties, env, PropertyKey.CAIRO_SQL_SORT_VALUE_MAX_PAGES, Integer.MAX_VALUE);
             this.workStealTimeoutNanos = getLong(properties, env, PropertyKey.CAIRO_WORK_STEAL_TIMEOUT_NANOS, 10_000);
             this.parallelIndexingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARALLEL_INDEXING_ENABLED, true);
+            this.partitionCompressionEnabled = getBoolean(properties, env, PropertyKey.CAIRO_PARTITION_COMPRESSION_ENABLED, false);
+            this.partitionCompressionInterval = getLong(properties, env, PropertyKey.CAIRO_PARTITION_COMPRESSION_INTERVAL, 60_000);
+            this.partitionCompressionMinAgeUs = getLong(properties, env, PropertyKey.CAIRO_PARTITION_COMPRESSION_MIN_AGE, 30 * Dates.DAY_MILLIS) * 1_000L;
+            this.partitionTieringInterval = getLong(properties, env, PropertyKey.CAIRO_PARTITION_TIERING_INTERVAL, 60_000);
+            this.partitionTieringMinAgeUs = getLong(properties, env, PropertyKey.CAIRO_PARTITION_TIERING_MIN_AGE, 90 * Dates.DAY_MILLIS) * 1_000L;
+            this.partitionTieringRoot = getString(properties, env, PropertyKey.CAIRO_PARTITION_TIERING_ROOT, null);
             this.sqlJoinMetadataPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_PAGE_SIZE, 16384);
             this.sqlJoinMetadataMaxResizes = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JOIN_METADATA_MAX_RESIZES, Integer.MAX_VALUE);
             this.sqlAnalyticColumnPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_ANALYTIC_COLUMN_POOL_CAPACITY, 64);
@@ -792,6 +842,17 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, true);
             this.sqlParallelFilterPreTouchEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED, true);
+            this.sqlParallelGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_GROUPBY_ENABLED, true);
+            this.sqlParallelSampleByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_SAMPLEBY_ENABLED, true);
+            this.sqlParallelTopKEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_TOPK_ENABLED, true);
+            this.sqlRadixSortEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_RADIX_SORT_ENABLED, true);
+            this.sqlRadixSortMinRunSize = getLong(properties, env, PropertyKey.CAIRO_SQL_RADIX_SORT_MIN_RUN_SIZE, 262144);
+            this.sqlResultCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_ENABLED, false);
+            this.sqlResultCacheMaxEntrySize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_MAX_ENTRY_SIZE, 4 * Numbers.SIZE_1MB);
+            this.sqlResultCacheMemoryLimit = getLongSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_MEMORY_LIMIT, 64 * Numbers.SIZE_1MB);
+            this.sqlResultCachePageSize = getLongSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_PAGE_SIZE, 64 * 1024);
+            this.sqlVectorizedFunctionsEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_VECTORIZED_FUNCTIONS_ENABLED, false);
+            this.sqlVectorizedBatchSize = getInt(properties, env, PropertyKey.CAIRO_SQL_VECTORIZED_BATCH_SIZE, 1024);
             this.cairoPageFrameReduceShardCount = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 4);
             this.cairoPageFrameReduceTaskPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY, 4);
 
@@ -817,6 +878,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlDistinctTimestampLoadFactor = getDouble(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR, 0.5);
             this.sqlPageFrameMinRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 1_000);
             this.sqlPageFrameMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1_000_000);
+            this.sqlPageFrameReadAheadCount = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_READ_AHEAD_COUNT, 0);
 
             this.sqlJitMode = getSqlJitMode(properties, env);
             this.sqlJitIRMemoryPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE, 8 * 1024);
@@ -826,6 +888,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlJitRowsThreshold = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_ROWS_THRESHOLD, 1024 * 1024);
             this.sqlJitPageAddressCacheThreshold = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_PAGE_ADDRESS_CACHE_THRESHOLD, 1024 * 1024);
             this.sqlJitDebugEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_JIT_DEBUG_ENABLED, false);
+            this.sqlJitGroupByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_JIT_GROUPBY_ENABLED, false);
 
             String value = getString(properties, env, PropertyKey.CAIRO_WRITER_FO_OPTS, "o_none");
             long lopts = CairoConfiguration.O_NONE;
@@ -903,12 +966,15 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlAnalyticTreeKeyMaxPages = getInt(properties, env, PropertyKey.CAIRO_SQL_ANALYTIC_TREE_MAX_PAGES, Integer.MAX_VALUE);
             this.sqlTxnScoreboardEntryCount = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_O3_TXN_SCOREBOARD_ENTRY_COUNT, 16384));
             this.latestByQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_LATESTBY_QUEUE_CAPACITY, 32));
+            this.sortRunQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_SORT_RUN_QUEUE_CAPACITY, 32));
             this.telemetryEnabled = getBoolean(properties, env, PropertyKey.TELEMETRY_ENABLED, true);
             this.telemetryDisableCompletely = getBoolean(properties, env, PropertyKey.TELEMETRY_DISABLE_COMPLETELY, false);
             this.telemetryQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.TELEMETRY_QUEUE_CAPACITY, 512));
             this.telemetryHideTables = getBoolean(properties, env, PropertyKey.TELEMETRY_HIDE_TABLES, true);
             this.o3PartitionPurgeListCapacity = getInt(properties, env, PropertyKey.CAIRO_O3_PARTITION_PURGE_LIST_INITIAL_CAPACITY, 1);
             this.ioURingEnabled = getBoolean(properties, env, PropertyKey.CAIRO_IO_URING_ENABLED, true);
+            this.groupCommitEnabled = getBoolean(properties, env, PropertyKey.CAIRO_GROUP_COMMIT_ENABLED, false);
+            this.groupCommitWindowMicros = getLong(properties, env, PropertyKey.CAIRO_GROUP_COMMIT_WINDOW_MICROS, 100);
             this.cairoMaxCrashFiles = getInt(properties, env, PropertyKey.CAIRO_MAX_CRASH_FILES, 100);
 
             parseBindTo(properties, env, PropertyKey.LINE_UDP_BIND_TO, "0.0.0.0:9009", (a, p) -> {
@@ -1039,6 +1105,10 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.writerAsyncCommandBusyWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_BUSY_WAIT_TIMEOUT, 500);
             this.writerAsyncCommandMaxWaitTimeout = getLong(properties, env, PropertyKey.CAIRO_WRITER_ALTER_MAX_WAIT_TIMEOUT, 30_000);
             this.writerTickRowsCountMod = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_WRITER_TICK_ROWS_COUNT, 1024)) - 1;
+            this.zoneMapBlockRowCount = getInt(properties, env, PropertyKey.CAIRO_ZONE_MAP_BLOCK_ROW_COUNT, 65536);
+            this.zoneMapEnabled = getBoolean(properties, env, PropertyKey.CAIRO_ZONE_MAP_ENABLED, false);
+            this.bloomFilterBitsPerValue = getInt(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_BITS_PER_VALUE, 10);
+            this.bloomFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_BLOOM_FILTER_ENABLED, false);
             this.writerAsyncCommandQueueCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_WRITER_COMMAND_QUEUE_CAPACITY, 32));
             this.writerAsyncCommandQueueSlotSize = Numbers.ceilPow2(getLongSize(properties, env, PropertyKey.CAIRO_WRITER_COMMAND_QUEUE_SLOT_SIZE, 2048));
 
@@ -1535,6 +1605,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlBindVariablePoolSize;
         }
 
+        @Override
+        public int getBloomFilterBitsPerValue() {
+            return bloomFilterBitsPerValue;
+        }
+
         @Override
         public BuildInformation getBuildInformation() {
             return buildInformation;
@@ -1690,6 +1765,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlGroupByPoolCapacity;
         }
 
+        @Override
+        public long getGroupCommitWindowMicros() {
+            return groupCommitWindowMicros;
+        }
+
         @Override
         public long getIdleCheckInterval() {
             return idleCheckInterval;
@@ -1835,11 +1915,36 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexThreshold;
         }
 
+        @Override
+        public long getPartitionCompressionInterval() {
+            return partitionCompressionInterval;
+        }
+
+        @Override
+        public long getPartitionCompressionMinAge() {
+            return partitionCompressionMinAgeUs;
+        }
+
         @Override
         public int getPartitionPurgeListCapacity() {
             return o3PartitionPurgeListCapacity;
         }
 
+        @Override
+        public long getPartitionTieringInterval() {
+            return partitionTieringInterval;
+        }
+
+        @Override
+        public long getPartitionTieringMinAge() {
+            return partitionTieringMinAgeUs;
+        }
+
+        @Override
+        public CharSequence getPartitionTieringRoot() {
+            return partitionTieringRoot;
+        }
+
         @Override
         public int getQueryCacheEventQueueCapacity() {
             return queryCacheEventQueueCapacity;
@@ -1890,6 +1995,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return snapshotRoot;
         }
 
+        @Override
+        public int getSortRunQueueCapacity() {
+            return sortRunQueueCapacity;
+        }
+
         @Override
         public long getSpinLockTimeout() {
             return spinLockTimeout;
@@ -2115,6 +2225,31 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public int getSqlPageFrameReadAheadCount() {
+            return sqlPageFrameReadAheadCount;
+        }
+
+        @Override
+        public long getSqlRadixSortMinRunSize() {
+            return sqlRadixSortMinRunSize;
+        }
+
+        @Override
+        public long getSqlResultCacheMaxEntrySize() {
+            return sqlResultCacheMaxEntrySize;
+        }
+
+        @Override
+        public long getSqlResultCacheMemoryLimit() {
+            return sqlResultCacheMemoryLimit;
+        }
+
+        @Override
+        public long getSqlResultCachePageSize() {
+            return sqlResultCachePageSize;
+        }
+
         @Override
         public int getSqlSmallMapKeyCapacity() {
             return sqlSmallMapKeyCapacity;
@@ -2150,6 +2285,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlSortValuePageSize;
         }
 
+        @Override
+        public long getSqlSpillMemoryBudget() {
+            return sqlSpillMemoryBudget;
+        }
+
+        @Override
+        public int getSqlSpillPartitionCount() {
+            return sqlSpillPartitionCount;
+        }
+
+        @Override
+        public CharSequence getSqlSpillRoot() {
+            return sqlSpillRoot;
+        }
+
+        @Override
+        public int getSqlVectorizedBatchSize() {
+            return sqlVectorizedBatchSize;
+        }
+
         @Override
         public int getStrFunctionMaxBufferLength() {
             return sqlStrFunctionBufferMaxSize;
@@ -2184,6 +2339,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return vectorAggregateQueueCapacity;
         }
 
+        @Override
+        public long getWalApplyTableTimeQuota() {
+            return walApplyTableTimeQuota;
+        }
+
         @Override
         public boolean getWalEnabledDefault() {
             return walEnabledDefault;
@@ -2204,6 +2364,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return walSegmentRolloverRowCount;
         }
 
+        @Override
+        public long getWalSquashMaxRows() {
+            return walSquashMaxRows;
+        }
+
+        @Override
+        public long getWalSquashMaxSize() {
+            return walSquashMaxSize;
+        }
+
         @Override
         public int getWalTxnNotificationQueueCapacity() {
             return walTxnNotificationQueueCapacity;
@@ -2249,6 +2419,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return writerTickRowsCountMod;
         }
 
+        @Override
+        public int getZoneMapBlockRowCount() {
+            return zoneMapBlockRowCount;
+        }
+
+        @Override
+        public boolean isBloomFilterEnabled() {
+            return bloomFilterEnabled;
+        }
+
+        @Override
+        public boolean isGroupCommitEnabled() {
+            return groupCommitEnabled;
+        }
+
         @Override
         public boolean isIOURingEnabled() {
             return ioURingEnabled;
@@ -2264,11 +2449,26 @@ public class PropServerConfiguration implements ServerConfiguration {
             return parallelIndexingEnabled;
         }
 
+        @Override
+        public boolean isPartitionCompressionEnabled() {
+            return partitionCompressionEnabled;
+        }
+
         @Override
         public boolean isReadOnlyInstance() {
             return isReadOnlyInstance;
         }
 
+        @Override
+        public boolean isReaderLazyColumnMappingEnabled() {
+            return readerLazyColumnMappingEnabled;
+        }
+
+        @Override
+        public boolean isReaderMmapCacheEnabled() {
+            return readerMmapCacheEnabled;
+        }
+
         @Override
         public boolean isSnapshotRecoveryEnabled() {
             return snapshotRecoveryEnabled;
@@ -2279,6 +2479,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlJitDebugEnabled;
         }
 
+        @Override
+        public boolean isSqlJitGroupByEnabled() {
+            return sqlJitGroupByEnabled;
+        }
+
         @Override
         public boolean isSqlParallelFilterEnabled() {
             return sqlParallelFilterEnabled;
@@ -2289,10 +2494,50 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlParallelFilterPreTouchEnabled;
         }
 
+        @Override
+        public boolean isSqlParallelGroupByEnabled() {
+            return sqlParallelGroupByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelSampleByEnabled() {
+            return sqlParallelSampleByEnabled;
+        }
+
+        @Override
+        public boolean isSqlParallelTopKEnabled() {
+            return sqlParallelTopKEnabled;
+        }
+
+        @Override
+        public boolean isSqlRadixSortEnabled() {
+            return sqlRadixSortEnabled;
+        }
+
+        @Override
+        public boolean isSqlResultCacheEnabled() {
+            return sqlResultCacheEnabled;
+        }
+
+        @Override
+        public boolean isWalSquashEnabled() {
+            return walSquashEnabled;
+        }
+
+        @Override
+        public boolean isSqlVectorizedFunctionsEnabled() {
+            return sqlVectorizedFunctionsEnabled;
+        }
+
         public boolean isWalSupported() {
             return isWalSupported;
         }
 
+        @Override
+        public boolean isZoneMapEnabled() {
+            return zoneMapEnabled;
+        }
+
         @Override
         public boolean mangleTableDirNames() {
             return false;
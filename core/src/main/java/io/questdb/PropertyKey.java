@@ -48,12 +48,16 @@ public enum PropertyKey {
     CAIRO_DEFAULT_SYMBOL_CAPACITY("cairo.default.symbol.capacity"),
     CAIRO_FILE_OPERATION_RETRY_COUNT("cairo.file.operation.retry.count"),
     CAIRO_IDLE_CHECK_INTERVAL("cairo.idle.check.interval"),
+    CAIRO_GROUP_COMMIT_ENABLED("cairo.group.commit.enabled"),
+    CAIRO_GROUP_COMMIT_WINDOW_MICROS("cairo.group.commit.window.micros"),
     CAIRO_INACTIVE_READER_TTL("cairo.inactive.reader.ttl"),
     CAIRO_INACTIVE_WRITER_TTL("cairo.inactive.writer.ttl"),
     CAIRO_INDEX_VALUE_BLOCK_SIZE("cairo.index.value.block.size"),
     CAIRO_MAX_SWAP_FILE_COUNT("cairo.max.swap.file.count"),
     CAIRO_PARALLEL_INDEX_THRESHOLD("cairo.parallel.index.threshold"),
     CAIRO_READER_POOL_MAX_SEGMENTS("cairo.reader.pool.max.segments"),
+    CAIRO_READER_LAZY_COLUMN_MAPPING_ENABLED("cairo.reader.lazy.column.mapping.enabled"),
+    CAIRO_READER_MMAP_CACHE_ENABLED("cairo.reader.mmap.cache.enabled"),
     CAIRO_SPIN_LOCK_TIMEOUT("cairo.spin.lock.timeout"),
     CAIRO_CHARACTER_STORE_CAPACITY("cairo.character.store.capacity"),
     CAIRO_CHARACTER_STORE_SEQUENCE_POOL_CAPACITY("cairo.character.store.sequence.pool.capacity"),
@@ -73,6 +77,9 @@ public enum PropertyKey {
     CAIRO_SQL_SORT_KEY_PAGE_SIZE("cairo.sql.sort.key.page.size"),
     CAIRO_SQL_SORT_KEY_MAX_PAGES("cairo.sql.sort.key.max.pages"),
     CAIRO_SQL_SORT_LIGHT_VALUE_PAGE_SIZE("cairo.sql.sort.light.value.page.size"),
+    CAIRO_SQL_SPILL_MEMORY_BUDGET("cairo.sql.spill.memory.budget"),
+    CAIRO_SQL_SPILL_PARTITION_COUNT("cairo.sql.spill.partition.count"),
+    CAIRO_SQL_SPILL_ROOT("cairo.sql.spill.root"),
     CAIRO_SQL_SORT_LIGHT_VALUE_MAX_PAGES("cairo.sql.sort.light.value.max.pages"),
     CAIRO_SQL_HASH_JOIN_VALUE_PAGE_SIZE("cairo.sql.hash.join.value.page.size"),
     CAIRO_SQL_HASH_JOIN_VALUE_MAX_PAGES("cairo.sql.hash.join.value.max.pages"),
@@ -83,11 +90,32 @@ public enum PropertyKey {
     CAIRO_SQL_SORT_VALUE_MAX_PAGES("cairo.sql.sort.value.max.pages"),
     CAIRO_WORK_STEAL_TIMEOUT_NANOS("cairo.work.steal.timeout.nanos"),
     CAIRO_PARALLEL_INDEXING_ENABLED("cairo.parallel.indexing.enabled"),
+    CAIRO_PARTITION_COMPRESSION_ENABLED("cairo.partition.compression.enabled"),
+    CAIRO_PARTITION_COMPRESSION_INTERVAL("cairo.partition.compression.interval"),
+    CAIRO_PARTITION_COMPRESSION_MIN_AGE("cairo.partition.compression.min.age"),
+    CAIRO_PARTITION_TIERING_INTERVAL("cairo.partition.tiering.interval"),
+    CAIRO_PARTITION_TIERING_MIN_AGE("cairo.partition.tiering.min.age"),
+    CAIRO_PARTITION_TIERING_ROOT("cairo.partition.tiering.root"),
+    CAIRO_ZONE_MAP_BLOCK_ROW_COUNT("cairo.zone.map.block.row.count"),
+    CAIRO_ZONE_MAP_ENABLED("cairo.zone.map.enabled"),
+    CAIRO_BLOOM_FILTER_BITS_PER_VALUE("cairo.bloom.filter.bits.per.value"),
+    CAIRO_BLOOM_FILTER_ENABLED("cairo.bloom.filter.enabled"),
     CAIRO_PAGE_FRAME_REDUCE_QUEUE_CAPACITY("cairo.page.frame.reduce.queue.capacity"),
     CAIRO_PAGE_FRAME_ROWID_LIST_CAPACITY("cairo.page.frame.rowid.list.capacity"),
     CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY("cairo.page.frame.column.list.capacity"),
     CAIRO_SQL_PARALLEL_FILTER_ENABLED("cairo.sql.parallel.filter.enabled"),
     CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED("cairo.sql.parallel.filter.pretouch.enabled"),
+    CAIRO_SQL_PARALLEL_GROUPBY_ENABLED("cairo.sql.parallel.groupby.enabled"),
+    CAIRO_SQL_PARALLEL_SAMPLEBY_ENABLED("cairo.sql.parallel.sampleby.enabled"),
+    CAIRO_SQL_PARALLEL_TOPK_ENABLED("cairo.sql.parallel.topk.enabled"),
+    CAIRO_SQL_RADIX_SORT_ENABLED("cairo.sql.radix.sort.enabled"),
+    CAIRO_SQL_RADIX_SORT_MIN_RUN_SIZE("cairo.sql.radix.sort.min.run.size"),
+    CAIRO_SQL_VECTORIZED_FUNCTIONS_ENABLED("cairo.sql.vectorized.functions.enabled"),
+    CAIRO_SQL_VECTORIZED_BATCH_SIZE("cairo.sql.vectorized.batch.size"),
+    CAIRO_SQL_RESULT_CACHE_ENABLED("cairo.sql.result.cache.enabled"),
+    CAIRO_SQL_RESULT_CACHE_MAX_ENTRY_SIZE("cairo.sql.result.cache.max.entry.size"),
+    CAIRO_SQL_RESULT_CACHE_MEMORY_LIMIT("cairo.sql.result.cache.memory.limit"),
+    CAIRO_SQL_RESULT_CACHE_PAGE_SIZE("cairo.sql.result.cache.page.size"),
     CAIRO_PAGE_FRAME_SHARD_COUNT("cairo.page.frame.shard.count"),
     CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY("cairo.page.frame.task.pool.capacity"),
     CAIRO_SQL_JOIN_METADATA_PAGE_SIZE("cairo.sql.join.metadata.page.size"),
@@ -115,6 +143,7 @@ public enum PropertyKey {
     CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR("cairo.sql.distinct.timestamp.load.factor"),
     CAIRO_SQL_PAGE_FRAME_MIN_ROWS("cairo.sql.page.frame.min.rows"),
     CAIRO_SQL_PAGE_FRAME_MAX_ROWS("cairo.sql.page.frame.max.rows"),
+    CAIRO_SQL_PAGE_FRAME_READ_AHEAD_COUNT("cairo.sql.page.frame.read.ahead.count"),
     CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE("cairo.sql.jit.ir.memory.page.size"),
     CAIRO_SQL_JIT_IR_MEMORY_MAX_PAGES("cairo.sql.jit.ir.memory.max.pages"),
     CAIRO_SQL_JIT_BIND_VARS_MEMORY_PAGE_SIZE("cairo.sql.jit.bind.vars.memory.page.size"),
@@ -122,6 +151,7 @@ public enum PropertyKey {
     CAIRO_SQL_JIT_ROWS_THRESHOLD("cairo.sql.jit.rows.threshold"),
     CAIRO_SQL_JIT_PAGE_ADDRESS_CACHE_THRESHOLD("cairo.sql.jit.page.address.cache.threshold"),
     CAIRO_SQL_JIT_DEBUG_ENABLED("cairo.sql.jit.debug.enabled"),
+    CAIRO_SQL_JIT_GROUPBY_ENABLED("cairo.sql.jit.groupby.enabled"),
     CAIRO_WRITER_FO_OPTS("cairo.writer.fo_opts"),
     CAIRO_SQL_COPY_FORMATS_FILE("cairo.sql.copy.formats.file"),
     CAIRO_SQL_COPY_MODEL_POOL_CAPACITY("cairo.sql.copy.model.pool.capacity"),
@@ -163,6 +193,7 @@ public enum PropertyKey {
     CAIRO_SQL_ANALYTIC_TREE_MAX_PAGES("cairo.sql.analytic.tree.max.pages"),
     CAIRO_O3_TXN_SCOREBOARD_ENTRY_COUNT("cairo.o3.txn.scoreboard.entry.count"),
     CAIRO_LATESTBY_QUEUE_CAPACITY("cairo.latestby.queue.capacity"),
+    CAIRO_SORT_RUN_QUEUE_CAPACITY("cairo.sort.run.queue.capacity"),
     CAIRO_O3_PARTITION_PURGE_LIST_INITIAL_CAPACITY("cairo.o3.partition.purge.list.initial.capacity"),
     CAIRO_O3_ENABLED("cairo.o3.enabled"),
     CAIRO_QUERY_CACHE_EVENT_QUEUE_CAPACITY("cairo.query.cache.event.queue.capacity"),
@@ -373,9 +404,13 @@ public enum PropertyKey {
     LINE_AUTO_CREATE_NEW_COLUMNS("line.auto.create.new.columns"),
     LINE_AUTO_CREATE_NEW_TABLES("line.auto.create.new.tables"),
     CAIRO_SIMULATE_CRASH_ENABLED("cairo.enable.crash.simulation"),
+    CAIRO_WAL_APPLY_TABLE_TIME_QUOTA("cairo.wal.apply.table.time.quota"),
     CAIRO_WAL_ENABLED_DEFAULT("cairo.wal.enabled.default"),
     CAIRO_WAL_PURGE_INTERVAL("cairo.wal.purge.interval"),
     CAIRO_WAL_SEGMENT_ROLLOVER_ROW_COUNT("cairo.wal.segment.rollover.row.count"),
+    CAIRO_WAL_SQUASH_ENABLED("cairo.wal.squash.enabled"),
+    CAIRO_WAL_SQUASH_MAX_ROWS("cairo.wal.squash.max.rows"),
+    CAIRO_WAL_SQUASH_MAX_SIZE("cairo.wal.squash.max.size"),
     WAL_APPLY_WORKER_COUNT("wal.apply.worker.count"),
     WAL_APPLY_WORKER_AFFINITY("wal.apply.worker.affinity"),
     WAL_APPLY_WORKER_HALT_ON_ERROR("wal.apply.worker.haltOnError"),
@@ -28,6 +28,9 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.ColumnIndexerJob;
 import io.questdb.cairo.O3Utils;
+import io.questdb.cairo.PartitionCompressionJob;
+import io.questdb.cairo.PartitionTieringJob;
+import io.questdb.cairo.mv.MatViewRefreshJob;
 import io.questdb.cairo.wal.CheckWalTransactionsJob;
 import io.questdb.cairo.wal.WalPurgeJob;
 import io.questdb.cairo.wal.WalUtils;
@@ -38,6 +41,7 @@ import io.questdb.griffin.DatabaseSnapshotAgent;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.FunctionFactoryCache;
 import io.questdb.griffin.engine.groupby.vect.GroupByJob;
+import io.questdb.griffin.engine.orderby.SortRunJob;
 import io.questdb.griffin.engine.table.AsyncFilterAtom;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
 import io.questdb.log.Log;
@@ -101,6 +105,7 @@ public class ServerMain implements Closeable {
                     sharedPool.assign(new ColumnIndexerJob(messageBus));
                     sharedPool.assign(new GroupByJob(messageBus));
                     sharedPool.assign(new LatestByAllIndexedJob(messageBus));
+                    sharedPool.assign(new SortRunJob(messageBus));
 
                     if (!isReadOnly) {
                         O3Utils.setupWorkerPool(
@@ -110,6 +115,14 @@ public class ServerMain implements Closeable {
                                 ffCache
                         );
 
+                        if (cairoConfig.isPartitionCompressionEnabled()) {
+                            sharedPool.assign(new PartitionCompressionJob(engine));
+                        }
+
+                        if (cairoConfig.getPartitionTieringRoot() != null) {
+                            sharedPool.assign(new PartitionTieringJob(engine));
+                        }
+
                         if (walSupported) {
                             sharedPool.assign(new CheckWalTransactionsJob(engine));
                             final WalPurgeJob walPurgeJob = new WalPurgeJob(engine);
@@ -118,6 +131,10 @@ public class ServerMain implements Closeable {
                             sharedPool.assign(walPurgeJob);
                             sharedPool.freeOnExit(walPurgeJob);
 
+                            final MatViewRefreshJob matViewRefreshJob = new MatViewRefreshJob(engine, sharedPool.getWorkerCount(), getSharedWorkerCount());
+                            sharedPool.assign(matViewRefreshJob);
+                            sharedPool.freeOnExit(matViewRefreshJob);
+
                             if (!config.getWalApplyPoolConfiguration().isEnabled()) {
                                 WalUtils.setupWorkerPool(sharedPool, engine, getSharedWorkerCount());
                             }
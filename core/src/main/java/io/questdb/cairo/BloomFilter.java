@@ -0,0 +1,291 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+/**
+ * Split block bloom filter of column values within a partition. Bloom filter of a column is kept in
+ * "name.bf[.txn]" file next to the column file. The file starts with partition row count and block count,
+ * followed by 256-bit blocks. Each value sets one bit in every 32-bit word of the block picked by its hash.
+ * Nulls are not added to the filter.
+ * <p>
+ * Instances probe the filter of a single partition, they only ever read the blocks values map to.
+ */
+public class BloomFilter implements QuietCloseable {
+    public static final int BLOCK_SIZE = 8 * Integer.BYTES;
+    public static final int HEADER_SIZE = 2 * Long.BYTES;
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final Log LOG = LogFactory.getLog(BloomFilter.class);
+    private static final int[] SALT = {
+            0x47b6137b, 0x44974d91, 0x8824ad5b, 0xa2b7289d,
+            0x705495c7, 0x2df1424b, 0x9efc4947, 0x5c6bfb31
+    };
+    private long blockCount;
+    private long bufAddr;
+    private FilesFacade ff;
+    private int fd = -1;
+
+    /**
+     * Writes bloom filter of a column. Missing column file, e.g. of a compressed column, is ignored.
+     *
+     * @param path partition path, it is restored before the method returns
+     */
+    public static void build(
+            FilesFacade ff,
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long rowCount,
+            int bitsPerValue,
+            long opts
+    ) {
+        final int plen = path.length();
+        final long valueCount = Math.max(0, rowCount - columnTop);
+        final long blockCount = Math.max(1, (valueCount * bitsPerValue + BLOCK_SIZE * 8 - 1) / (BLOCK_SIZE * 8));
+        final long bufSize = HEADER_SIZE + blockCount * BLOCK_SIZE;
+        final boolean string = ColumnType.tagOf(columnType) == ColumnType.STRING;
+        int fd = -1;
+        int auxFd = -1;
+        long addr = 0;
+        long size = 0;
+        long auxAddr = 0;
+        long buf = 0;
+        try {
+            if (valueCount > 0) {
+                fd = ff.openRO(TableUtils.dFile(path, columnName, columnNameTxn));
+                if (fd < 0) {
+                    return;
+                }
+                if (string) {
+                    auxFd = ff.openRO(TableUtils.iFile(path.trimTo(plen), columnName, columnNameTxn));
+                    if (auxFd < 0) {
+                        return;
+                    }
+                    size = ff.length(fd);
+                    if (ff.length(auxFd) < valueCount << 3 || size < Integer.BYTES) {
+                        LOG.error().$("column is shorter than partition, bloom filter skipped [path=").$(path)
+                                .$(", rowCount=").$(rowCount)
+                                .$(", columnTop=").$(columnTop)
+                                .I$();
+                        return;
+                    }
+                    auxAddr = TableUtils.mapRO(ff, auxFd, valueCount << 3, MemoryTag.MMAP_TABLE_WRITER);
+                } else {
+                    size = valueCount << 3;
+                    if (ff.length(fd) < size) {
+                        LOG.error().$("column is shorter than partition, bloom filter skipped [path=").$(path)
+                                .$(", rowCount=").$(rowCount)
+                                .$(", columnTop=").$(columnTop)
+                                .I$();
+                        return;
+                    }
+                }
+                addr = TableUtils.mapRO(ff, fd, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+
+            buf = Unsafe.calloc(bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            Unsafe.getUnsafe().putLong(buf, rowCount);
+            Unsafe.getUnsafe().putLong(buf + Long.BYTES, blockCount);
+            final long blocksAddr = buf + HEADER_SIZE;
+            for (long i = 0; i < valueCount; i++) {
+                if (string) {
+                    final long offset = Unsafe.getUnsafe().getLong(auxAddr + (i << 3));
+                    final int len = offset > -1 && offset <= size - Integer.BYTES ? Unsafe.getUnsafe().getInt(addr + offset) : 0;
+                    if (offset < 0 || offset + Integer.BYTES + ((long) len << 1) > size) {
+                        LOG.error().$("corrupt string column, bloom filter skipped [path=").$(path)
+                                .$(", row=").$(columnTop + i)
+                                .$(", offset=").$(offset)
+                                .I$();
+                        return;
+                    }
+                    if (len != TableUtils.NULL_LEN) {
+                        add(blocksAddr, blockCount, hash(addr + offset + Integer.BYTES, len));
+                    }
+                } else {
+                    final long value = Unsafe.getUnsafe().getLong(addr + (i << 3));
+                    if (value != Numbers.LONG_NaN) {
+                        add(blocksAddr, blockCount, hash(value));
+                    }
+                }
+            }
+
+            // bloom filter becomes visible only when complete
+            final int len = TableUtils.bfFile(path.trimTo(plen), columnName, columnNameTxn).length();
+            final Path tmp = Path.getThreadLocal2(path).put(".tmp").$();
+            ColumnCodecs.writeFile(ff, tmp, buf, bufSize, opts);
+            if (ff.rename(tmp, path.trimTo(len).$()) != Files.FILES_RENAME_OK) {
+                LOG.error().$("could not rename bloom filter [errno=").$(ff.errno()).$(", file=").$(path).I$();
+                ff.remove(tmp);
+            }
+        } finally {
+            if (buf != 0) {
+                Unsafe.free(buf, bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            }
+            if (addr != 0) {
+                ff.munmap(addr, size, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (auxAddr != 0) {
+                ff.munmap(auxAddr, valueCount << 3, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (fd > -1) {
+                ff.close(fd);
+            }
+            if (auxFd > -1) {
+                ff.close(auxFd);
+            }
+            path.trimTo(plen);
+        }
+    }
+
+    public static long hash(long value) {
+        return mix(value);
+    }
+
+    public static long hash(CharSequence value) {
+        return hash(value, 0, value.length());
+    }
+
+    /**
+     * @return hash of the lo..hi (exclusive) chars of the value, e.g. of a quoted literal without quotes
+     */
+    public static long hash(CharSequence value, int lo, int hi) {
+        long h = FNV_OFFSET;
+        for (int i = lo; i < hi; i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return mix(h ^ (hi - lo));
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+            case ColumnType.STRING:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        closeFd();
+        if (bufAddr != 0) {
+            bufAddr = Unsafe.free(bufAddr, BLOCK_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    /**
+     * @param hash value hash, see {@link #hash(long)} and {@link #hash(CharSequence)}
+     * @return false when the value is not in the partition for sure
+     */
+    public boolean mightContain(long hash) {
+        if (fd < 0) {
+            return true;
+        }
+        final long offset = HEADER_SIZE + blockIndex(hash, blockCount) * BLOCK_SIZE;
+        if (ff.read(fd, bufAddr, BLOCK_SIZE, offset) != BLOCK_SIZE) {
+            return true;
+        }
+        final int key = (int) hash;
+        for (int i = 0; i < SALT.length; i++) {
+            if ((Unsafe.getUnsafe().getInt(bufAddr + ((long) i << 2)) & mask(key, i)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Opens bloom filter of a partition.
+     *
+     * @return false when bloom filter does not exist or does not describe the partition
+     */
+    public boolean of(FilesFacade ff, LPSZ file, long partitionRowCount) {
+        closeFd();
+        this.ff = ff;
+        fd = ff.openRO(file);
+        if (fd < 0) {
+            return false;
+        }
+        if (bufAddr == 0) {
+            bufAddr = Unsafe.malloc(BLOCK_SIZE, MemoryTag.NATIVE_DEFAULT);
+        }
+        blockCount = ff.read(fd, bufAddr, HEADER_SIZE, 0) == HEADER_SIZE ? Unsafe.getUnsafe().getLong(bufAddr + Long.BYTES) : 0;
+        if (blockCount < 1 || Unsafe.getUnsafe().getLong(bufAddr) != partitionRowCount || ff.length(fd) < HEADER_SIZE + blockCount * BLOCK_SIZE) {
+            // partition has been changed since bloom filter was written
+            closeFd();
+            return false;
+        }
+        return true;
+    }
+
+    private static void add(long blocksAddr, long blockCount, long hash) {
+        final long p = blocksAddr + blockIndex(hash, blockCount) * BLOCK_SIZE;
+        final int key = (int) hash;
+        for (int i = 0; i < SALT.length; i++) {
+            final long wordAddr = p + ((long) i << 2);
+            Unsafe.getUnsafe().putInt(wordAddr, Unsafe.getUnsafe().getInt(wordAddr) | mask(key, i));
+        }
+    }
+
+    private static long blockIndex(long hash, long blockCount) {
+        // multiply-shift maps upper 32 bits of the hash onto [0, blockCount)
+        return ((hash >>> 32) * blockCount) >>> 32;
+    }
+
+    private static long hash(long addr, int len) {
+        long h = FNV_OFFSET;
+        for (int i = 0; i < len; i++) {
+            h = (h ^ Unsafe.getUnsafe().getChar(addr + ((long) i << 1))) * FNV_PRIME;
+        }
+        return mix(h ^ len);
+    }
+
+    private static int mask(int key, int word) {
+        return 1 << ((key * SALT[word]) >>> 27);
+    }
+
+    private static long mix(long h) {
+        // murmur3 finalizer, spreads every input bit over the whole hash
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    private void closeFd() {
+        if (fd > -1) {
+            ff.close(fd);
+            fd = -1;
+        }
+    }
+}
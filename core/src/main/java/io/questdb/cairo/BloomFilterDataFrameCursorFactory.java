@@ -0,0 +1,183 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Skips partitions whose bloom filters prove that one of "column = constant" or "column IN (constants)"
+ * predicates cannot hold. Predicate i holds value hashes from hashHi[i - 1] (inclusive) to hashHi[i] (exclusive).
+ * Partitions without up-to-date bloom filter, e.g. the one open for appends, are always scanned.
+ */
+public class BloomFilterDataFrameCursorFactory implements DataFrameCursorFactory {
+    private final DataFrameCursorFactory base;
+    private final BloomFilter bloomFilter = new BloomFilter();
+    private final IntList columnIndexes = new IntList();
+    private final BloomFilterDataFrameCursor cursor = new BloomFilterDataFrameCursor();
+    private final IntList hashHi = new IntList();
+    private final LongList hashes = new LongList();
+
+    public BloomFilterDataFrameCursorFactory(DataFrameCursorFactory base, IntList columnIndexes, LongList hashes, IntList hashHi) {
+        this.base = base;
+        this.columnIndexes.addAll(columnIndexes);
+        this.hashes.add(hashes);
+        this.hashHi.addAll(hashHi);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(base);
+        Misc.free(bloomFilter);
+    }
+
+    @Override
+    public DataFrameCursor getCursor(SqlExecutionContext executionContext, int order) throws SqlException {
+        return cursor.of(base.getCursor(executionContext, order));
+    }
+
+    @Override
+    public RecordMetadata getMetadata() {
+        return base.getMetadata();
+    }
+
+    @Override
+    public int getOrder() {
+        return base.getOrder();
+    }
+
+    @Override
+    public boolean supportTableRowId(TableToken tableToken) {
+        return base.supportTableRowId(tableToken);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+        sink.attr("bloom filter");
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            if (i > 0) {
+                sink.val(',');
+            }
+            sink.val(base.getMetadata().getColumnName(columnIndexes.getQuick(i)));
+        }
+    }
+
+    @Override
+    public void toSink(CharSink sink) {
+        base.toSink(sink);
+    }
+
+    private boolean mayMatch(TableReader reader, int partitionIndex) {
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            if (!reader.readBloomFilter(partitionIndex, columnIndexes.getQuick(i), bloomFilter)) {
+                continue;
+            }
+            boolean mightContain = false;
+            for (int j = i > 0 ? hashHi.getQuick(i - 1) : 0, hi = hashHi.getQuick(i); j < hi && !mightContain; j++) {
+                mightContain = bloomFilter.mightContain(hashes.getQuick(j));
+            }
+            if (!mightContain) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class BloomFilterDataFrameCursor implements DataFrameCursor {
+        private DataFrameCursor baseCursor;
+        private int partitionIndex;
+        private boolean partitionMayMatch;
+
+        @Override
+        public void close() {
+            baseCursor = Misc.free(baseCursor);
+            // release bloom filter file descriptor along with the reader
+            Misc.free(bloomFilter);
+        }
+
+        @Override
+        public StaticSymbolTable getSymbolTable(int columnIndex) {
+            return baseCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public TableReader getTableReader() {
+            return baseCursor.getTableReader();
+        }
+
+        @Override
+        public StaticSymbolTable newSymbolTable(int columnIndex) {
+            return baseCursor.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public @Nullable DataFrame next() {
+            DataFrame frame;
+            while ((frame = baseCursor.next()) != null) {
+                // interval cursors may return several frames of the same partition
+                if (frame.getPartitionIndex() != partitionIndex) {
+                    partitionIndex = frame.getPartitionIndex();
+                    partitionMayMatch = mayMatch(baseCursor.getTableReader(), partitionIndex);
+                }
+                if (partitionMayMatch) {
+                    return frame;
+                }
+            }
+            return null;
+        }
+
+        public BloomFilterDataFrameCursor of(DataFrameCursor baseCursor) {
+            this.baseCursor = baseCursor;
+            partitionIndex = -1;
+            return this;
+        }
+
+        @Override
+        public boolean reload() {
+            partitionIndex = -1;
+            return baseCursor.reload();
+        }
+
+        @Override
+        public long size() {
+            // skipped partitions are not known upfront
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+            partitionIndex = -1;
+            baseCursor.toTop();
+        }
+    }
+}
@@ -74,6 +74,8 @@ public interface CairoConfiguration {
 
     int getBindVariablePoolSize();
 
+    int getBloomFilterBitsPerValue();
+
     BuildInformation getBuildInformation();
 
     SqlExecutionCircuitBreakerConfiguration getCircuitBreakerConfiguration();
@@ -136,6 +138,15 @@ public interface CairoConfiguration {
 
     int getGroupByPoolCapacity();
 
+    /**
+     * Maximum time the first writer of a group commit waits for concurrently committing
+     * writers to join before syncing on behalf of all of them. There is no wait when no
+     * other writer is committing.
+     *
+     * @return group commit window in microseconds
+     */
+    long getGroupCommitWindowMicros();
+
     default IOURingFacade getIOURingFacade() {
         return IOURingFacadeImpl.INSTANCE;
     }
@@ -229,8 +240,19 @@ public interface CairoConfiguration {
 
     int getParallelIndexThreshold();
 
+    long getPartitionCompressionInterval();
+
+    long getPartitionCompressionMinAge();
+
     int getPartitionPurgeListCapacity();
 
+    long getPartitionTieringInterval();
+
+    long getPartitionTieringMinAge();
+
+    // cold volume directory aged partitions are moved to, null disables partition tiering
+    CharSequence getPartitionTieringRoot();
+
     int getQueryCacheEventQueueCapacity();
 
     default Rnd getRandom() {
@@ -273,6 +295,8 @@ public interface CairoConfiguration {
 
     CharSequence getSnapshotRoot(); // same as root/../snapshot
 
+    int getSortRunQueueCapacity();
+
     long getSpinLockTimeout();
 
     int getSqlAnalyticRowIdMaxPages();
@@ -369,6 +393,26 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    /**
+     * Number of page frames ahead of the one being reduced whose column pages are
+     * advised to the OS for read-ahead. Zero disables read-ahead.
+     */
+    int getSqlPageFrameReadAheadCount();
+
+    /**
+     * Minimum number of rows in a run sorted by a single worker in radix sort ORDER BY.
+     * Sort indexes of fewer than two runs are sorted by the query thread alone.
+     *
+     * @return minimum number of rows in a sorted run
+     */
+    long getSqlRadixSortMinRunSize();
+
+    long getSqlResultCacheMaxEntrySize();
+
+    long getSqlResultCacheMemoryLimit();
+
+    long getSqlResultCachePageSize();
+
     int getSqlSmallMapKeyCapacity();
 
     int getSqlSortKeyMaxPages();
@@ -383,6 +427,24 @@ public interface CairoConfiguration {
 
     int getSqlSortValuePageSize();
 
+    /**
+     * Memory budget of a single GROUP BY hash map. Once the map grows beyond the budget,
+     * rows with new keys are spilled to disk and aggregated partition-at-a-time.
+     * Keyed GROUP BY queries are executed single-threaded when the budget is set.
+     * Radix sort ORDER BY moves its row id index to a memory-mapped file once it outgrows the budget.
+     * Hash joins stop growing their hash table of the slave side at the budget, the remaining slave rows
+     * are spilled to disk and joined partition-at-a-time.
+     *
+     * @return memory budget in bytes, 0 disables spilling
+     */
+    long getSqlSpillMemoryBudget();
+
+    int getSqlSpillPartitionCount();
+
+    CharSequence getSqlSpillRoot();
+
+    int getSqlVectorizedBatchSize();
+
     int getStrFunctionMaxBufferLength();
 
     CharSequence getSystemTableNamePrefix();
@@ -397,6 +459,14 @@ public interface CairoConfiguration {
 
     int getVectorAggregateQueueCapacity();
 
+    /**
+     * Time an apply job may spend on a single WAL table before it moves on to other lagging tables.
+     * At least one transaction is applied regardless of the quota.
+     *
+     * @return time quota in milliseconds
+     */
+    long getWalApplyTableTimeQuota();
+
     boolean getWalEnabledDefault();
 
     long getWalPurgeInterval();
@@ -405,6 +475,20 @@ public interface CairoConfiguration {
 
     long getWalSegmentRolloverRowCount();
 
+    /**
+     * A run of squashed WAL transactions is committed once it reaches this many rows.
+     *
+     * @return maximum number of rows of squashed WAL transactions
+     */
+    long getWalSquashMaxRows();
+
+    /**
+     * A run of squashed WAL transactions is committed once its in-memory copy reaches this size.
+     *
+     * @return maximum size in bytes of squashed WAL transactions
+     */
+    long getWalSquashMaxSize();
+
     int getWalTxnNotificationQueueCapacity();
 
     int getWithClauseModelPoolCapacity();
@@ -423,14 +507,46 @@ public interface CairoConfiguration {
 
     int getWriterTickRowsCountMod();
 
+    int getZoneMapBlockRowCount();
+
+    boolean isBloomFilterEnabled();
+
+    /**
+     * When enabled, {@link CommitMode#SYNC} commits of concurrent table writers are made durable
+     * in groups: the written files of all group members are fsynced together, each file once, by
+     * the member threads in parallel.
+     *
+     * @return true when group commit is enabled
+     */
+    boolean isGroupCommitEnabled();
+
     boolean isIOURingEnabled();
 
     boolean isO3QuickSortEnabled();
 
     boolean isParallelIndexingEnabled();
 
+    boolean isPartitionCompressionEnabled();
+
     boolean isReadOnlyInstance();
 
+    /**
+     * When enabled, table readers map column files of a partition on first access rather than
+     * when the partition is opened, so that queries touching few columns of a wide table
+     * do not pay for mapping all of them.
+     *
+     * @return true when column files are mapped lazily
+     */
+    boolean isReaderLazyColumnMappingEnabled();
+
+    /**
+     * When enabled, pooled table readers share read-only mappings of column files, so that
+     * concurrent readers of a partition map each file once. Defaults to {@code false}.
+     *
+     * @return true when column file mappings are shared across readers
+     */
+    boolean isReaderMmapCacheEnabled();
+
     /**
      * A flag to enable/disable snapshot recovery mechanism. Defaults to {@code true}.
      *
@@ -440,12 +556,39 @@ public interface CairoConfiguration {
 
     boolean isSqlJitDebugEnabled();
 
+    /**
+     * @return true if non-keyed GROUP BY aggregation loops should be compiled for each query
+     */
+    boolean isSqlJitGroupByEnabled();
+
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
 
+    boolean isSqlParallelGroupByEnabled();
+
+    boolean isSqlParallelSampleByEnabled();
+
+    boolean isSqlParallelTopKEnabled();
+
+    boolean isSqlRadixSortEnabled();
+
+    boolean isSqlResultCacheEnabled();
+
+    boolean isSqlVectorizedFunctionsEnabled();
+
+    /**
+     * When enabled, consecutive data transactions are copied from WAL segments into memory
+     * and applied to the table as a single commit.
+     *
+     * @return true when WAL transactions are squashed on apply
+     */
+    boolean isWalSquashEnabled();
+
     boolean isWalSupported();
 
+    boolean isZoneMapEnabled();
+
     /**
      * This is a flag to enable/disable making table directory names different to table names for non-WAL tables.
      * When it is enabled directory name of table TRADE becomes TRADE~, so that ~ sign is added at the end.
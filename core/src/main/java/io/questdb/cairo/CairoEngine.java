@@ -28,16 +28,19 @@ import io.questdb.MessageBus;
 import io.questdb.MessageBusImpl;
 import io.questdb.Metrics;
 import io.questdb.cairo.mig.EngineMigration;
+import io.questdb.cairo.mv.MatViewRegistry;
 import io.questdb.cairo.pool.*;
 import io.questdb.cairo.sql.AsyncWriterCommand;
 import io.questdb.cairo.sql.TableRecordMetadata;
 import io.questdb.cairo.sql.TableReferenceOutOfDateException;
 import io.questdb.cairo.vm.api.MemoryMARW;
+import io.questdb.cairo.wal.WalApplyScheduler;
 import io.questdb.cairo.wal.WalReader;
 import io.questdb.cairo.wal.WalWriter;
 import io.questdb.cairo.wal.seq.TableSequencerAPI;
 import io.questdb.cutlass.text.TextImportExecutionContext;
 import io.questdb.griffin.DatabaseSnapshotAgent;
+import io.questdb.griffin.engine.cache.ResultCache;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.*;
@@ -61,10 +64,12 @@ public class CairoEngine implements Closeable, WriterSource {
     private final AtomicLong asyncCommandCorrelationId = new AtomicLong();
     private final CairoConfiguration configuration;
     private final EngineMaintenanceJob engineMaintenanceJob;
+    private final MatViewRegistry matViewRegistry;
     private final MessageBusImpl messageBus;
     private final MetadataPool metadataPool;
     private final Metrics metrics;
     private final ReaderPool readerPool;
+    private final ResultCache resultCache;
     private final IDGenerator tableIdGenerator;
     private final TableNameRegistry tableNameRegistry;
     private final TableSequencerAPI tableSequencerAPI;
@@ -74,6 +79,7 @@ public class CairoEngine implements Closeable, WriterSource {
     private final TextImportExecutionContext textImportExecutionContext;
     // initial value of unpublishedWalTxnCount is 1 because we want to scan for unapplied WAL transactions on startup
     private final AtomicLong unpublishedWalTxnCount = new AtomicLong(1);
+    private final WalApplyScheduler walApplyScheduler = new WalApplyScheduler();
     private final WalWriterPool walWriterPool;
     private final WriterPool writerPool;
 
@@ -91,10 +97,13 @@ public class CairoEngine implements Closeable, WriterSource {
         this.tableSequencerAPI = new TableSequencerAPI(this, configuration);
         this.messageBus = new MessageBusImpl(configuration);
         this.writerPool = new WriterPool(this.getConfiguration(), this.getMessageBus(), metrics);
-        this.readerPool = new ReaderPool(configuration, messageBus);
+        this.readerPool = new ReaderPool(configuration, messageBus, metrics.tableReader());
         this.metadataPool = new MetadataPool(configuration, this);
+        this.resultCache = new ResultCache(this, configuration, metrics.resultCache());
         this.walWriterPool = new WalWriterPool(configuration, this);
         this.engineMaintenanceJob = new EngineMaintenanceJob(configuration);
+        this.matViewRegistry = new MatViewRegistry(this);
+        metrics.wal().setApplyScheduler(walApplyScheduler);
         if (configuration.getTelemetryConfiguration().getEnabled()) {
             this.telemetryQueue = new RingQueue<>(TelemetryTask::new, configuration.getTelemetryConfiguration().getQueueCapacity());
             this.telemetryPubSeq = new MPSequence(telemetryQueue.getCycle());
@@ -145,6 +154,8 @@ public class CairoEngine implements Closeable, WriterSource {
         boolean b4 = metadataPool.releaseAll();
         boolean b5 = walWriterPool.releaseAll();
         messageBus.reset();
+        matViewRegistry.clear();
+        walApplyScheduler.clear();
         return b1 & b2 & b3 & b4 & b5;
     }
 
@@ -153,6 +164,7 @@ public class CairoEngine implements Closeable, WriterSource {
         Misc.free(writerPool);
         Misc.free(readerPool);
         Misc.free(metadataPool);
+        Misc.free(resultCache);
         Misc.free(walWriterPool);
         Misc.free(tableIdGenerator);
         Misc.free(messageBus);
@@ -285,11 +297,20 @@ public class CairoEngine implements Closeable, WriterSource {
                         throw CairoException.critical(errno).put("could not remove table [name=").put(tableToken)
                                 .put(", dirName=").put(tableToken.getDirName()).put(']');
                     }
+                    // partitions moved to the cold volume are not reachable once the table directory is gone
+                    final CharSequence coldRoot = configuration.getPartitionTieringRoot();
+                    if (coldRoot != null) {
+                        path.of(coldRoot).concat(tableToken).$();
+                        if (configuration.getFilesFacade().exists(path) && (errno = configuration.getFilesFacade().rmdir(path)) != 0) {
+                            LOG.error().$("could not remove cold partitions [tableName='").$(tableToken).$("', error=").$(errno).$(']').$();
+                        }
+                    }
                 } finally {
                     unlockTableUnsafe(tableToken, null, false);
                 }
 
                 tableNameRegistry.dropTable(tableToken);
+                matViewRegistry.removeView(tableToken);
                 return;
             }
             throw CairoException.nonCritical().put("Could not lock '").put(tableToken).put("' [reason='").put(lockedReason).put("']");
@@ -339,6 +360,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return engineMaintenanceJob;
     }
 
+    public MatViewRegistry getMatViewRegistry() {
+        return matViewRegistry;
+    }
+
     public MessageBus getMessageBus() {
         return messageBus;
     }
@@ -431,6 +456,10 @@ public class CairoEngine implements Closeable, WriterSource {
         }
     }
 
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
     public int getStatus(
             CairoSecurityContext securityContext,
             Path path,
@@ -492,6 +521,30 @@ public class CairoEngine implements Closeable, WriterSource {
         tableNameRegistry.getTableTokens(bucket, includeDropped);
     }
 
+    /**
+     * Reads the last committed transaction number of a table straight from its transaction file.
+     * The number changes on every commit, which lets callers tell whether the table changed
+     * without opening a reader.
+     *
+     * @return transaction number or -1 when the table was dropped or renamed since the token was obtained
+     */
+    public long getTableTxn(TableToken tableToken) {
+        if (!tableToken.equals(tableNameRegistry.getTableToken(tableToken.getTableName()))) {
+            return -1;
+        }
+        final FilesFacade ff = configuration.getFilesFacade();
+        final Path path = Path.getThreadLocal(configuration.getRoot()).concat(tableToken).concat(TableUtils.TXN_FILE_NAME).$();
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return -1;
+        }
+        try {
+            return ff.readNonNegativeLong(fd, TableUtils.TX_BASE_OFFSET_VERSION_64);
+        } finally {
+            ff.close(fd);
+        }
+    }
+
     @Override
     public TableWriterAPI getTableWriterAPI(
             CairoSecurityContext securityContext,
@@ -532,6 +585,10 @@ public class CairoEngine implements Closeable, WriterSource {
         return tableNameRegistry.getTokenByDirName(tableToken.getDirName());
     }
 
+    public WalApplyScheduler getWalApplyScheduler() {
+        return walApplyScheduler;
+    }
+
     // For testing only
     @TestOnly
     public WalReader getWalReader(
@@ -701,6 +758,7 @@ public class CairoEngine implements Closeable, WriterSource {
     @TestOnly
     public void reloadTableNames() {
         tableNameRegistry.reloadTableNameCache();
+        matViewRegistry.clear();
     }
 
     public int removeDirectory(@Transient Path path, CharSequence dir) {
@@ -0,0 +1,643 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.ThreadLocal;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+import io.questdb.std.str.LPSZ;
+
+import java.util.Arrays;
+
+/**
+ * Codecs used to compress column files of cold partitions. A compressed column file starts with
+ * a header, which holds the codec and the size of the raw column file, followed by the payload.
+ * Codecs are picked by column type:
+ * <ul>
+ *     <li>delta-of-delta varints for LONG, DATE and TIMESTAMP columns</li>
+ *     <li>XOR (Gorilla) bit packing for DOUBLE columns</li>
+ *     <li>LZ4 block format for the rest of fixed size columns</li>
+ * </ul>
+ */
+public final class ColumnCodecs {
+    public static final int CODEC_DELTA_OF_DELTA = 1;
+    public static final int CODEC_LZ4 = 3;
+    public static final int CODEC_NONE = 0;
+    public static final int CODEC_XOR = 2;
+    public static final int HEADER_SIZE = 16;
+    private static final Log LOG = LogFactory.getLog(ColumnCodecs.class);
+    private static final int LZ4_CHUNK_SIZE = 4 * 1024 * 1024;
+    private static final int LZ4_HASH_BITS = 12;
+    private static final int LZ4_LAST_LITERALS = 5;
+    private static final int LZ4_MATCH_FIND_LIMIT = 12;
+    private static final int LZ4_MAX_OFFSET = 0xffff;
+    private static final int LZ4_MIN_MATCH = 4;
+    private static final ThreadLocal<int[]> tlLz4Table = new ThreadLocal<>(() -> new int[1 << LZ4_HASH_BITS]);
+
+    private ColumnCodecs() {
+    }
+
+    public static int codecOf(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return CODEC_DELTA_OF_DELTA;
+            case ColumnType.DOUBLE:
+                return CODEC_XOR;
+            default:
+                return ColumnType.isVariableLength(columnType) || ColumnType.sizeOf(columnType) < 1 ? CODEC_NONE : CODEC_LZ4;
+        }
+    }
+
+    /**
+     * Compresses native memory.
+     *
+     * @return compressed size or -1 when compressed data does not fit into the destination
+     */
+    public static long compress(int codec, long src, long srcSize, long dst, long dstCapacity) {
+        switch (codec) {
+            case CODEC_DELTA_OF_DELTA:
+                return compressDeltaOfDelta(src, srcSize, dst, dstCapacity);
+            case CODEC_XOR:
+                return compressXor(src, srcSize, dst, dstCapacity);
+            case CODEC_LZ4:
+                return compressLz4(src, srcSize, dst, dstCapacity);
+            default:
+                throw CairoException.critical(0).put("unsupported column codec [codec=").put(codec).put(']');
+        }
+    }
+
+    /**
+     * Writes compressed copy of the raw column file. Nothing is written when the file does not compress,
+     * i.e. when compressed payload would not be smaller than the raw file.
+     *
+     * @return true when compressed file has been written
+     */
+    public static boolean compressFile(FilesFacade ff, LPSZ rawFile, LPSZ compressedFile, int codec, long opts) {
+        final int rawFd = TableUtils.openRO(ff, rawFile, LOG);
+        long rawAddr = 0;
+        long rawSize = 0;
+        long buf = 0;
+        long bufSize = 0;
+        try {
+            rawSize = ff.length(rawFd);
+            if (rawSize < HEADER_SIZE * 2) {
+                return false;
+            }
+            rawAddr = TableUtils.mapRO(ff, rawFd, rawSize, MemoryTag.MMAP_TABLE_WRITER);
+            bufSize = rawSize;
+            buf = Unsafe.malloc(bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            final long payloadSize = compress(codec, rawAddr, rawSize, buf + HEADER_SIZE, bufSize - HEADER_SIZE);
+            if (payloadSize < 0) {
+                return false;
+            }
+            Unsafe.getUnsafe().putInt(buf, codec);
+            Unsafe.getUnsafe().putInt(buf + 4, 0);
+            Unsafe.getUnsafe().putLong(buf + 8, rawSize);
+            writeFile(ff, compressedFile, buf, HEADER_SIZE + payloadSize, opts);
+            return true;
+        } finally {
+            if (buf != 0) {
+                Unsafe.free(buf, bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            }
+            if (rawAddr != 0) {
+                ff.munmap(rawAddr, rawSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(rawFd);
+        }
+    }
+
+    public static void decompress(int codec, long src, long srcSize, long dst, long dstSize) {
+        switch (codec) {
+            case CODEC_DELTA_OF_DELTA:
+                decompressDeltaOfDelta(src, srcSize, dst, dstSize);
+                break;
+            case CODEC_XOR:
+                decompressXor(src, srcSize, dst, dstSize);
+                break;
+            case CODEC_LZ4:
+                decompressLz4(src, srcSize, dst, dstSize);
+                break;
+            default:
+                throw CairoException.critical(0).put("unsupported column codec [codec=").put(codec).put(']');
+        }
+    }
+
+    /**
+     * Decompresses already mapped compressed column file into newly allocated native memory.
+     * The caller owns returned memory, its size is {@link #getRawSize(long)}.
+     */
+    public static long decompressFile(long fileAddr, long fileSize, int memoryTag) {
+        final long rawSize = getRawSize(fileAddr);
+        final long addr = Unsafe.malloc(rawSize, memoryTag);
+        try {
+            decompress(Unsafe.getUnsafe().getInt(fileAddr), fileAddr + HEADER_SIZE, fileSize - HEADER_SIZE, addr, rawSize);
+            return addr;
+        } catch (Throwable th) {
+            Unsafe.free(addr, rawSize, memoryTag);
+            throw th;
+        }
+    }
+
+    /**
+     * Restores raw column file from its compressed copy.
+     */
+    public static void decompressFile(FilesFacade ff, LPSZ compressedFile, LPSZ rawFile, long opts) {
+        final int fd = TableUtils.openRO(ff, compressedFile, LOG);
+        long fileAddr = 0;
+        long fileSize = 0;
+        long rawAddr = 0;
+        long rawSize = 0;
+        try {
+            fileSize = ff.length(fd);
+            if (fileSize < HEADER_SIZE) {
+                throw CairoException.critical(0).put("corrupt compressed column file [file=").put(compressedFile).put(']');
+            }
+            fileAddr = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+            rawSize = getRawSize(fileAddr);
+            rawAddr = decompressFile(fileAddr, fileSize, MemoryTag.NATIVE_TABLE_WRITER);
+            writeFile(ff, rawFile, rawAddr, rawSize, opts);
+        } finally {
+            if (rawAddr != 0) {
+                Unsafe.free(rawAddr, rawSize, MemoryTag.NATIVE_TABLE_WRITER);
+            }
+            if (fileAddr != 0) {
+                ff.munmap(fileAddr, fileSize, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            ff.close(fd);
+        }
+    }
+
+    public static long getRawSize(long fileAddr) {
+        return Unsafe.getUnsafe().getLong(fileAddr + 8);
+    }
+
+    private static long compressDeltaOfDelta(long src, long srcSize, long dst, long dstCapacity) {
+        final long n = srcSize >>> 3;
+        final long lim = dst + dstCapacity;
+        long p = dst;
+        long prev = 0;
+        long prevDelta = 0;
+        for (long i = 0; i < n; i++) {
+            if (lim - p < 10) {
+                return -1;
+            }
+            final long value = Unsafe.getUnsafe().getLong(src + (i << 3));
+            final long delta = value - prev;
+            final long dod = delta - prevDelta;
+            p = putVarLong(p, (dod << 1) ^ (dod >> 63));
+            prev = value;
+            prevDelta = delta;
+        }
+        p = putTail(src, srcSize, p, lim);
+        return p < 0 ? -1 : p - dst;
+    }
+
+    private static long compressLz4(long src, long srcSize, long dst, long dstCapacity) {
+        final int[] table = tlLz4Table.get();
+        long p = dst;
+        final long lim = dst + dstCapacity;
+        for (long offset = 0; offset < srcSize; offset += LZ4_CHUNK_SIZE) {
+            if (lim - p < 4) {
+                return -1;
+            }
+            final int len = (int) Math.min(LZ4_CHUNK_SIZE, srcSize - offset);
+            final long chunkSize = compressLz4Chunk(table, src + offset, len, p + 4, lim);
+            if (chunkSize < 0) {
+                return -1;
+            }
+            Unsafe.getUnsafe().putInt(p, (int) chunkSize);
+            p += 4 + chunkSize;
+        }
+        return p - dst;
+    }
+
+    private static long compressLz4Chunk(int[] table, long src, int len, long dst, long lim) {
+        Arrays.fill(table, -1);
+        long op = dst;
+        int anchor = 0;
+        int ip = 0;
+        final int matchFindLimit = len - LZ4_MATCH_FIND_LIMIT;
+        final int matchLimit = len - LZ4_LAST_LITERALS;
+        while (ip < matchFindLimit) {
+            final int seq = Unsafe.getUnsafe().getInt(src + ip);
+            final int h = (seq * -1640531535) >>> (32 - LZ4_HASH_BITS);
+            final int ref = table[h];
+            table[h] = ip;
+            if (ref < 0 || ip - ref > LZ4_MAX_OFFSET || Unsafe.getUnsafe().getInt(src + ref) != seq) {
+                ip++;
+                continue;
+            }
+
+            int matchLen = LZ4_MIN_MATCH;
+            while (ip + matchLen + 8 <= matchLimit
+                    && Unsafe.getUnsafe().getLong(src + ip + matchLen) == Unsafe.getUnsafe().getLong(src + ref + matchLen)) {
+                matchLen += 8;
+            }
+            while (ip + matchLen < matchLimit
+                    && Unsafe.getUnsafe().getByte(src + ip + matchLen) == Unsafe.getUnsafe().getByte(src + ref + matchLen)) {
+                matchLen++;
+            }
+
+            op = putLz4Sequence(op, lim, src + anchor, ip - anchor, ip - ref, matchLen);
+            if (op < 0) {
+                return -1;
+            }
+            ip += matchLen;
+            anchor = ip;
+        }
+        op = putLz4Sequence(op, lim, src + anchor, len - anchor, 0, 0);
+        return op < 0 ? -1 : op - dst;
+    }
+
+    private static long compressXor(long src, long srcSize, long dst, long dstCapacity) {
+        final long n = srcSize >>> 3;
+        final BitWriter writer = new BitWriter(dst, dst + dstCapacity);
+        long prev = 0;
+        int prevLeading = -1;
+        int prevTrailing = 0;
+        for (long i = 0; i < n && !writer.overflow; i++) {
+            final long value = Unsafe.getUnsafe().getLong(src + (i << 3));
+            final long xor = value ^ prev;
+            if (xor == 0) {
+                writer.write(0, 1);
+            } else {
+                final int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+                final int trailing = Long.numberOfTrailingZeros(xor);
+                if (prevLeading != -1 && leading >= prevLeading && trailing >= prevTrailing) {
+                    // meaningful bits fit into the previous window
+                    writer.write(2, 2);
+                    writer.write(xor >>> prevTrailing, 64 - prevLeading - prevTrailing);
+                } else {
+                    final int significant = 64 - leading - trailing;
+                    writer.write(3, 2);
+                    writer.write(leading, 5);
+                    writer.write(significant - 1, 6);
+                    writer.write(xor >>> trailing, significant);
+                    prevLeading = leading;
+                    prevTrailing = trailing;
+                }
+            }
+            prev = value;
+        }
+        final long size = writer.finish();
+        final long p = size < 0 ? -1 : putTail(src, srcSize, dst + size, dst + dstCapacity);
+        return p < 0 ? -1 : p - dst;
+    }
+
+    private static CairoException corrupt() {
+        return CairoException.critical(0).put("corrupt compressed column data");
+    }
+
+    private static void decompressDeltaOfDelta(long src, long srcSize, long dst, long dstSize) {
+        final long n = dstSize >>> 3;
+        final long lim = getTail(src, srcSize, dst, dstSize);
+        long p = src;
+        long prev = 0;
+        long prevDelta = 0;
+        for (long i = 0; i < n; i++) {
+            long zz = 0;
+            int shift = 0;
+            byte b;
+            do {
+                if (p >= lim || shift > 63) {
+                    throw corrupt();
+                }
+                b = Unsafe.getUnsafe().getByte(p++);
+                zz |= (long) (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+            prevDelta += (zz >>> 1) ^ -(zz & 1);
+            prev += prevDelta;
+            Unsafe.getUnsafe().putLong(dst + (i << 3), prev);
+        }
+    }
+
+    private static void decompressLz4(long src, long srcSize, long dst, long dstSize) {
+        long p = src;
+        final long lim = src + srcSize;
+        for (long offset = 0; offset < dstSize; offset += LZ4_CHUNK_SIZE) {
+            if (lim - p < 4) {
+                throw corrupt();
+            }
+            final int chunkSize = Unsafe.getUnsafe().getInt(p);
+            p += 4;
+            if (chunkSize < 0 || lim - p < chunkSize) {
+                throw corrupt();
+            }
+            decompressLz4Chunk(p, chunkSize, dst + offset, Math.min(LZ4_CHUNK_SIZE, dstSize - offset));
+            p += chunkSize;
+        }
+    }
+
+    private static void decompressLz4Chunk(long src, int srcSize, long dst, long dstSize) {
+        long ip = src;
+        final long ipEnd = src + srcSize;
+        long op = dst;
+        final long opEnd = dst + dstSize;
+        while (ip < ipEnd) {
+            final int token = Unsafe.getUnsafe().getByte(ip++) & 0xff;
+            long literalLen = token >>> 4;
+            if (literalLen == 15) {
+                int b;
+                do {
+                    if (ip >= ipEnd) {
+                        throw corrupt();
+                    }
+                    b = Unsafe.getUnsafe().getByte(ip++) & 0xff;
+                    literalLen += b;
+                } while (b == 255);
+            }
+            if (ipEnd - ip < literalLen || opEnd - op < literalLen) {
+                throw corrupt();
+            }
+            Vect.memcpy(op, ip, literalLen);
+            ip += literalLen;
+            op += literalLen;
+            if (ip >= ipEnd) {
+                // the last sequence has literals only
+                break;
+            }
+
+            if (ipEnd - ip < 2) {
+                throw corrupt();
+            }
+            final int matchOffset = Unsafe.getUnsafe().getShort(ip) & 0xffff;
+            ip += 2;
+            long matchLen = (token & 0x0f) + LZ4_MIN_MATCH;
+            if ((token & 0x0f) == 15) {
+                int b;
+                do {
+                    if (ip >= ipEnd) {
+                        throw corrupt();
+                    }
+                    b = Unsafe.getUnsafe().getByte(ip++) & 0xff;
+                    matchLen += b;
+                } while (b == 255);
+            }
+            if (matchOffset == 0 || op - dst < matchOffset || opEnd - op < matchLen) {
+                throw corrupt();
+            }
+            final long ref = op - matchOffset;
+            if (matchOffset >= matchLen) {
+                Vect.memcpy(op, ref, matchLen);
+            } else {
+                // overlapping match repeats the last matchOffset bytes
+                for (long i = 0; i < matchLen; i++) {
+                    Unsafe.getUnsafe().putByte(op + i, Unsafe.getUnsafe().getByte(ref + i));
+                }
+            }
+            op += matchLen;
+        }
+        if (op != opEnd) {
+            throw corrupt();
+        }
+    }
+
+    private static void decompressXor(long src, long srcSize, long dst, long dstSize) {
+        final long n = dstSize >>> 3;
+        final BitReader reader = new BitReader(src, getTail(src, srcSize, dst, dstSize));
+        long prev = 0;
+        int leading = 0;
+        int trailing = 0;
+        for (long i = 0; i < n; i++) {
+            if (reader.read(1) != 0) {
+                if (reader.read(1) != 0) {
+                    leading = (int) reader.read(5);
+                    final int significant = (int) reader.read(6) + 1;
+                    trailing = 64 - leading - significant;
+                    if (trailing < 0) {
+                        throw corrupt();
+                    }
+                }
+                prev ^= reader.read(64 - leading - trailing) << trailing;
+            }
+            Unsafe.getUnsafe().putLong(dst + (i << 3), prev);
+        }
+    }
+
+    /**
+     * Copies trailing bytes, which do not make up a whole 8-byte value, to the end of raw data.
+     *
+     * @return end of compressed values
+     */
+    private static long getTail(long src, long srcSize, long dst, long dstSize) {
+        final int tail = (int) (dstSize & 7);
+        if (srcSize < tail) {
+            throw corrupt();
+        }
+        Vect.memcpy(dst + dstSize - tail, src + srcSize - tail, tail);
+        return src + srcSize - tail;
+    }
+
+    private static long putLz4Length(long p, long len) {
+        while (len >= 255) {
+            Unsafe.getUnsafe().putByte(p++, (byte) 255);
+            len -= 255;
+        }
+        Unsafe.getUnsafe().putByte(p++, (byte) len);
+        return p;
+    }
+
+    private static long putLz4Sequence(long op, long lim, long literals, int literalLen, int matchOffset, int matchLen) {
+        // token, literal length bytes, literals, offset and match length bytes
+        if (lim - op < 1 + literalLen / 255 + 1 + literalLen + 2 + matchLen / 255 + 1) {
+            return -1;
+        }
+        final long tokenAddr = op++;
+        int token;
+        if (literalLen >= 15) {
+            token = 15 << 4;
+            op = putLz4Length(op, literalLen - 15);
+        } else {
+            token = literalLen << 4;
+        }
+        Vect.memcpy(op, literals, literalLen);
+        op += literalLen;
+        if (matchLen > 0) {
+            Unsafe.getUnsafe().putShort(op, (short) matchOffset);
+            op += 2;
+            final int len = matchLen - LZ4_MIN_MATCH;
+            if (len >= 15) {
+                token |= 15;
+                op = putLz4Length(op, len - 15);
+            } else {
+                token |= len;
+            }
+        }
+        Unsafe.getUnsafe().putByte(tokenAddr, (byte) token);
+        return op;
+    }
+
+    private static long putTail(long src, long srcSize, long p, long lim) {
+        final int tail = (int) (srcSize & 7);
+        if (p < 0 || lim - p < tail) {
+            return -1;
+        }
+        Vect.memcpy(p, src + srcSize - tail, tail);
+        return p + tail;
+    }
+
+    private static long putVarLong(long p, long value) {
+        while ((value & ~0x7fL) != 0) {
+            Unsafe.getUnsafe().putByte(p++, (byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        Unsafe.getUnsafe().putByte(p++, (byte) value);
+        return p;
+    }
+
+    static void writeFile(FilesFacade ff, LPSZ file, long addr, long size, long opts) {
+        final int fd = TableUtils.openRW(ff, file, LOG, opts);
+        try {
+            if (!ff.truncate(fd, 0)) {
+                throw CairoException.critical(ff.errno()).put("could not truncate [file=").put(file).put(']');
+            }
+            long offset = 0;
+            while (offset < size) {
+                final long written = ff.write(fd, addr + offset, size - offset, offset);
+                if (written < 1) {
+                    throw CairoException.critical(ff.errno()).put("could not write [file=").put(file).put(']');
+                }
+                offset += written;
+            }
+            ff.fsync(fd);
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private static class BitReader {
+        private final long lim;
+        private long addr;
+        private int available;
+        private long buffer;
+
+        private BitReader(long addr, long lim) {
+            this.addr = addr;
+            this.lim = lim;
+        }
+
+        private long read(int n) {
+            if (n == 64) {
+                return (read(32) << 32) | read(32);
+            }
+            if (n <= available) {
+                final long value = buffer >>> (64 - n);
+                buffer <<= n;
+                available -= n;
+                return value;
+            }
+            final int missing = n - available;
+            final long hi = available == 0 ? 0 : buffer >>> (64 - available);
+            refill();
+            final long lo = buffer >>> (64 - missing);
+            buffer <<= missing;
+            available -= missing;
+            return (hi << missing) | lo;
+        }
+
+        private void refill() {
+            if (addr >= lim) {
+                throw corrupt();
+            }
+            if (lim - addr >= 8) {
+                buffer = Long.reverseBytes(Unsafe.getUnsafe().getLong(addr));
+                addr += 8;
+            } else {
+                buffer = 0;
+                for (int shift = 56; addr < lim; shift -= 8) {
+                    buffer |= (Unsafe.getUnsafe().getByte(addr++) & 0xffL) << shift;
+                }
+            }
+            available = 64;
+        }
+    }
+
+    private static class BitWriter {
+        private final long lim;
+        private final long lo;
+        private long addr;
+        private long buffer;
+        private int count;
+        private boolean overflow;
+
+        private BitWriter(long addr, long lim) {
+            this.lo = addr;
+            this.addr = addr;
+            this.lim = lim;
+        }
+
+        private long finish() {
+            if (count > 0 && !overflow) {
+                final long bits = buffer << (64 - count);
+                for (int shift = 56; count > 0; shift -= 8, count -= 8) {
+                    if (addr >= lim) {
+                        return -1;
+                    }
+                    Unsafe.getUnsafe().putByte(addr++, (byte) (bits >>> shift));
+                }
+            }
+            return overflow ? -1 : addr - lo;
+        }
+
+        private void flush() {
+            if (lim - addr < 8) {
+                overflow = true;
+            } else {
+                Unsafe.getUnsafe().putLong(addr, Long.reverseBytes(buffer));
+                addr += 8;
+            }
+            buffer = 0;
+            count = 0;
+        }
+
+        private void write(long value, int n) {
+            if (n == 64) {
+                write(value >>> 32, 32);
+                write(value, 32);
+                return;
+            }
+            value &= (1L << n) - 1;
+            final int free = 64 - count;
+            if (n < free) {
+                buffer = (buffer << n) | value;
+                count += n;
+            } else {
+                final int rest = n - free;
+                buffer = free == 64 ? value >>> rest : (buffer << free) | (value >>> rest);
+                count = 64;
+                flush();
+                buffer = value & ((1L << rest) - 1);
+                count = rest;
+            }
+        }
+    }
+}
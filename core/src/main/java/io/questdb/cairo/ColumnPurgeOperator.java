@@ -271,6 +271,33 @@ public class ColumnPurgeOperator implements Closeable {
                     path.trimTo(pathTrimToPartition);
                     TableUtils.iFile(path, task.getColumnName(), columnVersion);
 
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                } else {
+                    // column version may have been compressed
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.zFile(path, task.getColumnName(), columnVersion);
+
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.zmFile(path, task.getColumnName(), columnVersion);
+
+                    if (couldNotRemove(ff, path)) {
+                        allDone = false;
+                        continue;
+                    }
+                }
+
+                if (BloomFilter.isSupported(task.getColumnType())) {
+                    path.trimTo(pathTrimToPartition);
+                    TableUtils.bfFile(path, task.getColumnName(), columnVersion);
+
                     if (couldNotRemove(ff, path)) {
                         allDone = false;
                         continue;
@@ -186,6 +186,21 @@ public final class ColumnType {
         return (columnType & TYPE_FLAG_GEO_HASH) != 0;
     }
 
+    /**
+     * Symbol columns index their keys directly, integer-like columns use hashed index keys.
+     */
+    public static boolean isIndexable(int columnType) {
+        switch (columnType) {
+            case SYMBOL:
+            case SHORT:
+            case INT:
+            case LONG:
+                return true;
+            default:
+                return isGeoHash(columnType);
+        }
+    }
+
     public static boolean isInt(int columnType) {
         return columnType == ColumnType.INT;
     }
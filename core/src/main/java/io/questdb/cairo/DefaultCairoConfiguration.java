@@ -33,6 +33,7 @@ import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.DateLocale;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
+import io.questdb.std.datetime.microtime.Timestamps;
 import io.questdb.std.datetime.millitime.DateFormatUtils;
 
 public class DefaultCairoConfiguration implements CairoConfiguration {
@@ -112,6 +113,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 8;
     }
 
+    @Override
+    public int getBloomFilterBitsPerValue() {
+        return 10;
+    }
+
     @Override
     public BuildInformation getBuildInformation() {
         return buildInformation;
@@ -267,6 +273,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public long getGroupCommitWindowMicros() {
+        return 100;
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return 100;
@@ -413,11 +424,36 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 100000;
     }
 
+    @Override
+    public long getPartitionCompressionInterval() {
+        return 60_000;
+    }
+
+    @Override
+    public long getPartitionCompressionMinAge() {
+        return 30 * Timestamps.DAY_MICROS;
+    }
+
     @Override
     public int getPartitionPurgeListCapacity() {
         return 64;
     }
 
+    @Override
+    public long getPartitionTieringInterval() {
+        return 60_000;
+    }
+
+    @Override
+    public long getPartitionTieringMinAge() {
+        return 90 * Timestamps.DAY_MICROS;
+    }
+
+    @Override
+    public CharSequence getPartitionTieringRoot() {
+        return null;
+    }
+
     @Override
     public int getQueryCacheEventQueueCapacity() {
         return 4;
@@ -468,6 +504,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return snapshotRoot;
     }
 
+    @Override
+    public int getSortRunQueueCapacity() {
+        return 32;
+    }
+
     @Override
     public long getSpinLockTimeout() {
         return 5000;
@@ -695,6 +736,31 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public int getSqlPageFrameReadAheadCount() {
+        return 0;
+    }
+
+    @Override
+    public long getSqlRadixSortMinRunSize() {
+        return 262144;
+    }
+
+    @Override
+    public long getSqlResultCacheMaxEntrySize() {
+        return 4 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public long getSqlResultCacheMemoryLimit() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public long getSqlResultCachePageSize() {
+        return 64 * 1024;
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return 64;
@@ -730,6 +796,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return Numbers.SIZE_1MB * 16;
     }
 
+    @Override
+    public long getSqlSpillMemoryBudget() {
+        return 0;
+    }
+
+    @Override
+    public int getSqlSpillPartitionCount() {
+        return 16;
+    }
+
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return getRoot();
+    }
+
+    @Override
+    public int getSqlVectorizedBatchSize() {
+        return 1024;
+    }
+
     @Override
     public int getStrFunctionMaxBufferLength() {
         return 1024 * 1024;
@@ -765,6 +851,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public long getWalApplyTableTimeQuota() {
+        return 1000;
+    }
+
     @Override
     public boolean getWalEnabledDefault() {
         return false;
@@ -785,6 +876,16 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 200000;
     }
 
+    @Override
+    public long getWalSquashMaxRows() {
+        return 1_000_000;
+    }
+
+    @Override
+    public long getWalSquashMaxSize() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
     @Override
     public int getWalTxnNotificationQueueCapacity() {
         return 4096;
@@ -834,6 +935,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024 - 1;
     }
 
+    @Override
+    public int getZoneMapBlockRowCount() {
+        return 65536;
+    }
+
+    @Override
+    public boolean isBloomFilterEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isGroupCommitEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return true;
@@ -849,11 +965,26 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isPartitionCompressionEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return false;
     }
 
+    @Override
+    public boolean isReaderLazyColumnMappingEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isReaderMmapCacheEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return true;
@@ -864,6 +995,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return false;
     }
 
+    @Override
+    public boolean isSqlJitGroupByEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return true;
@@ -874,11 +1010,51 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return true;
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlParallelTopKEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlRadixSortEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isSqlVectorizedFunctionsEnabled() {
+        return false;
+    }
+
+    @Override
+    public boolean isWalSquashEnabled() {
+        return false;
+    }
+
     @Override
     public boolean isWalSupported() {
         return false;
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return false;
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return false;
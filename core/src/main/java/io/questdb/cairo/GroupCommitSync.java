@@ -0,0 +1,292 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.IntIntHashMap;
+import io.questdb.std.IntList;
+import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Makes {@link CommitMode#SYNC} commits of concurrent writers durable in groups.
+ * <p>
+ * Writers call {@link #begin()} when they start a commit and {@link #sync(Member)} once their changes are
+ * written out. The first writer to call {@link #sync(Member)} becomes the leader of the group: while other
+ * writers are still writing their commits, it waits up to the group commit window for them to join. It then
+ * closes the group, and all of its members fsync the files of the group in parallel, each file once. Issued
+ * together, these fsyncs let the file system flush them with a shared journal commit instead of one commit
+ * per writer. Writers arriving while a sync is in progress form the next group, which is synced as soon as
+ * the current one completes. Each writer returns only after all files of its group are synced, and a failed
+ * sync is thrown back to the writers that own the file.
+ */
+public class GroupCommitSync {
+    private static final Log LOG = LogFactory.getLog(GroupCommitSync.class);
+    private final CairoConfiguration configuration;
+    // errno of each file of the group being synced that failed to sync, -1 otherwise
+    private final IntList groupErrnos = new IntList();
+    // index of each file of the group being synced in groupFds
+    private final IntIntHashMap groupFdIndex = new IntIntHashMap();
+    // the first member to add the file of the group being synced
+    private final ObjList<Member> groupFdOwners = new ObjList<>();
+    // files of the group being synced, each file once
+    private final IntList groupFds = new IntList();
+    // writers between begin() and end()
+    private int committing;
+    private int groupFailed;
+    // next file of the group to be synced
+    private int groupNextFd;
+    // threads currently syncing a file of the group
+    private int groupSyncingThreads;
+    // the group accepting new members
+    private long openGroup = 1;
+    private ObjList<Member> openGroupMembers = new ObjList<>();
+    // the list of the group being synced, swapped with the open group list
+    private ObjList<Member> spareMembers = new ObjList<>();
+    // last group synced to disk
+    private long syncedGroup;
+    // a group is being led or synced
+    private boolean syncing;
+    // group with its files collected for the members to sync, 0 when none
+    private long syncingGroup;
+
+    public GroupCommitSync(CairoConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Registers a commit in progress, so that the group leader waits for it to join.
+     * Must be followed by {@link #end()}.
+     */
+    public synchronized void begin() {
+        committing++;
+    }
+
+    public synchronized void end() {
+        committing--;
+        // the leader may be waiting for this writer
+        notifyAll();
+    }
+
+    @TestOnly
+    public synchronized int getPendingCount() {
+        return openGroupMembers.size();
+    }
+
+    @TestOnly
+    public synchronized long getSyncCount() {
+        return syncedGroup;
+    }
+
+    /**
+     * Blocks until the files of the member, and of the rest of its group, are synced to disk.
+     *
+     * @param member files written by the calling thread
+     * @throws CairoException when any of the member files could not be synced
+     */
+    public void sync(Member member) {
+        final long group;
+        boolean interrupted = false;
+        synchronized (this) {
+            group = openGroup;
+            member.failedFd = -1;
+            openGroupMembers.add(member);
+            // wake up the leader waiting for peers
+            notifyAll();
+            while (syncing && syncingGroup != group && syncedGroup < group) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (syncingGroup != group && syncedGroup < group) {
+                // nobody is syncing, and our group is still open, lead it
+                syncing = true;
+                interrupted |= awaitPeers();
+                openGroup++;
+                closeGroup();
+                syncingGroup = group;
+                // wake up the members to sync the group together
+                notifyAll();
+            }
+        }
+
+        interrupted |= syncGroup(group);
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (member.failedFd != -1) {
+            throw CairoException.critical(member.errno).put("could not sync [fd=").put(member.failedFd).put(']');
+        }
+    }
+
+    private boolean awaitPeers() {
+        boolean interrupted = false;
+        final long windowNanos = configuration.getGroupCommitWindowMicros() * 1000;
+        if (windowNanos > 0) {
+            final long deadline = System.nanoTime() + windowNanos;
+            long remaining = windowNanos;
+            // members that have already called begin() but not sync() are still writing their commit
+            while (committing > openGroupMembers.size() && remaining > 0) {
+                try {
+                    wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+                remaining = deadline - System.nanoTime();
+            }
+        }
+        return interrupted;
+    }
+
+    private void closeGroup() {
+        final ObjList<Member> members = openGroupMembers;
+        openGroupMembers = spareMembers;
+        spareMembers = members;
+        groupFds.clear();
+        groupFdOwners.clear();
+        groupErrnos.clear();
+        groupFdIndex.clear();
+        groupNextFd = 0;
+        groupFailed = 0;
+        for (int i = 0, n = members.size(); i < n; i++) {
+            final Member member = members.getQuick(i);
+            final IntList fds = member.fds;
+            for (int j = 0, m = fds.size(); j < m; j++) {
+                final int fd = fds.getQuick(j);
+                final int index = groupFdIndex.keyIndex(fd);
+                if (index > -1) {
+                    groupFdIndex.putAt(index, fd, groupFds.size());
+                    groupFds.add(fd);
+                    groupFdOwners.add(member);
+                    groupErrnos.add(-1);
+                }
+            }
+        }
+    }
+
+    private void completeGroup(long group) {
+        final ObjList<Member> members = spareMembers;
+        if (groupFailed > 0) {
+            // the file may be shared by several members, each of them has to know it failed
+            for (int i = 0, n = members.size(); i < n; i++) {
+                final Member member = members.getQuick(i);
+                final IntList fds = member.fds;
+                for (int j = 0, m = fds.size(); j < m && member.failedFd == -1; j++) {
+                    final int fd = fds.getQuick(j);
+                    final int errno = groupErrnos.getQuick(groupFdIndex.get(fd));
+                    if (errno != -1) {
+                        member.errno = errno;
+                        member.failedFd = fd;
+                    }
+                }
+            }
+            LOG.error().$("could not sync [failed=").$(groupFailed).$(", files=").$(groupFds.size()).$(", commits=").$(members.size()).I$();
+        } else {
+            LOG.debug().$("synced [files=").$(groupFds.size()).$(", commits=").$(members.size()).I$();
+        }
+        members.clear();
+        syncedGroup = group;
+        syncingGroup = 0;
+        syncing = false;
+        notifyAll();
+    }
+
+    private boolean syncGroup(long group) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        boolean interrupted = false;
+        while (true) {
+            final int fd;
+            final int index;
+            synchronized (this) {
+                if (syncedGroup >= group) {
+                    return interrupted;
+                }
+                // skip files of members that already failed, their commit won't make it anyway
+                while (groupNextFd < groupFds.size() && groupFdOwners.getQuick(groupNextFd).failedFd != -1) {
+                    groupNextFd++;
+                }
+                if (groupNextFd == groupFds.size()) {
+                    if (groupSyncingThreads == 0) {
+                        completeGroup(group);
+                        return interrupted;
+                    }
+                    // the last files are being synced by other members
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                    continue;
+                }
+                index = groupNextFd++;
+                fd = groupFds.getQuick(index);
+                groupSyncingThreads++;
+            }
+
+            final int errno = ff.fsync(fd) == 0 ? -1 : ff.errno();
+
+            synchronized (this) {
+                groupSyncingThreads--;
+                if (errno != -1) {
+                    groupErrnos.setQuick(index, errno);
+                    groupFailed++;
+                    final Member owner = groupFdOwners.getQuick(index);
+                    owner.errno = errno;
+                    owner.failedFd = fd;
+                }
+                if (groupSyncingThreads == 0 && groupNextFd == groupFds.size()) {
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Files of a single commit to be synced by the group.
+     */
+    public static class Member implements Mutable {
+        private final IntList fds = new IntList();
+        private int errno;
+        private int failedFd = -1;
+
+        public Member add(int fd) {
+            if (fd != -1) {
+                fds.add(fd);
+            }
+            return this;
+        }
+
+        @Override
+        public void clear() {
+            fds.clear();
+        }
+    }
+}
@@ -31,7 +31,6 @@ import io.questdb.cairo.vm.api.MemoryMR;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.MemoryTag;
-import io.questdb.std.Misc;
 import io.questdb.std.str.Path;
 
 /**
@@ -42,7 +41,6 @@ public class IndexBuilder extends RebuildColumnBase {
     private static final Log LOG = LogFactory.getLog(IndexBuilder.class);
     private final MemoryMAR ddlMem = Vm.getMARInstance();
     private final MemoryMR indexMem = Vm.getMRInstance();
-    private final SymbolColumnIndexer indexer = new SymbolColumnIndexer();
 
     public IndexBuilder() {
         super();
@@ -55,13 +53,6 @@ public class IndexBuilder extends RebuildColumnBase {
         // ddlMem is idempotent, we can call close() as many times as we need,
         // but we reuse Java object after memory is closed (method of() will reopen memory)
         ddlMem.close();
-        indexer.clear();
-    }
-
-    @Override
-    public void close() {
-        super.close();
-        Misc.free(indexer);
     }
 
     private void createIndexFiles(CharSequence columnName, int indexValueBlockCapacity, int plen, long columnNameTxn) {
@@ -124,6 +115,7 @@ public class IndexBuilder extends RebuildColumnBase {
             ColumnVersionReader columnVersionReader,
             int columnWriterIndex,
             CharSequence columnName,
+            int columnType,
             CharSequence partitionName,
             long partitionNameTxn,
             long partitionSize,
@@ -151,14 +143,12 @@ public class IndexBuilder extends RebuildColumnBase {
                                 ff,
                                 path,
                                 0,
-                                (partitionSize - columnTop) * Integer.BYTES,
+                                (partitionSize - columnTop) << ColumnType.pow2SizeOf(columnType),
                                 MemoryTag.MMAP_TABLE_WRITER
                         );
-                        try {
+                        try (SymbolColumnIndexer indexer = new SymbolColumnIndexer(columnType)) {
                             indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
                             indexer.index(roMem, columnTop, partitionSize);
-                        } finally {
-                            indexer.clear();
                         }
                     }
                 } else {
@@ -0,0 +1,349 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Read-only mappings of column files shared by table readers. Column files of a partition
+ * do not change once written, apart from appends, which are served by growing the mapping.
+ * Concurrent readers of the same partition therefore map each file once rather than once
+ * per reader.
+ * <p>
+ * Mappings are keyed by file name. Column and partition name txns are part of the file name,
+ * so that rewritten columns and partitions are mapped afresh. Each mapping also records table id,
+ * truncate version and partition table version it was made for. A reader asking for another
+ * version, e.g. after truncate or detach and attach of a partition, maps the file again and the
+ * new mapping replaces the old one in the cache. Mappings are reference counted and unmapped
+ * once the last reader releases them.
+ * <p>
+ * The cache is split into stripes, each guarded by its own lock. Files are mapped and unmapped
+ * outside of the lock, so that readers of other files do not wait on system calls.
+ * <p>
+ * Columns of compressed partitions are shared the same way. Each compressed column file is
+ * decompressed once into native memory, which readers of the file share.
+ */
+public class MmapCache implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(MmapCache.class);
+    private static final int STRIPE_COUNT = 16;
+    private final ObjList<CharSequenceObjHashMap<Entry>> stripes = new ObjList<>(STRIPE_COUNT);
+
+    public MmapCache() {
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            stripes.add(new CharSequenceObjHashMap<>());
+        }
+    }
+
+    public Entry acquire(
+            FilesFacade ff,
+            LPSZ fileName,
+            long size,
+            int memoryTag,
+            int tableId,
+            long truncateVersion,
+            long partitionTableVersion
+    ) {
+        return acquire(ff, fileName, size, memoryTag, tableId, truncateVersion, partitionTableVersion, false);
+    }
+
+    /**
+     * Acquires column decompressed from the given compressed column file. Decompressed columns are
+     * held in native memory and shared the same way as mappings. They cannot be extended.
+     *
+     * @param size minimum expected size of the decompressed column
+     */
+    public Entry acquireDecompressed(
+            FilesFacade ff,
+            LPSZ fileName,
+            long size,
+            int tableId,
+            long truncateVersion,
+            long partitionTableVersion
+    ) {
+        return acquire(ff, fileName, size, MemoryTag.NATIVE_TABLE_READER, tableId, truncateVersion, partitionTableVersion, true);
+    }
+
+    @Override
+    public void close() {
+        final int count = getEntryCount();
+        if (count > 0) {
+            LOG.info().$("closing cache with mappings in use [count=").$(count).I$();
+        }
+    }
+
+    /**
+     * Grows mapping of a file. Mapping held by the caller alone is remapped, which keeps
+     * it cached. Mapping shared with other readers cannot move from under them, so the file
+     * is mapped again and the new mapping replaces the old one in the cache.
+     *
+     * @return mapping of the file of at least the given size, the old mapping is released
+     */
+    public Entry extend(FilesFacade ff, Entry entry, long newSize, int memoryTag) {
+        if (entry.size >= newSize) {
+            return entry;
+        }
+        if (entry.decompressed) {
+            throw CairoException.critical(0)
+                    .put("decompressed column cannot be extended [file=").put(entry.fileName)
+                    .put(", size=").put(entry.size)
+                    .put(", newSize=").put(newSize)
+                    .put(']');
+        }
+
+        final CharSequenceObjHashMap<Entry> stripe = getStripe(entry.fileName);
+        boolean exclusive = false;
+        synchronized (stripe) {
+            if (entry.refCount == 1) {
+                if (entry.cached) {
+                    stripe.remove(entry.fileName);
+                    entry.cached = false;
+                }
+                exclusive = true;
+            }
+        }
+
+        if (exclusive) {
+            // the entry is out of the cache, no other reader can acquire it while it is remapped
+            entry.remap(ff, newSize);
+            synchronized (stripe) {
+                final int index = stripe.keyIndex(entry.fileName);
+                if (index > -1) {
+                    entry.cached = true;
+                    stripe.putAt(index, entry.fileName, entry);
+                }
+            }
+            return entry;
+        }
+
+        try (Path path = new Path()) {
+            final Entry extended = acquire(
+                    ff,
+                    path.of(entry.fileName).$(),
+                    newSize,
+                    memoryTag,
+                    entry.tableId,
+                    entry.truncateVersion,
+                    entry.partitionTableVersion
+            );
+            release(entry);
+            return extended;
+        }
+    }
+
+    @TestOnly
+    public int getEntryCount() {
+        int count = 0;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            final CharSequenceObjHashMap<Entry> stripe = stripes.getQuick(i);
+            synchronized (stripe) {
+                count += stripe.size();
+            }
+        }
+        return count;
+    }
+
+    public void release(Entry entry) {
+        final CharSequenceObjHashMap<Entry> stripe = getStripe(entry.fileName);
+        synchronized (stripe) {
+            assert entry.refCount > 0;
+            if (--entry.refCount > 0) {
+                return;
+            }
+            if (entry.cached) {
+                stripe.remove(entry.fileName);
+                entry.cached = false;
+            }
+        }
+        entry.unmap();
+    }
+
+    private Entry acquire(
+            FilesFacade ff,
+            LPSZ fileName,
+            long size,
+            int memoryTag,
+            int tableId,
+            long truncateVersion,
+            long partitionTableVersion,
+            boolean decompress
+    ) {
+        assert size > 0;
+        final CharSequenceObjHashMap<Entry> stripe = getStripe(fileName);
+        synchronized (stripe) {
+            final Entry entry = stripe.get(fileName);
+            if (entry != null && entry.serves(size, tableId, truncateVersion, partitionTableVersion)) {
+                entry.refCount++;
+                return entry;
+            }
+        }
+
+        // concurrent readers of the same file may both map it, the second mapping is then dropped
+        final Entry mapped = new Entry(Chars.toString(fileName), size, tableId, truncateVersion, partitionTableVersion);
+        if (decompress) {
+            mapped.decompress(ff, fileName);
+        } else {
+            mapped.map(ff, fileName, memoryTag);
+        }
+        synchronized (stripe) {
+            final int index = stripe.keyIndex(fileName);
+            if (index < 0) {
+                final Entry entry = stripe.valueAtQuick(index);
+                if (entry.serves(size, tableId, truncateVersion, partitionTableVersion)) {
+                    entry.refCount++;
+                    mapped.unmap();
+                    return entry;
+                }
+                // readers holding the replaced mapping unmap it on release
+                entry.cached = false;
+            }
+            mapped.cached = true;
+            mapped.refCount = 1;
+            stripe.putAt(index, mapped.fileName, mapped);
+        }
+        return mapped;
+    }
+
+    private CharSequenceObjHashMap<Entry> getStripe(CharSequence fileName) {
+        return stripes.getQuick(Hash.spread(Chars.hashCode(fileName)) & (STRIPE_COUNT - 1));
+    }
+
+    public static class Entry {
+        private final String fileName;
+        private final long partitionTableVersion;
+        private final int tableId;
+        private final long truncateVersion;
+        private long address;
+        // guarded by the stripe lock
+        private boolean cached;
+        private boolean decompressed;
+        private FilesFacade ff;
+        private int memoryTag;
+        // guarded by the stripe lock
+        private int refCount;
+        private long size;
+
+        private Entry(String fileName, long size, int tableId, long truncateVersion, long partitionTableVersion) {
+            this.fileName = fileName;
+            this.size = size;
+            this.tableId = tableId;
+            this.truncateVersion = truncateVersion;
+            this.partitionTableVersion = partitionTableVersion;
+        }
+
+        public long getAddress() {
+            return address;
+        }
+
+        @TestOnly
+        public int getRefCount() {
+            return refCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        private void decompress(FilesFacade ff, LPSZ path) {
+            final int fd = TableUtils.openRO(ff, path, LOG);
+            long fileAddr = 0;
+            long fileSize = 0;
+            try {
+                fileSize = ff.length(fd);
+                if (fileSize < ColumnCodecs.HEADER_SIZE) {
+                    throw CairoException.critical(0).put("corrupt compressed column file [file=").put(path).put(']');
+                }
+                fileAddr = TableUtils.mapRO(ff, fd, fileSize, MemoryTag.MMAP_TABLE_READER);
+                final long rawSize = ColumnCodecs.getRawSize(fileAddr);
+                if (rawSize < size) {
+                    throw CairoException.critical(0)
+                            .put("compressed column is too short [file=").put(path)
+                            .put(", expectedSize=").put(size)
+                            .put(", actualSize=").put(rawSize)
+                            .put(']');
+                }
+                this.address = ColumnCodecs.decompressFile(fileAddr, fileSize, MemoryTag.NATIVE_TABLE_READER);
+                this.size = rawSize;
+                this.decompressed = true;
+                this.ff = ff;
+                this.memoryTag = MemoryTag.NATIVE_TABLE_READER;
+            } finally {
+                if (fileAddr != 0) {
+                    ff.munmap(fileAddr, fileSize, MemoryTag.MMAP_TABLE_READER);
+                }
+                // decompressed column outlives file descriptor
+                ff.close(fd);
+            }
+            LOG.debug().$("decompressed [file=").$(path).$(", size=").$(size).I$();
+        }
+
+        private void map(FilesFacade ff, LPSZ path, int memoryTag) {
+            final int fd = TableUtils.openRO(ff, path, LOG);
+            try {
+                this.address = TableUtils.mapRO(ff, fd, size, memoryTag);
+                this.ff = ff;
+                this.memoryTag = memoryTag;
+            } finally {
+                // mapping outlives file descriptor
+                ff.close(fd);
+            }
+            LOG.debug().$("mapped [file=").$(path).$(", size=").$(size).I$();
+        }
+
+        private void remap(FilesFacade ff, long newSize) {
+            try (Path path = new Path()) {
+                final int fd = TableUtils.openRO(ff, path.of(fileName).$(), LOG);
+                try {
+                    this.address = TableUtils.mremap(ff, fd, address, size, newSize, Files.MAP_RO, memoryTag);
+                    this.size = newSize;
+                } finally {
+                    ff.close(fd);
+                }
+            }
+            LOG.debug().$("remapped [file=").$(fileName).$(", size=").$(newSize).I$();
+        }
+
+        private boolean serves(long size, int tableId, long truncateVersion, long partitionTableVersion) {
+            return this.size >= size
+                    && this.tableId == tableId
+                    && this.truncateVersion == truncateVersion
+                    && this.partitionTableVersion == partitionTableVersion;
+        }
+
+        private void unmap() {
+            if (decompressed) {
+                Unsafe.free(address, size, memoryTag);
+            } else {
+                ff.munmap(address, size, memoryTag);
+            }
+            address = 0;
+        }
+    }
+}
@@ -141,7 +141,8 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
                             dstFixAddr + dstFixOffset,
                             dstVarAddr,
                             dstVarOffset,
-                            dstVarOffsetEnd
+                            dstVarOffsetEnd,
+                            tableWriter.getDedupReplacedRowCount(partitionTimestamp)
                     );
                     break;
                 case O3_BLOCK_O3:
@@ -207,6 +208,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         copyTail(
                 columnCounter,
                 partCounter,
+                columnType,
                 timestampMergeIndexAddr,
                 timestampMergeIndexSize,
                 srcDataFixFd,
@@ -429,6 +431,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
     private static void copyTail(
             AtomicInteger columnCounter,
             @Nullable AtomicInteger partCounter,
+            int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
             int srcDataFixFd,
@@ -467,6 +470,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             if (indexBlockCapacity > -1) {
                 updateIndex(
                         columnCounter,
+                        columnType,
                         timestampMergeIndexAddr,
                         timestampMergeIndexSize,
                         srcDataFixFd,
@@ -588,9 +592,11 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
             long dstFixAddr,
             long dstVarAddr,
             long dstVarOffset,
-            long dstVarOffsetEnd
+            long dstVarOffsetEnd,
+            long replacedRowCount
     ) {
-        final long rowCount = srcOooHi - srcOooLo + 1 + srcDataHi - srcDataLo + 1;
+        // committed rows replaced by upserted rows are not in the merge index
+        final long rowCount = srcOooHi - srcOooLo + 1 + srcDataHi - srcDataLo + 1 - replacedRowCount;
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BOOLEAN:
             case ColumnType.BYTE:
@@ -665,6 +671,7 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
 
     private static void updateIndex(
             AtomicInteger columnCounter,
+            int columnType,
             long timestampMergeIndexAddr,
             long timestampMergeIndexSize,
             int srcDataFixFd,
@@ -692,13 +699,14 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
     ) {
         // dstKFd & dstVFd are closed by the indexer
         try {
-            long row = dstIndexOffset / Integer.BYTES;
+            final int shl = ColumnType.pow2SizeOf(columnType);
+            long row = dstIndexOffset >> shl;
             boolean closed = !indexWriter.isOpen();
             if (closed) {
                 indexWriter.of(tableWriter.getConfiguration(), dstKFd, dstVFd, row == 0, indexBlockCapacity);
             }
             try {
-                updateIndex(dstFixAddr, dstFixSize, indexWriter, dstIndexOffset / Integer.BYTES, dstIndexAdjust);
+                updateIndex(columnType, dstFixAddr, dstFixSize, indexWriter, row, dstIndexAdjust);
             } finally {
                 if (closed) {
                     Misc.free(indexWriter);
@@ -737,11 +745,28 @@ public class O3CopyJob extends AbstractQueueConsumerJob<O3CopyTask> {
         }
     }
 
-    private static void updateIndex(long dstFixAddr, long dstFixSize, BitmapIndexWriter w, long row, long rowAdjust) {
+    private static void updateIndex(int columnType, long dstFixAddr, long dstFixSize, BitmapIndexWriter w, long row, long rowAdjust) {
         w.rollbackConditionally(row + rowAdjust);
-        final long count = dstFixSize / Integer.BYTES;
+        final int shl = ColumnType.pow2SizeOf(columnType);
+        final long count = dstFixSize >> shl;
         for (; row < count; row++) {
-            w.add(TableUtils.toIndexKey(Unsafe.getUnsafe().getInt(dstFixAddr + row * Integer.BYTES)), row + rowAdjust);
+            final long address = dstFixAddr + (row << shl);
+            final long value;
+            switch (shl) {
+                case 0:
+                    value = Unsafe.getUnsafe().getByte(address);
+                    break;
+                case 1:
+                    value = Unsafe.getUnsafe().getShort(address);
+                    break;
+                case 2:
+                    value = Unsafe.getUnsafe().getInt(address);
+                    break;
+                default:
+                    value = Unsafe.getUnsafe().getLong(address);
+                    break;
+            }
+            w.add(TableUtils.toIndexKey(columnType, value), row + rowAdjust);
         }
         w.setMaxValue(count - 1);
     }
@@ -312,7 +312,8 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
             int columnIndex,
             long columnNameTxn
     ) {
-        final long mergeLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1;
+        final long mergeLen = mergeOOOHi - mergeOOOLo + 1 + mergeDataHi - mergeDataLo + 1
+                - tableWriter.getDedupReplacedRowCount(partitionTimestamp);
         final Path pathToPartition = Path.getThreadLocal(pathToTable);
         TableUtils.setPathForPartition(pathToPartition, tableWriter.getPartitionBy(), oooTimestampLo, false);
         final int pplen = pathToPartition.length();
@@ -1284,7 +1285,9 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             dFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop) << shl;
+            // committed rows replaced by upserted rows are not copied, oooPartitionHi is the partition timestamp
+            final long replacedRowCount = tableWriter.getDedupReplacedRowCount(oooPartitionHi);
+            dstFixSize = ((srcOooHi - srcOooLo + 1) + srcDataMax - srcDataTop - replacedRowCount) << shl;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
             if (directIoFlag) {
                 ff.fadvise(dstFixFd, 0, dstFixSize, Files.POSIX_FADV_RANDOM);
@@ -1942,7 +1945,12 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             iFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstFixFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop + 1) * Long.BYTES;
+            // committed rows replaced by upserted rows are not copied, oooPartitionHi is the partition timestamp
+            final long replacedRowCount = tableWriter.getDedupReplacedRowCount(oooPartitionHi);
+            final long replacedVarSize = replacedRowCount > 0
+                    ? tableWriter.getDedupReplacedVarSize(oooPartitionHi, srcDataFixAddr + srcDataFixOffset - srcDataTop * 8)
+                    : 0;
+            dstFixSize = (srcOooHi - srcOooLo + 1 + srcDataMax - srcDataTop - replacedRowCount + 1) * Long.BYTES;
             dstFixAddr = mapRW(ff, dstFixFd, dstFixSize, MemoryTag.MMAP_O3);
             if (directIoFlag) {
                 ff.fadvise(dstFixFd, 0, dstFixSize, Files.POSIX_FADV_RANDOM);
@@ -1952,7 +1960,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
 
             dFile(pathToPartition.trimTo(pDirNameLen), columnName, columnNameTxn);
             dstVarFd = openRW(ff, pathToPartition, LOG, tableWriter.getConfiguration().getWriterFileOpenOpts());
-            dstVarSize = srcDataVarSize - srcDataVarOffset
+            dstVarSize = srcDataVarSize - srcDataVarOffset - replacedVarSize
                     + O3Utils.getVarColumnLength(srcOooLo, srcOooHi, srcOooFixAddr);
             dstVarAddr = mapRW(ff, dstVarFd, dstVarSize, MemoryTag.MMAP_O3);
             if (directIoFlag) {
@@ -1998,7 +2006,7 @@ public class O3OpenColumnJob extends AbstractQueueConsumerJob<O3OpenColumnTask>
                         mergeDataLo,
                         mergeDataHi,
                         srcDataFixAddr + srcDataFixOffset - srcDataTop * 8
-                );
+                ) - replacedVarSize;
                 dstFixAppendOffset2 = dstFixAppendOffset1 + (mergeLen * Long.BYTES);
                 dstVarAppendOffset2 = dstVarAppendOffset1 + oooLen + dataLen;
             } else {
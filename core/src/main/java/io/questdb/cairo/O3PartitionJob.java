@@ -440,6 +440,23 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     }
                 }
 
+                final long replacedRowCount = tableWriter.getDedupReplacedRowCount(partitionTimestamp);
+                if (replacedRowCount > 0) {
+                    // upserted rows replace committed rows, the whole partition is merged
+                    // to leave the replaced rows out
+                    prefixType = O3_BLOCK_NONE;
+                    prefixLo = 0;
+                    prefixHi = -1;
+                    mergeType = O3_BLOCK_MERGE;
+                    mergeDataLo = 0;
+                    mergeDataHi = srcDataMax - 1;
+                    mergeO3Lo = srcOooLo;
+                    mergeO3Hi = srcOooHi;
+                    suffixType = O3_BLOCK_NONE;
+                    suffixLo = -1;
+                    suffixHi = -1;
+                }
+
                 LOG.debug()
                         .$("o3 merge [branch=").$(branch)
                         .$(", prefixType=").$(prefixType)
@@ -460,10 +477,11 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                         .$(", suffixType=").$(suffixType)
                         .$(", suffixLo=").$(suffixLo)
                         .$(", suffixHi=").$(suffixHi)
+                        .$(", replacedRowCount=").$(replacedRowCount)
                         .$(", table=").$(pathToTable)
                         .I$();
 
-                if (prefixType == O3_BLOCK_NONE) {
+                if (prefixType == O3_BLOCK_NONE && replacedRowCount == 0) {
                     // We do not need to create a copy of partition when we simply need to append
                     // existing the one.
                     openColumnMode = OPEN_MID_PARTITION_FOR_APPEND;
@@ -917,6 +935,11 @@ public class O3PartitionJob extends AbstractQueueConsumerJob<O3PartitionTask> {
                     mergeOOOHi,
                     timestampMergeIndexSize
             );
+            tableWriter.removeDedupReplacedRows(
+                    partitionTimestamp,
+                    timestampMergeIndexAddr,
+                    mergeDataHi - mergeDataLo + 1 + mergeOOOHi - mergeOOOLo + 1
+            );
         } else {
             timestampMergeIndexAddr = 0;
             timestampMergeIndexSize = 0;
@@ -34,6 +34,7 @@ import io.questdb.std.str.MutableCharSink;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
 import io.questdb.tasks.O3PartitionPurgeTask;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -80,7 +81,11 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
 
     private static void deletePartitionDirectory(
             FilesFacade ff,
-            Path path
+            Path path,
+            @Nullable Path coldTablePath,
+            int partitionBy,
+            long partitionTimestamp,
+            long partitionNameTxn
     ) {
         if (ff.isSoftLink(path)) {
             // in windows ^ ^ will return false, but that is ok as the behaviour
@@ -89,6 +94,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
             // the contents of the target intact
             if (ff.unlink(path) == 0) {
                 LOG.info().$("purged by unlink [path=").utf8(path).I$();
+                TableUtils.removeColdPartition(ff, coldTablePath, partitionBy, partitionTimestamp, partitionNameTxn);
                 return;
             } else {
                 LOG.error().$("failed to unlink, will delete [path=").utf8(path).I$();
@@ -146,6 +152,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
             FilesFacade ff,
             Path path,
             int tableRootLen,
+            @Nullable Path coldTablePath,
             TxReader txReader,
             TxnScoreboard txnScoreboard,
             long partitionTimestamp,
@@ -176,7 +183,11 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                 LOG.info().$("purging dropped partition directory [path=").utf8(path).I$();
                 deletePartitionDirectory(
                         ff,
-                        path
+                        path,
+                        coldTablePath,
+                        partitionBy,
+                        partitionTimestamp,
+                        nameTxn - 1
                 );
                 lastTxn = nameTxn;
             } else {
@@ -190,6 +201,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
             FilesFacade ff,
             Path path,
             int tableRootLen,
+            @Nullable Path coldTablePath,
             TxReader txReader,
             TxnScoreboard txnScoreboard,
             long partitionTimestamp,
@@ -204,6 +216,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                     ff,
                     path,
                     tableRootLen,
+                    coldTablePath,
                     txReader,
                     txnScoreboard,
                     partitionTimestamp,
@@ -217,6 +230,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                     ff,
                     path,
                     tableRootLen,
+                    coldTablePath,
                     txReader,
                     txnScoreboard,
                     partitionTimestamp,
@@ -232,6 +246,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
             FilesFacade ff,
             Path path,
             int tableRootLen,
+            @Nullable Path coldTablePath,
             TxReader txReader,
             TxnScoreboard txnScoreboard,
             long partitionTimestamp,
@@ -265,7 +280,11 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                     LOG.info().$("purging overwritten partition directory [path=").utf8(path).I$();
                     deletePartitionDirectory(
                             ff,
-                            path
+                            path,
+                            coldTablePath,
+                            partitionBy,
+                            partitionTimestamp,
+                            previousNameVersion - 1
                     );
                 } else {
                     LOG.info().$("cannot purge overwritten partition directory, locked for reading [path=").utf8(path).I$();
@@ -327,6 +346,8 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
             txnScoreboard.ofRO(path);
             txReader.ofRO(path.trimTo(tableRootLen).concat(TXN_FILE_NAME).$(), partitionBy);
             TableUtils.safeReadTxn(txReader, this.configuration.getMillisecondClock(), this.configuration.getSpinLockTimeout());
+            final CharSequence coldRoot = configuration.getPartitionTieringRoot();
+            final Path coldTablePath = coldRoot != null ? Path.getThreadLocal2(coldRoot).concat(tableToken) : null;
 
             for (int i = 0; i < n; i += 2) {
                 long currentPartitionTs = partitionList.get(i + 1);
@@ -337,6 +358,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                                 ff,
                                 path,
                                 tableRootLen,
+                                coldTablePath,
                                 txReader,
                                 txnScoreboard,
                                 partitionTimestamp,
@@ -356,6 +378,7 @@ public class O3PartitionPurgeJob extends AbstractQueueConsumerJob<O3PartitionPur
                         ff,
                         path,
                         tableRootLen,
+                        coldTablePath,
                         txReader,
                         txnScoreboard,
                         partitionTimestamp,
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.Path;
+
+/**
+ * Periodically compresses column files of partitions older than the configured age.
+ * <p>
+ * Each partition is compressed into a copy next to it, see {@link TableUtils#compressPartition}.
+ * Copies are made and synced to disk on a pooled table reader, which keeps the source partition
+ * versions from being purged, the table writer is held only to attach the copies as new partition
+ * versions. Copies of partitions changed in between are dropped and made again next time. The last
+ * partition and partitions on the cold volume are not compressed. WAL tables are skipped, their
+ * writers are owned by the WAL apply job.
+ */
+public class PartitionCompressionJob extends SynchronizedJob {
+    private static final Log LOG = LogFactory.getLog(PartitionCompressionJob.class);
+    private static final String LOCK_REASON = "partitionCompression";
+    private final long checkInterval;
+    private final MicrosecondClock clock;
+    private final CairoConfiguration configuration;
+    private final LongList copies = new LongList();
+    private final CairoEngine engine;
+    private final FilesFacade ff;
+    private final long minAge;
+    private final ObjList<TableToken> tableTokenBucket = new ObjList<>();
+    private int copiesPartitionBy;
+    private long last;
+
+    public PartitionCompressionJob(CairoEngine engine) {
+        this.engine = engine;
+        this.configuration = engine.getConfiguration();
+        this.clock = configuration.getMicrosecondClock();
+        this.checkInterval = configuration.getPartitionCompressionInterval() * 1000;
+        this.ff = configuration.getFilesFacade();
+        this.minAge = configuration.getPartitionCompressionMinAge();
+        this.last = clock.getTicks();
+    }
+
+    public void compressPartitions() {
+        compressPartitions(clock.getTicks() - minAge);
+    }
+
+    /**
+     * Compresses partitions that end before the given timestamp.
+     *
+     * @param timestampHi partitions with ceiling above this timestamp are not compressed
+     * @return number of compressed partitions
+     */
+    public int compressPartitions(long timestampHi) {
+        tableTokenBucket.clear();
+        engine.getTableTokens(tableTokenBucket, false);
+        int compressed = 0;
+        for (int i = 0, n = tableTokenBucket.size(); i < n; i++) {
+            final TableToken tableToken = tableTokenBucket.getQuick(i);
+            if (tableToken.isWal()) {
+                continue;
+            }
+            copies.clear();
+            long structureVersion;
+            long truncateVersion;
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableToken)) {
+                copyPartitions(reader, timestampHi);
+                structureVersion = reader.getTxFile().getStructureVersion();
+                truncateVersion = reader.getTxFile().getTruncateVersion();
+            } catch (CairoException e) {
+                if (!(e instanceof EntryUnavailableException)) {
+                    LOG.error().$("could not compress partitions [table=").utf8(tableToken.getTableName())
+                            .$(", errno=").$(e.getErrno())
+                            .$(", error=").$(e.getFlyweightMessage()).I$();
+                }
+                removeCopies(tableToken);
+                continue;
+            }
+            if (copies.size() > 0) {
+                compressed += attachCopies(tableToken, structureVersion, truncateVersion);
+            }
+        }
+        return compressed;
+    }
+
+    private int attachCopies(TableToken tableToken, long structureVersion, long truncateVersion) {
+        try (TableWriter writer = engine.getWriterUnsafe(tableToken, LOCK_REASON)) {
+            final int count = writer.attachCompressedPartitions(copies, structureVersion, truncateVersion);
+            if (count > 0) {
+                LOG.info().$("compressed [table=").utf8(tableToken.getTableName()).$(", partitions=").$(count).I$();
+            }
+            return count;
+        } catch (EntryUnavailableException e) {
+            // table is busy, partitions are compressed again next time
+            removeCopies(tableToken);
+        } catch (CairoException e) {
+            LOG.error().$("could not compress partitions [table=").utf8(tableToken.getTableName())
+                    .$(", errno=").$(e.getErrno())
+                    .$(", error=").$(e.getFlyweightMessage()).I$();
+            removeCopies(tableToken);
+        }
+        return 0;
+    }
+
+    private void copyPartitions(TableReader reader, long timestampHi) {
+        final int partitionBy = reader.getPartitionedBy();
+        if (!PartitionBy.isPartitioned(partitionBy)) {
+            return;
+        }
+        copiesPartitionBy = partitionBy;
+        final TxReader txFile = reader.getTxFile();
+        final PartitionBy.PartitionCeilMethod partitionCeilMethod = PartitionBy.getPartitionCeilMethod(partitionBy);
+        final Path srcPath = Path.getThreadLocal(configuration.getRoot()).concat(reader.getTableToken());
+        final Path copyPath = Path.getThreadLocal2(configuration.getRoot()).concat(reader.getTableToken());
+        final int rootLen = srcPath.length();
+        final long opts = configuration.getWriterFileOpenOpts();
+
+        // the last partition is never compressed
+        for (int i = 0, n = txFile.getPartitionCount() - 1; i < n; i++) {
+            final long partitionTimestamp = txFile.getPartitionTimestamp(i);
+            if (partitionCeilMethod.ceil(partitionTimestamp) > timestampHi) {
+                break;
+            }
+            final long partitionNameTxn = txFile.getPartitionNameTxn(i);
+            TableUtils.setPathForPartition(srcPath.trimTo(rootLen), partitionBy, partitionTimestamp, false);
+            TableUtils.txnPartitionConditionally(srcPath, partitionNameTxn);
+            final int srcLen = srcPath.length();
+            if (ff.isSoftLink(srcPath.$()) || ff.exists(srcPath.trimTo(srcLen).concat(TableUtils.COMPRESSED_PARTITION_MARKER).$())) {
+                // on the cold volume or compressed already
+                continue;
+            }
+            TableUtils.setCompressedCopyPath(copyPath.trimTo(rootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+            if (
+                    !TableUtils.compressPartition(
+                            ff,
+                            srcPath.trimTo(srcLen),
+                            copyPath,
+                            reader.getMetadata(),
+                            reader.getColumnVersionReader(),
+                            partitionTimestamp,
+                            configuration.getMkDirMode(),
+                            opts
+                    )
+            ) {
+                continue;
+            }
+            // the copy must be durable before the source partition version is purged
+            if (!TableUtils.syncDir(ff, copyPath, true)) {
+                LOG.error().$("could not sync compressed partition copy [errno=").$(ff.errno())
+                        .$(", path=").$(copyPath).I$();
+                ff.rmdir(copyPath.$());
+                continue;
+            }
+            copies.add(partitionTimestamp, partitionNameTxn, txFile.getPartitionSize(i), txFile.getPartitionColumnVersion(i));
+        }
+        if (copies.size() > 0 && !TableUtils.syncDir(ff, copyPath.trimTo(rootLen), false)) {
+            LOG.error().$("could not sync table directory [errno=").$(ff.errno()).$(", path=").$(copyPath).I$();
+            removeCopies(reader.getTableToken());
+        }
+    }
+
+    private void removeCopies(TableToken tableToken) {
+        if (copies.size() == 0) {
+            return;
+        }
+        final Path copyPath = Path.getThreadLocal2(configuration.getRoot()).concat(tableToken);
+        final int rootLen = copyPath.length();
+        for (int i = 0, n = copies.size(); i < n; i += 4) {
+            TableUtils.setCompressedCopyPath(copyPath.trimTo(rootLen), copiesPartitionBy, copies.getQuick(i), copies.getQuick(i + 1));
+            ff.rmdir(copyPath.$());
+        }
+        copies.clear();
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final long t = clock.getTicks();
+        if (last + checkInterval < t) {
+            last = t;
+            compressPartitions();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,307 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Periodically moves partitions older than the configured age to the cold volume and
+ * publishes bytes held by partitions on each volume.
+ * <p>
+ * Partition ages are checked on a pooled table reader, which also keeps the copied partition
+ * versions from being purged. Partitions are copied to the cold volume and synced to disk before
+ * the table writer is taken, the writer is held only to attach the copies. Copies of partitions changed in between
+ * are dropped and made again next time. WAL tables are not moved, their writers are owned by
+ * the WAL apply job.
+ * <p>
+ * Partition sizes are kept between runs, only partition versions the job has not seen before
+ * and partitions with new rows are measured.
+ */
+public class PartitionTieringJob extends SynchronizedJob {
+    private static final Log LOG = LogFactory.getLog(PartitionTieringJob.class);
+    private static final String LOCK_REASON = "partitionTiering";
+    // partition timestamp, name txn, row count, bytes and 1 for cold volume
+    private static final int SIZE_ENTRY_LEN = 5;
+    private final long checkInterval;
+    private final MicrosecondClock clock;
+    private final CharSequence coldRoot;
+    private final CairoConfiguration configuration;
+    private final LongList copies = new LongList();
+    private final CairoEngine engine;
+    private final FilesFacade ff;
+    private final PartitionTieringMetrics metrics;
+    private final long minAge;
+    private final LongList sizeSink = new LongList();
+    private final ObjList<TableToken> tableTokenBucket = new ObjList<>();
+    private long coldBytes;
+    private int copiesPartitionBy;
+    private long hotBytes;
+    private long last;
+    private CharSequenceObjHashMap<LongList> partitionSizes = new CharSequenceObjHashMap<>();
+    private CharSequenceObjHashMap<LongList> partitionSizesNext = new CharSequenceObjHashMap<>();
+
+    public PartitionTieringJob(CairoEngine engine) {
+        this.engine = engine;
+        this.configuration = engine.getConfiguration();
+        this.clock = configuration.getMicrosecondClock();
+        this.checkInterval = configuration.getPartitionTieringInterval() * 1000;
+        this.coldRoot = configuration.getPartitionTieringRoot();
+        this.ff = configuration.getFilesFacade();
+        this.metrics = engine.getMetrics().partitionTiering();
+        this.minAge = configuration.getPartitionTieringMinAge();
+        this.last = clock.getTicks();
+    }
+
+    public void movePartitions() {
+        movePartitions(clock.getTicks() - minAge);
+    }
+
+    @TestOnly
+    public void movePartitions(long timestampHi) {
+        tableTokenBucket.clear();
+        engine.getTableTokens(tableTokenBucket, false);
+        hotBytes = 0;
+        coldBytes = 0;
+        for (int i = 0, n = tableTokenBucket.size(); i < n; i++) {
+            final TableToken tableToken = tableTokenBucket.getQuick(i);
+            copies.clear();
+            long structureVersion;
+            long truncateVersion;
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, tableToken)) {
+                measurePartitions(reader);
+                if (tableToken.isWal() || coldRoot == null) {
+                    continue;
+                }
+                copyPartitions(reader, timestampHi);
+                structureVersion = reader.getTxFile().getStructureVersion();
+                truncateVersion = reader.getTxFile().getTruncateVersion();
+            } catch (CairoException e) {
+                if (!(e instanceof EntryUnavailableException)) {
+                    LOG.error().$("could not check partitions [table=").utf8(tableToken.getTableName())
+                            .$(", errno=").$(e.getErrno())
+                            .$(", error=").$(e.getFlyweightMessage()).I$();
+                }
+                removeCopies(tableToken);
+                continue;
+            }
+            if (copies.size() > 0) {
+                attachCopies(tableToken, structureVersion, truncateVersion);
+            }
+        }
+
+        // sizes of tables gone since the last run are dropped
+        final CharSequenceObjHashMap<LongList> sizes = partitionSizes;
+        partitionSizes = partitionSizesNext;
+        partitionSizesNext = sizes;
+        partitionSizesNext.clear();
+
+        metrics.setHotBytes(hotBytes);
+        metrics.setColdBytes(coldBytes);
+    }
+
+    private void attachCopies(TableToken tableToken, long structureVersion, long truncateVersion) {
+        try (TableWriter writer = engine.getWriterUnsafe(tableToken, LOCK_REASON)) {
+            final int count = writer.attachColdPartitions(copies, structureVersion, truncateVersion);
+            if (count > 0) {
+                LOG.info().$("moved to cold volume [table=").utf8(tableToken.getTableName()).$(", partitions=").$(count).I$();
+            }
+        } catch (EntryUnavailableException e) {
+            // table is busy, partitions are copied again next time
+            removeCopies(tableToken);
+        } catch (CairoException e) {
+            LOG.error().$("could not move partitions [table=").utf8(tableToken.getTableName())
+                    .$(", errno=").$(e.getErrno())
+                    .$(", error=").$(e.getFlyweightMessage()).I$();
+            removeCopies(tableToken);
+        }
+    }
+
+    private void copyPartitions(TableReader reader, long timestampHi) {
+        final int partitionBy = reader.getPartitionedBy();
+        if (!PartitionBy.isPartitioned(partitionBy)) {
+            return;
+        }
+        copiesPartitionBy = partitionBy;
+        final TxReader txFile = reader.getTxFile();
+        final PartitionBy.PartitionCeilMethod partitionCeilMethod = PartitionBy.getPartitionCeilMethod(partitionBy);
+        final Path hotPath = Path.getThreadLocal(configuration.getRoot()).concat(reader.getTableToken());
+        final int hotRootLen = hotPath.length();
+        final Path copyPath = Path.getThreadLocal2(coldRoot);
+        final int coldVolumeLen = copyPath.length();
+        final int coldRootLen = copyPath.concat(reader.getTableToken()).length();
+        final int copyCount = copies.size();
+        boolean coldDirExists = false;
+        boolean coldDirCreated = false;
+
+        // the last partition is never moved
+        for (int i = 0, n = txFile.getPartitionCount() - 1; i < n; i++) {
+            final long partitionTimestamp = txFile.getPartitionTimestamp(i);
+            if (partitionCeilMethod.ceil(partitionTimestamp) > timestampHi) {
+                break;
+            }
+            final long partitionNameTxn = txFile.getPartitionNameTxn(i);
+            TableUtils.setPathForPartition(hotPath.trimTo(hotRootLen), partitionBy, partitionTimestamp, false);
+            TableUtils.txnPartitionConditionally(hotPath, partitionNameTxn);
+            if (ff.isSoftLink(hotPath.$())) {
+                // already on the cold volume or attached by a link
+                continue;
+            }
+            if (!coldDirExists) {
+                coldDirCreated = !ff.exists(copyPath.trimTo(coldRootLen).$());
+                if (ff.mkdirs(copyPath.trimTo(coldRootLen).slash$(), configuration.getMkDirMode()) != 0) {
+                    throw CairoException.critical(ff.errno()).put("could not create cold volume directory [path=").put(copyPath).put(']');
+                }
+                coldDirExists = true;
+            }
+            TableUtils.setColdCopyPath(copyPath.trimTo(coldRootLen), partitionBy, partitionTimestamp, partitionNameTxn);
+            copyPath.$();
+            // left over by a copy that was not attached
+            if (ff.exists(copyPath)) {
+                ff.rmdir(copyPath);
+            }
+            if (ff.copyRecursive(hotPath, copyPath, configuration.getMkDirMode()) != 0) {
+                LOG.error().$("could not copy partition to cold volume [errno=").$(ff.errno())
+                        .$(", from=").$(hotPath).$(", to=").$(copyPath).I$();
+                ff.rmdir(copyPath);
+                continue;
+            }
+            // the copy must be durable before the hot partition is replaced by it
+            if (!TableUtils.syncDir(ff, copyPath, true)) {
+                LOG.error().$("could not sync partition copy on cold volume [errno=").$(ff.errno())
+                        .$(", path=").$(copyPath).I$();
+                ff.rmdir(copyPath);
+                continue;
+            }
+            copies.add(partitionTimestamp, partitionNameTxn, txFile.getPartitionSize(i), txFile.getPartitionColumnVersion(i));
+        }
+
+        if (copies.size() > copyCount) {
+            // entries of the copies in the table directory, and of the table directory when created
+            if (!TableUtils.syncDir(ff, copyPath.trimTo(coldRootLen), false) || (coldDirCreated && !TableUtils.syncDir(ff, copyPath.trimTo(coldVolumeLen), false))) {
+                throw CairoException.critical(ff.errno()).put("could not sync cold volume directory [path=").put(copyPath).put(']');
+            }
+        }
+    }
+
+    private void measurePartitions(TableReader reader) {
+        final TableToken tableToken = reader.getTableToken();
+        final TxReader txFile = reader.getTxFile();
+        final int partitionBy = reader.getPartitionedBy();
+        final LongList previous = partitionSizes.get(tableToken.getDirName());
+        final int previousLen = previous != null ? previous.size() : 0;
+        final Path path = Path.getThreadLocal(configuration.getRoot()).concat(tableToken);
+        final int rootLen = path.length();
+
+        sizeSink.clear();
+        for (int i = 0, j = 0, n = txFile.getPartitionCount(); i < n; i++) {
+            final long partitionTimestamp = txFile.getPartitionTimestamp(i);
+            final long partitionNameTxn = txFile.getPartitionNameTxn(i);
+            final long rowCount = i < n - 1 ? txFile.getPartitionSize(i) : txFile.getTransientRowCount();
+            while (j < previousLen && previous.getQuick(j) < partitionTimestamp) {
+                j += SIZE_ENTRY_LEN;
+            }
+            long bytes;
+            long cold;
+            if (
+                    j < previousLen
+                            && previous.getQuick(j) == partitionTimestamp
+                            && previous.getQuick(j + 1) == partitionNameTxn
+                            && previous.getQuick(j + 2) == rowCount
+            ) {
+                bytes = previous.getQuick(j + 3);
+                cold = previous.getQuick(j + 4);
+            } else {
+                TableUtils.setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, false);
+                TableUtils.txnPartitionConditionally(path, partitionNameTxn);
+                cold = ff.isSoftLink(path.$()) ? 1 : 0;
+                bytes = partitionBytes(path);
+            }
+            sizeSink.add(partitionTimestamp, partitionNameTxn, rowCount, bytes);
+            sizeSink.add(cold);
+            if (cold == 1) {
+                coldBytes += bytes;
+            } else {
+                hotBytes += bytes;
+            }
+        }
+
+        final LongList sizes = previous != null ? previous : new LongList();
+        sizes.clear();
+        sizes.add(sizeSink);
+        partitionSizesNext.put(tableToken.getDirName(), sizes);
+    }
+
+    private long partitionBytes(Path path) {
+        // partition directories are flat, soft links to cold partitions are followed
+        long bytes = 0;
+        final int len = path.length();
+        final long p = ff.findFirst(path.$());
+        if (p > 0) {
+            try {
+                do {
+                    if (ff.findType(p) == Files.DT_FILE) {
+                        bytes += ff.length(path.trimTo(len).concat(ff.findName(p)).$());
+                    }
+                } while (ff.findNext(p) > 0);
+            } finally {
+                ff.findClose(p);
+                path.trimTo(len);
+            }
+        }
+        return bytes;
+    }
+
+    private void removeCopies(TableToken tableToken) {
+        if (copies.size() == 0) {
+            return;
+        }
+        final Path copyPath = Path.getThreadLocal2(coldRoot).concat(tableToken);
+        final int coldRootLen = copyPath.length();
+        for (int i = 0, n = copies.size(); i < n; i += 4) {
+            TableUtils.setColdCopyPath(copyPath.trimTo(coldRootLen), copiesPartitionBy, copies.getQuick(i), copies.getQuick(i + 1));
+            ff.rmdir(copyPath.$());
+        }
+        copies.clear();
+    }
+
+    @Override
+    protected boolean runSerially() {
+        final long t = clock.getTicks();
+        if (last + checkInterval < t) {
+            last = t;
+            movePartitions();
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.metrics.Gauge;
+import io.questdb.metrics.MetricsRegistry;
+
+public class PartitionTieringMetrics {
+
+    private final Gauge coldBytesGauge;
+    private final Gauge hotBytesGauge;
+
+    public PartitionTieringMetrics(MetricsRegistry metricsRegistry) {
+        this.hotBytesGauge = metricsRegistry.newGauge("partition_tiering_hot_bytes");
+        this.coldBytesGauge = metricsRegistry.newGauge("partition_tiering_cold_bytes");
+    }
+
+    public long getColdBytes() {
+        return coldBytesGauge.getValue();
+    }
+
+    public long getHotBytes() {
+        return hotBytesGauge.getValue();
+    }
+
+    public void setColdBytes(long bytes) {
+        coldBytesGauge.add(bytes - coldBytesGauge.getValue());
+    }
+
+    public void setHotBytes(long bytes) {
+        hotBytesGauge.add(bytes - hotBytesGauge.getValue());
+    }
+}
@@ -120,6 +120,7 @@ public abstract class RebuildColumnBase implements Closeable, Mutable {
                 // as metadata writers' index.
                 columnIndex,
                 columnName,
+                metadata.getColumnType(columnIndex),
                 tempStringSink, // partition name
                 partitionNameTxn,
                 partitionSize,
@@ -149,6 +150,7 @@ public abstract class RebuildColumnBase implements Closeable, Mutable {
                 columnVersionReader,
                 metadata.getWriterIndex(columnIndex),
                 metadata.getColumnName(columnIndex),
+                metadata.getColumnType(columnIndex),
                 partitionName,
                 partitionNameTxn,
                 partitionSize,
@@ -335,6 +337,7 @@ public abstract class RebuildColumnBase implements Closeable, Mutable {
             ColumnVersionReader columnVersionReader,
             int columnWriterIndex,
             CharSequence columnName,
+            int columnType,
             CharSequence partitionName,
             long partitionNameTxn,
             long partitionSize,
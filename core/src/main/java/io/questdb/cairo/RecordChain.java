@@ -57,7 +57,24 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
             long pageSize,
             int maxPages
     ) {
-        this.mem = Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN);
+        this(columnTypes, recordSink, Vm.getARWInstance(pageSize, maxPages, MemoryTag.NATIVE_RECORD_CHAIN));
+    }
+
+    /**
+     * Creates record chain on top of the given memory. The chain takes ownership of the memory
+     * and closes it on {@link #clear()}, so memory that requires explicit opening, such as
+     * memory-mapped file, must be re-opened by the caller before the chain is reused.
+     *
+     * @param columnTypes types of the stored record columns
+     * @param recordSink  sink to copy records with
+     * @param mem         memory to store records in
+     */
+    public RecordChain(
+            @Transient @NotNull ColumnTypes columnTypes,
+            @NotNull RecordSink recordSink,
+            @NotNull MemoryARW mem
+    ) {
+        this.mem = mem;
         this.recordSink = recordSink;
         int count = columnTypes.getColumnCount();
         long varOffset = 0L;
@@ -112,6 +129,13 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return addressOf(getOffsetOfColumn(recordOffset, columnIndex));
     }
 
+    /**
+     * @return number of bytes taken by the records
+     */
+    public long getHeapSize() {
+        return varAppendOffset;
+    }
+
     public long getOffsetOfColumn(long recordOffset, int columnIndex) {
         return rowToDataOffset(recordOffset) + varOffset + columnOffsets[columnIndex];
     }
@@ -135,6 +159,20 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         return recordB;
     }
 
+    /**
+     * Returns address of the value of a variable length column, such as string or binary.
+     * Unlike records of the chain, this method doesn't change any state, so a fully
+     * populated chain can be read concurrently.
+     *
+     * @param recordOffset offset of the record
+     * @param columnIndex  index of a variable length column
+     * @return address of the value or 0 when the value is null
+     */
+    public long getVarAddress(long recordOffset, int columnIndex) {
+        final long offset = mem.getLong(rowToDataOffset(recordOffset) + columnOffsets[columnIndex]);
+        return offset == TableUtils.NULL_LEN ? 0 : mem.addressOf(offset);
+    }
+
     @Override
     public boolean hasNext() {
         if (nextRecordOffset != -1) {
@@ -36,13 +36,24 @@ import io.questdb.std.str.Path;
 public class SymbolColumnIndexer implements ColumnIndexer, Mutable {
 
     private static final long SEQUENCE_OFFSET;
+    private final int columnType;
     private final MemorySRImpl mem = new MemorySRImpl();
+    private final int shl;
     private final BitmapIndexWriter writer = new BitmapIndexWriter();
     private long columnTop;
     private volatile boolean distressed = false;
     @SuppressWarnings({"unused", "FieldCanBeLocal", "FieldMayBeFinal"})
     private volatile long sequence = 0L;
 
+    public SymbolColumnIndexer() {
+        this(ColumnType.SYMBOL);
+    }
+
+    public SymbolColumnIndexer(int columnType) {
+        this.columnType = columnType;
+        this.shl = ColumnType.pow2SizeOf(columnType);
+    }
+
     @Override
     public void clear() {
         writer.clear();
@@ -129,7 +140,7 @@ public class SymbolColumnIndexer implements ColumnIndexer, Mutable {
         // index values have to be adjusted to partition-level row id
         writer.rollbackConditionally(loRow);
         for (long lo = Math.max(loRow, columnTop); lo < hiRow; lo++) {
-            writer.add(TableUtils.toIndexKey(mem.getInt((lo - columnTop) * Integer.BYTES)), lo);
+            writer.add(TableUtils.toIndexKey(columnType, TableUtils.readIndexedValue(mem, shl, (lo - columnTop) << shl)), lo);
         }
         writer.setMaxValue(hiRow - 1);
     }
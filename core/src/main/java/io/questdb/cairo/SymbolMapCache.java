@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.std.CharSequenceObjHashMap;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.TestOnly;
+
+/**
+ * Symbol values of cached symbol columns, shared by all readers of the same column version.
+ * Without sharing, every pooled reader builds its own String cache and identical values are
+ * duplicated as many times as there are readers of the table.
+ * <p>
+ * Entries are keyed by table id, column name, column name txn and truncate version, so that
+ * dropped, re-added and truncated columns never see values of their predecessors. Entries are
+ * reference counted and dropped once the last reader releases them. Acquire and release are
+ * synchronized, value lookups are lock-free.
+ */
+public class SymbolMapCache {
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final StringSink keySink = new StringSink();
+
+    public synchronized Entry acquire(int tableId, CharSequence columnName, long columnNameTxn, long version) {
+        keySink.clear();
+        keySink.put(tableId).put('/').put(columnName).put('/').put(columnNameTxn).put('/').put(version);
+        final int index = entries.keyIndex(keySink);
+        Entry entry;
+        if (index < 0) {
+            entry = entries.valueAtQuick(index);
+        } else {
+            entry = new Entry(keySink.toString());
+            entries.putAt(index, entry.key, entry);
+        }
+        entry.refCount++;
+        return entry;
+    }
+
+    @TestOnly
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized void release(Entry entry) {
+        assert entry.refCount > 0;
+        if (--entry.refCount == 0) {
+            entries.remove(entry.key);
+        }
+    }
+
+    /**
+     * Symbol values of a column version, indexed by symbol key. Values are stored in pages,
+     * which are never moved once allocated. Racing writers store equal immutable strings,
+     * so a lookup can see either of them.
+     */
+    public static class Entry {
+        private static final int PAGE_BITS = 12;
+        private static final int PAGE_MASK = (1 << PAGE_BITS) - 1;
+        private final String key;
+        private volatile String[][] pages = new String[1][];
+        private int refCount;
+
+        private Entry(String key) {
+            this.key = key;
+        }
+
+        public String get(int symbolKey) {
+            final String[][] pages = this.pages;
+            final int pageIndex = symbolKey >>> PAGE_BITS;
+            if (pageIndex < pages.length) {
+                final String[] page = pages[pageIndex];
+                if (page != null) {
+                    return page[symbolKey & PAGE_MASK];
+                }
+            }
+            return null;
+        }
+
+        @TestOnly
+        public int getRefCount() {
+            return refCount;
+        }
+
+        public void put(int symbolKey, String value) {
+            final int pageIndex = symbolKey >>> PAGE_BITS;
+            String[][] pages = this.pages;
+            if (pageIndex >= pages.length || pages[pageIndex] == null) {
+                pages = allocPage(pageIndex);
+            }
+            pages[pageIndex][symbolKey & PAGE_MASK] = value;
+        }
+
+        /**
+         * Forgets values of keys from the given key onwards, e.g. after the symbol count went down.
+         */
+        public synchronized void truncate(int symbolKey) {
+            final String[][] pages = this.pages;
+            for (int i = symbolKey >>> PAGE_BITS, n = pages.length; i < n; i++) {
+                final String[] page = pages[i];
+                if (page != null) {
+                    for (int j = i == symbolKey >>> PAGE_BITS ? symbolKey & PAGE_MASK : 0; j <= PAGE_MASK; j++) {
+                        page[j] = null;
+                    }
+                }
+            }
+        }
+
+        private synchronized String[][] allocPage(int pageIndex) {
+            String[][] pages = this.pages;
+            if (pageIndex >= pages.length) {
+                final String[][] next = new String[Math.max(pages.length * 2, pageIndex + 1)][];
+                System.arraycopy(pages, 0, next, 0, pages.length);
+                pages = next;
+            }
+            if (pages[pageIndex] == null) {
+                pages[pageIndex] = new String[PAGE_MASK + 1];
+            }
+            this.pages = pages;
+            return pages;
+        }
+    }
+}
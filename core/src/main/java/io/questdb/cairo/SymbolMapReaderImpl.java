@@ -35,6 +35,7 @@ import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
@@ -56,6 +57,8 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     private int maxHash;
     private long maxOffset;
     private boolean nullValue;
+    private SymbolMapCache.Entry sharedCache;
+    private SymbolMapCache sharedCacheOwner;
     private int symbolCapacity;
     private int symbolCount;
 
@@ -66,11 +69,25 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         of(configuration, path, name, columnNameTxn, symbolCount);
     }
 
+    public SymbolMapReaderImpl(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence name,
+            long columnNameTxn,
+            int symbolCount,
+            @Nullable SymbolMapCache sharedCacheOwner,
+            int tableId,
+            long truncateVersion
+    ) {
+        of(configuration, path, name, columnNameTxn, symbolCount, sharedCacheOwner, tableId, truncateVersion);
+    }
+
     @Override
     public void close() {
         Misc.free(indexReader);
         Misc.free(charMem);
         this.cache.clear();
+        releaseSharedCache();
         int fd = this.offsetMem.getFd();
         Misc.free(offsetMem);
         Misc.free(path);
@@ -123,6 +140,24 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     }
 
     public void of(CairoConfiguration configuration, Path path, CharSequence columnName, long columnNameTxn, int symbolCount) {
+        of(configuration, path, columnName, columnNameTxn, symbolCount, null, 0, 0);
+    }
+
+    /**
+     * Opens symbol map, values of cached symbol map are kept in the shared cache when one is provided.
+     * Table id and truncate version tell the cached values of this column version apart from values
+     * of a dropped and re-created table or of a truncated column.
+     */
+    public void of(
+            CairoConfiguration configuration,
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int symbolCount,
+            @Nullable SymbolMapCache sharedCacheOwner,
+            int tableId,
+            long truncateVersion
+    ) {
         FilesFacade ff = configuration.getFilesFacade();
         this.configuration = configuration;
         this.path.of(path);
@@ -171,8 +206,14 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             // theoretically should require 2 value cells in index per hash
             // we use 4 cells to compensate for occasionally unlucky hash distribution
             this.maxHash = Numbers.ceilPow2(symbolCapacity / 2) - 1;
+            releaseSharedCache();
             if (cached) {
-                this.cache.setPos(symbolCapacity);
+                if (sharedCacheOwner != null) {
+                    this.sharedCache = sharedCacheOwner.acquire(tableId, columnName, columnNameTxn, truncateVersion);
+                    this.sharedCacheOwner = sharedCacheOwner;
+                } else {
+                    this.cache.setPos(symbolCapacity);
+                }
             }
             this.cache.clear();
             LOG.debug().$("open [columnName=").$(path.trimTo(plen).concat(columnName).$()).$(", fd=").$(this.offsetMem.getFd()).$(", capacity=").$(symbolCapacity).$(']').$();
@@ -196,6 +237,9 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
             this.charMem.extend(this.offsetMem.getLong(maxOffset));
         } else if (symbolCount < this.symbolCount) {
             cache.remove(symbolCount + 1, this.symbolCount);
+            if (sharedCache != null) {
+                sharedCache.truncate(symbolCount);
+            }
             this.symbolCount = symbolCount;
         }
         // Refresh index reader to avoid memory remapping on keyOf() calls.
@@ -225,7 +269,7 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
     }
 
     private CharSequence cachedValue(int key) {
-        final String symbol = cache.getQuiet(key);
+        final String symbol = sharedCache != null ? sharedCache.get(key) : cache.getQuiet(key);
         return symbol != null ? symbol : fetchAndCache(key);
     }
 
@@ -233,10 +277,22 @@ public class SymbolMapReaderImpl implements Closeable, SymbolMapReader {
         final CharSequence cs = uncachedValue(key);
         assert cs != null;
         final String symbol = Chars.toString(cs);
-        cache.extendAndSet(key, symbol);
+        if (sharedCache != null) {
+            sharedCache.put(key, symbol);
+        } else {
+            cache.extendAndSet(key, symbol);
+        }
         return symbol;
     }
 
+    private void releaseSharedCache() {
+        if (sharedCache != null) {
+            sharedCacheOwner.release(sharedCache);
+            sharedCache = null;
+            sharedCacheOwner = null;
+        }
+    }
+
     private CharSequence uncachedValue(int key) {
         return charMem.getStr(offsetMem.getLong(SymbolMapWriter.keyToOffset(key)));
     }
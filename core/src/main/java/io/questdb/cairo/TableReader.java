@@ -27,6 +27,9 @@ package io.questdb.cairo;
 import io.questdb.MessageBus;
 import io.questdb.cairo.sql.StaticSymbolTable;
 import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.DeferredMemoryMR;
+import io.questdb.cairo.vm.MemoryCMRCompressedImpl;
+import io.questdb.cairo.vm.MemoryCMRSharedImpl;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMR;
@@ -48,16 +51,21 @@ import static io.questdb.cairo.TableUtils.TXN_FILE_NAME;
 public class TableReader implements Closeable, SymbolTableSource {
     private static final Log LOG = LogFactory.getLog(TableReader.class);
     private static final int PARTITIONS_SLOT_OFFSET_COLUMN_VERSION = 3;
+    private static final int PARTITIONS_SLOT_OFFSET_COMPRESSED = 4;
     private static final int PARTITIONS_SLOT_OFFSET_NAME_TXN = 2;
     private static final int PARTITIONS_SLOT_OFFSET_SIZE = 1;
-    private static final int PARTITIONS_SLOT_SIZE = 4;
+    private static final int PARTITIONS_SLOT_SIZE = 8;
     private static final int PARTITIONS_SLOT_SIZE_MSB = Numbers.msb(PARTITIONS_SLOT_SIZE);
     private final MillisecondClock clock;
     private final ColumnVersionReader columnVersionReader;
     private final CairoConfiguration configuration;
+    private final MmapCache decompressedColumnCache;
     private final FilesFacade ff;
+    private final boolean lazyColumnMapping;
     private final MessageBus messageBus;
     private final TableReaderMetadata metadata;
+    private final TableReaderMetrics metrics;
+    private final MmapCache mmapCache;
     private final LongList openPartitionInfo;
     private final int partitionBy;
     private final DateFormat partitionDirFormatMethod;
@@ -65,6 +73,7 @@ public class TableReader implements Closeable, SymbolTableSource {
     private final Path path;
     private final TableReaderRecordCursor recordCursor = new TableReaderRecordCursor();
     private final int rootLen;
+    private final SymbolMapCache symbolMapCache;
     private final ObjList<SymbolMapReader> symbolMapReaders = new ObjList<>();
     private final MemoryMR todoMem = Vm.getMRInstance();
     private final TxReader txFile;
@@ -91,8 +100,39 @@ public class TableReader implements Closeable, SymbolTableSource {
     public TableReader(CairoConfiguration configuration,
                        TableToken tableToken,
                        @Nullable MessageBus messageBus
+    ) {
+        this(configuration, tableToken, messageBus, null, null, null);
+    }
+
+    public TableReader(CairoConfiguration configuration,
+                       TableToken tableToken,
+                       @Nullable MessageBus messageBus,
+                       @Nullable SymbolMapCache symbolMapCache,
+                       @Nullable TableReaderMetrics metrics,
+                       @Nullable MmapCache mmapCache
+    ) {
+        this(configuration, tableToken, messageBus, symbolMapCache, metrics, mmapCache, mmapCache);
+    }
+
+    /**
+     * @param mmapCache               shares column mappings with other readers, columns are mapped privately when null
+     * @param decompressedColumnCache shares columns of compressed partitions with other readers,
+     *                                columns are decompressed privately when null
+     */
+    public TableReader(CairoConfiguration configuration,
+                       TableToken tableToken,
+                       @Nullable MessageBus messageBus,
+                       @Nullable SymbolMapCache symbolMapCache,
+                       @Nullable TableReaderMetrics metrics,
+                       @Nullable MmapCache mmapCache,
+                       @Nullable MmapCache decompressedColumnCache
     ) {
         this.configuration = configuration;
+        this.symbolMapCache = symbolMapCache;
+        this.metrics = metrics;
+        this.mmapCache = mmapCache;
+        this.decompressedColumnCache = decompressedColumnCache != null ? decompressedColumnCache : new MmapCache();
+        this.lazyColumnMapping = configuration.isReaderLazyColumnMappingEnabled();
         this.clock = configuration.getMillisecondClock();
         this.ff = configuration.getFilesFacade();
         this.tableToken = tableToken;
@@ -138,6 +178,7 @@ public class TableReader implements Closeable, SymbolTableSource {
                 this.openPartitionInfo.setQuick(i * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_SIZE, -1); // size
                 this.openPartitionInfo.setQuick(i * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_NAME_TXN, txFile.getPartitionNameTxn(i)); // txn
                 this.openPartitionInfo.setQuick(i * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_COLUMN_VERSION, txFile.getPartitionColumnVersion(i)); // cv
+                this.openPartitionInfo.setQuick(i * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_COMPRESSED, 0); // compressed
             }
             this.columnTops = new LongList(capacity / 2);
             this.columnTops.setPos(capacity / 2);
@@ -234,7 +275,8 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     public MemoryR getColumn(int absoluteIndex) {
-        return columns.getQuick(absoluteIndex);
+        final MemoryMR column = columns.getQuick(absoluteIndex);
+        return column != DeferredMemoryMR.INSTANCE ? column : mapDeferredColumn(absoluteIndex);
     }
 
     public int getColumnBase(int partitionIndex) {
@@ -266,6 +308,23 @@ public class TableReader implements Closeable, SymbolTableSource {
         return metadata.getMaxUncommittedRows();
     }
 
+    /**
+     * Returns size of column files currently mapped by the reader. Columns of open partitions,
+     * which were not accessed yet, are not mapped when lazy column mapping is enabled.
+     *
+     * @return total size of mapped column files
+     */
+    public long getMappedColumnBytes() {
+        long bytes = 0;
+        for (int i = 2, n = columns.size(); i < n; i++) {
+            final MemoryMR column = columns.getQuick(i);
+            if (column != null) {
+                bytes += column.size();
+            }
+        }
+        return bytes;
+    }
+
     public TableReaderMetadata getMetadata() {
         return metadata;
     }
@@ -362,6 +421,47 @@ public class TableReader implements Closeable, SymbolTableSource {
         return openPartition0(partitionIndex);
     }
 
+    /**
+     * Opens bloom filter of a column for an open partition.
+     *
+     * @return false when the column has no up-to-date bloom filter
+     */
+    public boolean readBloomFilter(int partitionIndex, int columnIndex, BloomFilter bloomFilter) {
+        final long partitionRowCount = openPartition(partitionIndex);
+        final long partitionTimestamp = txFile.getPartitionTimestamp(partitionIndex);
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+        final Path path = pathGenPartitioned(partitionIndex);
+        try {
+            return bloomFilter.of(ff, TableUtils.bfFile(path, metadata.getColumnName(columnIndex), columnNameTxn), partitionRowCount);
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
+    /**
+     * Reads zone map of a column for the given rows of an open partition.
+     *
+     * @return false when the column has no up-to-date zone map
+     */
+    public boolean readZoneMap(int partitionIndex, int columnIndex, long rowLo, long rowHi, ZoneMap zoneMap) {
+        final long partitionRowCount = openPartition(partitionIndex);
+        final long partitionTimestamp = txFile.getPartitionTimestamp(partitionIndex);
+        final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(columnIndex));
+        final Path path = pathGenPartitioned(partitionIndex);
+        try {
+            return zoneMap.of(
+                    ff,
+                    TableUtils.zmFile(path, metadata.getColumnName(columnIndex), columnNameTxn),
+                    metadata.getColumnType(columnIndex),
+                    partitionRowCount,
+                    rowLo,
+                    rowHi
+            );
+        } finally {
+            path.trimTo(rootLen);
+        }
+    }
+
     public void reconcileOpenPartitionsFrom(int partitionIndex, boolean forceTruncate) {
         int txPartitionCount = txFile.getPartitionCount();
         int txPartitionIndex = partitionIndex;
@@ -580,7 +680,7 @@ public class TableReader implements Closeable, SymbolTableSource {
             throw CairoException.critical(0).put("Not indexed: ").put(metadata.getColumnName(columnIndex));
         }
 
-        MemoryR col = columns.getQuick(globalIndex);
+        MemoryR col = getColumn(globalIndex);
         if (col instanceof NullMemoryMR) {
             if (direction == BitmapIndexReader.DIR_BACKWARD) {
                 reader = new BitmapIndexBwdNullReader();
@@ -734,10 +834,38 @@ public class TableReader implements Closeable, SymbolTableSource {
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE, -1L); // size
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN, -1L); // name txn
         openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_COLUMN_VERSION, -1L); // column version
+        openPartitionInfo.setQuick(offset + PARTITIONS_SLOT_OFFSET_COMPRESSED, 0L); // compressed
         partitionCount++;
         LOG.debug().$("inserted partition [index=").$(partitionIndex).$(", path=").$(path).$(", timestamp=").$ts(timestamp).I$();
     }
 
+    private MemoryR mapDeferredColumn(int absoluteIndex) {
+        final int partitionIndex = (absoluteIndex - 2) >>> columnCountShl;
+        final int columnBase = getColumnBase(partitionIndex);
+        final int columnIndex = (absoluteIndex - 2 - columnBase) >>> 1;
+        final int offset = partitionIndex * PARTITIONS_SLOT_SIZE;
+        Path path = pathGenPartitioned(partitionIndex);
+        TableUtils.txnPartitionConditionally(path, openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_NAME_TXN));
+        try {
+            reloadColumnAt(
+                    partitionIndex,
+                    path,
+                    columns,
+                    columnTops,
+                    bitmapIndexes,
+                    columnBase,
+                    columnIndex,
+                    openPartitionInfo.getQuick(offset + PARTITIONS_SLOT_OFFSET_SIZE)
+            );
+        } finally {
+            path.trimTo(rootLen);
+        }
+        if (metrics != null) {
+            metrics.incrementLazilyMappedColumns();
+        }
+        return columns.getQuick(absoluteIndex);
+    }
+
     @NotNull
     // this method is not thread safe
     private SymbolMapReaderImpl newSymbolMapReader(int symbolColumnIndex, int columnIndex) {
@@ -749,7 +877,10 @@ public class TableReader implements Closeable, SymbolTableSource {
                 path,
                 metadata.getColumnName(columnIndex),
                 columnVersionReader.getDefaultColumnNameTxn(metadata.getWriterIndex(columnIndex)),
-                txFile.getSymbolValueCount(symbolColumnIndex)
+                txFile.getSymbolValueCount(symbolColumnIndex),
+                symbolMapCache,
+                metadata.getTableId(),
+                txFile.getTruncateVersion()
         );
     }
 
@@ -764,6 +895,44 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
+    private void openFixedColumn(
+            Path path,
+            int plen,
+            CharSequence name,
+            long columnTxn,
+            ObjList<MemoryMR> columns,
+            int primaryIndex,
+            MemoryMR mem,
+            long columnSize,
+            boolean compressedPartition
+    ) {
+        TableUtils.dFile(path.trimTo(plen), name, columnTxn);
+        // the writer restores raw files of compressed partition before it removes compressed files
+        if (compressedPartition && !ff.exists(path)) {
+            TableUtils.zFile(path.trimTo(plen), name, columnTxn);
+            if (!(mem instanceof MemoryCMRCompressedImpl)) {
+                Misc.free(mem);
+                mem = new MemoryCMRCompressedImpl(decompressedColumnCache);
+                columns.setQuick(primaryIndex, mem);
+            }
+            ((MemoryCMRCompressedImpl) mem).ofCompressed(
+                    ff,
+                    path,
+                    columnSize,
+                    metadata.getTableId(),
+                    txFile.getTruncateVersion(),
+                    txFile.getPartitionTableVersion()
+            );
+            return;
+        }
+        if (mem instanceof MemoryCMRCompressedImpl) {
+            Misc.free(mem);
+            mem = NullMemoryMR.INSTANCE;
+            columns.setQuick(primaryIndex, mem);
+        }
+        openOrCreateMemory(path, columns, primaryIndex, mem, columnSize);
+    }
+
     @NotNull
     private MemoryMR openOrCreateMemory(
             Path path,
@@ -772,7 +941,22 @@ public class TableReader implements Closeable, SymbolTableSource {
             MemoryMR mem,
             long columnSize
     ) {
-        if (mem != null && mem != NullMemoryMR.INSTANCE) {
+        if (mmapCache != null) {
+            if (!(mem instanceof MemoryCMRSharedImpl)) {
+                Misc.free(mem);
+                mem = new MemoryCMRSharedImpl(mmapCache);
+                columns.setQuick(primaryIndex, mem);
+            }
+            ((MemoryCMRSharedImpl) mem).ofShared(
+                    ff,
+                    path,
+                    columnSize,
+                    MemoryTag.MMAP_TABLE_READER,
+                    metadata.getTableId(),
+                    txFile.getTruncateVersion(),
+                    txFile.getPartitionTableVersion()
+            );
+        } else if (mem != null && mem != NullMemoryMR.INSTANCE) {
             mem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_READER);
         } else {
             mem = Vm.getMRInstance(ff, path, columnSize, MemoryTag.MMAP_TABLE_READER);
@@ -797,6 +981,10 @@ public class TableReader implements Closeable, SymbolTableSource {
 
                 final long partitionSize = txFile.getPartitionSize(partitionIndex);
                 if (partitionSize > -1L) {
+                    final int plen = path.length();
+                    final boolean compressed = ff.exists(path.concat(TableUtils.COMPRESSED_PARTITION_MARKER).$());
+                    path.trimTo(plen);
+                    openPartitionInfo.setQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_COMPRESSED, compressed ? 1L : 0L);
                     LOG.info()
                             .$("open partition ").utf8(path.$())
                             .$(" [rowCount=").$(partitionSize)
@@ -849,7 +1037,8 @@ public class TableReader implements Closeable, SymbolTableSource {
                     this.bitmapIndexes,
                     columnBase,
                     i,
-                    partitionRowCount
+                    partitionRowCount,
+                    lazyColumnMapping
             );
         }
     }
@@ -968,7 +1157,16 @@ public class TableReader implements Closeable, SymbolTableSource {
                     final int writerColumnIndex = metadata.getWriterIndex(columnIndex);
                     final long columnNameTxn = columnVersionReader.getDefaultColumnNameTxn(writerColumnIndex);
                     int symbolCount = txFile.getSymbolValueCount(symbolMapIndex++);
-                    ((SymbolMapReaderImpl) symbolMapReader).of(configuration, path, metadata.getColumnName(columnIndex), columnNameTxn, symbolCount);
+                    ((SymbolMapReaderImpl) symbolMapReader).of(
+                            configuration,
+                            path,
+                            metadata.getColumnName(columnIndex),
+                            columnNameTxn,
+                            symbolCount,
+                            symbolMapCache,
+                            metadata.getTableId(),
+                            txFile.getTruncateVersion()
+                    );
                 }
             }
         }
@@ -983,6 +1181,20 @@ public class TableReader implements Closeable, SymbolTableSource {
             int columnBase,
             int columnIndex,
             long partitionRowCount
+    ) {
+        reloadColumnAt(partitionIndex, path, columns, columnTops, indexReaders, columnBase, columnIndex, partitionRowCount, false);
+    }
+
+    private void reloadColumnAt(
+            int partitionIndex,
+            Path path,
+            ObjList<MemoryMR> columns,
+            LongList columnTops,
+            ObjList<BitmapIndexReader> indexReaders,
+            int columnBase,
+            int columnIndex,
+            long partitionRowCount,
+            boolean deferMapping
     ) {
         final int plen = path.length();
         try {
@@ -992,6 +1204,10 @@ public class TableReader implements Closeable, SymbolTableSource {
 
             MemoryMR mem1 = columns.getQuick(primaryIndex);
             MemoryMR mem2 = columns.getQuick(secondaryIndex);
+            if (mem1 == DeferredMemoryMR.INSTANCE) {
+                mem1 = null;
+                mem2 = null;
+            }
 
             final long partitionTimestamp = openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE);
             int writerIndex = metadata.getWriterIndex(columnIndex);
@@ -1011,6 +1227,19 @@ public class TableReader implements Closeable, SymbolTableSource {
             // column file. This makes it necessary to check the partition timestamp in Column Version file
             // of when the column was added.
             if (columnRowCount > 0 && (versionRecordIndex > -1L || columnVersionReader.getColumnTopPartitionTimestamp(writerIndex) <= partitionTimestamp)) {
+                if (deferMapping) {
+                    Misc.free(columns.getAndSetQuick(primaryIndex, DeferredMemoryMR.INSTANCE));
+                    Misc.free(columns.getAndSetQuick(secondaryIndex, DeferredMemoryMR.INSTANCE));
+                    // index readers are re-created on request, once the column is mapped
+                    Misc.free(indexReaders.getAndSetQuick(primaryIndex, null));
+                    Misc.free(indexReaders.getAndSetQuick(secondaryIndex, null));
+                    columnTops.setQuick(columnBase / 2 + columnIndex, columnTop);
+                    if (metrics != null) {
+                        metrics.incrementDeferredColumns();
+                    }
+                    return;
+                }
+
                 final int columnType = metadata.getColumnType(columnIndex);
 
                 if (ColumnType.isVariableLength(columnType)) {
@@ -1022,8 +1251,17 @@ public class TableReader implements Closeable, SymbolTableSource {
                     openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
                 } else {
                     long columnSize = columnRowCount << ColumnType.pow2SizeOf(columnType);
-                    TableUtils.dFile(path.trimTo(plen), name, columnTxn);
-                    openOrCreateMemory(path, columns, primaryIndex, mem1, columnSize);
+                    openFixedColumn(
+                            path,
+                            plen,
+                            name,
+                            columnTxn,
+                            columns,
+                            primaryIndex,
+                            mem1,
+                            columnSize,
+                            openPartitionInfo.getQuick(partitionIndex * PARTITIONS_SLOT_SIZE + PARTITIONS_SLOT_OFFSET_COMPRESSED) == 1L
+                    );
                     Misc.free(columns.getAndSetQuick(secondaryIndex, null));
                 }
 
@@ -1127,24 +1365,28 @@ public class TableReader implements Closeable, SymbolTableSource {
             for (int i = 0; i < columnCount; i++) {
                 final int index = getPrimaryColumnIndex(columnBase, i);
                 final MemoryMR mem1 = columns.getQuick(index);
-                if (mem1 instanceof NullMemoryMR) {
-                    reloadColumnAt(
-                            partitionIndex,
-                            path,
-                            columns,
-                            columnTops,
-                            bitmapIndexes,
-                            columnBase,
-                            i,
-                            rowCount
-                    );
-                } else {
-                    growColumn(
-                            mem1,
-                            columns.getQuick(index + 1),
-                            metadata.getColumnType(i),
-                            rowCount - getColumnTop(columnBase, i)
-                    );
+                // deferred columns are mapped with the new partition size on first access
+                if (mem1 != DeferredMemoryMR.INSTANCE) {
+                    // compressed columns cannot grow, they are re-opened once the writer restores raw file
+                    if (mem1 instanceof NullMemoryMR || mem1 instanceof MemoryCMRCompressedImpl) {
+                        reloadColumnAt(
+                                partitionIndex,
+                                path,
+                                columns,
+                                columnTops,
+                                bitmapIndexes,
+                                columnBase,
+                                i,
+                                rowCount
+                        );
+                    } else {
+                        growColumn(
+                                mem1,
+                                columns.getQuick(index + 1),
+                                metadata.getColumnType(i),
+                                rowCount - getColumnTop(columnBase, i)
+                        );
+                    }
                 }
 
                 // reload symbol map
@@ -1188,10 +1430,28 @@ public class TableReader implements Closeable, SymbolTableSource {
             final int writerColumnIndex = metadata.getWriterIndex(columnIndex);
             final long columnNameTxn = columnVersionReader.getDefaultColumnNameTxn(writerColumnIndex);
             if (reader instanceof SymbolMapReaderImpl) {
-                ((SymbolMapReaderImpl) reader).of(configuration, path, metadata.getColumnName(columnIndex), columnNameTxn, 0);
+                ((SymbolMapReaderImpl) reader).of(
+                        configuration,
+                        path,
+                        metadata.getColumnName(columnIndex),
+                        columnNameTxn,
+                        0,
+                        symbolMapCache,
+                        metadata.getTableId(),
+                        txFile.getTruncateVersion()
+                );
                 return reader;
             }
-            return new SymbolMapReaderImpl(configuration, path, metadata.getColumnName(columnIndex), columnNameTxn, 0);
+            return new SymbolMapReaderImpl(
+                    configuration,
+                    path,
+                    metadata.getColumnName(columnIndex),
+                    columnNameTxn,
+                    0,
+                    symbolMapCache,
+                    metadata.getTableId(),
+                    txFile.getTruncateVersion()
+            );
         } else {
             return reader;
         }
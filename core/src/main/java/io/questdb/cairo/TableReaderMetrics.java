@@ -0,0 +1,58 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.MetricsRegistry;
+
+public class TableReaderMetrics {
+
+    // Columns of opened partitions, which were left unmapped until first access.
+    private final Counter deferredColumnCounter;
+    // Deferred columns mapped on first access. Deferred minus mapped is the number of avoided mmap calls.
+    private final Counter lazilyMappedColumnCounter;
+
+    public TableReaderMetrics(MetricsRegistry metricsRegistry) {
+        this.deferredColumnCounter = metricsRegistry.newCounter("table_reader_deferred_columns");
+        this.lazilyMappedColumnCounter = metricsRegistry.newCounter("table_reader_lazily_mapped_columns");
+    }
+
+    public long getDeferredColumnCount() {
+        return deferredColumnCounter.getValue();
+    }
+
+    public long getLazilyMappedColumnCount() {
+        return lazilyMappedColumnCounter.getValue();
+    }
+
+    public void incrementDeferredColumns() {
+        deferredColumnCounter.inc();
+    }
+
+    public void incrementLazilyMappedColumns() {
+        lazilyMappedColumnCounter.inc();
+    }
+}
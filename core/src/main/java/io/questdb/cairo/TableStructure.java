@@ -42,6 +42,14 @@ public interface TableStructure extends TableDescriptor {
 
     boolean isIndexed(int columnIndex);
 
+    /**
+     * Upsert key columns are used to drop duplicate rows when out-of-order
+     * data is merged into the table. The designated timestamp is always part of the key.
+     */
+    default boolean isDedupKey(int columnIndex) {
+        return false;
+    }
+
     boolean isSequential(int columnIndex);
 
     boolean isWalEnabled();
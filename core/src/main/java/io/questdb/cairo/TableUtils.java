@@ -55,14 +55,23 @@ public final class TableUtils {
     public static final int ANY_TABLE_ID = -1;
     public static final int ANY_TABLE_VERSION = -1;
     public static final long COLUMN_NAME_TXN_NONE = -1L;
+    // number of bits in hashed index keys of non-symbol columns, i.e. there are 1024 key buckets
+    public static final int HASHED_INDEX_KEY_BITS = 10;
+    public static final String COLD_COPY_SUFFIX = ".copy";
     public static final String COLUMN_VERSION_FILE_NAME = "_cv";
+    public static final String COMPRESSED_COPY_SUFFIX = ".zcopy";
+    public static final String COMPRESSED_PARTITION_MARKER = "_compressed";
     public static final String DEFAULT_PARTITION_NAME = "default";
     public static final String DETACHED_DIR_MARKER = ".detached";
+    public static final String FILE_SUFFIX_BF = ".bf";
     public static final String FILE_SUFFIX_D = ".d";
     public static final String FILE_SUFFIX_I = ".i";
+    public static final String FILE_SUFFIX_Z = ".z";
+    public static final String FILE_SUFFIX_ZM = ".zm";
     public static final int INITIAL_TXN = 0;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION = 4;
     public static final int LONGS_PER_TX_ATTACHED_PARTITION_MSB = Numbers.msb(LONGS_PER_TX_ATTACHED_PARTITION);
+    public static final String MAT_VIEW_FILE_NAME = "_mv";
     public static final long META_COLUMN_DATA_SIZE = 32;
     public static final String META_FILE_NAME = "_meta";
     public static final long META_OFFSET_COLUMN_TYPES = 128;
@@ -113,6 +122,7 @@ public final class TableUtils {
     static final int META_FLAG_BIT_INDEXED = 1;
     static final int META_FLAG_BIT_NOT_INDEXED = 0;
     static final int META_FLAG_BIT_SEQUENTIAL = 1 << 1;
+    static final int META_FLAG_BIT_DEDUP_KEY = 1 << 2;
     // INT - symbol map count, this is a variable part of transaction file
     // below this offset we will have INT values for symbol map size
     static final long META_OFFSET_PARTITION_BY = 4;
@@ -154,6 +164,14 @@ public final class TableUtils {
         }
     }
 
+    public static LPSZ bfFile(Path path, CharSequence columnName, long columnTxn) {
+        path.concat(columnName).put(FILE_SUFFIX_BF);
+        if (columnTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnTxn);
+        }
+        return path.$();
+    }
+
     public static Path charFileName(Path path, CharSequence columnName, long columnNameTxn) {
         path.concat(columnName).put(".c");
         if (columnNameTxn > COLUMN_NAME_TXN_NONE) {
@@ -180,6 +198,81 @@ public final class TableUtils {
         return count;
     }
 
+    /**
+     * Builds compressed version of a partition in the destination directory. The destination holds
+     * compressed copies of eligible columns and hard links to the rest of the source partition files,
+     * the source partition is left intact. Designated timestamp, indexed and variable-length columns
+     * are left raw.
+     *
+     * @return true when the compressed version is complete, otherwise the destination is removed
+     */
+    public static boolean compressPartition(
+            FilesFacade ff,
+            Path src,
+            Path dst,
+            RecordMetadata metadata,
+            ColumnVersionReader columnVersionReader,
+            long partitionTimestamp,
+            int mkDirMode,
+            long opts
+    ) {
+        final int srcLen = src.length();
+        final int dstLen = dst.length();
+        boolean complete = false;
+        try {
+            // left over by compression that did not complete
+            if (ff.exists(dst.$()) && ff.rmdir(dst) != 0) {
+                LOG.error().$("could not remove stale partition version [errno=").$(ff.errno()).$(", path=").$(dst).I$();
+                return false;
+            }
+            if (ff.hardLinkDirRecursive(src, dst.trimTo(dstLen), mkDirMode) != 0) {
+                LOG.error().$("could not link partition files [errno=").$(ff.errno())
+                        .$(", from=").$(src.trimTo(srcLen))
+                        .$(", to=").$(dst.trimTo(dstLen)).I$();
+                return false;
+            }
+
+            final int timestampIndex = metadata.getTimestampIndex();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                final int columnType = metadata.getColumnType(i);
+                if (columnType < 0) {
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionReader.getColumnNameTxn(partitionTimestamp, metadata.getWriterIndex(i));
+                // compressed files left by restore are shared with the source partition, unlink them
+                if (ff.exists(zFile(dst.trimTo(dstLen), columnName, columnNameTxn)) && !ff.remove(dst)) {
+                    LOG.error().$("could not remove [errno=").$(ff.errno()).$(", file=").$(dst).I$();
+                }
+                final int codec = ColumnCodecs.codecOf(columnType);
+                if (codec == ColumnCodecs.CODEC_NONE || i == timestampIndex || metadata.isColumnIndexed(i)) {
+                    continue;
+                }
+                // raw file of the source is the same file as its link in the destination
+                if (ff.exists(dFile(src.trimTo(srcLen), columnName, columnNameTxn))
+                        && ColumnCodecs.compressFile(ff, src, zFile(dst.trimTo(dstLen), columnName, columnNameTxn), codec, opts)
+                        && !ff.remove(dFile(dst.trimTo(dstLen), columnName, columnNameTxn))) {
+                    // readers prefer raw file, keep it and drop the compressed copy
+                    if (!ff.remove(zFile(dst.trimTo(dstLen), columnName, columnNameTxn))) {
+                        LOG.error().$("could not remove [errno=").$(ff.errno()).$(", file=").$(dst).I$();
+                    }
+                }
+            }
+            if (!ff.touch(dst.trimTo(dstLen).concat(COMPRESSED_PARTITION_MARKER).$())) {
+                LOG.error().$("could not create compression marker [errno=").$(ff.errno()).$(", path=").$(dst).I$();
+                return false;
+            }
+            complete = true;
+            return true;
+        } finally {
+            src.trimTo(srcLen);
+            if (!complete) {
+                ff.rmdir(dst.trimTo(dstLen).$());
+            }
+            dst.trimTo(dstLen);
+        }
+    }
+
     public static void createColumnVersionFile(MemoryMARW mem) {
         // Create page of 0s for Column Version file "_cv"
         mem.extend(COLUMN_VERSION_FILE_HEADER_SIZE);
@@ -298,6 +391,10 @@ public final class TableUtils {
                     flags |= META_FLAG_BIT_SEQUENTIAL;
                 }
 
+                if (structure.isDedupKey(i)) {
+                    flags |= META_FLAG_BIT_DEDUP_KEY;
+                }
+
                 mem.putLong(flags);
                 mem.putInt(structure.getIndexBlockCapacity(i));
                 // reserved
@@ -885,6 +982,27 @@ public final class TableUtils {
         memory.close(true, Vm.TRUNCATE_TO_POINTER);
     }
 
+    /**
+     * Reads value of an indexable column, sign extended to long.
+     *
+     * @param mem    column memory
+     * @param shl    power of 2 size of the column type
+     * @param offset byte offset of the value
+     * @return column value
+     */
+    public static long readIndexedValue(MemoryR mem, int shl, long offset) {
+        switch (shl) {
+            case 0:
+                return mem.getByte(offset);
+            case 1:
+                return mem.getShort(offset);
+            case 2:
+                return mem.getInt(offset);
+            default:
+                return mem.getLong(offset);
+        }
+    }
+
     public static int readIntOrFail(FilesFacade ff, int fd, long offset, long tempMem8b, Path path) {
         if (ff.read(fd, tempMem8b, Integer.BYTES, offset) != Integer.BYTES) {
             throw CairoException.critical(ff.errno()).put("Cannot read: ").put(path);
@@ -911,6 +1029,32 @@ public final class TableUtils {
         return Unsafe.getUnsafe().getLong(tempMem8b);
     }
 
+    /**
+     * Removes cold volume copy of a partition version attached by {@link TableWriter#attachColdPartitions(LongList, long, long)}.
+     * Called once the soft link to the copy is removed from the table directory.
+     *
+     * @param coldTablePath table directory on the cold volume, null when partition tiering is disabled
+     */
+    public static void removeColdPartition(FilesFacade ff, @Nullable Path coldTablePath, int partitionBy, long partitionTimestamp, long partitionNameTxn) {
+        if (coldTablePath == null) {
+            return;
+        }
+        final int len = coldTablePath.length();
+        try {
+            setPathForPartition(coldTablePath, len, partitionBy, partitionTimestamp, partitionNameTxn);
+            if (ff.exists(coldTablePath.$())) {
+                final int errno = ff.rmdir(coldTablePath);
+                if (errno == 0) {
+                    LOG.info().$("purged cold partition [path=").$(coldTablePath).I$();
+                } else {
+                    LOG.error().$("could not purge cold partition [path=").$(coldTablePath).$(", errno=").$(errno).I$();
+                }
+            }
+        } finally {
+            coldTablePath.trimTo(len);
+        }
+    }
+
     public static void removeOrException(FilesFacade ff, int fd, LPSZ path) {
         if (ff.exists(path) && !ff.closeRemove(fd, path)) {
             throw CairoException.critical(ff.errno()).put("Cannot remove ").put(path);
@@ -1017,6 +1161,28 @@ public final class TableUtils {
         }
     }
 
+    /**
+     * Sets path to the cold volume copy of a partition version. {@link PartitionTieringJob} copies
+     * partitions under this name before {@link TableWriter#attachColdPartitions(LongList, long, long)}
+     * renames the copy to the new partition version.
+     */
+    public static void setColdCopyPath(Path coldTablePath, int partitionBy, long partitionTimestamp, long partitionNameTxn) {
+        setPathForPartition(coldTablePath, partitionBy, partitionTimestamp, false);
+        txnPartitionConditionally(coldTablePath, partitionNameTxn);
+        coldTablePath.put(COLD_COPY_SUFFIX);
+    }
+
+    /**
+     * Sets path to the compressed copy of a partition version. {@link PartitionCompressionJob} compresses
+     * partitions under this name before {@link TableWriter#attachCompressedPartitions(LongList, long, long)}
+     * renames the copy to the new partition version.
+     */
+    public static void setCompressedCopyPath(Path tablePath, int partitionBy, long partitionTimestamp, long partitionNameTxn) {
+        setPathForPartition(tablePath, partitionBy, partitionTimestamp, false);
+        txnPartitionConditionally(tablePath, partitionNameTxn);
+        tablePath.put(COMPRESSED_COPY_SUFFIX);
+    }
+
     public static void setNull(int columnType, long addr, long count) {
         switch (ColumnType.tagOf(columnType)) {
             case ColumnType.BOOLEAN:
@@ -1106,10 +1272,54 @@ public final class TableUtils {
         return PartitionBy.setSinkForPartition(path.slash(), partitionBy, timestamp, calculatePartitionMax);
     }
 
+    /**
+     * Fsyncs the directory, and before that the files in it when requested. Partition
+     * directories are flat, subdirectories are not synced.
+     *
+     * @return false when any of the files or the directory could not be synced, errno is set
+     */
+    public static boolean syncDir(FilesFacade ff, Path path, boolean syncFiles) {
+        if (ff.isRestrictedFileSystem()) {
+            return true;
+        }
+        final int len = path.length();
+        try {
+            if (syncFiles) {
+                final long p = ff.findFirst(path.$());
+                if (p > 0) {
+                    try {
+                        do {
+                            if (ff.findType(p) == Files.DT_FILE && !syncFile(ff, path.trimTo(len).concat(ff.findName(p)).$())) {
+                                return false;
+                            }
+                        } while (ff.findNext(p) > 0);
+                    } finally {
+                        ff.findClose(p);
+                    }
+                }
+            }
+            return syncFile(ff, path.trimTo(len).$());
+        } finally {
+            path.trimTo(len);
+        }
+    }
+
     public static int toIndexKey(int symbolKey) {
         return symbolKey == SymbolTable.VALUE_IS_NULL ? 0 : symbolKey + 1;
     }
 
+    /**
+     * Maps value of an indexed column to bitmap index key. Symbol keys map one-to-one, other values
+     * are hashed into a fixed number of buckets to keep index key space bounded. Rows found via a hashed
+     * key must be re-checked against the value.
+     */
+    public static int toIndexKey(int columnType, long value) {
+        if (ColumnType.isSymbol(columnType)) {
+            return toIndexKey((int) value);
+        }
+        return (int) ((value * 0x9E3779B97F4A7C15L) >>> (Long.SIZE - HASHED_INDEX_KEY_BITS));
+    }
+
     public static void txnPartition(CharSink path, long txn) {
         path.put('.').put(txn);
     }
@@ -1161,8 +1371,8 @@ public final class TableUtils {
                 }
 
                 if (isColumnIndexed(metaMem, i)) {
-                    if (!ColumnType.isSymbol(type)) {
-                        throw validationException(metaMem).put("Index flag is only supported for SYMBOL").put(" at [").put(i).put(']');
+                    if (!ColumnType.isIndexable(type)) {
+                        throw validationException(metaMem).put("Index flag is only supported for SYMBOL, SHORT, INT, LONG and GEOHASH").put(" at [").put(i).put(']');
                     }
 
                     if (getIndexBlockCapacity(metaMem, i) < 2) {
@@ -1240,6 +1450,22 @@ public final class TableUtils {
         }
     }
 
+    public static LPSZ zFile(Path path, CharSequence columnName, long columnTxn) {
+        path.concat(columnName).put(FILE_SUFFIX_Z);
+        if (columnTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnTxn);
+        }
+        return path.$();
+    }
+
+    public static LPSZ zmFile(Path path, CharSequence columnName, long columnTxn) {
+        path.concat(columnName).put(FILE_SUFFIX_ZM);
+        if (columnTxn > COLUMN_NAME_TXN_NONE) {
+            path.put('.').put(columnTxn);
+        }
+        return path.$();
+    }
+
     private static void createTableNameFile(MemoryMARW mem, CharSequence charSequence) {
         mem.putStr(charSequence);
         mem.putByte((byte) 0);
@@ -1265,6 +1491,18 @@ public final class TableUtils {
         return metaMem.getInt(offset);
     }
 
+    private static boolean syncFile(FilesFacade ff, LPSZ path) {
+        final int fd = ff.openRO(path);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            return ff.fsync(fd) == 0;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
     static void createDirsOrFail(FilesFacade ff, Path path, int mkDirMode) {
         if (ff.mkdirs(path, mkDirMode) != 0) {
             throw CairoException.critical(ff.errno()).put("could not create directories [file=").put(path).put(']');
@@ -1283,6 +1521,10 @@ public final class TableUtils {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_INDEXED) != 0;
     }
 
+    static boolean isDedupKey(MemoryR metaMem, int columnIndex) {
+        return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_DEDUP_KEY) != 0;
+    }
+
     static boolean isSequential(MemoryR metaMem, int columnIndex) {
         return (getColumnFlags(metaMem, columnIndex) & META_FLAG_BIT_SEQUENTIAL) != 0;
     }
@@ -53,6 +53,7 @@ import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
 import io.questdb.tasks.*;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
@@ -98,6 +99,17 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private final SCSequence commandSubSeq;
     private final CairoConfiguration configuration;
     private final MemoryMAR ddlMem;
+    // base addresses of upsert key columns in O3 memory, one per key column
+    private final LongList dedupKeyAddresses = new LongList();
+    // upsert key columns, excluding the designated timestamp
+    private final IntList dedupKeyColumns = new IntList();
+    private final IntList dedupKeyShl = new IntList();
+    // fd, address, size and column top of partition columns mapped for deduplication
+    private final LongList dedupPartitionColumns = new LongList();
+    // partition timestamp, lo and hi of the partition rows in dedupReplacedRows
+    private final LongList dedupReplacedPartitions = new LongList();
+    // committed rows replaced by upserted rows, ascending within partition
+    private final LongList dedupReplacedRows = new LongList();
     private final int defaultCommitMode;
     private final ObjList<ColumnIndexer> denseIndexers = new ObjList<>();
     private final ObjList<MapWriter> denseSymbolMapWriters;
@@ -105,6 +117,8 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private final FilesFacade ff;
     private final StringSink fileNameSink = new StringSink();
     private final int fileOperationRetryCount;
+    private final GroupCommitSync.Member groupCommitMember = new GroupCommitSync.Member();
+    private final GroupCommitSync groupCommitSync;
     private final SOCountDownLatch indexLatch = new SOCountDownLatch();
     private final MemoryMR indexMem = Vm.getMRInstance();
     private final LongList indexSequences = new LongList();
@@ -139,6 +153,10 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private final PartitionBy.PartitionFloorMethod partitionFloorMethod;
     private final LongList partitionRemoveCandidates = new LongList();
     private final Path path;
+    // partitions of the replaced range that received rows of the commit
+    private final LongList replacedPartitions = new LongList();
+    // versions of partitions restored from compression, their compressed files are removed once readers release them
+    private final LongList restoredPartitions = new LongList();
     private final int rootLen;
     private final FragileCode RECOVER_FROM_META_RENAME_FAILURE = this::recoverFromMetaRenameFailure;
     private final FindVisitor removePartitionDirectories = this::removePartitionDirectories0;
@@ -154,6 +172,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private final LowerCaseCharSequenceIntHashMap validationMap = new LowerCaseCharSequenceIntHashMap();
     private final WeakClosableObjectPool<MemoryCMOR> walColumnMemoryPool;
     private final ObjList<MemoryCMOR> walMappedColumns = new ObjList<>();
+    private final ObjList<MemoryCARW> walSquashColumns = new ObjList<>();
     private ObjList<? extends MemoryA> activeColumns;
     private ObjList<Runnable> activeNullSetters;
     private ColumnVersionReader attachColumnVersionReader;
@@ -170,6 +189,10 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     // ILP related
     private double commitIntervalFraction;
     private long committedMasterRef;
+    private boolean dedupEnabled;
+    // rows moved from the last partition to O3 memory by the commit, they were written before the O3 rows
+    private long dedupMovedRowCount;
+    private long dedupMovedRowLo;
     private String designatedTimestampColumnName;
     private boolean distressed = false;
     private DropIndexOperator dropIndexOperator;
@@ -202,6 +225,8 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private long partitionTimestampHi;
     private boolean performRecovery;
     private boolean removeDirOnCancelRow = true;
+    private long replaceRangeHi = Long.MIN_VALUE;
+    private long replaceRangeLo = Long.MAX_VALUE;
     private int rowAction = ROW_ACTION_OPEN_PARTITION;
     private TableToken tableToken;
     private long tempMem16b = Unsafe.malloc(16, MemoryTag.NATIVE_TABLE_WRITER);
@@ -211,6 +236,13 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     private final FragileCode RECOVER_FROM_SWAP_RENAME_FAILURE = this::recoverFromSwapRenameFailure;
     private final FragileCode RECOVER_FROM_COLUMN_OPEN_FAILURE = this::recoverOpenColumnFailure;
     private UpdateOperatorImpl updateOperatorImpl;
+    private boolean walSquashOrdered = true;
+    private long walSquashRowCount;
+    private long walSquashSeqTxn;
+    private long walSquashSize;
+    private long walSquashTimestampMax = Long.MIN_VALUE;
+    private long walSquashTimestampMin = Long.MAX_VALUE;
+    private int walSquashTxnCount;
 
     public TableWriter(
             CairoConfiguration configuration,
@@ -221,6 +253,20 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
             LifecycleManager lifecycleManager,
             CharSequence root,
             Metrics metrics
+    ) {
+        this(configuration, tableToken, messageBus, ownMessageBus, lock, lifecycleManager, root, metrics, null);
+    }
+
+    public TableWriter(
+            CairoConfiguration configuration,
+            TableToken tableToken,
+            MessageBus messageBus,
+            MessageBus ownMessageBus,
+            boolean lock,
+            LifecycleManager lifecycleManager,
+            CharSequence root,
+            Metrics metrics,
+            @Nullable GroupCommitSync groupCommitSync
     ) {
         LOG.info().$("open '").utf8(tableToken.getTableName()).$('\'').$();
         this.configuration = configuration;
@@ -233,6 +279,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
             this.messageBus = messageBus;
         }
         this.defaultCommitMode = configuration.getCommitMode();
+        this.groupCommitSync = groupCommitSync;
         this.lifecycleManager = lifecycleManager;
         this.parallelIndexerEnabled = configuration.isParallelIndexingEnabled();
         this.ff = configuration.getFilesFacade();
@@ -307,6 +354,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
             configureColumnMemory();
             configureTimestampSetter();
+            configureDedupKeys();
             this.appendTimestampSetter = timestampSetter;
             configureAppendPosition();
             purgeUnusedPartitions();
@@ -506,13 +554,13 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         final int existingType = getColumnType(metaMem, columnIndex);
         LOG.info().$("adding index to '").utf8(columnName).$('[').$(ColumnType.nameOf(existingType)).$(", path=").$(path).I$();
 
-        if (!ColumnType.isSymbol(existingType)) {
+        if (!ColumnType.isIndexable(existingType)) {
             LOG.error().$("cannot create index for [column='").utf8(columnName).$(", type=").$(ColumnType.nameOf(existingType)).$(", path=").$(path).I$();
             throw CairoException.nonCritical().put("cannot create index for [column='").put(columnName).put(", type=").put(ColumnType.nameOf(existingType)).put(", path=").put(path).put(']');
         }
 
         // create indexer
-        final SymbolColumnIndexer indexer = new SymbolColumnIndexer();
+        final SymbolColumnIndexer indexer = new SymbolColumnIndexer(existingType);
 
         final long columnNameTxn = columnVersionWriter.getColumnNameTxn(txWriter.getLastPartitionTimestamp(), columnIndex);
         try {
@@ -606,6 +654,173 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return operation.apply(this, true);
     }
 
+    /**
+     * Attaches partition copies made on the cold volume by {@link PartitionTieringJob} as new partition
+     * versions, see {@link CairoConfiguration#getPartitionTieringRoot()}. The hot directory of each new
+     * version is a soft link to its copy. Readers and O3 open partitions by the same path regardless of
+     * the volume, the previous hot version is purged once readers release it. A copy is dropped when
+     * its partition changed after it was copied. The last partition is never attached from a copy.
+     *
+     * @param copies           partition timestamp, name txn, size and column version of each copied partition version
+     * @param structureVersion structure version of the table the copies were made at
+     * @param truncateVersion  truncate version of the table the copies were made at
+     * @return number of attached partitions
+     */
+    public int attachColdPartitions(LongList copies, long structureVersion, long truncateVersion) {
+        final CharSequence coldRoot = configuration.getPartitionTieringRoot();
+        assert coldRoot != null && PartitionBy.isPartitioned(partitionBy);
+        final Path copyPath = Path.getThreadLocal(coldRoot).concat(tableToken);
+        final Path coldPath = Path.getThreadLocal2(coldRoot).concat(tableToken);
+        final int coldRootLen = coldPath.length();
+        final boolean tableUnchanged = txWriter.getStructureVersion() == structureVersion
+                && txWriter.getTruncateVersion() == truncateVersion;
+
+        // all partitions attached by this call become versions of the next transaction
+        final long nameTxn = getTxn();
+        int attached = 0;
+        for (int i = 0, n = copies.size(); i < n; i += 4) {
+            final long partitionTimestamp = copies.getQuick(i);
+            final long copyNameTxn = copies.getQuick(i + 1);
+            final long partitionSize = copies.getQuick(i + 2);
+            final int partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+            TableUtils.setColdCopyPath(copyPath.trimTo(coldRootLen), partitionBy, partitionTimestamp, copyNameTxn);
+            copyPath.$();
+            if (
+                    !tableUnchanged
+                            || partitionIndex < 0
+                            || partitionIndex == txWriter.getPartitionCount() - 1
+                            || txWriter.getPartitionNameTxn(partitionIndex) != copyNameTxn
+                            || txWriter.getPartitionSize(partitionIndex) != partitionSize
+                            || txWriter.getPartitionColumnVersion(partitionIndex) != copies.getQuick(i + 3)
+            ) {
+                LOG.info().$("partition changed since copied to cold volume [path=").$(copyPath).I$();
+                ff.rmdir(copyPath);
+                continue;
+            }
+
+            setPathForPartition(coldPath.trimTo(coldRootLen), partitionBy, partitionTimestamp, false);
+            txnPartitionConditionally(coldPath, nameTxn);
+            try {
+                // left over by an attach that did not commit, the version is not visible to readers
+                if (ff.exists(coldPath.$()) && ff.rmdir(coldPath) != 0) {
+                    LOG.error().$("could not remove stale cold partition [path=").$(coldPath).I$();
+                    ff.rmdir(copyPath);
+                    continue;
+                }
+                if (ff.rename(copyPath, coldPath.$()) != Files.FILES_RENAME_OK) {
+                    LOG.error().$("could not rename cold partition copy [errno=").$(ff.errno())
+                            .$(", from=").$(copyPath).$(", to=").$(coldPath).I$();
+                    ff.rmdir(copyPath);
+                    continue;
+                }
+                setPathForPartition(other, partitionBy, partitionTimestamp, false);
+                txnPartitionConditionally(other, nameTxn);
+                if (ff.isSoftLink(other.$())) {
+                    ff.unlink(other);
+                }
+                if (ff.softLink(coldPath, other) != 0) {
+                    LOG.error().$("could not link cold partition [errno=").$(ff.errno())
+                            .$(", from=").$(other).$(", to=").$(coldPath).I$();
+                    ff.rmdir(coldPath);
+                    continue;
+                }
+            } finally {
+                other.trimTo(rootLen);
+            }
+            partitionRemoveCandidates.add(partitionTimestamp, copyNameTxn);
+            txWriter.updatePartitionSizeAndTxnByIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+            attached++;
+            LOG.info().$("moved partition to cold volume [table=").utf8(tableToken.getTableName())
+                    .$(", partition=").$ts(partitionTimestamp)
+                    .$(", path=").$(coldPath).I$();
+        }
+
+        if (attached > 0) {
+            // renamed copies and their links are to be on disk before the transaction refers to them
+            syncDir(coldPath.trimTo(coldRootLen));
+            syncDir(other.trimTo(rootLen));
+            txWriter.bumpPartitionTableVersion();
+            txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+            processPartitionRemoveCandidates();
+        }
+        return attached;
+    }
+
+    /**
+     * Attaches compressed copies of partitions made by {@link PartitionCompressionJob} as new partition
+     * versions. A copy of a partition that changed since it was copied, or of a table that changed
+     * structure or was truncated, is dropped. Previous versions of the partitions are purged once
+     * readers release them.
+     *
+     * @param copies           partition timestamp, copied partition name txn, row count and column version
+     *                         of each copy, see {@link TableUtils#setCompressedCopyPath(Path, int, long, long)}
+     * @param structureVersion table structure version the copies were made at
+     * @param truncateVersion  table truncate version the copies were made at
+     * @return number of attached partitions
+     */
+    public int attachCompressedPartitions(LongList copies, long structureVersion, long truncateVersion) {
+        assert PartitionBy.isPartitioned(partitionBy);
+        final boolean tableUnchanged = txWriter.getStructureVersion() == structureVersion
+                && txWriter.getTruncateVersion() == truncateVersion;
+
+        // all partitions attached by this call become versions of the next transaction
+        final long nameTxn = getTxn();
+        int attached = 0;
+        for (int i = 0, n = copies.size(); i < n; i += 4) {
+            final long partitionTimestamp = copies.getQuick(i);
+            final long copyNameTxn = copies.getQuick(i + 1);
+            final long partitionSize = copies.getQuick(i + 2);
+            final int partitionIndex = txWriter.getPartitionIndex(partitionTimestamp);
+            TableUtils.setCompressedCopyPath(other.trimTo(rootLen), partitionBy, partitionTimestamp, copyNameTxn);
+            other.$();
+            try {
+                if (
+                        !tableUnchanged
+                                || partitionIndex < 0
+                                || partitionIndex == txWriter.getPartitionCount() - 1
+                                || txWriter.getPartitionNameTxn(partitionIndex) != copyNameTxn
+                                || txWriter.getPartitionSize(partitionIndex) != partitionSize
+                                || txWriter.getPartitionColumnVersion(partitionIndex) != copies.getQuick(i + 3)
+                ) {
+                    LOG.info().$("partition changed since compressed [path=").$(other).I$();
+                    ff.rmdir(other);
+                    continue;
+                }
+
+                setPathForPartition(path.trimTo(rootLen), partitionBy, partitionTimestamp, false);
+                txnPartitionConditionally(path, nameTxn);
+                // left over by an attach that did not commit, the version is not visible to readers
+                if (ff.exists(path.$()) && ff.rmdir(path) != 0) {
+                    LOG.error().$("could not remove stale partition version [path=").$(path).I$();
+                    ff.rmdir(other);
+                    continue;
+                }
+                if (ff.rename(other, path) != Files.FILES_RENAME_OK) {
+                    LOG.error().$("could not rename compressed partition copy [errno=").$(ff.errno())
+                            .$(", from=").$(other).$(", to=").$(path).I$();
+                    ff.rmdir(other);
+                    continue;
+                }
+                LOG.info().$("compressed partition [path=").$(path).I$();
+            } finally {
+                other.trimTo(rootLen);
+                path.trimTo(rootLen);
+            }
+            partitionRemoveCandidates.add(partitionTimestamp, copyNameTxn);
+            txWriter.updatePartitionSizeAndTxnByIndex(partitionIndex * LONGS_PER_TX_ATTACHED_PARTITION, partitionSize);
+            attached++;
+        }
+
+        if (attached > 0) {
+            // renamed copies are to be on disk before the transaction refers to them
+            syncDir(other.trimTo(rootLen));
+            txWriter.bumpPartitionTableVersion();
+            txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+            processPartitionRemoveCandidates();
+        }
+        return attached;
+    }
+
     @Override
     public AttachDetachStatus attachPartition(long timestamp) {
         // -1 means unknown size
@@ -747,6 +962,33 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    /**
+     * Starts replacing rows of the [lo, hi) range with the rows appended until the next commit. Rows outside
+     * the range are rejected. Partitions of the range are written as new partition versions and their old
+     * versions are purged once readers release them, partitions of the range that receive no rows are removed.
+     * Readers observe either the old or the new content of the range.
+     *
+     * @param lo range low bound, inclusive, must be the start of a partition
+     * @param hi range high bound, exclusive
+     */
+    public void beginReplace(long lo, long hi) {
+        if (!PartitionBy.isPartitioned(partitionBy)) {
+            throw CairoException.nonCritical().put("cannot replace rows of non-partitioned table [table=").put(tableToken.getTableName()).put(']');
+        }
+        if (dedupEnabled) {
+            throw CairoException.nonCritical().put("cannot replace rows of table with upsert keys [table=").put(tableToken.getTableName()).put(']');
+        }
+        if (partitionFloorMethod.floor(lo) != lo) {
+            throw CairoException.nonCritical().put("replaced range must start at partition boundary [lo=").ts(lo).put(']');
+        }
+        commit();
+        replacedPartitions.clear();
+        if (txWriter.getMaxTimestamp() != Long.MIN_VALUE) {
+            replaceRangeLo = lo;
+            replaceRangeHi = hi;
+        }
+    }
+
     @Override
     public void changeCacheFlag(int columnIndex, boolean cache) {
         checkDistressed();
@@ -799,7 +1041,83 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
     public void commitSeqTxn(long seqTxn) {
         txWriter.setSeqTxn(seqTxn);
-        txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+        final boolean groupSync = isWalGroupSync();
+        if (groupSync) {
+            groupCommitSync.begin();
+        }
+        try {
+            commitWalTxWriter(groupSync);
+        } finally {
+            if (groupSync) {
+                groupCommitSync.end();
+            }
+        }
+    }
+
+    /**
+     * Applies WAL transactions accumulated by {@link #squashWalData} to the table as a single block
+     * and commits them with the sequencer txn of the last squashed transaction.
+     */
+    public void commitWalSquash() {
+        if (walSquashTxnCount == 0) {
+            return;
+        }
+
+        final int timestampIndex = metadata.getTimestampIndex();
+        final long rowCount = walSquashRowCount;
+        final long seqTxn = walSquashSeqTxn;
+        final long o3TimestampMin = walSquashTimestampMin;
+        final long o3TimestampMax = walSquashTimestampMax;
+        final boolean ordered = walSquashOrdered;
+
+        txWriter.beginPartitionSizeUpdate();
+        LOG.debug().$("processing squashed WAL [txnCount=").$(walSquashTxnCount).$(", rowCount=").$(rowCount)
+                .$(", tsMin=").$ts(o3TimestampMin).$(", tsMax=").$ts(o3TimestampMax)
+                .I$();
+        if (rowAction == ROW_ACTION_OPEN_PARTITION && txWriter.getMaxTimestamp() == Long.MIN_VALUE) {
+            // table truncated, open partition file.
+            openFirstPartition(o3TimestampMin);
+        }
+        this.lastPartitionTimestamp = partitionFloorMethod.floor(partitionTimestampHi);
+        final long partitionTimestampHiLimit = partitionCeilMethod.ceil(partitionTimestampHi) - 1;
+
+        final boolean groupSync = isWalGroupSync();
+        if (groupSync) {
+            // lets the group leader wait for this commit while its data is being written
+            groupCommitSync.begin();
+        }
+        try {
+            final int columnSlots = metadata.getColumnCount() * 2;
+            if (walSquashColumns.size() < columnSlots) {
+                walSquashColumns.setPos(columnSlots);
+            }
+            // row ids in the timestamp index still point to the source WAL segments
+            final long timestampAddr = walSquashColumns.getQuick(getPrimaryColumnIndex(timestampIndex)).addressOf(0);
+            Vect.shiftTimestampIndex(timestampAddr, rowCount, timestampAddr);
+            o3RowCount = rowCount;
+            o3Columns = walSquashColumns;
+            try {
+                processWalRows(null, timestampIndex, ordered, 0, rowCount, o3TimestampMin, o3TimestampMax, null);
+            } finally {
+                finishO3Append(0L);
+                o3Columns = o3MemColumns;
+                clearWalSquash();
+            }
+            finishO3Commit(partitionTimestampHiLimit);
+            commitWalTransaction(seqTxn, groupSync);
+        } finally {
+            if (groupSync) {
+                groupCommitSync.end();
+            }
+        }
+    }
+
+    /**
+     * Restores raw column files of a partition compressed by {@link PartitionCompressionJob}.
+     * Does nothing when the partition is not compressed.
+     */
+    public void decompressPartition(int partitionIndex) {
+        restoreCompressedPartition(txWriter.getPartitionTimestamp(partitionIndex), txWriter.getPartitionNameTxn(partitionIndex));
     }
 
     public void destroy() {
@@ -1166,6 +1484,18 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return updateOperatorImpl;
     }
 
+    public long getWalSquashRowCount() {
+        return walSquashRowCount;
+    }
+
+    public long getWalSquashSize() {
+        return walSquashSize;
+    }
+
+    public int getWalSquashTxnCount() {
+        return walSquashTxnCount;
+    }
+
     public boolean hasO3() {
         return o3MasterRef > -1;
     }
@@ -1204,6 +1534,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
     @Override
     public Row newRow(long timestamp) {
+        if (replaceRangeLo < replaceRangeHi && (timestamp < replaceRangeLo || timestamp >= replaceRangeHi)) {
+            throw CairoException.nonCritical().put("timestamp is outside of the replaced range [timestamp=").ts(timestamp).put(']');
+        }
 
         switch (rowAction) {
             case ROW_ACTION_OPEN_PARTITION:
@@ -1222,8 +1555,14 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
             default: // switch partition
                 bumpMasterRef();
-                if (timestamp > partitionTimestampHi || timestamp < txWriter.getMaxTimestamp()) {
-                    if (timestamp < txWriter.getMaxTimestamp()) {
+                // replaced partitions are written anew by the O3 merge
+                if (replaceRangeLo < replaceRangeHi) {
+                    return newRowO3(timestamp);
+                }
+                // rows of a table with upsert keys that repeat the max timestamp may be duplicates,
+                // they are routed to O3 to be deduplicated by the merge
+                if (timestamp > partitionTimestampHi || timestamp < txWriter.getMaxTimestamp() || (dedupEnabled && timestamp == txWriter.getMaxTimestamp())) {
+                    if (timestamp <= txWriter.getMaxTimestamp()) {
                         return newRowO3(timestamp);
                     }
 
@@ -1317,36 +1656,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
             try {
                 o3Columns = walMappedColumns;
-                MemoryCR walTimestampColumn = walMappedColumns.getQuick(getPrimaryColumnIndex(timestampIndex));
-                long timestampAddr;
-                long o3Lo = rowLo;
-                long o3Hi = rowHi;
-
-                if (!ordered) {
-                    final long timestampMemorySize = (rowHi - rowLo) << 4;
-                    o3TimestampMem.jumpTo(timestampMemorySize);
-                    long destTimestampAddr = o3TimestampMem.getAddress();
-                    Vect.memcpy(destTimestampAddr, walTimestampColumn.addressOf(rowLo << 4), timestampMemorySize);
-                    if (rowHi - rowLo > 600 || !o3QuickSortEnabled) {
-                        o3TimestampMemCpy.jumpTo(timestampMemorySize);
-                        Vect.radixSortLongIndexAscInPlace(destTimestampAddr, o3RowCount, o3TimestampMemCpy.addressOf(0));
-                    } else {
-                        Vect.quickSortLongIndexAscInPlace(destTimestampAddr, o3RowCount);
-                    }
-
-                    o3Sort(destTimestampAddr, timestampIndex, rowHi - rowLo);
-                    timestampAddr = destTimestampAddr;
-
-                    // Sorted data is now sorted in memory copy of the data from mmap files
-                    // Row indexes start from 0, not rowLo
-                    o3Hi = rowHi - rowLo;
-                    o3Lo = 0L;
-                } else {
-                    timestampAddr = walTimestampColumn.addressOf(0);
-                }
-
-                o3Columns = remapWalSymbols(mapDiffCursor, o3Lo, o3Hi, walPath);
-                processO3Block(0L, timestampIndex, timestampAddr, o3Hi, o3TimestampMin, o3TimestampMax, !ordered, o3Lo);
+                processWalRows(walPath, timestampIndex, ordered, rowLo, rowHi, o3TimestampMin, o3TimestampMax, mapDiffCursor);
             } finally {
                 finishO3Append(0L);
                 o3Columns = o3MemColumns;
@@ -1384,22 +1694,19 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
             // table truncated, open partition file.
             openFirstPartition(o3TimestampMin);
         }
-        processWalBlock(walPath, metadata.getTimestampIndex(), inOrder, rowLo, rowHi, o3TimestampMin, o3TimestampMax, mapDiffCursor);
-        final long committedRowCount = txWriter.unsafeCommittedFixedRowCount() + txWriter.unsafeCommittedTransientRowCount();
-        final long rowsAdded = txWriter.getRowCount() - committedRowCount;
-
-        updateIndexes();
-        columnVersionWriter.commit();
-        txWriter.setSeqTxn(seqTxn);
-        txWriter.setColumnVersion(columnVersionWriter.getVersion());
-        txWriter.commit(defaultCommitMode, this.denseSymbolMapWriters);
-
-        // Bookmark masterRef to track how many rows is in uncommitted state
-        this.committedMasterRef = masterRef;
-        processPartitionRemoveCandidates();
-
-        metrics.tableWriter().incrementCommits();
-        metrics.tableWriter().addCommittedRows(rowsAdded);
+        final boolean groupSync = isWalGroupSync();
+        if (groupSync) {
+            // lets the group leader wait for this commit while its data is being written
+            groupCommitSync.begin();
+        }
+        try {
+            processWalBlock(walPath, metadata.getTimestampIndex(), inOrder, rowLo, rowHi, o3TimestampMin, o3TimestampMax, mapDiffCursor);
+            commitWalTransaction(seqTxn, groupSync);
+        } finally {
+            if (groupSync) {
+                groupCommitSync.end();
+            }
+        }
     }
 
     public void publishAsyncWriterCommand(AsyncWriterCommand asyncWriterCommand) {
@@ -1417,6 +1724,14 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    /**
+     * Rebuilds zone maps and bloom filters of a partition after its columns were rewritten,
+     * e.g. by UPDATE. The last partition is ignored, it gets summaries when it is sealed.
+     */
+    public void rebuildColumnSummaries(long partitionTimestamp) {
+        buildColumnSummaries(partitionTimestamp, partitionTimestamp);
+    }
+
     /**
      * Truncates table partitions leaving symbol files.
      * Used for truncate without holding Read lock on the table like in case of WAL tables.
@@ -1470,6 +1785,10 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
             throw CairoException.nonCritical().put("Cannot remove timestamp from partitioned table");
         }
 
+        if (dedupKeyColumns.contains(index)) {
+            throw CairoException.nonCritical().put("Cannot remove upsert key column [column=").put(name).put(']');
+        }
+
         commit();
 
         this.metaSwapIndex = removeColumnFromMeta(index);
@@ -1676,9 +1995,11 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
     @Override
     public void rollback() {
         checkDistressed();
-        if (o3InError || inTransaction()) {
+        clearReplaceRange();
+        if (o3InError || inTransaction() || walSquashTxnCount > 0) {
             try {
                 LOG.info().$("tx rollback [name=").utf8(tableToken.getTableName()).I$();
+                clearWalSquash();
                 partitionRemoveCandidates.clear();
                 o3CommitBatchTimestampMin = Long.MAX_VALUE;
                 if ((masterRef & 1) != 0) {
@@ -1760,6 +2081,62 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         txWriter.setSeqTxn(seqTxn);
     }
 
+    /**
+     * Copies rows of a WAL transaction to the in-memory squash buffer instead of applying them to the table.
+     * Symbol keys are remapped to the table key space on the way in. The buffer is applied by
+     * {@link #commitWalSquash()} and discarded by {@link #rollback()}.
+     */
+    public void squashWalData(
+            @Transient Path walPath,
+            boolean inOrder,
+            long rowLo,
+            long rowHi,
+            long o3TimestampMin,
+            long o3TimestampMax,
+            SymbolMapDiffCursor mapDiffCursor,
+            long seqTxn
+    ) {
+        if (inTransaction()) {
+            // When writer is returned to pool, it should be rolled back. Having an open transaction is very suspicious.
+            // Set the writer to distressed state and throw exception so that writer is re-created.
+            distressed = true;
+            throw CairoException.critical(0).put("cannot squash WAL while in transaction");
+        }
+
+        final int timestampIndex = metadata.getTimestampIndex();
+        final int walRootPathLen = walPath.length();
+        try {
+            mmapWalColumns(walPath, timestampIndex, rowLo, rowHi);
+            try {
+                o3Columns = walMappedColumns;
+                final ReadOnlyObjList<? extends MemoryCR> walColumns = remapWalSymbols(mapDiffCursor, rowLo, rowHi, walPath);
+                for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                    final int columnType = metadata.getColumnType(i);
+                    if (columnType > 0) {
+                        walSquashSize += squashWalColumn(walColumns, i, columnType, i == timestampIndex, rowLo, rowHi);
+                    }
+                }
+            } finally {
+                o3Columns = o3MemColumns;
+                closeWalColumns();
+            }
+        } catch (Throwable th) {
+            // squashed transactions are not applied, symbols they added must go too
+            clearWalSquash();
+            rollbackSymbolTables();
+            throw th;
+        } finally {
+            walPath.trimTo(walRootPathLen);
+        }
+
+        walSquashOrdered &= inOrder && o3TimestampMin >= walSquashTimestampMax;
+        walSquashTimestampMin = Math.min(walSquashTimestampMin, o3TimestampMin);
+        walSquashTimestampMax = Math.max(walSquashTimestampMax, o3TimestampMax);
+        walSquashRowCount += rowHi - rowLo;
+        walSquashSeqTxn = seqTxn;
+        walSquashTxnCount++;
+    }
+
     public long size() {
         // This is uncommitted row count
         return txWriter.getRowCount() + getO3RowCount();
@@ -1961,6 +2338,24 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
      * @param name to check
      * @return 0 based column index.
      */
+    private static boolean dedupValuesEqual(long addressA, long addressB, int shl) {
+        switch (shl) {
+            case 0:
+                return Unsafe.getUnsafe().getByte(addressA) == Unsafe.getUnsafe().getByte(addressB);
+            case 1:
+                return Unsafe.getUnsafe().getShort(addressA) == Unsafe.getUnsafe().getShort(addressB);
+            case 2:
+                return Unsafe.getUnsafe().getInt(addressA) == Unsafe.getUnsafe().getInt(addressB);
+            default:
+                for (long i = 0, n = 1L << shl; i < n; i += Long.BYTES) {
+                    if (Unsafe.getUnsafe().getLong(addressA + i) != Unsafe.getUnsafe().getLong(addressB + i)) {
+                        return false;
+                    }
+                }
+                return true;
+        }
+    }
+
     private static int getColumnIndexQuiet(MemoryMR metaMem, CharSequence name, int columnCount) {
         long nameOffset = getColumnNameOffset(columnCount);
         for (int i = 0; i < columnCount; i++) {
@@ -1974,6 +2369,15 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return -1;
     }
 
+    private static boolean hasRepeatedTimestamps(long timestampIndexAddr, long count) {
+        for (long i = 1; i < count; i++) {
+            if (getTimestampIndexValue(timestampIndexAddr, i) == getTimestampIndexValue(timestampIndexAddr, i - 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private static ColumnVersionWriter openColumnVersionFile(FilesFacade ff, Path path, int rootLen) {
         path.concat(COLUMN_VERSION_FILE_NAME).$();
         try {
@@ -2412,6 +2816,74 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private void buildColumnSummaries(long timestampLo, long timestampHi) {
+        // last partition is open for appends, max timestamp may not have caught up with it yet
+        for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(i);
+            if (partitionTimestamp > timestampHi) {
+                break;
+            }
+            if (partitionTimestamp >= timestampLo) {
+                buildColumnSummaries(partitionTimestamp, txWriter.getPartitionNameTxn(i), txWriter.getPartitionSize(i), false);
+            }
+        }
+    }
+
+    private void buildColumnSummaries(long partitionTimestamp, long partitionNameTxn, long partitionSize, boolean lastPartition) {
+        final boolean zoneMapEnabled = configuration.isZoneMapEnabled();
+        final boolean bloomFilterEnabled = configuration.isBloomFilterEnabled();
+        if (!zoneMapEnabled && !bloomFilterEnabled) {
+            return;
+        }
+        setPathForPartition(other, partitionBy, partitionTimestamp, false);
+        txnPartitionConditionally(other, partitionNameTxn);
+        try {
+            final long opts = configuration.getWriterFileOpenOpts();
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                // column tops of the last partition are not in column version file until commit
+                final long columnTop = lastPartition ? columnTops.getQuick(i) : columnVersionWriter.getColumnTop(partitionTimestamp, i);
+                if (columnType < 0 || columnTop < 0) {
+                    continue;
+                }
+                if (zoneMapEnabled && ZoneMap.isSupported(columnType)) {
+                    ZoneMap.build(
+                            ff,
+                            other,
+                            metadata.getColumnName(i),
+                            columnVersionWriter.getColumnNameTxn(partitionTimestamp, i),
+                            columnType,
+                            columnTop,
+                            partitionSize,
+                            configuration.getZoneMapBlockRowCount(),
+                            opts
+                    );
+                }
+                if (bloomFilterEnabled && BloomFilter.isSupported(columnType)) {
+                    BloomFilter.build(
+                            ff,
+                            other,
+                            metadata.getColumnName(i),
+                            columnVersionWriter.getColumnNameTxn(partitionTimestamp, i),
+                            columnType,
+                            columnTop,
+                            partitionSize,
+                            configuration.getBloomFilterBitsPerValue(),
+                            opts
+                    );
+                }
+            }
+        } catch (CairoException e) {
+            // zone maps and bloom filters are optional, queries scan partitions without them
+            LOG.error().$("could not build column summaries [path=").$(other)
+                    .$(", errno=").$(e.getErrno())
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .I$();
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
     private void bumpMasterRef() {
         if ((masterRef & 1) == 0) {
             masterRef++;
@@ -2475,6 +2947,27 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private void clearReplaceRange() {
+        replaceRangeLo = Long.MAX_VALUE;
+        replaceRangeHi = Long.MIN_VALUE;
+    }
+
+    private void clearWalSquash() {
+        for (int i = 0, n = walSquashColumns.size(); i < n; i++) {
+            MemoryCARW mem = walSquashColumns.getQuick(i);
+            if (mem != null) {
+                mem.jumpTo(0);
+            }
+        }
+        walSquashOrdered = true;
+        walSquashRowCount = 0;
+        walSquashSeqTxn = 0;
+        walSquashSize = 0;
+        walSquashTimestampMax = Long.MIN_VALUE;
+        walSquashTimestampMin = Long.MAX_VALUE;
+        walSquashTxnCount = 0;
+    }
+
     private void closeAppendMemoryTruncate(boolean truncate) {
         for (int i = 0, n = columns.size(); i < n; i++) {
             MemoryMA m = columns.getQuick(i);
@@ -2517,55 +3010,109 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
 
         if (inTransaction()) {
-            final boolean o3 = hasO3();
-            if (o3) {
-                final boolean noop = o3Commit(o3MaxLag);
-                if (noop) {
-                    // Bookmark masterRef to track how many rows is in uncommitted state
-                    this.committedMasterRef = masterRef;
-                    return getTxn();
-                } else if (o3MaxLag > 0) {
-                    // It is possible that O3 commit will create partition just before
-                    // the last one, leaving last partition row count 0 when doing ic().
-                    // That's when the data from the last partition is moved to in-memory lag.
-                    // One way to detect this is to check if index of the "last" partition is not
-                    // last partition in the attached partition list.
-                    if (txWriter.reconcileOptimisticPartitions()) {
-                        this.lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
-                        this.partitionTimestampHi = partitionCeilMethod.ceil(txWriter.getMaxTimestamp()) - 1;
-                        openLastPartition();
+            // with group commit, column data is synced together with other writers,
+            // and so is the transaction file once it is written below
+            final boolean groupSync = commitMode == CommitMode.SYNC && groupCommitSync != null;
+            if (groupSync) {
+                // lets the group leader wait for this commit while its data is being written
+                groupCommitSync.begin();
+            }
+            try {
+                final boolean o3 = hasO3();
+                if (o3) {
+                    final boolean noop = o3Commit(o3MaxLag);
+                    if (noop) {
+                        // Bookmark masterRef to track how many rows is in uncommitted state
+                        this.committedMasterRef = masterRef;
+                        clearReplaceRange();
+                        return getTxn();
+                    } else if (o3MaxLag > 0) {
+                        // It is possible that O3 commit will create partition just before
+                        // the last one, leaving last partition row count 0 when doing ic().
+                        // That's when the data from the last partition is moved to in-memory lag.
+                        // One way to detect this is to check if index of the "last" partition is not
+                        // last partition in the attached partition list.
+                        if (txWriter.reconcileOptimisticPartitions()) {
+                            this.lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+                            this.partitionTimestampHi = partitionCeilMethod.ceil(txWriter.getMaxTimestamp()) - 1;
+                            openLastPartition();
+                        }
                     }
                 }
-            }
 
-            if (commitMode != CommitMode.NOSYNC) {
-                syncColumns(commitMode);
-            }
+                if (groupSync) {
+                    groupSyncColumns();
+                } else if (commitMode != CommitMode.NOSYNC) {
+                    syncColumns(commitMode);
+                }
 
-            final long committedRowCount = txWriter.unsafeCommittedFixedRowCount() + txWriter.unsafeCommittedTransientRowCount();
-            final long rowsAdded = txWriter.getRowCount() - committedRowCount;
+                final long committedRowCount = txWriter.unsafeCommittedFixedRowCount() + txWriter.unsafeCommittedTransientRowCount();
+                final long rowsAdded = txWriter.getRowCount() - committedRowCount;
 
-            updateIndexes();
-            columnVersionWriter.commit();
-            txWriter.setColumnVersion(columnVersionWriter.getVersion());
-            txWriter.commit(commitMode, denseSymbolMapWriters);
+                updateIndexes();
+                columnVersionWriter.commit();
+                txWriter.setColumnVersion(columnVersionWriter.getVersion());
+                if (groupSync) {
+                    txWriter.commit(CommitMode.NOSYNC, denseSymbolMapWriters);
+                    groupSync(groupCommitMember.add(txWriter.getFd()));
+                } else {
+                    txWriter.commit(commitMode, denseSymbolMapWriters);
+                }
 
-            // Bookmark masterRef to track how many rows is in uncommitted state
-            this.committedMasterRef = masterRef;
-            processPartitionRemoveCandidates();
+                // Bookmark masterRef to track how many rows is in uncommitted state
+                this.committedMasterRef = masterRef;
+                processPartitionRemoveCandidates();
+                clearReplaceRange();
 
-            metrics.tableWriter().incrementCommits();
-            metrics.tableWriter().addCommittedRows(rowsAdded);
-            if (!o3) {
-                // If `o3`, the metric is tracked inside `o3Commit`, possibly async.
-                addPhysicallyWrittenRows(rowsAdded);
-            }
+                metrics.tableWriter().incrementCommits();
+                metrics.tableWriter().addCommittedRows(rowsAdded);
+                if (!o3) {
+                    // If `o3`, the metric is tracked inside `o3Commit`, possibly async.
+                    addPhysicallyWrittenRows(rowsAdded);
+                }
 
-            return getTxn();
+                return getTxn();
+            } finally {
+                if (groupSync) {
+                    groupCommitSync.end();
+                }
+            }
         }
+        clearReplaceRange();
         return TableSequencer.NO_TXN;
     }
 
+    private void commitWalTransaction(long seqTxn, boolean groupSync) {
+        if (groupSync) {
+            groupSyncColumns();
+        }
+
+        final long committedRowCount = txWriter.unsafeCommittedFixedRowCount() + txWriter.unsafeCommittedTransientRowCount();
+        final long rowsAdded = txWriter.getRowCount() - committedRowCount;
+
+        updateIndexes();
+        columnVersionWriter.commit();
+        txWriter.setSeqTxn(seqTxn);
+        txWriter.setColumnVersion(columnVersionWriter.getVersion());
+        commitWalTxWriter(groupSync);
+
+        // Bookmark masterRef to track how many rows is in uncommitted state
+        this.committedMasterRef = masterRef;
+        processPartitionRemoveCandidates();
+
+        metrics.tableWriter().incrementCommits();
+        metrics.tableWriter().addCommittedRows(rowsAdded);
+    }
+
+    private void commitWalTxWriter(boolean groupSync) {
+        if (groupSync) {
+            txWriter.commit(CommitMode.NOSYNC, denseSymbolMapWriters);
+            groupSync(groupCommitMember.add(txWriter.getFd()));
+        } else {
+            txWriter.commit(defaultCommitMode, denseSymbolMapWriters);
+        }
+    }
+
     private void configureAppendPosition() {
         final boolean partitioned = PartitionBy.isPartitioned(partitionBy);
         if (this.txWriter.getMaxTimestamp() > Long.MIN_VALUE || !partitioned) {
@@ -2633,7 +3180,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         configureNullSetters(o3NullSetters2, type, oooPrimary2, oooSecondary2);
 
         if (indexFlag) {
-            indexers.extendAndSet(index, new SymbolColumnIndexer());
+            indexers.extendAndSet(index, new SymbolColumnIndexer(type));
         }
         rowValueIsNotNull.add(0);
     }
@@ -2668,6 +3215,23 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private void configureDedupKeys() {
+        dedupKeyColumns.clear();
+        dedupKeyShl.clear();
+        final int timestampIndex = metadata.getTimestampIndex();
+        dedupEnabled = timestampIndex > -1 && PartitionBy.isPartitioned(partitionBy) && isDedupKey(metaMem, timestampIndex);
+        if (dedupEnabled) {
+            for (int i = 0; i < columnCount; i++) {
+                final int type = metadata.getColumnType(i);
+                if (i != timestampIndex && type > 0 && !ColumnType.isVariableLength(type) && isDedupKey(metaMem, i)) {
+                    dedupKeyColumns.add(i);
+                    dedupKeyShl.add(ColumnType.pow2SizeOf(type));
+                }
+            }
+            LOG.info().$("upsert keys [table=").utf8(tableToken.getTableName()).$(", keyColumns=").$(dedupKeyColumns.size() + 1).I$();
+        }
+    }
+
     private void configureTimestampSetter() {
         int index = metadata.getTimestampIndex();
         if (index == -1) {
@@ -2699,6 +3263,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                     if (isSequential(metaMem, i)) {
                         flags |= META_FLAG_BIT_SEQUENTIAL;
                     }
+                    if (isDedupKey(metaMem, i)) {
+                        flags |= META_FLAG_BIT_DEDUP_KEY;
+                    }
                     ddlMem.putLong(flags);
                     ddlMem.putInt(indexValueBlockSize);
                     ddlMem.skip(16);
@@ -2853,6 +3420,106 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return identical;
     }
 
+    // Hash of the upsert key values of the row, the row is either an O3 index position or a committed row encoded as -row-1
+    private long dedupKeyHash(long sortedTimestampsAddr, long row) {
+        long hash = 0;
+        for (int i = 0, n = dedupKeyColumns.size(); i < n; i++) {
+            hash = hash * 31 + Hash.hashMem(dedupValueAddress(sortedTimestampsAddr, row, i), 1L << dedupKeyShl.getQuick(i));
+        }
+        return hash & Long.MAX_VALUE;
+    }
+
+    private boolean dedupKeysEqual(long sortedTimestampsAddr, long rowA, long rowB) {
+        for (int i = 0, n = dedupKeyColumns.size(); i < n; i++) {
+            if (!dedupValuesEqual(
+                    dedupValueAddress(sortedTimestampsAddr, rowA, i),
+                    dedupValueAddress(sortedTimestampsAddr, rowB, i),
+                    dedupKeyShl.getQuick(i)
+            )) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Maps timestamp and upsert key columns of the partition, returns number of committed rows in the partition.
+    private long dedupMapPartition(long partitionTimestamp) {
+        final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
+        if (partitionIndex < 0) {
+            return 0;
+        }
+        final long srcDataMax = partitionTimestamp == lastPartitionTimestamp
+                ? txWriter.getTransientRowCount()
+                : getPartitionSizeByIndex(partitionIndex);
+        if (srcDataMax < 1) {
+            return 0;
+        }
+
+        setPathForPartition(other, rootLen, partitionBy, partitionTimestamp, getPartitionNameTxnByIndex(partitionIndex));
+        final int plen = other.length();
+        try {
+            dedupMapPartitionColumn(plen, metadata.getTimestampIndex(), partitionTimestamp, srcDataMax);
+            for (int i = 0, n = dedupKeyColumns.size(); i < n; i++) {
+                dedupMapPartitionColumn(plen, dedupKeyColumns.getQuick(i), partitionTimestamp, srcDataMax);
+            }
+        } finally {
+            other.trimTo(rootLen);
+        }
+        return srcDataMax;
+    }
+
+    private void dedupMapPartitionColumn(int plen, int columnIndex, long partitionTimestamp, long srcDataMax) {
+        final long columnTop = getColumnTop(partitionTimestamp, columnIndex, srcDataMax);
+        final long size = (srcDataMax - columnTop) << ColumnType.pow2SizeOf(metadata.getColumnType(columnIndex));
+        final int offset = dedupPartitionColumns.size();
+        dedupPartitionColumns.add(-1, 0, size, columnTop);
+        if (size > 0) {
+            final int fd = openRO(ff, dFile(other.trimTo(plen), metadata.getColumnName(columnIndex), getColumnNameTxn(partitionTimestamp, columnIndex)), LOG);
+            dedupPartitionColumns.setQuick(offset, fd);
+            dedupPartitionColumns.setQuick(offset + 1, mapRO(ff, fd, size, MemoryTag.MMAP_O3));
+        }
+    }
+
+    private int dedupReplacedPartitionIndex(long partitionTimestamp) {
+        for (int i = 0, n = dedupReplacedPartitions.size(); i < n; i += 3) {
+            if (dedupReplacedPartitions.getQuick(i) == partitionTimestamp) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void dedupUnmapPartition() {
+        for (int i = 0, n = dedupPartitionColumns.size(); i < n; i += 4) {
+            final long addr = dedupPartitionColumns.getQuick(i + 1);
+            if (addr != 0) {
+                ff.munmap(addr, dedupPartitionColumns.getQuick(i + 2), MemoryTag.MMAP_O3);
+            }
+            final int fd = (int) dedupPartitionColumns.getQuick(i);
+            if (fd != -1) {
+                ff.close(fd);
+            }
+        }
+        dedupPartitionColumns.clear();
+    }
+
+    private long dedupValueAddress(long sortedTimestampsAddr, long row, int keyIndex) {
+        final int shl = dedupKeyShl.getQuick(keyIndex);
+        if (row > -1) {
+            final long rowId = Unsafe.getUnsafe().getLong(sortedTimestampsAddr + (row << 4) + Long.BYTES);
+            return dedupKeyAddresses.getQuick(keyIndex) + (rowId << shl);
+        }
+        // committed row, partition columns are mapped after the timestamp column
+        final int offset = (keyIndex + 1) * 4;
+        return dedupPartitionColumns.getQuick(offset + 1) + ((-row - 1 - dedupPartitionColumns.getQuick(offset + 3)) << shl);
+    }
+
+    // Position of the O3 row in the order rows were written, rows moved from the last partition precede the O3 rows
+    private long dedupWriteOrder(long sortedTimestampsAddr, long row) {
+        final long rowId = Unsafe.getUnsafe().getLong(sortedTimestampsAddr + (row << 4) + Long.BYTES);
+        return rowId < dedupMovedRowLo ? rowId + dedupMovedRowCount : rowId - dedupMovedRowLo;
+    }
+
     private void doClose(boolean truncate) {
         // destroy() may already closed everything
         boolean tx = inTransaction();
@@ -2981,6 +3648,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
         Misc.freeObjListAndKeepObjects(o3MemColumns);
         Misc.freeObjListAndKeepObjects(o3MemColumns2);
+        Misc.freeObjListAndKeepObjects(walSquashColumns);
     }
 
     private void freeIndexers() {
@@ -3028,6 +3696,37 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return columns.getQuick(getSecondaryColumnIndex(column));
     }
 
+    private MemoryCARW getWalSquashColumn(int index) {
+        MemoryCARW mem = walSquashColumns.getQuiet(index);
+        if (mem == null) {
+            mem = Vm.getCARWInstance(o3ColumnMemorySize, Integer.MAX_VALUE, MemoryTag.NATIVE_O3);
+            walSquashColumns.extendAndSet(index, mem);
+        }
+        return mem;
+    }
+
+    private void groupSync(GroupCommitSync.Member member) {
+        try {
+            groupCommitSync.sync(member);
+        } catch (CairoException e) {
+            // dirty pages of a file that failed to sync may be gone, the data is not to be trusted
+            throwDistressException(e);
+        } finally {
+            member.clear();
+        }
+    }
+
+    private void groupSyncColumns() {
+        for (int i = 0; i < columnCount; i++) {
+            groupCommitMember.add(columns.getQuick(i * 2).getFd());
+            final MemoryMA m2 = columns.getQuick(i * 2 + 1);
+            if (m2 != null) {
+                groupCommitMember.add(m2.getFd());
+            }
+        }
+        groupSync(groupCommitMember);
+    }
+
     private void indexHistoricPartitions(SymbolColumnIndexer indexer, CharSequence columnName, int indexValueBlockSize) {
         long ts = this.txWriter.getMaxTimestamp();
         if (ts > Numbers.LONG_NaN) {
@@ -3037,6 +3736,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                 for (int i = 0, n = txWriter.getPartitionCount() - 1; i < n; i++) {
 
                     long timestamp = txWriter.getPartitionTimestamp(i);
+                    restoreCompressedPartition(timestamp, txWriter.getPartitionNameTxn(i));
                     path.trimTo(rootLen);
                     setStateForTimestamp(path, timestamp, false);
 
@@ -3057,7 +3757,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
                             if (columnTop > -1L && partitionSize > columnTop) {
                                 TableUtils.dFile(path.trimTo(plen), columnName, columnNameTxn);
-                                final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(ColumnType.INT);
+                                final long columnSize = (partitionSize - columnTop) << ColumnType.pow2SizeOf(metadata.getColumnType(columnIndex));
                                 roMem.of(ff, path, columnSize, columnSize, MemoryTag.MMAP_TABLE_WRITER);
                                 indexer.configureWriter(configuration, path.trimTo(plen), columnName, columnNameTxn, columnTop);
                                 indexer.index(roMem, columnTop, partitionSize);
@@ -3094,6 +3794,10 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return true;
     }
 
+    private boolean isWalGroupSync() {
+        return defaultCommitMode == CommitMode.SYNC && groupCommitSync != null;
+    }
+
     private void lock() {
         try {
             path.trimTo(rootLen);
@@ -3204,6 +3908,10 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
      */
     private boolean o3Commit(long o3MaxLag) {
         o3RowCount = getO3RowCount0();
+        if (dedupEnabled) {
+            // deduplicated rows cannot be left in the lag, the row count of the lag is derived from masterRef
+            o3MaxLag = 0;
+        }
 
         long o3LagRowCount = 0;
         long maxUncommittedRows = metadata.getMaxUncommittedRows();
@@ -3213,7 +3921,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         // will have to switch partition internally
         long partitionTimestampHiLimit = partitionCeilMethod.ceil(partitionTimestampHi) - 1;
         try {
-            o3RowCount += o3MoveUncommitted(timestampIndex);
+            final long movedRowLo = o3RowCount;
+            final long movedRowCount = o3MoveUncommitted(timestampIndex);
+            o3RowCount += movedRowCount;
 
             // we may need to re-use file descriptors when this partition is the "current" one
             // we cannot open file again due to sharing violation
@@ -3233,6 +3943,11 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                 Vect.quickSortLongIndexAscInPlace(sortedTimestampsAddr, o3RowCount);
             }
 
+            if (dedupEnabled) {
+                o3RowCount = o3Dedup(sortedTimestampsAddr, o3RowCount, movedRowLo, movedRowCount);
+                o3TimestampMem.jumpTo(o3RowCount * TIMESTAMP_MERGE_ENTRY_BYTES);
+            }
+
             // we have three frames:
             // partition logical "lo" and "hi" - absolute bounds (partitionLo, partitionHi)
             // partition actual data "lo" and "hi" (dataLo, dataHi)
@@ -3370,6 +4085,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                     true,
                     0L
             );
+            if (replaceRangeLo < replaceRangeHi) {
+                o3FinishReplace(o3TimestampMin, o3TimestampMax);
+            }
         } finally {
             finishO3Append(o3LagRowCount);
         }
@@ -3576,6 +4294,210 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    /**
+     * Removes rows with repeated upsert keys from sorted O3 timestamp index. The row written last wins,
+     * both when the batch repeats the keys and when it repeats the keys of committed rows. The index
+     * is compacted in place, row ids of the remaining rows are not changed. Committed rows replaced
+     * by the batch are collected per partition, the O3 merge leaves them out of the new partition version.
+     *
+     * @param sortedTimestampsAddr address of the sorted timestamp index
+     * @param rowCount             number of entries in the index
+     * @param movedRowLo           row id of the first row moved to O3 memory from the last partition
+     * @param movedRowCount        number of rows moved to O3 memory from the last partition
+     * @return number of entries in the index after deduplication
+     */
+    private long o3Dedup(long sortedTimestampsAddr, long rowCount, long movedRowLo, long movedRowCount) {
+        dedupKeyAddresses.clear();
+        for (int i = 0, n = dedupKeyColumns.size(); i < n; i++) {
+            dedupKeyAddresses.add(o3Columns.getQuick(getPrimaryColumnIndex(dedupKeyColumns.getQuick(i))).addressOf(0));
+        }
+        dedupMovedRowLo = movedRowLo;
+        dedupMovedRowCount = movedRowCount;
+        dedupReplacedPartitions.clear();
+        dedupReplacedRows.clear();
+
+        final long o3TimestampMax = getTimestampIndexValue(sortedTimestampsAddr, rowCount - 1);
+        long dedupRowCount = 0;
+        long lo = 0;
+        while (lo < rowCount) {
+            final long partitionTimestamp = partitionFloorMethod.floor(getTimestampIndexValue(sortedTimestampsAddr, lo));
+            final long partitionTimestampCeil = partitionCeilMethod.ceil(partitionTimestamp) - 1;
+            final long hi = partitionTimestampCeil < o3TimestampMax
+                    ? Vect.boundedBinarySearchIndexT(sortedTimestampsAddr, partitionTimestampCeil, lo, rowCount - 1, BinarySearch.SCAN_DOWN) + 1
+                    : rowCount;
+            final int replacedLo = dedupReplacedRows.size();
+            try {
+                final long partitionRowCount = partitionTimestamp <= txWriter.getMaxTimestamp() ? dedupMapPartition(partitionTimestamp) : 0;
+                dedupRowCount = o3DedupPartition(sortedTimestampsAddr, lo, hi, dedupRowCount, partitionRowCount);
+            } finally {
+                dedupUnmapPartition();
+            }
+            if (dedupReplacedRows.size() > replacedLo) {
+                dedupReplacedPartitions.add(partitionTimestamp, replacedLo);
+                dedupReplacedPartitions.add(dedupReplacedRows.size());
+            }
+            lo = hi;
+        }
+
+        if (dedupRowCount < rowCount || dedupReplacedRows.size() > 0) {
+            LOG.info().$("o3 dedup [table=").utf8(tableToken.getTableName())
+                    .$(", rowCount=").$(rowCount)
+                    .$(", duplicates=").$(rowCount - dedupRowCount)
+                    .$(", replaced=").$(dedupReplacedRows.size())
+                    .I$();
+        }
+        return dedupRowCount;
+    }
+
+    // Marks duplicate index entries of a group of rows with the same timestamp by setting their row id to -1,
+    // committed rows with the keys of the group rows are added to dedupReplacedRows.
+    private void o3DedupGroup(long sortedTimestampsAddr, long lo, long hi, long committedLo, long committedHi) {
+        // entries are pairs of (key hash, row), sorting them brings rows with equal keys together
+        o3TimestampMemCpy.jumpTo((hi - lo + committedHi - committedLo) << 4);
+        final long entriesAddr = o3TimestampMemCpy.addressOf(0);
+        long count = 0;
+        for (long row = lo; row < hi; row++) {
+            final long p = entriesAddr + (count++ << 4);
+            Unsafe.getUnsafe().putLong(p, dedupKeyHash(sortedTimestampsAddr, row));
+            Unsafe.getUnsafe().putLong(p + Long.BYTES, row);
+        }
+        committed:
+        for (long row = committedLo; row < committedHi; row++) {
+            for (int i = 0, n = dedupKeyColumns.size(); i < n; i++) {
+                if (row < dedupPartitionColumns.getQuick((i + 1) * 4 + 3)) {
+                    // key column was added after the row had been written
+                    continue committed;
+                }
+            }
+            final long p = entriesAddr + (count++ << 4);
+            Unsafe.getUnsafe().putLong(p, dedupKeyHash(sortedTimestampsAddr, -row - 1));
+            Unsafe.getUnsafe().putLong(p + Long.BYTES, -row - 1);
+        }
+        Vect.quickSortLongIndexAscInPlace(entriesAddr, count);
+
+        for (long runLo = 0; runLo < count; ) {
+            final long hash = Unsafe.getUnsafe().getLong(entriesAddr + (runLo << 4));
+            long runHi = runLo + 1;
+            while (runHi < count && Unsafe.getUnsafe().getLong(entriesAddr + (runHi << 4)) == hash) {
+                runHi++;
+            }
+
+            if (runHi - runLo > 1) {
+                for (long a = runLo; a < runHi; a++) {
+                    final long rowA = Unsafe.getUnsafe().getLong(entriesAddr + (a << 4) + Long.BYTES);
+                    // committed rows were written before any row of the batch
+                    final long orderA = rowA < 0 ? -1 : dedupWriteOrder(sortedTimestampsAddr, rowA);
+                    for (long b = runLo; b < runHi; b++) {
+                        final long rowB = Unsafe.getUnsafe().getLong(entriesAddr + (b << 4) + Long.BYTES);
+                        // the row written later wins
+                        if (rowB > -1 && rowB != rowA
+                                && dedupWriteOrder(sortedTimestampsAddr, rowB) > orderA
+                                && dedupKeysEqual(sortedTimestampsAddr, rowA, rowB)) {
+                            // hash is not needed past this point, use it to mark the duplicate
+                            Unsafe.getUnsafe().putLong(entriesAddr + (a << 4), -1);
+                            break;
+                        }
+                    }
+                }
+            }
+            runLo = runHi;
+        }
+
+        final int replacedLo = dedupReplacedRows.size();
+        for (long i = 0; i < count; i++) {
+            final long p = entriesAddr + (i << 4);
+            if (Unsafe.getUnsafe().getLong(p) == -1) {
+                final long row = Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                if (row > -1) {
+                    Unsafe.getUnsafe().putLong(sortedTimestampsAddr + (row << 4) + Long.BYTES, -1);
+                } else {
+                    dedupReplacedRows.add(-row - 1);
+                }
+            }
+        }
+        // committed rows of the group are contiguous, sorting the group keeps the partition rows ascending
+        if (dedupReplacedRows.size() - replacedLo > 1) {
+            LongSort.sort(dedupReplacedRows, replacedLo, dedupReplacedRows.size() - 1);
+        }
+    }
+
+    // Deduplicates index entries of a single partition and moves the remaining entries to dedupRowCount position.
+    private long o3DedupPartition(long sortedTimestampsAddr, long lo, long hi, long dedupRowCount, long partitionRowCount) {
+        final long partitionTimestampsAddr = partitionRowCount > 0 ? dedupPartitionColumns.getQuick(1) : 0;
+        long groupLo = lo;
+        while (groupLo < hi) {
+            final long timestamp = getTimestampIndexValue(sortedTimestampsAddr, groupLo);
+            long groupHi = groupLo + 1;
+            while (groupHi < hi && getTimestampIndexValue(sortedTimestampsAddr, groupHi) == timestamp) {
+                groupHi++;
+            }
+
+            long committedLo = 0;
+            long committedHi = 0;
+            if (partitionRowCount > 0) {
+                committedLo = Vect.binarySearch64Bit(partitionTimestampsAddr, timestamp, 0, partitionRowCount - 1, BinarySearch.SCAN_UP);
+                if (committedLo > -1) {
+                    while (committedLo > 0 && Unsafe.getUnsafe().getLong(partitionTimestampsAddr + ((committedLo - 1) << 3)) == timestamp) {
+                        committedLo--;
+                    }
+                    committedHi = committedLo + 1;
+                    while (committedHi < partitionRowCount && Unsafe.getUnsafe().getLong(partitionTimestampsAddr + (committedHi << 3)) == timestamp) {
+                        committedHi++;
+                    }
+                } else {
+                    committedLo = 0;
+                }
+            }
+
+            if (groupHi - groupLo + committedHi - committedLo > 1) {
+                o3DedupGroup(sortedTimestampsAddr, groupLo, groupHi, committedLo, committedHi);
+            }
+
+            for (long row = groupLo; row < groupHi; row++) {
+                final long src = sortedTimestampsAddr + (row << 4);
+                final long rowId = Unsafe.getUnsafe().getLong(src + Long.BYTES);
+                if (rowId != -1) {
+                    if (dedupRowCount != row) {
+                        final long dst = sortedTimestampsAddr + (dedupRowCount << 4);
+                        Unsafe.getUnsafe().putLong(dst, timestamp);
+                        Unsafe.getUnsafe().putLong(dst + Long.BYTES, rowId);
+                    }
+                    dedupRowCount++;
+                }
+            }
+            groupLo = groupHi;
+        }
+        return dedupRowCount;
+    }
+
+    private void o3FinishReplace(long o3TimestampMin, long o3TimestampMax) {
+        // partitions of the replaced range without rows are removed by the same commit
+        boolean lastPartitionRemoved = false;
+        for (int i = txWriter.getPartitionCount() - 1; i > -1; i--) {
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(i);
+            if (partitionTimestamp >= replaceRangeLo && partitionTimestamp < replaceRangeHi && replacedPartitions.binarySearch(partitionTimestamp, BinarySearch.SCAN_UP) < 0) {
+                LOG.info().$("removing replaced partition [table=").utf8(tableToken.getTableName())
+                        .$(", partition=").$ts(partitionTimestamp)
+                        .I$();
+                lastPartitionRemoved |= partitionTimestamp == lastPartitionTimestamp;
+                partitionRemoveCandidates.add(partitionTimestamp, txWriter.getPartitionNameTxn(i));
+                columnVersionWriter.removePartition(partitionTimestamp);
+                txWriter.removeAttachedPartitions(partitionTimestamp);
+                txWriter.bumpTruncateVersion();
+            }
+        }
+
+        // min and max timestamps stay outside the range when there are partitions outside the range
+        final long minTimestamp = txWriter.getPartitionTimestamp(0) < replaceRangeLo ? txWriter.getMinTimestamp() : o3TimestampMin;
+        final long maxTimestamp = txWriter.getPartitionTimestamp(txWriter.getPartitionCount() - 1) >= replaceRangeHi ? txWriter.getMaxTimestamp() : o3TimestampMax;
+        txWriter.finishPartitionSizeUpdate(minTimestamp, maxTimestamp);
+        if (lastPartitionRemoved) {
+            closeActivePartition(true);
+        }
+        lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+        partitionTimestampHi = partitionCeilMethod.ceil(maxTimestamp) - 1;
+    }
+
     private void o3MoveLag0(
             int columnIndex,
             final int columnType,
@@ -3810,9 +4732,11 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
             boolean partitionMutates
     ) {
         this.txWriter.minTimestamp = Math.min(timestampMin, this.txWriter.minTimestamp);
-        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1;
+        final long partitionSize = srcDataMax + srcOooPartitionHi - srcOooPartitionLo + 1 - getDedupReplacedRowCount(partitionTimestamp);
         final long rowDelta = srcOooPartitionHi - srcOooMax;
         final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
+        // existing partition of the replaced range is swapped for its new version
+        partitionMutates |= replaceRangeLo < replaceRangeHi && partitionIndex > -1;
         if (partitionTimestamp == lastPartitionTimestamp) {
             if (partitionMutates) {
                 closeActivePartition(true);
@@ -3853,6 +4777,25 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private void o3PreparePartitions(long timestampLo, long timestampHi) {
+        if (replaceRangeLo < replaceRangeHi) {
+            // replaced partitions are not read
+            return;
+        }
+        // O3 tasks share writer paths, restore raw files and drop column summaries before tasks are dispatched
+        final long partitionTimestampLo = partitionFloorMethod.floor(timestampLo);
+        for (int i = 0, n = txWriter.getPartitionCount(); i < n; i++) {
+            final long partitionTimestamp = txWriter.getPartitionTimestamp(i);
+            if (partitionTimestamp > timestampHi) {
+                break;
+            }
+            if (partitionTimestamp >= partitionTimestampLo) {
+                restoreCompressedPartition(partitionTimestamp, txWriter.getPartitionNameTxn(i));
+                removeColumnSummaries(partitionTimestamp, txWriter.getPartitionNameTxn(i));
+            }
+        }
+    }
+
     private void o3ProcessPartitionSafe(Sequence partitionSubSeq, long cursor, O3PartitionTask partitionTask) {
         try {
             O3PartitionJob.processPartition(partitionTask, cursor, partitionSubSeq);
@@ -4220,6 +5163,10 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
     private void openPartition(long timestamp) {
         try {
+            final long partitionTimestampLo = txWriter.getPartitionTimestampLo(timestamp);
+            final long partitionNameTxn = txWriter.getPartitionNameTxnByPartitionTimestamp(partitionTimestampLo, -1);
+            restoreCompressedPartition(partitionTimestampLo, partitionNameTxn);
+            removeColumnSummaries(partitionTimestampLo, partitionNameTxn);
             setStateForTimestamp(path, timestamp, true);
             int plen = path.length();
             if (ff.mkdirs(path.slash$(), mkDirMode) != 0) {
@@ -4414,6 +5361,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
             resizeColumnTopSink(o3TimestampMin, o3TimestampMax);
             resizePartitionUpdateSink(o3TimestampMin, o3TimestampMax);
+            o3PreparePartitions(o3TimestampMin, o3TimestampMax);
 
             // One loop iteration per partition.
             while (srcOoo < srcOooMax) {
@@ -4445,7 +5393,16 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                     final long srcDataMax;
                     final long srcNameTxn;
                     final int partitionIndex = txWriter.findAttachedPartitionIndexByLoTimestamp(partitionTimestamp);
-                    if (partitionIndex > -1) {
+                    final boolean replace = replaceRangeLo < replaceRangeHi;
+                    if (replace) {
+                        replacedPartitions.add(partitionTimestamp);
+                    }
+                    if (partitionIndex > -1 && replace) {
+                        // replaced partition is written anew as the version of this txn, same as merged partition,
+                        // the old version is purged after commit
+                        srcDataMax = 0;
+                        srcNameTxn = txWriter.getTxn();
+                    } else if (partitionIndex > -1) {
                         if (last) {
                             srcDataMax = transientRowCount;
                         } else {
@@ -4462,14 +5419,17 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                         srcNameTxn = txWriter.getTxn() - 1;
                     }
 
+                    // Committed rows replaced by upserted rows, the partition has to be merged to drop them.
+                    final long replacedRowCount = getDedupReplacedRowCount(partitionTimestamp);
+
                     // We're appending onto the last partition.
-                    final boolean append = last && (srcDataMax == 0 || o3Timestamp >= maxTimestamp);
+                    final boolean append = last && !replace && replacedRowCount == 0 && (srcDataMax == 0 || o3Timestamp >= maxTimestamp);
 
                     // Number of rows to insert from the O3 segment into this partition.
                     final long srcOooBatchRowSize = srcOooHi - srcOooLo + 1;
 
                     // Final partition size after current insertions.
-                    final long partitionSize = srcDataMax + srcOooBatchRowSize;
+                    final long partitionSize = srcDataMax + srcOooBatchRowSize - replacedRowCount;
 
                     pCount++;
 
@@ -4628,7 +5588,7 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                                 srcOooLo,
                                 srcOooHi,
                                 partitionTimestamp,
-                                last,
+                                last && !replace,
                                 srcDataMax,
                                 srcNameTxn,
                                 o3Basket,
@@ -4658,6 +5618,8 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
 
             o3ConsumePartitionUpdates();
             o3DoneLatch.await(latchCount);
+            dedupReplacedPartitions.clear();
+            dedupReplacedRows.clear();
 
             o3InError = !success || o3ErrorCount.get() > 0;
             if (success && o3ErrorCount.get() > 0) {
@@ -4669,6 +5631,12 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         if (o3LagRowCount > 0) {
             o3ShiftLagRowsUp(timestampIndex, o3LagRowCount, srcOooMax);
         }
+
+        // previously last partition is sealed when O3 rows created partitions after it
+        buildColumnSummaries(
+                Math.min(partitionFloorMethod.floor(o3TimestampMin), maxTimestamp == Numbers.LONG_NaN ? Long.MAX_VALUE : partitionFloorMethod.floor(maxTimestamp)),
+                o3TimestampMax
+        );
     }
 
     private void processPartitionRemoveCandidates() {
@@ -4680,6 +5648,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         } finally {
             partitionRemoveCandidates.clear();
         }
+        if (restoredPartitions.size() > 0) {
+            purgeRestoredPartitions();
+        }
     }
 
     private void processPartitionRemoveCandidates0(int n) {
@@ -4707,7 +5678,13 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
                         // the contents of the target intact
                         if (ff.unlink(other) == 0) {
                             LOG.info().$("purged by unlink [path=").$(other).I$();
-                            return;
+                            // partitions moved to the cold volume are owned by the table, unlike attached links
+                            final CharSequence coldRoot = configuration.getPartitionTieringRoot();
+                            if (coldRoot != null) {
+                                removeColdPartition(ff, Path.getThreadLocal2(coldRoot).concat(tableToken), partitionBy, timestamp, txn);
+                            }
+                            // the remaining candidates are purged too
+                            continue;
                         } else {
                             LOG.error().$("failed to unlink, will delete [path=").$(other).I$();
                         }
@@ -4740,6 +5717,71 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private void processWalRows(
+            @Nullable Path walPath,
+            int timestampIndex,
+            boolean ordered,
+            long rowLo,
+            long rowHi,
+            long o3TimestampMin,
+            long o3TimestampMax,
+            @Nullable SymbolMapDiffCursor mapDiffCursor
+    ) {
+        MemoryCR walTimestampColumn = o3Columns.getQuick(getPrimaryColumnIndex(timestampIndex));
+        long timestampAddr;
+        long o3Lo = rowLo;
+        long o3Hi = rowHi;
+
+        // ordered block above the max timestamp cannot have duplicates unless it repeats timestamps
+        final boolean dedup = dedupEnabled && (
+                !ordered
+                        || o3TimestampMin <= txWriter.getMaxTimestamp()
+                        || hasRepeatedTimestamps(walTimestampColumn.addressOf(rowLo << 4), rowHi - rowLo)
+        );
+        if (dedup) {
+            // symbol keys have to be in the table key space before they are compared to the committed rows
+            o3Columns = remapWalSymbols(mapDiffCursor, rowLo, rowHi, walPath);
+        }
+
+        if (!ordered || dedup) {
+            final long timestampMemorySize = (rowHi - rowLo) << 4;
+            o3TimestampMem.jumpTo(timestampMemorySize);
+            long destTimestampAddr = o3TimestampMem.getAddress();
+            Vect.memcpy(destTimestampAddr, walTimestampColumn.addressOf(rowLo << 4), timestampMemorySize);
+            if (rowHi - rowLo > 600 || !o3QuickSortEnabled) {
+                o3TimestampMemCpy.jumpTo(timestampMemorySize);
+                Vect.radixSortLongIndexAscInPlace(destTimestampAddr, o3RowCount, o3TimestampMemCpy.addressOf(0));
+            } else {
+                Vect.quickSortLongIndexAscInPlace(destTimestampAddr, o3RowCount);
+            }
+
+            long rowCount = rowHi - rowLo;
+            if (dedup) {
+                // WAL row ids follow the order rows were written
+                rowCount = o3Dedup(destTimestampAddr, rowCount, Long.MAX_VALUE, 0);
+                o3TimestampMin = getTimestampIndexValue(destTimestampAddr, 0);
+                o3TimestampMax = getTimestampIndexValue(destTimestampAddr, rowCount - 1);
+            }
+
+            o3Sort(destTimestampAddr, timestampIndex, rowCount);
+            timestampAddr = destTimestampAddr;
+
+            // Sorted data is now sorted in memory copy of the data from mmap files
+            // Row indexes start from 0, not rowLo
+            o3Hi = rowCount;
+            o3Lo = 0L;
+        } else {
+            timestampAddr = walTimestampColumn.addressOf(0);
+        }
+
+        if (!dedup) {
+            o3Columns = remapWalSymbols(mapDiffCursor, o3Lo, o3Hi, walPath);
+        }
+        if (o3Hi > o3Lo) {
+            processO3Block(0L, timestampIndex, timestampAddr, o3Hi, o3TimestampMin, o3TimestampMax, !ordered || dedup, o3Lo);
+        }
+    }
+
     private void publishTableWriterEvent(int cmdType, long tableId, long correlationId, int errorCode, CharSequence errorMsg, long affectedRowsCount, int eventType) {
         long pubCursor;
         do {
@@ -4787,6 +5829,33 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private void purgeRestoredPartitions() {
+        if (checkScoreboardHasReadersBeforeLastCommittedTxn()) {
+            // retried after the next commit
+            return;
+        }
+        for (int i = 0, n = restoredPartitions.size(); i < n; i += 2) {
+            final long partitionTimestamp = restoredPartitions.getQuick(i);
+            setPathForPartition(other, partitionBy, partitionTimestamp, false);
+            txnPartitionConditionally(other, restoredPartitions.getQuick(i + 1));
+            final int plen = other.length();
+            try {
+                for (int c = 0; c < columnCount; c++) {
+                    if (metadata.getColumnType(c) < 0) {
+                        continue;
+                    }
+                    final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, c);
+                    if (ff.exists(zFile(other.trimTo(plen), metadata.getColumnName(c), columnNameTxn))) {
+                        removeFileAndOrLog(ff, other);
+                    }
+                }
+            } finally {
+                other.trimTo(rootLen);
+            }
+        }
+        restoredPartitions.clear();
+    }
+
     private long readMinTimestamp(long partitionTimestamp) {
         setStateForTimestamp(other, partitionTimestamp, false);
         try {
@@ -5122,6 +6191,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         removeFileAndOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn));
         removeFileAndOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn));
         removeFileAndOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn));
+        removeFileAndOrLog(ff, zFile(path.trimTo(plen), columnName, columnNameTxn));
+        removeFileAndOrLog(ff, zmFile(path.trimTo(plen), columnName, columnNameTxn));
+        removeFileAndOrLog(ff, bfFile(path.trimTo(plen), columnName, columnNameTxn));
         path.trimTo(rootLen);
     }
 
@@ -5157,6 +6229,26 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private void removeColumnSummaries(long partitionTimestamp, long partitionNameTxn) {
+        setPathForPartition(other, partitionBy, partitionTimestamp, false);
+        txnPartitionConditionally(other, partitionNameTxn);
+        final int plen = other.length();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final int columnType = metadata.getColumnType(i);
+                final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                if (ZoneMap.isSupported(columnType)) {
+                    removeFileAndOrLog(ff, zmFile(other.trimTo(plen), metadata.getColumnName(i), columnNameTxn));
+                }
+                if (BloomFilter.isSupported(columnType)) {
+                    removeFileAndOrLog(ff, bfFile(other.trimTo(plen), metadata.getColumnName(i), columnNameTxn));
+                }
+            }
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
     private void removeIndexFiles(CharSequence columnName, int columnIndex) {
         try {
             for (int i = txWriter.getPartitionCount() - 1; i > -1L; i--) {
@@ -5377,6 +6469,9 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         renameFileOrLog(ff, iFile(path.trimTo(plen), columnName, columnNameTxn), iFile(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, keyFileName(path.trimTo(plen), columnName, columnNameTxn), keyFileName(other.trimTo(plen), newName, columnNameTxn));
         renameFileOrLog(ff, valueFileName(path.trimTo(plen), columnName, columnNameTxn), valueFileName(other.trimTo(plen), newName, columnNameTxn));
+        renameFileOrLog(ff, zFile(path.trimTo(plen), columnName, columnNameTxn), zFile(other.trimTo(plen), newName, columnNameTxn));
+        renameFileOrLog(ff, zmFile(path.trimTo(plen), columnName, columnNameTxn), zmFile(other.trimTo(plen), newName, columnNameTxn));
+        renameFileOrLog(ff, bfFile(path.trimTo(plen), columnName, columnNameTxn), bfFile(other.trimTo(plen), newName, columnNameTxn));
         path.trimTo(rootLen);
         other.trimTo(rootLen);
     }
@@ -5583,6 +6678,41 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         o3PartitionUpdateSink.set(0, partitionFloorMethod.floor(o3TimestampMin));
     }
 
+    private void restoreCompressedPartition(long partitionTimestamp, long partitionNameTxn) {
+        setPathForPartition(other, partitionBy, partitionTimestamp, false);
+        txnPartitionConditionally(other, partitionNameTxn);
+        final int plen = other.length();
+        try {
+            if (!ff.exists(other.concat(COMPRESSED_PARTITION_MARKER).$())) {
+                return;
+            }
+            final long opts = configuration.getWriterFileOpenOpts();
+            Path raw = Path.getThreadLocal2(other.trimTo(plen));
+            final int rawLen = raw.length();
+            for (int i = 0; i < columnCount; i++) {
+                if (metadata.getColumnType(i) < 0) {
+                    continue;
+                }
+                final CharSequence columnName = metadata.getColumnName(i);
+                final long columnNameTxn = columnVersionWriter.getColumnNameTxn(partitionTimestamp, i);
+                if (ff.exists(zFile(other.trimTo(plen), columnName, columnNameTxn))
+                        && !ff.exists(dFile(raw.trimTo(rawLen), columnName, columnNameTxn))) {
+                    // decompress into a temp file first, readers must never see partial raw file
+                    ColumnCodecs.decompressFile(ff, other, raw.put(".tmp").$(), opts);
+                    if (ff.rename(raw, dFile(other.trimTo(plen), columnName, columnNameTxn)) != FILES_RENAME_OK) {
+                        throw CairoException.critical(ff.errno()).put("could not restore compressed column [file=").put(other).put(']');
+                    }
+                }
+            }
+            removeFileAndOrLog(ff, other.trimTo(plen).concat(COMPRESSED_PARTITION_MARKER).$());
+            // readers that opened the partition before restore may still open compressed files
+            restoredPartitions.add(partitionTimestamp, partitionNameTxn);
+            LOG.info().$("restored compressed partition [path=").$(other.trimTo(plen)).I$();
+        } finally {
+            other.trimTo(rootLen);
+        }
+    }
+
     private void restoreMetaFrom(CharSequence fromBase, int fromIndex) {
         try {
             path.concat(fromBase);
@@ -5734,6 +6864,42 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private long squashWalColumn(
+            ReadOnlyObjList<? extends MemoryCR> walColumns,
+            int columnIndex,
+            int columnType,
+            boolean designated,
+            long rowLo,
+            long rowHi
+    ) {
+        final int primaryIndex = getPrimaryColumnIndex(columnIndex);
+        final MemoryCR walPrimary = walColumns.getQuick(primaryIndex);
+        final MemoryCARW squashPrimary = getWalSquashColumn(primaryIndex);
+        final long rowCount = rowHi - rowLo;
+
+        if (!ColumnType.isVariableLength(columnType)) {
+            // designated timestamp is stored as (timestamp, row id) pairs, row ids are fixed on commit
+            final int shl = ColumnType.pow2SizeOf(columnType) + (designated ? 1 : 0);
+            final long size = rowCount << shl;
+            squashPrimary.putBlockOfBytes(walPrimary.addressOf(rowLo << shl), size);
+            return size;
+        }
+
+        final MemoryCR walSecondary = walColumns.getQuick(primaryIndex + 1);
+        final MemoryCARW squashSecondary = getWalSquashColumn(primaryIndex + 1);
+        final long varLo = walSecondary.getLong(rowLo << 3);
+        final long varHi = walSecondary.getLong(rowHi << 3);
+        final long dataOffset = squashPrimary.getAppendOffset();
+        if (varHi > varLo) {
+            squashPrimary.putBlockOfBytes(walPrimary.addressOf(varLo), varHi - varLo);
+        }
+        // the trailing offset of the previous transaction is overwritten, it is the same value
+        squashSecondary.jumpTo(walSquashRowCount << 3);
+        final long indexAddr = squashSecondary.appendAddressFor((rowCount + 1) << 3);
+        Vect.shiftCopyFixedSizeColumnData(varLo - dataOffset, walSecondary.addressOf(rowLo << 3), 0, rowCount, indexAddr);
+        return varHi - varLo + (rowCount << 3);
+    }
+
     private void swapMetaFile(CharSequence columnName) {
         // close _meta so we can rename it
         metaMem.close();
@@ -5783,6 +6949,15 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         // added so far. Index writers will start point to different
         // files after switch.
         updateIndexes();
+        if (txWriter.getTransientRowCount() > 0) {
+            final long lastPartitionTimestamp = txWriter.getLastPartitionTimestamp();
+            buildColumnSummaries(
+                    lastPartitionTimestamp,
+                    txWriter.getPartitionNameTxnByPartitionTimestamp(lastPartitionTimestamp, -1),
+                    txWriter.getTransientRowCount(),
+                    true
+            );
+        }
         txWriter.switchPartitions(timestamp);
         openPartition(timestamp);
         setAppendPosition(0, false);
@@ -5799,6 +6974,21 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    private void syncDir(Path dir) {
+        if (ff.isRestrictedFileSystem()) {
+            return;
+        }
+        final int len = dir.length();
+        final int dirFd = ff.openRO(dir.$());
+        if (dirFd < 0 || ff.fsync(dirFd) != 0) {
+            LOG.error().$("could not fsync [path=").$(dir).$(", errno=").$(ff.errno()).I$();
+        }
+        if (dirFd > -1) {
+            ff.close(dirFd);
+        }
+        dir.trimTo(len);
+    }
+
     private void throwDistressException(CairoException cause) {
         LOG.critical().$("writer error [table=").utf8(tableToken.getTableName()).$(", e=").$((Sinkable) cause).I$();
         this.distressed = true;
@@ -5992,6 +7182,10 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         if (isSequential(metaMem, i)) {
             flags |= META_FLAG_BIT_SEQUENTIAL;
         }
+
+        if (isDedupKey(metaMem, i)) {
+            flags |= META_FLAG_BIT_DEDUP_KEY;
+        }
         ddlMem.putLong(flags);
         ddlMem.putInt(getIndexBlockCapacity(metaMem, i));
         ddlMem.skip(16);
@@ -6063,6 +7257,25 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         return configuration;
     }
 
+    // number of committed rows of the partition replaced by upserted rows of the O3 commit
+    long getDedupReplacedRowCount(long partitionTimestamp) {
+        final int index = dedupReplacedPartitionIndex(partitionTimestamp);
+        return index > -1 ? dedupReplacedPartitions.getQuick(index + 2) - dedupReplacedPartitions.getQuick(index + 1) : 0;
+    }
+
+    // size of the var column values of replaced rows, srcDataFixAddr is the address of partition's index column
+    long getDedupReplacedVarSize(long partitionTimestamp, long srcDataFixAddr) {
+        final int index = dedupReplacedPartitionIndex(partitionTimestamp);
+        long size = 0;
+        if (index > -1) {
+            for (int i = (int) dedupReplacedPartitions.getQuick(index + 1), n = (int) dedupReplacedPartitions.getQuick(index + 2); i < n; i++) {
+                final long row = dedupReplacedRows.getQuick(i);
+                size += O3Utils.getVarColumnLength(row, row, srcDataFixAddr);
+            }
+        }
+        return size;
+    }
+
     Sequence getO3CopyPubSeq() {
         return messageBus.getO3CopyPubSeq();
     }
@@ -6139,6 +7352,34 @@ public class TableWriter implements TableWriterAPI, MetadataChangeSPI, Closeable
         }
     }
 
+    // Drops committed rows replaced by upserted rows from the merge index of the partition, returns the new number of entries
+    long removeDedupReplacedRows(long partitionTimestamp, long timestampMergeIndexAddr, long count) {
+        final int index = dedupReplacedPartitionIndex(partitionTimestamp);
+        if (index < 0) {
+            return count;
+        }
+        int replaced = (int) dedupReplacedPartitions.getQuick(index + 1);
+        final int replacedHi = (int) dedupReplacedPartitions.getQuick(index + 2);
+        long dst = 0;
+        for (long i = 0; i < count; i++) {
+            final long p = timestampMergeIndexAddr + (i << 4);
+            final long rowId = Unsafe.getUnsafe().getLong(p + Long.BYTES);
+            // partition rows have the top bit set, merge index is ascending in the partition rows
+            if (rowId < 0 && replaced < replacedHi && dedupReplacedRows.getQuick(replaced) == (rowId & ~(1L << 63))) {
+                replaced++;
+                continue;
+            }
+            if (dst != i) {
+                final long d = timestampMergeIndexAddr + (dst << 4);
+                Unsafe.getUnsafe().putLong(d, Unsafe.getUnsafe().getLong(p));
+                Unsafe.getUnsafe().putLong(d + Long.BYTES, rowId);
+            }
+            dst++;
+        }
+        assert replaced == replacedHi;
+        return dst;
+    }
+
     void rowCancel() {
         if ((masterRef & 1) == 0) {
             return;
@@ -187,6 +187,10 @@ public final class TxWriter extends TxReader implements Closeable, Mutable, Symb
         return txPartitionCount;
     }
 
+    public int getFd() {
+        return txMemBase.getFd();
+    }
+
     public long getLastTxSize() {
         return txPartitionCount == 1 ? transientRowCount - prevTransientRowCount : transientRowCount;
     }
@@ -0,0 +1,323 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+
+/**
+ * Min, max, null count and sum of numeric column blocks within a partition, also known as zone map.
+ * Zone map of a column is kept in "name.zm[.txn]" file next to the column file. The file starts with
+ * partition row count and block row count, followed by (min, max, null count, sum) long quadruplet per block.
+ * Floating point min, max and sum are stored as double bits, integer sums wrap around on overflow.
+ * Rows above column top count as nulls.
+ * <p>
+ * Instances aggregate blocks that overlap a row range of a partition, nulls excluded from min, max and sum.
+ */
+public class ZoneMap implements QuietCloseable {
+    public static final int BLOCK_SIZE = 4 * Long.BYTES;
+    public static final int HEADER_SIZE = 2 * Long.BYTES;
+    private static final Log LOG = LogFactory.getLog(ZoneMap.class);
+    private long bufAddr;
+    private long bufSize;
+    private boolean floating;
+    private long max;
+    private long min;
+    private long nullCount;
+    private long rowCount;
+    private long sum;
+
+    /**
+     * Writes zone map of a column. Missing column file, e.g. of a compressed column, is ignored.
+     *
+     * @param path partition path, it is restored before the method returns
+     */
+    public static void build(
+            FilesFacade ff,
+            Path path,
+            CharSequence columnName,
+            long columnNameTxn,
+            int columnType,
+            long columnTop,
+            long rowCount,
+            int blockRowCount,
+            long opts
+    ) {
+        final int plen = path.length();
+        final long valueCount = Math.max(0, rowCount - columnTop);
+        final int shl = ColumnType.pow2SizeOf(columnType);
+        final long blockCount = (rowCount + blockRowCount - 1) / blockRowCount;
+        final long bufSize = HEADER_SIZE + blockCount * BLOCK_SIZE;
+        int fd = -1;
+        long addr = 0;
+        long buf = 0;
+        try {
+            if (valueCount > 0) {
+                fd = ff.openRO(TableUtils.dFile(path, columnName, columnNameTxn));
+                if (fd < 0) {
+                    return;
+                }
+                if (ff.length(fd) < valueCount << shl) {
+                    LOG.error().$("column is shorter than partition, zone map skipped [path=").$(path)
+                            .$(", rowCount=").$(rowCount)
+                            .$(", columnTop=").$(columnTop)
+                            .I$();
+                    return;
+                }
+                addr = TableUtils.mapRO(ff, fd, valueCount << shl, MemoryTag.MMAP_TABLE_WRITER);
+            }
+
+            buf = Unsafe.malloc(bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            Unsafe.getUnsafe().putLong(buf, rowCount);
+            Unsafe.getUnsafe().putLong(buf + Long.BYTES, blockRowCount);
+            long p = buf + HEADER_SIZE;
+            for (long blockLo = 0; blockLo < rowCount; blockLo += blockRowCount, p += BLOCK_SIZE) {
+                final long blockHi = Math.min(rowCount, blockLo + blockRowCount);
+                final long valueLo = Math.max(blockLo, columnTop) - columnTop;
+                final long valueHi = Math.max(blockHi, columnTop) - columnTop;
+                final long topNulls = Math.min(blockHi, columnTop) - Math.min(blockLo, columnTop);
+                if (ColumnType.tagOf(columnType) == ColumnType.DOUBLE) {
+                    computeDoubleBlock(addr, valueLo, valueHi, topNulls, p);
+                } else {
+                    computeLongBlock(columnType, addr, valueLo, valueHi, topNulls, p);
+                }
+            }
+
+            // zone map becomes visible only when complete
+            final int len = TableUtils.zmFile(path.trimTo(plen), columnName, columnNameTxn).length();
+            final Path tmp = Path.getThreadLocal2(path).put(".tmp").$();
+            ColumnCodecs.writeFile(ff, tmp, buf, bufSize, opts);
+            if (ff.rename(tmp, path.trimTo(len).$()) != Files.FILES_RENAME_OK) {
+                LOG.error().$("could not rename zone map [errno=").$(ff.errno()).$(", file=").$(path).I$();
+                ff.remove(tmp);
+            }
+        } finally {
+            if (buf != 0) {
+                Unsafe.free(buf, bufSize, MemoryTag.NATIVE_TABLE_WRITER);
+            }
+            if (addr != 0) {
+                ff.munmap(addr, valueCount << shl, MemoryTag.MMAP_TABLE_WRITER);
+            }
+            if (fd > -1) {
+                ff.close(fd);
+            }
+            path.trimTo(plen);
+        }
+    }
+
+    public static boolean isSupported(int columnType) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                // float is left out, filters may compare it after rounding constants to float
+                return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (bufAddr != 0) {
+            bufAddr = Unsafe.free(bufAddr, bufSize, MemoryTag.NATIVE_DEFAULT);
+            bufSize = 0;
+        }
+    }
+
+    public double getMaxDouble() {
+        return floating ? Double.longBitsToDouble(max) : max;
+    }
+
+    public long getMaxLong() {
+        return max;
+    }
+
+    public double getMinDouble() {
+        return floating ? Double.longBitsToDouble(min) : min;
+    }
+
+    public long getMinLong() {
+        return min;
+    }
+
+    public long getNullCount() {
+        return nullCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public double getSumDouble() {
+        return floating ? Double.longBitsToDouble(sum) : sum;
+    }
+
+    public long getSumLong() {
+        return sum;
+    }
+
+    /**
+     * @return true when at least one of the rows is not null
+     */
+    public boolean hasValues() {
+        return nullCount < rowCount;
+    }
+
+    public boolean isFloating() {
+        return floating;
+    }
+
+    /**
+     * Aggregates zone map blocks that overlap given rows.
+     *
+     * @return false when zone map does not exist or does not describe the partition
+     */
+    public boolean of(FilesFacade ff, LPSZ file, int columnType, long partitionRowCount, long rowLo, long rowHi) {
+        final int fd = ff.openRO(file);
+        if (fd < 0) {
+            return false;
+        }
+        try {
+            ensureCapacity(HEADER_SIZE);
+            if (ff.read(fd, bufAddr, HEADER_SIZE, 0) != HEADER_SIZE) {
+                return false;
+            }
+            final long blockRowCount = Unsafe.getUnsafe().getLong(bufAddr + Long.BYTES);
+            if (Unsafe.getUnsafe().getLong(bufAddr) != partitionRowCount || blockRowCount < 1 || rowLo >= rowHi || rowHi > partitionRowCount) {
+                // partition has been changed since zone map was written
+                return false;
+            }
+            final long blockLo = rowLo / blockRowCount;
+            final long blockHi = (rowHi - 1) / blockRowCount + 1;
+            final long len = (blockHi - blockLo) * BLOCK_SIZE;
+            ensureCapacity(len);
+            if (ff.read(fd, bufAddr, len, HEADER_SIZE + blockLo * BLOCK_SIZE) != len) {
+                return false;
+            }
+
+            floating = ColumnType.tagOf(columnType) == ColumnType.DOUBLE;
+            rowCount = Math.min(partitionRowCount, blockHi * blockRowCount) - blockLo * blockRowCount;
+            nullCount = 0;
+            double minDouble = Double.POSITIVE_INFINITY;
+            double maxDouble = Double.NEGATIVE_INFINITY;
+            double sumDouble = 0;
+            min = Long.MAX_VALUE;
+            max = Long.MIN_VALUE;
+            sum = 0;
+            for (long p = bufAddr, lim = bufAddr + len; p < lim; p += BLOCK_SIZE) {
+                final long blockMin = Unsafe.getUnsafe().getLong(p);
+                final long blockMax = Unsafe.getUnsafe().getLong(p + Long.BYTES);
+                if (floating) {
+                    minDouble = Math.min(minDouble, Double.longBitsToDouble(blockMin));
+                    maxDouble = Math.max(maxDouble, Double.longBitsToDouble(blockMax));
+                    sumDouble += Double.longBitsToDouble(Unsafe.getUnsafe().getLong(p + 3 * Long.BYTES));
+                } else {
+                    min = Math.min(min, blockMin);
+                    max = Math.max(max, blockMax);
+                    sum += Unsafe.getUnsafe().getLong(p + 3 * Long.BYTES);
+                }
+                nullCount += Unsafe.getUnsafe().getLong(p + 2 * Long.BYTES);
+            }
+            if (floating) {
+                min = Double.doubleToRawLongBits(minDouble);
+                max = Double.doubleToRawLongBits(maxDouble);
+                sum = Double.doubleToRawLongBits(sumDouble);
+            }
+            return true;
+        } finally {
+            ff.close(fd);
+        }
+    }
+
+    private static void computeDoubleBlock(long addr, long valueLo, long valueHi, long nulls, long p) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        double sum = 0;
+        for (long i = valueLo; i < valueHi; i++) {
+            final double value = Unsafe.getUnsafe().getDouble(addr + (i << 3));
+            if (value != value) {
+                nulls++;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+            }
+        }
+        Unsafe.getUnsafe().putLong(p, Double.doubleToRawLongBits(min));
+        Unsafe.getUnsafe().putLong(p + Long.BYTES, Double.doubleToRawLongBits(max));
+        Unsafe.getUnsafe().putLong(p + 2 * Long.BYTES, nulls);
+        Unsafe.getUnsafe().putLong(p + 3 * Long.BYTES, Double.doubleToRawLongBits(sum));
+    }
+
+    private static void computeLongBlock(int columnType, long addr, long valueLo, long valueHi, long nulls, long p) {
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        long sum = 0;
+        for (long i = valueLo; i < valueHi; i++) {
+            final long value;
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BYTE:
+                    value = Unsafe.getUnsafe().getByte(addr + i);
+                    break;
+                case ColumnType.SHORT:
+                    value = Unsafe.getUnsafe().getShort(addr + (i << 1));
+                    break;
+                case ColumnType.INT:
+                    final int intValue = Unsafe.getUnsafe().getInt(addr + (i << 2));
+                    value = intValue == Numbers.INT_NaN ? Numbers.LONG_NaN : intValue;
+                    break;
+                default:
+                    value = Unsafe.getUnsafe().getLong(addr + (i << 3));
+                    break;
+            }
+            if (value == Numbers.LONG_NaN) {
+                nulls++;
+            } else {
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+            }
+        }
+        Unsafe.getUnsafe().putLong(p, min);
+        Unsafe.getUnsafe().putLong(p + Long.BYTES, max);
+        Unsafe.getUnsafe().putLong(p + 2 * Long.BYTES, nulls);
+        Unsafe.getUnsafe().putLong(p + 3 * Long.BYTES, sum);
+    }
+
+    private void ensureCapacity(long size) {
+        if (bufSize < size) {
+            bufAddr = Unsafe.realloc(bufAddr, bufSize, size, MemoryTag.NATIVE_DEFAULT);
+            bufSize = size;
+        }
+    }
+}
@@ -27,6 +27,7 @@ package io.questdb.cairo.map;
 import io.questdb.cairo.*;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.vm.api.MemoryA;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.std.*;
 import org.jetbrains.annotations.NotNull;
@@ -225,6 +226,16 @@ public class FastMap implements Map, Reopenable {
         }
     }
 
+    /**
+     * Appends all map entries, as they are laid out in memory, to the given memory.
+     * The copied entries can be iterated via {@link #getCursor(long, int)}.
+     *
+     * @param mem memory to append entries to
+     */
+    public void copyTo(MemoryA mem) {
+        mem.putBlockOfBytes(kStart, kPos - kStart);
+    }
+
     public long getAreaSize() {
         return kLimit - kStart;
     }
@@ -234,6 +245,25 @@ public class FastMap implements Map, Reopenable {
         return cursor.init(kStart, size);
     }
 
+    /**
+     * Returns cursor over map entries previously copied to another memory region via
+     * {@link #copyTo(MemoryA)}. The region must not change while the cursor is in use.
+     *
+     * @param address address of the first entry
+     * @param count   number of entries
+     * @return cursor over the entries
+     */
+    public RecordCursor getCursor(long address, int count) {
+        return cursor.init(address, count);
+    }
+
+    /**
+     * @return size of native memory, in bytes, currently allocated by the map
+     */
+    public long getHeapSize() {
+        return capacity + offsets.getCapacity() * Long.BYTES;
+    }
+
     public int getKeyCapacity() {
         return keyCapacity;
     }
@@ -243,6 +273,27 @@ public class FastMap implements Map, Reopenable {
         return record;
     }
 
+    /**
+     * Merges entries of the given map into this map. Both maps must have identical
+     * key and value types. Keys missing in this map are copied along with their
+     * values, while values of the existing keys are combined via the merge function.
+     *
+     * @param srcMap    map to merge entries from
+     * @param mergeFunc function to combine values of the same key
+     */
+    public void merge(FastMap srcMap, MapValueMergeFunction mergeFunc) {
+        assert keyDataOffset == srcMap.keyDataOffset;
+        long srcAddress = srcMap.kStart;
+        for (int i = 0, n = srcMap.size; i < n; i++) {
+            final int len = Unsafe.getUnsafe().getInt(srcAddress);
+            final MapValue destValue = key.init().copyFromRawKey(srcAddress, len).createValue();
+            if (!destValue.isNew()) {
+                mergeFunc.merge(destValue, srcMap.valueAt(srcAddress));
+            }
+            srcAddress += len;
+        }
+    }
+
     public void reopen() {
         if (kStart == 0) {
             //handles both mem and offsets
@@ -503,6 +554,17 @@ public class FastMap implements Map, Reopenable {
             return findValue(value3);
         }
 
+        /**
+         * Finishes the key and calculates its hash code. The key can still be used
+         * to create or find the value afterwards.
+         *
+         * @return hash code of the key
+         */
+        public long hash() {
+            commit();
+            return hashFunction.hash(startAddress + keyDataOffset, len - keyDataOffset);
+        }
+
         public Key init() {
             startAddress = kPos;
             appendAddress = kPos + keyDataOffset;
@@ -713,6 +775,15 @@ public class FastMap implements Map, Reopenable {
             Unsafe.getUnsafe().putInt(startAddress, len = (int) (appendAddress - startAddress));
         }
 
+        private Key copyFromRawKey(long srcAddress, int srcLen) {
+            // the source entry includes value block, so the copied value
+            // is already populated in case when the key turns out to be new
+            checkSize(srcLen - keyDataOffset);
+            Vect.memcpy(startAddress, srcAddress, srcLen);
+            appendAddress = startAddress + srcLen;
+            return this;
+        }
+
         private MapValue createValue(FastMapValue value) {
             commit();
             // calculate hash remembering "key" structure
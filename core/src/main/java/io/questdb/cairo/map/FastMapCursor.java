@@ -78,7 +78,7 @@ public final class FastMapCursor implements RecordCursor {
 
     @Override
     public long size() {
-        return map.size();
+        return count;
     }
 
     @Override
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.TableToken;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Materialized view is a regular partitioned table holding SAMPLE BY results of a WAL table, called base table.
+ * WAL apply job of the base table queues the time range touched by the applied transactions, {@link MatViewRefreshJob}
+ * widens it to whole view partitions and re-runs view query over that range only, see {@link MatViewRefresher}.
+ * <p>
+ * Refresh query is the view query with base table replaced by a sub-query filtering designated timestamp
+ * by two bind variables, $1 inclusive and $2 exclusive.
+ */
+public class MatViewDefinition {
+    private final TableToken baseTableToken;
+    private final AtomicBoolean fullRefreshPending = new AtomicBoolean();
+    private final String refreshSql;
+    private final TimestampSampler sampler;
+    private final String samplingInterval;
+    private final TableToken viewToken;
+
+    public MatViewDefinition(
+            TableToken viewToken,
+            TableToken baseTableToken,
+            String samplingInterval,
+            TimestampSampler sampler,
+            String refreshSql
+    ) {
+        this.viewToken = viewToken;
+        this.baseTableToken = baseTableToken;
+        this.samplingInterval = samplingInterval;
+        this.sampler = sampler;
+        this.refreshSql = refreshSql;
+        // buckets are aligned to calendar
+        sampler.setStart(0);
+    }
+
+    /**
+     * Takes the full refresh mark. The refresh that took the mark has to mark the view again when it fails,
+     * marks set while the refresh runs are kept for the next refresh.
+     *
+     * @return true when the view was marked for full refresh
+     */
+    public boolean claimFullRefresh() {
+        return fullRefreshPending.getAndSet(false);
+    }
+
+    public TableToken getBaseTableToken() {
+        return baseTableToken;
+    }
+
+    public String getRefreshSql() {
+        return refreshSql;
+    }
+
+    public TimestampSampler getSampler() {
+        return sampler;
+    }
+
+    public String getSamplingInterval() {
+        return samplingInterval;
+    }
+
+    public TableToken getViewToken() {
+        return viewToken;
+    }
+
+    /**
+     * View is marked for full refresh when incremental refresh could not be applied, e.g. the view writer was busy.
+     */
+    public void markFullRefresh() {
+        fullRefreshPending.set(true);
+    }
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.CairoEngine;
+import io.questdb.mp.SynchronizedJob;
+import io.questdb.std.LongList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.QuietCloseable;
+
+/**
+ * Refreshes materialized views queued by WAL apply jobs of their base tables, see
+ * {@link MatViewRegistry#notifyBaseTableChanged(io.questdb.cairo.TableToken, long, long)}.
+ * Views are refreshed one at a time, apart from applying WAL transactions.
+ */
+public class MatViewRefreshJob extends SynchronizedJob implements QuietCloseable {
+    private final CairoEngine engine;
+    private final LongList refreshRanges = new LongList();
+    private final MatViewRefresher refresher;
+    private final ObjList<MatViewDefinition> views = new ObjList<>();
+
+    public MatViewRefreshJob(CairoEngine engine, int workerCount, int sharedWorkerCount) {
+        this.engine = engine;
+        this.refresher = new MatViewRefresher(engine, workerCount, sharedWorkerCount);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(refresher);
+    }
+
+    @Override
+    protected boolean runSerially() {
+        if (!engine.getMatViewRegistry().pollRefresh(views, refreshRanges)) {
+            return false;
+        }
+        for (int i = 0, n = views.size(); i < n; i++) {
+            refresher.refresh(views.getQuick(i), refreshRanges.getQuick(2 * i), refreshRanges.getQuick(2 * i + 1));
+        }
+        views.clear();
+        return true;
+    }
+}
@@ -0,0 +1,215 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.security.AllowAllCairoSecurityContext;
+import io.questdb.cairo.sql.BindVariableService;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.TableReferenceOutOfDateException;
+import io.questdb.griffin.*;
+import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+/**
+ * Re-aggregates materialized views over the time range changed by WAL transactions of their base table.
+ * The range is widened to SAMPLE BY buckets and then to whole view partitions. Partitions of the view within
+ * the range are replaced by the rows of the view query limited to the range of the base table, the replacement
+ * is committed as a single transaction, see {@link TableWriter#beginReplace(long, long)}.
+ * <p>
+ * Compiled refresh queries are kept per view, refresher is not thread-safe.
+ */
+public class MatViewRefresher implements QuietCloseable {
+    private static final Log LOG = LogFactory.getLog(MatViewRefresher.class);
+    private static final String LOCK_REASON = "materialized view refresh";
+    private final BytecodeAssembler asm = new BytecodeAssembler();
+    private final BindVariableService bindVariableService;
+    private final SqlCompiler compiler;
+    private final CairoEngine engine;
+    private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
+    private final IntObjHashMap<RefreshFactory> refreshFactories = new IntObjHashMap<>();
+    private final SqlExecutionContextImpl sqlExecutionContext;
+
+    public MatViewRefresher(CairoEngine engine, int workerCount, int sharedWorkerCount) {
+        this.engine = engine;
+        this.bindVariableService = new BindVariableServiceImpl(engine.getConfiguration());
+        this.sqlExecutionContext = new SqlExecutionContextImpl(engine, workerCount, sharedWorkerCount);
+        this.sqlExecutionContext.with(AllowAllCairoSecurityContext.INSTANCE, bindVariableService, null, -1, null);
+        this.compiler = new SqlCompiler(engine);
+    }
+
+    @Override
+    public void close() {
+        final Object[] factories = refreshFactories.getValues();
+        for (int i = 0, n = factories.length; i < n; i++) {
+            Misc.free((RefreshFactory) factories[i]);
+        }
+        refreshFactories.clear();
+        Misc.free(compiler);
+    }
+
+    /**
+     * Refreshes the view. View that could not be refreshed is marked for full refresh
+     * on the next change of the base table.
+     *
+     * @param view         view to refresh
+     * @param minTimestamp min timestamp of the changed base table rows, Long.MIN_VALUE to refresh the view fully
+     * @param maxTimestamp max timestamp of the changed base table rows, inclusive
+     */
+    public void refresh(MatViewDefinition view, long minTimestamp, long maxTimestamp) {
+        final TableToken viewToken = engine.getUpdatedTableToken(view.getViewToken());
+        if (viewToken == null || viewToken.getTableId() != view.getViewToken().getTableId()) {
+            // view is dropped
+            final int index = refreshFactories.keyIndex(view.getViewToken().getTableId());
+            if (index < 0) {
+                Misc.free(refreshFactories.valueAtQuick(index));
+                refreshFactories.removeAt(index);
+            }
+            return;
+        }
+
+        final boolean fullRefresh = view.claimFullRefresh() || minTimestamp == Long.MIN_VALUE;
+        try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, viewToken, LOCK_REASON)) {
+            final long lo;
+            final long hi;
+            final long baseHi;
+            if (fullRefresh) {
+                lo = 0;
+                hi = Long.MAX_VALUE;
+                baseHi = Long.MAX_VALUE;
+            } else {
+                final TimestampSampler sampler = view.getSampler();
+                final PartitionBy.PartitionFloorMethod partitionFloorMethod = PartitionBy.getPartitionFloorMethod(writer.getPartitionBy());
+                lo = partitionFloorMethod.floor(sampler.round(minTimestamp));
+                hi = PartitionBy.getPartitionAddMethod(writer.getPartitionBy()).calculate(partitionFloorMethod.floor(sampler.round(maxTimestamp)), 1);
+                // last bucket of the range may extend past it
+                baseHi = sampler.nextTimestamp(sampler.round(hi - 1));
+            }
+            writer.beginReplace(lo, hi);
+            final long rowCount = insertRange(view, writer, lo, hi, baseHi);
+            if (rowCount == 0 && fullRefresh) {
+                // nothing replaces the partitions
+                writer.removeAllPartitions();
+            }
+            LOG.info().$("refreshed materialized view [view=").utf8(viewToken.getTableName())
+                    .$(", from=").$ts(lo)
+                    .$(", to=").$ts(hi)
+                    .$(", rows=").$(rowCount)
+                    .I$();
+        } catch (EntryUnavailableException e) {
+            view.markFullRefresh();
+            LOG.info().$("materialized view is busy, deferring refresh [view=").utf8(viewToken.getTableName())
+                    .$(", lockReason=").$(e.getReason())
+                    .I$();
+        } catch (SqlException | CairoException e) {
+            view.markFullRefresh();
+            LOG.error().$("could not refresh materialized view [view=").utf8(viewToken.getTableName())
+                    .$(", error=").$(e.getFlyweightMessage())
+                    .I$();
+        }
+    }
+
+    private RecordCursor getCursor(MatViewDefinition view, RefreshFactory refreshFactory) throws SqlException {
+        if (refreshFactory.factory == null) {
+            refreshFactory.of(compiler.compile(view.getRefreshSql(), sqlExecutionContext).getRecordCursorFactory());
+        }
+        try {
+            return refreshFactory.factory.getCursor(sqlExecutionContext);
+        } catch (TableReferenceOutOfDateException e) {
+            // base table has changed, the query is compiled again
+            refreshFactory.clear();
+            refreshFactory.of(compiler.compile(view.getRefreshSql(), sqlExecutionContext).getRecordCursorFactory());
+            return refreshFactory.factory.getCursor(sqlExecutionContext);
+        }
+    }
+
+    private long insertRange(MatViewDefinition view, TableWriter writer, long lo, long hi, long baseHi) throws SqlException {
+        final int viewTableId = view.getViewToken().getTableId();
+        RefreshFactory refreshFactory = refreshFactories.get(viewTableId);
+        if (refreshFactory == null) {
+            refreshFactory = new RefreshFactory();
+            refreshFactories.put(viewTableId, refreshFactory);
+        }
+        // cached factories of all views are bound to the same variables
+        bindVariableService.setTimestamp(0, lo);
+        bindVariableService.setTimestamp(1, baseHi);
+        try (RecordCursor cursor = getCursor(view, refreshFactory)) {
+            final RecordToRowCopier copier = refreshFactory.getCopier(writer);
+            final int timestampIndex = writer.getMetadata().getTimestampIndex();
+            final Record record = cursor.getRecord();
+            long rowCount = 0;
+            while (cursor.hasNext()) {
+                final long timestamp = record.getTimestamp(timestampIndex);
+                // buckets starting before the range belong to partitions that are not refreshed
+                if (timestamp >= lo && timestamp < hi) {
+                    final TableWriter.Row row = writer.newRow(timestamp);
+                    copier.copy(record, row);
+                    row.append();
+                    rowCount++;
+                }
+            }
+            writer.commit();
+            return rowCount;
+        }
+    }
+
+    private class RefreshFactory implements QuietCloseable {
+        private RecordToRowCopier copier;
+        private long copierStructureVersion = -1;
+        private RecordCursorFactory factory;
+
+        @Override
+        public void close() {
+            clear();
+        }
+
+        private void clear() {
+            factory = Misc.free(factory);
+            copier = null;
+            copierStructureVersion = -1;
+        }
+
+        private RecordToRowCopier getCopier(TableWriter writer) {
+            // copier depends on view table columns
+            if (copier == null || copierStructureVersion != writer.getStructureVersion()) {
+                entityColumnFilter.of(writer.getMetadata().getColumnCount());
+                copier = RecordToRowCopierUtils.generateCopier(asm, factory.getMetadata(), writer.getMetadata(), entityColumnFilter);
+                copierStructureVersion = writer.getStructureVersion();
+            }
+            return copier;
+        }
+
+        private void of(RecordCursorFactory factory) {
+            this.factory = factory;
+            this.copier = null;
+        }
+    }
+}
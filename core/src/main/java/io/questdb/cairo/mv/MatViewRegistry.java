@@ -0,0 +1,234 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.Path;
+
+import static io.questdb.cairo.TableUtils.MAT_VIEW_FILE_NAME;
+
+/**
+ * Keeps materialized view definitions by table id of their base table. Definition of a view is kept
+ * in "_mv" file in the view table directory, the file holds base table directory name, SAMPLE BY interval and
+ * refresh query. Registry is populated from disk on first use.
+ * <p>
+ * Registry also queues views for {@link MatViewRefreshJob}. Time ranges of base table changes queued before
+ * the job gets to the view are merged into one range.
+ */
+public class MatViewRegistry {
+    private static final Log LOG = LogFactory.getLog(MatViewRegistry.class);
+    private final CairoConfiguration configuration;
+    private final CairoEngine engine;
+    // min and max timestamps of the changed base table rows, a pair per queued view
+    private final LongList refreshRanges = new LongList();
+    private final ObjList<MatViewDefinition> refreshViews = new ObjList<>();
+    private final ObjList<TableToken> tableTokenBucket = new ObjList<>();
+    private final IntObjHashMap<ObjList<MatViewDefinition>> viewsByBaseTableId = new IntObjHashMap<>();
+    private boolean loaded;
+
+    public MatViewRegistry(CairoEngine engine) {
+        this.engine = engine;
+        this.configuration = engine.getConfiguration();
+    }
+
+    public synchronized void clear() {
+        viewsByBaseTableId.clear();
+        refreshViews.clear();
+        refreshRanges.clear();
+        loaded = false;
+    }
+
+    /**
+     * Writes view definition to the view table directory and starts refreshing the view
+     * on changes to the base table.
+     */
+    public synchronized void createView(MatViewDefinition viewDefinition) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        final Path path = Path.getThreadLocal(configuration.getRoot()).concat(viewDefinition.getViewToken()).concat(MAT_VIEW_FILE_NAME).$();
+        final MemoryCMARW mem = Vm.getSmallCMARWInstance(ff, path, MemoryTag.MMAP_DEFAULT, configuration.getWriterFileOpenOpts());
+        try {
+            mem.putStr(viewDefinition.getBaseTableToken().getDirName());
+            mem.putStr(viewDefinition.getSamplingInterval());
+            mem.putStr(viewDefinition.getRefreshSql());
+        } finally {
+            mem.close(true, Vm.TRUNCATE_TO_POINTER);
+        }
+        ensureLoaded();
+        addView(viewDefinition);
+    }
+
+    /**
+     * Copies definitions of the views over the given base table to the sink.
+     *
+     * @return false when the table has no views
+     */
+    public synchronized boolean getViews(TableToken baseTableToken, ObjList<MatViewDefinition> sink) {
+        ensureLoaded();
+        sink.clear();
+        final ObjList<MatViewDefinition> views = viewsByBaseTableId.get(baseTableToken.getTableId());
+        if (views != null) {
+            sink.addAll(views);
+        }
+        return sink.size() > 0;
+    }
+
+    public synchronized boolean hasViews(TableToken baseTableToken) {
+        ensureLoaded();
+        final ObjList<MatViewDefinition> views = viewsByBaseTableId.get(baseTableToken.getTableId());
+        return views != null && views.size() > 0;
+    }
+
+    /**
+     * Queues refresh of the views over the base table.
+     *
+     * @param baseTableToken base table
+     * @param minTimestamp   min timestamp of the changed rows, Long.MIN_VALUE to refresh views fully
+     * @param maxTimestamp   max timestamp of the changed rows, inclusive
+     */
+    public synchronized void notifyBaseTableChanged(TableToken baseTableToken, long minTimestamp, long maxTimestamp) {
+        ensureLoaded();
+        final ObjList<MatViewDefinition> views = viewsByBaseTableId.get(baseTableToken.getTableId());
+        if (views == null) {
+            return;
+        }
+        for (int i = 0, n = views.size(); i < n; i++) {
+            final MatViewDefinition view = views.getQuick(i);
+            final int index = refreshViews.indexOf(view);
+            if (index < 0) {
+                refreshViews.add(view);
+                refreshRanges.add(minTimestamp, maxTimestamp);
+            } else {
+                final int rangeIndex = 2 * index;
+                refreshRanges.setQuick(rangeIndex, Math.min(refreshRanges.getQuick(rangeIndex), minTimestamp));
+                refreshRanges.setQuick(rangeIndex + 1, Math.max(refreshRanges.getQuick(rangeIndex + 1), maxTimestamp));
+            }
+        }
+    }
+
+    /**
+     * Moves queued views and their refresh ranges to the sinks.
+     *
+     * @return false when no views are queued
+     */
+    public synchronized boolean pollRefresh(ObjList<MatViewDefinition> viewSink, LongList rangeSink) {
+        viewSink.clear();
+        rangeSink.clear();
+        viewSink.addAll(refreshViews);
+        rangeSink.add(refreshRanges);
+        refreshViews.clear();
+        refreshRanges.clear();
+        return viewSink.size() > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public synchronized void removeView(TableToken viewToken) {
+        if (!loaded) {
+            return;
+        }
+        final Object[] values = viewsByBaseTableId.getValues();
+        for (int i = 0, n = values.length; i < n; i++) {
+            if (values[i] != null) {
+                final ObjList<MatViewDefinition> views = (ObjList<MatViewDefinition>) values[i];
+                for (int j = views.size() - 1; j > -1; j--) {
+                    if (views.getQuick(j).getViewToken().equals(viewToken)) {
+                        views.remove(j);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addView(MatViewDefinition viewDefinition) {
+        final int baseTableId = viewDefinition.getBaseTableToken().getTableId();
+        ObjList<MatViewDefinition> views = viewsByBaseTableId.get(baseTableId);
+        if (views == null) {
+            views = new ObjList<>();
+            viewsByBaseTableId.put(baseTableId, views);
+        }
+        views.add(viewDefinition);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        final FilesFacade ff = configuration.getFilesFacade();
+        final Path path = Path.getThreadLocal(configuration.getRoot());
+        final int rootLen = path.length();
+        tableTokenBucket.clear();
+        engine.getTableTokens(tableTokenBucket, false);
+        for (int i = 0, n = tableTokenBucket.size(); i < n; i++) {
+            final TableToken tableToken = tableTokenBucket.getQuick(i);
+            path.trimTo(rootLen).concat(tableToken).concat(MAT_VIEW_FILE_NAME).$();
+            if (ff.exists(path)) {
+                final MatViewDefinition viewDefinition = readDefinition(ff, path, tableToken);
+                if (viewDefinition != null) {
+                    addView(viewDefinition);
+                }
+            }
+        }
+        loaded = true;
+    }
+
+    private MatViewDefinition readDefinition(FilesFacade ff, Path path, TableToken viewToken) {
+        try (MemoryMR mem = Vm.getMRInstance(ff, path, ff.length(path), MemoryTag.MMAP_DEFAULT)) {
+            long offset = 0;
+            final CharSequence baseTableDirName = mem.getStr(offset);
+            offset += Vm.getStorageLength(baseTableDirName.length());
+            final TableToken baseTableToken = engine.getTableTokenByDirName(baseTableDirName);
+            if (baseTableToken == null) {
+                LOG.info().$("base table of materialized view is dropped [view=").utf8(viewToken.getTableName())
+                        .$(", dirName=").utf8(baseTableDirName).I$();
+                return null;
+            }
+            final String samplingInterval = Chars.toString(mem.getStr(offset));
+            offset += Vm.getStorageLength(samplingInterval.length());
+            final String refreshSql = Chars.toString(mem.getStr(offset));
+            return new MatViewDefinition(
+                    viewToken,
+                    baseTableToken,
+                    samplingInterval,
+                    TimestampSamplerFactory.getInstance(samplingInterval, 0),
+                    refreshSql
+            );
+        } catch (SqlException | CairoException e) {
+            LOG.error().$("invalid materialized view definition [view=").utf8(viewToken.getTableName())
+                    .$(", error=").$(e.getFlyweightMessage()).I$();
+            return null;
+        }
+    }
+}
@@ -26,16 +26,45 @@ package io.questdb.cairo.pool;
 
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.MmapCache;
+import io.questdb.cairo.SymbolMapCache;
 import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderMetrics;
 import io.questdb.cairo.TableToken;
+import io.questdb.std.Misc;
+import org.jetbrains.annotations.Nullable;
 
 public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
     private final MessageBus messageBus;
+    private final TableReaderMetrics metrics;
+    private final MmapCache mmapCache;
+    private final SymbolMapCache symbolMapCache = new SymbolMapCache();
 
     public ReaderPool(CairoConfiguration configuration, MessageBus messageBus) {
+        this(configuration, messageBus, null);
+    }
+
+    public ReaderPool(CairoConfiguration configuration, MessageBus messageBus, TableReaderMetrics metrics) {
         super(configuration);
         this.messageBus = messageBus;
+        this.metrics = metrics;
+        this.mmapCache = new MmapCache();
+    }
+
+    public MmapCache getMmapCache() {
+        return mmapCache;
+    }
+
+    public SymbolMapCache getSymbolMapCache() {
+        return symbolMapCache;
+    }
+
+    @Override
+    protected void closePool() {
+        super.closePool();
+        // readers still out of the pool release their mappings on close
+        Misc.free(mmapCache);
     }
 
     @Override
@@ -45,7 +74,10 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
 
     @Override
     protected R newTenant(TableToken tableName, Entry<R> entry, int index) {
-        return new R(this, entry, index, tableName, messageBus);
+        // the setting is checked per reader to let it change without restarting the pool,
+        // columns of compressed partitions are shared regardless
+        final MmapCache readerMmapCache = getConfiguration().isReaderMmapCacheEnabled() ? mmapCache : null;
+        return new R(this, entry, index, tableName, messageBus, symbolMapCache, metrics, readerMmapCache, mmapCache);
     }
 
     public static class R extends TableReader implements PoolTenant {
@@ -53,8 +85,18 @@ public class ReaderPool extends AbstractMultiTenantPool<ReaderPool.R> {
         private Entry<R> entry;
         private AbstractMultiTenantPool<R> pool;
 
-        public R(AbstractMultiTenantPool<R> pool, Entry<R> entry, int index, TableToken tableToken, MessageBus messageBus) {
-            super(pool.getConfiguration(), tableToken, messageBus);
+        public R(
+                AbstractMultiTenantPool<R> pool,
+                Entry<R> entry,
+                int index,
+                TableToken tableToken,
+                MessageBus messageBus,
+                SymbolMapCache symbolMapCache,
+                TableReaderMetrics metrics,
+                @Nullable MmapCache mmapCache,
+                MmapCache decompressedColumnCache
+        ) {
+            super(pool.getConfiguration(), tableToken, messageBus, symbolMapCache, metrics, mmapCache, decompressedColumnCache);
             this.pool = pool;
             this.entry = entry;
             this.index = index;
@@ -76,6 +76,7 @@ public class WriterPool extends AbstractPool {
     private final MicrosecondClock clock;
     private final CairoConfiguration configuration;
     private final ConcurrentHashMap<Entry> entries = new ConcurrentHashMap<>();
+    private final GroupCommitSync groupCommitSync;
     @NotNull
     private final MessageBus messageBus;
     @NotNull
@@ -96,6 +97,7 @@ public class WriterPool extends AbstractPool {
         this.clock = configuration.getMicrosecondClock();
         this.root = configuration.getRoot();
         this.metrics = metrics;
+        this.groupCommitSync = new GroupCommitSync(configuration);
         notifyListener(Thread.currentThread().getId(), null, PoolListener.EV_POOL_OPEN);
     }
 
@@ -245,7 +247,7 @@ public class WriterPool extends AbstractPool {
                 // created twice), we cache the writer in the WriterPool whose access via the engine is thread safe.
                 assert writer == null && e.lockFd != -1;
                 LOG.info().$("created [table=`").utf8(tableToken.getDirName()).$("`, thread=").$(thread).$(']').$();
-                writer = new TableWriter(configuration, tableToken, messageBus, null, false, e, root, metrics);
+                writer = new TableWriter(configuration, tableToken, messageBus, null, false, e, root, metrics, getGroupCommitSync());
             }
 
             if (writer == null) {
@@ -351,7 +353,7 @@ public class WriterPool extends AbstractPool {
         try {
             checkClosed();
             LOG.info().$("open [table=`").utf8(tableToken.getDirName()).$("`, thread=").$(thread).$(']').$();
-            e.writer = new TableWriter(configuration, tableToken, messageBus, null, true, e, root, metrics);
+            e.writer = new TableWriter(configuration, tableToken, messageBus, null, true, e, root, metrics, getGroupCommitSync());
             e.ownershipReason = lockReason;
             return logAndReturn(e, PoolListener.EV_CREATE);
         } catch (CairoException ex) {
@@ -369,6 +371,12 @@ public class WriterPool extends AbstractPool {
         }
     }
 
+    @Nullable
+    private GroupCommitSync getGroupCommitSync() {
+        // the setting is checked per writer to let it change without restarting the pool
+        return configuration.isGroupCommitEnabled() ? groupCommitSync : null;
+    }
+
     private TableWriter getWriterEntry(
             TableToken tableToken,
             String lockReason,
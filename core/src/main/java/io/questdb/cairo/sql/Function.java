@@ -74,6 +74,21 @@ public interface Function extends Closeable, StatefulAtom, Plannable {
 
     boolean getBool(Record rec);
 
+    /**
+     * Evaluates the function for rows [rowLo, rowHi) of the page frame and writes
+     * one byte per row, 1 for true and 0 for false, to the native memory at the given address.
+     * Only valid when {@link #isVectorized()} returns true.
+     *
+     * @param frame   page frame to read column values from
+     * @param rowLo   first row of the batch, relative to the frame start
+     * @param rowHi   row following the last row of the batch
+     * @param address output vector address, must fit (rowHi - rowLo) 8-byte values
+     *                since the function may use it for intermediate results
+     */
+    default void getBoolVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        throw new UnsupportedOperationException();
+    }
+
     byte getByte(Record rec);
 
     char getChar(Record rec);
@@ -82,6 +97,15 @@ public interface Function extends Closeable, StatefulAtom, Plannable {
 
     double getDouble(Record rec);
 
+    /**
+     * Batch equivalent of {@link #getDouble(Record)}: writes one double per row of
+     * [rowLo, rowHi) to the native memory at the given address.
+     * Only valid when {@link #isVectorized()} returns true.
+     */
+    default void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        throw new UnsupportedOperationException();
+    }
+
     float getFloat(Record rec);
 
     byte getGeoByte(Record rec);
@@ -106,6 +130,15 @@ public interface Function extends Closeable, StatefulAtom, Plannable {
 
     Long256 getLong256B(Record rec);
 
+    /**
+     * Batch equivalent of {@link #getLong(Record)}: writes one long per row of
+     * [rowLo, rowHi) to the native memory at the given address.
+     * Only valid when {@link #isVectorized()} returns true.
+     */
+    default void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        throw new UnsupportedOperationException();
+    }
+
     default RecordMetadata getMetadata() {
         return null;
     }
@@ -185,6 +218,18 @@ public interface Function extends Closeable, StatefulAtom, Plannable {
         return getType() == ColumnType.UNDEFINED;
     }
 
+    /**
+     * Returns true if the function and all of its children functions can be evaluated
+     * a batch of rows at a time over page frame column addresses via the vector methods,
+     * e.g. {@link #getDoubleVector(PageFrame, long, long, long)}. Vector methods follow
+     * the same conversion and null rules as their row-at-a-time counterparts.
+     *
+     * @return true if the function supports batch evaluation
+     */
+    default boolean isVectorized() {
+        return false;
+    }
+
     default boolean supportsRandomAccess() {
         return true;
     }
@@ -31,6 +31,8 @@ import io.questdb.std.*;
 public class PageAddressCache implements Mutable {
 
     private final long cacheSizeThreshold;
+    // Size shifts of fixed length columns, -1 for variable length columns.
+    private final IntList columnSizeShifts = new IntList();
     // Index remapping for variable length columns.
     private final IntList varLenColumnIndexes = new IntList();
     private int columnCount;
@@ -63,6 +65,7 @@ public class PageAddressCache implements Mutable {
     @Override
     public void clear() {
         varLenColumnIndexes.clear();
+        columnSizeShifts.clear();
         if (pageAddresses.size() < cacheSizeThreshold) {
             pageAddresses.clear();
             indexPageAddresses.clear();
@@ -112,11 +115,41 @@ public class PageAddressCache implements Mutable {
     public void of(@Transient RecordMetadata metadata) {
         this.columnCount = metadata.getColumnCount();
         this.varLenColumnIndexes.setAll(columnCount, -1);
+        this.columnSizeShifts.setAll(columnCount, -1);
         this.varLenColumnCount = 0;
         for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
             final int columnType = metadata.getColumnType(columnIndex);
             if (ColumnType.isVariableLength(columnType)) {
                 varLenColumnIndexes.setQuick(columnIndex, varLenColumnCount++);
+            } else if (columnType > 0) {
+                columnSizeShifts.setQuick(columnIndex, ColumnType.pow2SizeOf(columnType));
+            }
+        }
+    }
+
+    /**
+     * Advises the OS to read ahead column pages of the frame. The call does not block
+     * on I/O, it lets the reducer find the pages in the page cache once it gets to the frame.
+     *
+     * @param ff            files facade
+     * @param frameIndex    index of the frame to read ahead
+     * @param frameRowCount number of rows in the frame
+     */
+    public void readAhead(FilesFacade ff, int frameIndex, long frameRowCount) {
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            final long pageAddress = getPageAddress(frameIndex, columnIndex);
+            if (pageAddress == 0) {
+                // column top
+                continue;
+            }
+            if (varLenColumnIndexes.getQuick(columnIndex) > -1) {
+                adviseWillNeed(ff, pageAddress, getPageSize(frameIndex, columnIndex));
+                adviseWillNeed(ff, getIndexPageAddress(frameIndex, columnIndex), frameRowCount << 3);
+            } else {
+                final int shift = columnSizeShifts.getQuick(columnIndex);
+                if (shift > -1) {
+                    adviseWillNeed(ff, pageAddress, frameRowCount << shift);
+                }
             }
         }
     }
@@ -124,4 +157,12 @@ public class PageAddressCache implements Mutable {
     public long toTableRowID(int frameIndex, long index) {
         return pageRowIdOffsets.get(frameIndex) + index;
     }
+
+    private static void adviseWillNeed(FilesFacade ff, long address, long size) {
+        if (address != 0 && size > 0) {
+            // madvise() requires address to be aligned to the OS page
+            final long alignedAddress = address & -Files.PAGE_SIZE;
+            ff.madvise(alignedAddress, size + address - alignedAddress, Files.POSIX_MADV_WILLNEED);
+        }
+    }
 }
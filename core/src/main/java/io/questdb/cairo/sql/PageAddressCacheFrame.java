@@ -0,0 +1,88 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.std.LongList;
+
+/**
+ * Page frame view over a frame stored in {@link PageAddressCache}. Used by reduce
+ * tasks to evaluate vectorized functions, so only column page addresses are available.
+ */
+public class PageAddressCacheFrame implements PageFrame {
+    private int frameIndex;
+    private PageAddressCache pageAddressCache;
+
+    @Override
+    public void copyColumnAddressesTo(LongList destColumnAddresses) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public BitmapIndexReader getBitmapIndexReader(int columnIndex, int dirForward) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getColumnShiftBits(int columnIndex) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getIndexPageAddress(int columnIndex) {
+        return pageAddressCache.getIndexPageAddress(frameIndex, columnIndex);
+    }
+
+    @Override
+    public long getPageAddress(int columnIndex) {
+        return pageAddressCache.getPageAddress(frameIndex, columnIndex);
+    }
+
+    @Override
+    public long getPageSize(int columnIndex) {
+        return pageAddressCache.getPageSize(frameIndex, columnIndex);
+    }
+
+    @Override
+    public long getPartitionHi() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getPartitionIndex() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getPartitionLo() {
+        throw new UnsupportedOperationException();
+    }
+
+    public PageAddressCacheFrame of(PageAddressCache pageAddressCache, int frameIndex) {
+        this.pageAddressCache = pageAddressCache;
+        this.frameIndex = frameIndex;
+        return this;
+    }
+}
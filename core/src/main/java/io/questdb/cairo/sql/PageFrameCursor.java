@@ -24,6 +24,7 @@
 
 package io.questdb.cairo.sql;
 
+import io.questdb.cairo.ZoneMap;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
@@ -44,6 +45,15 @@ public interface PageFrameCursor extends Closeable, SymbolTableSource {
 
     @Nullable PageFrame next();
 
+    /**
+     * Reads zone map of the given column for rows of the page frame last returned by {@link #next()}.
+     *
+     * @return false when zone map is not available
+     */
+    default boolean readZoneMap(int columnIndex, ZoneMap zoneMap) {
+        return false;
+    }
+
     /**
      * @return size of page in bytes
      */
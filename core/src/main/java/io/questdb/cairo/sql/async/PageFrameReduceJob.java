@@ -25,6 +25,7 @@
 package io.questdb.cairo.sql.async;
 
 import io.questdb.MessageBus;
+import io.questdb.cairo.CairoException;
 import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
 import io.questdb.cairo.sql.PageAddressCacheRecord;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
@@ -38,6 +39,7 @@ import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Os;
 import io.questdb.std.Rnd;
+import io.questdb.std.Sinkable;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
@@ -186,6 +188,13 @@ public class PageFrameReduceJob implements Job, Closeable {
                     if (frameSequence.isActive()) {
                         reduce(workerId, record, circuitBreaker, task, frameSequence, stealingFrameSequence);
                     }
+                } catch (CairoException e) {
+                    // the error is reported by the query owner, e.g. a map limit exceeded by the reducer
+                    LOG.error().$("reduce error [id=").$(frameSequence.getId())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", ex=").$((Sinkable) e)
+                            .I$();
+                    frameSequence.cancel(e);
                 } catch (Throwable e) {
                     frameSequence.cancel();
                     throw e;
@@ -220,6 +229,7 @@ public class PageFrameReduceJob implements Job, Closeable {
             record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
             record.setFrameIndex(task.getFrameIndex());
             assert !frameSequence.done;
+            frameSequence.readAhead(task.getFrameIndex());
             frameSequence.getReducer().reduce(workerId, record, task, circuitBreaker, stealingFrameSequence);
         } else {
             frameSequence.cancel();
@@ -26,6 +26,7 @@ package io.questdb.cairo.sql.async;
 
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
 import io.questdb.cairo.sql.*;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -37,6 +38,8 @@ import io.questdb.mp.RingQueue;
 import io.questdb.mp.SCSequence;
 import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -49,10 +52,15 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private static final long LOCAL_TASK_CURSOR = Long.MAX_VALUE;
     private static final Log LOG = LogFactory.getLog(PageFrameSequence.class);
     private final MillisecondClock clock;
+    // set by the first reduce error that is not an interruption, the error is reported instead of the timeout
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private final StringSink failureMessage = new StringSink();
+    private final FilesFacade ff;
     private final LongList frameRowCounts = new LongList();
     private final WeakClosableObjectPool<PageFrameReduceTask> localTaskPool;
     private final MessageBus messageBus;
     private final PageAddressCache pageAddressCache;
+    private final int readAheadCount;
     private final AtomicInteger reduceCounter = new AtomicInteger(0);
     private final PageFrameReducer reducer;
     private final AtomicBoolean valid = new AtomicBoolean(true);
@@ -63,6 +71,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private SCSequence collectSubSeq;
     private int collectedFrameIndex = -1;
     private int dispatchStartFrameIndex;
+    private boolean failureCritical;
+    private int failureErrno;
     private int frameCount;
     private long id;
     // Local reduce task used when there is no slots in the queue to dispatch tasks.
@@ -73,6 +83,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private SqlExecutionContext sqlExecutionContext;
     private long startTime;
     private SymbolTableSource symbolTableSource;
+    private ZoneMapFilter zoneMapFilter;
 
     public PageFrameSequence(
             CairoConfiguration configuration,
@@ -85,6 +96,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         this.reducer = reducer;
         this.clock = configuration.getMillisecondClock();
         this.localTaskPool = localTaskPool;
+        this.ff = configuration.getFilesFacade();
+        this.readAheadCount = configuration.getSqlPageFrameReadAheadCount();
     }
 
     /**
@@ -149,6 +162,21 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         this.valid.compareAndSet(true, false);
     }
 
+    /**
+     * Cancels the sequence after reduce error. The message of the first error that is not
+     * an interruption is kept for the query owner, see {@link #getFailure()}. This method is thread-safe.
+     *
+     * @param e the reduce error
+     */
+    public void cancel(Throwable e) {
+        if (e instanceof CairoException && !((CairoException) e).isInterruption() && failed.compareAndSet(false, true)) {
+            failureCritical = ((CairoException) e).isCritical();
+            failureErrno = ((CairoException) e).getErrno();
+            failureMessage.put(((CairoException) e).getFlyweightMessage());
+        }
+        cancel();
+    }
+
     public void clear() {
         // prepare different frame sequence using the same object instance
         frameCount = 0;
@@ -234,6 +262,21 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return startTime;
     }
 
+    /**
+     * Returns error of the failed reduce as a new exception or null when the sequence has not failed,
+     * e.g. when it was cancelled by the circuit breaker. It is to be called by the query owner
+     * once the frames are collected.
+     *
+     * @return exception with the message of the reduce error or null
+     */
+    @Nullable
+    public CairoException getFailure() {
+        if (failed.get()) {
+            return (failureCritical ? CairoException.critical(failureErrno) : CairoException.nonCritical()).put(failureMessage);
+        }
+        return null;
+    }
+
     public SymbolTableSource getSymbolTableSource() {
         return symbolTableSource;
     }
@@ -301,8 +344,23 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             SCSequence collectSubSeq,
             T atom,
             int order
+    ) throws SqlException {
+        return of(base, executionContext, collectSubSeq, atom, order, null);
+    }
+
+    /**
+     * @param zoneMapFilter optional filter used to skip page frames that have no matching rows
+     */
+    public PageFrameSequence<T> of(
+            RecordCursorFactory base,
+            SqlExecutionContext executionContext,
+            SCSequence collectSubSeq,
+            T atom,
+            int order,
+            @Nullable ZoneMapFilter zoneMapFilter
     ) throws SqlException {
         this.sqlExecutionContext = executionContext;
+        this.zoneMapFilter = zoneMapFilter;
         this.startTime = clock.getTicks();
         this.circuitBreakerFd = executionContext.getCircuitBreaker().getFd();
 
@@ -316,6 +374,11 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
             // this method sets a lot of state of the page sequence
             prepareForDispatch(rnd, frameCount, pageFrameCursor, atom, collectSubSeq);
 
+            // frames that follow are read ahead as the preceding ones are reduced
+            for (int i = 0, n = Math.min(readAheadCount, frameCount); i < n; i++) {
+                pageAddressCache.readAhead(ff, i, frameRowCounts.getQuick(i));
+            }
+
             // It is essential to init the atom after we prepared sequence for dispatch.
             // If atom is to fail, we will be releasing whatever we prepared.
             atom.init(pageFrameCursor, executionContext);
@@ -340,6 +403,22 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return this;
     }
 
+    /**
+     * Reads ahead the frame that is {@link CairoConfiguration#getSqlPageFrameReadAheadCount()} frames
+     * after the frame that is about to be reduced. Each frame is read ahead once since every frame
+     * is reduced once. This method is thread-safe.
+     *
+     * @param frameIndex index of the frame that is about to be reduced
+     */
+    public void readAhead(int frameIndex) {
+        if (readAheadCount > 0) {
+            final int readAheadFrameIndex = frameIndex + readAheadCount;
+            if (readAheadFrameIndex < frameCount && readAheadFrameIndex < frameRowCounts.size()) {
+                pageAddressCache.readAhead(ff, readAheadFrameIndex, frameRowCounts.getQuick(readAheadFrameIndex));
+            }
+        }
+    }
+
     public void reset() {
         // prepare to resend the same sequence as it might be required by toTop()
         frameRowCounts.clear();
@@ -471,6 +550,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         this.id = ID_SEQ.incrementAndGet();
         this.done = false;
         this.valid.set(true);
+        this.failed.set(false);
+        this.failureMessage.clear();
         this.reduceCounter.set(0);
         this.shard = rnd.nextInt(messageBus.getPageFrameReduceShardCount());
         this.reduceQueue = messageBus.getPageFrameReduceQueue(shard);
@@ -490,6 +571,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         PageFrame frame;
         int frameIndex = 0;
         while ((frame = pageFrameCursor.next()) != null) {
+            if (zoneMapFilter != null && !zoneMapFilter.mayMatch(pageFrameCursor)) {
+                continue;
+            }
             this.pageAddressCache.add(frameIndex++, frame);
             frameRowCounts.add(frame.getPartitionHi() - frame.getPartitionLo());
         }
@@ -529,7 +613,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
                 PageFrameReduceJob.reduce(record, circuitBreaker, localTask, this, this);
             }
         } catch (Throwable e) {
-            cancel();
+            cancel(e);
             throw e;
         } finally {
             reduceCounter.incrementAndGet();
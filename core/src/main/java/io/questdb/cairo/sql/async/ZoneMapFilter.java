@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql.async;
+
+import io.questdb.cairo.ZoneMap;
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.QuietCloseable;
+
+/**
+ * Conjunction of "column op constant" predicates taken from a filter. Page frames whose zone maps
+ * prove that one of the predicates cannot hold are skipped before they are dispatched. Nulls never
+ * satisfy comparisons, so they are ignored.
+ */
+public class ZoneMapFilter implements QuietCloseable {
+    public static final int OP_EQ = 0;
+    public static final int OP_GE = 1;
+    public static final int OP_GT = 2;
+    public static final int OP_LE = 3;
+    public static final int OP_LT = 4;
+    private static final double DOUBLE_EQ_TOLERANCE = 0.0000000001;
+    private static final int FLAG_DOUBLE = 8;
+    private final IntList columnIndexes = new IntList();
+    private final IntList operations = new IntList();
+    private final LongList values = new LongList();
+    private final ZoneMap zoneMap = new ZoneMap();
+
+    /**
+     * @return operation with swapped operands, i.e. the one that makes "const op col" into "col op const"
+     */
+    public static int flip(int op) {
+        switch (op) {
+            case OP_GE:
+                return OP_LE;
+            case OP_GT:
+                return OP_LT;
+            case OP_LE:
+                return OP_GE;
+            case OP_LT:
+                return OP_GT;
+            default:
+                return op;
+        }
+    }
+
+    public void add(int columnIndex, int op, long value) {
+        columnIndexes.add(columnIndex);
+        operations.add(op);
+        values.add(value);
+    }
+
+    public void add(int columnIndex, int op, double value) {
+        if (value == value) {
+            columnIndexes.add(columnIndex);
+            operations.add(op | FLAG_DOUBLE);
+            values.add(Double.doubleToRawLongBits(value));
+        }
+    }
+
+    @Override
+    public void close() {
+        zoneMap.close();
+    }
+
+    public boolean isEmpty() {
+        return columnIndexes.size() == 0;
+    }
+
+    /**
+     * Checks predicates against zone maps of the page frame last returned by the cursor.
+     *
+     * @return false when the frame has no matching rows for sure
+     */
+    public boolean mayMatch(PageFrameCursor cursor) {
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            if (!cursor.readZoneMap(columnIndexes.getQuick(i), zoneMap)) {
+                continue;
+            }
+            if (!zoneMap.hasValues()) {
+                return false;
+            }
+            final int op = operations.getQuick(i);
+            final long value = values.getQuick(i);
+            final boolean mayMatch;
+            if ((op & FLAG_DOUBLE) != 0) {
+                mayMatch = mayMatch(op & ~FLAG_DOUBLE, zoneMap.getMinDouble(), zoneMap.getMaxDouble(), Double.longBitsToDouble(value));
+            } else if (zoneMap.isFloating()) {
+                mayMatch = mayMatch(op, zoneMap.getMinDouble(), zoneMap.getMaxDouble(), value);
+            } else {
+                mayMatch = mayMatch(op, zoneMap.getMinLong(), zoneMap.getMaxLong(), value);
+            }
+            if (!mayMatch) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean mayMatch(int op, long min, long max, long value) {
+        switch (op) {
+            case OP_EQ:
+                return min <= value && value <= max;
+            case OP_GE:
+                return max >= value;
+            case OP_GT:
+                return max > value;
+            case OP_LE:
+                return min <= value;
+            default:
+                return min < value;
+        }
+    }
+
+    private static boolean mayMatch(int op, double min, double max, double value) {
+        switch (op) {
+            case OP_EQ:
+                // double equality allows for a tiny difference
+                return min - DOUBLE_EQ_TOLERANCE <= value && value <= max + DOUBLE_EQ_TOLERANCE;
+            case OP_GE:
+                return max >= value;
+            case OP_GT:
+                return max > value;
+            case OP_LE:
+                return min <= value;
+            default:
+                return min < value;
+        }
+    }
+}
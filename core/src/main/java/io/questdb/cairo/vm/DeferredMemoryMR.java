@@ -0,0 +1,200 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.vm.api.MemoryMR;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Long256;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.LPSZ;
+
+/**
+ * Marks column files of an open partition, which {@link io.questdb.cairo.TableReader} maps
+ * on first access. Unlike {@link NullMemoryMR}, which stands for a column without data, the
+ * marker must never be read: reading it means the column was not mapped before use.
+ */
+public final class DeferredMemoryMR implements MemoryMR {
+
+    public static final DeferredMemoryMR INSTANCE = new DeferredMemoryMR();
+
+    private DeferredMemoryMR() {
+    }
+
+    @Override
+    public long addressOf(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void extend(long size) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public BinarySequence getBin(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getBinLen(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean getBool(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public byte getByte(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public char getChar(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public double getDouble(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getFd() {
+        return -1;
+    }
+
+    @Override
+    public FilesFacade getFilesFacade() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public float getFloat(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getInt(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getLong(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void getLong256(long offset, CharSink sink) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Long256 getLong256A(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Long256 getLong256B(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getPageAddress(int pageIndex) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getPageCount() {
+        return 0;
+    }
+
+    @Override
+    public long getPageSize() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public short getShort(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CharSequence getStr(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CharSequence getStr2(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int getStrLen(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean isDeleted() {
+        return false;
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return false;
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long offsetInPage(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int pageIndex(long offset) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long size() {
+        return 0;
+    }
+
+    @Override
+    public void wholeFile(FilesFacade ff, LPSZ name, int memoryTag) {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,106 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.MmapCache;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.LPSZ;
+
+//contiguous readable memory decompressed from a compressed column file, shared via MmapCache
+public class MemoryCMRCompressedImpl extends AbstractMemoryCR implements MemoryCMR {
+    private final MmapCache cache;
+    private MmapCache.Entry entry;
+    private long partitionTableVersion;
+    private int tableId;
+    private long truncateVersion;
+
+    public MemoryCMRCompressedImpl(MmapCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (entry != null) {
+            cache.release(entry);
+            entry = null;
+        }
+        pageAddress = 0;
+        size = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            throw CairoException.critical(0)
+                    .put("compressed column cannot be extended [size=").put(size)
+                    .put(", newSize=").put(newSize)
+                    .put(']');
+        }
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size();
+    }
+
+    /**
+     * Acquires decompressed column. The compressed file is closed straight away, so that
+     * the writer can remove it while the memory is in use.
+     *
+     * @param size minimum expected size of the decompressed column, the decompressed column can be larger
+     */
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        close();
+        this.ff = ff;
+        if (size > 0) {
+            entry = cache.acquireDecompressed(ff, name, size, tableId, truncateVersion, partitionTableVersion);
+            pageAddress = entry.getAddress();
+            this.size = entry.getSize();
+        }
+    }
+
+    /**
+     * Decompresses file of the given minimum size. Table id, truncate and partition table versions
+     * tell apart files re-created under the same name.
+     */
+    public void ofCompressed(
+            FilesFacade ff,
+            LPSZ name,
+            long size,
+            int tableId,
+            long truncateVersion,
+            long partitionTableVersion
+    ) {
+        this.tableId = tableId;
+        this.truncateVersion = truncateVersion;
+        this.partitionTableVersion = partitionTableVersion;
+        of(ff, name, 0, size, 0, 0, -1);
+    }
+}
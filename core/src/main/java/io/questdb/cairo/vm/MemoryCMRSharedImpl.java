@@ -0,0 +1,113 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.vm;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.MmapCache;
+import io.questdb.cairo.vm.api.MemoryCMR;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.str.LPSZ;
+
+//contiguous readable memory backed by a mapping shared via MmapCache
+public class MemoryCMRSharedImpl extends AbstractMemoryCR implements MemoryCMR {
+    private final MmapCache cache;
+    private MmapCache.Entry entry;
+    private int memoryTag = MemoryTag.MMAP_DEFAULT;
+    private long partitionTableVersion;
+    private int tableId;
+    private long truncateVersion;
+
+    public MemoryCMRSharedImpl(MmapCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void close() {
+        clear();
+        if (entry != null) {
+            cache.release(entry);
+            entry = null;
+        }
+        pageAddress = 0;
+        size = 0;
+    }
+
+    @Override
+    public void extend(long newSize) {
+        if (newSize > size) {
+            if (entry != null) {
+                entry = cache.extend(ff, entry, newSize, memoryTag);
+            } else {
+                throw CairoException.critical(0).put("cannot extend unmapped shared memory [size=").put(newSize).put(']');
+            }
+            pageAddress = entry.getAddress();
+            size = newSize;
+        }
+    }
+
+    @Override
+    public boolean isMapped(long offset, long len) {
+        return offset + len <= size();
+    }
+
+    @Override
+    public void of(FilesFacade ff, LPSZ name, long extendSegmentSize, long size, int memoryTag, long opts, int madviseOpts) {
+        close();
+        this.ff = ff;
+        this.memoryTag = memoryTag;
+        if (size < 0) {
+            size = ff.length(name);
+            if (size < 0) {
+                throw CairoException.critical(ff.errno()).put("could not get length: ").put(name);
+            }
+        }
+        if (size > 0) {
+            entry = cache.acquire(ff, name, size, memoryTag, tableId, truncateVersion, partitionTableVersion);
+            pageAddress = entry.getAddress();
+        }
+        this.size = size;
+    }
+
+    /**
+     * Maps file of the given size. Table id, truncate and partition table versions tell apart files
+     * re-created under the same name.
+     */
+    public void ofShared(
+            FilesFacade ff,
+            LPSZ name,
+            long size,
+            int memoryTag,
+            int tableId,
+            long truncateVersion,
+            long partitionTableVersion
+    ) {
+        this.tableId = tableId;
+        this.truncateVersion = truncateVersion;
+        this.partitionTableVersion = partitionTableVersion;
+        of(ff, name, 0, size, memoryTag, 0, -1);
+    }
+}
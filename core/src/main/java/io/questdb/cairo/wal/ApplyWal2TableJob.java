@@ -35,6 +35,7 @@ import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.mp.AbstractQueueConsumerJob;
 import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.Path;
 import io.questdb.tasks.WalTxnNotificationTask;
 
@@ -51,14 +52,22 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
     private static final Log LOG = LogFactory.getLog(ApplyWal2TableJob.class);
     private static final String WAL_2_TABLE_WRITE_REASON = "WAL Data Application";
     private static final int WAL_APPLY_FAILED = -2;
+    private final WalApplyScheduler applyScheduler;
     private final CairoEngine engine;
-    private final IntLongHashMap lastAppliedSeqTxns = new IntLongHashMap();
+    private final MillisecondClock millisecondClock;
     private final SqlToOperation sqlToOperation;
     private final WalEventReader walEventReader;
+    // last sequencer txn seen by processWalTxnNotification(), -1 when unknown
+    private long lastSequencerTxn = -1;
+    // timestamp range of the rows applied to the table, Long.MIN_VALUE low bound when the range is unknown
+    private long matViewRefreshHi;
+    private long matViewRefreshLo;
 
     public ApplyWal2TableJob(CairoEngine engine, int workerCount, int sharedWorkerCount) {
         super(engine.getMessageBus().getWalTxnNotificationQueue(), engine.getMessageBus().getWalTxnNotificationSubSequence());
         this.engine = engine;
+        this.applyScheduler = engine.getWalApplyScheduler();
+        this.millisecondClock = engine.getConfiguration().getMillisecondClock();
         this.sqlToOperation = new SqlToOperation(engine, workerCount, sharedWorkerCount);
         walEventReader = new WalEventReader(engine.getConfiguration().getFilesFacade());
     }
@@ -77,6 +86,11 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         long lastSeqTxn = -1;
         long lastAppliedSeqTxn = -1;
         Path tempPath = Path.PATH.get();
+        matViewRefreshLo = Long.MAX_VALUE;
+        matViewRefreshHi = Long.MIN_VALUE;
+        lastSequencerTxn = -1;
+        // bounds time spent on the table, other lagging tables go next
+        final long deadline = millisecondClock.getTicks() + engine.getConfiguration().getWalApplyTableTimeQuota();
 
         try {
             do {
@@ -93,12 +107,12 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
 
                 if (!engine.isWalTable(tableToken)) {
                     LOG.info().$("table '").utf8(tableToken.getDirName()).$("' does not exist, skipping WAL application").$();
-                    return 0;
+                    return Long.MAX_VALUE;
                 }
 
                 try (TableWriter writer = engine.getWriterUnsafe(updatedToken, WAL_2_TABLE_WRITE_REASON)) {
                     assert writer.getMetadata().getTableId() == tableToken.getTableId();
-                    applyOutstandingWalTransactions(tableToken, writer, engine, sqlToOperation, tempPath);
+                    applyOutstandingWalTransactions(tableToken, writer, engine, sqlToOperation, tempPath, deadline);
                     lastAppliedSeqTxn = writer.getSeqTxn();
                 } catch (EntryUnavailableException tableBusy) {
                     if (!WAL_2_TABLE_WRITE_REASON.equals(tableBusy.getReason()) && !WAL_2_TABLE_RESUME_REASON.equals(tableBusy.getReason())) {
@@ -110,7 +124,13 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                 }
 
                 lastSeqTxn = engine.getTableSequencerAPI().lastTxn(tableToken);
-            } while (lastAppliedSeqTxn < lastSeqTxn);
+                lastSequencerTxn = lastSeqTxn;
+            } while (lastAppliedSeqTxn < lastSeqTxn && millisecondClock.getTicks() < deadline);
+
+            if (matViewRefreshLo <= matViewRefreshHi) {
+                // views are refreshed by MatViewRefreshJob
+                engine.getMatViewRegistry().notifyBaseTableChanged(tableToken, matViewRefreshLo, matViewRefreshHi);
+            }
         } catch (CairoException ex) {
             if (engine.isTableDropped(tableToken)) {
                 // Table is dropped, and we received cairo exception in the middle of apply
@@ -123,7 +143,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                     .I$();
             return WAL_APPLY_FAILED;
         }
-        assert lastAppliedSeqTxn == lastSeqTxn;
+        assert lastAppliedSeqTxn <= lastSeqTxn;
 
         return lastAppliedSeqTxn;
     }
@@ -133,9 +153,16 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         long cursor;
         boolean useful = false;
 
+        // notifications are handed over to the scheduler, it picks the table to apply
         while ((cursor = subSeq.next()) > -1 && doRun(workerId, cursor)) {
             useful = true;
         }
+
+        final TableToken tableToken = applyScheduler.claim();
+        if (tableToken != null) {
+            applyClaimedTable(tableToken);
+            useful = true;
+        }
         return useful;
     }
 
@@ -258,14 +285,32 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
         return false;
     }
 
+    private void applyClaimedTable(TableToken tableToken) {
+        long lastAppliedSeqTxn = -1;
+        try {
+            lastAppliedSeqTxn = processWalTxnNotification(tableToken, engine, sqlToOperation);
+        } finally {
+            if (lastAppliedSeqTxn == WAL_APPLY_FAILED) {
+                // suspended table is not claimed again until it is resumed
+                applyScheduler.suspend(tableToken);
+                engine.getTableSequencerAPI().suspendTable(tableToken);
+            } else {
+                applyScheduler.release(tableToken, lastAppliedSeqTxn, lastSequencerTxn);
+            }
+        }
+    }
+
     private void applyOutstandingWalTransactions(
             TableToken tableToken,
             TableWriter writer,
             CairoEngine engine,
             SqlToOperation sqlToOperation,
-            Path tempPath
+            Path tempPath,
+            long deadline
     ) {
         final TableSequencerAPI tableSequencerAPI = engine.getTableSequencerAPI();
+        // data transactions are squashed only when there is a backlog to squash
+        final long lastSeqTxn = engine.getConfiguration().isWalSquashEnabled() ? tableSequencerAPI.lastTxn(tableToken) : -1;
 
         try (TransactionLogCursor transactionLogCursor = tableSequencerAPI.getCursor(tableToken, writer.getSeqTxn())) {
             TableMetadataChangeLog structuralChangeCursor = null;
@@ -277,14 +322,16 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                     final long commitTimestamp = transactionLogCursor.getCommitTimestamp();
                     final long seqTxn = transactionLogCursor.getTxn();
 
-                    if (seqTxn != writer.getSeqTxn() + 1) {
+                    final long expectedSeqTxn = writer.getSeqTxn() + writer.getWalSquashTxnCount() + 1;
+                    if (seqTxn != expectedSeqTxn) {
                         throw CairoException.critical(0)
-                                .put("unexpected sequencer transaction, expected ").put(writer.getSeqTxn() + 1)
+                                .put("unexpected sequencer transaction, expected ").put(expectedSeqTxn)
                                 .put(" but was ").put(seqTxn);
                     }
 
                     switch (walId) {
                         case METADATA_WALID:
+                            writer.commitWalSquash();
                             // This is metadata change
                             // to be taken from Sequencer directly
                             final long newStructureVersion = transactionLogCursor.getStructureVersion();
@@ -318,6 +365,7 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                             break;
 
                         case DROP_TABLE_WALID:
+                            writer.commitWalSquash();
                             tryDestroyDroppedTable(tableToken, writer, engine, tempPath);
                             return;
 
@@ -330,40 +378,92 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
                             // Always set full path when using thread static path
                             sqlToOperation.setNowAndFixClock(commitTimestamp);
                             tempPath.of(engine.getConfiguration().getRoot()).concat(tableToken).slash().put(WAL_NAME_BASE).put(walId).slash().put(segmentId);
-                            processWalCommit(writer, tempPath, segmentTxn, sqlToOperation, seqTxn);
+                            processWalCommit(
+                                    writer,
+                                    tempPath,
+                                    segmentTxn,
+                                    sqlToOperation,
+                                    seqTxn,
+                                    seqTxn < lastSeqTxn || writer.getWalSquashTxnCount() > 0
+                            );
+                    }
+
+                    if (millisecondClock.getTicks() >= deadline) {
+                        LOG.info().$("WAL apply time quota exhausted [table=").utf8(tableToken.getDirName())
+                                .$(", seqTxn=").$(seqTxn)
+                                .I$();
+                        break;
                     }
                 }
+                writer.commitWalSquash();
             } finally {
                 Misc.free(structuralChangeCursor);
             }
         }
     }
 
-    private void processWalCommit(TableWriter writer, @Transient Path walPath, long segmentTxn, SqlToOperation sqlToOperation, long seqTxn) {
+    private void invalidateMatViewRefreshRange() {
+        matViewRefreshLo = Long.MIN_VALUE;
+        matViewRefreshHi = Long.MAX_VALUE;
+    }
+
+    private void processWalCommit(
+            TableWriter writer,
+            @Transient Path walPath,
+            long segmentTxn,
+            SqlToOperation sqlToOperation,
+            long seqTxn,
+            boolean squash
+    ) {
         try (WalEventReader eventReader = walEventReader) {
             final WalEventCursor walEventCursor = eventReader.of(walPath, WAL_FORMAT_VERSION, segmentTxn);
             final byte walTxnType = walEventCursor.getType();
             switch (walTxnType) {
                 case DATA:
                     final WalEventCursor.DataInfo dataInfo = walEventCursor.getDataInfo();
-                    writer.processWalData(
-                            walPath,
-                            !dataInfo.isOutOfOrder(),
-                            dataInfo.getStartRowID(),
-                            dataInfo.getEndRowID(),
-                            dataInfo.getMinTimestamp(),
-                            dataInfo.getMaxTimestamp(),
-                            dataInfo,
-                            seqTxn
-                    );
+                    if (squash) {
+                        writer.squashWalData(
+                                walPath,
+                                !dataInfo.isOutOfOrder(),
+                                dataInfo.getStartRowID(),
+                                dataInfo.getEndRowID(),
+                                dataInfo.getMinTimestamp(),
+                                dataInfo.getMaxTimestamp(),
+                                dataInfo,
+                                seqTxn
+                        );
+                        final CairoConfiguration configuration = engine.getConfiguration();
+                        if (writer.getWalSquashRowCount() >= configuration.getWalSquashMaxRows()
+                                || writer.getWalSquashSize() >= configuration.getWalSquashMaxSize()) {
+                            writer.commitWalSquash();
+                        }
+                    } else {
+                        writer.processWalData(
+                                walPath,
+                                !dataInfo.isOutOfOrder(),
+                                dataInfo.getStartRowID(),
+                                dataInfo.getEndRowID(),
+                                dataInfo.getMinTimestamp(),
+                                dataInfo.getMaxTimestamp(),
+                                dataInfo,
+                                seqTxn
+                        );
+                    }
+                    matViewRefreshLo = Math.min(matViewRefreshLo, dataInfo.getMinTimestamp());
+                    matViewRefreshHi = Math.max(matViewRefreshHi, dataInfo.getMaxTimestamp());
                     break;
                 case SQL:
+                    writer.commitWalSquash();
                     final WalEventCursor.SqlInfo sqlInfo = walEventCursor.getSqlInfo();
                     processWalSql(writer, sqlInfo, sqlToOperation, seqTxn);
+                    // UPDATE and ALTER, e.g. partition drop, change rows without a known time range
+                    invalidateMatViewRefreshRange();
                     break;
                 case TRUNCATE:
+                    writer.commitWalSquash();
                     writer.setSeqTxn(seqTxn);
                     writer.removeAllPartitions();
+                    invalidateMatViewRefreshRange();
                     break;
                 default:
                     throw new UnsupportedOperationException("Unsupported WAL txn type: " + walTxnType);
@@ -414,34 +514,12 @@ public class ApplyWal2TableJob extends AbstractQueueConsumerJob<WalTxnNotificati
 
     @Override
     protected boolean doRun(int workerId, long cursor) {
-        final TableToken tableToken;
-        final long seqTxn;
-
         try {
-            WalTxnNotificationTask walTxnNotificationTask = queue.get(cursor);
-            tableToken = walTxnNotificationTask.getTableToken();
-            seqTxn = walTxnNotificationTask.getTxn();
+            final WalTxnNotificationTask walTxnNotificationTask = queue.get(cursor);
+            applyScheduler.notifyCommitted(walTxnNotificationTask.getTableToken(), walTxnNotificationTask.getTxn());
         } finally {
-            // Don't hold the queue until the all the transactions applied to the table
             subSeq.done(cursor);
         }
-
-        final int tableId = tableToken.getTableId();
-        if (lastAppliedSeqTxns.get(tableId) < seqTxn) {
-            // Check, maybe we already processed this table to higher txn.
-            final long lastAppliedSeqTxn = processWalTxnNotification(tableToken, engine, sqlToOperation);
-            if (lastAppliedSeqTxn > -1L) {
-                lastAppliedSeqTxns.put(tableId, lastAppliedSeqTxn);
-            } else if (lastAppliedSeqTxn == WAL_APPLY_FAILED) {
-                // Set processed transaction marker as Long.MAX_VALUE - 1
-                // so that when the table is unsuspended it's notified with transaction Long.MAX_VALUE
-                // and got picked up for processing in this apply job.
-                lastAppliedSeqTxns.put(tableId, Long.MAX_VALUE - 1);
-                engine.getTableSequencerAPI().suspendTable(tableToken);
-            }
-        } else {
-            LOG.debug().$("Skipping WAL processing for table, already processed [table=").$(tableToken).$(", txn=").$(seqTxn).I$();
-        }
         return true;
     }
 }
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.TableToken;
+import io.questdb.metrics.VirtualGaugeWithOneLabel;
+import io.questdb.std.IntObjHashMap;
+import io.questdb.std.ObjList;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decides which WAL table the apply jobs work on next. Jobs hand over txn notifications and
+ * claim tables one at a time, a table is never claimed by two jobs at once.
+ * <p>
+ * Tables are ranked by lag, the number of sequencer transactions not yet applied to the table.
+ * The most lagged table goes first, but every lagged table is claimed once per round before any
+ * table is claimed again, so that a table with a large backlog does not starve the others. Jobs
+ * bound the time spent on a claimed table and release it with the applied txn, a table that
+ * still lags is claimed again in the next round.
+ * <p>
+ * Lag of a table is an estimate until the first release, notification carries the sequencer txn only.
+ */
+public class WalApplyScheduler {
+    private final ObjList<TableLag> tables = new ObjList<>();
+    private final IntObjHashMap<TableLag> tablesById = new IntObjHashMap<>();
+    private long round;
+
+    /**
+     * Claims the table to apply WAL transactions to. The table has to be released
+     * by {@link #release(TableToken, long, long)} or {@link #suspend(TableToken)}.
+     *
+     * @return token of the claimed table or null when no table lags
+     */
+    @Nullable
+    public synchronized TableToken claim() {
+        TableLag next = null;
+        boolean claimedInRound = false;
+        for (int i = 0, n = tables.size(); i < n; i++) {
+            final TableLag table = tables.getQuick(i);
+            if (table.isClaimable()) {
+                if (table.round == round) {
+                    claimedInRound = true;
+                } else if (next == null || table.getPriority() > next.getPriority()) {
+                    next = table;
+                }
+            }
+        }
+
+        if (next == null) {
+            if (!claimedInRound) {
+                return null;
+            }
+            // all lagged tables were claimed in this round, start the next one
+            round++;
+            return claim();
+        }
+
+        next.claimed = true;
+        next.forced = false;
+        next.notified = false;
+        next.round = round;
+        return next.tableToken;
+    }
+
+    public synchronized void clear() {
+        tables.clear();
+        tablesById.clear();
+        round = 0;
+    }
+
+    /**
+     * Copies state of the tracked tables to the sink, elements of the sink are reused.
+     */
+    public synchronized void copyTo(ObjList<TableLag> sink) {
+        final int n = tables.size();
+        sink.setPos(n);
+        for (int i = 0; i < n; i++) {
+            TableLag copy = sink.getQuick(i);
+            if (copy == null) {
+                copy = new TableLag();
+                sink.setQuick(i, copy);
+            }
+            copy.copyFrom(tables.getQuick(i));
+        }
+    }
+
+    public synchronized long getLag(TableToken tableToken) {
+        final TableLag table = tablesById.get(tableToken.getTableId());
+        return table != null ? table.getLag() : 0;
+    }
+
+    /**
+     * Records sequencer txn of a table. Txn of Long.MAX_VALUE requests the table to be processed
+     * regardless of its lag, e.g. when the table is dropped or resumed after suspension. Any
+     * notification, including a repeated one with a known txn, makes a parked table claimable again.
+     */
+    public synchronized void notifyCommitted(TableToken tableToken, long seqTxn) {
+        final int tableId = tableToken.getTableId();
+        final int index = tablesById.keyIndex(tableId);
+        TableLag table;
+        if (index < 0) {
+            table = tablesById.valueAtQuick(index);
+        } else {
+            table = new TableLag();
+            if (seqTxn != Long.MAX_VALUE) {
+                table.appliedTxn = seqTxn - 1;
+                table.sequencerTxn = seqTxn - 1;
+            }
+            tablesById.putAt(index, tableId, table);
+            tables.add(table);
+        }
+        // token changes on rename
+        table.tableToken = tableToken;
+        table.notified = true;
+        table.parked = false;
+        if (seqTxn == Long.MAX_VALUE) {
+            table.forced = true;
+            table.suspended = false;
+        } else if (seqTxn > table.sequencerTxn) {
+            table.sequencerTxn = seqTxn;
+        }
+    }
+
+    /**
+     * Releases claimed table.
+     *
+     * @param appliedTxn   last txn applied to the table, Long.MAX_VALUE when the table is gone and
+     *                     -1 when nothing could be applied, the table then waits for the next notification
+     *                     unless one arrived while the table was claimed
+     * @param sequencerTxn last txn of the table sequencer seen by the job, -1 when unknown
+     */
+    public synchronized void release(TableToken tableToken, long appliedTxn, long sequencerTxn) {
+        final int tableId = tableToken.getTableId();
+        final int index = tablesById.keyIndex(tableId);
+        if (index > -1) {
+            return;
+        }
+
+        final TableLag table = tablesById.valueAtQuick(index);
+        if (appliedTxn == Long.MAX_VALUE) {
+            tablesById.removeAt(index);
+            tables.remove(table);
+            return;
+        }
+
+        table.claimed = false;
+        if (appliedTxn > -1) {
+            table.appliedTxn = appliedTxn;
+            table.sequencerTxn = Math.max(Math.max(table.sequencerTxn, sequencerTxn), appliedTxn);
+        } else {
+            table.parked = !table.notified;
+        }
+    }
+
+    public synchronized void sampleLag(VirtualGaugeWithOneLabel.Sampler sampler) {
+        for (int i = 0, n = tables.size(); i < n; i++) {
+            final TableLag table = tables.getQuick(i);
+            sampler.sample(table.tableToken.getTableName(), table.getLag());
+        }
+    }
+
+    /**
+     * Releases claimed table that failed to apply WAL. The table is not claimed again until
+     * it is resumed, see {@link #notifyCommitted(TableToken, long)}.
+     */
+    public synchronized void suspend(TableToken tableToken) {
+        final TableLag table = tablesById.get(tableToken.getTableId());
+        if (table != null) {
+            table.claimed = false;
+            table.suspended = true;
+        }
+    }
+
+    public static class TableLag {
+        private long appliedTxn = -1;
+        private boolean claimed;
+        private boolean forced;
+        // notified since claimed
+        private boolean notified;
+        // waits for the next notification, e.g. the table writer was busy
+        private boolean parked;
+        private long round = -1;
+        private long sequencerTxn = -1;
+        private boolean suspended;
+        private TableToken tableToken;
+
+        public long getAppliedTxn() {
+            return appliedTxn;
+        }
+
+        public long getLag() {
+            return Math.max(sequencerTxn - appliedTxn, 0);
+        }
+
+        public long getSequencerTxn() {
+            return sequencerTxn;
+        }
+
+        public TableToken getTableToken() {
+            return tableToken;
+        }
+
+        public boolean isClaimed() {
+            return claimed;
+        }
+
+        public boolean isSuspended() {
+            return suspended;
+        }
+
+        private void copyFrom(TableLag other) {
+            appliedTxn = other.appliedTxn;
+            claimed = other.claimed;
+            forced = other.forced;
+            notified = other.notified;
+            parked = other.parked;
+            round = other.round;
+            sequencerTxn = other.sequencerTxn;
+            suspended = other.suspended;
+            tableToken = other.tableToken;
+        }
+
+        private long getPriority() {
+            return forced ? Long.MAX_VALUE : getLag();
+        }
+
+        private boolean isClaimable() {
+            return !claimed && (forced || (!parked && !suspended && getLag() > 0));
+        }
+    }
+}
@@ -55,9 +55,9 @@ public class WalUtils {
 
     public static void setupWorkerPool(WorkerPool workerPool, CairoEngine engine, int sharedWorkerCount) {
         for (int i = 0, workerCount = workerPool.getWorkerCount(); i < workerCount; i++) {
-            // create job per worker
+            // create job per worker, jobs share the engine's apply scheduler
             final ApplyWal2TableJob applyWal2TableJob = new ApplyWal2TableJob(engine, workerCount, sharedWorkerCount);
-            workerPool.assign(applyWal2TableJob);
+            workerPool.assign(i, applyWal2TableJob);
             workerPool.freeOnExit(applyWal2TableJob);
         }
     }
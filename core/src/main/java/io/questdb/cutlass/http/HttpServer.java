@@ -43,6 +43,7 @@ import io.questdb.network.MutableIOContextFactory;
 import io.questdb.std.CharSequenceObjHashMap;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -51,11 +52,27 @@ public class HttpServer implements Closeable {
     private static final Log LOG = LogFactory.getLog(HttpServer.class);
     private final IODispatcher<HttpConnectionContext> dispatcher;
     private final HttpContextFactory httpContextFactory;
+    private final QueryCache queryCache;
     private final WaitProcessor rescheduleContext;
     private final ObjList<HttpRequestProcessorSelectorImpl> selectors;
     private final int workerCount;
 
+    public HttpServer(HttpServerConfiguration configuration, MessageBus messageBus, Metrics metrics, WorkerPool pool) {
+        this(configuration, messageBus, metrics, pool, new QueryCache(configuration, metrics));
+    }
+
     public HttpServer(HttpMinServerConfiguration configuration, MessageBus messageBus, Metrics metrics, WorkerPool pool) {
+        this(configuration, messageBus, metrics, pool, null);
+    }
+
+    private HttpServer(
+            HttpMinServerConfiguration configuration,
+            MessageBus messageBus,
+            Metrics metrics,
+            WorkerPool pool,
+            @Nullable QueryCache queryCache
+    ) {
+        this.queryCache = queryCache;
         this.workerCount = pool.getWorkerCount();
         this.selectors = new ObjList<>(workerCount);
 
@@ -90,7 +107,6 @@ public class HttpServer implements Closeable {
                     if (seq > -1) {
                         // Queue is not empty, so flush query cache.
                         LOG.info().$("flushing HTTP server query cache [worker=").$(workerId).$(']').$();
-                        QueryCache queryCache = QueryCache.getWeakThreadLocalInstance();
                         if (queryCache != null) {
                             queryCache.clear();
                         }
@@ -106,16 +122,17 @@ public class HttpServer implements Closeable {
 
             // http context factory has thread local pools
             // therefore we need each thread to clean their thread locals individually
-            pool.assignThreadLocalCleaner(i, () -> {
-                httpContextFactory.freeThreadLocal();
-                Misc.free(QueryCache.getWeakThreadLocalInstance());
-            });
+            pool.assignThreadLocalCleaner(i, httpContextFactory::freeThreadLocal);
 
             pool.freeOnExit(() -> {
                 messageBus.getQueryCacheEventFanOut().remove(queryCacheEventSubSeq);
                 queryCacheEventSubSeq.clear();
             });
         }
+        if (queryCache != null) {
+            // query cache is shared by all workers, its factories are freed once the workers have stopped
+            pool.freeOnExit(queryCache);
+        }
     }
 
     public static void addDefaultEndpoints(
@@ -163,6 +180,7 @@ public class HttpServer implements Closeable {
                 return new TextQueryProcessor(
                         configuration.getJsonQueryProcessorConfiguration(),
                         cairoEngine,
+                        server.getQueryCache(),
                         workerPool.getWorkerCount(),
                         sharedWorkerCount,
                         functionFactoryCache,
@@ -225,6 +243,11 @@ public class HttpServer implements Closeable {
         Misc.free(httpContextFactory);
     }
 
+    @Nullable
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
     @FunctionalInterface
     public interface HttpRequestProcessorBuilder {
         HttpRequestProcessor newInstance();
@@ -59,20 +59,23 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final Metrics metrics;
     private final NanosecondClock nanosecondClock;
     private final Path path = new Path();
+    private final QueryCache queryCache;
     private final SqlExecutionContextImpl sqlExecutionContext;
 
     @TestOnly
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
             CairoEngine engine,
+            QueryCache queryCache,
             int workerCount
     ) {
-        this(configuration, engine, workerCount, workerCount, null, null);
+        this(configuration, engine, queryCache, workerCount, workerCount, null, null);
     }
 
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
             CairoEngine engine,
+            QueryCache queryCache,
             int workerCount,
             int sharedWorkerCount,
             @Nullable FunctionFactoryCache functionFactoryCache,
@@ -81,6 +84,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this(
                 configuration,
                 engine,
+                queryCache,
                 new SqlCompiler(engine, functionFactoryCache, snapshotAgent),
                 new SqlExecutionContextImpl(engine, workerCount, sharedWorkerCount)
         );
@@ -89,10 +93,12 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     public JsonQueryProcessor(
             JsonQueryProcessorConfiguration configuration,
             CairoEngine engine,
+            QueryCache queryCache,
             SqlCompiler sqlCompiler,
             SqlExecutionContextImpl sqlExecutionContext
     ) {
         this.configuration = configuration;
+        this.queryCache = queryCache;
         this.compiler = sqlCompiler;
         final QueryExecutor sendConfirmation = this::updateMetricsAndSendConfirmation;
         this.queryExecutors.extendAndSet(CompiledQuery.EXPLAIN, this::executeExplain);
@@ -165,7 +171,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 return;
             }
 
-            final RecordCursorFactory factory = QueryCache.getThreadLocalInstance().poll(state.getQuery());
+            final RecordCursorFactory factory = queryCache.poll(state.getQuery());
             if (factory != null) {
                 try {
                     sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, Telemetry.ORIGIN_HTTP_JSON);
@@ -221,6 +227,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         if (state == null) {
             LV.set(context, state = new JsonQueryProcessorState(
                     context,
+                    queryCache,
                     nanosecondClock,
                     configuration.getFloatScale(),
                     configuration.getDoubleScale()
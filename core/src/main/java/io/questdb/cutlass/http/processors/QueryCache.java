@@ -30,45 +30,30 @@ import io.questdb.cutlass.http.HttpServerConfiguration;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.metrics.Gauge;
-import io.questdb.std.AssociativeCache;
-import org.jetbrains.annotations.NotNull;
+import io.questdb.std.ConcurrentAssociativeCache;
 
 import java.io.Closeable;
 
+/**
+ * Cache of compiled SELECT factories shared by all workers of an HTTP server. Factories are
+ * checked out exclusively via {@link #poll(CharSequence)} and returned via
+ * {@link #push(CharSequence, RecordCursorFactory)} once the query has been served.
+ */
 public final class QueryCache implements Closeable {
 
     private static final Log LOG = LogFactory.getLog(QueryCache.class);
-    private static ThreadLocal<QueryCache> TL_QUERY_CACHE;
-    private static HttpServerConfiguration httpServerConfiguration;
-    private static Metrics metrics;
-    private final AssociativeCache<RecordCursorFactory> cache;
+    private final ConcurrentAssociativeCache<RecordCursorFactory> cache;
 
     public QueryCache(int blocks, int rows, Gauge cachedQueriesGauge) {
-        this.cache = new AssociativeCache<>(blocks, rows, cachedQueriesGauge);
+        this.cache = new ConcurrentAssociativeCache<>(blocks, rows, cachedQueriesGauge);
     }
 
-    public static void configure(HttpServerConfiguration configuration, Metrics metrics) {
-        TL_QUERY_CACHE = new ThreadLocal<>();
-        httpServerConfiguration = configuration;
-        QueryCache.metrics = metrics;
-    }
-
-    public static @NotNull QueryCache getThreadLocalInstance() {
-        QueryCache cache = TL_QUERY_CACHE.get();
-        if (cache == null) {
-            final boolean enableQueryCache = httpServerConfiguration.isQueryCacheEnabled();
-            final int blockCount = enableQueryCache ? httpServerConfiguration.getQueryCacheBlockCount() : 1;
-            final int rowCount = enableQueryCache ? httpServerConfiguration.getQueryCacheRowCount() : 1;
-            TL_QUERY_CACHE.set(cache = new QueryCache(blockCount, rowCount, metrics.jsonQuery().cachedQueriesGauge()));
-        }
-        return cache;
-    }
-
-    public static QueryCache getWeakThreadLocalInstance() {
-        if (TL_QUERY_CACHE != null) {
-            return TL_QUERY_CACHE.get();
-        }
-        return null;
+    public QueryCache(HttpServerConfiguration configuration, Metrics metrics) {
+        this(
+                configuration.isQueryCacheEnabled() ? configuration.getQueryCacheBlockCount() : 1,
+                configuration.isQueryCacheEnabled() ? configuration.getQueryCacheRowCount() : 1,
+                metrics.jsonQuery().cachedQueriesGauge()
+        );
     }
 
     public void clear() {
@@ -39,6 +39,7 @@ import java.io.Closeable;
 public class TextQueryProcessorState implements Mutable, Closeable {
     final StringSink query = new StringSink();
     private final HttpConnectionContext httpConnectionContext;
+    private final QueryCache queryCache;
     int columnIndex;
     long count;
     boolean countRows = false;
@@ -56,8 +57,9 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     long stop;
     private boolean queryCacheable = false;
 
-    public TextQueryProcessorState(HttpConnectionContext httpConnectionContext) {
+    public TextQueryProcessorState(HttpConnectionContext httpConnectionContext, QueryCache queryCache) {
         this.httpConnectionContext = httpConnectionContext;
+        this.queryCache = queryCache;
     }
 
     @Override
@@ -70,7 +72,7 @@ public class TextQueryProcessorState implements Mutable, Closeable {
         cursor = Misc.free(cursor);
         if (null != recordCursorFactory) {
             if (queryCacheable) {
-                QueryCache.getThreadLocalInstance().push(query, recordCursorFactory);
+                queryCache.push(query, recordCursorFactory);
             } else {
                 recordCursorFactory.close();
             }
@@ -183,11 +183,11 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private TypesAndInsert typesAndInsert = null;
     // these references are held by context only for a period of processing single request
     // in PF world this request can span multiple messages, but still, only for one request
-    // the rationale is to be able to return "selectAndTypes" instance to thread-local
+    // the rationale is to be able to return "selectAndTypes" instance to the shared
     // cache, which is "typesAndSelectCache". We typically do this after query results are
     // served to client or query errored out due to network issues
     private TypesAndSelect typesAndSelect = null;
-    private AssociativeCache<TypesAndSelect> typesAndSelectCache;
+    private ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache;
     private boolean typesAndSelectIsCached = true;
     private WeakSelfReturningObjectPool<TypesAndSelect> typesAndSelectPool;
     private TypesAndUpdate typesAndUpdate = null;
@@ -365,7 +365,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
 
     public void handleClientOperation(
             @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<TypesAndSelect> selectAndTypesCache,
+            @Transient ConcurrentAssociativeCache<TypesAndSelect> selectAndTypesCache,
             @Transient WeakSelfReturningObjectPool<TypesAndSelect> selectAndTypesPool,
             @Transient AssociativeCache<TypesAndUpdate> typesAndUpdateCache,
             @Transient WeakSelfReturningObjectPool<TypesAndUpdate> typesAndUpdatePool,
@@ -34,6 +34,7 @@ import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.network.PeerIsSlowToWriteException;
 import io.questdb.network.QueryPausedException;
 import io.questdb.std.AssociativeCache;
+import io.questdb.std.ConcurrentAssociativeCache;
 import io.questdb.std.Misc;
 import io.questdb.std.WeakSelfReturningObjectPool;
 
@@ -42,7 +43,7 @@ import java.io.Closeable;
 public class PGJobContext implements Closeable {
 
     private final SqlCompiler compiler;
-    private final AssociativeCache<TypesAndSelect> typesAndSelectCache;
+    private final ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache;
     private final WeakSelfReturningObjectPool<TypesAndSelect> typesAndSelectPool;
     private final AssociativeCache<TypesAndUpdate> typesAndUpdateCache;
     private final WeakSelfReturningObjectPool<TypesAndUpdate> typesAndUpdatePool;
@@ -51,18 +52,17 @@ public class PGJobContext implements Closeable {
             PGWireConfiguration configuration,
             CairoEngine engine,
             FunctionFactoryCache functionFactoryCache,
-            DatabaseSnapshotAgent snapshotAgent
+            DatabaseSnapshotAgent snapshotAgent,
+            ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache,
+            WeakSelfReturningObjectPool<TypesAndSelect> typesAndSelectPool
     ) {
         this.compiler = new SqlCompiler(engine, functionFactoryCache, snapshotAgent);
+        // select cache and its pool are shared by all workers and are owned by the server
+        this.typesAndSelectCache = typesAndSelectCache;
+        this.typesAndSelectPool = typesAndSelectPool;
 
         final Metrics metrics = engine.getMetrics();
 
-        final boolean enableSelectCache = configuration.isSelectCacheEnabled();
-        final int blockCount = enableSelectCache ? configuration.getSelectCacheBlockCount() : 1;
-        final int rowCount = enableSelectCache ? configuration.getSelectCacheRowCount() : 1;
-        typesAndSelectCache = new AssociativeCache<>(blockCount, rowCount, metrics.pgWire().cachedSelectsGauge());
-        typesAndSelectPool = new WeakSelfReturningObjectPool<>(TypesAndSelect::new, blockCount * rowCount);
-
         final boolean enabledUpdateCache = configuration.isUpdateCacheEnabled();
         final int updateBlockCount = enabledUpdateCache ? configuration.getUpdateCacheBlockCount() : 1; // 8
         final int updateRowCount = enabledUpdateCache ? configuration.getUpdateCacheRowCount() : 1; // 8
@@ -73,7 +73,6 @@ public class PGJobContext implements Closeable {
     @Override
     public void close() {
         Misc.free(compiler);
-        Misc.free(typesAndSelectCache);
         Misc.free(typesAndUpdateCache);
     }
 
@@ -36,6 +36,8 @@ import io.questdb.mp.Job;
 import io.questdb.mp.SCSequence;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.*;
+import io.questdb.std.ConcurrentAssociativeCache;
+import io.questdb.std.ConcurrentSelfReturningObjectPool;
 import io.questdb.std.Misc;
 import io.questdb.std.ObjectFactory;
 import io.questdb.std.QuietCloseable;
@@ -70,8 +72,30 @@ public class PGWireServer implements Closeable {
 
         workerPool.assign(dispatcher);
 
+        // compiled selects are shared by all workers, so that a query compiled on one worker
+        // can be reused by any other one
+        final boolean enableSelectCache = configuration.isSelectCacheEnabled();
+        final int blockCount = enableSelectCache ? configuration.getSelectCacheBlockCount() : 1;
+        final int rowCount = enableSelectCache ? configuration.getSelectCacheRowCount() : 1;
+        final ConcurrentAssociativeCache<TypesAndSelect> typesAndSelectCache = new ConcurrentAssociativeCache<>(
+                blockCount,
+                rowCount,
+                metrics.pgWire().cachedSelectsGauge()
+        );
+        final ConcurrentSelfReturningObjectPool<TypesAndSelect> typesAndSelectPool = new ConcurrentSelfReturningObjectPool<>(
+                TypesAndSelect::new,
+                blockCount * rowCount
+        );
+
         for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
-            final PGJobContext jobContext = new PGJobContext(configuration, engine, functionFactoryCache, snapshotAgent);
+            final PGJobContext jobContext = new PGJobContext(
+                    configuration,
+                    engine,
+                    functionFactoryCache,
+                    snapshotAgent,
+                    typesAndSelectCache,
+                    typesAndSelectPool
+            );
 
             final SCSequence queryCacheEventSubSeq = new SCSequence();
             final FanOut queryCacheEventFanOut = engine.getMessageBus().getQueryCacheEventFanOut();
@@ -130,6 +154,7 @@ public class PGWireServer implements Closeable {
                 queryCacheEventSubSeq.clear();
             });
         }
+        workerPool.freeOnExit(typesAndSelectCache);
     }
 
     @Override
@@ -71,6 +71,14 @@ public interface FunctionFactory {
      */
     String getSignature();
 
+    /**
+     * @return true if the factory produces functions that can only be called with an OVER clause,
+     * such functions may share names with group-by functions, e.g. sum()
+     */
+    default boolean isAnalytic() {
+        return false;
+    }
+
     default boolean isBoolean() {
         return false;
     }
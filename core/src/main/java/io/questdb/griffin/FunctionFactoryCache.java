@@ -38,6 +38,7 @@ public class FunctionFactoryCache {
     static final IntHashSet invalidFunctionNameChars = new IntHashSet();
     static final CharSequenceHashSet invalidFunctionNames = new CharSequenceHashSet();
     private static final Log LOG = LogFactory.getLog(FunctionFactoryCache.class);
+    private final LowerCaseCharSequenceHashSet analyticFunctionNames = new LowerCaseCharSequenceHashSet();
     private final LowerCaseCharSequenceHashSet cursorFunctionNames = new LowerCaseCharSequenceHashSet();
     private final LowerCaseCharSequenceObjHashMap<ObjList<FunctionFactoryDescriptor>> factories = new LowerCaseCharSequenceObjHashMap<>();
     private final LowerCaseCharSequenceHashSet groupByFunctionNames = new LowerCaseCharSequenceHashSet();
@@ -78,6 +79,8 @@ public class FunctionFactoryCache {
                         }
                     } else if (factory.isGroupBy()) {
                         groupByFunctionNames.add(name);
+                    } else if (factory.isAnalytic()) {
+                        analyticFunctionNames.add(name);
                     } else if (factory.isCursor()) {
                         cursorFunctionNames.add(name);
                     } else if (factory.isRuntimeConstant()) {
@@ -99,6 +102,10 @@ public class FunctionFactoryCache {
         return factories.get(token);
     }
 
+    public boolean isAnalytic(CharSequence name) {
+        return name != null && analyticFunctionNames.contains(name);
+    }
+
     public boolean isCursor(CharSequence name) {
         return name != null && cursorFunctionNames.contains(name);
     }
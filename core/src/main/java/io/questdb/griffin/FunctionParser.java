@@ -28,6 +28,7 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.ImplicitCastException;
 import io.questdb.cairo.sql.*;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.griffin.engine.functions.AbstractUnaryTimestampFunction;
 import io.questdb.griffin.engine.functions.CursorFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
@@ -527,6 +528,11 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         }
 
         final int argCount = args == null ? 0 : args.size();
+        // analytic functions may share names with group-by functions, e.g. sum(),
+        // in which case the OVER clause decides which of the two is called
+        final boolean isGroupByAndAnalytic = functionFactoryCache.isGroupBy(node.token) && functionFactoryCache.isAnalytic(node.token);
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        final boolean isAnalyticContext = analyticContext != null && !analyticContext.isEmpty();
         FunctionFactory candidate = null;
         FunctionFactoryDescriptor candidateDescriptor = null;
         boolean candidateSigVarArgConst = false;
@@ -547,6 +553,9 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         for (int i = 0, n = overload.size(); i < n; i++) {
             final FunctionFactoryDescriptor descriptor = overload.getQuick(i);
             final FunctionFactory factory = descriptor.getFactory();
+            if (isGroupByAndAnalytic && factory.isAnalytic() != isAnalyticContext) {
+                continue;
+            }
             int sigArgCount = descriptor.getSigArgCount();
 
             final boolean sigVarArg;
@@ -30,13 +30,16 @@ import io.questdb.cairo.map.RecordValueSinkFactory;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.ZoneMapFilter;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.engine.*;
 import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.analytic.AnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.analytic.CachedAnalyticRecordCursorFactory;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
 import io.questdb.griffin.engine.functions.bind.IndexedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.bind.NamedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.cast.*;
@@ -46,7 +49,9 @@ import io.questdb.griffin.engine.groupby.*;
 import io.questdb.griffin.engine.groupby.vect.GroupByRecordCursorFactory;
 import io.questdb.griffin.engine.groupby.vect.*;
 import io.questdb.griffin.engine.join.*;
+import io.questdb.griffin.engine.orderby.AsyncTopKRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.LimitedSizeSortedLightRecordCursorFactory;
+import io.questdb.griffin.engine.orderby.RadixSortLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.griffin.engine.orderby.SortedLightRecordCursorFactory;
 import io.questdb.griffin.engine.orderby.SortedRecordCursorFactory;
@@ -55,10 +60,14 @@ import io.questdb.griffin.engine.union.*;
 import io.questdb.griffin.model.*;
 import io.questdb.jit.CompiledFilter;
 import io.questdb.jit.CompiledFilterIRSerializer;
+import io.questdb.jit.CompiledGroupBy;
+import io.questdb.jit.GroupByCompiler;
 import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.StringSink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -97,6 +106,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
     private final ObjectPool<ExpressionNode> expressionNodePool;
     private final FunctionParser functionParser;
+    private final GroupByCompiler groupByCompiler = new GroupByCompiler();
     private final IntList groupByFunctionPositions = new IntList();
     private final ObjObjHashMap<IntList, ObjList<AnalyticFunction>> groupedAnalytic = new ObjObjHashMap<>();
     private final IntHashSet intHashSet = new IntHashSet();
@@ -113,6 +123,11 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final WeakClosableObjectPool<PageFrameReduceTask> reduceTaskPool;
     private final WhereClauseSymbolEstimator symbolEstimator = new WhereClauseSymbolEstimator();
     private final IntList tempAggIndex = new IntList();
+    private final IntList tempBloomFilterColumnIndexes = new IntList();
+    private final IntList tempBloomFilterHashHi = new IntList();
+    private final LongList tempBloomFilterHashes = new LongList();
+    // null is never a hashed index key value
+    private final LongHashSet tempHashedIndexKeys = new LongHashSet(16, 0.4, Numbers.LONG_NaN);
     private final IntList tempKeyIndex = new IntList();
     private final IntList tempKeyIndexesInBase = new IntList();
     private final IntList tempKeyKinds = new IntList();
@@ -143,7 +158,9 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         jitIRMem.putByte((byte) 0);
         jitIRMem.truncate();
         this.expressionNodePool = expressionNodePool;
-        this.reduceTaskPool = new WeakClosableObjectPool<>(
+        // factories may be cached and executed by threads other than the one owning this generator,
+        // so reduce tasks are borrowed and returned concurrently, even after the generator is closed
+        this.reduceTaskPool = new ConcurrentClosableObjectPool<>(
                 () -> new PageFrameReduceTask(configuration),
                 configuration.getPageFrameReduceTaskPoolCapacity()
         );
@@ -201,6 +218,103 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return new ExplainPlanFactory(factory, model.getFormat());
     }
 
+    private static boolean addBloomFilterHash(LongList hashes, int columnType, ExpressionNode value) {
+        if (ColumnType.tagOf(columnType) == ColumnType.LONG) {
+            boolean negative = false;
+            if (value.type == ExpressionNode.OPERATION && value.paramCount == 1 && Chars.equals(value.token, '-')) {
+                negative = true;
+                value = value.rhs;
+            }
+            if (value.type != ExpressionNode.CONSTANT) {
+                return false;
+            }
+            try {
+                final long l = Numbers.parseLong(value.token);
+                if (l == Numbers.LONG_NaN) {
+                    return false;
+                }
+                hashes.add(BloomFilter.hash(negative ? -l : l));
+                return true;
+            } catch (NumericException e) {
+                // not a long, e.g. null or double
+                return false;
+            }
+        }
+
+        // string literals with escaped quotes are left to the filter
+        final CharSequence token = value.token;
+        final int len = token.length();
+        if (value.type != ExpressionNode.CONSTANT || len < 3 || token.charAt(0) != '\'' || Chars.indexOf(token, 1, len - 1, '\'') > -1 || token.charAt(len - 1) != '\'') {
+            return false;
+        }
+        hashes.add(BloomFilter.hash(token, 1, len - 1));
+        return true;
+    }
+
+    private static void addZoneMapPredicate(
+            ZoneMapFilter zoneMapFilter,
+            ExpressionNode column,
+            int op,
+            ExpressionNode value,
+            RecordMetadata metadata
+    ) {
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0 || !ZoneMap.isSupported(metadata.getColumnType(columnIndex))) {
+            return;
+        }
+        boolean negative = false;
+        if (value.type == ExpressionNode.OPERATION && value.paramCount == 1 && Chars.equals(value.token, '-')) {
+            negative = true;
+            value = value.rhs;
+        }
+        if (value.type != ExpressionNode.CONSTANT) {
+            return;
+        }
+        try {
+            final long l = Numbers.parseLong(value.token);
+            zoneMapFilter.add(columnIndex, op, negative ? -l : l);
+        } catch (NumericException e) {
+            try {
+                final double d = Numbers.parseDouble(value.token);
+                zoneMapFilter.add(columnIndex, op, negative ? -d : d);
+            } catch (NumericException ignore) {
+                // not a number, e.g. string or null
+            }
+        }
+    }
+
+    private static void addZoneMapPredicates(ZoneMapFilter zoneMapFilter, ExpressionNode node, RecordMetadata metadata) {
+        if (node.type != ExpressionNode.OPERATION || node.paramCount != 2) {
+            return;
+        }
+        if (isAndKeyword(node.token)) {
+            addZoneMapPredicates(zoneMapFilter, node.lhs, metadata);
+            addZoneMapPredicates(zoneMapFilter, node.rhs, metadata);
+            return;
+        }
+
+        final int op;
+        if (Chars.equals(node.token, '=')) {
+            op = ZoneMapFilter.OP_EQ;
+        } else if (Chars.equals(node.token, '<')) {
+            op = ZoneMapFilter.OP_LT;
+        } else if (Chars.equals(node.token, "<=")) {
+            op = ZoneMapFilter.OP_LE;
+        } else if (Chars.equals(node.token, '>')) {
+            op = ZoneMapFilter.OP_GT;
+        } else if (Chars.equals(node.token, ">=")) {
+            op = ZoneMapFilter.OP_GE;
+        } else {
+            return;
+        }
+
+        if (node.lhs.type == LITERAL) {
+            addZoneMapPredicate(zoneMapFilter, node.lhs, op, node.rhs, metadata);
+        } else if (node.rhs.type == LITERAL) {
+            addZoneMapPredicate(zoneMapFilter, node.rhs, ZoneMapFilter.flip(op), node.lhs, metadata);
+        }
+    }
+
     private static boolean allGroupsFirstLastWithSingleSymbolFilter(QueryModel model, RecordMetadata metadata) {
         final ObjList<QueryColumn> columns = model.getColumns();
         for (int i = 0, n = columns.size(); i < n; i++) {
@@ -263,6 +377,64 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    private static boolean isVectorizedProjection(ObjList<Function> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            final Function function = functions.getQuick(i);
+            if (!function.isVectorized() || !VectorizedFunctionUtils.isVectorizedType(function.getType())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addBloomFilterPredicate(ExpressionNode column, ExpressionNode in, ExpressionNode value, RecordMetadata metadata) {
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex < 0 || !BloomFilter.isSupported(metadata.getColumnType(columnIndex))) {
+            return;
+        }
+        final int columnType = metadata.getColumnType(columnIndex);
+        final int hashLo = tempBloomFilterHashes.size();
+        boolean added;
+        if (in == null) {
+            added = addBloomFilterHash(tempBloomFilterHashes, columnType, value);
+        } else if (in.paramCount == 2) {
+            added = in.rhs.type != ExpressionNode.QUERY && addBloomFilterHash(tempBloomFilterHashes, columnType, in.rhs);
+        } else {
+            added = true;
+            // the last argument is the column
+            for (int i = 0, n = in.paramCount - 1; i < n && added; i++) {
+                added = addBloomFilterHash(tempBloomFilterHashes, columnType, in.args.getQuick(i));
+            }
+        }
+        if (added) {
+            tempBloomFilterColumnIndexes.add(columnIndex);
+            tempBloomFilterHashHi.add(tempBloomFilterHashes.size());
+        } else {
+            tempBloomFilterHashes.setPos(hashLo);
+        }
+    }
+
+    private void addBloomFilterPredicates(ExpressionNode node, RecordMetadata metadata) {
+        if (node.paramCount < 2) {
+            return;
+        }
+        if (isAndKeyword(node.token) && node.paramCount == 2) {
+            addBloomFilterPredicates(node.lhs, metadata);
+            addBloomFilterPredicates(node.rhs, metadata);
+        } else if (Chars.equals(node.token, '=') && node.paramCount == 2) {
+            if (node.lhs.type == LITERAL) {
+                addBloomFilterPredicate(node.lhs, null, node.rhs, metadata);
+            } else if (node.rhs.type == LITERAL) {
+                addBloomFilterPredicate(node.rhs, null, node.lhs, metadata);
+            }
+        } else if (isInKeyword(node.token)) {
+            final ExpressionNode column = node.paramCount == 2 ? node.lhs : node.args.getLast();
+            if (column.type == LITERAL) {
+                addBloomFilterPredicate(column, node, null, metadata);
+            }
+        }
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -380,6 +552,23 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return false;
     }
 
+    @Nullable
+    private CompiledGroupBy compileAggregates(ObjList<GroupByFunction> groupByFunctions, SqlExecutionContext executionContext) {
+        try {
+            final CompiledGroupBy compiledGroupBy = groupByCompiler.compile(asm, jitIRMem, groupByFunctions);
+            LOG.info()
+                    .$("JIT enabled for GROUP BY [fd=").$(executionContext.getRequestFd())
+                    .$(']').$();
+            return compiledGroupBy;
+        } catch (SqlException ex) {
+            LOG.debug()
+                    .$("JIT cannot be applied to GROUP BY [ex=").$(ex.getFlyweightMessage())
+                    .$(", fd=").$(executionContext.getRequestFd())
+                    .$(']').$();
+            return null;
+        }
+    }
+
     @Nullable
     private Function compileFilter(
             IntrinsicModel intrinsicModel,
@@ -409,6 +598,60 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return null;
     }
 
+    private @Nullable ObjList<ObjList<GroupByFunction>> compileWorkerGroupByFunctionsConditionally(
+            boolean condition,
+            int workerCount,
+            QueryModel model,
+            RecordMetadata metadata,
+            @Transient ArrayColumnTypes valueTypes,
+            int reservedValueCount,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (condition) {
+            final ObjList<ObjList<GroupByFunction>> allWorkerGroupByFunctions = new ObjList<>();
+            final ArrayColumnTypes workerValueTypes = new ArrayColumnTypes();
+            try {
+                for (int i = 0; i < workerCount; i++) {
+                    final ObjList<GroupByFunction> workerGroupByFunctions = new ObjList<>();
+                    allWorkerGroupByFunctions.extendAndSet(i, workerGroupByFunctions);
+                    workerValueTypes.clear();
+                    // worker functions must use the same map value indexes as the owner functions
+                    for (int j = 0; j < reservedValueCount; j++) {
+                        workerValueTypes.add(valueTypes.getColumnType(j));
+                    }
+                    GroupByUtils.prepareGroupByFunctions(
+                            model,
+                            metadata,
+                            functionParser,
+                            executionContext,
+                            workerGroupByFunctions,
+                            groupByFunctionPositions,
+                            workerValueTypes
+                    );
+                }
+            } catch (Throwable e) {
+                for (int i = 0, n = allWorkerGroupByFunctions.size(); i < n; i++) {
+                    Misc.freeObjList(allWorkerGroupByFunctions.getQuick(i));
+                }
+                throw e;
+            }
+            return allWorkerGroupByFunctions;
+        }
+        return null;
+    }
+
+    private @Nullable ZoneMapFilter compileZoneMapFilter(ExpressionNode filterExpr, RecordMetadata metadata) {
+        if (!configuration.isZoneMapEnabled()) {
+            return null;
+        }
+        final ZoneMapFilter zoneMapFilter = new ZoneMapFilter();
+        addZoneMapPredicates(zoneMapFilter, filterExpr, metadata);
+        if (zoneMapFilter.isEmpty()) {
+            return Misc.free(zoneMapFilter);
+        }
+        return zoneMapFilter;
+    }
+
     private RecordCursorFactory createAsOfJoin(
             RecordMetadata metadata,
             RecordCursorFactory master,
@@ -1393,7 +1636,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             limitLoFunction,
                             limitLoPos,
                             preTouchColumns,
-                            executionContext.getSharedWorkerCount()
+                            executionContext.getSharedWorkerCount(),
+                            compileZoneMapFilter(filterExpr, factory.getMetadata())
                     );
                 } catch (SqlException | LimitOverflowException ex) {
                     Misc.free(jitFilter);
@@ -1433,7 +1677,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     limitLoFunction,
                     limitLoPos,
                     preTouchColumns,
-                    executionContext.getSharedWorkerCount()
+                    executionContext.getSharedWorkerCount(),
+                    compileZoneMapFilter(filterExpr, factory.getMetadata())
             );
         }
         return new FilteredRecordCursorFactory(factory, filter);
@@ -1454,6 +1699,57 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    private RecordCursorFactory generateHashedIndexQuery(
+            GenericRecordMetadata metadata,
+            DataFrameCursorFactory dfcFactory,
+            ObjList<Function> keyValueFuncs,
+            int keyColumnIndex,
+            int keyColumnType,
+            @Nullable Function filter,
+            IntList columnIndexes,
+            IntList columnSizes,
+            boolean supportsRandomAccess
+    ) throws SqlException {
+        // a repeated value would make the merged cursor return its rows twice
+        tempHashedIndexKeys.clear();
+        for (int i = 0, n = keyValueFuncs.size(); i < n; i++) {
+            try {
+                tempHashedIndexKeys.add(Numbers.parseLong(keyValueFuncs.getQuick(i).getStr(null)));
+            } catch (NumericException e) {
+                Misc.free(dfcFactory);
+                Misc.free(filter);
+                throw SqlException.$(0, "invalid index key value [value=").put(keyValueFuncs.getQuick(i).getStr(null)).put(']');
+            }
+        }
+
+        final int nKeyValues = tempHashedIndexKeys.size();
+        final ObjList<HashedIndexRowCursorFactory> cursorFactories = new ObjList<>(nKeyValues);
+        for (int i = 0; i < nKeyValues; i++) {
+            cursorFactories.add(new HashedIndexRowCursorFactory(
+                    keyColumnIndex,
+                    keyColumnType,
+                    tempHashedIndexKeys.get(i),
+                    filter,
+                    nKeyValues == 1,
+                    BitmapIndexReader.DIR_FORWARD,
+                    columnIndexes
+            ));
+        }
+
+        return new DataFrameRecordCursorFactory(
+                configuration,
+                metadata,
+                dfcFactory,
+                nKeyValues == 1 ? cursorFactories.getQuick(0) : new HeapRowCursorFactory(cursorFactories, new int[]{nKeyValues}),
+                false,
+                filter,
+                false,
+                columnIndexes,
+                columnSizes,
+                supportsRandomAccess
+        );
+    }
+
     private RecordCursorFactory generateJoins(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final ObjList<QueryModel> joinModels = model.getJoinModels();
         IntList ordered = model.getOrderedJoinModels();
@@ -1727,7 +2023,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 null,
                                 0,
                                 false,
-                                executionContext.getSharedWorkerCount()
+                                executionContext.getSharedWorkerCount(),
+                                compileZoneMapFilter(filterExpr, master.getMetadata())
                         );
                     } else {
                         master = new FilteredRecordCursorFactory(
@@ -2201,6 +2498,30 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 if (recordCursorFactory.recordCursorSupportsRandomAccess()) {
                     if (canBeOptimized(model, executionContext, loFunc, hiFunc)) {
                         model.setLimitImplemented(true);
+                        if (
+                                hiFunc == null
+                                        && configuration.isSqlParallelTopKEnabled()
+                                        && executionContext.getSharedWorkerCount() > 0
+                                        && AsyncTopKRecordCursorFactory.isSupported(recordCursorFactory)
+                        ) {
+                            // comparators keep the left record as state, so each worker needs its own instance
+                            final int workerCount = executionContext.getSharedWorkerCount();
+                            final ObjList<RecordComparator> perWorkerComparators = new ObjList<>(workerCount);
+                            for (int i = 0; i < workerCount; i++) {
+                                perWorkerComparators.extendAndSet(i, recordComparatorCompiler.compile(metadata, listColumnFilterA));
+                            }
+                            return new AsyncTopKRecordCursorFactory(
+                                    configuration,
+                                    executionContext.getMessageBus(),
+                                    orderedMetadata,
+                                    recordCursorFactory,
+                                    recordComparatorCompiler.compile(metadata, listColumnFilterA),
+                                    perWorkerComparators,
+                                    loFunc,
+                                    listColumnFilterA.copy(),
+                                    reduceTaskPool
+                            );
+                        }
                         return new LimitedSizeSortedLightRecordCursorFactory(
                                 configuration,
                                 orderedMetadata,
@@ -2210,6 +2531,13 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 hiFunc,
                                 listColumnFilterA.copy()
                         );
+                    } else if (configuration.isSqlRadixSortEnabled() && RadixSortLightRecordCursorFactory.isSupported(metadata, listColumnFilterA)) {
+                        return new RadixSortLightRecordCursorFactory(
+                                configuration,
+                                orderedMetadata,
+                                recordCursorFactory,
+                                listColumnFilterA.copy()
+                        );
                     } else {
                         return new SortedLightRecordCursorFactory(
                                 configuration,
@@ -2519,6 +2847,48 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
                 if (isFillNone) {
 
+                    if (
+                            configuration.isSqlParallelSampleByEnabled()
+                                    && timezoneName == null
+                                    && factory.supportPageFrameCursor()
+                                    && executionContext.getSharedWorkerCount() > 0
+                                    && Chars.equalsLowerCaseAscii(configuration.getDefaultMapType(), "fast")
+                                    && AsyncSampleByRecordCursorFactory.isSamplerSupported(timestampSampler)
+                                    && GroupByUtils.isParallelismSupported(groupByFunctions)
+                    ) {
+                        final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions = compileWorkerGroupByFunctionsConditionally(
+                                !GroupByUtils.isReadThreadSafe(groupByFunctions),
+                                executionContext.getSharedWorkerCount(),
+                                model,
+                                metadata,
+                                valueTypes,
+                                1, // the first value is taken by row id of the first row in sample
+                                executionContext
+                        );
+                        // sample bucket timestamp goes last in map keys
+                        keyTypes.add(ColumnType.TIMESTAMP);
+                        Misc.free(timezoneNameFunc);
+                        return new AsyncSampleByRecordCursorFactory(
+                                asm,
+                                configuration,
+                                executionContext.getMessageBus(),
+                                factory,
+                                groupByMetadata,
+                                listColumnFilterA,
+                                keyTypes,
+                                valueTypes,
+                                groupByFunctions,
+                                perWorkerGroupByFunctions,
+                                recordFunctions,
+                                timestampSampler,
+                                timestampIndex,
+                                offsetFunc,
+                                offsetFuncPos,
+                                reduceTaskPool,
+                                executionContext.getSharedWorkerCount()
+                        );
+                    }
+
                     if (keyTypes.getColumnCount() == 0) {
                         // this sample by is not keyed
                         return new SampleByFillNoneNotKeyedRecordCursorFactory(
@@ -2672,6 +3042,25 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
     private RecordCursorFactory generateSelectAnalytic(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory base = generateSubQuery(model, executionContext);
+        try {
+            if (isAnalyticStreamable(model, base)) {
+                final RecordCursorFactory factory = generateSelectAnalyticStreaming(model, executionContext, base);
+                if (factory != null) {
+                    return factory;
+                }
+            }
+            return generateSelectAnalyticCached(model, executionContext, base);
+        } catch (Throwable th) {
+            Misc.free(base);
+            throw th;
+        }
+    }
+
+    private RecordCursorFactory generateSelectAnalyticCached(
+            QueryModel model,
+            SqlExecutionContext executionContext,
+            RecordCursorFactory base
+    ) throws SqlException {
         final RecordMetadata baseMetadata = base.getMetadata();
         final ObjList<QueryColumn> columns = model.getColumns();
         final int columnCount = columns.size();
@@ -2735,120 +3124,76 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         // analytic columns recursively
 
         deferredAnalyticMetadata.clear();
-        for (int i = 0; i < columnCount; i++) {
-            final QueryColumn qc = columns.getQuick(i);
-            if (qc instanceof AnalyticColumn) {
-                final AnalyticColumn ac = (AnalyticColumn) qc;
-                final ExpressionNode ast = qc.getAst();
-                if (ast.paramCount > 1) {
-                    Misc.free(base);
-                    throw SqlException.$(ast.position, "too many arguments");
-                }
-
-                ObjList<Function> partitionBy = null;
-                int psz = ac.getPartitionBy().size();
-                if (psz > 0) {
-                    partitionBy = new ObjList<>(psz);
-                    for (int j = 0; j < psz; j++) {
-                        partitionBy.add(
-                                functionParser.parseFunction(ac.getPartitionBy().getQuick(j), chainMetadata, executionContext)
-                        );
-                    }
-                }
-
-                final VirtualRecord partitionByRecord;
-                final RecordSink partitionBySink;
-
-                if (partitionBy != null) {
-                    partitionByRecord = new VirtualRecord(partitionBy);
-                    keyTypes.clear();
-                    final int partitionByCount = partitionBy.size();
-
-                    for (int j = 0; j < partitionByCount; j++) {
-                        keyTypes.add(partitionBy.getQuick(j).getType());
-                    }
-                    entityColumnFilter.of(partitionByCount);
-                    // create sink
-                    partitionBySink = RecordSinkFactory.getInstance(
-                            asm,
-                            keyTypes,
-                            entityColumnFilter,
-                            false
+        final ObjList<AnalyticFunction> analyticFunctions = new ObjList<>();
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final QueryColumn qc = columns.getQuick(i);
+                if (qc instanceof AnalyticColumn) {
+                    final AnalyticColumn ac = (AnalyticColumn) qc;
+                    // function arguments are resolved against the chain metadata because
+                    // functions are computed over the cached records
+                    final AnalyticFunction analyticFunction = parseAnalyticFunction(
+                            ac,
+                            chainMetadata,
+                            getAnalyticTimestampIndex(ac, chainMetadata),
+                            base.recordCursorSupportsRandomAccess(),
+                            executionContext
                     );
-                } else {
-                    partitionByRecord = null;
-                    partitionBySink = null;
-                }
-
-
-                final int osz = ac.getOrderBy().size();
-                executionContext.configureAnalyticContext(
-                        partitionByRecord,
-                        partitionBySink,
-                        keyTypes,
-                        osz > 0,
-                        base.recordCursorSupportsRandomAccess()
-                );
-                final Function f;
-                try {
-                    f = functionParser.parseFunction(ast, baseMetadata, executionContext);
-                    if (!(f instanceof AnalyticFunction)) {
-                        Misc.free(base);
-                        throw SqlException.$(ast.position, "non-analytic function called in analytic context");
-                    }
-                } finally {
-                    executionContext.clearAnalyticContext();
-                }
-
-                AnalyticFunction analyticFunction = (AnalyticFunction) f;
-
-                // analyze order by clause on the current model and optimise out
-                // order by on analytic function if it matches the one on the model
-                final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
-                boolean dismissOrder;
-                if (osz > 0 && orderHash.size() > 0) {
-                    dismissOrder = true;
-                    for (int j = 0; j < osz; j++) {
-                        ExpressionNode node = ac.getOrderBy().getQuick(j);
-                        int direction = ac.getOrderByDirection().getQuick(j);
-                        if (orderHash.get(node.token) != direction) {
-                            dismissOrder = false;
-                            break;
+                    analyticFunctions.add(analyticFunction);
+                    final int osz = ac.getOrderBy().size();
+
+                    // analyze order by clause on the current model and optimise out
+                    // order by on analytic function if it matches the one on the model
+                    final LowerCaseCharSequenceIntHashMap orderHash = model.getOrderHash();
+                    boolean dismissOrder;
+                    // peer-aware functions tell peers apart by comparing adjacent rows of the ordered tree
+                    if (osz > 0 && orderHash.size() > 0 && !analyticFunction.isPeerAware()) {
+                        dismissOrder = true;
+                        for (int j = 0; j < osz; j++) {
+                            ExpressionNode node = ac.getOrderBy().getQuick(j);
+                            int direction = ac.getOrderByDirection().getQuick(j);
+                            if (orderHash.get(node.token) != direction) {
+                                dismissOrder = false;
+                                break;
+                            }
                         }
+                    } else {
+                        dismissOrder = false;
                     }
-                } else {
-                    dismissOrder = false;
-                }
 
-                if (osz > 0 && !dismissOrder) {
-                    IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
-                    // init comparator if we need
-                    analyticFunction.initRecordComparator(recordComparatorCompiler, chainTypes, order);
-                    ObjList<AnalyticFunction> funcs = groupedAnalytic.get(order);
-                    if (funcs == null) {
-                        groupedAnalytic.put(order, funcs = new ObjList<>());
-                    }
-                    funcs.add(analyticFunction);
-                } else {
-                    if (naturalOrderFunctions == null) {
-                        naturalOrderFunctions = new ObjList<>();
+                    if (osz > 0 && !dismissOrder) {
+                        IntList order = toOrderIndices(chainMetadata, ac.getOrderBy(), ac.getOrderByDirection());
+                        // init comparator if we need
+                        analyticFunction.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+                        ObjList<AnalyticFunction> funcs = groupedAnalytic.get(order);
+                        if (funcs == null) {
+                            groupedAnalytic.put(order, funcs = new ObjList<>());
+                        }
+                        funcs.add(analyticFunction);
+                    } else {
+                        if (naturalOrderFunctions == null) {
+                            naturalOrderFunctions = new ObjList<>();
+                        }
+                        naturalOrderFunctions.add(analyticFunction);
                     }
-                    naturalOrderFunctions.add(analyticFunction);
-                }
 
-                analyticFunction.setColumnIndex(i);
+                    analyticFunction.setColumnIndex(i);
 
-                deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
-                        Chars.toString(qc.getAlias()),
-                        analyticFunction.getType(),
-                        false,
-                        0,
-                        false,
-                        null
-                ));
+                    deferredAnalyticMetadata.extendAndSet(i, new TableColumnMetadata(
+                            Chars.toString(qc.getAlias()),
+                            analyticFunction.getType(),
+                            false,
+                            0,
+                            false,
+                            null
+                    ));
 
-                listColumnFilterA.extendAndSet(i, -i - 1);
+                    listColumnFilterA.extendAndSet(i, -i - 1);
+                }
             }
+        } catch (Throwable th) {
+            Misc.freeObjList(analyticFunctions);
+            throw th;
         }
 
         // after all columns are processed we can re-insert deferred metadata
@@ -2888,6 +3233,67 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         );
     }
 
+    // returns null when any of the functions needs more than one look at the rows of its frame
+    // or needs to revisit peer rows, which the base cursor does not support
+    private RecordCursorFactory generateSelectAnalyticStreaming(
+            QueryModel model,
+            SqlExecutionContext executionContext,
+            RecordCursorFactory base
+    ) throws SqlException {
+        final RecordMetadata baseMetadata = base.getMetadata();
+        final int timestampIndex = baseMetadata.getTimestampIndex();
+        final ObjList<QueryColumn> columns = model.getColumns();
+        final int columnCount = columns.size();
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        final ObjList<Function> functions = new ObjList<>(columnCount);
+        final ObjList<AnalyticFunction> analyticFunctions = new ObjList<>();
+
+        try {
+            for (int i = 0; i < columnCount; i++) {
+                final QueryColumn qc = columns.getQuick(i);
+                if (qc instanceof AnalyticColumn) {
+                    final AnalyticFunction analyticFunction = parseAnalyticFunction(
+                            (AnalyticColumn) qc,
+                            baseMetadata,
+                            timestampIndex,
+                            base.recordCursorSupportsRandomAccess(),
+                            executionContext
+                    );
+                    functions.add(analyticFunction);
+                    if (
+                            analyticFunction.getPassCount() != AnalyticFunction.ZERO_PASS
+                                    // peer groups are buffered as row ids and revisited
+                                    || (analyticFunction.isPeerAware() && !base.recordCursorSupportsRandomAccess())
+                    ) {
+                        Misc.freeObjList(functions);
+                        return null;
+                    }
+                    analyticFunctions.add(analyticFunction);
+                    metadata.add(new TableColumnMetadata(
+                            Chars.toString(qc.getAlias()),
+                            analyticFunction.getType(),
+                            false,
+                            0,
+                            false,
+                            null
+                    ));
+                } else {
+                    final int columnIndex = baseMetadata.getColumnIndexQuiet(qc.getAst().token);
+                    functions.add(functionParser.parseFunction(qc.getAst(), baseMetadata, executionContext));
+                    metadata.add(AbstractRecordMetadata.copyOf(baseMetadata, columnIndex));
+                    if (columnIndex == timestampIndex) {
+                        metadata.setTimestampIndex(i);
+                    }
+                }
+            }
+        } catch (Throwable th) {
+            Misc.freeObjList(functions);
+            throw th;
+        }
+
+        return new AnalyticRecordCursorFactory(metadata, base, functions, analyticFunctions, timestampIndex);
+    }
+
     private RecordCursorFactory generateSelectChoose(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         final RecordCursorFactory factory = generateSubQuery(model, executionContext);
 
@@ -3167,8 +3573,12 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
             RecordMetadata metadata = factory.getMetadata();
 
+            // Compiled aggregation loops take precedence over vector aggregate intrinsics
+            // since they evaluate all aggregates in a single pass over a page frame.
+            final boolean jitAggregates = !specialCaseKeys && serializeAggregates(columns, factory, executionContext);
+
             // Inspect model for possibility of vector aggregate intrinsics.
-            if (pageFramingSupported && assembleKeysAndFunctionReferences(columns, metadata, !specialCaseKeys)) {
+            if (!jitAggregates && pageFramingSupported && assembleKeysAndFunctionReferences(columns, metadata, !specialCaseKeys)) {
                 // Create metadata from everything we've gathered.
                 GenericRecordMetadata meta = new GenericRecordMetadata();
 
@@ -3219,11 +3629,18 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
 
                 if (tempKeyIndexesInBase.size() == 0) {
+                    // page frames fully covered by zone maps can be aggregated without scanning
+                    // when every function is able to use the statistics
+                    boolean useStats = configuration.isZoneMapEnabled();
+                    for (int i = 0, n = tempVaf.size(); i < n && useStats; i++) {
+                        useStats = tempVaf.getQuick(i).supportsStats();
+                    }
                     return new GroupByNotKeyedVectorRecordCursorFactory(
                             configuration,
                             factory,
                             meta,
-                            tempVaf
+                            tempVaf,
+                            useStats
                     );
                 }
 
@@ -3313,6 +3730,51 @@ public class SqlCodeGenerator implements Mutable, Closeable {
             }
 
             if (keyTypes.getColumnCount() == 0) {
+                if (
+                        configuration.isSqlParallelGroupByEnabled()
+                                && executionContext.getSharedWorkerCount() > 0
+                                && AsyncGroupByNotKeyedRecordCursorFactory.isSupported(factory)
+                                && GroupByUtils.isParallelismSupported(groupByFunctions)
+                ) {
+                    final CompiledGroupBy compiledGroupBy = jitAggregates ? compileAggregates(groupByFunctions, executionContext) : null;
+                    final boolean vectorized = compiledGroupBy == null && AsyncGroupByNotKeyedRecordCursorFactory.isVectorizedSupported(
+                            configuration,
+                            factory,
+                            groupByFunctions
+                    );
+                    if (compiledGroupBy != null || vectorized) {
+                        final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions;
+                        try {
+                            perWorkerGroupByFunctions = compileWorkerGroupByFunctionsConditionally(
+                                    vectorized || !GroupByUtils.isReadThreadSafe(groupByFunctions),
+                                    executionContext.getSharedWorkerCount(),
+                                    model,
+                                    metadata,
+                                    valueTypes,
+                                    0,
+                                    executionContext
+                            );
+                        } catch (Throwable e) {
+                            Misc.freeObjList(recordFunctions);
+                            throw e;
+                        }
+                        return new AsyncGroupByNotKeyedRecordCursorFactory(
+                                asm,
+                                configuration,
+                                executionContext.getMessageBus(),
+                                factory,
+                                groupByMetadata,
+                                groupByFunctions,
+                                perWorkerGroupByFunctions,
+                                compiledGroupBy,
+                                vectorized,
+                                recordFunctions,
+                                reduceTaskPool,
+                                valueTypes.getColumnCount(),
+                                executionContext.getSharedWorkerCount()
+                        );
+                    }
+                }
                 return new GroupByNotKeyedRecordCursorFactory(
                         asm,
                         factory,
@@ -3323,6 +3785,48 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 );
             }
 
+            // per-worker maps can't spill to disk, so the single-threaded factory
+            // is used when the spill memory budget is set
+            if (
+                    configuration.isSqlParallelGroupByEnabled()
+                            && configuration.getSqlSpillMemoryBudget() == 0
+                            && factory.supportPageFrameCursor()
+                            && executionContext.getSharedWorkerCount() > 0
+                            && Chars.equalsLowerCaseAscii(configuration.getDefaultMapType(), "fast")
+                            && GroupByUtils.isParallelismSupported(groupByFunctions)
+            ) {
+                final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions;
+                try {
+                    perWorkerGroupByFunctions = compileWorkerGroupByFunctionsConditionally(
+                            !GroupByUtils.isReadThreadSafe(groupByFunctions),
+                            executionContext.getSharedWorkerCount(),
+                            model,
+                            metadata,
+                            valueTypes,
+                            0,
+                            executionContext
+                    );
+                } catch (Throwable e) {
+                    Misc.freeObjList(recordFunctions);
+                    throw e;
+                }
+                return new AsyncGroupByRecordCursorFactory(
+                        asm,
+                        configuration,
+                        executionContext.getMessageBus(),
+                        factory,
+                        groupByMetadata,
+                        listColumnFilterA,
+                        keyTypes,
+                        valueTypes,
+                        groupByFunctions,
+                        perWorkerGroupByFunctions,
+                        recordFunctions,
+                        reduceTaskPool,
+                        executionContext.getSharedWorkerCount()
+                );
+            }
+
             return new io.questdb.griffin.engine.groupby.GroupByRecordCursorFactory(
                     asm,
                     configuration,
@@ -3338,6 +3842,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         } catch (Throwable e) {
             Misc.free(factory);
             throw e;
+        } finally {
+            jitIRSerializer.clear();
+            jitIRMem.truncate();
+            groupByCompiler.clear();
         }
     }
 
@@ -3347,7 +3855,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     }
 
     @NotNull
-    private VirtualRecordCursorFactory generateSelectVirtualWithSubquery(QueryModel model, SqlExecutionContext executionContext, RecordCursorFactory factory) throws SqlException {
+    private RecordCursorFactory generateSelectVirtualWithSubquery(QueryModel model, SqlExecutionContext executionContext, RecordCursorFactory factory) throws SqlException {
         try {
             final ObjList<QueryColumn> columns = model.getColumns();
             final int columnCount = columns.size();
@@ -3481,6 +3989,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     }
                 }
             }
+            if (
+                    configuration.isSqlVectorizedFunctionsEnabled()
+                            && !model.isUpdate()
+                            && factory.supportPageFrameCursor()
+                            && !factory.hasDescendingOrder()
+                            && isVectorizedProjection(functions)
+            ) {
+                return new VectorizedVirtualRecordCursorFactory(
+                        virtualMetadata,
+                        functions,
+                        factory,
+                        configuration.getSqlVectorizedBatchSize()
+                );
+            }
             return new VirtualRecordCursorFactory(virtualMetadata, functions, factory);
         } catch (SqlException | CairoException e) {
             factory.close();
@@ -3751,7 +4273,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     functionParser,
                     myMeta,
                     executionContext,
-                    latestByColumnCount > 1,
+                    latestByColumnCount,
                     reader
             );
 
@@ -3807,6 +4329,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 dfcFactory = new FullFwdDataFrameCursorFactory(tableToken, model.getTableId(), model.getTableVersion(), dfcFactoryMeta);
                 intervalHitsOnlyOnePartition = false;
             }
+            dfcFactory = withBloomFilter(dfcFactory, intrinsicModel.filter, metadata);
 
             if (intrinsicModel.keyColumn != null) {
                 // existence of column would have been already validated
@@ -3835,9 +4358,11 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
                 assert nKeyValues > 0 || nKeyExcludedValues > 0;
 
+                final int keyColumnType = metadata.getColumnType(keyColumnIndex);
+                final boolean symbolKeyColumn = ColumnType.isSymbol(keyColumnType);
                 boolean orderByKeyColumn = false;
                 int indexDirection = BitmapIndexReader.DIR_FORWARD;
-                if (intervalHitsOnlyOnePartition) {
+                if (intervalHitsOnlyOnePartition && symbolKeyColumn) {
                     final ObjList<ExpressionNode> orderByAdvice = model.getOrderByAdvice();
                     final int orderByAdviceSize = orderByAdvice.size();
                     if (orderByAdviceSize > 0 && orderByAdviceSize < 3) {
@@ -3870,6 +4395,19 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             f = Misc.free(f);
                         }
                     }
+                    if (!symbolKeyColumn) {
+                        return generateHashedIndexQuery(
+                                myMeta,
+                                dfcFactory,
+                                intrinsicModel.keyValueFuncs,
+                                keyColumnIndex,
+                                keyColumnType,
+                                f,
+                                columnIndexes,
+                                columnSizes,
+                                supportsRandomAccess
+                        );
+                    }
                     if (nKeyValues == 1) {
                         final RowCursorFactory rcf;
                         final Function symbolFunc = intrinsicModel.keyValueFuncs.get(0);
@@ -3992,7 +4530,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     assert columnIndex > -1;
 
                     // this is our kind of column
-                    if (myMeta.isColumnIndexed(columnIndex)) {
+                    if (myMeta.isColumnIndexed(columnIndex) && ColumnType.isSymbol(myMeta.getColumnType(columnIndex))) {
                         boolean orderByKeyColumn = false;
                         int indexDirection = BitmapIndexReader.DIR_FORWARD;
                         if (orderByAdviceSize == 1) {
@@ -4025,7 +4563,11 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
             if (isOrderByTimestampDesc && !intrinsicModel.hasIntervalFilters()) {
                 Misc.free(dfcFactory);
-                dfcFactory = new FullBwdDataFrameCursorFactory(tableToken, model.getTableId(), model.getTableVersion(), dfcFactoryMeta);
+                dfcFactory = withBloomFilter(
+                        new FullBwdDataFrameCursorFactory(tableToken, model.getTableId(), model.getTableVersion(), dfcFactoryMeta),
+                        intrinsicModel.filter,
+                        metadata
+                );
                 rowFactory = new BwdDataFrameRowCursorFactory();
             } else {
                 rowFactory = new DataFrameRowCursorFactory();
@@ -4082,7 +4624,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         // listColumnFilterA = latest by column indexes
         if (latestByColumnCount == 1) {
             int latestByColumnIndex = listColumnFilterA.getColumnIndexFactored(0);
-            if (myMeta.isColumnIndexed(latestByColumnIndex)) {
+            if (myMeta.isColumnIndexed(latestByColumnIndex) && ColumnType.isSymbol(myMeta.getColumnType(latestByColumnIndex))) {
                 return new LatestByAllIndexedRecordCursorFactory(
                         myMeta,
                         configuration,
@@ -4199,6 +4741,98 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     }
 
     @Nullable
+    private long getAnalyticFrameBound(
+            AnalyticColumn ac,
+            ExpressionNode expr,
+            char timeUnit,
+            int kind,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        if (kind == AnalyticColumn.CURRENT) {
+            return 0;
+        }
+        if (expr == null) {
+            return kind == AnalyticColumn.PRECEDING ? Long.MIN_VALUE : Long.MAX_VALUE;
+        }
+        if (timeUnit != 0 && ac.getFramingMode() != AnalyticColumn.FRAMING_RANGE) {
+            throw SqlException.$(expr.position, "time unit is only supported in RANGE frames");
+        }
+
+        final Function function = functionParser.parseFunction(expr, EmptyRecordMetadata.INSTANCE, executionContext);
+        final long value;
+        try {
+            final int type = ColumnType.tagOf(function.getType());
+            if (!function.isConstant() || (type != ColumnType.BYTE && type != ColumnType.SHORT && type != ColumnType.INT && type != ColumnType.LONG)) {
+                throw SqlException.$(expr.position, "non-negative integer constant expected");
+            }
+            value = function.getLong(null);
+            if (value < 0) {
+                throw SqlException.$(expr.position, "non-negative integer constant expected");
+            }
+        } finally {
+            Misc.free(function);
+        }
+
+        final long multiplier;
+        switch (timeUnit) {
+            case 'T':
+                multiplier = Timestamps.MILLI_MICROS;
+                break;
+            case 's':
+                multiplier = Timestamps.SECOND_MICROS;
+                break;
+            case 'm':
+                multiplier = Timestamps.MINUTE_MICROS;
+                break;
+            case 'h':
+                multiplier = Timestamps.HOUR_MICROS;
+                break;
+            case 'd':
+                multiplier = Timestamps.DAY_MICROS;
+                break;
+            default:
+                multiplier = 1;
+                break;
+        }
+        return kind == AnalyticColumn.PRECEDING ? -value * multiplier : value * multiplier;
+    }
+
+    // order by clause of the window as shown in query plans, functions outlive the model
+    // so the text is copied out of the pooled expression nodes
+    @Nullable
+    private String getAnalyticOrderBy(AnalyticColumn ac) {
+        final int orderByCount = ac.getOrderBy().size();
+        if (orderByCount == 0) {
+            return null;
+        }
+        final StringSink sink = Misc.getThreadLocalBuilder();
+        for (int i = 0; i < orderByCount; i++) {
+            if (i > 0) {
+                sink.put(", ");
+            }
+            ac.getOrderBy().getQuick(i).toSink(sink);
+            if (ac.getOrderByDirection().getQuick(i) == ORDER_DIRECTION_DESCENDING) {
+                sink.put(" desc");
+            }
+        }
+        return sink.toString();
+    }
+
+    // returns index of the timestamp column the analytic function is ordered by or -1 when
+    // the order is not a single ascending timestamp column
+    private int getAnalyticTimestampIndex(AnalyticColumn ac, RecordMetadata metadata) {
+        if (ac.getOrderBy().size() == 1 && ac.getOrderByDirection().getQuick(0) == ORDER_DIRECTION_ASCENDING) {
+            final ExpressionNode node = ac.getOrderBy().getQuick(0);
+            if (node.type == LITERAL) {
+                final int index = metadata.getColumnIndexQuiet(node.token);
+                if (index > -1 && ColumnType.tagOf(metadata.getColumnType(index)) == ColumnType.TIMESTAMP) {
+                    return index;
+                }
+            }
+        }
+        return -1;
+    }
+
     private Function getHiFunction(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
         return toLimitFunction(executionContext, model.getLimitHi(), null);
     }
@@ -4235,6 +4869,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return metadata.getTimestampIndex();
     }
 
+    // analytic functions can be computed without caching the rows when they are all
+    // ordered by the designated timestamp in the order the base cursor returns rows
+    private boolean isAnalyticStreamable(QueryModel model, RecordCursorFactory base) {
+        final RecordMetadata baseMetadata = base.getMetadata();
+        final int timestampIndex = baseMetadata.getTimestampIndex();
+        if (timestampIndex == -1 || base.hasDescendingOrder()) {
+            return false;
+        }
+        final ObjList<QueryColumn> columns = model.getColumns();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final QueryColumn qc = columns.getQuick(i);
+            if (qc instanceof AnalyticColumn && getAnalyticTimestampIndex((AnalyticColumn) qc, baseMetadata) != timestampIndex) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private boolean isOrderDescendingByDesignatedTimestampOnly(QueryModel model) {
         return model.getOrderByAdvice().size() == 1 && model.getTimestamp() != null &&
                 Chars.equalsIgnoreCase(model.getOrderByAdvice().getQuick(0).token, model.getTimestamp().token) &&
@@ -4281,6 +4933,105 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    private AnalyticFunction parseAnalyticFunction(
+            AnalyticColumn ac,
+            RecordMetadata metadata,
+            int timestampIndex,
+            boolean baseSupportsRandomAccess,
+            SqlExecutionContext executionContext
+    ) throws SqlException {
+        final ExpressionNode ast = ac.getAst();
+        final boolean ordered = ac.getOrderBy().size() > 0;
+        final long rowsLo;
+        final long rowsHi;
+        if (!ordered && ac.isDefaultFrame()) {
+            // without ORDER BY the default frame is the whole partition
+            rowsLo = Long.MIN_VALUE;
+            rowsHi = Long.MAX_VALUE;
+        } else {
+            rowsLo = getAnalyticFrameBound(ac, ac.getRowsLoExpr(), ac.getRowsLoExprTimeUnit(), ac.getRowsLoKind(), executionContext);
+            rowsHi = getAnalyticFrameBound(ac, ac.getRowsHiExpr(), ac.getRowsHiExprTimeUnit(), ac.getRowsHiKind(), executionContext);
+            if (rowsLo == Long.MAX_VALUE) {
+                throw SqlException.$(ac.getRowsLoKindPos(), "frame start cannot be UNBOUNDED FOLLOWING");
+            }
+            if (rowsHi == Long.MIN_VALUE) {
+                throw SqlException.$(ac.getRowsHiKindPos(), "frame end cannot be UNBOUNDED PRECEDING");
+            }
+            if (rowsLo > rowsHi) {
+                throw SqlException.$(ac.getRowsLoKindPos(), "frame start is after frame end");
+            }
+        }
+
+        ObjList<Function> partitionBy = null;
+        Function function = null;
+        try {
+            final int psz = ac.getPartitionBy().size();
+            if (psz > 0) {
+                partitionBy = new ObjList<>(psz);
+                for (int j = 0; j < psz; j++) {
+                    partitionBy.add(
+                            functionParser.parseFunction(ac.getPartitionBy().getQuick(j), metadata, executionContext)
+                    );
+                }
+            }
+
+            final VirtualRecord partitionByRecord;
+            final RecordSink partitionBySink;
+
+            if (partitionBy != null) {
+                partitionByRecord = new VirtualRecord(partitionBy);
+                keyTypes.clear();
+                final int partitionByCount = partitionBy.size();
+
+                for (int j = 0; j < partitionByCount; j++) {
+                    keyTypes.add(partitionBy.getQuick(j).getType());
+                }
+                entityColumnFilter.of(partitionByCount);
+                // create sink
+                partitionBySink = RecordSinkFactory.getInstance(
+                        asm,
+                        keyTypes,
+                        entityColumnFilter,
+                        false
+                );
+            } else {
+                partitionByRecord = null;
+                partitionBySink = null;
+            }
+
+            executionContext.configureAnalyticContext(
+                    partitionByRecord,
+                    partitionBySink,
+                    keyTypes,
+                    ordered,
+                    getAnalyticOrderBy(ac),
+                    ac.getFramingMode(),
+                    rowsLo,
+                    rowsHi,
+                    timestampIndex,
+                    baseSupportsRandomAccess
+            );
+            try {
+                function = functionParser.parseFunction(ast, metadata, executionContext);
+            } finally {
+                executionContext.clearAnalyticContext();
+            }
+            if (!(function instanceof AnalyticFunction)) {
+                throw SqlException.$(ast.position, "non-analytic function called in analytic context");
+            }
+            return (AnalyticFunction) function;
+        } catch (Throwable th) {
+            // analytic functions own partition by functions
+            if (function instanceof AnalyticFunction) {
+                Misc.free(function);
+            } else {
+                Misc.free(function);
+                Misc.freeObjList(partitionBy);
+            }
+            throw th;
+        }
+    }
+
     private int prepareLatestByColumnIndexes(ObjList<ExpressionNode> latestBy, RecordMetadata myMeta) throws SqlException {
         keyTypes.clear();
         listColumnFilterA.clear();
@@ -4355,6 +5106,38 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    /**
+     * Writes IR of the aggregates of a non-keyed GROUP BY, so that they can be compiled
+     * into a single aggregation loop once the group by functions are known.
+     *
+     * @return true when the IR was written, false when the aggregates can't be compiled
+     */
+    private boolean serializeAggregates(
+            ObjList<QueryColumn> columns,
+            RecordCursorFactory factory,
+            SqlExecutionContext executionContext
+    ) {
+        if (
+                !configuration.isSqlJitGroupByEnabled()
+                        || !configuration.isSqlParallelGroupByEnabled()
+                        || executionContext.getJitMode() == SqlJitMode.JIT_MODE_DISABLED
+                        || executionContext.getSharedWorkerCount() == 0
+                        || !JitUtil.isJitSupported()
+                        || !AsyncGroupByNotKeyedRecordCursorFactory.isSupported(factory)
+        ) {
+            return false;
+        }
+        try {
+            jitIRSerializer.of(jitIRMem, executionContext, factory.getMetadata(), null, null)
+                    .serializeAggregates(columns);
+            return true;
+        } catch (SqlException ex) {
+            jitIRSerializer.clear();
+            jitIRMem.truncate();
+            return false;
+        }
+    }
+
     private Function toLimitFunction(
             SqlExecutionContext executionContext,
             ExpressionNode limit,
@@ -4482,6 +5265,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return metadata;
     }
 
+    private DataFrameCursorFactory withBloomFilter(DataFrameCursorFactory dfcFactory, @Nullable ExpressionNode filterExpr, RecordMetadata metadata) {
+        if (filterExpr == null || !configuration.isBloomFilterEnabled()) {
+            return dfcFactory;
+        }
+        tempBloomFilterColumnIndexes.clear();
+        tempBloomFilterHashes.clear();
+        tempBloomFilterHashHi.clear();
+        addBloomFilterPredicates(filterExpr, metadata);
+        if (tempBloomFilterColumnIndexes.size() == 0) {
+            return dfcFactory;
+        }
+        return new BloomFilterDataFrameCursorFactory(dfcFactory, tempBloomFilterColumnIndexes, tempBloomFilterHashes, tempBloomFilterHashHi);
+    }
+
     // used in tests
     void setEnableJitNullChecks(boolean value) {
         enableJitNullChecks = value;
@@ -27,13 +27,17 @@ package io.questdb.griffin;
 import io.questdb.MessageBus;
 import io.questdb.PropServerConfiguration;
 import io.questdb.cairo.*;
+import io.questdb.cairo.mv.MatViewDefinition;
 import io.questdb.cairo.pool.WriterPool;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cutlass.text.*;
+import io.questdb.griffin.engine.cache.ResultCache;
 import io.questdb.griffin.engine.functions.catalogue.*;
+import io.questdb.griffin.engine.groupby.TimestampSampler;
+import io.questdb.griffin.engine.groupby.TimestampSamplerFactory;
 import io.questdb.griffin.engine.ops.AlterOperationBuilder;
 import io.questdb.griffin.engine.ops.CopyFactory;
 import io.questdb.griffin.engine.ops.InsertOperationImpl;
@@ -49,6 +53,7 @@ import io.questdb.network.QueryPausedException;
 import io.questdb.std.*;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
@@ -1238,6 +1243,7 @@ public class SqlCompiler implements Closeable {
         // instance of compiler for safekeeping
 
         // lexer would have parsed first token to determine direction of execution flow
+        final int queryLo = lexer.lastTokenPosition();
         lexer.unparseLast();
         codeGenerator.clear();
 
@@ -1245,7 +1251,7 @@ public class SqlCompiler implements Closeable {
         switch (executionModel.getModelType()) {
             case ExecutionModel.QUERY:
                 LOG.info().$("plan [q=`").$((QueryModel) executionModel).$("`, fd=").$(executionContext.getRequestFd()).$(']').$();
-                return compiledQuery.of(generate((QueryModel) executionModel, executionContext));
+                return compiledQuery.of(generateSelect((QueryModel) executionModel, executionContext, queryLo));
             case ExecutionModel.CREATE_TABLE:
                 return createTableWithRetries(executionModel, executionContext);
             case ExecutionModel.COPY:
@@ -1543,6 +1549,45 @@ public class SqlCompiler implements Closeable {
         return rowCount;
     }
 
+    private void createMatView(CreateTableModel model, SqlExecutionContext executionContext) throws SqlException {
+        final ExpressionNode baseTable = model.getMatViewBaseTable();
+        final TableToken baseTableToken = executionContext.getTableTokenIfExists(baseTable.token);
+        if (baseTableToken == null) {
+            throw SqlException.$(baseTable.position, "table does not exist [table=").put(baseTable.token).put(']');
+        }
+        if (!engine.isWalTable(baseTableToken)) {
+            throw SqlException.$(baseTable.position, "materialized view base table must be a WAL table");
+        }
+
+        final String timestamp;
+        try (TableRecordMetadata metadata = executionContext.getMetadata(baseTableToken)) {
+            timestamp = metadata.getColumnName(metadata.getTimestampIndex());
+        }
+
+        // the view query with base table replaced by its slice between two timestamps
+        final CharSequence sql = model.getMatViewSql();
+        final StringSink refreshSql = Misc.getThreadLocalBuilder();
+        refreshSql.put(sql, 0, model.getMatViewBaseTableLo()).put('(');
+        refreshSql.put(sql, model.getMatViewBaseTableLo(), model.getMatViewBaseTableHi());
+        refreshSql.put(" where \"").put(timestamp).put("\" >= $1 and \"").put(timestamp).put("\" < $2)");
+        refreshSql.put(sql, model.getMatViewBaseTableHi(), sql.length());
+
+        final String refreshSqlStr = refreshSql.toString();
+        final ExpressionNode sampleBy = model.getMatViewSampleBy();
+        final TimestampSampler sampler = TimestampSamplerFactory.getInstance(sampleBy.token, sampleBy.position);
+
+        createTableFromCursor(model, executionContext, model.getName().position);
+        engine.getMatViewRegistry().createView(
+                new MatViewDefinition(
+                        executionContext.getTableToken(model.getName().token),
+                        baseTableToken,
+                        Chars.toString(sampleBy.token),
+                        sampler,
+                        refreshSqlStr
+                )
+        );
+    }
+
     private CompiledQuery createTable(final ExecutionModel model, SqlExecutionContext executionContext) throws
             SqlException {
         final CreateTableModel createTableModel = (CreateTableModel) model;
@@ -1579,6 +1624,8 @@ public class SqlCompiler implements Closeable {
                 }
                 throw SqlException.$(name.position, "Could not create table, ").put(e.getFlyweightMessage());
             }
+        } else if (createTableModel.isMatView()) {
+            createMatView(createTableModel, executionContext);
         } else {
             createTableFromCursor(createTableModel, executionContext, name.position);
         }
@@ -1789,6 +1836,20 @@ public class SqlCompiler implements Closeable {
         }
     }
 
+    private RecordCursorFactory generateSelect(QueryModel model, SqlExecutionContext executionContext, int queryLo) throws SqlException {
+        final RecordCursorFactory factory = generate(model, executionContext);
+        final ResultCache resultCache = engine.getResultCache();
+        if (resultCache.isEnabled()) {
+            try {
+                return resultCache.wrap(asm, functionParser.getFunctionFactoryCache(), factory, model, lexer.getContent(), queryLo, lexer.getPosition());
+            } catch (Throwable e) {
+                Misc.free(factory);
+                throw e;
+            }
+        }
+        return factory;
+    }
+
     private int getNextValidTokenPosition() {
         while (lexer.hasNext()) {
             CharSequence token = SqlUtil.fetchNext(lexer);
@@ -2538,8 +2599,11 @@ public class SqlCompiler implements Closeable {
             int to = ccm.getColumnType();
             if (isCompatibleCase(from, to)) {
                 int modelColumnIndex = model.getColumnIndex(columnName);
-                if (!ColumnType.isSymbol(to) && model.isIndexed(modelColumnIndex)) {
-                    throw SqlException.$(ccm.getColumnTypePos(), "indexes are supported only for SYMBOL columns: ").put(columnName);
+                if (!ColumnType.isIndexable(to) && model.isIndexed(modelColumnIndex)) {
+                    throw SqlException.$(ccm.getColumnTypePos(), "indexes are supported only for SYMBOL, SHORT, INT, LONG and GEOHASH columns: ").put(columnName);
+                }
+                if (ColumnType.isVariableLength(to) && model.isDedupKey(modelColumnIndex)) {
+                    throw SqlException.$(ccm.getColumnTypePos(), "upsert keys are supported only for fixed size columns: ").put(columnName);
                 }
                 typeCast.put(index, to);
             } else {
@@ -2547,7 +2611,7 @@ public class SqlCompiler implements Closeable {
             }
         }
 
-        // validate that all indexes are specified only on columns with symbol type
+        // validate that all indexes and upsert keys are specified only on columns of supported types
         for (int i = 0, n = model.getColumnCount(); i < n; i++) {
             CharSequence columnName = model.getColumnName(i);
             ColumnCastModel ccm = castModels.get(columnName);
@@ -2557,8 +2621,11 @@ public class SqlCompiler implements Closeable {
             }
             int index = metadata.getColumnIndexQuiet(columnName);
             assert index > -1 : "wtf? " + columnName;
-            if (!ColumnType.isSymbol(metadata.getColumnType(index)) && model.isIndexed(i)) {
-                throw SqlException.$(0, "indexes are supported only for SYMBOL columns: ").put(columnName);
+            if (!ColumnType.isIndexable(metadata.getColumnType(index)) && model.isIndexed(i)) {
+                throw SqlException.$(0, "indexes are supported only for SYMBOL, SHORT, INT, LONG and GEOHASH columns: ").put(columnName);
+            }
+            if (ColumnType.isVariableLength(metadata.getColumnType(index)) && model.isDedupKey(i)) {
+                throw SqlException.$(0, "upsert keys are supported only for fixed size columns: ").put(columnName);
             }
         }
 
@@ -2738,6 +2805,11 @@ public class SqlCompiler implements Closeable {
             return timestampIndex;
         }
 
+        @Override
+        public boolean isDedupKey(int columnIndex) {
+            return model.isDedupKey(columnIndex);
+        }
+
         @Override
         public boolean isIndexed(int columnIndex) {
             return model.isIndexed(columnIndex);
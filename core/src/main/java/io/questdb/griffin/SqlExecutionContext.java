@@ -53,6 +53,11 @@ public interface SqlExecutionContext extends Closeable {
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes keyTypes,
             boolean isOrdered,
+            @Nullable CharSequence orderBy,
+            int framingMode,
+            long rowsLo,
+            long rowsHi,
+            int timestampIndex,
             boolean baseSupportsRandomAccess
     );
 
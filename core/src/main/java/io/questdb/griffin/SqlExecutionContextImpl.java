@@ -97,6 +97,11 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes partitionByKeyTypes,
             boolean ordered,
+            @Nullable CharSequence orderBy,
+            int framingMode,
+            long rowsLo,
+            long rowsHi,
+            int timestampIndex,
             boolean baseSupportsRandomAccess
     ) {
         analyticContext.of(
@@ -104,6 +109,11 @@ public class SqlExecutionContextImpl implements SqlExecutionContext {
                 partitionBySink,
                 partitionByKeyTypes,
                 ordered,
+                orderBy,
+                framingMode,
+                rowsLo,
+                rowsHi,
+                timestampIndex,
                 baseSupportsRandomAccess
         );
     }
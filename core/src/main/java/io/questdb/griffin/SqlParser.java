@@ -346,6 +346,55 @@ public final class SqlParser {
         return tok;
     }
 
+    private void parseAnalyticFrameBound(GenericLexer lexer, AnalyticColumn col, boolean lo) throws SqlException {
+        CharSequence tok = tok(lexer, "'unbounded', 'current' or expression");
+        ExpressionNode expr = null;
+        char timeUnit = 0;
+        final int kind;
+        if (isCurrentKeyword(tok)) {
+            expectTok(lexer, "row");
+            kind = AnalyticColumn.CURRENT;
+        } else {
+            if (isUnboundedKeyword(tok)) {
+                tok = tok(lexer, "'preceding' or 'following'");
+            } else {
+                lexer.unparseLast();
+                expr = expectExpr(lexer);
+                tok = tok(lexer, "'preceding' or 'following'");
+                if (isMicrosecondKeyword(tok) || isMicrosecondsKeyword(tok)) {
+                    timeUnit = 'U';
+                } else if (isMillisecondKeyword(tok) || isMillisecondsKeyword(tok)) {
+                    timeUnit = 'T';
+                } else if (isSecondKeyword(tok) || isSecondsKeyword(tok)) {
+                    timeUnit = 's';
+                } else if (isMinuteKeyword(tok) || isMinutesKeyword(tok)) {
+                    timeUnit = 'm';
+                } else if (isHourKeyword(tok) || isHoursKeyword(tok)) {
+                    timeUnit = 'h';
+                } else if (isDayKeyword(tok) || isDaysKeyword(tok)) {
+                    timeUnit = 'd';
+                }
+                if (timeUnit != 0) {
+                    tok = tok(lexer, "'preceding' or 'following'");
+                }
+            }
+
+            if (isPrecedingKeyword(tok)) {
+                kind = AnalyticColumn.PRECEDING;
+            } else if (isFollowingKeyword(tok)) {
+                kind = AnalyticColumn.FOLLOWING;
+            } else {
+                throw SqlException.$(lexer.lastTokenPosition(), "'preceding' or 'following' expected");
+            }
+        }
+
+        if (lo) {
+            col.setRowsLo(expr, timeUnit, kind, lexer.lastTokenPosition());
+        } else {
+            col.setRowsHi(expr, timeUnit, kind, lexer.lastTokenPosition());
+        }
+    }
+
     private QueryModel parseAsSubQueryAndExpectClosingBrace(GenericLexer lexer, LowerCaseCharSequenceObjHashMap<WithClauseModel> withClauses) throws SqlException {
         final QueryModel model = parseAsSubQuery(lexer, withClauses);
         expectTok(lexer, ')');
@@ -443,11 +492,19 @@ public final class SqlParser {
     }
 
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
-        expectTok(lexer, "table");
-        return parseCreateTable(lexer, executionContext);
+        final CharSequence tok = optTok(lexer);
+        if (tok == null) {
+            throw SqlException.position(lexer.getPosition()).put("'table' expected");
+        }
+        if (isMaterializedKeyword(tok)) {
+            expectTok(lexer, "view");
+            return parseCreateTable(lexer, executionContext, true);
+        }
+        expectTok(lexer, tok, "table");
+        return parseCreateTable(lexer, executionContext, false);
     }
 
-    private ExecutionModel parseCreateTable(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
+    private ExecutionModel parseCreateTable(GenericLexer lexer, SqlExecutionContext executionContext, boolean matView) throws SqlException {
         final CreateTableModel model = createTableModelPool.next();
         final CharSequence tableName;
         CharSequence tok = tok(lexer, "table name or 'if'");
@@ -464,9 +521,16 @@ public final class SqlParser {
 
         model.setName(nextLiteral(GenericLexer.assertNoDotsAndSlashes(GenericLexer.unquote(tableName), lexer.lastTokenPosition()), lexer.lastTokenPosition()));
 
-        tok = tok(lexer, "'(' or 'as'");
+        tok = tok(lexer, matView ? "'as'" : "'(' or 'as'");
 
-        if (Chars.equals(tok, '(')) {
+        if (matView) {
+            if (!isAsKeyword(tok)) {
+                throw SqlException.$(lexer.lastTokenPosition(), "'as' expected");
+            }
+            final int queryLo = lexer.getPosition();
+            parseCreateTableAsSelect(lexer, model, executionContext);
+            parseMatViewQuery(lexer, model, queryLo, lexer.lastTokenPosition());
+        } else if (Chars.equals(tok, '(')) {
             tok = tok(lexer, "like");
             if (isLikeKeyword(tok)) {
                 parseLikeTableName(lexer, model);
@@ -540,6 +604,11 @@ public final class SqlParser {
                 }
             }
 
+            if (tok != null && isDedupKeyword(tok)) {
+                parseCreateTableDedupKeys(lexer, model);
+                tok = optTok(lexer);
+            }
+
             if (tok != null && isWithKeyword(tok)) {
                 ExpressionNode expr;
                 while ((expr = expr(lexer, (QueryModel) null)) != null) {
@@ -568,12 +637,26 @@ public final class SqlParser {
 
         model.setMaxUncommittedRows(maxUncommittedRows);
         model.setO3MaxLag(o3MaxLag);
-        final boolean isWalEnabled =
-                configuration.isWalSupported() && PartitionBy.isPartitioned(model.getPartitionBy()) && (
-                        (walSetting == WAL_NOT_SET && configuration.getWalEnabledDefault()) || walSetting == WAL_ENABLED
-                );
+        if (matView) {
+            // view is written by the WAL apply job of its base table, it has no WAL of its own
+            if (model.getTimestamp() == null) {
+                throw SqlException.$(lexer.getPosition(), "materialized view requires designated timestamp");
+            }
+            if (walSetting == WAL_ENABLED) {
+                throw SqlException.$(lexer.getPosition(), "materialized view cannot be a WAL table");
+            }
+            if (model.getPartitionBy() == PartitionBy.NONE) {
+                model.setPartitionBy(nextLiteral(PartitionBy.toString(PartitionBy.DAY), lexer.getPosition()));
+            }
+            model.setWalEnabled(false);
+        } else {
+            final boolean isWalEnabled =
+                    configuration.isWalSupported() && PartitionBy.isPartitioned(model.getPartitionBy()) && (
+                            (walSetting == WAL_NOT_SET && configuration.getWalEnabledDefault()) || walSetting == WAL_ENABLED
+                    );
 
-        model.setWalEnabled(isWalEnabled);
+            model.setWalEnabled(isWalEnabled);
+        }
 
         if (tok == null || Chars.equals(tok, ';')) {
             return model;
@@ -725,14 +808,48 @@ public final class SqlParser {
         }
     }
 
+    private void parseCreateTableDedupKeys(GenericLexer lexer, CreateTableModel model) throws SqlException {
+        final int dedupPosition = lexer.lastTokenPosition();
+        if (!PartitionBy.isPartitioned(model.getPartitionBy())) {
+            throw SqlException.position(dedupPosition).put("deduplication is possible only on partitioned tables");
+        }
+        expectTok(lexer, "upsert");
+        expectTok(lexer, "keys");
+        expectTok(lexer, '(');
+
+        final int timestampIndex = model.getTimestampIndex();
+        boolean timestampKey = false;
+        CharSequence tok;
+        do {
+            final CharSequence columnName = expectLiteral(lexer).token;
+            final int position = lexer.lastTokenPosition();
+            final int columnIndex = getCreateTableColumnIndex(model, columnName, position);
+            final int columnType = model.getColumnType(columnIndex);
+            if (columnType > -1 && ColumnType.isVariableLength(columnType)) {
+                throw SqlException.$(position, "upsert keys are supported only for fixed size columns: ").put(columnName);
+            }
+            model.setDedupKeyFlag(columnIndex);
+            timestampKey |= columnIndex == timestampIndex;
+            tok = tok(lexer, "',' or ')'");
+        } while (Chars.equals(tok, ','));
+
+        if (!Chars.equals(tok, ')')) {
+            throw err(lexer, tok, "',' or ')' expected");
+        }
+
+        if (!timestampKey) {
+            throw SqlException.position(dedupPosition).put("upsert keys must include designated timestamp");
+        }
+    }
+
     private void parseCreateTableIndexDef(GenericLexer lexer, CreateTableModel model) throws SqlException {
         expectTok(lexer, '(');
         final CharSequence columnName = expectLiteral(lexer).token;
         final int position = lexer.lastTokenPosition();
         final int columnIndex = getCreateTableColumnIndex(model, columnName, position);
         final int columnType = model.getColumnType(columnIndex);
-        if (columnType > -1 && !ColumnType.isSymbol(columnType)) {
-            throw SqlException.$(position, "indexes are supported only for SYMBOL columns: ").put(columnName);
+        if (columnType > -1 && !ColumnType.isIndexable(columnType)) {
+            throw SqlException.$(position, "indexes are supported only for SYMBOL, SHORT, INT, LONG and GEOHASH columns: ").put(columnName);
         }
 
         if (isCapacityKeyword(tok(lexer, "'capacity'"))) {
@@ -1502,6 +1619,67 @@ public final class SqlParser {
         }
     }
 
+    private void parseMatViewQuery(GenericLexer lexer, CreateTableModel model, int lo, int hi) throws SqlException {
+        // view is refreshed by re-running its query over the changed time range of the base table,
+        // which is only correct when buckets do not depend on the data: single table, calendar aligned
+        // buckets in UTC and no fill
+        final CharSequence content = lexer.getContent();
+        while (lo < hi && content.charAt(lo) != '(') {
+            lo++;
+        }
+        lo++;
+
+        QueryModel sampleByModel = null;
+        QueryModel tableModel = null;
+        QueryModel m = model.getQueryModel();
+        while (m != null) {
+            if (m.getJoinModels().size() > 1 || m.getUnionModel() != null) {
+                throw SqlException.$(m.getModelPosition(), "materialized view query must select from a single table");
+            }
+            if (m.getSampleBy() != null) {
+                sampleByModel = m;
+            }
+            if (m.getTableNameExpr() != null) {
+                tableModel = m;
+                break;
+            }
+            m = m.getNestedModel();
+        }
+
+        if (sampleByModel == null) {
+            throw SqlException.$(lo, "materialized view query must use SAMPLE BY");
+        }
+        final ExpressionNode sampleBy = sampleByModel.getSampleBy();
+        if (sampleByModel.getSampleByUnit() != null) {
+            throw SqlException.$(sampleBy.position, "materialized view requires constant SAMPLE BY interval");
+        }
+        if (sampleByModel.getSampleByOffset() != ZERO_OFFSET || sampleByModel.getSampleByTimezoneName() != null) {
+            throw SqlException.$(sampleBy.position, "materialized view requires ALIGN TO CALENDAR without time zone or offset");
+        }
+        final ObjList<ExpressionNode> fill = sampleByModel.getSampleByFill();
+        if (fill.size() > 1 || (fill.size() == 1 && !Chars.equalsLowerCaseAscii(fill.getQuick(0).token, "none"))) {
+            throw SqlException.$(sampleBy.position, "materialized view does not support FILL");
+        }
+
+        final ExpressionNode tableName = tableModel != null ? tableModel.getTableNameExpr() : null;
+        if (tableName == null || tableName.type != ExpressionNode.LITERAL) {
+            throw SqlException.$(lo, "materialized view query must select from a table");
+        }
+
+        int tableHi = tableName.position + tableName.token.length();
+        final char c = content.charAt(tableName.position);
+        if (c == '\'' || c == '"') {
+            tableHi += 2;
+        }
+        model.setMatView(
+                lexer.immutableBetween(lo, hi),
+                tableName,
+                tableName.position - lo,
+                tableHi - lo,
+                sampleBy
+        );
+    }
+
     private ExecutionModel parseRenameStatement(GenericLexer lexer) throws SqlException {
         expectTok(lexer, "table");
         RenameTableModel model = renameTableModelPool.next();
@@ -1609,6 +1787,22 @@ public final class SqlParser {
                         }
                     } while (Chars.equals(tok, ','));
                 }
+
+                if (isRowsKeyword(tok) || isRangeKeyword(tok)) {
+                    final AnalyticColumn ac = (AnalyticColumn) col;
+                    ac.setFramingMode(isRowsKeyword(tok) ? AnalyticColumn.FRAMING_ROWS : AnalyticColumn.FRAMING_RANGE);
+                    tok = tok(lexer, "'between', 'unbounded', 'current' or expression");
+                    if (isBetweenKeyword(tok)) {
+                        parseAnalyticFrameBound(lexer, ac, true);
+                        expectTok(lexer, "and");
+                        parseAnalyticFrameBound(lexer, ac, false);
+                    } else {
+                        // short form, the frame ends at the current row
+                        lexer.unparseLast();
+                        parseAnalyticFrameBound(lexer, ac, true);
+                    }
+                    tok = tokIncludingLocalBrace(lexer, "')'");
+                }
                 expectTok(tok, lexer.lastTokenPosition(), ')');
                 tok = optTok(lexer);
 
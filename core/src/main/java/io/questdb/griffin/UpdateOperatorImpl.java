@@ -48,6 +48,7 @@ public class UpdateOperatorImpl extends PurgingOperator implements QuietCloseabl
     private final ObjList<MemoryCMARW> dstColumns = new ObjList<>();
     private final long fileOpenOpts;
     private final ObjList<MemoryCMR> srcColumns = new ObjList<>();
+    private final LongList updatedPartitionTimestamps = new LongList();
     private IndexBuilder indexBuilder;
 
     public UpdateOperatorImpl(
@@ -79,6 +80,7 @@ public class UpdateOperatorImpl extends PurgingOperator implements QuietCloseabl
             final RecordCursorFactory factory = op.getFactory();
 
             cleanupColumnVersions.clear();
+            updatedPartitionTimestamps.clear();
 
             if (tableWriter.inTransaction()) {
                 LOG.info().$("committing current transaction before UPDATE execution [table=").$(tableToken).$(" instance=").$(op.getCorrelationId()).I$();
@@ -171,6 +173,7 @@ public class UpdateOperatorImpl extends PurgingOperator implements QuietCloseabl
                             );
 
                             rebuildIndexes(tableWriter.getPartitionTimestamp(partitionIndex), tableMetadata, tableWriter);
+                            updatedPartitionTimestamps.add(tableWriter.getPartitionTimestamp(partitionIndex));
                         }
 
                         openColumns(srcColumns, rowPartitionIndex, false);
@@ -208,6 +211,7 @@ public class UpdateOperatorImpl extends PurgingOperator implements QuietCloseabl
                     );
 
                     rebuildIndexes(tableWriter.getPartitionTimestamp(partitionIndex), tableMetadata, tableWriter);
+                    updatedPartitionTimestamps.add(tableWriter.getPartitionTimestamp(partitionIndex));
                 }
             } finally {
                 Misc.freeObjList(srcColumns);
@@ -223,6 +227,10 @@ public class UpdateOperatorImpl extends PurgingOperator implements QuietCloseabl
                 op.forceTestTimeout();
                 tableWriter.commit();
                 tableWriter.openLastPartition();
+                // updated columns got new versions, their partition statistics have to follow
+                for (int i = 0, n = updatedPartitionTimestamps.size(); i < n; i++) {
+                    tableWriter.rebuildColumnSummaries(updatedPartitionTimestamps.getQuick(i));
+                }
                 purgeOldColumnVersions();
             }
 
@@ -590,6 +598,7 @@ public class UpdateOperatorImpl extends PurgingOperator implements QuietCloseabl
         long partitionTimestamp = tableWriter.getPartitionTimestamp(partitionIndex);
         long partitionNameTxn = tableWriter.getPartitionNameTxn(partitionIndex);
         RecordMetadata metadata = tableWriter.getMetadata();
+        tableWriter.decompressPartition(partitionIndex);
         try {
             path.trimTo(rootLen);
             TableUtils.setPathForPartition(path, tableWriter.getPartitionBy(), partitionTimestamp, false);
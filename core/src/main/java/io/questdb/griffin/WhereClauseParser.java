@@ -38,6 +38,7 @@ import io.questdb.griffin.model.IntrinsicModel;
 import io.questdb.std.*;
 import io.questdb.std.datetime.microtime.TimestampFormatUtils;
 import io.questdb.std.str.FlyweightCharSequence;
+import io.questdb.std.str.StringSink;
 
 import java.util.ArrayDeque;
 
@@ -47,6 +48,7 @@ import static io.questdb.griffin.SqlKeywords.*;
  * Extracts most important predicates from where clause :
  * - designated timestamp expressions to use for interval scan
  * - indexed symbol column expressions to use for index scan
+ * - equality and IN-list expressions on hash-indexed integer columns
  **/
 final class WhereClauseParser implements Mutable {
     private static final int INTRINSIC_OP_BETWEEN = 9;
@@ -82,8 +84,10 @@ final class WhereClauseParser implements Mutable {
     private final IntList tempPos = new IntList();
     private final IntList tempT = new IntList();
     private final IntList tempType = new IntList();
+    private final StringSink tempValueSink = new StringSink();
     private boolean allKeyExcludedValuesAreKnown = true;
     private boolean allKeyValuesAreKnown = true;
+    private boolean hashedIndexKeysAllowed;
     private boolean isConstFunction;
     private CharSequence preferredKeyColumn;
     private CharSequence timestamp;
@@ -108,6 +112,7 @@ final class WhereClauseParser implements Mutable {
         this.preferredKeyColumn = null;
         this.allKeyValuesAreKnown = true;
         this.allKeyExcludedValuesAreKnown = true;
+        this.hashedIndexKeysAllowed = false;
     }
 
     private static short adjustComparison(boolean equalsTo, boolean isLo) {
@@ -151,6 +156,11 @@ final class WhereClauseParser implements Mutable {
      * or has higher capacity than the current key column.
      */
     private static boolean isMoreSelective(IntrinsicModel model, RecordMetadata meta, TableReader reader, int idx) {
+        final boolean symbolColumn = ColumnType.isSymbol(meta.getColumnType(idx));
+        if (!symbolColumn || !ColumnType.isSymbol(meta.getColumnType(meta.getColumnIndex(model.keyColumn)))) {
+            // symbol keys are exact, prefer them over hashed integer keys
+            return symbolColumn;
+        }
         SymbolMapReader colReader = reader.getSymbolMapReader(idx);
         SymbolMapReader keyReader = reader.getSymbolMapReader(meta.getColumnIndex(model.keyColumn));
         int colCount = colReader.getSymbolCount();
@@ -349,12 +359,17 @@ final class WhereClauseParser implements Mutable {
                     throw SqlException.invalidColumn(a.position, a.token);
                 }
 
-                switch (ColumnType.tagOf(m.getColumnType(index))) {
+                final int columnType = m.getColumnType(index);
+                switch (ColumnType.tagOf(columnType)) {
                     case ColumnType.SYMBOL:
                     case ColumnType.STRING:
+                    case ColumnType.SHORT:
                     case ColumnType.LONG:
                     case ColumnType.INT:
-                        if (columnIsPreferredOrIndexedAndNotPartOfMultiColumnLatestBy(columnName, m, latestByMultiColumn)) {
+                        final boolean keyColumnCandidate = columnIsHashIndexed(columnName, m)
+                                ? isHashedIndexKeyValue(b, columnType)
+                                : columnIsPreferredOrIndexedAndNotPartOfMultiColumnLatestBy(columnName, m, latestByMultiColumn);
+                        if (keyColumnCandidate) {
                             CharSequence value = isNullKeyword(b.token) ? null : unquote(b.token);
                             if (Chars.equalsIgnoreCaseNc(columnName, model.keyColumn)) {
                                 if (!isCorrectType(b.type)) {
@@ -685,9 +700,11 @@ final class WhereClauseParser implements Mutable {
             SqlExecutionContext executionContext
     ) throws SqlException {
         final int columnIndex = meta.getColumnIndex(columnName);
+        final int columnType = meta.getColumnType(columnIndex);
+        final boolean hashIndexed = columnIsHashIndexed(columnName, meta);
         boolean newColumn = true;
 
-        if (columnIsPreferredOrIndexedAndNotPartOfMultiColumnLatestBy(columnName, meta, latestByMultiColumn)) {
+        if (hashIndexed || columnIsPreferredOrIndexedAndNotPartOfMultiColumnLatestBy(columnName, meta, latestByMultiColumn)) {
             // check if we already have indexed column, and it is of worse selectivity
             // "preferred" is an unfortunate name, this column is from "latest on" clause,
             // I should name it better
@@ -715,6 +732,10 @@ final class WhereClauseParser implements Mutable {
                     return false;
                 }
 
+                if (hashIndexed && !isHashedIndexKeyValue(node.rhs, columnType)) {
+                    return false;
+                }
+
                 CharSequence value;
 
                 if (node.rhs.type == ExpressionNode.FUNCTION) {
@@ -743,6 +764,10 @@ final class WhereClauseParser implements Mutable {
                         return false;
                     }
 
+                    if (hashIndexed && !isHashedIndexKeyValue(c, columnType)) {
+                        return false;
+                    }
+
                     if (isNullKeyword(c.token)) {
                         if (tempKeys.add(null)) {
                             tempPos.add(c.position);
@@ -1453,15 +1478,40 @@ final class WhereClauseParser implements Mutable {
         return collapseWithin0(node);
     }
 
+    private boolean columnIsHashIndexed(CharSequence columnName, RecordMetadata m) {
+        if (!hashedIndexKeysAllowed || preferredKeyColumn != null) {
+            return false;
+        }
+        final int columnIndex = m.getColumnIndex(columnName);
+        if (!m.isColumnIndexed(columnIndex)) {
+            return false;
+        }
+        switch (ColumnType.tagOf(m.getColumnType(columnIndex))) {
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private boolean columnIsPreferredOrIndexedAndNotPartOfMultiColumnLatestBy(
             CharSequence columnName,
             RecordMetadata m,
             boolean latestByMultiColumn
     ) {
-        return !latestByMultiColumn &&
-                (Chars.equalsIgnoreCaseNc(columnName, preferredKeyColumn)
-                        ||
-                        (preferredKeyColumn == null && m.isColumnIndexed(m.getColumnIndex(columnName))));
+        if (latestByMultiColumn) {
+            return false;
+        }
+        if (Chars.equalsIgnoreCaseNc(columnName, preferredKeyColumn)) {
+            return true;
+        }
+        if (preferredKeyColumn == null) {
+            final int columnIndex = m.getColumnIndex(columnName);
+            return m.isColumnIndexed(columnIndex) && ColumnType.isSymbol(m.getColumnType(columnIndex));
+        }
+        return false;
     }
 
     private Function createKeyValueBindVariable(
@@ -1580,6 +1630,35 @@ final class WhereClauseParser implements Mutable {
         return (fn instanceof AbstractGeoHashFunction) && fn.isConstant();
     }
 
+    /**
+     * Hashed index keys are matched as text, so that only canonical integer literals
+     * within the column type range, other than the null value, are accepted.
+     */
+    private boolean isHashedIndexKeyValue(ExpressionNode node, int columnType) {
+        if (node.type != ExpressionNode.CONSTANT) {
+            return false;
+        }
+        final long value;
+        try {
+            value = Numbers.parseLong(node.token);
+        } catch (NumericException e) {
+            return false;
+        }
+        tempValueSink.clear();
+        tempValueSink.put(value);
+        if (!Chars.equals(tempValueSink, node.token)) {
+            return false;
+        }
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.SHORT:
+                return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+            case ColumnType.INT:
+                return value > Numbers.INT_NaN && value <= Integer.MAX_VALUE;
+            default:
+                return value != Numbers.LONG_NaN;
+        }
+    }
+
     private boolean isNull(ExpressionNode node) {
         return node == null || isNullKeyword(node.token);
     }
@@ -1899,7 +1978,7 @@ final class WhereClauseParser implements Mutable {
             FunctionParser functionParser,
             RecordMetadata metadata,
             SqlExecutionContext executionContext,
-            boolean latestByMultiColumn,
+            int latestByColumnCount,
             TableReader reader
     ) throws SqlException {
         clearKeys();
@@ -1907,6 +1986,9 @@ final class WhereClauseParser implements Mutable {
 
         this.timestamp = timestampIndex < 0 ? null : m.getColumnName(timestampIndex);
         this.preferredKeyColumn = preferredKeyColumn;
+        // 'latest by' takes over key values of symbol columns only
+        this.hashedIndexKeysAllowed = latestByColumnCount == 0;
+        final boolean latestByMultiColumn = latestByColumnCount > 1;
 
         IntrinsicModel model = models.next();
 
@@ -27,16 +27,49 @@ package io.questdb.griffin.engine.analytic;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.VirtualRecord;
+import org.jetbrains.annotations.Nullable;
 
 public interface AnalyticContext {
     boolean baseSupportsRandomAccess();
 
+    /**
+     * @return frame mode, either {@link io.questdb.griffin.model.AnalyticColumn#FRAMING_ROWS} or
+     * {@link io.questdb.griffin.model.AnalyticColumn#FRAMING_RANGE}
+     */
+    int getFramingMode();
+
+    /**
+     * @return ORDER BY clause of the window as it should appear in query plans, e.g. "ts, sym desc",
+     * or null when the window is not ordered
+     */
+    @Nullable
+    CharSequence getOrderBy();
+
     ColumnTypes getPartitionByKeyTypes();
 
     VirtualRecord getPartitionByRecord();
 
     RecordSink getPartitionBySink();
 
+    /**
+     * @return upper bound of the frame relative to the current row: 0 stands for the current row,
+     * negative values for preceding and positive for following rows (or time units in RANGE mode),
+     * Long.MAX_VALUE for UNBOUNDED FOLLOWING
+     */
+    long getRowsHi();
+
+    /**
+     * @return lower bound of the frame, encoded the same way as {@link #getRowsHi()} with
+     * Long.MIN_VALUE standing for UNBOUNDED PRECEDING
+     */
+    long getRowsLo();
+
+    /**
+     * @return index of the designated timestamp column in the records passed to analytic
+     * functions or -1 when the window is not ordered by the designated timestamp
+     */
+    int getTimestampIndex();
+
     boolean isEmpty();
 
     boolean isOrdered();
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.analytic;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
 import io.questdb.cairo.sql.VirtualRecord;
+import io.questdb.griffin.model.AnalyticColumn;
 import io.questdb.std.Mutable;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.Nullable;
@@ -34,10 +35,15 @@ import org.jetbrains.annotations.Nullable;
 public class AnalyticContextImpl implements AnalyticContext, Mutable {
     private boolean baseSupportsRandomAccess;
     private boolean empty = true;
+    private int framingMode;
+    private CharSequence orderBy;
     private boolean ordered;
     private ColumnTypes partitionByKeyTypes;
     private VirtualRecord partitionByRecord;
     private RecordSink partitionBySink;
+    private long rowsHi;
+    private long rowsLo;
+    private int timestampIndex;
 
     @Override
     public boolean baseSupportsRandomAccess() {
@@ -51,9 +57,25 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         this.partitionBySink = null;
         this.partitionByKeyTypes = null;
         this.ordered = false;
+        this.orderBy = null;
+        this.framingMode = AnalyticColumn.FRAMING_RANGE;
+        this.rowsLo = Long.MIN_VALUE;
+        this.rowsHi = 0;
+        this.timestampIndex = -1;
         this.baseSupportsRandomAccess = false;
     }
 
+    @Override
+    public int getFramingMode() {
+        return framingMode;
+    }
+
+    @Override
+    @Nullable
+    public CharSequence getOrderBy() {
+        return orderBy;
+    }
+
     @Override
     public ColumnTypes getPartitionByKeyTypes() {
         return partitionByKeyTypes;
@@ -69,6 +91,21 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         return partitionBySink;
     }
 
+    @Override
+    public long getRowsHi() {
+        return rowsHi;
+    }
+
+    @Override
+    public long getRowsLo() {
+        return rowsLo;
+    }
+
+    @Override
+    public int getTimestampIndex() {
+        return timestampIndex;
+    }
+
     @Override
     public boolean isEmpty() {
         return empty;
@@ -84,6 +121,11 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
             @Nullable RecordSink partitionBySink,
             @Transient @Nullable ColumnTypes partitionByKeyTypes,
             boolean ordered,
+            @Nullable CharSequence orderBy,
+            int framingMode,
+            long rowsLo,
+            long rowsHi,
+            int timestampIndex,
             boolean baseSupportsRandomAccess
     ) {
         this.empty = false;
@@ -91,6 +133,11 @@ public class AnalyticContextImpl implements AnalyticContext, Mutable {
         this.partitionBySink = partitionBySink;
         this.partitionByKeyTypes = partitionByKeyTypes;
         this.ordered = ordered;
+        this.orderBy = orderBy;
+        this.framingMode = framingMode;
+        this.rowsLo = rowsLo;
+        this.rowsHi = rowsHi;
+        this.timestampIndex = timestampIndex;
         this.baseSupportsRandomAccess = baseSupportsRandomAccess;
     }
 }
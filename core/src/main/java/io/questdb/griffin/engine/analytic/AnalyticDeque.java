@@ -0,0 +1,152 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Mutable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+import java.io.Closeable;
+
+/**
+ * Off-heap double-ended queues of (long key, double value) entries, one per analytic
+ * function partition. All queues share a single memory region. Each queue is a ring buffer
+ * that doubles its capacity when full. The ring's offset, capacity, head and size are kept in
+ * {@link #SLOT_COUNT} consecutive long columns of the partition's map value.
+ * <p>
+ * The memory of grown-out rings is not reused until the queues are cleared, which keeps the
+ * bookkeeping trivial at the cost of at most doubling the footprint.
+ */
+public class AnalyticDeque implements Closeable, Mutable {
+    public static final int SLOT_COUNT = 4;
+    private static final long ENTRY_SIZE = 16;
+    private static final int SLOT_CAPACITY = 1;
+    private static final int SLOT_HEAD = 2;
+    private static final int SLOT_OFFSET = 0;
+    private static final int SLOT_SIZE = 3;
+    private final long initialCapacity;
+    private final MemoryCARW memory;
+
+    public AnalyticDeque(long pageSize, int maxPages, long initialCapacity) {
+        this.memory = Vm.getCARWInstance(pageSize, maxPages, MemoryTag.NATIVE_DEFAULT);
+        this.initialCapacity = initialCapacity;
+    }
+
+    public static void addValueTypes(ArrayColumnTypes types) {
+        for (int i = 0; i < SLOT_COUNT; i++) {
+            types.add(ColumnType.LONG);
+        }
+    }
+
+    public void addLast(MapValue value, int slot, long key, double val) {
+        long capacity = value.getLong(slot + SLOT_CAPACITY);
+        final long size = value.getLong(slot + SLOT_SIZE);
+        if (size == capacity) {
+            capacity = grow(value, slot, capacity, size);
+        }
+        final long address = entryAddress(value, slot, capacity, size);
+        Unsafe.getUnsafe().putLong(address, key);
+        Unsafe.getUnsafe().putDouble(address + Long.BYTES, val);
+        value.putLong(slot + SLOT_SIZE, size + 1);
+    }
+
+    @Override
+    public void clear() {
+        memory.truncate();
+    }
+
+    @Override
+    public void close() {
+        memory.close();
+    }
+
+    public long firstKey(MapValue value, int slot) {
+        return Unsafe.getUnsafe().getLong(entryAddress(value, slot, value.getLong(slot + SLOT_CAPACITY), 0));
+    }
+
+    public double firstValue(MapValue value, int slot) {
+        return Unsafe.getUnsafe().getDouble(entryAddress(value, slot, value.getLong(slot + SLOT_CAPACITY), 0) + Long.BYTES);
+    }
+
+    /**
+     * Initialises an empty queue for a new partition. The ring is allocated on the first insert.
+     */
+    public void init(MapValue value, int slot) {
+        value.putLong(slot + SLOT_OFFSET, 0);
+        value.putLong(slot + SLOT_CAPACITY, 0);
+        value.putLong(slot + SLOT_HEAD, 0);
+        value.putLong(slot + SLOT_SIZE, 0);
+    }
+
+    public double lastValue(MapValue value, int slot) {
+        final long size = value.getLong(slot + SLOT_SIZE);
+        return Unsafe.getUnsafe().getDouble(entryAddress(value, slot, value.getLong(slot + SLOT_CAPACITY), size - 1) + Long.BYTES);
+    }
+
+    public void removeFirst(MapValue value, int slot) {
+        final long capacity = value.getLong(slot + SLOT_CAPACITY);
+        value.putLong(slot + SLOT_HEAD, (value.getLong(slot + SLOT_HEAD) + 1) % capacity);
+        value.putLong(slot + SLOT_SIZE, value.getLong(slot + SLOT_SIZE) - 1);
+    }
+
+    public void removeLast(MapValue value, int slot) {
+        value.putLong(slot + SLOT_SIZE, value.getLong(slot + SLOT_SIZE) - 1);
+    }
+
+    public long size(MapValue value, int slot) {
+        return value.getLong(slot + SLOT_SIZE);
+    }
+
+    private long entryAddress(MapValue value, int slot, long capacity, long index) {
+        final long position = (value.getLong(slot + SLOT_HEAD) + index) % capacity;
+        return memory.addressOf(value.getLong(slot + SLOT_OFFSET) + position * ENTRY_SIZE);
+    }
+
+    private long grow(MapValue value, int slot, long capacity, long size) {
+        final long newCapacity = Math.max(initialCapacity, capacity * 2);
+        final long newOffset = memory.getAppendOffset();
+        final long dst = memory.appendAddressFor(newCapacity * ENTRY_SIZE);
+        if (size > 0) {
+            // copy both parts of the ring so that the head ends up at the start of the new ring
+            final long head = value.getLong(slot + SLOT_HEAD);
+            final long src = memory.addressOf(value.getLong(slot + SLOT_OFFSET));
+            final long headCount = Math.min(size, capacity - head);
+            Vect.memcpy(dst, src + head * ENTRY_SIZE, headCount * ENTRY_SIZE);
+            if (headCount < size) {
+                Vect.memcpy(dst + headCount * ENTRY_SIZE, src, (size - headCount) * ENTRY_SIZE);
+            }
+        }
+        value.putLong(slot + SLOT_OFFSET, newOffset);
+        value.putLong(slot + SLOT_CAPACITY, newCapacity);
+        value.putLong(slot + SLOT_HEAD, 0);
+        return newCapacity;
+    }
+}
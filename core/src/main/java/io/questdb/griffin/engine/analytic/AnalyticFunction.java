@@ -33,15 +33,65 @@ import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
 import io.questdb.std.IntList;
 
 public interface AnalyticFunction extends Function {
-    int STREAM = 1;
+    int ONE_PASS = 1;
     int THREE_PASS = 3;
     int TWO_PASS = 2;
+    int ZERO_PASS = 0;
+
+    /**
+     * Updates function state with the given record. Once the method returns, the value of the function for
+     * that record is available via the relevant getter. Only functions that report {@link #ZERO_PASS}
+     * implement this method, which allows computing them while streaming rows out of the base cursor.
+     *
+     * @param record current record
+     */
+    default void computeNext(Record record) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Makes the value of the given record available via the relevant getter of a {@link #isPeerAware()}
+     * function. Called once {@link #computeNext(Record)} has seen the record and all of its peers.
+     *
+     * @param record current record
+     */
+    default void computePeerValue(Record record) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Called once {@link #pass1(Record, long, AnalyticSPI)} has seen all records, before any
+     * {@link #pass2(Record, long, AnalyticSPI)}. Lets functions write values they were still
+     * waiting on, e.g. for rows whose last peer came last in the partition.
+     *
+     * @param spi records passed to pass1
+     */
+    default void finishPass1(AnalyticSPI spi) {
+    }
+
+    /**
+     * @return number of passes over the cached records the function requires, {@link #ZERO_PASS} means
+     * that the value is known as soon as the row is seen and the function supports {@link #computeNext(Record)}
+     */
+    default int getPassCount() {
+        return ONE_PASS;
+    }
+
+    /**
+     * @return true when the frame of a row extends to its last peer, i.e. the last row with the same
+     * ORDER BY values. Such function is always given a record comparator for its ORDER BY clause
+     * and, when streamed, the value of a row is known once all of its
+     * peers have been passed to {@link #computeNext(Record)}, see {@link #computePeerValue(Record)}.
+     */
+    default boolean isPeerAware() {
+        return false;
+    }
 
     void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order);
 
     void pass1(Record record, long recordOffset, AnalyticSPI spi);
 
-    void pass2(Record record);
+    void pass2(Record record, long recordOffset, AnalyticSPI spi);
 
     void preparePass2(RecordCursor cursor);
 
@@ -0,0 +1,248 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.analytic;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.AbstractVirtualFunctionRecordCursor;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+/**
+ * Computes analytic functions while streaming rows out of the base cursor, without caching
+ * the result set. Used when all analytic functions are ordered the same way as the base cursor,
+ * i.e. by the designated timestamp, and their value is known as soon as the row is seen,
+ * see {@link AnalyticFunction#ZERO_PASS}.
+ * <p>
+ * Values of {@link AnalyticFunction#isPeerAware()} functions are only known once the last row with
+ * the same timestamp has been seen. Row ids of such peer groups are buffered and the rows are
+ * revisited via random access before they are returned.
+ */
+public class AnalyticRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final ObjList<AnalyticFunction> analyticFunctions;
+    private final RecordCursorFactory base;
+    private final AnalyticRecordCursor cursor;
+    private final ObjList<Function> functions;
+    private final ObjList<AnalyticFunction> peerAwareFunctions = new ObjList<>();
+    private final ObjList<AnalyticFunction> rowFunctions = new ObjList<>();
+    private final int timestampIndex;
+
+    public AnalyticRecordCursorFactory(
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            ObjList<Function> functions,
+            ObjList<AnalyticFunction> analyticFunctions,
+            int timestampIndex
+    ) {
+        super(metadata);
+        this.base = base;
+        this.functions = functions;
+        this.analyticFunctions = analyticFunctions;
+        this.timestampIndex = timestampIndex;
+        for (int i = 0, n = analyticFunctions.size(); i < n; i++) {
+            final AnalyticFunction function = analyticFunctions.getQuick(i);
+            if (function.isPeerAware()) {
+                peerAwareFunctions.add(function);
+            } else {
+                rowFunctions.add(function);
+            }
+        }
+        this.cursor = new AnalyticRecordCursor(functions);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Analytic");
+        sink.optAttr("functions", analyticFunctions, true);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(cursor);
+        Misc.freeObjList(functions);
+        Misc.free(base);
+    }
+
+    private class AnalyticRecordCursor extends AbstractVirtualFunctionRecordCursor {
+        private final int analyticFunctionCount;
+        private final int peerAwareFunctionCount;
+        // row ids of the current peer group, null when there are no peer-aware functions
+        private final DirectLongList peerRows;
+        private final int rowFunctionCount;
+        private boolean isBaseExhausted;
+        private boolean isOpen;
+        private long nextGroupRowId;
+        private long peerRowIndex;
+
+        public AnalyticRecordCursor(ObjList<Function> functions) {
+            super(functions, false);
+            this.analyticFunctionCount = analyticFunctions.size();
+            this.peerAwareFunctionCount = peerAwareFunctions.size();
+            this.rowFunctionCount = rowFunctions.size();
+            this.peerRows = peerAwareFunctionCount > 0 ? new DirectLongList(16, MemoryTag.NATIVE_LONG_LIST) : null;
+            this.isOpen = true;
+        }
+
+        @Override
+        public void close() {
+            if (isOpen) {
+                super.close();
+                for (int i = 0; i < analyticFunctionCount; i++) {
+                    analyticFunctions.getQuick(i).reset();
+                }
+                Misc.free(peerRows);
+                isOpen = false;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (peerRows == null) {
+                if (baseCursor.hasNext()) {
+                    for (int i = 0; i < analyticFunctionCount; i++) {
+                        analyticFunctions.getQuick(i).computeNext(recordA.getBaseRecord());
+                    }
+                    return true;
+                }
+                return false;
+            }
+
+            if (peerRowIndex == peerRows.size() && !nextPeerGroup()) {
+                return false;
+            }
+            final Record baseRecord = recordA.getBaseRecord();
+            baseCursor.recordAt(baseRecord, peerRows.get(peerRowIndex++));
+            for (int i = 0; i < rowFunctionCount; i++) {
+                rowFunctions.getQuick(i).computeNext(baseRecord);
+            }
+            for (int i = 0; i < peerAwareFunctionCount; i++) {
+                peerAwareFunctions.getQuick(i).computePeerValue(baseRecord);
+            }
+            return true;
+        }
+
+        @Override
+        public void toTop() {
+            super.toTop();
+            resetPeerGroup();
+        }
+
+        // reads rows up to the next change of the timestamp, feeding them to peer-aware functions
+        private boolean nextPeerGroup() {
+            if (isBaseExhausted) {
+                return false;
+            }
+            final Record baseRecord = recordA.getBaseRecord();
+            if (nextGroupRowId != -1) {
+                // the previous group has moved the record away from the first row of this group
+                baseCursor.recordAt(baseRecord, nextGroupRowId);
+            } else if (!baseCursor.hasNext()) {
+                isBaseExhausted = true;
+                return false;
+            }
+
+            peerRows.clear();
+            peerRowIndex = 0;
+            final long timestamp = baseRecord.getTimestamp(timestampIndex);
+            do {
+                peerRows.add(baseRecord.getRowId());
+                for (int i = 0; i < peerAwareFunctionCount; i++) {
+                    peerAwareFunctions.getQuick(i).computeNext(baseRecord);
+                }
+                if (!baseCursor.hasNext()) {
+                    isBaseExhausted = true;
+                    return true;
+                }
+            } while (baseRecord.getTimestamp(timestampIndex) == timestamp);
+            nextGroupRowId = baseRecord.getRowId();
+            return true;
+        }
+
+        private void resetPeerGroup() {
+            if (peerRows != null) {
+                peerRows.clear();
+            }
+            peerRowIndex = 0;
+            nextGroupRowId = -1;
+            isBaseExhausted = false;
+        }
+
+        private void of(RecordCursor baseCursor, SqlExecutionContext executionContext) throws SqlException {
+            if (!isOpen) {
+                if (peerRows != null) {
+                    peerRows.reopen();
+                }
+                for (int i = 0; i < analyticFunctionCount; i++) {
+                    final AnalyticFunction function = analyticFunctions.getQuick(i);
+                    if (function instanceof Reopenable) {
+                        ((Reopenable) function).reopen();
+                    }
+                }
+                isOpen = true;
+            }
+            of(baseCursor);
+            resetPeerGroup();
+            Function.init(functions, baseCursor, executionContext);
+        }
+    }
+}
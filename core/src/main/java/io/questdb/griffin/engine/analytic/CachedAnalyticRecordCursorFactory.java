@@ -43,6 +43,7 @@ import org.jetbrains.annotations.Nullable;
 public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFactory {
     private final ObjList<AnalyticFunction> allFunctions;
     private final RecordCursorFactory base;
+    private final IntList columnIndexes;
     private final ObjList<RecordComparator> comparators;
     private final CachedAnalyticRecordCursor cursor;
     private final ObjList<ObjList<AnalyticFunction>> orderedFunctions;
@@ -68,6 +69,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
         assert orderedGroupCount == orderedFunctions.size();
         this.orderedFunctions = orderedFunctions;
         this.comparators = comparators;
+        this.columnIndexes = columnIndexes;
         RecordChain recordChain = new RecordChain(
                 chainMetadata,
                 recordSink,
@@ -101,6 +103,12 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
         this.unorderedFunctions = unorderedFunctions;
     }
 
+    @Override
+    public String getBaseColumnName(int idx) {
+        // function arguments reference columns of the record chain
+        return base.getMetadata().getColumnName(columnIndexes.getQuick(idx));
+    }
+
     @Override
     public RecordCursorFactory getBaseFactory() {
         return base;
@@ -109,8 +117,13 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
         final RecordCursor baseCursor = base.getCursor(executionContext);
-        cursor.of(baseCursor, executionContext);
-        return cursor;
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable th) {
+            cursor.close();
+            throw th;
+        }
     }
 
     @Override
@@ -121,7 +134,7 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
     @Override
     public void toPlan(PlanSink sink) {
         sink.type("CachedAnalytic");
-        sink.optAttr("functions", allFunctions);
+        sink.optAttr("functions", allFunctions, true);
         sink.child(base);
     }
 
@@ -273,10 +286,27 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
                 }
             }
 
+            for (int i = 0, n = allFunctions.size(); i < n; i++) {
+                allFunctions.getQuick(i).finishPass1(recordChain);
+            }
+
+            // run pass2 for functions that need to see the whole partition before they know any of the values
+            for (int i = 0, n = allFunctions.size(); i < n; i++) {
+                final AnalyticFunction f = allFunctions.getQuick(i);
+                if (f.getPassCount() == AnalyticFunction.TWO_PASS) {
+                    f.preparePass2(recordChain);
+                    recordChain.toTop();
+                    while (recordChain.hasNext()) {
+                        circuitBreaker.statefulThrowExceptionIfTripped();
+                        f.pass2(chainRecord, chainRecord.getRowId(), recordChain);
+                    }
+                }
+            }
+
             recordChain.toTop();
         }
 
-        private void of(RecordCursor base, SqlExecutionContext context) {
+        private void of(RecordCursor base, SqlExecutionContext context) throws SqlException {
             this.base = base;
             if (!isOpen) {
                 recordChain.reopen();
@@ -285,6 +315,8 @@ public class CachedAnalyticRecordCursorFactory extends AbstractRecordCursorFacto
                 reopen(allFunctions);
                 isOpen = true;
             }
+            // function arguments reference chain columns, the cursor maps them to the base symbol tables
+            Function.init(allFunctions, this, context);
             buildRecordChain(context);
         }
 
@@ -0,0 +1,496 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.TableToken;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.FunctionFactoryCache;
+import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.griffin.model.QueryColumn;
+import io.questdb.griffin.model.QueryModel;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Server-wide cache of materialized SELECT results. Results are keyed by normalized SQL text
+ * and bind variable values and are stored off-heap along with the transaction numbers of all
+ * tables the query reads. A cached result is only served while none of these tables has
+ * committed since, so commits invalidate dependent results implicitly. Transaction numbers
+ * are read from transaction files on each execution, without opening table readers. Once
+ * the memory limit is exceeded, the least recently used results are evicted.
+ * <p>
+ * Queries are cached only when they read at least one table and contain neither table
+ * functions nor functions that return a different value on each call, such as rnd_*(),
+ * nor runtime constants, which depend on the session or the time of execution, such as
+ * now() or current_user().
+ */
+public class ResultCache implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(ResultCache.class);
+    private static final LowerCaseCharSequenceHashSet volatileFunctions = new LowerCaseCharSequenceHashSet();
+    private final CairoConfiguration configuration;
+    private final CairoEngine engine;
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final ResultCacheMetrics metrics;
+    // the most recently used entry
+    private Entry head;
+    private long memoryUsed;
+    // the least recently used entry
+    private Entry tail;
+
+    public ResultCache(CairoEngine engine, CairoConfiguration configuration, ResultCacheMetrics metrics) {
+        this.engine = engine;
+        this.configuration = configuration;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public synchronized void clear() {
+        while (tail != null) {
+            remove(tail);
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public long getMaxEntrySize() {
+        return Math.min(configuration.getSqlResultCacheMaxEntrySize(), configuration.getSqlResultCacheMemoryLimit());
+    }
+
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    public ResultCacheMetrics getMetrics() {
+        return metrics;
+    }
+
+    public long getPageSize() {
+        return configuration.getSqlResultCachePageSize();
+    }
+
+    public boolean isEnabled() {
+        return configuration.isSqlResultCacheEnabled();
+    }
+
+    /**
+     * Wraps factory of a compiled SELECT query into a factory that serves results from this cache.
+     * The factory is returned as is when the query or its result can't be cached.
+     *
+     * @param asm                  bytecode assembler to generate record sink with
+     * @param functionFactoryCache functions the query was compiled with
+     * @param factory              factory of the query
+     * @param model                optimised model of the query
+     * @param sql                  text the query was compiled from
+     * @param lo                   position of the first character of the query in the text
+     * @param hi                   position after the last character of the query in the text
+     * @return factory that caches results of the query or the given factory
+     */
+    public RecordCursorFactory wrap(
+            BytecodeAssembler asm,
+            FunctionFactoryCache functionFactoryCache,
+            RecordCursorFactory factory,
+            QueryModel model,
+            CharSequence sql,
+            int lo,
+            int hi
+    ) {
+        if (!isSupported(factory.getMetadata()) || hasVolatileCall(functionFactoryCache, sql, lo, hi)) {
+            return factory;
+        }
+        final ObjList<TableToken> tableTokens = new ObjList<>();
+        if (!collectTables(functionFactoryCache, model, tableTokens) || tableTokens.size() == 0) {
+            return factory;
+        }
+        return new ResultCacheRecordCursorFactory(this, asm, factory, normalize(sql, lo, hi), tableTokens);
+    }
+
+    private static boolean isSupported(RecordMetadata metadata) {
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            switch (ColumnType.tagOf(metadata.getColumnType(i))) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                case ColumnType.STRING:
+                case ColumnType.SYMBOL:
+                case ColumnType.BINARY:
+                case ColumnType.LONG256:
+                case ColumnType.LONG128:
+                case ColumnType.GEOBYTE:
+                case ColumnType.GEOSHORT:
+                case ColumnType.GEOINT:
+                case ColumnType.GEOLONG:
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasVolatileCall(FunctionFactoryCache functionFactoryCache, CharSequence sql, int lo, int hi) {
+        // the optimiser may move filters out of the model, e.g. into timestamp intervals,
+        // so volatile calls are also looked up in the query text
+        char quote = 0;
+        int tokenLo = -1;
+        for (int i = lo; i < hi; i++) {
+            final char c = sql.charAt(i);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+                continue;
+            }
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                if (tokenLo == -1) {
+                    tokenLo = i;
+                }
+                continue;
+            }
+            if (tokenLo != -1) {
+                int j = i;
+                while (j < hi && Character.isWhitespace(sql.charAt(j))) {
+                    j++;
+                }
+                if (j < hi && sql.charAt(j) == '(' && isVolatile(functionFactoryCache, sql.subSequence(tokenLo, i))) {
+                    return true;
+                }
+                tokenLo = -1;
+            }
+            if (c == '\'' || c == '"') {
+                quote = c;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isVolatile(FunctionFactoryCache functionFactoryCache, CharSequence functionName) {
+        return volatileFunctions.contains(functionName)
+                || functionFactoryCache.isRuntimeConstant(functionName)
+                || (functionName.length() > 4 && Chars.equalsLowerCaseAscii(functionName, 0, 4, "rnd_", 0, 4));
+    }
+
+    private static String normalize(CharSequence sql, int lo, int hi) {
+        // collapse whitespace outside of quoted literals and identifiers, so that
+        // differently formatted copies of the same query share the cached result
+        final StringSink sink = Misc.getThreadLocalBuilder();
+        char quote = 0;
+        boolean space = false;
+        for (int i = lo; i < hi; i++) {
+            final char c = sql.charAt(i);
+            if (quote == 0 && Character.isWhitespace(c)) {
+                space = sink.length() > 0;
+                continue;
+            }
+            if (space) {
+                sink.put(' ');
+                space = false;
+            }
+            if (quote == 0) {
+                if (c == '\'' || c == '"') {
+                    quote = c;
+                }
+            } else if (c == quote) {
+                quote = 0;
+            }
+            sink.put(c);
+        }
+        int len = sink.length();
+        while (len > 0 && (sink.charAt(len - 1) == ';' || sink.charAt(len - 1) == ' ')) {
+            len--;
+        }
+        sink.clear(len);
+        return sink.toString();
+    }
+
+    private boolean collectTables(FunctionFactoryCache functionFactoryCache, ExpressionNode node, ObjList<TableToken> tableTokens) {
+        if (node == null) {
+            return true;
+        }
+        if (node.queryModel != null && !collectTables(functionFactoryCache, node.queryModel, tableTokens)) {
+            return false;
+        }
+        if (node.type == ExpressionNode.FUNCTION && isVolatile(functionFactoryCache, node.token)) {
+            return false;
+        }
+        if (!collectTables(functionFactoryCache, node.lhs, tableTokens) || !collectTables(functionFactoryCache, node.rhs, tableTokens)) {
+            return false;
+        }
+        return collectTables(functionFactoryCache, node.args, tableTokens);
+    }
+
+    private boolean collectTables(FunctionFactoryCache functionFactoryCache, ObjList<ExpressionNode> nodes, ObjList<TableToken> tableTokens) {
+        for (int i = 0, n = nodes.size(); i < n; i++) {
+            if (!collectTables(functionFactoryCache, nodes.getQuick(i), tableTokens)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean collectTables(FunctionFactoryCache functionFactoryCache, QueryModel model, ObjList<TableToken> tableTokens) {
+        while (model != null) {
+            final ExpressionNode tableNameExpr = model.getTableNameExpr();
+            if (tableNameExpr != null) {
+                if (tableNameExpr.type != ExpressionNode.LITERAL) {
+                    // table functions, e.g. tables() or long_sequence()
+                    return false;
+                }
+                final TableToken tableToken = engine.getTableTokenIfExists(GenericLexer.unquote(tableNameExpr.token));
+                if (tableToken == null) {
+                    return false;
+                }
+                if (tableTokens.indexOf(tableToken) < 0) {
+                    tableTokens.add(tableToken);
+                }
+            }
+
+            final ObjList<QueryColumn> columns = model.getColumns();
+            for (int i = 0, n = columns.size(); i < n; i++) {
+                if (!collectTables(functionFactoryCache, columns.getQuick(i).getAst(), tableTokens)) {
+                    return false;
+                }
+            }
+
+            if (
+                    !collectTables(functionFactoryCache, model.getWhereClause(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getPostJoinWhereClause(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getConstWhereClause(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getOuterJoinExpressionClause(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getJoinCriteria(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getLimitLo(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getLimitHi(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getSampleBy(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getOrderBy(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getGroupBy(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getLatestBy(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getSampleByFill(), tableTokens)
+                            || !collectTables(functionFactoryCache, model.getNestedModel(), tableTokens)
+            ) {
+                return false;
+            }
+
+            final ObjList<QueryModel> joinModels = model.getJoinModels();
+            // the first join model is the model itself
+            for (int i = 1, n = joinModels.size(); i < n; i++) {
+                if (!collectTables(functionFactoryCache, joinModels.getQuick(i), tableTokens)) {
+                    return false;
+                }
+            }
+            model = model.getUnionModel();
+        }
+        return true;
+    }
+
+    private void linkAtHead(Entry entry) {
+        entry.prev = null;
+        entry.next = head;
+        if (head != null) {
+            head.prev = entry;
+        }
+        head = entry;
+        if (tail == null) {
+            tail = entry;
+        }
+    }
+
+    private void moveToHead(Entry entry) {
+        if (entry != head) {
+            unlink(entry);
+            linkAtHead(entry);
+        }
+    }
+
+    private void remove(Entry entry) {
+        unlink(entry);
+        entries.remove(entry.key);
+        memoryUsed -= entry.size;
+        metrics.updateMemoryUsed(-entry.size);
+        entry.removed = true;
+        if (entry.refCount == 0) {
+            entry.free();
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else {
+            tail = entry.prev;
+        }
+        entry.prev = entry.next = null;
+    }
+
+    /**
+     * Looks up result of a query and leases it to the caller. The lease must be returned
+     * via {@link #release(Entry)} once the result is read.
+     *
+     * @param key           query key, see {@link ResultCacheRecordCursorFactory}
+     * @param tableVersions current versions of all tables the query reads
+     * @return cached result or null when there is no result for the current table versions
+     */
+    synchronized Entry acquire(CharSequence key, LongList tableVersions) {
+        final Entry entry = entries.get(key);
+        if (entry != null) {
+            if (entry.tableVersions.equals(tableVersions)) {
+                entry.refCount++;
+                moveToHead(entry);
+                metrics.incrementHits();
+                return entry;
+            }
+            // one of the tables has committed since the result was cached
+            remove(entry);
+            metrics.incrementEvictions();
+        }
+        metrics.incrementMisses();
+        return null;
+    }
+
+    /**
+     * Adds result of a query to the cache. The cache takes ownership of the record chain.
+     * Symbol tables hold values of symbol columns, the chain stores these values as strings.
+     */
+    synchronized void put(
+            String key,
+            LongList tableVersions,
+            RecordChain chain,
+            ObjList<ResultCacheSymbolTable> symbolTables,
+            long size,
+            long rowCount
+    ) {
+        if (size > getMaxEntrySize()) {
+            Misc.free(chain);
+            return;
+        }
+        final Entry existing = entries.get(key);
+        if (existing != null) {
+            remove(existing);
+        }
+        final long memoryLimit = configuration.getSqlResultCacheMemoryLimit();
+        while (memoryUsed + size > memoryLimit && tail != null) {
+            remove(tail);
+            metrics.incrementEvictions();
+        }
+        final Entry entry = new Entry(key, tableVersions, chain, symbolTables, size, rowCount);
+        entries.put(key, entry);
+        linkAtHead(entry);
+        memoryUsed += size;
+        metrics.updateMemoryUsed(size);
+        LOG.debug().$("cached [key=").$(key).$(", rows=").$(rowCount).$(", size=").$(size).I$();
+    }
+
+    /**
+     * Reads versions of the given tables: table id and transaction number of each table.
+     *
+     * @return false when any of the tables can't be read, in which case the query should run uncached
+     */
+    boolean readTableVersions(ObjList<TableToken> tableTokens, LongList tableVersions) {
+        tableVersions.clear();
+        for (int i = 0, n = tableTokens.size(); i < n; i++) {
+            final TableToken tableToken = tableTokens.getQuick(i);
+            final long txn = engine.getTableTxn(tableToken);
+            if (txn < 0) {
+                // the table was dropped or renamed, the query itself reports the error
+                return false;
+            }
+            tableVersions.add(tableToken.getTableId());
+            tableVersions.add(txn);
+        }
+        return true;
+    }
+
+    synchronized void release(Entry entry) {
+        if (--entry.refCount == 0 && entry.removed) {
+            entry.free();
+        }
+    }
+
+    static class Entry {
+        final RecordChain chain;
+        final String key;
+        final long rowCount;
+        final long size;
+        // indexed by column, null for non-symbol columns
+        final ObjList<ResultCacheSymbolTable> symbolTables;
+        final LongList tableVersions;
+        Entry next;
+        Entry prev;
+        int refCount;
+        boolean removed;
+
+        Entry(
+                String key,
+                LongList tableVersions,
+                RecordChain chain,
+                ObjList<ResultCacheSymbolTable> symbolTables,
+                long size,
+                long rowCount
+        ) {
+            this.key = key;
+            this.tableVersions = tableVersions;
+            this.chain = chain;
+            this.symbolTables = symbolTables;
+            this.size = size;
+            this.rowCount = rowCount;
+        }
+
+        void free() {
+            Misc.free(chain);
+        }
+    }
+
+    static {
+        volatileFunctions.add("now");
+        volatileFunctions.add("sysdate");
+        volatileFunctions.add("systimestamp");
+    }
+}
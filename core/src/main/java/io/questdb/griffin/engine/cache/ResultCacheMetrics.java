@@ -0,0 +1,76 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.metrics.Counter;
+import io.questdb.metrics.Gauge;
+import io.questdb.metrics.MetricsRegistry;
+
+public class ResultCacheMetrics {
+
+    private final Counter evictionCounter;
+    private final Counter hitCounter;
+    private final Gauge memoryGauge;
+    private final Counter missCounter;
+
+    public ResultCacheMetrics(MetricsRegistry metricsRegistry) {
+        this.hitCounter = metricsRegistry.newCounter("result_cache_hits");
+        this.missCounter = metricsRegistry.newCounter("result_cache_misses");
+        this.evictionCounter = metricsRegistry.newCounter("result_cache_evictions");
+        this.memoryGauge = metricsRegistry.newGauge("result_cache_memory");
+    }
+
+    public long getEvictionCount() {
+        return evictionCounter.getValue();
+    }
+
+    public long getHitCount() {
+        return hitCounter.getValue();
+    }
+
+    public long getMemoryUsed() {
+        return memoryGauge.getValue();
+    }
+
+    public long getMissCount() {
+        return missCounter.getValue();
+    }
+
+    public void incrementEvictions() {
+        evictionCounter.inc();
+    }
+
+    public void incrementHits() {
+        hitCounter.inc();
+    }
+
+    public void incrementMisses() {
+        missCounter.inc();
+    }
+
+    public void updateMemoryUsed(long delta) {
+        memoryGauge.add(delta);
+    }
+}
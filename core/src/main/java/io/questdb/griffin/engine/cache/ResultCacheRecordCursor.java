@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.DirectCharSequence;
+
+/**
+ * Reads result of a query from the cache. The cached record chain is never modified once
+ * it is in the cache, so records read it directly and don't share any state with the chain
+ * or other cursors. This allows several connections to read the same result concurrently.
+ */
+class ResultCacheRecordCursor implements RecordCursor {
+    private final ResultCache cache;
+    private final ResultCacheRecord recordA = new ResultCacheRecord();
+    private final ResultCacheRecord recordB = new ResultCacheRecord();
+    private RecordChain chain;
+    private ResultCache.Entry entry;
+    private long nextRecordOffset;
+
+    ResultCacheRecordCursor(ResultCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public void close() {
+        if (entry != null) {
+            cache.release(entry);
+            entry = null;
+            chain = null;
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return entry.symbolTables.getQuiet(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRecordOffset != -1) {
+            recordA.of(nextRecordOffset);
+            nextRecordOffset = Unsafe.getUnsafe().getLong(chain.addressOf(nextRecordOffset));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        // cached symbol tables are immutable and can be shared
+        return entry.symbolTables.getQuiet(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((ResultCacheRecord) record).of(atRowId);
+    }
+
+    @Override
+    public long size() {
+        return entry.rowCount;
+    }
+
+    @Override
+    public void toTop() {
+        nextRecordOffset = entry.rowCount > 0 ? 0 : -1;
+    }
+
+    ResultCacheRecordCursor of(ResultCache.Entry entry) {
+        this.entry = entry;
+        this.chain = entry.chain;
+        toTop();
+        return this;
+    }
+
+    private class ResultCacheRecord implements Record {
+        private final DirectBinarySequence binView = new DirectBinarySequence();
+        private final Long256Impl long256A = new Long256Impl();
+        private final Long256Impl long256B = new Long256Impl();
+        private final DirectCharSequence strViewA = new DirectCharSequence();
+        private final DirectCharSequence strViewB = new DirectCharSequence();
+        private long recordOffset;
+
+        @Override
+        public BinarySequence getBin(int col) {
+            final long address = chain.getVarAddress(recordOffset, col);
+            if (address == 0) {
+                return null;
+            }
+            final long len = Unsafe.getUnsafe().getLong(address);
+            return len < 0 ? null : binView.of(address + Long.BYTES, len);
+        }
+
+        @Override
+        public long getBinLen(int col) {
+            final long address = chain.getVarAddress(recordOffset, col);
+            return address == 0 ? TableUtils.NULL_LEN : Unsafe.getUnsafe().getLong(address);
+        }
+
+        @Override
+        public boolean getBool(int col) {
+            return Unsafe.getUnsafe().getByte(chain.getAddress(recordOffset, col)) == 1;
+        }
+
+        @Override
+        public byte getByte(int col) {
+            return Unsafe.getUnsafe().getByte(chain.getAddress(recordOffset, col));
+        }
+
+        @Override
+        public char getChar(int col) {
+            return Unsafe.getUnsafe().getChar(chain.getAddress(recordOffset, col));
+        }
+
+        @Override
+        public long getDate(int col) {
+            return getLong(col);
+        }
+
+        @Override
+        public double getDouble(int col) {
+            return Unsafe.getUnsafe().getDouble(chain.getAddress(recordOffset, col));
+        }
+
+        @Override
+        public float getFloat(int col) {
+            return Unsafe.getUnsafe().getFloat(chain.getAddress(recordOffset, col));
+        }
+
+        @Override
+        public byte getGeoByte(int col) {
+            return getByte(col);
+        }
+
+        @Override
+        public int getGeoInt(int col) {
+            return getInt(col);
+        }
+
+        @Override
+        public long getGeoLong(int col) {
+            return getLong(col);
+        }
+
+        @Override
+        public short getGeoShort(int col) {
+            return getShort(col);
+        }
+
+        @Override
+        public int getInt(int col) {
+            final ResultCacheSymbolTable symbolTable = entry.symbolTables.getQuiet(col);
+            if (symbolTable != null) {
+                return symbolTable.keyOf(getStr(col, strViewA));
+            }
+            return Unsafe.getUnsafe().getInt(chain.getAddress(recordOffset, col));
+        }
+
+        @Override
+        public long getLong(int col) {
+            return Unsafe.getUnsafe().getLong(chain.getAddress(recordOffset, col));
+        }
+
+        @Override
+        public long getLong128Hi(int col) {
+            return Unsafe.getUnsafe().getLong(chain.getAddress(recordOffset, col) + Long.BYTES);
+        }
+
+        @Override
+        public long getLong128Lo(int col) {
+            return Unsafe.getUnsafe().getLong(chain.getAddress(recordOffset, col));
+        }
+
+        @Override
+        public void getLong256(int col, CharSink sink) {
+            final long address = chain.getAddress(recordOffset, col);
+            Numbers.appendLong256(
+                    Unsafe.getUnsafe().getLong(address),
+                    Unsafe.getUnsafe().getLong(address + Long.BYTES),
+                    Unsafe.getUnsafe().getLong(address + 2 * Long.BYTES),
+                    Unsafe.getUnsafe().getLong(address + 3 * Long.BYTES),
+                    sink
+            );
+        }
+
+        @Override
+        public Long256 getLong256A(int col) {
+            return getLong256(col, long256A);
+        }
+
+        @Override
+        public Long256 getLong256B(int col) {
+            return getLong256(col, long256B);
+        }
+
+        @Override
+        public long getRowId() {
+            return recordOffset;
+        }
+
+        @Override
+        public short getShort(int col) {
+            return Unsafe.getUnsafe().getShort(chain.getAddress(recordOffset, col));
+        }
+
+        @Override
+        public CharSequence getStr(int col) {
+            return getStr(col, strViewA);
+        }
+
+        @Override
+        public CharSequence getStrB(int col) {
+            return getStr(col, strViewB);
+        }
+
+        @Override
+        public int getStrLen(int col) {
+            final long address = chain.getVarAddress(recordOffset, col);
+            return address == 0 ? TableUtils.NULL_LEN : Unsafe.getUnsafe().getInt(address);
+        }
+
+        // symbols are cached as strings, keys are looked up in symbol tables of the entry
+        @Override
+        public CharSequence getSym(int col) {
+            return getStr(col, strViewA);
+        }
+
+        @Override
+        public CharSequence getSymB(int col) {
+            return getStr(col, strViewB);
+        }
+
+        @Override
+        public long getTimestamp(int col) {
+            return getLong(col);
+        }
+
+        private Long256 getLong256(int col, Long256Impl long256) {
+            final long address = chain.getAddress(recordOffset, col);
+            long256.setAll(
+                    Unsafe.getUnsafe().getLong(address),
+                    Unsafe.getUnsafe().getLong(address + Long.BYTES),
+                    Unsafe.getUnsafe().getLong(address + 2 * Long.BYTES),
+                    Unsafe.getUnsafe().getLong(address + 3 * Long.BYTES)
+            );
+            return long256;
+        }
+
+        private CharSequence getStr(int col, DirectCharSequence view) {
+            final long address = chain.getVarAddress(recordOffset, col);
+            if (address == 0) {
+                return null;
+            }
+            final int len = Unsafe.getUnsafe().getInt(address);
+            if (len == TableUtils.NULL_LEN) {
+                return null;
+            }
+            final long lo = address + Integer.BYTES;
+            return view.of(lo, lo + 2L * len);
+        }
+
+        private void of(long recordOffset) {
+            this.recordOffset = recordOffset;
+        }
+    }
+}
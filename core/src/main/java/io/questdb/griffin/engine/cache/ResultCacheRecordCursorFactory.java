@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Serves results of a SELECT query from {@link ResultCache}. The cache key is normalized query
+ * text followed by the values of bind variables. On a miss the query runs as usual and its
+ * records are copied to the cache as the caller reads them.
+ */
+public class ResultCacheRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final ResultCache cache;
+    private final ResultCacheRecordCursor cachedCursor;
+    private final StringSink keySink = new StringSink();
+    private final ResultCacheRecordingCursor recordingCursor;
+    private final String sql;
+    private final ObjList<TableToken> tableTokens;
+    private final LongList tableVersions = new LongList();
+
+    public ResultCacheRecordCursorFactory(
+            ResultCache cache,
+            BytecodeAssembler asm,
+            RecordCursorFactory base,
+            String sql,
+            ObjList<TableToken> tableTokens
+    ) {
+        super(base.getMetadata());
+        this.cache = cache;
+        this.base = base;
+        this.sql = sql;
+        this.tableTokens = tableTokens;
+
+        final RecordMetadata metadata = base.getMetadata();
+        final ArrayColumnTypes chainColumnTypes = new ArrayColumnTypes();
+        final IntList symbolColumns = new IntList();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int type = metadata.getColumnType(i);
+            // symbol tables belong to table readers, so symbols are cached as strings
+            // along with own symbol tables of the result
+            if (ColumnType.isSymbol(type)) {
+                chainColumnTypes.add(ColumnType.STRING);
+                symbolColumns.add(i);
+            } else {
+                chainColumnTypes.add(type);
+            }
+        }
+        final EntityColumnFilter columnFilter = new EntityColumnFilter();
+        columnFilter.of(metadata.getColumnCount());
+        final RecordSink recordSink = RecordSinkFactory.getInstance(asm, metadata, columnFilter, true);
+        this.cachedCursor = new ResultCacheRecordCursor(cache);
+        this.recordingCursor = new ResultCacheRecordingCursor(cache, chainColumnTypes, recordSink, symbolColumns);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        if (!buildKey(executionContext.getBindVariableService()) || !cache.readTableVersions(tableTokens, tableVersions)) {
+            return base.getCursor(executionContext);
+        }
+        final ResultCache.Entry entry = cache.acquire(keySink, tableVersions);
+        if (entry != null) {
+            return cachedCursor.of(entry);
+        }
+        final RecordCursor baseCursor = base.getCursor(executionContext);
+        // the versions are read before the query runs, so a commit racing with the query
+        // can only make the cached result look older than it is
+        final LongList versions = new LongList(tableVersions.size());
+        versions.add(tableVersions);
+        return recordingCursor.of(baseCursor, keySink.toString(), versions);
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Result Cache");
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private boolean appendBindVariable(Function function) {
+        if (function == null) {
+            keySink.put("null");
+            return true;
+        }
+        final int type = function.getType();
+        keySink.put(type).put(':');
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                keySink.put(function.getBool(null));
+                break;
+            case ColumnType.BYTE:
+                keySink.put(function.getByte(null));
+                break;
+            case ColumnType.SHORT:
+                keySink.put(function.getShort(null));
+                break;
+            case ColumnType.CHAR:
+                keySink.put((int) function.getChar(null));
+                break;
+            case ColumnType.INT:
+                keySink.put(function.getInt(null));
+                break;
+            case ColumnType.LONG:
+                keySink.put(function.getLong(null));
+                break;
+            case ColumnType.DATE:
+                keySink.put(function.getDate(null));
+                break;
+            case ColumnType.TIMESTAMP:
+                keySink.put(function.getTimestamp(null));
+                break;
+            case ColumnType.FLOAT:
+                keySink.put(Float.floatToRawIntBits(function.getFloat(null)));
+                break;
+            case ColumnType.DOUBLE:
+                keySink.put(Double.doubleToRawLongBits(function.getDouble(null)));
+                break;
+            case ColumnType.GEOBYTE:
+                keySink.put(function.getGeoByte(null));
+                break;
+            case ColumnType.GEOSHORT:
+                keySink.put(function.getGeoShort(null));
+                break;
+            case ColumnType.GEOINT:
+                keySink.put(function.getGeoInt(null));
+                break;
+            case ColumnType.GEOLONG:
+                keySink.put(function.getGeoLong(null));
+                break;
+            case ColumnType.STRING:
+                final CharSequence value = function.getStr(null);
+                if (value == null) {
+                    keySink.put("null");
+                } else {
+                    // length prefix keeps keys unambiguous whatever the string contains
+                    keySink.put(value.length()).put(':').put(value);
+                }
+                break;
+            case ColumnType.LONG256:
+                final Long256 long256 = function.getLong256A(null);
+                keySink.put(long256.getLong0()).put(',')
+                        .put(long256.getLong1()).put(',')
+                        .put(long256.getLong2()).put(',')
+                        .put(long256.getLong3());
+                break;
+            default:
+                return false;
+        }
+        keySink.put(';');
+        return true;
+    }
+
+    private boolean buildKey(BindVariableService bindVariableService) {
+        keySink.clear();
+        keySink.put(sql).put('\n');
+        if (bindVariableService == null) {
+            return true;
+        }
+        for (int i = 0, n = bindVariableService.getIndexedVariableCount(); i < n; i++) {
+            if (!appendBindVariable(bindVariableService.getFunction(i))) {
+                return false;
+            }
+        }
+        final ObjList<CharSequence> names = bindVariableService.getNamedVariables();
+        for (int i = 0, n = names.size(); i < n; i++) {
+            final CharSequence name = names.getQuick(i);
+            keySink.put(name).put('=');
+            if (!appendBindVariable(bindVariableService.getFunction(name))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(recordingCursor);
+        Misc.free(cachedCursor);
+        Misc.free(base);
+    }
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+
+/**
+ * Passes records of the query through to the caller and copies them into a record chain on
+ * the way. Once the caller reads the whole result in one pass, the chain is handed over to the
+ * cache. Rewinding the cursor or exceeding the maximum result size stops the copying.
+ */
+class ResultCacheRecordingCursor implements RecordCursor {
+    private final ResultCache cache;
+    private final ColumnTypes chainColumnTypes;
+    private final RecordSink recordSink;
+    private final IntList symbolColumns;
+    private RecordCursor base;
+    private RecordChain chain;
+    private String key;
+    private MemoryCARW mem;
+    private long prevRecordOffset;
+    private long rowCount;
+    private ObjList<ResultCacheSymbolTable> symbolTables;
+    private LongList tableVersions;
+
+    ResultCacheRecordingCursor(ResultCache cache, ColumnTypes chainColumnTypes, RecordSink recordSink, IntList symbolColumns) {
+        this.cache = cache;
+        this.chainColumnTypes = chainColumnTypes;
+        this.recordSink = recordSink;
+        this.symbolColumns = symbolColumns;
+    }
+
+    @Override
+    public void close() {
+        stopRecording();
+        base = Misc.free(base);
+    }
+
+    @Override
+    public Record getRecord() {
+        return base.getRecord();
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (base.hasNext()) {
+            if (chain != null) {
+                final Record record = base.getRecord();
+                prevRecordOffset = chain.put(record, prevRecordOffset);
+                for (int i = 0, n = symbolColumns.size(); i < n; i++) {
+                    final int columnIndex = symbolColumns.getQuick(i);
+                    symbolTables.getQuick(columnIndex).add(record.getSym(columnIndex));
+                }
+                rowCount++;
+                if (mem.size() > cache.getMaxEntrySize()) {
+                    stopRecording();
+                }
+            }
+            return true;
+        }
+        if (chain != null) {
+            cache.put(key, tableVersions, chain, symbolTables, mem.size(), rowCount);
+            chain = null;
+            mem = null;
+            symbolTables = null;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isUsingIndex() {
+        return base.isUsingIndex();
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return base.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public long size() {
+        return base.size();
+    }
+
+    @Override
+    public void skipTo(long rowCount) {
+        stopRecording();
+        base.skipTo(rowCount);
+    }
+
+    @Override
+    public void toTop() {
+        stopRecording();
+        base.toTop();
+    }
+
+    private void stopRecording() {
+        chain = Misc.free(chain);
+        mem = null;
+        symbolTables = null;
+    }
+
+    ResultCacheRecordingCursor of(RecordCursor base, String key, LongList tableVersions) {
+        this.base = base;
+        this.key = key;
+        this.tableVersions = tableVersions;
+        this.mem = Vm.getCARWInstance(cache.getPageSize(), Integer.MAX_VALUE, MemoryTag.NATIVE_RECORD_CHAIN);
+        this.chain = new RecordChain(chainColumnTypes, recordSink, mem);
+        this.symbolTables = new ObjList<>(chainColumnTypes.getColumnCount());
+        for (int i = 0, n = symbolColumns.size(); i < n; i++) {
+            symbolTables.extendAndSet(symbolColumns.getQuick(i), new ResultCacheSymbolTable());
+        }
+        this.prevRecordOffset = -1;
+        this.rowCount = 0;
+        return this;
+    }
+}
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.CharSequenceIntHashMap;
+import io.questdb.std.ObjList;
+
+/**
+ * Symbol table of a symbol column of a cached result. Keys are assigned in the order
+ * values are met while the result is recorded. The table is immutable once the result
+ * is cached, so all cursors of the result share it.
+ */
+class ResultCacheSymbolTable implements StaticSymbolTable {
+    private final CharSequenceIntHashMap keys = new CharSequenceIntHashMap(8, 0.5, SymbolTable.VALUE_NOT_FOUND);
+    private boolean containsNull;
+
+    @Override
+    public boolean containsNullValue() {
+        return containsNull;
+    }
+
+    @Override
+    public int getSymbolCount() {
+        return keys.size();
+    }
+
+    @Override
+    public int keyOf(CharSequence value) {
+        if (value == null) {
+            return containsNull ? VALUE_IS_NULL : VALUE_NOT_FOUND;
+        }
+        return keys.get(value);
+    }
+
+    @Override
+    public CharSequence valueBOf(int key) {
+        return valueOf(key);
+    }
+
+    @Override
+    public CharSequence valueOf(int key) {
+        final ObjList<CharSequence> values = keys.keys();
+        return key > -1 && key < values.size() ? values.getQuick(key) : null;
+    }
+
+    void add(CharSequence value) {
+        if (value == null) {
+            containsNull = true;
+            return;
+        }
+        final int index = keys.keyIndex(value);
+        if (index > -1) {
+            keys.putAt(index, value, keys.size());
+        }
+    }
+}
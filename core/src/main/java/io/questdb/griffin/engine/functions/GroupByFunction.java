@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.functions;
 import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.std.Mutable;
 
@@ -36,6 +37,21 @@ public interface GroupByFunction extends Function, Mutable {
     default void clear() {
     }
 
+    /**
+     * Aggregates rows [rowLo, rowHi) of the page frame into the value, evaluating
+     * the argument via its vector methods, see {@link Function#isVectorized()}.
+     * The value must be initialized with {@link #setEmpty(MapValue)} before the first batch.
+     * Only valid when {@link #isBatchComputeSupported()} returns true.
+     *
+     * @param mapValue value to aggregate into
+     * @param frame    page frame to read column values from
+     * @param rowLo    first row of the batch, relative to the frame start
+     * @param rowHi    row following the last row of the batch
+     */
+    default void computeBatch(MapValue mapValue, PageFrame frame, long rowLo, long rowHi) {
+        throw new UnsupportedOperationException();
+    }
+
     void computeFirst(MapValue mapValue, Record record);
 
     void computeNext(MapValue mapValue, Record record);
@@ -54,10 +70,42 @@ public interface GroupByFunction extends Function, Mutable {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Returns true when the function is able to aggregate a batch of rows at a time via
+     * the {@link #computeBatch(MapValue, PageFrame, long, long)} method.
+     *
+     * @return true if batch aggregation is supported
+     */
+    default boolean isBatchComputeSupported() {
+        return false;
+    }
+
+    /**
+     * Returns true when the function is able to merge partial aggregates via
+     * the {@link #merge(MapValue, MapValue)} method. Such functions can be used
+     * in parallel GROUP BY where each worker aggregates into its own map.
+     *
+     * @return true if partial aggregates can be merged
+     */
+    default boolean isParallelismSupported() {
+        return false;
+    }
+
     default boolean isScalar() {
         return true;
     }
 
+    /**
+     * Merges partial aggregate stored in the source value into the destination value.
+     * Both values must come from maps with identical value types.
+     *
+     * @param destValue value to merge into
+     * @param srcValue  value to merge from
+     */
+    default void merge(MapValue destValue, MapValue srcValue) {
+        throw new UnsupportedOperationException();
+    }
+
     void pushValueTypes(ArrayColumnTypes columnTypes);
 
     default void setByte(MapValue mapValue, byte value) {
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.functions;
 
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.ScalarFunction;
@@ -70,6 +71,12 @@ public abstract class IntFunction implements ScalarFunction {
         return Numbers.intToDouble(getInt(rec));
     }
 
+    @Override
+    public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        getLongVector(frame, rowLo, rowHi, address);
+        VectorizedFunctionUtils.longToDouble(address, rowHi - rowLo);
+    }
+
     @Override
     public float getFloat(Record rec) {
         return Numbers.intToFloat(getInt(rec));
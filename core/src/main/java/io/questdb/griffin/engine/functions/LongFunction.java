@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.functions;
 
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.cairo.sql.ScalarFunction;
@@ -71,6 +72,12 @@ public abstract class LongFunction implements ScalarFunction {
         return val != Numbers.LONG_NaN ? val : Double.NaN;
     }
 
+    @Override
+    public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        getLongVector(frame, rowLo, rowHi, address);
+        VectorizedFunctionUtils.longToDouble(address, rowHi - rowLo);
+    }
+
     @Override
     public float getFloat(Record rec) {
         final long val = getLong(rec);
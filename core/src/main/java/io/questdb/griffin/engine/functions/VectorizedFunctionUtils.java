@@ -0,0 +1,167 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
+import io.questdb.std.*;
+
+/**
+ * Helpers for batch evaluation of functions over page frames, see {@link Function#isVectorized()}.
+ * Vectors are contiguous native arrays of 8-byte values, except for boolean vectors
+ * that use one byte per row.
+ */
+public final class VectorizedFunctionUtils {
+
+    private VectorizedFunctionUtils() {
+    }
+
+    public static void copyByteColumn(PageFrame frame, int columnIndex, long rowLo, long rowHi, long address) {
+        final long columnAddress = frame.getPageAddress(columnIndex);
+        if (columnAddress == 0) {
+            Vect.setMemoryLong(address, 0, rowHi - rowLo);
+            return;
+        }
+        for (long r = rowLo, p = address; r < rowHi; r++, p += Long.BYTES) {
+            Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getByte(columnAddress + r));
+        }
+    }
+
+    public static void copyDoubleColumn(PageFrame frame, int columnIndex, long rowLo, long rowHi, long address) {
+        final long columnAddress = frame.getPageAddress(columnIndex);
+        if (columnAddress == 0) {
+            Vect.setMemoryDouble(address, Double.NaN, rowHi - rowLo);
+            return;
+        }
+        Vect.memcpy(address, columnAddress + (rowLo << 3), (rowHi - rowLo) << 3);
+    }
+
+    public static void copyFloatColumn(PageFrame frame, int columnIndex, long rowLo, long rowHi, long address) {
+        final long columnAddress = frame.getPageAddress(columnIndex);
+        if (columnAddress == 0) {
+            Vect.setMemoryDouble(address, Double.NaN, rowHi - rowLo);
+            return;
+        }
+        for (long r = rowLo, p = address; r < rowHi; r++, p += Double.BYTES) {
+            Unsafe.getUnsafe().putDouble(p, Unsafe.getUnsafe().getFloat(columnAddress + (r << 2)));
+        }
+    }
+
+    public static void copyIntColumn(PageFrame frame, int columnIndex, long rowLo, long rowHi, long address) {
+        final long columnAddress = frame.getPageAddress(columnIndex);
+        if (columnAddress == 0) {
+            Vect.setMemoryLong(address, Numbers.LONG_NaN, rowHi - rowLo);
+            return;
+        }
+        for (long r = rowLo, p = address; r < rowHi; r++, p += Long.BYTES) {
+            Unsafe.getUnsafe().putLong(p, Numbers.intToLong(Unsafe.getUnsafe().getInt(columnAddress + (r << 2))));
+        }
+    }
+
+    public static void copyLongColumn(PageFrame frame, int columnIndex, long rowLo, long rowHi, long address) {
+        final long columnAddress = frame.getPageAddress(columnIndex);
+        if (columnAddress == 0) {
+            Vect.setMemoryLong(address, Numbers.LONG_NaN, rowHi - rowLo);
+            return;
+        }
+        Vect.memcpy(address, columnAddress + (rowLo << 3), (rowHi - rowLo) << 3);
+    }
+
+    public static void copyShortColumn(PageFrame frame, int columnIndex, long rowLo, long rowHi, long address) {
+        final long columnAddress = frame.getPageAddress(columnIndex);
+        if (columnAddress == 0) {
+            Vect.setMemoryLong(address, 0, rowHi - rowLo);
+            return;
+        }
+        for (long r = rowLo, p = address; r < rowHi; r++, p += Long.BYTES) {
+            Unsafe.getUnsafe().putLong(p, Unsafe.getUnsafe().getShort(columnAddress + (r << 1)));
+        }
+    }
+
+    /**
+     * Makes sure that the scratch vector fits the given number of 8-byte values,
+     * allocating it on first use.
+     *
+     * @param scratch scratch vector or null
+     * @param count   number of values
+     * @return scratch vector of sufficient capacity
+     */
+    public static DirectLongList ensureScratch(DirectLongList scratch, long count) {
+        if (scratch == null) {
+            return new DirectLongList(count, MemoryTag.NATIVE_FUNC_RSS);
+        }
+        if (scratch.getCapacity() < count) {
+            scratch.setCapacity(count);
+        }
+        return scratch;
+    }
+
+    public static boolean isVectorized(ObjList<? extends Function> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isVectorized()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true for column types that have vector representation.
+     * Vectorized projection supports only these types.
+     *
+     * @param type column type
+     * @return true if column type is supported by vector methods
+     */
+    public static boolean isVectorizedType(int type) {
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+            case ColumnType.FLOAT:
+            case ColumnType.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Converts long vector to double vector in place, mapping long nulls to NaN.
+     *
+     * @param address vector address
+     * @param count   number of values
+     */
+    public static void longToDouble(long address, long count) {
+        for (long p = address, lim = address + (count << 3); p < lim; p += Long.BYTES) {
+            final long value = Unsafe.getUnsafe().getLong(p);
+            Unsafe.getUnsafe().putDouble(p, value != Numbers.LONG_NaN ? value : Double.NaN);
+        }
+    }
+}
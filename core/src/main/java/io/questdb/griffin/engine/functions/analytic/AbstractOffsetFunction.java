@@ -0,0 +1,238 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticDeque;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.cairo.Reopenable;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Base for lag() and lead(), which return the value of an expression a fixed number of rows
+ * away from the current row within its partition. The rows in between are kept in an
+ * off-heap {@link AnalyticDeque} per partition.
+ */
+public abstract class AbstractOffsetFunction extends DoubleFunction implements AnalyticFunction, Reopenable {
+    protected static final int VALUE_DEQUE = 0;
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+    protected final Function arg;
+    protected final Function defaultValue;
+    protected final AnalyticDeque deque;
+    protected final long offset;
+    private final Map map;
+    private final String name;
+    private final CharSequence orderBy;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private final SimpleMapValue value;
+    protected int columnIndex;
+    private boolean initialized;
+
+    protected AbstractOffsetFunction(
+            String name,
+            Function arg,
+            long offset,
+            @Nullable Function defaultValue,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext
+    ) {
+        this.name = name;
+        this.arg = arg;
+        this.offset = offset;
+        this.defaultValue = defaultValue;
+        this.orderBy = analyticContext.getOrderBy();
+        this.partitionByRecord = analyticContext.getPartitionByRecord();
+        this.partitionBySink = analyticContext.getPartitionBySink();
+        if (partitionByRecord != null) {
+            this.map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), VALUE_TYPES);
+            this.value = null;
+        } else {
+            this.map = null;
+            this.value = new SimpleMapValue(VALUE_TYPES.getColumnCount());
+        }
+        this.deque = new AnalyticDeque(
+                configuration.getSqlAnalyticStorePageSize(),
+                configuration.getSqlAnalyticStoreMaxPages(),
+                Math.max(1, Math.min(offset, 16))
+        );
+    }
+
+    /**
+     * Parses the optional offset and default value arguments of lag() and lead().
+     *
+     * @return the offset, 1 when not specified
+     */
+    public static long getOffset(ObjList<Function> args, IntList argPositions) throws SqlException {
+        if (args.size() > 3) {
+            throw SqlException.$(argPositions.getQuick(3), "too many arguments");
+        }
+        if (args.size() < 2) {
+            return 1;
+        }
+        final Function offset = args.getQuick(1);
+        final int offsetType = ColumnType.tagOf(offset.getType());
+        if (!offset.isConstant() || (offsetType != ColumnType.INT && offsetType != ColumnType.LONG && offsetType != ColumnType.SHORT && offsetType != ColumnType.BYTE)) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be an integer constant");
+        }
+        final long value = offset.getLong(null);
+        if (value < 0) {
+            throw SqlException.$(argPositions.getQuick(1), "offset must be a non-negative integer");
+        }
+        return value;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+        Misc.free(deque);
+        Misc.free(arg);
+        Misc.free(defaultValue);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        arg.init(symbolTableSource, executionContext);
+        if (defaultValue != null) {
+            defaultValue.init(symbolTableSource, executionContext);
+        }
+        if (partitionByRecord != null) {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+    }
+
+    @Override
+    public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+    }
+
+    @Override
+    public void preparePass2(RecordCursor cursor) {
+    }
+
+    @Override
+    public void reopen() {
+        if (map != null) {
+            map.reopen();
+        }
+        initialized = false;
+    }
+
+    @Override
+    public void reset() {
+        if (map != null) {
+            map.close();
+        }
+        deque.close();
+        initialized = false;
+    }
+
+    @Override
+    public void setColumnIndex(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(name).val('(').val(arg).val(", ").val(offset);
+        if (defaultValue != null) {
+            sink.val(", ").val(defaultValue);
+        }
+        sink.val(") over (");
+        if (partitionByRecord != null) {
+            sink.val("partition by ").val(partitionByRecord.getFunctions());
+            if (orderBy != null) {
+                sink.val(' ');
+            }
+        }
+        if (orderBy != null) {
+            sink.val("order by [").val(orderBy).val(']');
+        }
+        sink.val(')');
+    }
+
+    @Override
+    public void toTop() {
+        if (map != null) {
+            map.clear();
+        }
+        deque.clear();
+        initialized = false;
+    }
+
+    protected double getDefaultValue(Record record) {
+        return defaultValue != null ? defaultValue.getDouble(record) : Double.NaN;
+    }
+
+    protected MapValue findOrCreateValue(Record record) {
+        final MapValue value;
+        if (map != null) {
+            partitionByRecord.of(record);
+            final MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            value = key.createValue();
+            if (!value.isNew()) {
+                return value;
+            }
+        } else {
+            value = this.value;
+            if (initialized) {
+                return value;
+            }
+            initialized = true;
+        }
+        deque.init(value, VALUE_DEQUE);
+        return value;
+    }
+
+    static {
+        AnalyticDeque.addValueTypes(VALUE_TYPES);
+    }
+}
@@ -0,0 +1,534 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapRecord;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.griffin.engine.analytic.AnalyticDeque;
+import io.questdb.griffin.engine.groupby.SimpleMapValue;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.griffin.model.AnalyticColumn;
+import io.questdb.std.IntList;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+
+/**
+ * Incrementally maintains an aggregate of a double expression over the analytic frame of
+ * the current row, optionally per partition. Three frame shapes are supported:
+ * <ul>
+ * <li>the whole partition, computed in two passes;</li>
+ * <li>UNBOUNDED PRECEDING to CURRENT ROW, kept as a running aggregate;</li>
+ * <li>N PRECEDING to CURRENT ROW in either ROWS or RANGE mode, where the rows that are still
+ * in the frame are kept in an off-heap {@link AnalyticDeque} per partition. Sums and counts are
+ * adjusted as rows leave the frame, min and max use a monotonic queue.</li>
+ * </ul>
+ * In RANGE mode with ORDER BY the frame of a row ends at its last peer, i.e. the last row with
+ * the same ORDER BY values, so peers share the value. Rows of the pending peer group are chained
+ * through their output slots in the cached record chain until a row with different ORDER BY
+ * values arrives; streaming callers feed the whole peer group before asking for values.
+ * Partition state lives in an off-heap map, so memory use depends on the number of partitions
+ * and frame sizes rather than on the number of rows.
+ */
+public class FrameAggregator implements Closeable, Reopenable {
+    public static final int AVG = 0;
+    public static final int COUNT = 1;
+    public static final int FIRST_VALUE = 2;
+    public static final int LAST_VALUE = 3;
+    public static final int MAX = 4;
+    public static final int MIN = 5;
+    public static final int SUM = 6;
+    private static final int FRAME_BOUNDED = 2;
+    private static final int FRAME_RUNNING = 1;
+    private static final int FRAME_WHOLE = 0;
+    private static final int VALUE_COUNT = 1;
+    private static final int VALUE_DEQUE = 7;
+    private static final int VALUE_FIRST = 2;
+    private static final int VALUE_LAST = 3;
+    private static final int VALUE_MIN_MAX = 4;
+    private static final int VALUE_PEER_OFFSET = 6;
+    private static final int VALUE_ROW_INDEX = 5;
+    private static final int VALUE_SUM = 0;
+    private static final ArrayColumnTypes VALUE_TYPES = new ArrayColumnTypes();
+    private final Function arg;
+    private final AnalyticDeque deque;
+    private final int frame;
+    private final long frameSize;
+    private final int framingMode;
+    private final int kind;
+    private final Map map;
+    private final CharSequence orderBy;
+    private final VirtualRecord partitionByRecord;
+    private final RecordSink partitionBySink;
+    private final boolean peerAware;
+    private final int timestampIndex;
+    private final SimpleMapValue value;
+    private long count;
+    private boolean initialized;
+    private RecordComparator peerComparator;
+    private double result;
+
+    private FrameAggregator(
+            int kind,
+            @Nullable Function arg,
+            CairoConfiguration configuration,
+            AnalyticContext analyticContext,
+            int frame,
+            long frameSize
+    ) {
+        this.kind = kind;
+        this.arg = arg;
+        this.frame = frame;
+        this.frameSize = frameSize;
+        this.framingMode = analyticContext.getFramingMode();
+        this.timestampIndex = framingMode == AnalyticColumn.FRAMING_RANGE ? analyticContext.getTimestampIndex() : -1;
+        this.peerAware = framingMode == AnalyticColumn.FRAMING_RANGE && analyticContext.isOrdered() && frame != FRAME_WHOLE;
+        this.orderBy = analyticContext.getOrderBy();
+        this.partitionByRecord = analyticContext.getPartitionByRecord();
+        this.partitionBySink = analyticContext.getPartitionBySink();
+        if (partitionByRecord != null) {
+            this.map = MapFactory.createMap(configuration, analyticContext.getPartitionByKeyTypes(), VALUE_TYPES);
+            this.value = null;
+        } else {
+            this.map = null;
+            this.value = new SimpleMapValue(VALUE_TYPES.getColumnCount());
+        }
+        if (frame == FRAME_BOUNDED && kind != LAST_VALUE) {
+            this.deque = new AnalyticDeque(
+                    configuration.getSqlAnalyticStorePageSize(),
+                    configuration.getSqlAnalyticStoreMaxPages(),
+                    Math.min(frameSize + 1, 16)
+            );
+        } else {
+            this.deque = null;
+        }
+    }
+
+    /**
+     * Validates the frame of the analytic context and creates an aggregator for it.
+     *
+     * @param position position of the function in the SQL text, used in error messages
+     * @param kind     aggregate kind, e.g. {@link #SUM}
+     * @param arg      aggregated expression or null to count rows
+     */
+    public static FrameAggregator newInstance(
+            int position,
+            int kind,
+            @Nullable Function arg,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        if (analyticContext.isEmpty()) {
+            throw SqlException.$(position, "analytic function called in non-analytic context, make sure to add OVER clause");
+        }
+
+        final long rowsLo = analyticContext.getRowsLo();
+        final long rowsHi = analyticContext.getRowsHi();
+        final int frame;
+        if (rowsLo == Long.MIN_VALUE && rowsHi == Long.MAX_VALUE) {
+            frame = FRAME_WHOLE;
+        } else if (
+                rowsLo == Long.MIN_VALUE && rowsHi == 0
+                        && analyticContext.getFramingMode() == AnalyticColumn.FRAMING_RANGE
+                        && !analyticContext.isOrdered()
+        ) {
+            // without ORDER BY all rows of the partition are peers of the current row
+            frame = FRAME_WHOLE;
+        } else if (rowsHi != 0 || rowsLo > 0) {
+            throw SqlException.$(position, "frame must end at the current row or at unbounded following");
+        } else if (rowsLo == Long.MIN_VALUE) {
+            frame = FRAME_RUNNING;
+        } else {
+            if (analyticContext.getFramingMode() == AnalyticColumn.FRAMING_RANGE && analyticContext.getTimestampIndex() == -1) {
+                throw SqlException.$(position, "RANGE frame with an offset requires ORDER BY the designated timestamp");
+            }
+            frame = FRAME_BOUNDED;
+        }
+        return new FrameAggregator(kind, arg, configuration, analyticContext, frame, rowsLo == Long.MIN_VALUE ? 0 : -rowsLo);
+    }
+
+    /**
+     * Adds the record to the frame of its partition. For streaming frames the aggregate of
+     * the frame ending at this record becomes available via {@link #getDouble()} and {@link #getLong()}.
+     */
+    public void add(Record record) {
+        add(record, findOrCreateValue(record));
+    }
+
+    /**
+     * Adds the record of the cached record chain to the frame of its partition. Once the last peer
+     * of the record is known, the aggregate is written to the output column of the record and its
+     * peers, the last peer group of each partition is written by {@link #finishPeers(AnalyticSPI, int)}.
+     *
+     * @param record       record of the chain at recordOffset
+     * @param recordOffset offset of the record in the chain
+     * @param spi          record chain
+     * @param columnIndex  output column index
+     */
+    public void addPeer(Record record, long recordOffset, AnalyticSPI spi, int columnIndex) {
+        final MapValue value = findOrCreateValue(record);
+        final long peerOffset = value.getLong(VALUE_PEER_OFFSET);
+        if (peerOffset != -1) {
+            peerComparator.setLeft(record);
+            if (peerComparator.compare(spi.getRecordAt(peerOffset)) != 0) {
+                writePeers(value, spi, columnIndex);
+            }
+        }
+        add(record, value);
+        // until the peer group is complete the output slot links to the previous peer
+        Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), value.getLong(VALUE_PEER_OFFSET));
+        value.putLong(VALUE_PEER_OFFSET, recordOffset);
+    }
+
+    @Override
+    public void close() {
+        Misc.free(map);
+        Misc.free(deque);
+        Misc.free(arg);
+        if (partitionByRecord != null) {
+            Misc.freeObjList(partitionByRecord.getFunctions());
+        }
+    }
+
+    /**
+     * Makes the aggregate of the frame ending at the last added row of the record's partition
+     * available via the getters. Used on the second pass when the frame spans the whole partition
+     * and for peers of the last added row.
+     */
+    public void findFinal(Record record) {
+        final MapValue value;
+        if (map != null) {
+            partitionByRecord.of(record);
+            final MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            value = key.findValue();
+        } else {
+            value = this.value;
+        }
+        computeResult(value, value.getDouble(VALUE_LAST));
+    }
+
+    /**
+     * Writes the aggregate to the output column of the rows of the last peer group of each partition.
+     */
+    public void finishPeers(AnalyticSPI spi, int columnIndex) {
+        if (map != null) {
+            final RecordCursor cursor = map.getCursor();
+            final MapRecord record = (MapRecord) cursor.getRecord();
+            while (cursor.hasNext()) {
+                writePeers(record.getValue(), spi, columnIndex);
+            }
+        } else if (initialized) {
+            writePeers(value, spi, columnIndex);
+        }
+    }
+
+    public double getDouble() {
+        return result;
+    }
+
+    public long getLong() {
+        return count;
+    }
+
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (arg != null) {
+            arg.init(symbolTableSource, executionContext);
+        }
+        if (partitionByRecord != null) {
+            Function.init(partitionByRecord.getFunctions(), symbolTableSource, executionContext);
+        }
+    }
+
+    public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        if (peerAware) {
+            peerComparator = recordComparatorCompiler.compile(chainTypes, order);
+        }
+    }
+
+    /**
+     * @return true when the frame of a row ends at its last peer rather than at the row itself
+     */
+    public boolean isPeerAware() {
+        return peerAware;
+    }
+
+    /**
+     * @return true when the aggregate of the current row is known once the row is added,
+     * i.e. the frame does not extend past the current row
+     */
+    public boolean isStreaming() {
+        return frame != FRAME_WHOLE;
+    }
+
+    @Override
+    public void reopen() {
+        if (map != null) {
+            map.reopen();
+        }
+        initialized = false;
+    }
+
+    /**
+     * Releases the memory held by partition state, {@link #reopen()} must be called before reuse.
+     */
+    public void reset() {
+        if (map != null) {
+            map.close();
+        }
+        if (deque != null) {
+            deque.close();
+        }
+        initialized = false;
+    }
+
+    public void toPlan(PlanSink sink, CharSequence name) {
+        sink.val(name).val('(');
+        if (arg != null) {
+            sink.val(arg);
+        } else {
+            sink.val('*');
+        }
+        sink.val(") over (");
+        if (partitionByRecord != null) {
+            sink.val("partition by ").val(partitionByRecord.getFunctions()).val(' ');
+        }
+        if (orderBy != null) {
+            sink.val("order by [").val(orderBy).val("] ");
+        }
+        sink.val(framingMode == AnalyticColumn.FRAMING_ROWS ? "rows" : "range").val(" between ");
+        switch (frame) {
+            case FRAME_WHOLE:
+                sink.val("unbounded preceding and unbounded following");
+                break;
+            case FRAME_RUNNING:
+                sink.val("unbounded preceding and current row");
+                break;
+            default:
+                sink.val(frameSize).val(" preceding and current row");
+                break;
+        }
+        sink.val(')');
+    }
+
+    public void toTop() {
+        if (map != null) {
+            map.clear();
+        }
+        if (deque != null) {
+            deque.clear();
+        }
+        initialized = false;
+    }
+
+    private void add(Record record, MapValue value) {
+        final double v = arg != null ? arg.getDouble(record) : 1.0;
+        if (frame == FRAME_BOUNDED) {
+            addBounded(record, value, v);
+        } else {
+            addRunning(value, v);
+            if (frame == FRAME_RUNNING) {
+                computeResult(value, v);
+            }
+        }
+    }
+
+    private void addBounded(Record record, MapValue value, double v) {
+        final long key;
+        if (timestampIndex > -1) {
+            key = record.getTimestamp(timestampIndex);
+        } else {
+            key = value.getLong(VALUE_ROW_INDEX);
+            value.putLong(VALUE_ROW_INDEX, key + 1);
+        }
+        value.putDouble(VALUE_LAST, v);
+
+        if (deque != null) {
+            // evict rows that fell out of the frame
+            final long minKey = key - frameSize;
+            final boolean summing = kind == SUM || kind == AVG || kind == COUNT;
+            while (deque.size(value, VALUE_DEQUE) > 0 && deque.firstKey(value, VALUE_DEQUE) < minKey) {
+                if (summing) {
+                    value.addDouble(VALUE_SUM, -deque.firstValue(value, VALUE_DEQUE));
+                    value.addLong(VALUE_COUNT, -1);
+                }
+                deque.removeFirst(value, VALUE_DEQUE);
+            }
+
+            switch (kind) {
+                case FIRST_VALUE:
+                    deque.addLast(value, VALUE_DEQUE, key, v);
+                    break;
+                case MIN:
+                    if (!Double.isNaN(v)) {
+                        while (deque.size(value, VALUE_DEQUE) > 0 && deque.lastValue(value, VALUE_DEQUE) >= v) {
+                            deque.removeLast(value, VALUE_DEQUE);
+                        }
+                        deque.addLast(value, VALUE_DEQUE, key, v);
+                    }
+                    break;
+                case MAX:
+                    if (!Double.isNaN(v)) {
+                        while (deque.size(value, VALUE_DEQUE) > 0 && deque.lastValue(value, VALUE_DEQUE) <= v) {
+                            deque.removeLast(value, VALUE_DEQUE);
+                        }
+                        deque.addLast(value, VALUE_DEQUE, key, v);
+                    }
+                    break;
+                default:
+                    if (!Double.isNaN(v)) {
+                        deque.addLast(value, VALUE_DEQUE, key, v);
+                        value.addDouble(VALUE_SUM, v);
+                        value.addLong(VALUE_COUNT, 1);
+                    }
+                    break;
+            }
+        }
+        computeResult(value, v);
+    }
+
+    private void addRunning(MapValue value, double v) {
+        if (value.getLong(VALUE_ROW_INDEX) == 0) {
+            value.putDouble(VALUE_FIRST, v);
+        }
+        value.addLong(VALUE_ROW_INDEX, 1);
+        value.putDouble(VALUE_LAST, v);
+        if (!Double.isNaN(v)) {
+            value.addDouble(VALUE_SUM, v);
+            value.addLong(VALUE_COUNT, 1);
+            final double minMax = value.getDouble(VALUE_MIN_MAX);
+            if (Double.isNaN(minMax) || (kind == MIN ? v < minMax : v > minMax)) {
+                value.putDouble(VALUE_MIN_MAX, v);
+            }
+        }
+    }
+
+    private void computeResult(MapValue value, double v) {
+        final long count = value.getLong(VALUE_COUNT);
+        this.count = count;
+        switch (kind) {
+            case AVG:
+                result = count > 0 ? value.getDouble(VALUE_SUM) / count : Double.NaN;
+                break;
+            case SUM:
+                result = count > 0 ? value.getDouble(VALUE_SUM) : Double.NaN;
+                break;
+            case FIRST_VALUE:
+                result = frame == FRAME_BOUNDED ? deque.firstValue(value, VALUE_DEQUE) : value.getDouble(VALUE_FIRST);
+                break;
+            case LAST_VALUE:
+                result = v;
+                break;
+            case MIN:
+            case MAX:
+                if (frame == FRAME_BOUNDED) {
+                    result = deque.size(value, VALUE_DEQUE) > 0 ? deque.firstValue(value, VALUE_DEQUE) : Double.NaN;
+                } else {
+                    result = value.getDouble(VALUE_MIN_MAX);
+                }
+                break;
+            default:
+                // count only needs the counter
+                break;
+        }
+    }
+
+    private MapValue findOrCreateValue(Record record) {
+        final MapValue value;
+        if (map != null) {
+            partitionByRecord.of(record);
+            final MapKey key = map.withKey();
+            key.put(partitionByRecord, partitionBySink);
+            value = key.createValue();
+            if (!value.isNew()) {
+                return value;
+            }
+        } else {
+            value = this.value;
+            if (initialized) {
+                return value;
+            }
+            initialized = true;
+        }
+        value.putDouble(VALUE_SUM, 0);
+        value.putLong(VALUE_COUNT, 0);
+        value.putDouble(VALUE_FIRST, Double.NaN);
+        value.putDouble(VALUE_LAST, Double.NaN);
+        value.putDouble(VALUE_MIN_MAX, Double.NaN);
+        value.putLong(VALUE_ROW_INDEX, 0);
+        value.putLong(VALUE_PEER_OFFSET, -1);
+        if (deque != null) {
+            deque.init(value, VALUE_DEQUE);
+        }
+        return value;
+    }
+
+    private void writePeers(MapValue value, AnalyticSPI spi, int columnIndex) {
+        long offset = value.getLong(VALUE_PEER_OFFSET);
+        if (offset == -1) {
+            return;
+        }
+        computeResult(value, value.getDouble(VALUE_LAST));
+        do {
+            final long address = spi.getAddress(offset, columnIndex);
+            offset = Unsafe.getUnsafe().getLong(address);
+            if (kind == COUNT) {
+                Unsafe.getUnsafe().putLong(address, count);
+            } else {
+                Unsafe.getUnsafe().putDouble(address, result);
+            }
+        } while (offset != -1);
+        value.putLong(VALUE_PEER_OFFSET, -1);
+    }
+
+    static {
+        VALUE_TYPES.add(ColumnType.DOUBLE); // sum
+        VALUE_TYPES.add(ColumnType.LONG); // count
+        VALUE_TYPES.add(ColumnType.DOUBLE); // first value
+        VALUE_TYPES.add(ColumnType.DOUBLE); // last value
+        VALUE_TYPES.add(ColumnType.DOUBLE); // min or max
+        VALUE_TYPES.add(ColumnType.LONG); // row index
+        VALUE_TYPES.add(ColumnType.LONG); // offset of the last row of the pending peer group
+        AnalyticDeque.addValueTypes(VALUE_TYPES);
+    }
+}
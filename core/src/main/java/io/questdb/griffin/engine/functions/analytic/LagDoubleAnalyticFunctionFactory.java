@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticContext;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
+
+public class LagDoubleAnalyticFunctionFactory implements FunctionFactory {
+    private static final String NAME = "lag";
+    private static final String SIGNATURE = NAME + "(DV)";
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isAnalytic() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+        final AnalyticContext analyticContext = sqlExecutionContext.getAnalyticContext();
+        if (analyticContext.isEmpty()) {
+            throw SqlException.$(position, "analytic function called in non-analytic context, make sure to add OVER clause");
+        }
+        final long offset = AbstractOffsetFunction.getOffset(args, argPositions);
+        return new LagFunction(
+                args.getQuick(0),
+                offset,
+                args.size() > 2 ? args.getQuick(2) : null,
+                configuration,
+                analyticContext
+        );
+    }
+
+    private static class LagFunction extends AbstractOffsetFunction {
+        private double result;
+
+        public LagFunction(Function arg, long offset, Function defaultValue, CairoConfiguration configuration, AnalyticContext analyticContext) {
+            super(NAME, arg, offset, defaultValue, configuration, analyticContext);
+        }
+
+        @Override
+        public void computeNext(Record record) {
+            final double v = arg.getDouble(record);
+            if (offset == 0) {
+                result = v;
+                return;
+            }
+            final MapValue value = findOrCreateValue(record);
+            if (deque.size(value, VALUE_DEQUE) == offset) {
+                result = deque.firstValue(value, VALUE_DEQUE);
+                deque.removeFirst(value, VALUE_DEQUE);
+            } else {
+                result = getDefaultValue(record);
+            }
+            deque.addLast(value, VALUE_DEQUE, 0, v);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return result;
+        }
+
+        @Override
+        public int getPassCount() {
+            return ZERO_PASS;
+        }
+
+        @Override
+        public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+            computeNext(record);
+            Unsafe.getUnsafe().putDouble(spi.getAddress(recordOffset, columnIndex), result);
+        }
+    }
+}
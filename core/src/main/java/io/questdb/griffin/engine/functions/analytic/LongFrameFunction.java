@@ -0,0 +1,148 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.analytic;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.sql.AnalyticSPI;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.analytic.AnalyticFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.orderby.RecordComparatorCompiler;
+import io.questdb.std.IntList;
+import io.questdb.cairo.Reopenable;
+import io.questdb.std.Unsafe;
+
+/**
+ * Analytic function that returns a long aggregate of its frame, see {@link FrameAggregator}.
+ */
+public class LongFrameFunction extends LongFunction implements AnalyticFunction, Reopenable {
+    private final FrameAggregator aggregator;
+    private final String name;
+    private int columnIndex;
+
+    public LongFrameFunction(String name, FrameAggregator aggregator) {
+        this.name = name;
+        this.aggregator = aggregator;
+    }
+
+    @Override
+    public void close() {
+        aggregator.close();
+    }
+
+    @Override
+    public void computeNext(Record record) {
+        aggregator.add(record);
+    }
+
+    @Override
+    public void computePeerValue(Record record) {
+        aggregator.findFinal(record);
+    }
+
+    @Override
+    public void finishPass1(AnalyticSPI spi) {
+        if (aggregator.isPeerAware()) {
+            aggregator.finishPeers(spi, columnIndex);
+        }
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        return aggregator.getLong();
+    }
+
+    @Override
+    public int getPassCount() {
+        return aggregator.isStreaming() ? ZERO_PASS : TWO_PASS;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        aggregator.init(symbolTableSource, executionContext);
+    }
+
+    @Override
+    public void initRecordComparator(RecordComparatorCompiler recordComparatorCompiler, ArrayColumnTypes chainTypes, IntList order) {
+        aggregator.initRecordComparator(recordComparatorCompiler, chainTypes, order);
+    }
+
+    @Override
+    public boolean isPeerAware() {
+        return aggregator.isPeerAware();
+    }
+
+    @Override
+    public void pass1(Record record, long recordOffset, AnalyticSPI spi) {
+        if (aggregator.isPeerAware()) {
+            aggregator.addPeer(record, recordOffset, spi, columnIndex);
+        } else {
+            aggregator.add(record);
+            if (aggregator.isStreaming()) {
+                Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), aggregator.getLong());
+            }
+        }
+    }
+
+    @Override
+    public void pass2(Record record, long recordOffset, AnalyticSPI spi) {
+        aggregator.findFinal(record);
+        Unsafe.getUnsafe().putLong(spi.getAddress(recordOffset, columnIndex), aggregator.getLong());
+    }
+
+    @Override
+    public void preparePass2(RecordCursor cursor) {
+    }
+
+    @Override
+    public void reopen() {
+        aggregator.reopen();
+    }
+
+    @Override
+    public void reset() {
+        aggregator.reset();
+    }
+
+    @Override
+    public void setColumnIndex(int columnIndex) {
+        this.columnIndex = columnIndex;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        aggregator.toPlan(sink, name);
+    }
+
+    @Override
+    public void toTop() {
+        aggregator.toTop();
+    }
+}
@@ -26,12 +26,14 @@ package io.questdb.griffin.engine.functions.cast;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class CastDoubleToLongFunctionFactory implements FunctionFactory {
     @Override
@@ -60,5 +62,19 @@ public class CastDoubleToLongFunctionFactory implements FunctionFactory {
             final double value = arg.getDouble(rec);
             return Double.isNaN(value) ? Numbers.LONG_NaN : (long) value;
         }
+
+        @Override
+        public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            arg.getDoubleVector(frame, rowLo, rowHi, address);
+            for (long p = address, lim = address + ((rowHi - rowLo) << 3); p < lim; p += Long.BYTES) {
+                final double value = Unsafe.getUnsafe().getDouble(p);
+                Unsafe.getUnsafe().putLong(p, Double.isNaN(value) ? Numbers.LONG_NaN : (long) value);
+            }
+        }
+
+        @Override
+        public boolean isVectorized() {
+            return arg.isVectorized();
+        }
     }
 }
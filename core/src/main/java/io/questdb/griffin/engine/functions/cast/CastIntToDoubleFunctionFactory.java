@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.functions.cast;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
@@ -61,5 +62,15 @@ public class CastIntToDoubleFunctionFactory implements FunctionFactory {
             final int value = arg.getInt(rec);
             return value != Numbers.INT_NaN ? value : Double.NaN;
         }
+
+        @Override
+        public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            arg.getDoubleVector(frame, rowLo, rowHi, address);
+        }
+
+        @Override
+        public boolean isVectorized() {
+            return arg.isVectorized();
+        }
     }
 }
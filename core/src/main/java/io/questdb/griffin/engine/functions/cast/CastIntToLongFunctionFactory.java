@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.functions.cast;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
@@ -54,5 +55,15 @@ public class CastIntToLongFunctionFactory implements FunctionFactory {
             final int value = arg.getInt(rec);
             return value != Numbers.INT_NaN ? value : Numbers.LONG_NaN;
         }
+
+        @Override
+        public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            arg.getLongVector(frame, rowLo, rowHi, address);
+        }
+
+        @Override
+        public boolean isVectorized() {
+            return arg.isVectorized();
+        }
     }
 }
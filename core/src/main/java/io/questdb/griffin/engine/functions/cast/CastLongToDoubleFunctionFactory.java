@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.functions.cast;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
@@ -59,5 +60,15 @@ public class CastLongToDoubleFunctionFactory implements FunctionFactory {
         public double getDouble(Record rec) {
             return arg.getDouble(rec);
         }
+
+        @Override
+        public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            arg.getDoubleVector(frame, rowLo, rowHi, address);
+        }
+
+        @Override
+        public boolean isVectorized() {
+            return arg.isVectorized();
+        }
     }
 }
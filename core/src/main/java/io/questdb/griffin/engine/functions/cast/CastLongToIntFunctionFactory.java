@@ -26,12 +26,14 @@ package io.questdb.griffin.engine.functions.cast;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class CastLongToIntFunctionFactory implements FunctionFactory {
     @Override
@@ -54,5 +56,21 @@ public class CastLongToIntFunctionFactory implements FunctionFactory {
             final long value = arg.getLong(rec);
             return value == Numbers.LONG_NaN ? Numbers.INT_NaN : (int) value;
         }
+
+        @Override
+        public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            arg.getLongVector(frame, rowLo, rowHi, address);
+            for (long p = address, lim = address + ((rowHi - rowLo) << 3); p < lim; p += Long.BYTES) {
+                final long value = Unsafe.getUnsafe().getLong(p);
+                if (value != Numbers.LONG_NaN) {
+                    Unsafe.getUnsafe().putLong(p, Numbers.intToLong((int) value));
+                }
+            }
+        }
+
+        @Override
+        public boolean isVectorized() {
+            return arg.isVectorized();
+        }
     }
 }
@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.cache.ResultCache;
 import io.questdb.griffin.engine.functions.BooleanFunction;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -56,20 +57,23 @@ public class FlushQueryCacheFunctionFactory implements FunctionFactory {
                                 CairoConfiguration configuration,
                                 SqlExecutionContext sqlExecutionContext
     ) {
-        return new FlushQueryCacheFunction(sqlExecutionContext.getMessageBus());
+        return new FlushQueryCacheFunction(sqlExecutionContext.getMessageBus(), sqlExecutionContext.getCairoEngine().getResultCache());
     }
 
     private static class FlushQueryCacheFunction extends BooleanFunction {
 
         private final MessageBus messageBus;
+        private final ResultCache resultCache;
 
-        public FlushQueryCacheFunction(MessageBus messageBus) {
+        public FlushQueryCacheFunction(MessageBus messageBus, ResultCache resultCache) {
             this.messageBus = messageBus;
+            this.resultCache = resultCache;
         }
 
         @Override
         public boolean getBool(Record rec) {
             LOG.info().$("flushing query caches").$();
+            resultCache.clear();
 
             while (true) {
                 final long pubCursor = messageBus.getQueryCacheEventPubSeq().next();
@@ -0,0 +1,218 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.catalogue;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.wal.WalApplyScheduler;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.CursorFunction;
+import io.questdb.std.IntList;
+import io.questdb.std.Numbers;
+import io.questdb.std.ObjList;
+
+/**
+ * Lists WAL tables known to the apply scheduler with the number of sequencer
+ * transactions not yet applied to the table.
+ */
+public class WalApplyLagFunctionFactory implements FunctionFactory {
+    private static final RecordMetadata METADATA;
+    private static final String SIGNATURE = "wal_apply_lag()";
+    private static final int appliedTxnColumn;
+    private static final int applyingColumn;
+    private static final int lagColumn;
+    private static final int nameColumn;
+    private static final int sequencerTxnColumn;
+    private static final int suspendedColumn;
+
+    @Override
+    public String getSignature() {
+        return SIGNATURE;
+    }
+
+    @Override
+    public boolean isRuntimeConstant() {
+        return true;
+    }
+
+    @Override
+    public Function newInstance(
+            int position,
+            ObjList<Function> args,
+            IntList argPositions,
+            CairoConfiguration configuration,
+            SqlExecutionContext sqlExecutionContext
+    ) {
+        return new CursorFunction(new WalApplyLagCursorFactory()) {
+            @Override
+            public boolean isRuntimeConstant() {
+                return true;
+            }
+        };
+    }
+
+    private static class WalApplyLagCursorFactory extends AbstractRecordCursorFactory {
+        private final WalApplyLagRecordCursor cursor = new WalApplyLagRecordCursor();
+
+        public WalApplyLagCursorFactory() {
+            super(METADATA);
+        }
+
+        @Override
+        public RecordCursor getCursor(SqlExecutionContext executionContext) {
+            cursor.of(executionContext.getCairoEngine().getWalApplyScheduler());
+            return cursor;
+        }
+
+        @Override
+        public boolean recordCursorSupportsRandomAccess() {
+            return false;
+        }
+
+        @Override
+        public void toPlan(PlanSink sink) {
+            sink.val(SIGNATURE);
+        }
+    }
+
+    private static class WalApplyLagRecordCursor implements RecordCursor {
+        private final WalApplyLagRecord record = new WalApplyLagRecord();
+        private final ObjList<WalApplyScheduler.TableLag> tables = new ObjList<>();
+        private int tableIndex = -1;
+
+        @Override
+        public void close() {
+            tableIndex = -1;
+        }
+
+        @Override
+        public Record getRecord() {
+            return record;
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (++tableIndex < tables.size()) {
+                record.table = tables.getQuick(tableIndex);
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long size() {
+            return tables.size();
+        }
+
+        @Override
+        public void toTop() {
+            tableIndex = -1;
+        }
+
+        private void of(WalApplyScheduler applyScheduler) {
+            applyScheduler.copyTo(tables);
+            toTop();
+        }
+
+        private static class WalApplyLagRecord implements Record {
+            private WalApplyScheduler.TableLag table;
+
+            @Override
+            public boolean getBool(int col) {
+                if (col == applyingColumn) {
+                    return table.isClaimed();
+                }
+                if (col == suspendedColumn) {
+                    return table.isSuspended();
+                }
+                return false;
+            }
+
+            @Override
+            public long getLong(int col) {
+                if (col == sequencerTxnColumn) {
+                    return table.getSequencerTxn();
+                }
+                if (col == appliedTxnColumn) {
+                    return table.getAppliedTxn();
+                }
+                if (col == lagColumn) {
+                    return table.getLag();
+                }
+                return Numbers.LONG_NaN;
+            }
+
+            @Override
+            public CharSequence getStr(int col) {
+                if (col == nameColumn) {
+                    return table.getTableToken().getTableName();
+                }
+                return null;
+            }
+
+            @Override
+            public CharSequence getStrB(int col) {
+                return getStr(col);
+            }
+
+            @Override
+            public int getStrLen(int col) {
+                return getStr(col).length();
+            }
+        }
+    }
+
+    static {
+        final GenericRecordMetadata metadata = new GenericRecordMetadata();
+        metadata.add(new TableColumnMetadata("name", ColumnType.STRING));
+        nameColumn = metadata.getColumnCount() - 1;
+        metadata.add(new TableColumnMetadata("sequencerTxn", ColumnType.LONG));
+        sequencerTxnColumn = metadata.getColumnCount() - 1;
+        metadata.add(new TableColumnMetadata("appliedTxn", ColumnType.LONG));
+        appliedTxnColumn = metadata.getColumnCount() - 1;
+        metadata.add(new TableColumnMetadata("lag", ColumnType.LONG));
+        lagColumn = metadata.getColumnCount() - 1;
+        metadata.add(new TableColumnMetadata("applying", ColumnType.BOOLEAN));
+        applyingColumn = metadata.getColumnCount() - 1;
+        metadata.add(new TableColumnMetadata("suspended", ColumnType.BOOLEAN));
+        suspendedColumn = metadata.getColumnCount() - 1;
+        METADATA = metadata;
+    }
+}
@@ -24,10 +24,12 @@
 
 package io.questdb.griffin.engine.functions.columns;
 
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.ByteFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
 import io.questdb.std.ObjList;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
@@ -53,11 +55,27 @@ public class ByteColumn extends ByteFunction implements ScalarFunction {
         return rec.getByte(columnIndex);
     }
 
+    @Override
+    public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        VectorizedFunctionUtils.copyByteColumn(frame, columnIndex, rowLo, rowHi, address);
+        VectorizedFunctionUtils.longToDouble(address, rowHi - rowLo);
+    }
+
+    @Override
+    public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        VectorizedFunctionUtils.copyByteColumn(frame, columnIndex, rowLo, rowHi, address);
+    }
+
     @Override
     public boolean isReadThreadSafe() {
         return true;
     }
 
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.putColumnName(columnIndex);
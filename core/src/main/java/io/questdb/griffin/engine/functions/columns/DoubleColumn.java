@@ -24,10 +24,12 @@
 
 package io.questdb.griffin.engine.functions.columns;
 
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
 import io.questdb.std.ObjList;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
@@ -52,11 +54,21 @@ public class DoubleColumn extends DoubleFunction implements ScalarFunction {
         return rec.getDouble(columnIndex);
     }
 
+    @Override
+    public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        VectorizedFunctionUtils.copyDoubleColumn(frame, columnIndex, rowLo, rowHi, address);
+    }
+
     @Override
     public boolean isReadThreadSafe() {
         return true;
     }
 
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.putColumnName(columnIndex);
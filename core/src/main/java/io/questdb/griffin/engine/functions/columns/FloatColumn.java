@@ -24,10 +24,12 @@
 
 package io.questdb.griffin.engine.functions.columns;
 
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.ScalarFunction;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.FloatFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
 import io.questdb.std.ObjList;
 
 import static io.questdb.griffin.engine.functions.columns.ColumnUtils.STATIC_COLUMN_COUNT;
@@ -47,6 +49,11 @@ public class FloatColumn extends FloatFunction implements ScalarFunction {
         return new FloatColumn(columnIndex);
     }
 
+    @Override
+    public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        VectorizedFunctionUtils.copyFloatColumn(frame, columnIndex, rowLo, rowHi, address);
+    }
+
     @Override
     public float getFloat(Record rec) {
         return rec.getFloat(columnIndex);
@@ -57,6 +64,11 @@ public class FloatColumn extends FloatFunction implements ScalarFunction {
         return true;
     }
 
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.putColumnName(columnIndex);
@@ -24,10 +24,12 @@
 
 package io.questdb.griffin.engine.functions.constants;
 
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.IntFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
 
 public class IntConstant extends IntFunction implements ConstantFunction {
 
@@ -49,6 +51,16 @@ public class IntConstant extends IntFunction implements ConstantFunction {
         return value;
     }
 
+    @Override
+    public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        Vect.setMemoryLong(address, Numbers.intToLong(value), rowHi - rowLo);
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.val(value);
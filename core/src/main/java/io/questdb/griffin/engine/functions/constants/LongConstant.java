@@ -24,10 +24,12 @@
 
 package io.questdb.griffin.engine.functions.constants;
 
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
 
 public class LongConstant extends LongFunction implements ConstantFunction {
     public final static LongConstant NULL = new LongConstant(Numbers.LONG_NaN);
@@ -55,6 +57,16 @@ public class LongConstant extends LongFunction implements ConstantFunction {
         return value;
     }
 
+    @Override
+    public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        Vect.setMemoryLong(address, value, rowHi - rowLo);
+    }
+
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
     public void toPlan(PlanSink sink) {
         sink.val(value).val('L');
     }
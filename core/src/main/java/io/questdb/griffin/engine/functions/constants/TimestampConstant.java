@@ -24,10 +24,12 @@
 
 package io.questdb.griffin.engine.functions.constants;
 
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.TimestampFunction;
 import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
 
 public class TimestampConstant extends TimestampFunction implements ConstantFunction {
     public static final TimestampConstant NULL = new TimestampConstant(Numbers.LONG_NaN);
@@ -41,11 +43,21 @@ public class TimestampConstant extends TimestampFunction implements ConstantFunc
         return value != Numbers.LONG_NaN ? new TimestampConstant(value) : NULL;
     }
 
+    @Override
+    public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+        Vect.setMemoryLong(address, value, rowHi - rowLo);
+    }
+
     @Override
     public long getTimestamp(Record rec) {
         return value;
     }
 
+    @Override
+    public boolean isVectorized() {
+        return true;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.val(value);
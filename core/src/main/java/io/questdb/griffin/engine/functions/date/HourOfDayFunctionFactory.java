@@ -25,7 +25,9 @@
 package io.questdb.griffin.engine.functions.date;
 
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
@@ -34,6 +36,7 @@ import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.microtime.Timestamps;
 
 public class HourOfDayFunctionFactory implements FunctionFactory {
@@ -72,9 +75,25 @@ public class HourOfDayFunctionFactory implements FunctionFactory {
             return Timestamps.getHourOfDay(value);
         }
 
+        @Override
+        public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            arg.getLongVector(frame, rowLo, rowHi, address);
+            for (long p = address, lim = address + ((rowHi - rowLo) << 3); p < lim; p += Long.BYTES) {
+                final long value = Unsafe.getUnsafe().getLong(p);
+                if (value != Numbers.LONG_NaN) {
+                    Unsafe.getUnsafe().putLong(p, Timestamps.getHourOfDay(value));
+                }
+            }
+        }
+
         @Override
         public String getName() {
             return "hour";
         }
+
+        @Override
+        public boolean isVectorized() {
+            return arg.isVectorized() && ColumnType.isTimestamp(arg.getType());
+        }
     }
 }
@@ -27,6 +27,7 @@ package io.questdb.griffin.engine.functions.groupby;
 import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.engine.functions.GroupByFunction;
@@ -36,6 +37,11 @@ import io.questdb.std.Numbers;
 public class CountLongGroupByFunction extends LongFunction implements GroupByFunction {
     private int valueIndex;
 
+    @Override
+    public void computeBatch(MapValue mapValue, PageFrame frame, long rowLo, long rowHi) {
+        mapValue.addLong(valueIndex, rowHi - rowLo);
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         mapValue.putLong(valueIndex, 1L);
@@ -51,11 +57,31 @@ public class CountLongGroupByFunction extends LongFunction implements GroupByFun
         return rec.getLong(valueIndex);
     }
 
+    @Override
+    public boolean isBatchComputeSupported() {
+        return true;
+    }
+
     @Override
     public boolean isConstant() {
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addLong(valueIndex, srcValue.getLong(valueIndex));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -28,20 +28,48 @@ import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class MaxDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
     private final Function arg;
+    private DirectLongList scratch;
     private int valueIndex;
 
     public MaxDoubleGroupByFunction(@NotNull Function arg) {
         this.arg = arg;
     }
 
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        scratch = Misc.free(scratch);
+    }
+
+    @Override
+    public void computeBatch(MapValue mapValue, PageFrame frame, long rowLo, long rowHi) {
+        final long count = rowHi - rowLo;
+        scratch = VectorizedFunctionUtils.ensureScratch(scratch, count);
+        final long address = scratch.getAddress();
+        arg.getDoubleVector(frame, rowLo, rowHi, address);
+        double max = mapValue.getDouble(valueIndex);
+        for (long p = address, lim = address + (count << 3); p < lim; p += Double.BYTES) {
+            final double next = Unsafe.getUnsafe().getDouble(p);
+            if (next > max || Double.isNaN(max)) {
+                max = next;
+            }
+        }
+        mapValue.putDouble(valueIndex, max);
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         mapValue.putDouble(valueIndex, arg.getDouble(record));
@@ -71,6 +99,25 @@ public class MaxDoubleGroupByFunction extends DoubleFunction implements GroupByF
         return "max";
     }
 
+    @Override
+    public boolean isBatchComputeSupported() {
+        return arg.isVectorized();
+    }
+
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        double srcMax = srcValue.getDouble(valueIndex);
+        double destMax = destValue.getDouble(valueIndex);
+        if (srcMax > destMax || Double.isNaN(destMax)) {
+            destValue.putDouble(valueIndex, srcMax);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
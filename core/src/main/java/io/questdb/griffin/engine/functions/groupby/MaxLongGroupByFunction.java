@@ -28,21 +28,46 @@ import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
 import org.jetbrains.annotations.NotNull;
 
 public class MaxLongGroupByFunction extends LongFunction implements GroupByFunction, UnaryFunction {
     private final Function arg;
+    private DirectLongList scratch;
     private int valueIndex;
 
     public MaxLongGroupByFunction(@NotNull Function arg) {
         this.arg = arg;
     }
 
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        scratch = Misc.free(scratch);
+    }
+
+    @Override
+    public void computeBatch(MapValue mapValue, PageFrame frame, long rowLo, long rowHi) {
+        final long count = rowHi - rowLo;
+        scratch = VectorizedFunctionUtils.ensureScratch(scratch, count);
+        final long address = scratch.getAddress();
+        arg.getLongVector(frame, rowLo, rowHi, address);
+        // long null is the smallest long value, so it never wins the comparison
+        final long next = Vect.maxLong(address, count);
+        if (next > mapValue.getLong(valueIndex)) {
+            mapValue.putLong(valueIndex, next);
+        }
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         mapValue.putLong(valueIndex, arg.getLong(record));
@@ -72,6 +97,25 @@ public class MaxLongGroupByFunction extends LongFunction implements GroupByFunct
         return "max";
     }
 
+    @Override
+    public boolean isBatchComputeSupported() {
+        return arg.isVectorized();
+    }
+
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcMax = srcValue.getLong(valueIndex);
+        long destMax = destValue.getLong(valueIndex);
+        if (srcMax > destMax) {
+            destValue.putLong(valueIndex, srcMax);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -72,6 +72,20 @@ public class MinDateGroupByFunction extends DateFunction implements GroupByFunct
         return "min";
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        long srcMin = srcValue.getDate(valueIndex);
+        long destMin = destValue.getDate(valueIndex);
+        if (srcMin != Numbers.LONG_NaN && (srcMin < destMin || destMin == Numbers.LONG_NaN)) {
+            destValue.putDate(valueIndex, srcMin);
+        }
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -28,21 +28,58 @@ import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class SumDoubleGroupByFunction extends DoubleFunction implements GroupByFunction, UnaryFunction {
     private final Function arg;
+    private DirectLongList scratch;
     private int valueIndex;
 
     public SumDoubleGroupByFunction(@NotNull Function arg) {
         this.arg = arg;
     }
 
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        scratch = Misc.free(scratch);
+    }
+
+    @Override
+    public void computeBatch(MapValue mapValue, PageFrame frame, long rowLo, long rowHi) {
+        final long count = rowHi - rowLo;
+        scratch = VectorizedFunctionUtils.ensureScratch(scratch, count);
+        final long address = scratch.getAddress();
+        arg.getDoubleVector(frame, rowLo, rowHi, address);
+        double sum = 0;
+        long valueCount = 0;
+        for (long p = address, lim = address + (count << 3); p < lim; p += Double.BYTES) {
+            final double value = Unsafe.getUnsafe().getDouble(p);
+            if (Numbers.isFinite(value)) {
+                sum += value;
+                valueCount++;
+            }
+        }
+        if (mapValue.getLong(valueIndex + 1) > 0) {
+            mapValue.addDouble(valueIndex, sum);
+            mapValue.addLong(valueIndex + 1, valueCount);
+        } else {
+            // the value may hold NaN set by setEmpty()
+            mapValue.putDouble(valueIndex, sum);
+            mapValue.putLong(valueIndex + 1, valueCount);
+        }
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         final double value = arg.getDouble(record);
@@ -83,11 +120,27 @@ public class SumDoubleGroupByFunction extends DoubleFunction implements GroupByF
         return "sum";
     }
 
+    @Override
+    public boolean isBatchComputeSupported() {
+        return arg.isVectorized();
+    }
+
     @Override
     public boolean isConstant() {
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addDouble(valueIndex, srcValue.getDouble(valueIndex));
+        destValue.addLong(valueIndex + 1, srcValue.getLong(valueIndex + 1));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
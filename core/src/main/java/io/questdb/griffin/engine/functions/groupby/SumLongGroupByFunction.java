@@ -28,21 +28,58 @@ import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
 import io.questdb.cairo.map.MapValue;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.GroupByFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.NotNull;
 
 public class SumLongGroupByFunction extends LongFunction implements GroupByFunction, UnaryFunction {
     private final Function arg;
+    private DirectLongList scratch;
     private int valueIndex;
 
     public SumLongGroupByFunction(@NotNull Function arg) {
         this.arg = arg;
     }
 
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        scratch = Misc.free(scratch);
+    }
+
+    @Override
+    public void computeBatch(MapValue mapValue, PageFrame frame, long rowLo, long rowHi) {
+        final long count = rowHi - rowLo;
+        scratch = VectorizedFunctionUtils.ensureScratch(scratch, count);
+        final long address = scratch.getAddress();
+        arg.getLongVector(frame, rowLo, rowHi, address);
+        long sum = 0;
+        long valueCount = 0;
+        for (long p = address, lim = address + (count << 3); p < lim; p += Long.BYTES) {
+            final long value = Unsafe.getUnsafe().getLong(p);
+            if (value != Numbers.LONG_NaN) {
+                sum += value;
+                valueCount++;
+            }
+        }
+        if (mapValue.getLong(valueIndex + 1) > 0) {
+            mapValue.addLong(valueIndex, sum);
+            mapValue.addLong(valueIndex + 1, valueCount);
+        } else {
+            // the value may hold null set by setEmpty()
+            mapValue.putLong(valueIndex, sum);
+            mapValue.putLong(valueIndex + 1, valueCount);
+        }
+    }
+
     @Override
     public void computeFirst(MapValue mapValue, Record record) {
         final long value = arg.getLong(record);
@@ -79,11 +116,27 @@ public class SumLongGroupByFunction extends LongFunction implements GroupByFunct
         return "sum";
     }
 
+    @Override
+    public boolean isBatchComputeSupported() {
+        return arg.isVectorized();
+    }
+
     @Override
     public boolean isConstant() {
         return false;
     }
 
+    @Override
+    public boolean isParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        destValue.addLong(valueIndex, srcValue.getLong(valueIndex));
+        destValue.addLong(valueIndex + 1, srcValue.getLong(valueIndex + 1));
+    }
+
     @Override
     public void pushValueTypes(ArrayColumnTypes columnTypes) {
         this.valueIndex = columnTypes.getColumnCount();
@@ -26,14 +26,19 @@ package io.questdb.griffin.engine.functions.lt;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.NegatableBooleanFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
+import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
+import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class LtDoubleVVFunctionFactory implements FunctionFactory {
     @Override
@@ -54,12 +59,19 @@ public class LtDoubleVVFunctionFactory implements FunctionFactory {
     private static class FuncVV extends NegatableBooleanFunction implements BinaryFunction {
         private final Function left;
         private final Function right;
+        private DirectLongList scratch;
 
         public FuncVV(Function left, Function right) {
             this.left = left;
             this.right = right;
         }
 
+        @Override
+        public void close() {
+            BinaryFunction.super.close();
+            scratch = Misc.free(scratch);
+        }
+
         @Override
         public boolean getBool(Record rec) {
             return negated
@@ -67,6 +79,22 @@ public class LtDoubleVVFunctionFactory implements FunctionFactory {
                     : left.getDouble(rec) < right.getDouble(rec);
         }
 
+        @Override
+        public void getBoolVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            final long count = rowHi - rowLo;
+            scratch = VectorizedFunctionUtils.ensureScratch(scratch, count);
+            final long rightAddress = scratch.getAddress();
+            left.getDoubleVector(frame, rowLo, rowHi, address);
+            right.getDoubleVector(frame, rowLo, rowHi, rightAddress);
+            // byte i is written after value i is read, so the left vector can be overwritten in place
+            for (long i = 0; i < count; i++) {
+                final double l = Unsafe.getUnsafe().getDouble(address + (i << 3));
+                final double r = Unsafe.getUnsafe().getDouble(rightAddress + (i << 3));
+                final boolean value = negated ? l >= r : l < r;
+                Unsafe.getUnsafe().putByte(address + i, (byte) (value ? 1 : 0));
+            }
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -77,6 +105,11 @@ public class LtDoubleVVFunctionFactory implements FunctionFactory {
             return right;
         }
 
+        @Override
+        public boolean isVectorized() {
+            return left.isVectorized() && right.isVectorized();
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val(left);
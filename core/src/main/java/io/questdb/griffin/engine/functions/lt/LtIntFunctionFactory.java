@@ -26,15 +26,20 @@ package io.questdb.griffin.engine.functions.lt;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.NegatableBooleanFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
+import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
+import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class LtIntFunctionFactory implements FunctionFactory {
     @Override
@@ -61,12 +66,19 @@ public class LtIntFunctionFactory implements FunctionFactory {
     private static class LtIntFunction extends NegatableBooleanFunction implements BinaryFunction {
         private final Function left;
         private final Function right;
+        private DirectLongList scratch;
 
         public LtIntFunction(Function left, Function right) {
             this.left = left;
             this.right = right;
         }
 
+        @Override
+        public void close() {
+            BinaryFunction.super.close();
+            scratch = Misc.free(scratch);
+        }
+
         @Override
         public boolean getBool(Record rec) {
             long left = this.left.getInt(rec);
@@ -79,6 +91,21 @@ public class LtIntFunctionFactory implements FunctionFactory {
             return false;
         }
 
+        @Override
+        public void getBoolVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            final long count = rowHi - rowLo;
+            scratch = VectorizedFunctionUtils.ensureScratch(scratch, count);
+            final long rightAddress = scratch.getAddress();
+            left.getLongVector(frame, rowLo, rowHi, address);
+            right.getLongVector(frame, rowLo, rowHi, rightAddress);
+            // byte i is written after value i is read, so the left vector can be overwritten in place
+            for (long i = 0; i < count; i++) {
+                final long l = Unsafe.getUnsafe().getLong(address + (i << 3));
+                final long r = Unsafe.getUnsafe().getLong(rightAddress + (i << 3));
+                Unsafe.getUnsafe().putByte(address + i, (byte) (l != Numbers.LONG_NaN && r != Numbers.LONG_NaN && negated == (l >= r) ? 1 : 0));
+            }
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -89,6 +116,11 @@ public class LtIntFunctionFactory implements FunctionFactory {
             return right;
         }
 
+        @Override
+        public boolean isVectorized() {
+            return left.isVectorized() && right.isVectorized();
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val(left);
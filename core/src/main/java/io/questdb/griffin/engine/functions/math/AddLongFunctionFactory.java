@@ -26,15 +26,20 @@ package io.questdb.griffin.engine.functions.math;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
+import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
+import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class AddLongFunctionFactory implements FunctionFactory {
     @Override
@@ -50,12 +55,19 @@ public class AddLongFunctionFactory implements FunctionFactory {
     private static class AddLongFunc extends LongFunction implements BinaryFunction {
         final Function left;
         final Function right;
+        private DirectLongList scratch;
 
         public AddLongFunc(Function left, Function right) {
             this.left = left;
             this.right = right;
         }
 
+        @Override
+        public void close() {
+            BinaryFunction.super.close();
+            scratch = Misc.free(scratch);
+        }
+
         @Override
         public Function getLeft() {
             return left;
@@ -71,11 +83,30 @@ public class AddLongFunctionFactory implements FunctionFactory {
             return l + r;
         }
 
+        @Override
+        public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            final long count = rowHi - rowLo;
+            scratch = VectorizedFunctionUtils.ensureScratch(scratch, count);
+            final long rightAddress = scratch.getAddress();
+            left.getLongVector(frame, rowLo, rowHi, address);
+            right.getLongVector(frame, rowLo, rowHi, rightAddress);
+            for (long i = 0, n = count << 3; i < n; i += Long.BYTES) {
+                final long l = Unsafe.getUnsafe().getLong(address + i);
+                final long r = Unsafe.getUnsafe().getLong(rightAddress + i);
+                Unsafe.getUnsafe().putLong(address + i, l == Numbers.LONG_NaN || r == Numbers.LONG_NaN ? Numbers.LONG_NaN : l + r);
+            }
+        }
+
         @Override
         public Function getRight() {
             return right;
         }
 
+        @Override
+        public boolean isVectorized() {
+            return left.isVectorized() && right.isVectorized();
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val(left).val('+').val(right);
@@ -26,14 +26,19 @@ package io.questdb.griffin.engine.functions.math;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.FloatFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
+import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
+import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class DivFloatFunctionFactory implements FunctionFactory {
     @Override
@@ -49,12 +54,33 @@ public class DivFloatFunctionFactory implements FunctionFactory {
     private static class Func extends FloatFunction implements BinaryFunction {
         private final Function left;
         private final Function right;
+        private DirectLongList scratch;
 
         public Func(Function left, Function right) {
             this.left = left;
             this.right = right;
         }
 
+        @Override
+        public void close() {
+            BinaryFunction.super.close();
+            scratch = Misc.free(scratch);
+        }
+
+        @Override
+        public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            final long count = rowHi - rowLo;
+            scratch = VectorizedFunctionUtils.ensureScratch(scratch, count);
+            final long rightAddress = scratch.getAddress();
+            left.getDoubleVector(frame, rowLo, rowHi, address);
+            right.getDoubleVector(frame, rowLo, rowHi, rightAddress);
+            for (long i = 0, n = count << 3; i < n; i += Double.BYTES) {
+                final double l = Unsafe.getUnsafe().getDouble(address + i);
+                final double r = Unsafe.getUnsafe().getDouble(rightAddress + i);
+                Unsafe.getUnsafe().putDouble(address + i, (float) l / (float) r);
+            }
+        }
+
         @Override
         public float getFloat(Record rec) {
             return left.getFloat(rec) / right.getFloat(rec);
@@ -70,6 +96,11 @@ public class DivFloatFunctionFactory implements FunctionFactory {
             return right;
         }
 
+        @Override
+        public boolean isVectorized() {
+            return left.isVectorized() && right.isVectorized();
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val(left).val('/').val(right);
@@ -26,15 +26,20 @@ package io.questdb.griffin.engine.functions.math;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.IntFunction;
+import io.questdb.griffin.engine.functions.VectorizedFunctionUtils;
+import io.questdb.std.DirectLongList;
 import io.questdb.std.IntList;
+import io.questdb.std.Misc;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class DivIntFunctionFactory implements FunctionFactory {
     @Override
@@ -50,12 +55,19 @@ public class DivIntFunctionFactory implements FunctionFactory {
     private static class Func extends IntFunction implements BinaryFunction {
         private final Function left;
         private final Function right;
+        private DirectLongList scratch;
 
         public Func(Function left, Function right) {
             this.left = left;
             this.right = right;
         }
 
+        @Override
+        public void close() {
+            BinaryFunction.super.close();
+            scratch = Misc.free(scratch);
+        }
+
         @Override
         public int getInt(Record rec) {
             final int l = left.getInt(rec);
@@ -72,11 +84,30 @@ public class DivIntFunctionFactory implements FunctionFactory {
             return left;
         }
 
+        @Override
+        public void getLongVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            final long count = rowHi - rowLo;
+            scratch = VectorizedFunctionUtils.ensureScratch(scratch, count);
+            final long rightAddress = scratch.getAddress();
+            left.getLongVector(frame, rowLo, rowHi, address);
+            right.getLongVector(frame, rowLo, rowHi, rightAddress);
+            for (long i = 0, n = count << 3; i < n; i += Long.BYTES) {
+                final long l = Unsafe.getUnsafe().getLong(address + i);
+                final long r = Unsafe.getUnsafe().getLong(rightAddress + i);
+                Unsafe.getUnsafe().putLong(address + i, l == Numbers.LONG_NaN || r == Numbers.LONG_NaN || r == 0 ? Numbers.LONG_NaN : Numbers.intToLong((int) l / (int) r));
+            }
+        }
+
         @Override
         public Function getRight() {
             return right;
         }
 
+        @Override
+        public boolean isVectorized() {
+            return left.isVectorized() && right.isVectorized();
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val(left).val('/').val(right);
@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.functions.math;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.PlanSink;
@@ -34,6 +35,7 @@ import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class FloorDoubleFunctionFactory implements FunctionFactory {
     @Override
@@ -64,6 +66,19 @@ public class FloorDoubleFunctionFactory implements FunctionFactory {
             return Math.floor(value);
         }
 
+        @Override
+        public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            function.getDoubleVector(frame, rowLo, rowHi, address);
+            for (long p = address, lim = address + ((rowHi - rowLo) << 3); p < lim; p += Double.BYTES) {
+                Unsafe.getUnsafe().putDouble(p, Math.floor(Unsafe.getUnsafe().getDouble(p)));
+            }
+        }
+
+        @Override
+        public boolean isVectorized() {
+            return function.isVectorized();
+        }
+
         @Override
         public void toPlan(PlanSink sink) {
             sink.val("floor(").val(function).val(')');
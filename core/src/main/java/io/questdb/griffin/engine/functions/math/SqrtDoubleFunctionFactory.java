@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.functions.math;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageFrame;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
@@ -33,6 +34,7 @@ import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
+import io.questdb.std.Unsafe;
 
 public class SqrtDoubleFunctionFactory implements FunctionFactory {
     @Override
@@ -63,9 +65,22 @@ public class SqrtDoubleFunctionFactory implements FunctionFactory {
             return Math.sqrt(value);
         }
 
+        @Override
+        public void getDoubleVector(PageFrame frame, long rowLo, long rowHi, long address) {
+            function.getDoubleVector(frame, rowLo, rowHi, address);
+            for (long p = address, lim = address + ((rowHi - rowLo) << 3); p < lim; p += Double.BYTES) {
+                Unsafe.getUnsafe().putDouble(p, Math.sqrt(Unsafe.getUnsafe().getDouble(p)));
+            }
+        }
+
         @Override
         public String getName() {
             return "sqrt";
         }
+
+        @Override
+        public boolean isVectorized() {
+            return function.isVectorized();
+        }
     }
 }
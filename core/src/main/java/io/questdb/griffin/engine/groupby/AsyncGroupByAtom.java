@@ -0,0 +1,243 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.map.MapValueMergeFunction;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Shared state of parallel keyed GROUP BY. Each worker thread aggregates page frames
+ * into its own map using its own group by functions, while the query owner thread
+ * aggregates into the owner map. Once all frames are reduced, worker maps are merged
+ * into the owner map.
+ */
+public class AsyncGroupByAtom implements StatefulAtom, Closeable, Plannable, MapValueMergeFunction {
+
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final RecordSink mapSink;
+    private final FastMap ownerMap;
+    private final GroupByFunctionsUpdater ownerUpdater;
+    private final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions;
+    private final AtomicIntegerArray perWorkerLocks;
+    private final ObjList<FastMap> perWorkerMaps;
+    private final ObjList<GroupByFunctionsUpdater> perWorkerUpdaters;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd;
+
+    public AsyncGroupByAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordSink mapSink,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            int workerCount
+    ) {
+        assert perWorkerGroupByFunctions == null || perWorkerGroupByFunctions.size() == workerCount;
+        this.rnd = new Rnd(
+                configuration.getNanosecondClock().getTicks(),
+                configuration.getMicrosecondClock().getTicks()
+        );
+        this.mapSink = mapSink;
+        this.groupByFunctions = groupByFunctions;
+        this.perWorkerGroupByFunctions = perWorkerGroupByFunctions;
+        this.ownerUpdater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
+        this.perWorkerUpdaters = new ObjList<>(workerCount);
+        this.perWorkerMaps = new ObjList<>(workerCount);
+        this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+        this.ownerMap = createMap(configuration, keyTypes, valueTypes);
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                if (perWorkerGroupByFunctions != null) {
+                    perWorkerUpdaters.extendAndSet(i, GroupByFunctionsUpdaterFactory.getInstance(asm, perWorkerGroupByFunctions.getQuick(i)));
+                } else {
+                    // functions are thread-safe, so they can be shared by all workers
+                    perWorkerUpdaters.extendAndSet(i, ownerUpdater);
+                }
+                perWorkerMaps.extendAndSet(i, createMap(configuration, keyTypes, valueTypes));
+            }
+        } catch (Throwable th) {
+            close();
+            throw th;
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner map anytime.
+            return -1;
+        }
+        final int size = perWorkerMaps.size();
+        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int id = (i + workerId) % size;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    public void clear() {
+        ownerMap.close();
+        Misc.freeObjListAndKeepObjects(perWorkerMaps);
+        Misc.clearObjList(groupByFunctions);
+        if (perWorkerGroupByFunctions != null) {
+            for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                Misc.clearObjList(perWorkerGroupByFunctions.getQuick(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerMap);
+        Misc.freeObjList(perWorkerMaps);
+        if (perWorkerGroupByFunctions != null) {
+            for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerGroupByFunctions.getQuick(i));
+            }
+        }
+    }
+
+    public FastMap getMap(int slotId) {
+        if (slotId == -1) {
+            return ownerMap;
+        }
+        return perWorkerMaps.getQuick(slotId);
+    }
+
+    public RecordSink getMapSink() {
+        return mapSink;
+    }
+
+    public FastMap getOwnerMap() {
+        return ownerMap;
+    }
+
+    public GroupByFunctionsUpdater getUpdater(int slotId) {
+        if (slotId == -1) {
+            return ownerUpdater;
+        }
+        return perWorkerUpdaters.getQuick(slotId);
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (perWorkerGroupByFunctions != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                    Function.init(perWorkerGroupByFunctions.getQuick(i), symbolTableSource, executionContext);
+                }
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+            groupByFunctions.getQuick(i).merge(destValue, srcValue);
+        }
+    }
+
+    /**
+     * Merges all per-worker maps into the owner map. Worker maps are released
+     * right after they were merged.
+     *
+     * @return the owner map containing the final aggregation result
+     */
+    public FastMap mergeWorkerMaps() {
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            final FastMap workerMap = perWorkerMaps.getQuick(i);
+            if (workerMap.size() > 0) {
+                ownerMap.merge(workerMap, this);
+            }
+            workerMap.close();
+        }
+        return ownerMap;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+
+    public void reopen() {
+        ownerMap.reopen();
+        for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+            perWorkerMaps.getQuick(i).reopen();
+        }
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(groupByFunctions);
+    }
+
+    private static FastMap createMap(
+            CairoConfiguration configuration,
+            @Transient ArrayColumnTypes keyTypes,
+            @Transient ArrayColumnTypes valueTypes
+    ) {
+        return new FastMap(
+                configuration.getSqlMapPageSize(),
+                keyTypes,
+                valueTypes,
+                configuration.getSqlMapKeyCapacity(),
+                configuration.getSqlFastMapLoadFactor(),
+                configuration.getSqlMapMaxResizes()
+        );
+    }
+}
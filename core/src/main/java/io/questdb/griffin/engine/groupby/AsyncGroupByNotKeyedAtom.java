@@ -0,0 +1,316 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.PageAddressCacheFrame;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.StatefulAtom;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.AsyncFilterAtom;
+import io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory;
+import io.questdb.jit.CompiledGroupBy;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Shared state of parallel non-keyed GROUP BY. Each worker slot owns a single
+ * aggregate value and, when the functions aren't thread-safe, its own group by
+ * functions. Once all frames are reduced, slot values are merged into the owner value.
+ * <p>
+ * When compiled, frames are aggregated by a {@link CompiledGroupBy} loop into the slot's
+ * partial value, which is then merged into the slot value. The compiled filter, if any,
+ * selects the frame rows in the same task, so that matching rows are never published to
+ * the query owner thread. When vectorized, frames are aggregated in batches of rows, see
+ * {@link GroupByFunction#computeBatch(io.questdb.cairo.map.MapValue, io.questdb.cairo.sql.PageFrame, long, long)}.
+ */
+public class AsyncGroupByNotKeyedAtom implements StatefulAtom, Closeable, Plannable {
+
+    private final int batchSize;
+    private final CompiledGroupBy compiledGroupBy;
+    private final AsyncFilterAtom filterAtom;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final PageAddressCacheFrame ownerFrame;
+    private final SimpleMapValue ownerPartialValue;
+    private final GroupByFunctionsUpdater ownerUpdater;
+    private final SimpleMapValue ownerValue;
+    private final ObjList<PageAddressCacheFrame> perWorkerFrames;
+    private final ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions;
+    private final AtomicIntegerArray perWorkerLocks;
+    private final ObjList<SimpleMapValue> perWorkerPartialValues;
+    private final ObjList<GroupByFunctionsUpdater> perWorkerUpdaters;
+    private final ObjList<SimpleMapValue> perWorkerValues;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd;
+    // slot -1 (owner) is stored at index 0, worker slots are shifted by one
+    private final boolean[] slotHasValue;
+    private final boolean vectorized;
+
+    public AsyncGroupByNotKeyedAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Nullable AsyncFilterAtom filterAtom,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @Nullable CompiledGroupBy compiledGroupBy,
+            boolean vectorized,
+            int valueCount,
+            int workerCount
+    ) {
+        assert perWorkerGroupByFunctions == null || perWorkerGroupByFunctions.size() == workerCount;
+        // functions keep their scratch vectors, so they can't be shared by workers
+        assert !vectorized || filterAtom == null && perWorkerGroupByFunctions != null;
+        assert vectorized || compiledGroupBy != null;
+        this.rnd = new Rnd(
+                configuration.getNanosecondClock().getTicks(),
+                configuration.getMicrosecondClock().getTicks()
+        );
+        this.filterAtom = filterAtom;
+        this.groupByFunctions = groupByFunctions;
+        this.perWorkerGroupByFunctions = perWorkerGroupByFunctions;
+        this.compiledGroupBy = compiledGroupBy;
+        this.ownerUpdater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
+        this.ownerValue = new SimpleMapValue(valueCount);
+        this.ownerPartialValue = compiledGroupBy != null ? new SimpleMapValue(valueCount) : null;
+        this.vectorized = vectorized;
+        this.batchSize = configuration.getSqlVectorizedBatchSize();
+        this.ownerFrame = new PageAddressCacheFrame();
+        this.perWorkerFrames = new ObjList<>(workerCount);
+        this.perWorkerUpdaters = new ObjList<>(workerCount);
+        this.perWorkerValues = new ObjList<>(workerCount);
+        this.perWorkerPartialValues = new ObjList<>(workerCount);
+        this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+        this.slotHasValue = new boolean[workerCount + 1];
+        for (int i = 0; i < workerCount; i++) {
+            if (perWorkerGroupByFunctions != null) {
+                perWorkerUpdaters.extendAndSet(i, GroupByFunctionsUpdaterFactory.getInstance(asm, perWorkerGroupByFunctions.getQuick(i)));
+            } else {
+                // functions are thread-safe, so they can be shared by all workers
+                perWorkerUpdaters.extendAndSet(i, ownerUpdater);
+            }
+            perWorkerValues.extendAndSet(i, new SimpleMapValue(valueCount));
+            if (compiledGroupBy != null) {
+                perWorkerPartialValues.extendAndSet(i, new SimpleMapValue(valueCount));
+            }
+            perWorkerFrames.extendAndSet(i, new PageAddressCacheFrame());
+        }
+    }
+
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner value anytime.
+            return -1;
+        }
+        final int size = perWorkerValues.size();
+        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int id = (i + workerId) % size;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    public void clear() {
+        Misc.clearObjList(groupByFunctions);
+        if (perWorkerGroupByFunctions != null) {
+            for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                Misc.clearObjList(perWorkerGroupByFunctions.getQuick(i));
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        // filter atom is owned by the filter factory
+        if (perWorkerGroupByFunctions != null) {
+            for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                Misc.freeObjList(perWorkerGroupByFunctions.getQuick(i));
+            }
+        }
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return compiled aggregation loop or null when the functions are vectorized
+     */
+    @Nullable
+    public CompiledGroupBy getCompiledGroupBy() {
+        return compiledGroupBy;
+    }
+
+    @Nullable
+    public Function getFilter(int slotId) {
+        return filterAtom != null ? filterAtom.getFilter(slotId) : null;
+    }
+
+    public PageAddressCacheFrame getFrame(int slotId) {
+        if (slotId == -1) {
+            return ownerFrame;
+        }
+        return perWorkerFrames.getQuick(slotId);
+    }
+
+    public ObjList<GroupByFunction> getGroupByFunctions(int slotId) {
+        if (slotId == -1 || perWorkerGroupByFunctions == null) {
+            return groupByFunctions;
+        }
+        return perWorkerGroupByFunctions.getQuick(slotId);
+    }
+
+    /**
+     * @return JIT filter atom when the filter is compiled, null otherwise
+     */
+    @Nullable
+    public AsyncJitFilteredRecordCursorFactory.AsyncJitFilterAtom getJitFilterAtom() {
+        return filterAtom instanceof AsyncJitFilteredRecordCursorFactory.AsyncJitFilterAtom
+                ? (AsyncJitFilteredRecordCursorFactory.AsyncJitFilterAtom) filterAtom
+                : null;
+    }
+
+    public SimpleMapValue getOwnerValue() {
+        return ownerValue;
+    }
+
+    public SimpleMapValue getPartialValue(int slotId) {
+        if (slotId == -1) {
+            return ownerPartialValue;
+        }
+        return perWorkerPartialValues.getQuick(slotId);
+    }
+
+    public GroupByFunctionsUpdater getUpdater(int slotId) {
+        if (slotId == -1) {
+            return ownerUpdater;
+        }
+        return perWorkerUpdaters.getQuick(slotId);
+    }
+
+    public SimpleMapValue getValue(int slotId) {
+        if (slotId == -1) {
+            return ownerValue;
+        }
+        return perWorkerValues.getQuick(slotId);
+    }
+
+    public boolean hasFilter() {
+        return filterAtom != null;
+    }
+
+    public boolean hasValue(int slotId) {
+        return slotHasValue[slotId + 1];
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filterAtom != null) {
+            filterAtom.init(symbolTableSource, executionContext);
+        }
+        if (perWorkerGroupByFunctions != null) {
+            final boolean current = executionContext.getCloneSymbolTables();
+            executionContext.setCloneSymbolTables(true);
+            try {
+                for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                    Function.init(perWorkerGroupByFunctions.getQuick(i), symbolTableSource, executionContext);
+                }
+            } finally {
+                executionContext.setCloneSymbolTables(current);
+            }
+        }
+    }
+
+    /**
+     * @return true when frames are aggregated in batches of rows via vector methods
+     */
+    public boolean isVectorized() {
+        return vectorized;
+    }
+
+    /**
+     * Merges values of all worker slots into the owner value. When no rows were
+     * aggregated, the owner value is set to the functions' empty state.
+     *
+     * @return the owner value containing the final aggregation result
+     */
+    public SimpleMapValue mergeWorkerValues() {
+        boolean ownerHasValue = hasValue(-1);
+        for (int i = 0, n = perWorkerValues.size(); i < n; i++) {
+            if (hasValue(i)) {
+                final SimpleMapValue workerValue = perWorkerValues.getQuick(i);
+                if (ownerHasValue) {
+                    for (int j = 0, m = groupByFunctions.size(); j < m; j++) {
+                        groupByFunctions.getQuick(j).merge(ownerValue, workerValue);
+                    }
+                } else {
+                    ownerValue.copy(workerValue);
+                    ownerHasValue = true;
+                }
+            }
+        }
+        if (!ownerHasValue) {
+            ownerUpdater.updateEmpty(ownerValue);
+        }
+        return ownerValue;
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+
+    public void reset() {
+        for (int i = 0, n = slotHasValue.length; i < n; i++) {
+            slotHasValue[i] = false;
+        }
+    }
+
+    public void setHasValue(int slotId) {
+        slotHasValue[slotId + 1] = true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filterAtom);
+    }
+}
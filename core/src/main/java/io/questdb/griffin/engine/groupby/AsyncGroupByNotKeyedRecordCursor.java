@@ -0,0 +1,160 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+
+class AsyncGroupByNotKeyedRecordCursor implements NoRandomAccessRecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncGroupByNotKeyedRecordCursor.class);
+    private static final String exceptionMessage = "timeout, query aborted";
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final ObjList<Function> recordFunctions;
+    private final VirtualRecord recordA;
+    private PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence;
+    private boolean isOpen;
+    private int recordsRemaining = 1;
+
+    public AsyncGroupByNotKeyedRecordCursor(ObjList<GroupByFunction> groupByFunctions, ObjList<Function> recordFunctions) {
+        this.groupByFunctions = groupByFunctions;
+        this.recordFunctions = recordFunctions;
+        this.recordA = new VirtualRecordNoRowid(recordFunctions);
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameSequence.getFrameCount())
+                        .$(", frameId=").$(frameSequence.getId())
+                        .I$();
+
+                if (frameSequence.getFrameCount() > 0) {
+                    frameSequence.await();
+                }
+                frameSequence.getAtom().clear();
+                frameSequence.clear();
+            }
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return (SymbolTable) recordFunctions.getQuick(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return recordsRemaining-- > 0;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return ((SymbolFunction) recordFunctions.getQuick(columnIndex)).newSymbolTable();
+    }
+
+    @Override
+    public long size() {
+        return 1;
+    }
+
+    @Override
+    public void toTop() {
+        recordsRemaining = 1;
+        GroupByUtils.toTop(groupByFunctions);
+    }
+
+    private void aggregate(SqlExecutionCircuitBreaker circuitBreaker) {
+        final int frameCount = frameSequence.getFrameCount();
+        boolean allFramesActive = true;
+        try {
+            int frameIndex = -1;
+            while (frameIndex < frameCount - 1) {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    final PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameCount)
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    frameSequence.collect(cursor, false);
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                } else {
+                    Os.pause();
+                }
+            }
+        } catch (CairoException e) {
+            throw e;
+        } catch (Throwable e) {
+            LOG.critical().$("unexpected error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+
+        if (!allFramesActive) {
+            final CairoException failure = frameSequence.getFailure();
+            if (failure != null) {
+                throw failure;
+            }
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+    }
+
+    void of(PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence, SqlExecutionContext executionContext) throws SqlException {
+        final AsyncGroupByNotKeyedAtom atom = frameSequence.getAtom();
+        isOpen = true;
+        atom.reset();
+        this.frameSequence = frameSequence;
+        Function.init(recordFunctions, frameSequence.getSymbolTableSource(), executionContext);
+        aggregate(executionContext.getCircuitBreaker());
+        recordA.of(atom.mergeWorkerValues());
+        toTop();
+    }
+}
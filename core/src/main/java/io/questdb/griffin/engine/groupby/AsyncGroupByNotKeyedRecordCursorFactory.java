@@ -0,0 +1,296 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.table.AsyncFilteredRecordCursorFactory;
+import io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory;
+import io.questdb.jit.CompiledGroupBy;
+import io.questdb.jit.GroupByCompiler;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Non-keyed GROUP BY that aggregates page frames in parallel on the shared worker pool.
+ * Frames are either aggregated by a compiled aggregation loop, see {@link GroupByCompiler},
+ * or by vectorized group by functions.
+ * <p>
+ * When the base is a compiled (JIT) filter, the filter selects the rows of a frame in
+ * the same frame task and the compiled loop aggregates the selected rows, instead of
+ * publishing the matching rows to the query owner thread and aggregating them there
+ * one by one. Frames with column tops are aggregated row by row.
+ */
+public class AsyncGroupByNotKeyedRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncGroupByNotKeyedRecordCursorFactory::aggregate;
+
+    private final AsyncGroupByNotKeyedAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncGroupByNotKeyedRecordCursor cursor;
+    private final PageFrameSequence<AsyncGroupByNotKeyedAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final RecordCursorFactory pageFrameFactory;
+    private final ObjList<Function> recordFunctions;
+    private final int workerCount;
+
+    public AsyncGroupByNotKeyedRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordMetadata groupByMetadata,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @Nullable CompiledGroupBy compiledGroupBy,
+            boolean vectorized,
+            @NotNull ObjList<Function> recordFunctions,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            int valueCount,
+            int workerCount
+    ) {
+        super(groupByMetadata);
+        this.base = base;
+        this.groupByFunctions = groupByFunctions;
+        this.recordFunctions = recordFunctions;
+        if (base instanceof AsyncJitFilteredRecordCursorFactory) {
+            this.pageFrameFactory = base.getBaseFactory();
+            this.atom = new AsyncGroupByNotKeyedAtom(
+                    asm,
+                    configuration,
+                    ((AsyncJitFilteredRecordCursorFactory) base).getFilterAtom(),
+                    groupByFunctions,
+                    perWorkerGroupByFunctions,
+                    compiledGroupBy,
+                    vectorized,
+                    valueCount,
+                    workerCount
+            );
+        } else {
+            this.pageFrameFactory = base;
+            this.atom = new AsyncGroupByNotKeyedAtom(
+                    asm,
+                    configuration,
+                    null,
+                    groupByFunctions,
+                    perWorkerGroupByFunctions,
+                    compiledGroupBy,
+                    vectorized,
+                    valueCount,
+                    workerCount
+            );
+        }
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+        this.cursor = new AsyncGroupByNotKeyedRecordCursor(groupByFunctions, recordFunctions);
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Compiled filters are fused into the aggregation only when they don't implement a limit on their own.
+     * Java filters aren't supported.
+     */
+    public static boolean isSupported(RecordCursorFactory base) {
+        if (base instanceof AsyncJitFilteredRecordCursorFactory) {
+            return !base.followedLimitAdvice();
+        }
+        return !(base instanceof AsyncFilteredRecordCursorFactory) && base.supportPageFrameCursor();
+    }
+
+    /**
+     * Frames are aggregated in batches of rows when there is no filter and all functions
+     * support batch aggregation. In this case each worker needs its own functions.
+     */
+    public static boolean isVectorizedSupported(
+            CairoConfiguration configuration,
+            RecordCursorFactory base,
+            ObjList<GroupByFunction> groupByFunctions
+    ) {
+        return configuration.isSqlVectorizedFunctionsEnabled()
+                && !(base instanceof AsyncFilteredRecordCursorFactory)
+                && !(base instanceof AsyncJitFilteredRecordCursorFactory)
+                && GroupByUtils.isBatchComputeSupported(groupByFunctions);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        frameSequence.of(pageFrameFactory, executionContext, collectSubSeq, atom, ORDER_ASC);
+        try {
+            cursor.of(frameSequence, executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type(atom.getCompiledGroupBy() != null ? "Async JIT Group By" : "Async Group By");
+        if (atom.isVectorized()) {
+            sink.meta("vectorized").val(true);
+        }
+        sink.optAttr("values", groupByFunctions, true);
+        if (atom.hasFilter()) {
+            sink.optAttr("filter", atom, true);
+        }
+        sink.attr("workers").val(workerCount);
+        sink.child(pageFrameFactory);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncGroupByNotKeyedAtom atom = task.getFrameSequence(AsyncGroupByNotKeyedAtom.class).getAtom();
+        final AsyncJitFilteredRecordCursorFactory.AsyncJitFilterAtom jitFilterAtom = atom.getJitFilterAtom();
+        final CompiledGroupBy compiledGroupBy = atom.getCompiledGroupBy();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final GroupByFunctionsUpdater updater = atom.getUpdater(slotId);
+        final SimpleMapValue value = atom.getValue(slotId);
+        boolean hasValue = atom.hasValue(slotId);
+        try {
+            if (compiledGroupBy != null && !task.getPageAddressCache().hasColumnTops(task.getFrameIndex())) {
+                final DirectLongList columns = task.getColumns();
+                final SimpleMapValue partialValue = atom.getPartialValue(slotId);
+                final long rowCount;
+                if (jitFilterAtom != null) {
+                    final DirectLongList rows = task.getRows();
+                    rows.clear();
+                    // also fills in column addresses
+                    jitFilterAtom.filterFrame(task);
+                    rowCount = rows.size();
+                    compiledGroupBy.aggregateRows(columns.getAddress(), rows.getAddress(), rowCount, partialValue);
+                    // rows aren't needed by the owner thread
+                    rows.clear();
+                } else {
+                    fillColumns(task);
+                    rowCount = frameRowCount;
+                    compiledGroupBy.aggregate(columns.getAddress(), rowCount, partialValue);
+                }
+                if (rowCount > 0) {
+                    if (hasValue) {
+                        final ObjList<GroupByFunction> groupByFunctions = atom.getGroupByFunctions(slotId);
+                        for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+                            groupByFunctions.getQuick(i).merge(value, partialValue);
+                        }
+                    } else {
+                        value.copy(partialValue);
+                        hasValue = true;
+                    }
+                }
+            } else if (atom.isVectorized()) {
+                final PageAddressCacheFrame frame = atom.getFrame(slotId).of(task.getPageAddressCache(), task.getFrameIndex());
+                final ObjList<GroupByFunction> groupByFunctions = atom.getGroupByFunctions(slotId);
+                final int batchSize = atom.getBatchSize();
+                if (!hasValue && frameRowCount > 0) {
+                    updater.updateEmpty(value);
+                    hasValue = true;
+                }
+                for (long rowLo = 0; rowLo < frameRowCount; rowLo += batchSize) {
+                    final long rowHi = Math.min(rowLo + batchSize, frameRowCount);
+                    for (int i = 0, n = groupByFunctions.size(); i < n; i++) {
+                        groupByFunctions.getQuick(i).computeBatch(value, frame, rowLo, rowHi);
+                    }
+                }
+            } else {
+                // frames with column tops can't be aggregated by the compiled loop
+                final Function filter = atom.getFilter(slotId);
+                for (long r = 0; r < frameRowCount; r++) {
+                    record.setRowIndex(r);
+                    if (filter == null || filter.getBool(record)) {
+                        if (hasValue) {
+                            updater.updateExisting(value, record);
+                        } else {
+                            updater.updateNew(value, record);
+                            hasValue = true;
+                        }
+                    }
+                }
+            }
+            if (hasValue) {
+                atom.setHasValue(slotId);
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private static void fillColumns(PageFrameReduceTask task) {
+        final DirectLongList columns = task.getColumns();
+        final PageAddressCache pageAddressCache = task.getPageAddressCache();
+        final long columnCount = pageAddressCache.getColumnCount();
+        if (columns.getCapacity() < columnCount) {
+            columns.setCapacity(columnCount);
+        }
+        columns.clear();
+        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+            columns.add(pageAddressCache.getPageAddress(task.getFrameIndex(), columnIndex));
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeObjList(groupByFunctions);
+        Misc.free(base);
+        Misc.free(atom);
+        Misc.free(frameSequence);
+        Misc.free(cursor);
+    }
+}
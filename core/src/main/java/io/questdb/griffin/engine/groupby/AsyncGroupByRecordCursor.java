@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.ObjList;
+import io.questdb.std.Os;
+
+class AsyncGroupByRecordCursor extends VirtualFunctionSkewedSymbolRecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncGroupByRecordCursor.class);
+    private static final String exceptionMessage = "timeout, query aborted";
+    private final ObjList<Function> recordFunctions;
+    private PageFrameSequence<? extends AsyncGroupByAtom> frameSequence;
+    private boolean isOpen;
+
+    public AsyncGroupByRecordCursor(ObjList<Function> recordFunctions) {
+        super(recordFunctions);
+        this.recordFunctions = recordFunctions;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameSequence.getFrameCount())
+                        .$(", frameId=").$(frameSequence.getId())
+                        .I$();
+
+                if (frameSequence.getFrameCount() > 0) {
+                    frameSequence.await();
+                }
+                frameSequence.getAtom().clear();
+                frameSequence.clear();
+            }
+            baseCursor = null;
+        }
+    }
+
+    @Override
+    public long size() {
+        return baseCursor.size();
+    }
+
+    private void buildMap() {
+        final int frameCount = frameSequence.getFrameCount();
+        boolean allFramesActive = true;
+        try {
+            int frameIndex = -1;
+            while (frameIndex < frameCount - 1) {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    final PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameCount)
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    frameSequence.collect(cursor, false);
+                } else {
+                    Os.pause();
+                }
+            }
+        } catch (CairoException e) {
+            // map limits and circuit breaker errors of the local reduce keep their message
+            throw e;
+        } catch (Throwable e) {
+            LOG.critical().$("unexpected error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+
+        if (!allFramesActive) {
+            // a worker failed or the circuit breaker tripped
+            final CairoException failure = frameSequence.getFailure();
+            if (failure != null) {
+                throw failure;
+            }
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+    }
+
+    /**
+     * Returns cursor over the final aggregation result. The default implementation streams
+     * the map in its own order.
+     *
+     * @param map owner map with all worker maps merged into it
+     * @return cursor over the result map
+     */
+    protected RecordCursor getMapCursor(FastMap map) {
+        return map.getCursor();
+    }
+
+    void of(PageFrameSequence<? extends AsyncGroupByAtom> frameSequence, SqlExecutionContext executionContext) throws SqlException {
+        final AsyncGroupByAtom atom = frameSequence.getAtom();
+        if (!isOpen) {
+            isOpen = true;
+            atom.reopen();
+        }
+        this.frameSequence = frameSequence;
+        Function.init(recordFunctions, frameSequence.getSymbolTableSource(), executionContext);
+        buildMap();
+        of(getMapCursor(atom.mergeWorkerMaps()));
+    }
+}
@@ -0,0 +1,84 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.std.BytecodeAssembler;
+import io.questdb.std.ObjList;
+import io.questdb.std.Transient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Shared state of parallel SAMPLE BY. Map keys are the group by keys followed by the
+ * sample bucket timestamp. The first map value holds the lowest row id of the entry,
+ * which is used to stream the result in the same order as single-threaded SAMPLE BY.
+ */
+class AsyncSampleByAtom extends AsyncGroupByAtom {
+    static final int ROW_ID_VALUE_INDEX = 0;
+    private final int timestampIndex;
+    private final TimestampSampler timestampSampler;
+
+    AsyncSampleByAtom(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull RecordSink mapSink,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @NotNull TimestampSampler timestampSampler,
+            int timestampIndex,
+            int workerCount
+    ) {
+        super(asm, configuration, keyTypes, valueTypes, mapSink, groupByFunctions, perWorkerGroupByFunctions, workerCount);
+        this.timestampSampler = timestampSampler;
+        this.timestampIndex = timestampIndex;
+    }
+
+    public int getTimestampIndex() {
+        return timestampIndex;
+    }
+
+    public TimestampSampler getTimestampSampler() {
+        return timestampSampler;
+    }
+
+    @Override
+    public void merge(MapValue destValue, MapValue srcValue) {
+        super.merge(destValue, srcValue);
+        updateRowId(destValue, srcValue.getLong(ROW_ID_VALUE_INDEX));
+    }
+
+    static void updateRowId(MapValue value, long rowId) {
+        if (rowId < value.getLong(ROW_ID_VALUE_INDEX)) {
+            value.putLong(ROW_ID_VALUE_INDEX, rowId);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.Vect;
+
+/**
+ * Streams merged SAMPLE BY map in the order of the first row of each entry. Since
+ * bucket timestamps grow together with row ids, this is also the bucket order, and
+ * within a bucket the keys come out in order of their first appearance, as they do
+ * in single-threaded SAMPLE BY.
+ */
+class AsyncSampleByRecordCursor extends AsyncGroupByRecordCursor {
+    private final OrderedMapCursor orderedMapCursor = new OrderedMapCursor();
+    // pairs of (first row id, map entry address)
+    private final DirectLongList sortedEntries;
+
+    public AsyncSampleByRecordCursor(ObjList<Function> recordFunctions, long initialCapacity) {
+        super(recordFunctions);
+        this.sortedEntries = new DirectLongList(initialCapacity, MemoryTag.NATIVE_SAMPLE_BY_LONG_LIST);
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        Misc.free(sortedEntries);
+    }
+
+    @Override
+    public Record getRecordB() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long size() {
+        // keep size undetermined, same as single-threaded SAMPLE BY
+        return -1;
+    }
+
+    @Override
+    protected RecordCursor getMapCursor(FastMap map) {
+        final RecordCursor mapCursor = map.getCursor();
+        sortedEntries.reopen();
+        sortedEntries.clear();
+        final Record mapRecord = mapCursor.getRecord();
+        while (mapCursor.hasNext()) {
+            sortedEntries.add(mapRecord.getLong(AsyncSampleByAtom.ROW_ID_VALUE_INDEX));
+            sortedEntries.add(mapRecord.getRowId());
+        }
+        Vect.sortLongIndexAscInPlace(sortedEntries.getAddress(), sortedEntries.size() / 2);
+        return orderedMapCursor.of(mapCursor, sortedEntries.size() / 2);
+    }
+
+    private class OrderedMapCursor implements RecordCursor {
+        private long index;
+        private RecordCursor mapCursor;
+        private long size;
+
+        @Override
+        public void close() {
+            mapCursor = Misc.free(mapCursor);
+        }
+
+        @Override
+        public Record getRecord() {
+            return mapCursor.getRecord();
+        }
+
+        @Override
+        public Record getRecordB() {
+            return mapCursor.getRecordB();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return mapCursor.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (index < size) {
+                mapCursor.recordAt(mapCursor.getRecord(), sortedEntries.get(2 * index + 1));
+                index++;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            mapCursor.recordAt(record, atRowId);
+        }
+
+        @Override
+        public long size() {
+            return size;
+        }
+
+        @Override
+        public void toTop() {
+            index = 0;
+        }
+
+        private OrderedMapCursor of(RecordCursor mapCursor, long size) {
+            this.mapCursor = mapCursor;
+            this.size = size;
+            this.index = 0;
+            return this;
+        }
+    }
+}
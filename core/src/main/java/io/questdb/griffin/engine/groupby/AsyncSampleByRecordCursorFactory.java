@@ -0,0 +1,254 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.columns.TimestampColumn;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * SAMPLE BY FILL(NONE) that aggregates page frames in parallel on the shared worker pool.
+ * Rows are assigned to sample buckets independently by each worker, and partial aggregates
+ * for the same (keys, bucket) pair are merged when all frames are reduced. Used for fixed
+ * size sample intervals without time zone conversion only.
+ */
+public class AsyncSampleByRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncSampleByRecordCursorFactory::aggregate;
+
+    private final AsyncSampleByAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncSampleByRecordCursor cursor;
+    private final PageFrameSequence<AsyncSampleByAtom> frameSequence;
+    private final ObjList<GroupByFunction> groupByFunctions;
+    private final Function offsetFunc;
+    private final int offsetFuncPos;
+    private final ObjList<Function> recordFunctions;
+    private final int timestampIndex;
+    private final TimestampSampler timestampSampler;
+    private final int workerCount;
+
+    public AsyncSampleByRecordCursorFactory(
+            @Transient @NotNull BytecodeAssembler asm,
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordMetadata groupByMetadata,
+            @Transient @NotNull ListColumnFilter listColumnFilter,
+            @Transient @NotNull ArrayColumnTypes keyTypes,
+            @Transient @NotNull ArrayColumnTypes valueTypes,
+            @NotNull ObjList<GroupByFunction> groupByFunctions,
+            @Nullable ObjList<ObjList<GroupByFunction>> perWorkerGroupByFunctions,
+            @NotNull ObjList<Function> recordFunctions,
+            @NotNull TimestampSampler timestampSampler,
+            int timestampIndex,
+            @NotNull Function offsetFunc,
+            int offsetFuncPos,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            int workerCount
+    ) {
+        super(groupByMetadata);
+        try {
+            this.base = base;
+            this.groupByFunctions = groupByFunctions;
+            this.recordFunctions = recordFunctions;
+            this.timestampSampler = timestampSampler;
+            this.timestampIndex = timestampIndex;
+            this.offsetFunc = offsetFunc;
+            this.offsetFuncPos = offsetFuncPos;
+            // bucket timestamp is the last map key column
+            final int bucketColumnIndex = valueTypes.getColumnCount() + keyTypes.getColumnCount() - 1;
+            for (int i = 0, n = recordFunctions.size(); i < n; i++) {
+                if (recordFunctions.getQuick(i) == null) {
+                    recordFunctions.setQuick(i, TimestampColumn.newInstance(bucketColumnIndex));
+                }
+            }
+            // sink will be storing record columns to map key, bucket timestamp is appended by the reducer
+            final RecordSink mapSink = RecordSinkFactory.getInstance(asm, base.getMetadata(), listColumnFilter, false);
+            this.atom = new AsyncSampleByAtom(
+                    asm,
+                    configuration,
+                    keyTypes,
+                    valueTypes,
+                    mapSink,
+                    groupByFunctions,
+                    perWorkerGroupByFunctions,
+                    timestampSampler,
+                    timestampIndex,
+                    workerCount
+            );
+            this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+            this.cursor = new AsyncSampleByRecordCursor(recordFunctions, 2L * configuration.getSqlSmallMapKeyCapacity());
+            this.workerCount = workerCount;
+        } catch (Throwable e) {
+            Misc.freeObjList(recordFunctions);
+            Misc.free(offsetFunc);
+            if (perWorkerGroupByFunctions != null) {
+                for (int i = 0, n = perWorkerGroupByFunctions.size(); i < n; i++) {
+                    Misc.freeObjList(perWorkerGroupByFunctions.getQuick(i));
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Parallel SAMPLE BY relies on the bucket of a row being computable from its timestamp
+     * alone, which holds for fixed size sample intervals only.
+     *
+     * @param timestampSampler sampler of the SAMPLE BY query
+     * @return true if the sampler can be used by parallel SAMPLE BY
+     */
+    public static boolean isSamplerSupported(TimestampSampler timestampSampler) {
+        return timestampSampler instanceof MicroTimestampSampler;
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final long fixedOffset = getFixedOffset(executionContext);
+        frameSequence.of(base, executionContext, collectSubSeq, atom, ORDER_ASC);
+        try {
+            if (frameSequence.getFrameCount() > 0) {
+                if (fixedOffset == Long.MIN_VALUE) {
+                    // align sample buckets to the first observation, the same way single-threaded SAMPLE BY does
+                    final long firstTimestampAddress = frameSequence.getPageAddressCache().getPageAddress(0, timestampIndex);
+                    timestampSampler.setStart(Unsafe.getUnsafe().getLong(firstTimestampAddress));
+                } else {
+                    timestampSampler.setStart(fixedOffset);
+                }
+            }
+            cursor.of(frameSequence, executionContext);
+            return cursor;
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Sample By");
+        sink.optAttr("keys", GroupByRecordCursorFactory.getKeys(recordFunctions, getMetadata()));
+        sink.optAttr("values", groupByFunctions, true);
+        sink.attr("workers").val(workerCount);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void aggregate(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final long frameRowCount = task.getFrameRowCount();
+        final AsyncSampleByAtom atom = task.getFrameSequence(AsyncSampleByAtom.class).getAtom();
+        final TimestampSampler timestampSampler = atom.getTimestampSampler();
+        final int timestampIndex = atom.getTimestampIndex();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final FastMap map = atom.getMap(slotId);
+        final GroupByFunctionsUpdater updater = atom.getUpdater(slotId);
+        final RecordSink mapSink = atom.getMapSink();
+        try {
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                final MapKey key = map.withKey();
+                mapSink.copy(record, key);
+                key.putTimestamp(timestampSampler.round(record.getTimestamp(timestampIndex)));
+                final MapValue value = key.createValue();
+                // frames may arrive out of order, so keep the lowest row id
+                if (value.isNew()) {
+                    value.putLong(AsyncSampleByAtom.ROW_ID_VALUE_INDEX, record.getRowId());
+                    updater.updateNew(value, record);
+                } else {
+                    AsyncSampleByAtom.updateRowId(value, record.getRowId());
+                    updater.updateExisting(value, record);
+                }
+            }
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    private long getFixedOffset(SqlExecutionContext executionContext) throws SqlException {
+        offsetFunc.init(null, executionContext);
+        final CharSequence offset = offsetFunc.getStr(null);
+        if (offset != null) {
+            final long val = Timestamps.parseOffset(offset);
+            if (val == Numbers.LONG_NaN) {
+                // bad value for offset
+                throw SqlException.$(offsetFuncPos, "invalid offset: ").put(offset);
+            }
+            return Numbers.decodeLowInt(val) * Timestamps.MINUTE_MICROS;
+        }
+        return Long.MIN_VALUE;
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeObjList(recordFunctions);
+        Misc.free(offsetFunc);
+        Misc.free(base);
+        Misc.free(atom);
+        Misc.free(frameSequence);
+        Misc.free(cursor);
+    }
+}
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.groupby;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
@@ -69,7 +70,7 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             this.groupByFunctions = groupByFunctions;
             this.recordFunctions = recordFunctions;
             final GroupByFunctionsUpdater updater = GroupByFunctionsUpdaterFactory.getInstance(asm, groupByFunctions);
-            this.cursor = new GroupByRecordCursor(recordFunctions, updater, keyTypes, valueTypes, configuration);
+            this.cursor = new GroupByRecordCursor(asm, recordFunctions, updater, keyTypes, valueTypes, configuration);
         } catch (Throwable e) {
             Misc.freeObjList(recordFunctions);
             throw e;
@@ -140,9 +141,14 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
     class GroupByRecordCursor extends VirtualFunctionSkewedSymbolRecordCursor {
         private final Map dataMap;
         private final GroupByFunctionsUpdater groupByFunctionsUpdater;
+        // map to aggregate spilled partitions with, null when spilling is disabled
+        private final FastMap partitionMap;
+        private final GroupBySpill spill;
+        private final long spillMemoryBudget;
         private boolean isOpen;
 
         public GroupByRecordCursor(
+                @Transient @NotNull BytecodeAssembler asm,
                 ObjList<Function> functions,
                 GroupByFunctionsUpdater groupByFunctionsUpdater,
                 @Transient @NotNull ArrayColumnTypes keyTypes,
@@ -152,6 +158,18 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             super(functions);
             this.dataMap = MapFactory.createMap(configuration, keyTypes, valueTypes);
             this.groupByFunctionsUpdater = groupByFunctionsUpdater;
+            this.spillMemoryBudget = configuration.getSqlSpillMemoryBudget();
+            if (spillMemoryBudget > 0 && dataMap instanceof FastMap) {
+                final RecordMetadata baseMetadata = base.getMetadata();
+                final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
+                entityColumnFilter.of(baseMetadata.getColumnCount());
+                final RecordSink spillSink = RecordSinkFactory.getInstance(asm, baseMetadata, entityColumnFilter, false);
+                this.partitionMap = (FastMap) MapFactory.createMap(configuration, keyTypes, valueTypes);
+                this.spill = new GroupBySpill(configuration, baseMetadata, spillSink);
+            } else {
+                this.partitionMap = null;
+                this.spill = null;
+            }
             this.isOpen = true;
         }
 
@@ -160,6 +178,8 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
             if (isOpen) {
                 isOpen = false;
                 Misc.free(dataMap);
+                Misc.free(partitionMap);
+                Misc.free(spill);
                 Misc.clearObjList(groupByFunctions);
                 super.close();
             }
@@ -170,8 +190,15 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 if (!isOpen) {
                     isOpen = true;
                     dataMap.reopen();
+                    if (partitionMap != null) {
+                        partitionMap.reopen();
+                    }
                 }
                 final Record baseRecord = baseCursor.getRecord();
+                if (spill != null) {
+                    aggregateWithSpill(baseCursor, baseRecord, circuitBreaker);
+                    return;
+                }
                 while (baseCursor.hasNext()) {
                     circuitBreaker.statefulThrowExceptionIfTripped();
                     final MapKey key = dataMap.withKey();
@@ -189,5 +216,40 @@ public class GroupByRecordCursorFactory extends AbstractRecordCursorFactory {
                 throw e;
             }
         }
+
+        private void aggregateWithSpill(RecordCursor baseCursor, Record baseRecord, SqlExecutionCircuitBreaker circuitBreaker) {
+            final FastMap map = (FastMap) dataMap;
+            boolean spilling = false;
+            while (baseCursor.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final FastMap.Key key = (FastMap.Key) map.withKey();
+                mapSink.copy(baseRecord, key);
+                if (spilling) {
+                    // keys that made it into the map before the budget was reached are updated in place,
+                    // all rows of the other keys go to the partition files
+                    final MapValue value = key.findValue();
+                    if (value != null) {
+                        groupByFunctionsUpdater.updateExisting(value, baseRecord);
+                    } else {
+                        spill.put(baseRecord, key.hash(), baseCursor);
+                    }
+                    continue;
+                }
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    groupByFunctionsUpdater.updateNew(value, baseRecord);
+                    spilling = map.getHeapSize() > spillMemoryBudget;
+                } else {
+                    groupByFunctionsUpdater.updateExisting(value, baseRecord);
+                }
+            }
+
+            if (spilling) {
+                final int count = spill.aggregate(map, partitionMap, mapSink, groupByFunctionsUpdater, circuitBreaker);
+                super.of(baseCursor, map.getCursor(spill.getResultAddress(), count));
+            } else {
+                super.of(baseCursor, map.getCursor());
+            }
+        }
     }
 }
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.griffin.engine.LimitOverflowException;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grace hash aggregation support for keyed GROUP BY. Once the hash map reaches its memory budget,
+ * rows with keys that are not in the map yet are written to memory-mapped temporary files, one
+ * file per hash partition. This way every key ends up either in the map or in exactly one partition,
+ * so that partitions can be aggregated one at a time and with rows in their original order.
+ */
+class GroupBySpill implements Mutable, QuietCloseable {
+    private static final AtomicLong SPILL_ID = new AtomicLong();
+    private final ObjList<RecordChain> chains = new ObjList<>();
+    private final MicrosecondClock clock;
+    private final FilesFacade ff;
+    private final long[] lastOffsets;
+    private final ObjList<MemoryCMARW> mems = new ObjList<>();
+    private final int mkDirMode;
+    private final long pageSize;
+    private final int partitionMask;
+    private final Path path = new Path();
+    private final MemoryCMARW resultMem = Vm.getCMARWInstance();
+    private final CharSequence root;
+    private long spillId = -1;
+    private long spillTimestamp;
+
+    GroupBySpill(CairoConfiguration configuration, @Transient @NotNull ColumnTypes columnTypes, @NotNull RecordSink recordSink) {
+        this.ff = configuration.getFilesFacade();
+        this.clock = configuration.getMicrosecondClock();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.pageSize = ff.getMapPageSize();
+        this.root = configuration.getSqlSpillRoot();
+        final int partitionCount = configuration.getSqlSpillPartitionCount();
+        assert Numbers.isPow2(partitionCount);
+        this.partitionMask = partitionCount - 1;
+        this.lastOffsets = new long[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            final MemoryCMARW mem = Vm.getCMARWInstance();
+            mems.add(mem);
+            chains.add(new RecordChain(columnTypes, recordSink, mem));
+        }
+    }
+
+    /**
+     * Aggregates spilled rows one partition at a time. Entries of the resident map followed by
+     * entries of all partitions are copied to a memory-mapped result file, which can then be
+     * iterated via {@link FastMap#getCursor(long, int)} starting at {@link #getResultAddress()}.
+     *
+     * @param residentMap    map that holds keys seen before the memory budget was reached
+     * @param partitionMap   map to aggregate a single partition with
+     * @param mapSink        sink to copy keys from the spilled rows
+     * @param updater        updater of the group by functions
+     * @param circuitBreaker circuit breaker to check while aggregating
+     * @return total number of entries in the result
+     */
+    int aggregate(
+            FastMap residentMap,
+            FastMap partitionMap,
+            RecordSink mapSink,
+            GroupByFunctionsUpdater updater,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        resultMem.of(ff, prefix().put("r").$(), pageSize, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+        residentMap.copyTo(resultMem);
+        long count = residentMap.size();
+        for (int i = 0, n = chains.size(); i < n; i++) {
+            final RecordChain chain = chains.getQuick(i);
+            final Record record = chain.getRecord();
+            partitionMap.clear();
+            chain.toTop();
+            while (chain.hasNext()) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                final MapKey key = partitionMap.withKey();
+                mapSink.copy(record, key);
+                final MapValue value = key.createValue();
+                if (value.isNew()) {
+                    updater.updateNew(value, record);
+                } else {
+                    updater.updateExisting(value, record);
+                }
+            }
+            partitionMap.copyTo(resultMem);
+            count += partitionMap.size();
+            // rows of the partition are no longer needed
+            closePartition(i);
+        }
+        if (count > Integer.MAX_VALUE) {
+            throw LimitOverflowException.instance().put("limit of ").put(Integer.MAX_VALUE).put(" GROUP BY keys exceeded");
+        }
+        return (int) count;
+    }
+
+    @Override
+    public void clear() {
+        if (spillId != -1) {
+            for (int i = 0, n = chains.size(); i < n; i++) {
+                closePartition(i);
+            }
+            resultMem.close();
+            ff.remove(prefix().put("r").$());
+            spillId = -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(path);
+    }
+
+    long getResultAddress() {
+        return resultMem.addressOf(0);
+    }
+
+    /**
+     * Writes the row to the partition file chosen by the key hash. Files are created on the first call.
+     *
+     * @param record            row to spill
+     * @param hash              hash code of the row's key
+     * @param symbolTableSource source of symbol tables to resolve spilled symbol columns with
+     */
+    void put(Record record, long hash, SymbolTableSource symbolTableSource) {
+        if (spillId == -1) {
+            open(symbolTableSource);
+        }
+        // map uses low bits of the hash code, so use high bits to pick the partition
+        final int partition = (int) (hash >>> 32) & partitionMask;
+        lastOffsets[partition] = chains.getQuick(partition).put(record, lastOffsets[partition]);
+    }
+
+    private void closePartition(int partition) {
+        chains.getQuick(partition).clear();
+        ff.remove(prefix().put(partition).$());
+    }
+
+    private void open(SymbolTableSource symbolTableSource) {
+        spillId = SPILL_ID.incrementAndGet();
+        spillTimestamp = clock.getTicks();
+        path.of(root).slash$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        for (int i = 0, n = chains.size(); i < n; i++) {
+            mems.getQuick(i).of(ff, prefix().put(i).$(), pageSize, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+            chains.getQuick(i).setSymbolTableResolver(symbolTableSource);
+            lastOffsets[i] = -1;
+        }
+    }
+
+    private Path prefix() {
+        return path.of(root).concat("groupby_spill_").put(spillTimestamp).put('_').put(spillId).put('.');
+    }
+}
@@ -44,6 +44,33 @@ import org.jetbrains.annotations.NotNull;
 
 public class GroupByUtils {
 
+    public static boolean isBatchComputeSupported(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isBatchComputeSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isParallelismSupported(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isParallelismSupported()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean isReadThreadSafe(ObjList<GroupByFunction> functions) {
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            if (!functions.getQuick(i).isReadThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static void prepareGroupByFunctions(
             QueryModel model,
             RecordMetadata metadata,
@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.groupby.vect;
 
 import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ZoneMap;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlCodeGenerator;
@@ -54,6 +55,11 @@ public class CountVectorAggregateFunction extends LongFunction implements Vector
         return countFunc.count(pRosti, keyAddress, valueAddressSize >>> columnSizeShr, valueOffset);
     }
 
+    @Override
+    public void aggregateStats(ZoneMap stats, long rowCount) {
+        count.add(rowCount);
+    }
+
     @Override
     public void clear() {
         count.reset();
@@ -95,6 +101,11 @@ public class CountVectorAggregateFunction extends LongFunction implements Vector
         types.add(ColumnType.LONG);
     }
 
+    @Override
+    public boolean supportsStats() {
+        return true;
+    }
+
     @Override
     public void toPlan(PlanSink sink) {
         sink.val("count(").val(valueOffset).val(')');
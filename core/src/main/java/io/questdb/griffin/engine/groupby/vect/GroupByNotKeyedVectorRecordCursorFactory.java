@@ -28,6 +28,7 @@ import io.questdb.MessageBus;
 import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ZoneMap;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
 import io.questdb.cutlass.text.AtomicBooleanCircuitBreaker;
@@ -57,13 +58,16 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
     private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
     private final ObjectPool<VectorAggregateEntry> entryPool;
     private final AtomicBooleanCircuitBreaker sharedCircuitBreaker;
+    private final boolean useStats;
     private final ObjList<VectorAggregateFunction> vafList;
+    private final ObjList<ZoneMap> zoneMaps;
 
     public GroupByNotKeyedVectorRecordCursorFactory(
             CairoConfiguration configuration,
             RecordCursorFactory base,
             RecordMetadata metadata,
-            @Transient ObjList<VectorAggregateFunction> vafList
+            @Transient ObjList<VectorAggregateFunction> vafList,
+            boolean useStats
     ) {
         super(metadata);
         this.entryPool = new ObjectPool<>(VectorAggregateEntry::new, configuration.getGroupByPoolCapacity());
@@ -73,6 +77,15 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
         this.vafList.addAll(vafList);
         this.cursor = new GroupByNotKeyedVectorRecordCursor(this.vafList);
         this.sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
+        this.useStats = useStats;
+        if (useStats) {
+            this.zoneMaps = new ObjList<>(vafList.size());
+            for (int i = 0, n = vafList.size(); i < n; i++) {
+                zoneMaps.add(new ZoneMap());
+            }
+        } else {
+            this.zoneMaps = null;
+        }
     }
 
     @Override
@@ -102,6 +115,7 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
         this.activeEntries.clear();
         int queuedCount = 0;
         int ownCount = 0;
+        int statsCount = 0;
         int reclaimed = 0;
         int total = 0;
 
@@ -119,6 +133,10 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
         try {
             PageFrame frame;
             while ((frame = cursor.next()) != null) {
+                if (useStats && aggregateStats(cursor, frame)) {
+                    statsCount++;
+                    continue;
+                }
                 for (int i = 0; i < vafCount; i++) {
                     final VectorAggregateFunction vaf = vafList.getQuick(i);
                     final int columnIndex = vaf.getColumnIndex();
@@ -169,7 +187,7 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
             reclaimed = getRunWhatsLeft(queuedCount, reclaimed, workerId, activeEntries, doneLatch, LOG, circuitBreaker, sharedCircuitBreaker);
         }
 
-        LOG.info().$("done [total=").$(total).$(", ownCount=").$(ownCount).$(", reclaimed=").$(reclaimed).$(", queuedCount=").$(queuedCount).$(']').$();
+        LOG.info().$("done [total=").$(total).$(", ownCount=").$(ownCount).$(", statsCount=").$(statsCount).$(", reclaimed=").$(reclaimed).$(", queuedCount=").$(queuedCount).$(']').$();
         return this.cursor.of(cursor);
     }
 
@@ -209,9 +227,29 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
     @Override
     protected void _close() {
         Misc.freeObjList(vafList);
+        Misc.freeObjList(zoneMaps);
         Misc.free(base);
     }
 
+    private boolean aggregateStats(PageFrameCursor cursor, PageFrame frame) {
+        // edge frames that zone map blocks do not cover exactly have to be scanned
+        final long rowCount = frame.getPartitionHi() - frame.getPartitionLo();
+        for (int i = 0, n = vafList.size(); i < n; i++) {
+            final int columnIndex = vafList.getQuick(i).getColumnIndex();
+            if (columnIndex > -1) {
+                final ZoneMap zoneMap = zoneMaps.getQuick(i);
+                if (!cursor.readZoneMap(columnIndex, zoneMap) || zoneMap.getRowCount() != rowCount) {
+                    return false;
+                }
+            }
+        }
+        for (int i = 0, n = vafList.size(); i < n; i++) {
+            final VectorAggregateFunction vaf = vafList.getQuick(i);
+            vaf.aggregateStats(vaf.getColumnIndex() > -1 ? zoneMaps.getQuick(i) : null, rowCount);
+        }
+        return true;
+    }
+
     private static class GroupByNotKeyedVectorRecordCursor implements NoRandomAccessRecordCursor {
         private final Record recordA;
         private int countDown = 1;
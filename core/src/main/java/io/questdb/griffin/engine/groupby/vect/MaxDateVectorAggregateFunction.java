@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.groupby.vect;
 
 import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ZoneMap;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.DateFunction;
 import io.questdb.std.Rosti;
@@ -75,6 +76,13 @@ public class MaxDateVectorAggregateFunction extends DateFunction implements Vect
         }
     }
 
+    @Override
+    public void aggregateStats(ZoneMap stats, long rowCount) {
+        if (stats.hasValues()) {
+            max.accumulate(stats.getMaxLong());
+        }
+    }
+
     @Override
     public void clear() {
         max.reset();
@@ -121,6 +129,11 @@ public class MaxDateVectorAggregateFunction extends DateFunction implements Vect
         types.add(ColumnType.LONG);
     }
 
+    @Override
+    public boolean supportsStats() {
+        return true;
+    }
+
     @Override
     public boolean wrapUp(long pRosti) {
         return Rosti.keyedIntMaxLongWrapUp(pRosti, valueOffset, max.longValue());
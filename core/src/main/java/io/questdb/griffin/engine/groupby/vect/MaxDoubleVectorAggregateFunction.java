@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.groupby.vect;
 
 import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ZoneMap;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.std.Rosti;
@@ -78,6 +79,13 @@ public class MaxDoubleVectorAggregateFunction extends DoubleFunction implements
         }
     }
 
+    @Override
+    public void aggregateStats(ZoneMap stats, long rowCount) {
+        if (stats.hasValues()) {
+            max.accumulate(stats.getMaxDouble());
+        }
+    }
+
     @Override
     public void clear() {
         max.reset();
@@ -125,6 +133,11 @@ public class MaxDoubleVectorAggregateFunction extends DoubleFunction implements
         types.add(ColumnType.DOUBLE);
     }
 
+    @Override
+    public boolean supportsStats() {
+        return true;
+    }
+
     @Override
     public boolean wrapUp(long pRosti) {
         return Rosti.keyedIntMaxDoubleWrapUp(pRosti, valueOffset, max.get());
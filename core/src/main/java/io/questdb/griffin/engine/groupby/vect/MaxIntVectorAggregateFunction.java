@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.groupby.vect;
 
 import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ZoneMap;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.IntFunction;
 import io.questdb.std.Rosti;
@@ -76,6 +77,13 @@ public class MaxIntVectorAggregateFunction extends IntFunction implements Vector
         }
     }
 
+    @Override
+    public void aggregateStats(ZoneMap stats, long rowCount) {
+        if (stats.hasValues()) {
+            max.accumulate(stats.getMaxLong());
+        }
+    }
+
     @Override
     public void clear() {
         max.reset();
@@ -122,6 +130,11 @@ public class MaxIntVectorAggregateFunction extends IntFunction implements Vector
         types.add(ColumnType.INT);
     }
 
+    @Override
+    public boolean supportsStats() {
+        return true;
+    }
+
     @Override
     public boolean wrapUp(long pRosti) {
         return Rosti.keyedIntMaxIntWrapUp(pRosti, valueOffset, max.intValue());
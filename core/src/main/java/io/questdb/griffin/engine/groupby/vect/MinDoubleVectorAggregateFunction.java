@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.groupby.vect;
 
 import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ZoneMap;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.DoubleFunction;
 import io.questdb.std.Rosti;
@@ -80,6 +81,13 @@ public class MinDoubleVectorAggregateFunction extends DoubleFunction implements
         }
     }
 
+    @Override
+    public void aggregateStats(ZoneMap stats, long rowCount) {
+        if (stats.hasValues()) {
+            min.accumulate(stats.getMinDouble());
+        }
+    }
+
     @Override
     public void clear() {
         min.reset();
@@ -130,6 +138,11 @@ public class MinDoubleVectorAggregateFunction extends DoubleFunction implements
         types.add(ColumnType.DOUBLE);
     }
 
+    @Override
+    public boolean supportsStats() {
+        return true;
+    }
+
     @Override
     public boolean wrapUp(long pRosti) {
         return Rosti.keyedIntMinDoubleWrapUp(pRosti, valueOffset, this.min.get());
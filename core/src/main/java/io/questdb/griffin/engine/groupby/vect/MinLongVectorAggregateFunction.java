@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.groupby.vect;
 
 import io.questdb.cairo.ArrayColumnTypes;
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ZoneMap;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.engine.functions.LongFunction;
 import io.questdb.std.Numbers;
@@ -87,6 +88,13 @@ public class MinLongVectorAggregateFunction extends LongFunction implements Vect
         }
     }
 
+    @Override
+    public void aggregateStats(ZoneMap stats, long rowCount) {
+        if (stats.hasValues()) {
+            accumulator.accumulate(stats.getMinLong());
+        }
+    }
+
     @Override
     public void clear() {
         accumulator.reset();
@@ -133,6 +141,11 @@ public class MinLongVectorAggregateFunction extends LongFunction implements Vect
         types.add(ColumnType.LONG);
     }
 
+    @Override
+    public boolean supportsStats() {
+        return true;
+    }
+
     @Override
     public boolean wrapUp(long pRosti) {
         return Rosti.keyedIntMinLongWrapUp(pRosti, valueOffset, accumulator.longValue());
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.groupby.vect;
 
 import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.ZoneMap;
 import io.questdb.cairo.sql.Function;
 import io.questdb.griffin.PlanSink;
 import io.questdb.std.Mutable;
@@ -35,6 +36,17 @@ public interface VectorAggregateFunction extends Function, Mutable {
 
     boolean aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, int columnSizeShr, int workerId);
 
+    /**
+     * Aggregates page frame from zone map of the function column rather than from column data.
+     * Called only when {@link #supportsStats()} is true and the zone map covers exactly the frame rows.
+     *
+     * @param stats    zone map of the column, null for functions that do not have a column, e.g. count()
+     * @param rowCount number of rows in the page frame
+     */
+    default void aggregateStats(ZoneMap stats, long rowCount) {
+        throw new UnsupportedOperationException();
+    }
+
     int getColumnIndex();
 
     // value offset in map
@@ -47,6 +59,13 @@ public interface VectorAggregateFunction extends Function, Mutable {
 
     void pushValueTypes(ArrayColumnTypes types);
 
+    /**
+     * @return true when function result can be computed from zone maps, see {@link #aggregateStats(ZoneMap, long)}
+     */
+    default boolean supportsStats() {
+        return false;
+    }
+
     @Override
     default void toPlan(PlanSink sink) {
         sink.val(getName()).val('(').putColumnName(getColumnIndex()).val(')');
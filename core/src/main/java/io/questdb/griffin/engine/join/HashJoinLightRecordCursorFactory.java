@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.join;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
@@ -117,16 +118,24 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         private final Map joinKeyMap;
         private final JoinRecord record;
         private final LongChain slaveChain;
+        // slave rows that did not fit in memory, null when spilling is disabled
+        private final HashJoinSpill spill;
         private boolean isOpen;
+        private boolean isSpilled;
+        private long masterIndex;
         private Record masterRecord;
         private LongChain.TreeCursor slaveChainCursor;
         private Record slaveRecord;
+        private HashJoinSpill.SpillCursor spillCursor;
 
         public HashJoinRecordCursor(int columnSplit, CairoConfiguration configuration, ColumnTypes joinColumnTypes, ColumnTypes valueTypes) {
             super(columnSplit);
             this.record = new JoinRecord(columnSplit);
             this.joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
             this.slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+            this.spill = HashJoinSpill.isEnabled(configuration, joinKeyMap)
+                    ? new HashJoinSpill(configuration, joinColumnTypes, valueTypes, null, null)
+                    : null;
             this.isOpen = true;
         }
 
@@ -136,6 +145,7 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                Misc.free(spill);
                 super.close();
             }
         }
@@ -152,9 +162,17 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
                 return true;
             }
 
+            if (nextSpilledSlave()) {
+                return true;
+            }
+
             while (masterCursor.hasNext()) {
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterKeySink);
+                if (isSpilled) {
+                    // spilled slave rows of the key follow the ones in memory
+                    spillCursor = spill.findMatches(masterIndex++, ((FastMap.Key) key).hash());
+                }
                 MapValue value = key.findValue();
                 if (value != null) {
                     slaveChainCursor = slaveChain.getCursor(value.getLong(0));
@@ -164,6 +182,9 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
                     slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
                     return true;
                 }
+                if (nextSpilledSlave()) {
+                    return true;
+                }
             }
             return false;
         }
@@ -177,14 +198,28 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
         public void toTop() {
             masterCursor.toTop();
             slaveChainCursor = null;
+            spillCursor = null;
+            masterIndex = 0;
+            if (isSpilled) {
+                spill.toTop();
+            }
         }
 
         private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+            if (spill != null) {
+                spill.clear();
+            }
             final Record record = slaveCursor.getRecord();
+            boolean spilling = false;
             while (slaveCursor.hasNext()) {
                 circuitBreaker.statefulThrowExceptionIfTripped();
                 MapKey key = joinKeyMap.withKey();
                 key.put(record, slaveKeySink);
+                if (spilling) {
+                    // the map and the chain stay as they are, rows of all keys go to the partition files
+                    spill.put(record.getRowId(), ((FastMap.Key) key).hash());
+                    continue;
+                }
                 MapValue value = key.createValue();
                 if (value.isNew()) {
                     final long offset = slaveChain.put(record.getRowId(), -1);
@@ -193,15 +228,27 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
                 } else {
                     value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
                 }
+                spilling = spill != null && spill.isFull(joinKeyMap, slaveChain.getHeapSize());
             }
         }
 
+        private boolean nextSpilledSlave() {
+            if (spillCursor != null && spillCursor.hasNext()) {
+                slaveCursor.recordAt(slaveRecord, spillCursor.next());
+                return true;
+            }
+            return false;
+        }
+
         void of(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
             try {
                 if (!isOpen) {
                     this.isOpen = true;
                     this.joinKeyMap.reopen();
                     this.slaveChain.reopen();
+                    if (spill != null) {
+                        spill.reopen();
+                    }
                 }
 
                 buildMapOfSlaveRecords(slaveCursor, circuitBreaker);
@@ -212,6 +259,12 @@ public class HashJoinLightRecordCursorFactory extends AbstractRecordCursorFactor
                 this.slaveRecord = slaveCursor.getRecordB();
                 record.of(masterRecord, slaveRecord);
                 slaveChainCursor = null;
+                spillCursor = null;
+                masterIndex = 0;
+                isSpilled = spill != null && spill.isSpilled();
+                if (isSpilled) {
+                    spill.join(masterCursor, masterKeySink, slaveCursor, slaveRecord, slaveKeySink, circuitBreaker);
+                }
             } catch (Throwable t) {
                 close();
                 throw t;
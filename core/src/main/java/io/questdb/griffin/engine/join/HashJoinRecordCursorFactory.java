@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.join;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
@@ -37,6 +38,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.model.JoinContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
 
 public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final HashJoinRecordCursor cursor;
@@ -64,9 +66,12 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         this.slaveFactory = slaveFactory;
         Map joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
         RecordChain slaveChain = new RecordChain(slaveFactory.getMetadata(), slaveChainSink, configuration.getSqlHashJoinValuePageSize(), configuration.getSqlHashJoinValueMaxPages());
+        HashJoinSpill spill = HashJoinSpill.isEnabled(configuration, joinKeyMap)
+                ? new HashJoinSpill(configuration, joinColumnTypes, valueTypes, slaveFactory.getMetadata(), slaveChainSink)
+                : null;
         this.masterSink = masterSink;
         this.slaveKeySink = slaveKeySink;
-        this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain);
+        this.cursor = new HashJoinRecordCursor(columnSplit, joinKeyMap, slaveChain, spill);
         this.joinContext = joinContext;
     }
 
@@ -118,15 +123,21 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         private final Map joinKeyMap;
         private final JoinRecord recordA;
         private final RecordChain slaveChain;
+        // slave rows that did not fit in memory, null when spilling is disabled
+        private final HashJoinSpill spill;
         private boolean isOpen;
+        private boolean isSpilled;
+        private long masterIndex;
         private Record masterRecord;
+        private HashJoinSpill.SpillCursor spillCursor;
         private boolean useSlaveCursor;
 
-        public HashJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain) {
+        public HashJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain, @Nullable HashJoinSpill spill) {
             super(columnSplit);
             this.recordA = new JoinRecord(columnSplit);
             this.joinKeyMap = joinKeyMap;
             this.slaveChain = slaveChain;
+            this.spill = spill;
             this.isOpen = true;
         }
 
@@ -136,6 +147,7 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                Misc.free(spill);
                 super.close();
             }
         }
@@ -151,11 +163,22 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                 return true;
             }
 
+            if (nextSpilledSlave()) {
+                return true;
+            }
+
             while (masterCursor.hasNext()) {
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterSink);
+                if (isSpilled) {
+                    // spilled slave rows of the key follow the ones in memory
+                    spillCursor = spill.findMatches(masterIndex++, ((FastMap.Key) key).hash());
+                }
                 MapValue value = key.findValue();
                 if (value != null) {
+                    if (isSpilled) {
+                        recordA.of(masterRecord, slaveChain.getRecord());
+                    }
                     slaveChain.of(value.getLong(0));
                     // we know cursor has values
                     // advance to get first value
@@ -163,6 +186,9 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                     useSlaveCursor = true;
                     return true;
                 }
+                if (nextSpilledSlave()) {
+                    return true;
+                }
             }
             return false;
         }
@@ -176,6 +202,11 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
         public void toTop() {
             masterCursor.toTop();
             useSlaveCursor = false;
+            spillCursor = null;
+            masterIndex = 0;
+            if (isSpilled) {
+                spill.toTop();
+            }
         }
 
         private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
@@ -183,9 +214,21 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                 isOpen = true;
                 joinKeyMap.reopen();
                 slaveChain.reopen();
+                if (spill != null) {
+                    spill.reopen();
+                }
             }
             HashJoinRecordCursorFactory factory = HashJoinRecordCursorFactory.this;
-            HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, factory.slaveKeySink, slaveChain, circuitBreaker);
+            HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), joinKeyMap, factory.slaveKeySink, slaveChain, spill, circuitBreaker);
+        }
+
+        private boolean nextSpilledSlave() {
+            if (spillCursor != null && spillCursor.hasNext()) {
+                spill.recordAt(spillCursor.next());
+                recordA.of(masterRecord, spill.getRecord());
+                return true;
+            }
+            return false;
         }
 
         void of(SqlExecutionContext executionContext, RecordCursor slaveCursor) throws SqlException {
@@ -198,6 +241,12 @@ public class HashJoinRecordCursorFactory extends AbstractRecordCursorFactory {
                 this.slaveChain.setSymbolTableResolver(slaveCursor);
                 recordA.of(masterRecord, slaveRecord);
                 useSlaveCursor = false;
+                spillCursor = null;
+                masterIndex = 0;
+                isSpilled = spill != null && spill.isSpilled();
+                if (isSpilled) {
+                    spill.join(masterCursor, masterSink, slaveCursor, null, slaveKeySink, executionContext.getCircuitBreaker());
+                }
             } catch (Throwable e) {
                 masterCursor = Misc.free(masterCursor);
                 throw e;
@@ -0,0 +1,381 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.join;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordChain;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.Reopenable;
+import io.questdb.cairo.map.FastMap;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreaker;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.Path;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grace hash join support for hash joins. Once the hash table of the slave side reaches its memory
+ * budget, the remaining slave rows are written to memory-mapped temporary files, one file per hash
+ * partition of the join key. Partitions are then joined a few at a time: their rows are loaded into
+ * a separate map, which is probed by a full scan of the master cursor. The first matching slave row
+ * of each master row is written to a match file of the partition.
+ * <p>
+ * Master rows keep their order, and so do slave rows of each key: rows in the resident hash table
+ * come first, followed by the spilled ones. Full hash joins spill slave records, light hash joins
+ * spill slave row ids.
+ */
+class HashJoinSpill implements Mutable, QuietCloseable, Reopenable {
+    private static final long ENTRY_SIZE = 2 * Long.BYTES;
+    private static final AtomicLong SPILL_ID = new AtomicLong();
+    private final MicrosecondClock clock;
+    private final SpillCursor cursor = new SpillCursor();
+    private final FilesFacade ff;
+    private final ObjList<MemoryCMARW> matchMems = new ObjList<>();
+    private final long[] matchOffsets;
+    private final long memoryBudget;
+    private final int mkDirMode;
+    private final long pageSize;
+    private final int partitionMask;
+    private final FastMap partitionMap;
+    private final Path path = new Path();
+    private final CharSequence root;
+    // slave records of full hash joins, null for light hash joins
+    private final RecordChain slaveChain;
+    private final MemoryCMARW slaveChainMem;
+    private final ObjList<MemoryCMARW> slaveMems = new ObjList<>();
+    private long spillId = -1;
+    private long spillTimestamp;
+
+    /**
+     * @param configuration   configuration to read spill settings from
+     * @param joinColumnTypes types of the join key columns
+     * @param valueTypes      types of the join map values, head and tail of the row chain
+     * @param slaveTypes      types of the slave columns stored in the chain, null for light hash joins
+     * @param slaveChainSink  sink to copy slave records to the chain with, null for light hash joins
+     */
+    HashJoinSpill(
+            CairoConfiguration configuration,
+            @Transient ColumnTypes joinColumnTypes,
+            @Transient ColumnTypes valueTypes,
+            @Transient @Nullable ColumnTypes slaveTypes,
+            @Nullable RecordSink slaveChainSink
+    ) {
+        this.ff = configuration.getFilesFacade();
+        this.clock = configuration.getMicrosecondClock();
+        this.mkDirMode = configuration.getMkDirMode();
+        this.pageSize = ff.getMapPageSize();
+        this.root = configuration.getSqlSpillRoot();
+        this.memoryBudget = configuration.getSqlSpillMemoryBudget();
+        final int partitionCount = configuration.getSqlSpillPartitionCount();
+        assert Numbers.isPow2(partitionCount);
+        this.partitionMask = partitionCount - 1;
+        this.matchOffsets = new long[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            slaveMems.add(Vm.getCMARWInstance());
+            matchMems.add(Vm.getCMARWInstance());
+        }
+        if (slaveTypes != null) {
+            this.slaveChainMem = Vm.getCMARWInstance();
+            this.slaveChain = new RecordChain(slaveTypes, slaveChainSink, slaveChainMem);
+        } else {
+            this.slaveChainMem = null;
+            this.slaveChain = null;
+        }
+        this.partitionMap = (FastMap) MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
+    }
+
+    /**
+     * Spilling requires the join key hash code, which only {@link FastMap} provides.
+     *
+     * @param configuration configuration to read the memory budget from
+     * @param joinKeyMap    map of the slave side
+     * @return true when the hash join should spill to disk once the map outgrows the budget
+     */
+    static boolean isEnabled(CairoConfiguration configuration, Map joinKeyMap) {
+        return configuration.getSqlSpillMemoryBudget() > 0 && joinKeyMap instanceof FastMap;
+    }
+
+    @Override
+    public void clear() {
+        if (spillId != -1) {
+            for (int i = 0, n = slaveMems.size(); i < n; i++) {
+                slaveMems.getQuick(i).close();
+                ff.remove(prefix().put('s').put(i).$());
+                matchMems.getQuick(i).close();
+                ff.remove(prefix().put('m').put(i).$());
+            }
+            if (slaveChain != null) {
+                slaveChain.clear();
+                ff.remove(prefix().put('c').$());
+            }
+            partitionMap.clear();
+            spillId = -1;
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(slaveChain);
+        Misc.free(partitionMap);
+        Misc.free(path);
+    }
+
+    @Override
+    public void reopen() {
+        partitionMap.reopen();
+    }
+
+    /**
+     * Finds spilled slave rows that match a master row. Master rows must be looked up in the order
+     * of the master cursor, each of them once, until {@link #toTop()} is called.
+     *
+     * @param masterIndex index of the master row in the master cursor
+     * @param hash        hash code of the master row's join key
+     * @return cursor over ids of the matching slave rows, or null when there are none
+     */
+    @Nullable
+    SpillCursor findMatches(long masterIndex, long hash) {
+        final int partition = partitionOf(hash);
+        final MemoryCMARW matchMem = matchMems.getQuick(partition);
+        final long offset = matchOffsets[partition];
+        if (offset < matchMem.getAppendOffset() && matchMem.getLong(offset) == masterIndex) {
+            matchOffsets[partition] = offset + ENTRY_SIZE;
+            cursor.of(slaveMems.getQuick(partition), matchMem.getLong(offset + Long.BYTES));
+            return cursor;
+        }
+        return null;
+    }
+
+    /**
+     * @return record to read spilled slave records of full hash joins with
+     */
+    Record getRecord() {
+        return slaveChain.getRecord();
+    }
+
+    /**
+     * @param joinKeyMap    resident map of the slave side
+     * @param chainHeapSize size of the resident chain of slave rows
+     * @return true when the resident part of the build side has outgrown the memory budget
+     */
+    boolean isFull(Map joinKeyMap, long chainHeapSize) {
+        return ((FastMap) joinKeyMap).getHeapSize() + chainHeapSize > memoryBudget;
+    }
+
+    boolean isSpilled() {
+        return spillId != -1;
+    }
+
+    /**
+     * Joins spilled partitions with the master cursor. The master cursor is scanned once for as
+     * many partitions as fit in the memory budget and is left at the top.
+     *
+     * @param masterCursor   master cursor to scan
+     * @param masterSink     sink to copy master join keys with
+     * @param slaveCursor    slave cursor to read spilled rows of light hash joins from
+     * @param slaveRecord    record of the slave cursor to read spilled rows of light hash joins with
+     * @param slaveKeySink   sink to copy slave join keys with
+     * @param circuitBreaker circuit breaker to check while joining
+     */
+    void join(
+            RecordCursor masterCursor,
+            RecordSink masterSink,
+            RecordCursor slaveCursor,
+            Record slaveRecord,
+            RecordSink slaveKeySink,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        final Record record = slaveChain != null ? slaveChain.getRecordB() : slaveRecord;
+        final Record masterRecord = masterCursor.getRecord();
+        int lo = 0;
+        final int partitionCount = slaveMems.size();
+        while (lo < partitionCount) {
+            // memory of the previous partitions is released, so that the budget applies to each scan
+            partitionMap.clear();
+            partitionMap.restoreInitialCapacity();
+            int hi = lo;
+            do {
+                loadPartition(hi++, slaveCursor, record, slaveKeySink, circuitBreaker);
+            } while (hi < partitionCount && partitionMap.getHeapSize() <= memoryBudget);
+
+            if (partitionMap.size() > 0) {
+                masterCursor.toTop();
+                long masterIndex = 0;
+                while (masterCursor.hasNext()) {
+                    circuitBreaker.statefulThrowExceptionIfTripped();
+                    final FastMap.Key key = (FastMap.Key) partitionMap.withKey();
+                    key.put(masterRecord, masterSink);
+                    final int partition = partitionOf(key.hash());
+                    if (partition >= lo && partition < hi) {
+                        final MapValue value = key.findValue();
+                        if (value != null) {
+                            final MemoryCMARW matchMem = matchMems.getQuick(partition);
+                            matchMem.putLong(masterIndex);
+                            matchMem.putLong(value.getLong(0));
+                        }
+                    }
+                    masterIndex++;
+                }
+            }
+            lo = hi;
+        }
+        partitionMap.clear();
+        partitionMap.restoreInitialCapacity();
+        masterCursor.toTop();
+        toTop();
+    }
+
+    /**
+     * Writes a slave row of a full hash join to the partition file chosen by the key hash.
+     * Files are created on the first call.
+     *
+     * @param record      slave row to spill
+     * @param hash        hash code of the row's join key
+     * @param slaveCursor source of symbol tables to resolve spilled symbol columns with
+     */
+    void put(Record record, long hash, RecordCursor slaveCursor) {
+        if (spillId == -1) {
+            open();
+            slaveChainMem.of(ff, prefix().put('c').$(), pageSize, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+            slaveChain.setSymbolTableResolver(slaveCursor);
+        }
+        put(slaveChain.put(record, -1), hash);
+    }
+
+    /**
+     * Writes id of a slave row to the partition file chosen by the key hash. Files are created on the first call.
+     *
+     * @param id   row id for light hash joins, offset of the record in the chain for full hash joins
+     * @param hash hash code of the row's join key
+     */
+    void put(long id, long hash) {
+        if (spillId == -1) {
+            open();
+        }
+        final MemoryCMARW slaveMem = slaveMems.getQuick(partitionOf(hash));
+        // next row of the same key is linked once the partition is loaded
+        slaveMem.putLong(-1);
+        slaveMem.putLong(id);
+    }
+
+    /**
+     * Positions the record returned by {@link #getRecord()} at a spilled slave record of a full hash join.
+     *
+     * @param id id returned by {@link SpillCursor#next()}
+     */
+    void recordAt(long id) {
+        slaveChain.recordAt(slaveChain.getRecord(), id);
+    }
+
+    void toTop() {
+        Arrays.fill(matchOffsets, 0);
+    }
+
+    private void loadPartition(
+            int partition,
+            RecordCursor slaveCursor,
+            Record record,
+            RecordSink slaveKeySink,
+            SqlExecutionCircuitBreaker circuitBreaker
+    ) {
+        final MemoryCMARW slaveMem = slaveMems.getQuick(partition);
+        for (long offset = 0, hi = slaveMem.getAppendOffset(); offset < hi; offset += ENTRY_SIZE) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            final long id = slaveMem.getLong(offset + Long.BYTES);
+            if (slaveChain != null) {
+                slaveChain.recordAt(record, id);
+            } else {
+                slaveCursor.recordAt(record, id);
+            }
+            final FastMap.Key key = (FastMap.Key) partitionMap.withKey();
+            key.put(record, slaveKeySink);
+            final MapValue value = key.createValue();
+            if (value.isNew()) {
+                value.putLong(0, offset);
+            } else {
+                slaveMem.putLong(value.getLong(1), offset);
+            }
+            value.putLong(1, offset);
+        }
+    }
+
+    private void open() {
+        spillId = SPILL_ID.incrementAndGet();
+        spillTimestamp = clock.getTicks();
+        path.of(root).slash$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        for (int i = 0, n = slaveMems.size(); i < n; i++) {
+            slaveMems.getQuick(i).of(ff, prefix().put('s').put(i).$(), pageSize, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+            matchMems.getQuick(i).of(ff, prefix().put('m').put(i).$(), pageSize, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+        }
+    }
+
+    private int partitionOf(long hash) {
+        // map uses low bits of the hash code, so use high bits to pick the partition
+        return (int) (hash >>> 32) & partitionMask;
+    }
+
+    private Path prefix() {
+        return path.of(root).concat("hashjoin_spill_").put(spillTimestamp).put('_').put(spillId).put('.');
+    }
+
+    /**
+     * Iterates ids of spilled slave rows with the same join key, in the order they were spilled.
+     */
+    static class SpillCursor {
+        private MemoryCMARW mem;
+        private long offset;
+
+        boolean hasNext() {
+            return offset != -1;
+        }
+
+        long next() {
+            final long id = mem.getLong(offset + Long.BYTES);
+            offset = mem.getLong(offset);
+            return id;
+        }
+
+        private void of(MemoryCMARW mem, long offset) {
+            this.mem = mem;
+            this.offset = offset;
+        }
+    }
+}
@@ -28,6 +28,7 @@ import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
@@ -126,10 +127,15 @@ public class HashOuterJoinFilteredLightRecordCursorFactory extends AbstractRecor
         private final Map joinKeyMap;
         private final OuterJoinRecord record;
         private final LongChain slaveChain;
+        // slave rows that did not fit in memory, null when spilling is disabled
+        private final HashJoinSpill spill;
         private boolean isOpen;
+        private boolean isSpilled;
+        private long masterIndex;
         private Record masterRecord;
         private LongChain.TreeCursor slaveChainCursor;
         private Record slaveRecord;
+        private HashJoinSpill.SpillCursor spillCursor;
 
         public HashOuterJoinLightRecordCursor(
                 int columnSplit,
@@ -141,6 +147,9 @@ public class HashOuterJoinFilteredLightRecordCursorFactory extends AbstractRecor
             super(columnSplit);
             this.joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
             this.slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+            this.spill = HashJoinSpill.isEnabled(configuration, joinKeyMap)
+                    ? new HashJoinSpill(configuration, joinColumnTypes, valueTypes, null, null)
+                    : null;
             this.record = new OuterJoinRecord(columnSplit, nullRecord);
             this.isOpen = true;
         }
@@ -151,6 +160,7 @@ public class HashOuterJoinFilteredLightRecordCursorFactory extends AbstractRecor
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                Misc.free(spill);
                 super.close();
             }
         }
@@ -168,15 +178,21 @@ public class HashOuterJoinFilteredLightRecordCursorFactory extends AbstractRecor
                     slaveCursor.recordAt(slaveRecord, slaveChainCursor.next());
                     if (filter.getBool(record)) {
                         return true;
-                    } else {
-                        slaveChainCursor.next();
                     }
                 }
             }
 
+            if (nextSpilledSlave()) {
+                return true;
+            }
+
             if (masterCursor.hasNext()) {
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterKeySink);
+                if (isSpilled) {
+                    // spilled slave rows of the key follow the ones in memory
+                    spillCursor = spill.findMatches(masterIndex++, ((FastMap.Key) key).hash());
+                }
                 MapValue value = key.findValue();
                 if (value != null) {
                     slaveChainCursor = slaveChain.getCursor(value.getLong(0));
@@ -190,7 +206,9 @@ public class HashOuterJoinFilteredLightRecordCursorFactory extends AbstractRecor
                 }
 
                 slaveChainCursor = null;
-                record.hasSlave(false);
+                if (!nextSpilledSlave()) {
+                    record.hasSlave(false);
+                }
                 return true;
             }
 
@@ -206,15 +224,29 @@ public class HashOuterJoinFilteredLightRecordCursorFactory extends AbstractRecor
         public void toTop() {
             masterCursor.toTop();
             slaveChainCursor = null;
+            spillCursor = null;
+            masterIndex = 0;
+            if (isSpilled) {
+                spill.toTop();
+            }
             filter.toTop();
         }
 
         private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+            if (spill != null) {
+                spill.clear();
+            }
             final Record record = slaveCursor.getRecord();
+            boolean spilling = false;
             while (slaveCursor.hasNext()) {
                 circuitBreaker.statefulThrowExceptionIfTripped();
                 MapKey key = joinKeyMap.withKey();
                 key.put(record, slaveKeySink);
+                if (spilling) {
+                    // the map and the chain stay as they are, rows of all keys go to the partition files
+                    spill.put(record.getRowId(), ((FastMap.Key) key).hash());
+                    continue;
+                }
                 MapValue value = key.createValue();
                 if (value.isNew()) {
                     final long offset = slaveChain.put(record.getRowId(), -1);
@@ -223,15 +255,33 @@ public class HashOuterJoinFilteredLightRecordCursorFactory extends AbstractRecor
                 } else {
                     value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
                 }
+                spilling = spill != null && spill.isFull(joinKeyMap, slaveChain.getHeapSize());
             }
         }
 
+        private boolean nextSpilledSlave() {
+            if (spillCursor != null) {
+                record.hasSlave(true);
+                while (spillCursor.hasNext()) {
+                    slaveCursor.recordAt(slaveRecord, spillCursor.next());
+                    if (filter.getBool(record)) {
+                        return true;
+                    }
+                }
+                spillCursor = null;
+            }
+            return false;
+        }
+
         void of(RecordCursor slaveCursor, SqlExecutionContext executionContext) throws SqlException {
             this.slaveCursor = slaveCursor;
             if (!this.isOpen) {
                 this.isOpen = true;
                 this.slaveChain.reopen();
                 this.joinKeyMap.reopen();
+                if (spill != null) {
+                    spill.reopen();
+                }
             }
             buildMapOfSlaveRecords(slaveCursor, executionContext.getCircuitBreaker());
             this.masterCursor = masterFactory.getCursor(executionContext);
@@ -239,6 +289,12 @@ public class HashOuterJoinFilteredLightRecordCursorFactory extends AbstractRecor
             this.slaveRecord = slaveCursor.getRecordB();
             this.record.of(masterRecord, slaveRecord);
             this.slaveChainCursor = null;
+            this.spillCursor = null;
+            this.masterIndex = 0;
+            this.isSpilled = spill != null && spill.isSpilled();
+            if (isSpilled) {
+                spill.join(masterCursor, masterKeySink, slaveCursor, slaveRecord, slaveKeySink, executionContext.getCircuitBreaker());
+            }
         }
     }
 }
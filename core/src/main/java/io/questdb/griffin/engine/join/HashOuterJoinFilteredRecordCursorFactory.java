@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.join;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
@@ -38,6 +39,7 @@ import io.questdb.griffin.model.JoinContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 //Same as HashOuterJoinRecordCursorFactory but with added filtering (for non-equality or complex join conditions that use functions) 
 public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCursorFactory {
@@ -71,10 +73,14 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
         this.slaveKeySink = slaveKeySink;
 
         Map joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
+        HashJoinSpill spill = HashJoinSpill.isEnabled(configuration, joinKeyMap)
+                ? new HashJoinSpill(configuration, joinColumnTypes, valueTypes, slaveFactory.getMetadata(), slaveChainSink)
+                : null;
         this.cursor = new HashOuterJoinRecordCursor(
                 columnSplit,
                 joinKeyMap,
                 slaveChain,
+                spill,
                 NullRecordFactory.getInstance(slaveFactory.getMetadata())
         );
         this.filter = filter;
@@ -112,31 +118,6 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
         sink.child("Hash", slaveFactory);
     }
 
-    static void buildMap(
-            RecordCursor slaveCursor,
-            Record record,
-            Map joinKeyMap,
-            RecordSink slaveKeySink,
-            RecordChain slaveChain,
-            SqlExecutionCircuitBreaker circuitBreaker
-    ) {
-        joinKeyMap.clear();
-        slaveChain.clear();
-        while (slaveCursor.hasNext()) {
-            circuitBreaker.statefulThrowExceptionIfTripped();
-            MapKey key = joinKeyMap.withKey();
-            key.put(record, slaveKeySink);
-            MapValue value = key.createValue();
-            if (value.isNew()) {
-                long offset = slaveChain.put(record, -1);
-                value.putLong(0, offset);
-                value.putLong(1, offset);
-            } else {
-                value.putLong(1, slaveChain.put(record, value.getLong(1)));
-            }
-        }
-    }
-
     @Override
     protected void _close() {
         ((JoinRecordMetadata) getMetadata()).close();
@@ -150,15 +131,21 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
         private final Map joinKeyMap;
         private final OuterJoinRecord record;
         private final RecordChain slaveChain;
+        // slave rows that did not fit in memory, null when spilling is disabled
+        private final HashJoinSpill spill;
         private boolean isOpen;
+        private boolean isSpilled;
+        private long masterIndex;
         private Record masterRecord;
+        private HashJoinSpill.SpillCursor spillCursor;
         private boolean useSlaveCursor;
 
-        public HashOuterJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain, Record nullRecord) {
+        public HashOuterJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain, @Nullable HashJoinSpill spill, Record nullRecord) {
             super(columnSplit);
             this.record = new OuterJoinRecord(columnSplit, nullRecord);
             this.joinKeyMap = joinKeyMap;
             this.slaveChain = slaveChain;
+            this.spill = spill;
             this.isOpen = true;
         }
 
@@ -168,6 +155,7 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                Misc.free(spill);
                 super.close();
             }
         }
@@ -188,11 +176,22 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
                 } while (slaveChain.hasNext());
             }
 
+            if (nextSpilledSlave()) {
+                return true;
+            }
+
             if (masterCursor.hasNext()) {
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterSink);
+                if (isSpilled) {
+                    // spilled slave rows of the key follow the ones in memory
+                    spillCursor = spill.findMatches(masterIndex++, ((FastMap.Key) key).hash());
+                }
                 MapValue value = key.findValue();
                 if (value != null) {
+                    if (isSpilled) {
+                        record.of(masterRecord, slaveChain.getRecord());
+                    }
                     slaveChain.of(value.getLong(0));
                     useSlaveCursor = true;
                     record.hasSlave(true);
@@ -204,7 +203,9 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
                 }
 
                 useSlaveCursor = false;
-                record.hasSlave(false);
+                if (!nextSpilledSlave()) {
+                    record.hasSlave(false);
+                }
                 return true;
             }
             return false;
@@ -219,6 +220,11 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
         public void toTop() {
             masterCursor.toTop();
             useSlaveCursor = false;
+            spillCursor = null;
+            masterIndex = 0;
+            if (isSpilled) {
+                spill.toTop();
+            }
             filter.toTop();
         }
 
@@ -227,9 +233,27 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
                 this.isOpen = true;
                 this.joinKeyMap.reopen();
                 this.slaveChain.reopen();
+                if (spill != null) {
+                    spill.reopen();
+                }
             }
             HashOuterJoinFilteredRecordCursorFactory factory = HashOuterJoinFilteredRecordCursorFactory.this;
-            buildMap(slaveCursor, slaveCursor.getRecord(), this.joinKeyMap, factory.slaveKeySink, this.slaveChain, circuitBreaker);
+            HashOuterJoinRecordCursorFactory.buildMap(slaveCursor, slaveCursor.getRecord(), this.joinKeyMap, factory.slaveKeySink, this.slaveChain, spill, circuitBreaker);
+        }
+
+        private boolean nextSpilledSlave() {
+            if (spillCursor != null) {
+                record.of(masterRecord, spill.getRecord());
+                record.hasSlave(true);
+                while (spillCursor.hasNext()) {
+                    spill.recordAt(spillCursor.next());
+                    if (filter.getBool(record)) {
+                        return true;
+                    }
+                }
+                spillCursor = null;
+            }
+            return false;
         }
 
         void of(SqlExecutionContext executionContext, RecordCursor slaveCursor) throws SqlException {
@@ -241,6 +265,12 @@ public class HashOuterJoinFilteredRecordCursorFactory extends AbstractRecordCurs
             this.slaveChain.setSymbolTableResolver(slaveCursor);
             record.of(masterRecord, slaveRecord);
             useSlaveCursor = false;
+            spillCursor = null;
+            masterIndex = 0;
+            isSpilled = spill != null && spill.isSpilled();
+            if (isSpilled) {
+                spill.join(masterCursor, masterSink, slaveCursor, null, slaveKeySink, executionContext.getCircuitBreaker());
+            }
         }
     }
 }
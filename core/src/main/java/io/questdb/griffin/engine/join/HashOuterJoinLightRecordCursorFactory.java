@@ -28,6 +28,7 @@ import io.questdb.cairo.AbstractRecordCursorFactory;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.ColumnTypes;
 import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.FastMap;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
@@ -121,10 +122,15 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
         private final Map joinKeyMap;
         private final OuterJoinRecord record;
         private final LongChain slaveChain;
+        // slave rows that did not fit in memory, null when spilling is disabled
+        private final HashJoinSpill spill;
         private boolean isOpen;
+        private boolean isSpilled;
+        private long masterIndex;
         private Record masterRecord;
         private LongChain.TreeCursor slaveChainCursor;
         private Record slaveRecord;
+        private HashJoinSpill.SpillCursor spillCursor;
 
         public HashOuterJoinLightRecordCursor(
                 int columnSplit,
@@ -136,6 +142,9 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
             super(columnSplit);
             this.joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
             this.slaveChain = new LongChain(configuration.getSqlHashJoinLightValuePageSize(), configuration.getSqlHashJoinLightValueMaxPages());
+            this.spill = HashJoinSpill.isEnabled(configuration, joinKeyMap)
+                    ? new HashJoinSpill(configuration, joinColumnTypes, valueTypes, null, null)
+                    : null;
             this.record = new OuterJoinRecord(columnSplit, nullRecord);
             this.isOpen = true;
         }
@@ -146,6 +155,7 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                Misc.free(spill);
                 super.close();
             }
         }
@@ -162,9 +172,17 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
                 return true;
             }
 
+            if (nextSpilledSlave()) {
+                return true;
+            }
+
             if (masterCursor.hasNext()) {
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterKeySink);
+                if (isSpilled) {
+                    // spilled slave rows of the key follow the ones in memory
+                    spillCursor = spill.findMatches(masterIndex++, ((FastMap.Key) key).hash());
+                }
                 MapValue value = key.findValue();
                 if (value != null) {
                     slaveChainCursor = slaveChain.getCursor(value.getLong(0));
@@ -175,7 +193,11 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
                     record.hasSlave(true);
                 } else {
                     slaveChainCursor = null;
-                    record.hasSlave(false);
+                    if (nextSpilledSlave()) {
+                        record.hasSlave(true);
+                    } else {
+                        record.hasSlave(false);
+                    }
                 }
                 return true;
             }
@@ -192,15 +214,29 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
         public void toTop() {
             masterCursor.toTop();
             slaveChainCursor = null;
+            spillCursor = null;
+            masterIndex = 0;
+            if (isSpilled) {
+                spill.toTop();
+            }
         }
 
         private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
             try {
+                if (spill != null) {
+                    spill.clear();
+                }
                 final Record record = slaveCursor.getRecord();
+                boolean spilling = false;
                 while (slaveCursor.hasNext()) {
                     circuitBreaker.statefulThrowExceptionIfTripped();
                     MapKey key = joinKeyMap.withKey();
                     key.put(record, slaveKeySink);
+                    if (spilling) {
+                        // the map and the chain stay as they are, rows of all keys go to the partition files
+                        spill.put(record.getRowId(), ((FastMap.Key) key).hash());
+                        continue;
+                    }
                     MapValue value = key.createValue();
                     if (value.isNew()) {
                         final long offset = slaveChain.put(record.getRowId(), -1);
@@ -209,6 +245,7 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
                     } else {
                         value.putLong(1, slaveChain.put(record.getRowId(), value.getLong(1)));
                     }
+                    spilling = spill != null && spill.isFull(joinKeyMap, slaveChain.getHeapSize());
                 }
             } catch (Throwable t) {
                 close();
@@ -216,11 +253,22 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
             }
         }
 
+        private boolean nextSpilledSlave() {
+            if (spillCursor != null && spillCursor.hasNext()) {
+                slaveCursor.recordAt(slaveRecord, spillCursor.next());
+                return true;
+            }
+            return false;
+        }
+
         void of(RecordCursor masterCursor, RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
             if (!this.isOpen) {
                 this.isOpen = true;
                 this.slaveChain.reopen();
                 this.joinKeyMap.reopen();
+                if (spill != null) {
+                    spill.reopen();
+                }
             }
             buildMapOfSlaveRecords(slaveCursor, circuitBreaker);
             this.masterCursor = masterCursor;
@@ -229,6 +277,12 @@ public class HashOuterJoinLightRecordCursorFactory extends AbstractRecordCursorF
             this.slaveRecord = slaveCursor.getRecordB();
             this.record.of(masterRecord, slaveRecord);
             this.slaveChainCursor = null;
+            this.spillCursor = null;
+            this.masterIndex = 0;
+            this.isSpilled = spill != null && spill.isSpilled();
+            if (isSpilled) {
+                spill.join(masterCursor, masterKeySink, slaveCursor, slaveRecord, slaveKeySink, circuitBreaker);
+            }
         }
     }
 }
@@ -25,6 +25,7 @@
 package io.questdb.griffin.engine.join;
 
 import io.questdb.cairo.*;
+import io.questdb.cairo.map.FastMap;
 import io.questdb.cairo.map.Map;
 import io.questdb.cairo.map.MapFactory;
 import io.questdb.cairo.map.MapKey;
@@ -37,6 +38,7 @@ import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.model.JoinContext;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import org.jetbrains.annotations.Nullable;
 
 public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactory {
     private final HashOuterJoinRecordCursor cursor;
@@ -68,10 +70,14 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         this.slaveKeySink = slaveKeySink;
 
         Map joinKeyMap = MapFactory.createMap(configuration, joinColumnTypes, valueTypes);
+        HashJoinSpill spill = HashJoinSpill.isEnabled(configuration, joinKeyMap)
+                ? new HashJoinSpill(configuration, joinColumnTypes, valueTypes, slaveFactory.getMetadata(), slaveChainSink)
+                : null;
         this.cursor = new HashOuterJoinRecordCursor(
                 columnSplit,
                 joinKeyMap,
                 slaveChain,
+                spill,
                 NullRecordFactory.getInstance(slaveFactory.getMetadata())
         );
 
@@ -115,14 +121,24 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
             Map joinKeyMap,
             RecordSink slaveKeySink,
             RecordChain slaveChain,
+            @Nullable HashJoinSpill spill,
             SqlExecutionCircuitBreaker circuitBreaker
     ) {
         joinKeyMap.clear();
         slaveChain.clear();
+        if (spill != null) {
+            spill.clear();
+        }
+        boolean spilling = false;
         while (slaveCursor.hasNext()) {
             circuitBreaker.statefulThrowExceptionIfTripped();
             MapKey key = joinKeyMap.withKey();
             key.put(record, slaveKeySink);
+            if (spilling) {
+                // the map and the chain stay as they are, rows of all keys go to the partition files
+                spill.put(record, ((FastMap.Key) key).hash(), slaveCursor);
+                continue;
+            }
             MapValue value = key.createValue();
             if (value.isNew()) {
                 long offset = slaveChain.put(record, -1);
@@ -131,6 +147,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
             } else {
                 value.putLong(1, slaveChain.put(record, value.getLong(1)));
             }
+            spilling = spill != null && spill.isFull(joinKeyMap, slaveChain.getHeapSize());
         }
     }
 
@@ -146,15 +163,21 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         private final Map joinKeyMap;
         private final OuterJoinRecord record;
         private final RecordChain slaveChain;
+        // slave rows that did not fit in memory, null when spilling is disabled
+        private final HashJoinSpill spill;
         private boolean isOpen;
+        private boolean isSpilled;
+        private long masterIndex;
         private Record masterRecord;
+        private HashJoinSpill.SpillCursor spillCursor;
         private boolean useSlaveCursor;
 
-        public HashOuterJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain, Record nullRecord) {
+        public HashOuterJoinRecordCursor(int columnSplit, Map joinKeyMap, RecordChain slaveChain, @Nullable HashJoinSpill spill, Record nullRecord) {
             super(columnSplit);
             this.record = new OuterJoinRecord(columnSplit, nullRecord);
             this.joinKeyMap = joinKeyMap;
             this.slaveChain = slaveChain;
+            this.spill = spill;
             this.isOpen = true;
         }
 
@@ -164,6 +187,7 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 isOpen = false;
                 joinKeyMap.close();
                 slaveChain.close();
+                Misc.free(spill);
                 super.close();
             }
         }
@@ -179,11 +203,22 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 return true;
             }
 
+            if (nextSpilledSlave()) {
+                return true;
+            }
+
             if (masterCursor.hasNext()) {
                 MapKey key = joinKeyMap.withKey();
                 key.put(masterRecord, masterSink);
+                if (isSpilled) {
+                    // spilled slave rows of the key follow the ones in memory
+                    spillCursor = spill.findMatches(masterIndex++, ((FastMap.Key) key).hash());
+                }
                 MapValue value = key.findValue();
                 if (value != null) {
+                    if (isSpilled) {
+                        record.of(masterRecord, slaveChain.getRecord());
+                    }
                     slaveChain.of(value.getLong(0));
                     // we know cursor has values
                     // advance to get first value
@@ -192,7 +227,9 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                     record.hasSlave(true);
                 } else {
                     useSlaveCursor = false;
-                    record.hasSlave(false);
+                    if (!nextSpilledSlave()) {
+                        record.hasSlave(false);
+                    }
                 }
                 return true;
             }
@@ -208,6 +245,11 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
         public void toTop() {
             masterCursor.toTop();
             useSlaveCursor = false;
+            spillCursor = null;
+            masterIndex = 0;
+            if (isSpilled) {
+                spill.toTop();
+            }
         }
 
         private void buildMapOfSlaveRecords(RecordCursor slaveCursor, SqlExecutionCircuitBreaker circuitBreaker) {
@@ -215,9 +257,22 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 this.isOpen = true;
                 this.joinKeyMap.reopen();
                 this.slaveChain.reopen();
+                if (spill != null) {
+                    spill.reopen();
+                }
             }
             HashOuterJoinRecordCursorFactory factory = HashOuterJoinRecordCursorFactory.this;
-            buildMap(slaveCursor, slaveCursor.getRecord(), this.joinKeyMap, factory.slaveKeySink, this.slaveChain, circuitBreaker);
+            buildMap(slaveCursor, slaveCursor.getRecord(), this.joinKeyMap, factory.slaveKeySink, this.slaveChain, spill, circuitBreaker);
+        }
+
+        private boolean nextSpilledSlave() {
+            if (spillCursor != null && spillCursor.hasNext()) {
+                spill.recordAt(spillCursor.next());
+                record.of(masterRecord, spill.getRecord());
+                record.hasSlave(true);
+                return true;
+            }
+            return false;
         }
 
         void of(SqlExecutionContext executionContext, RecordCursor slaveCursor) throws SqlException {
@@ -231,6 +286,12 @@ public class HashOuterJoinRecordCursorFactory extends AbstractRecordCursorFactor
                 this.slaveChain.setSymbolTableResolver(slaveCursor);
                 record.of(masterRecord, slaveRecord);
                 useSlaveCursor = false;
+                spillCursor = null;
+                masterIndex = 0;
+                isSpilled = spill != null && spill.isSpilled();
+                if (isSpilled) {
+                    spill.join(masterCursor, masterSink, slaveCursor, null, slaveKeySink, executionContext.getCircuitBreaker());
+                }
             } catch (Throwable e) {
                 this.masterCursor = Misc.free(masterCursor);
                 throw e;
@@ -57,6 +57,13 @@ public class LongChain implements Closeable, Mutable, Reopenable {
         return cursor;
     }
 
+    /**
+     * @return number of bytes taken by the values
+     */
+    public long getHeapSize() {
+        return valueChain.getAppendOffset();
+    }
+
     public long put(long value, long parentOffset) {
         final long appendOffset = valueChain.getAppendOffset();
         if (parentOffset != -1) {
@@ -0,0 +1,251 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.Plannable;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.table.AsyncFilterAtom;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Shared state of parallel ORDER BY ... LIMIT N. Each worker slot owns a bounded tree chain,
+ * a comparator and a placeholder record, which are used to select top rows of a single
+ * page frame. The query owner thread uses its own slot when it steals work.
+ * <p>
+ * Placeholders are bound to the page frame cursor once per execution, so that each of them
+ * opens its own copies of symbol tables and comparators never share symbol table state.
+ */
+public class AsyncTopKAtom implements StatefulAtom, Closeable, Plannable {
+
+    private final AsyncFilterAtom filterAtom;
+    private final LimitedSizeLongTreeChain ownerChain;
+    private final RecordComparator ownerComparator;
+    private final PageAddressCacheRecord ownerPlaceholder;
+    private final ObjList<LimitedSizeLongTreeChain> perWorkerChains;
+    private final ObjList<RecordComparator> perWorkerComparators;
+    private final AtomicIntegerArray perWorkerLocks;
+    private final ObjList<PageAddressCacheRecord> perWorkerPlaceholders;
+    private PageAddressCache pageAddressCache;
+    // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+    private final Rnd rnd;
+
+    public AsyncTopKAtom(
+            @NotNull CairoConfiguration configuration,
+            @Nullable AsyncFilterAtom filterAtom,
+            @NotNull RecordComparator ownerComparator,
+            @NotNull ObjList<RecordComparator> perWorkerComparators
+    ) {
+        this.rnd = new Rnd(
+                configuration.getNanosecondClock().getTicks(),
+                configuration.getMicrosecondClock().getTicks()
+        );
+        this.filterAtom = filterAtom;
+        this.ownerComparator = ownerComparator;
+        this.perWorkerComparators = perWorkerComparators;
+        final int workerCount = perWorkerComparators.size();
+        this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+        this.perWorkerChains = new ObjList<>(workerCount);
+        this.perWorkerPlaceholders = new ObjList<>(workerCount);
+        this.ownerChain = createChain(configuration);
+        this.ownerPlaceholder = new PageAddressCacheRecord();
+        for (int i = 0; i < workerCount; i++) {
+            perWorkerChains.extendAndSet(i, createChain(configuration));
+            perWorkerPlaceholders.extendAndSet(i, new PageAddressCacheRecord());
+        }
+    }
+
+    /**
+     * Acquires a worker slot. Slot id is also used to pick the per-worker filter, so that
+     * a single lock guards all per-worker state.
+     */
+    public int acquire(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+        if (workerId == -1 && owner) {
+            // Owner thread is free to use the owner slot anytime.
+            return -1;
+        }
+        final int size = perWorkerChains.size();
+        workerId = workerId == -1 ? rnd.nextInt(size) : workerId;
+        while (true) {
+            for (int i = 0; i < size; i++) {
+                int id = (i + workerId) % size;
+                if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                    return id;
+                }
+            }
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            Os.pause();
+        }
+    }
+
+    public void clear() {
+        ownerChain.close();
+        Misc.freeObjListAndKeepObjects(perWorkerChains);
+        // release symbol tables cloned for the placeholders
+        Misc.free(ownerPlaceholder);
+        Misc.freeObjListAndKeepObjects(perWorkerPlaceholders);
+        pageAddressCache = null;
+    }
+
+    @Override
+    public void close() {
+        Misc.free(ownerChain);
+        Misc.free(ownerPlaceholder);
+        Misc.freeObjList(perWorkerChains);
+        Misc.freeObjList(perWorkerPlaceholders);
+    }
+
+    public LimitedSizeLongTreeChain getChain(int slotId) {
+        if (slotId == -1) {
+            return ownerChain;
+        }
+        return perWorkerChains.getQuick(slotId);
+    }
+
+    public RecordComparator getComparator(int slotId) {
+        if (slotId == -1) {
+            return ownerComparator;
+        }
+        return perWorkerComparators.getQuick(slotId);
+    }
+
+    @Nullable
+    public Function getFilter(int slotId) {
+        return filterAtom != null ? filterAtom.getFilter(slotId) : null;
+    }
+
+    public PageAddressCacheRecord getPlaceholder(int slotId) {
+        if (slotId == -1) {
+            return ownerPlaceholder;
+        }
+        return perWorkerPlaceholders.getQuick(slotId);
+    }
+
+    public boolean hasFilter() {
+        return filterAtom != null;
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        if (filterAtom != null) {
+            filterAtom.init(symbolTableSource, executionContext);
+        }
+        // every placeholder lazily clones symbol tables via newSymbolTable(), which makes them
+        // private to the slot, i.e. to the single thread that holds the slot lock
+        ownerPlaceholder.of(symbolTableSource, pageAddressCache);
+        for (int i = 0, n = perWorkerPlaceholders.size(); i < n; i++) {
+            perWorkerPlaceholders.getQuick(i).of(symbolTableSource, pageAddressCache);
+        }
+    }
+
+    /**
+     * Sets the number of rows each slot keeps per frame. Must be called before frames are dispatched.
+     */
+    public void of(PageAddressCache pageAddressCache, boolean isFirstN, long limit) {
+        this.pageAddressCache = pageAddressCache;
+        ownerChain.reopen();
+        ownerChain.of(isFirstN, limit);
+        for (int i = 0, n = perWorkerChains.size(); i < n; i++) {
+            final LimitedSizeLongTreeChain chain = perWorkerChains.getQuick(i);
+            chain.reopen();
+            chain.of(isFirstN, limit);
+        }
+    }
+
+    public void release(int slotId) {
+        if (slotId == -1) {
+            return;
+        }
+        perWorkerLocks.set(slotId, 0);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.val(filterAtom);
+    }
+
+    static LimitedSizeLongTreeChain createChain(CairoConfiguration configuration) {
+        return new LimitedSizeLongTreeChain(
+                configuration.getSqlSortKeyPageSize(),
+                configuration.getSqlSortKeyMaxPages(),
+                configuration.getSqlSortLightValuePageSize(),
+                configuration.getSqlSortLightValueMaxPages(),
+                true,
+                0
+        );
+    }
+
+    /**
+     * Tree chain positions the placeholder record via recordAt() only. Page frame records
+     * are positioned by frame and row index, so no cursor state is needed.
+     */
+    static final class FrameRecordPositioner implements RecordCursor {
+        static final FrameRecordPositioner INSTANCE = new FrameRecordPositioner();
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public Record getRecord() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Record getRecordB() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean hasNext() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+            ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+        }
+
+        @Override
+        public long size() {
+            return -1;
+        }
+
+        @Override
+        public void toTop() {
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+
+class AsyncTopKRecordCursor implements RecordCursor {
+
+    private static final Log LOG = LogFactory.getLog(AsyncTopKRecordCursor.class);
+    private static final String exceptionMessage = "timeout, query aborted";
+    private final LimitedSizeLongTreeChain chain;
+    private final LimitedSizeLongTreeChain.TreeCursor chainCursor;
+    private final RecordComparator comparator;
+    private final PageAddressCacheRecord placeholder = new PageAddressCacheRecord();
+    private final PageAddressCacheRecord record = new PageAddressCacheRecord();
+    private PageFrameSequence<AsyncTopKAtom> frameSequence;
+    private boolean isOpen;
+    private PageAddressCacheRecord recordB;
+
+    public AsyncTopKRecordCursor(CairoConfiguration configuration, RecordComparator comparator) {
+        this.chain = AsyncTopKAtom.createChain(configuration);
+        this.chainCursor = chain.getCursor();
+        this.comparator = comparator;
+        this.isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            if (frameSequence != null) {
+                LOG.debug()
+                        .$("closing [shard=").$(frameSequence.getShard())
+                        .$(", frameCount=").$(frameSequence.getFrameCount())
+                        .$(", frameId=").$(frameSequence.getId())
+                        .I$();
+
+                if (frameSequence.getFrameCount() > 0) {
+                    frameSequence.await();
+                }
+                frameSequence.getAtom().clear();
+                frameSequence.clear();
+            }
+            chain.close();
+        }
+    }
+
+    public void freeRecords() {
+        Misc.free(record);
+        Misc.free(recordB);
+        Misc.free(placeholder);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageAddressCacheRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (chainCursor.hasNext()) {
+            recordAt(record, chainCursor.next());
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+        ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        return chain.size();
+    }
+
+    @Override
+    public void toTop() {
+        chainCursor.toTop();
+    }
+
+    private void mergeFrames() {
+        final int frameCount = frameSequence.getFrameCount();
+        boolean allFramesActive = true;
+        try {
+            int frameIndex = -1;
+            while (frameIndex < frameCount - 1) {
+                final long cursor = frameSequence.next();
+                if (cursor > -1) {
+                    final PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    LOG.debug()
+                            .$("collected [shard=").$(frameSequence.getShard())
+                            .$(", frameIndex=").$(task.getFrameIndex())
+                            .$(", frameCount=").$(frameCount)
+                            .$(", frameId=").$(frameSequence.getId())
+                            .$(", active=").$(frameSequence.isActive())
+                            .$(", cursor=").$(cursor)
+                            .I$();
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    if (allFramesActive) {
+                        // frames are collected in order and their rows are sorted by row index,
+                        // so the chain sees rows in the same order as a serial scan would feed them
+                        final DirectLongList rows = task.getRows();
+                        placeholder.setFrameIndex(frameIndex);
+                        for (long i = 0, n = rows.size(); i < n; i++) {
+                            placeholder.setRowIndex(rows.get(i));
+                            chain.put(placeholder, this, recordB(), comparator);
+                        }
+                    }
+                    frameSequence.collect(cursor, false);
+                } else {
+                    Os.pause();
+                }
+            }
+        } catch (Throwable e) {
+            LOG.critical().$("unexpected error [ex=").$(e).I$();
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+
+        if (!allFramesActive) {
+            throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+        }
+    }
+
+    private PageAddressCacheRecord recordB() {
+        return (PageAddressCacheRecord) getRecordB();
+    }
+
+    void of(PageFrameSequence<AsyncTopKAtom> frameSequence, boolean isFirstN, long limit) {
+        if (!isOpen) {
+            isOpen = true;
+            chain.reopen();
+        }
+        this.frameSequence = frameSequence;
+        chain.of(isFirstN, limit);
+        record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        placeholder.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        }
+        mergeFrames();
+        toTop();
+    }
+}
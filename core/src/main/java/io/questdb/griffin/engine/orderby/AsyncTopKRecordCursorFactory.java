@@ -0,0 +1,208 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.RecordComparator;
+import io.questdb.griffin.engine.table.AsyncFilteredRecordCursorFactory;
+import io.questdb.mp.SCSequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * ORDER BY ... LIMIT N that selects top rows of each page frame in parallel on the shared
+ * worker pool. Non-JIT filter of the base factory, if any, is applied in the same reduce step.
+ * The query owner thread merges top rows of all frames, in frame order, into a single bounded
+ * tree chain, so that the result, including the order of ties, is the same as the one of
+ * LimitedSizeSortedLightRecordCursorFactory.
+ */
+public class AsyncTopKRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = AsyncTopKRecordCursorFactory::topK;
+
+    private final AsyncTopKAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final AsyncTopKRecordCursor cursor;
+    private final PageFrameSequence<AsyncTopKAtom> frameSequence;
+    private final Function loFunction;
+    private final RecordCursorFactory pageFrameFactory;
+    private final ListColumnFilter sortColumnFilter;
+    private final int workerCount;
+
+    public AsyncTopKRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordMetadata metadata,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordComparator comparator,
+            @NotNull ObjList<RecordComparator> perWorkerComparators,
+            @NotNull Function loFunction,
+            @NotNull ListColumnFilter sortColumnFilter,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool
+    ) {
+        super(metadata);
+        this.base = base;
+        this.loFunction = loFunction;
+        this.sortColumnFilter = sortColumnFilter;
+        this.workerCount = perWorkerComparators.size();
+        if (base instanceof AsyncFilteredRecordCursorFactory) {
+            this.pageFrameFactory = base.getBaseFactory();
+            this.atom = new AsyncTopKAtom(configuration, ((AsyncFilteredRecordCursorFactory) base).getFilterAtom(), comparator, perWorkerComparators);
+        } else {
+            this.pageFrameFactory = base;
+            this.atom = new AsyncTopKAtom(configuration, null, comparator, perWorkerComparators);
+        }
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+        this.cursor = new AsyncTopKRecordCursor(configuration, comparator);
+    }
+
+    /**
+     * Parallel top rows selection requires page frames in their natural order. When the base
+     * is a filter, it must be a non-JIT one which doesn't implement a limit on its own.
+     */
+    public static boolean isSupported(RecordCursorFactory base) {
+        if (base.hasDescendingOrder()) {
+            return false;
+        }
+        if (base instanceof AsyncFilteredRecordCursorFactory) {
+            return !base.followedLimitAdvice();
+        }
+        return base.supportPageFrameCursor();
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        loFunction.init(null, executionContext);
+        final long lo = loFunction.getLong(null);
+        // positive limit keeps first N rows, negative one keeps last N rows, both returned in sort order
+        final boolean isFirstN = lo > -1;
+        final long limit = isFirstN ? lo : -lo;
+        // chains have to be set up before any frame is dispatched
+        atom.of(frameSequence.getPageAddressCache(), isFirstN, limit);
+        frameSequence.of(pageFrameFactory, executionContext, collectSubSeq, atom, ORDER_ASC);
+        try {
+            cursor.of(frameSequence, isFirstN, limit);
+            return cursor;
+        } catch (Throwable e) {
+            cursor.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean implementsLimit() {
+        return true;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Async Top K");
+        sink.meta("lo").val(loFunction);
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        if (atom.hasFilter()) {
+            sink.attr("filter").val(atom);
+        }
+        sink.attr("workers").val(workerCount);
+        sink.child(pageFrameFactory);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private static void topK(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList rows = task.getRows();
+        final long frameRowCount = task.getFrameRowCount();
+        final PageFrameSequence<AsyncTopKAtom> frameSequence = task.getFrameSequence(AsyncTopKAtom.class);
+        final AsyncTopKAtom atom = frameSequence.getAtom();
+
+        rows.clear();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int slotId = atom.acquire(workerId, owner, circuitBreaker);
+        final Function filter = atom.getFilter(slotId);
+        final LimitedSizeLongTreeChain chain = atom.getChain(slotId);
+        final RecordComparator comparator = atom.getComparator(slotId);
+        final PageAddressCacheRecord placeholder = atom.getPlaceholder(slotId);
+        try {
+            chain.clear();
+            for (long r = 0; r < frameRowCount; r++) {
+                record.setRowIndex(r);
+                if (filter == null || filter.getBool(record)) {
+                    chain.put(record, AsyncTopKAtom.FrameRecordPositioner.INSTANCE, placeholder, comparator);
+                }
+            }
+
+            final LimitedSizeLongTreeChain.TreeCursor chainCursor = chain.getCursor();
+            while (chainCursor.hasNext()) {
+                rows.add(Rows.toLocalRowID(chainCursor.next()));
+            }
+            // owner thread has to see top rows in scan order to break ties the same way as a serial scan
+            rows.sortAsUnsigned();
+        } finally {
+            atom.release(slotId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(atom);
+        Misc.free(frameSequence);
+        Misc.free(cursor);
+        cursor.freeRecords();
+    }
+}
@@ -73,9 +73,9 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
     //LIFO list of nodes to reuse, instead of releasing and reallocating
     private final LongList freeList;
     //firstN - keep <first->N> set , otherwise keep <last-N->last> set
-    private final boolean isFirstN;
+    private boolean isFirstN;
     //maximum number of values tree can store (including repeating values)
-    private final long maxValues; //-1 means 'almost' unlimited
+    private long maxValues; //-1 means 'almost' unlimited
     private final MemoryARW valueChain;
     //number of all values stored in tree (including repeating ones)
     private long currentValues = 0;
@@ -147,6 +147,18 @@ public class LimitedSizeLongTreeChain extends AbstractRedBlackTree implements Re
         return cursor;
     }
 
+    /**
+     * Clears the tree and changes the set of values it keeps.
+     *
+     * @param isFirstN  true to keep first N values, false to keep last N values
+     * @param maxValues maximum number of values to keep
+     */
+    public void of(boolean isFirstN, long maxValues) {
+        clear();
+        this.isFirstN = isFirstN;
+        this.maxValues = maxValues;
+    }
+
     @TestOnly
     public void print(CharSink sink) {
         print(sink, null);
@@ -0,0 +1,368 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.cairo.vm.api.MemoryCMARW;
+import io.questdb.cutlass.text.AtomicBooleanCircuitBreaker;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.RingQueue;
+import io.questdb.mp.SOUnboundedCountDownLatch;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.MicrosecondClock;
+import io.questdb.std.str.Path;
+import io.questdb.tasks.SortRunTask;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+class RadixSortLightRecordCursor implements DelegatingRecordCursor {
+    private static final AtomicLong SPILL_ID = new AtomicLong();
+    private final MicrosecondClock clock;
+    private final int columnIndex;
+    private final int columnTag;
+    private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
+    // keys are sorted in reverse and the index is read back to front, which stable sort turns into
+    // ties in reverse row order, the same order the tree chain produces
+    private final long keyMask;
+    private final FilesFacade ff;
+    private final MemoryCMARW fileCopyMem = Vm.getCMARWInstance();
+    private final MemoryCMARW fileMem = Vm.getCMARWInstance();
+    // binary heap of run indexes ordered by the key the run is going to return next
+    private final IntList heap = new IntList();
+    private final long minRunSize;
+    private final int mkDirMode;
+    private final MemoryCARW nativeCopyMem;
+    private final MemoryCARW nativeMem;
+    private final long pageSize;
+    private final Path path = new Path();
+    private final ObjList<SortRun> runs = new ObjList<>();
+    private final AtomicBooleanCircuitBreaker sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
+    private final long spillMemoryBudget;
+    private final CharSequence spillRoot;
+    private long address;
+    private RecordCursor base;
+    private Record baseRecord;
+    private long count;
+    private int heapSize;
+    private long index;
+    private boolean isOpen;
+    private MemoryARW mem;
+    private int runCount;
+    private long spillId = -1;
+    private long spillTimestamp;
+
+    public RadixSortLightRecordCursor(CairoConfiguration configuration, int columnIndex, int columnType, boolean descending) {
+        this.columnIndex = columnIndex;
+        this.columnTag = ColumnType.tagOf(columnType);
+        this.keyMask = descending ? 0L : -1L;
+        this.ff = configuration.getFilesFacade();
+        this.clock = configuration.getMicrosecondClock();
+        this.minRunSize = Math.max(configuration.getSqlRadixSortMinRunSize(), 1);
+        this.mkDirMode = configuration.getMkDirMode();
+        this.pageSize = ff.getMapPageSize();
+        this.spillMemoryBudget = configuration.getSqlSpillMemoryBudget();
+        this.spillRoot = configuration.getSqlSpillRoot();
+        this.nativeMem = Vm.getCARWInstance(configuration.getSqlSortKeyPageSize(), configuration.getSqlSortKeyMaxPages(), MemoryTag.NATIVE_TREE_CHAIN);
+        this.nativeCopyMem = Vm.getCARWInstance(configuration.getSqlSortKeyPageSize(), configuration.getSqlSortKeyMaxPages(), MemoryTag.NATIVE_TREE_CHAIN);
+        this.isOpen = true;
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            isOpen = false;
+            Misc.free(nativeMem);
+            Misc.free(nativeCopyMem);
+            removeSpillFiles();
+            Misc.free(path);
+            base = Misc.free(base);
+            baseRecord = null;
+        }
+    }
+
+    @Override
+    public Record getRecord() {
+        return baseRecord;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return base.getRecordB();
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return base.getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (runCount == 1) {
+            if (index < count) {
+                base.recordAt(baseRecord, Unsafe.getUnsafe().getLong(address + ((count - ++index) << 4) + Long.BYTES));
+                return true;
+            }
+            return false;
+        }
+
+        if (heapSize > 0) {
+            final SortRun run = runs.getQuick(heap.getQuick(0));
+            base.recordAt(baseRecord, run.nextRowId());
+            if (!run.hasNext()) {
+                heap.setQuick(0, heap.getQuick(--heapSize));
+            }
+            siftDown(0);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return base.newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void of(RecordCursor base, SqlExecutionContext executionContext) {
+        isOpen = true;
+        this.base = base;
+        this.baseRecord = base.getRecord();
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+
+        removeSpillFiles();
+        mem = nativeMem;
+        nativeMem.truncate();
+        while (base.hasNext()) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            // the index has the same layout as the one used by O3 sort: 64-bit key followed by 64-bit row id
+            mem.putLong(sortKey(baseRecord));
+            mem.putLong(baseRecord.getRowId());
+            if (spillMemoryBudget > 0 && mem == nativeMem && nativeMem.getAppendOffset() > spillMemoryBudget) {
+                spill();
+            }
+        }
+
+        final long size = mem.getAppendOffset();
+        count = size >>> 4;
+        address = mem.addressOf(0);
+        runCount = 1;
+        if (count > 1) {
+            final MemoryARW copyMem;
+            if (mem == nativeMem) {
+                copyMem = nativeCopyMem;
+                nativeCopyMem.jumpTo(size);
+            } else {
+                copyMem = fileCopyMem;
+                fileCopyMem.of(ff, spillPath('c'), pageSize, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+                fileCopyMem.jumpTo(size);
+            }
+            runCount = (int) Math.max(1, Math.min(executionContext.getSharedWorkerCount(), count / minRunSize));
+            try {
+                if (runCount > 1) {
+                    sortRuns(executionContext, copyMem.addressOf(0));
+                } else {
+                    Vect.radixSortLongIndexAscInPlace(address, count, copyMem.addressOf(0));
+                }
+            } finally {
+                // the copy is not needed once sorted
+                copyMem.close();
+                if (copyMem == fileCopyMem) {
+                    ff.remove(spillPath('c'));
+                }
+            }
+        }
+        toTop();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        base.recordAt(record, atRowId);
+    }
+
+    @Override
+    public long size() {
+        return base.size();
+    }
+
+    @Override
+    public void toTop() {
+        index = 0;
+        if (runCount > 1) {
+            heapSize = 0;
+            for (int i = 0; i < runCount; i++) {
+                final SortRun run = runs.getQuick(i);
+                run.toTop();
+                if (run.hasNext()) {
+                    heap.setQuick(heapSize++, i);
+                }
+            }
+            for (int i = (heapSize >> 1) - 1; i > -1; i--) {
+                siftDown(i);
+            }
+        }
+    }
+
+    /**
+     * Tells whether the next pair of run a goes before the next pair of run b. Runs are read back to front,
+     * so the greater key goes first and, between equal keys, the run holding later rows of the base cursor.
+     */
+    private boolean precedes(int a, int b) {
+        final int cmp = Long.compareUnsigned(runs.getQuick(a).getKey(), runs.getQuick(b).getKey());
+        return cmp > 0 || (cmp == 0 && a > b);
+    }
+
+    private void removeSpillFiles() {
+        if (spillId != -1) {
+            fileMem.close();
+            fileCopyMem.close();
+            ff.remove(spillPath('i'));
+            ff.remove(spillPath('c'));
+            spillId = -1;
+        }
+    }
+
+    private void siftDown(int i) {
+        final int run = heap.getQuick(i);
+        int child;
+        while ((child = (i << 1) + 1) < heapSize) {
+            if (child + 1 < heapSize && precedes(heap.getQuick(child + 1), heap.getQuick(child))) {
+                child++;
+            }
+            final int childRun = heap.getQuick(child);
+            if (!precedes(childRun, run)) {
+                break;
+            }
+            heap.setQuick(i, childRun);
+            i = child;
+        }
+        heap.setQuick(i, run);
+    }
+
+    private long sortKey(Record record) {
+        final long value;
+        switch (columnTag) {
+            case ColumnType.BYTE:
+                value = record.getByte(columnIndex);
+                break;
+            case ColumnType.SHORT:
+                value = record.getShort(columnIndex);
+                break;
+            case ColumnType.CHAR:
+                value = record.getChar(columnIndex);
+                break;
+            case ColumnType.INT:
+                value = record.getInt(columnIndex);
+                break;
+            case ColumnType.DATE:
+                value = record.getDate(columnIndex);
+                break;
+            case ColumnType.TIMESTAMP:
+                value = record.getTimestamp(columnIndex);
+                break;
+            default:
+                value = record.getLong(columnIndex);
+                break;
+        }
+        // radix sort compares keys as unsigned, flipping the sign bit keeps signed order
+        return value ^ Long.MIN_VALUE ^ keyMask;
+    }
+
+    /**
+     * Splits the index into runs, which are sorted in parallel on the shared worker pool and
+     * then merged by {@link #hasNext()}. The query thread sorts the runs workers have not picked up.
+     */
+    private void sortRuns(SqlExecutionContext executionContext, long copyAddress) {
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        final MessageBus bus = executionContext.getMessageBus();
+        final RingQueue<SortRunTask> queue = bus.getSortRunQueue();
+        final Sequence pubSeq = bus.getSortRunPubSeq();
+
+        sharedCircuitBreaker.reset();
+        doneLatch.reset();
+        heap.setPos(runCount);
+        for (int i = 0; i < runCount; i++) {
+            SortRun run = runs.getQuiet(i);
+            if (run == null) {
+                run = new SortRun();
+                runs.extendAndSet(i, run);
+            }
+            final long lo = count * i / runCount;
+            final long hi = count * (i + 1) / runCount;
+            run.of(i, address + (lo << 4), hi - lo, copyAddress + (lo << 4), doneLatch, sharedCircuitBreaker);
+        }
+
+        try {
+            for (int i = 0; i < runCount; i++) {
+                final long seq = pubSeq.next();
+                if (seq < 0) {
+                    // the queue is full, the run is sorted below
+                    break;
+                }
+                queue.get(seq).run = runs.getQuick(i);
+                pubSeq.done(seq);
+            }
+        } finally {
+            // start at the back, workers pick up runs from the front
+            for (int i = runCount - 1; i > -1 && doneLatch.getCount() > -runCount; i--) {
+                if (circuitBreaker.checkIfTripped()) {
+                    sharedCircuitBreaker.cancel();
+                }
+                runs.getQuick(i).sort();
+            }
+            doneLatch.await(runCount);
+        }
+        circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+    }
+
+    /**
+     * Moves the index collected so far to a memory-mapped file and continues appending to the file.
+     */
+    private void spill() {
+        removeSpillFiles();
+        spillId = SPILL_ID.incrementAndGet();
+        spillTimestamp = clock.getTicks();
+        path.of(spillRoot).slash$();
+        if (!ff.exists(path) && ff.mkdirs(path, mkDirMode) != 0) {
+            throw CairoException.critical(ff.errno()).put("could not create spill directory [path=").put(path).put(']');
+        }
+        fileMem.of(ff, spillPath('i'), pageSize, MemoryTag.MMAP_DEFAULT, CairoConfiguration.O_NONE);
+        fileMem.putBlockOfBytes(nativeMem.addressOf(0), nativeMem.getAppendOffset());
+        nativeMem.close();
+        mem = fileMem;
+    }
+
+    private Path spillPath(char suffix) {
+        return path.of(spillRoot).concat("sort_spill_").put(spillTimestamp).put('_').put(spillId).put('.').put(suffix).$();
+    }
+}
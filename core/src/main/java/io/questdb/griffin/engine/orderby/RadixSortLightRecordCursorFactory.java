@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.ListColumnFilter;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+
+/**
+ * Sorts row ids of the base cursor by a single integer-like column. Instead of inserting rows
+ * into a red-black tree one by one, the column values are normalized to unsigned 64-bit sort keys,
+ * stored along with the row ids and sorted with the native LSD radix sort. Radix sort is stable,
+ * so rows with equal keys retain the base cursor order, same as in {@link SortedLightRecordCursorFactory}.
+ * <p>
+ * Large indexes are split into runs, which are sorted in parallel on the shared worker pool
+ * and k-way merged as the cursor is read.
+ */
+public class RadixSortLightRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final RadixSortLightRecordCursor cursor;
+    private final ListColumnFilter sortColumnFilter;
+
+    public RadixSortLightRecordCursorFactory(
+            CairoConfiguration configuration,
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            ListColumnFilter sortColumnFilter
+    ) {
+        super(metadata);
+        assert isSupported(base.getMetadata(), sortColumnFilter);
+        final int filterIndex = sortColumnFilter.get(0);
+        final int columnIndex = (filterIndex > 0 ? filterIndex : -filterIndex) - 1;
+        this.base = base;
+        this.cursor = new RadixSortLightRecordCursor(
+                configuration,
+                columnIndex,
+                base.getMetadata().getColumnType(columnIndex),
+                filterIndex < 0
+        );
+        this.sortColumnFilter = sortColumnFilter;
+    }
+
+    /**
+     * @param metadata         metadata of the base factory
+     * @param sortColumnFilter order by columns, negative index means descending order
+     * @return true when order by can be executed with radix sort
+     */
+    public static boolean isSupported(RecordMetadata metadata, ListColumnFilter sortColumnFilter) {
+        if (sortColumnFilter.size() != 1) {
+            return false;
+        }
+        final int filterIndex = sortColumnFilter.get(0);
+        final int columnIndex = (filterIndex > 0 ? filterIndex : -filterIndex) - 1;
+        switch (ColumnType.tagOf(metadata.getColumnType(columnIndex))) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.CHAR:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return base;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        RecordCursor baseCursor = base.getCursor(executionContext);
+        try {
+            cursor.of(baseCursor, executionContext);
+            return cursor;
+        } catch (Throwable ex) {
+            baseCursor.close();
+            cursor.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Radix sort light");
+        SortedLightRecordCursorFactory.addSortKeys(sink, sortColumnFilter);
+        sink.child(base);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        base.close();
+        cursor.close();
+    }
+}
@@ -0,0 +1,95 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.ExecutionCircuitBreaker;
+import io.questdb.mp.CountDownLatchSPI;
+import io.questdb.std.AbstractLockable;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Slice of the radix sort index, a sequence of (key, row id) pairs. Slices are sorted
+ * independently, either by the query thread or by {@link SortRunJob}, and then merged.
+ * The merge reads each slice back to front.
+ */
+public class SortRun extends AbstractLockable {
+    private long address;
+    private ExecutionCircuitBreaker circuitBreaker;
+    private long copyAddress;
+    private long count;
+    private CountDownLatchSPI doneLatch;
+    // number of pairs not yet read by the merge
+    private long remaining;
+
+    /**
+     * Sorts the slice unless it is already taken by another thread.
+     *
+     * @return true when the slice was sorted by the calling thread
+     */
+    public boolean sort() {
+        if (tryLock()) {
+            if (!circuitBreaker.checkIfTripped()) {
+                Vect.radixSortLongIndexAscInPlace(address, count, copyAddress);
+            }
+            doneLatch.countDown();
+            return true;
+        }
+        return false;
+    }
+
+    long getKey() {
+        return Unsafe.getUnsafe().getLong(address + ((remaining - 1) << 4));
+    }
+
+    boolean hasNext() {
+        return remaining > 0;
+    }
+
+    long nextRowId() {
+        return Unsafe.getUnsafe().getLong(address + ((--remaining) << 4) + Long.BYTES);
+    }
+
+    void of(
+            int sequence,
+            long address,
+            long count,
+            long copyAddress,
+            CountDownLatchSPI doneLatch,
+            ExecutionCircuitBreaker circuitBreaker
+    ) {
+        of(sequence);
+        this.address = address;
+        this.count = count;
+        this.copyAddress = copyAddress;
+        this.doneLatch = doneLatch;
+        this.circuitBreaker = circuitBreaker;
+        this.remaining = count;
+    }
+
+    void toTop() {
+        remaining = count;
+    }
+}
@@ -100,10 +100,10 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable, Plannable {
     }
 
     public Function getFilter(int filterId) {
-        if (filterId == -1) {
+        if (filterId == -1 || perWorkerFilters == null) {
+            // thread-safe filter is shared by all workers
             return filter;
         }
-        assert perWorkerFilters != null;
         return perWorkerFilters.getQuick(filterId);
     }
 
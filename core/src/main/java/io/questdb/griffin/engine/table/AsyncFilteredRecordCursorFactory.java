@@ -32,6 +32,7 @@ import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.sql.async.PageFrameReducer;
 import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.ZoneMapFilter;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
@@ -56,6 +57,7 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
     private final int maxNegativeLimit;
     private final AsyncFilteredNegativeLimitRecordCursor negativeLimitCursor;
     private final int workerCount;
+    private final ZoneMapFilter zoneMapFilter;
     private DirectLongList negativeLimitRows;
 
     public AsyncFilteredRecordCursorFactory(
@@ -68,7 +70,8 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
             @Nullable Function limitLoFunction,
             int limitLoPos,
             boolean preTouchColumns,
-            int workerCount
+            int workerCount,
+            @Nullable ZoneMapFilter zoneMapFilter
     ) {
         super(base.getMetadata());
         assert !(base instanceof AsyncFilteredRecordCursorFactory);
@@ -89,11 +92,12 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         this.limitLoPos = limitLoPos;
         this.maxNegativeLimit = configuration.getSqlMaxNegativeLimit();
         this.workerCount = workerCount;
+        this.zoneMapFilter = zoneMapFilter;
     }
 
     @Override
     public PageFrameSequence<AsyncFilterAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
-        return frameSequence.of(base, executionContext, collectSubSeq, filterAtom, order);
+        return frameSequence.of(base, executionContext, collectSubSeq, filterAtom, order, zoneMapFilter);
     }
 
     @Override
@@ -142,6 +146,10 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         return cursor;
     }
 
+    public AsyncFilterAtom getFilterAtom() {
+        return filterAtom;
+    }
+
     @Override
     public boolean hasDescendingOrder() {
         return base.hasDescendingOrder();
@@ -230,6 +238,7 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         Misc.free(base);
         Misc.free(filterAtom);
         Misc.free(frameSequence);
+        Misc.free(zoneMapFilter);
         Misc.free(negativeLimitRows);
         cursor.freeRecords();
         negativeLimitCursor.freeRecords();
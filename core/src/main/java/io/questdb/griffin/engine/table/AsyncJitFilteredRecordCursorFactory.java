@@ -33,6 +33,7 @@ import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.sql.async.PageFrameReducer;
 import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.cairo.sql.async.ZoneMapFilter;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCARW;
 import io.questdb.griffin.PlanSink;
@@ -61,6 +62,7 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
     private final int maxNegativeLimit;
     private final AsyncFilteredNegativeLimitRecordCursor negativeLimitCursor;
     private final int workerCount;
+    private final ZoneMapFilter zoneMapFilter;
     private DirectLongList negativeLimitRows;
 
     public AsyncJitFilteredRecordCursorFactory(
@@ -75,7 +77,8 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             @Nullable Function limitLoFunction,
             int limitLoPos,
             boolean preTouchColumns,
-            int workerCount
+            int workerCount,
+            @Nullable ZoneMapFilter zoneMapFilter
     ) {
         super(base.getMetadata());
         assert !(base instanceof FilteredRecordCursorFactory);
@@ -107,11 +110,12 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         this.limitLoPos = limitLoPos;
         this.maxNegativeLimit = configuration.getSqlMaxNegativeLimit();
         this.workerCount = workerCount;
+        this.zoneMapFilter = zoneMapFilter;
     }
 
     @Override
     public PageFrameSequence<AsyncJitFilterAtom> execute(SqlExecutionContext executionContext, SCSequence collectSubSeq, int order) throws SqlException {
-        return frameSequence.of(base, executionContext, collectSubSeq, filterAtom, order);
+        return frameSequence.of(base, executionContext, collectSubSeq, filterAtom, order, zoneMapFilter);
     }
 
     @Override
@@ -160,6 +164,10 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         return cursor;
     }
 
+    public AsyncJitFilterAtom getFilterAtom() {
+        return filterAtom;
+    }
+
     public boolean hasDescendingOrder() {
         return base.hasDescendingOrder();
     }
@@ -219,7 +227,6 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             @Nullable PageFrameSequence<?> stealingFrameSequence
     ) {
         final DirectLongList rows = task.getRows();
-        final DirectLongList columns = task.getColumns();
         final long frameRowCount = task.getFrameRowCount();
         final AsyncJitFilterAtom atom = task.getFrameSequence(AsyncJitFilterAtom.class).getAtom();
         final PageAddressCache pageAddressCache = task.getPageAddressCache();
@@ -245,31 +252,7 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         }
 
         // Use JIT-compiled filter.
-
-        final long columnCount = pageAddressCache.getColumnCount();
-        if (columns.getCapacity() < columnCount) {
-            columns.setCapacity(columnCount);
-        }
-        columns.clear();
-        for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
-            columns.add(pageAddressCache.getPageAddress(task.getFrameIndex(), columnIndex));
-        }
-
-        final long rowCount = task.getFrameRowCount();
-        if (rows.getCapacity() < rowCount) {
-            rows.setCapacity(rowCount);
-        }
-
-        long hi = atom.compiledFilter.call(
-                columns.getAddress(),
-                columns.size(),
-                atom.bindVarMemory.getAddress(),
-                atom.bindVarFunctions.size(),
-                rows.getAddress(),
-                rowCount,
-                0
-        );
-        rows.setPos(hi);
+        atom.filterFrame(task);
 
         // Pre-touch fixed-size columns, if asked.
         atom.preTouchColumns(record, rows);
@@ -280,12 +263,13 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         Misc.free(base);
         Misc.free(filterAtom);
         Misc.free(frameSequence);
+        Misc.free(zoneMapFilter);
         Misc.free(negativeLimitRows);
         cursor.freeRecords();
         negativeLimitCursor.freeRecords();
     }
 
-    private static class AsyncJitFilterAtom extends AsyncFilterAtom {
+    public static class AsyncJitFilterAtom extends AsyncFilterAtom {
 
         final ObjList<Function> bindVarFunctions;
         final MemoryCARW bindVarMemory;
@@ -314,6 +298,43 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             Misc.freeObjList(bindVarFunctions);
         }
 
+        /**
+         * Runs JIT-compiled filter over the task's page frame and stores indexes of
+         * the matching rows in the task's rows list. The frame must have no column tops.
+         *
+         * @param task task holding the page frame
+         */
+        public void filterFrame(PageFrameReduceTask task) {
+            final DirectLongList rows = task.getRows();
+            final DirectLongList columns = task.getColumns();
+            final PageAddressCache pageAddressCache = task.getPageAddressCache();
+
+            final long columnCount = pageAddressCache.getColumnCount();
+            if (columns.getCapacity() < columnCount) {
+                columns.setCapacity(columnCount);
+            }
+            columns.clear();
+            for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
+                columns.add(pageAddressCache.getPageAddress(task.getFrameIndex(), columnIndex));
+            }
+
+            final long rowCount = task.getFrameRowCount();
+            if (rows.getCapacity() < rowCount) {
+                rows.setCapacity(rowCount);
+            }
+
+            long hi = compiledFilter.call(
+                    columns.getAddress(),
+                    columns.size(),
+                    bindVarMemory.getAddress(),
+                    bindVarFunctions.size(),
+                    rows.getAddress(),
+                    rowCount,
+                    0
+            );
+            rows.setPos(hi);
+        }
+
         @Override
         public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
             super.init(symbolTableSource, executionContext);
@@ -26,6 +26,7 @@ package io.questdb.griffin.engine.table;
 
 import io.questdb.cairo.BitmapIndexReader;
 import io.questdb.cairo.TableReader;
+import io.questdb.cairo.ZoneMap;
 import io.questdb.cairo.sql.*;
 import io.questdb.cairo.vm.NullMemoryMR;
 import io.questdb.cairo.vm.api.MemoryR;
@@ -117,6 +118,11 @@ public class FwdTableReaderPageFrameCursor implements PageFrameCursor {
         return this;
     }
 
+    @Override
+    public boolean readZoneMap(int columnIndex, ZoneMap zoneMap) {
+        return reader.readZoneMap(frame.partitionIndex, columnIndexes.getQuick(columnIndex), frame.partitionLo, frame.partitionHi, zoneMap);
+    }
+
     @Override
     public long size() {
         return reader.size();
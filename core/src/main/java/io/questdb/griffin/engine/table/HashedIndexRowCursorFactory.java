@@ -0,0 +1,151 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.BitmapIndexReader;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableReader;
+import io.questdb.cairo.TableReaderSelectedColumnRecord;
+import io.questdb.cairo.TableUtils;
+import io.questdb.cairo.sql.DataFrame;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.RowCursor;
+import io.questdb.cairo.sql.RowCursorFactory;
+import io.questdb.cairo.vm.api.MemoryR;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.IntList;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Returns rows of a hash-indexed integer column that are equal to the given value. Index key
+ * is shared by all values hashed into the same bucket, so rows are re-checked against the column
+ * before the optional filter is applied.
+ */
+public class HashedIndexRowCursorFactory implements RowCursorFactory {
+    private final boolean cachedIndexReaderCursor;
+    private final int columnIndex;
+    private final HashedIndexRowCursor cursor = new HashedIndexRowCursor();
+    private final Function filter;
+    private final int indexDirection;
+    private final int indexKey;
+    private final TableReaderSelectedColumnRecord record;
+    private final int shl;
+    private final long value;
+    private TableReader reader;
+
+    public HashedIndexRowCursorFactory(
+            int columnIndex,
+            int columnType,
+            long value,
+            @Nullable Function filter,
+            boolean cachedIndexReaderCursor,
+            int indexDirection,
+            IntList columnIndexes
+    ) {
+        this.columnIndex = columnIndex;
+        this.shl = ColumnType.pow2SizeOf(columnType);
+        this.value = value;
+        this.indexKey = TableUtils.toIndexKey(columnType, value);
+        this.filter = filter;
+        this.cachedIndexReaderCursor = cachedIndexReaderCursor;
+        this.indexDirection = indexDirection;
+        this.record = new TableReaderSelectedColumnRecord(columnIndexes);
+    }
+
+    @Override
+    public RowCursor getCursor(DataFrame dataFrame) {
+        final int partitionIndex = dataFrame.getPartitionIndex();
+        final int columnBase = reader.getColumnBase(partitionIndex);
+        cursor.of(
+                dataFrame
+                        .getBitmapIndexReader(columnIndex, indexDirection)
+                        .getCursor(cachedIndexReaderCursor, indexKey, dataFrame.getRowLo(), dataFrame.getRowHi() - 1),
+                reader.getColumn(TableReader.getPrimaryColumnIndex(columnBase, columnIndex)),
+                reader.getColumnTop(columnBase, columnIndex)
+        );
+        record.jumpTo(partitionIndex, 0);
+        return cursor;
+    }
+
+    @Override
+    public boolean isEntity() {
+        return false;
+    }
+
+    @Override
+    public boolean isUsingIndex() {
+        return true;
+    }
+
+    @Override
+    public void prepareCursor(TableReader tableReader, SqlExecutionContext sqlExecutionContext) {
+        this.reader = tableReader;
+        this.record.of(tableReader);
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("Hashed index ").type(BitmapIndexReader.nameOf(indexDirection)).type(" scan").meta("on").putColumnName(columnIndex);
+        sink.attr("filter").putColumnName(columnIndex).val('=').val(value);
+        if (filter != null) {
+            sink.val(" and ").val(filter);
+        }
+    }
+
+    private class HashedIndexRowCursor implements RowCursor {
+        private long columnTop;
+        private MemoryR mem;
+        private RowCursor rowCursor;
+        private long rowid;
+
+        @Override
+        public boolean hasNext() {
+            while (rowCursor.hasNext()) {
+                final long rowid = rowCursor.next();
+                // rows before column top are nulls, they are never indexed under a value
+                if (rowid >= columnTop && TableUtils.readIndexedValue(mem, shl, (rowid - columnTop) << shl) == value) {
+                    record.setRecordIndex(rowid);
+                    if (filter == null || filter.getBool(record)) {
+                        this.rowid = rowid;
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public long next() {
+            return rowid;
+        }
+
+        private void of(RowCursor rowCursor, MemoryR mem, long columnTop) {
+            this.rowCursor = rowCursor;
+            this.mem = mem;
+            this.columnTop = columnTop;
+        }
+    }
+}
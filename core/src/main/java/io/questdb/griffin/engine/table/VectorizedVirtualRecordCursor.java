@@ -0,0 +1,213 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.engine.groupby.GroupByUtils;
+import io.questdb.std.*;
+
+/**
+ * Evaluates projection functions over page frames a batch of rows at a time
+ * and serves records from the resulting vectors.
+ */
+class VectorizedVirtualRecordCursor implements NoRandomAccessRecordCursor {
+    private static final int KIND_BOOL = 0;
+    private static final int KIND_DOUBLE = 1;
+    private static final int KIND_LONG = 2;
+    private final int batchSize;
+    private final ObjList<Function> functions;
+    private final IntList kinds;
+    private final VectorizedVirtualRecord record = new VectorizedVirtualRecord();
+    private final ObjList<DirectLongList> vectors;
+    private long batchRow;
+    private long batchRowCount;
+    private SqlExecutionCircuitBreaker circuitBreaker;
+    private PageFrame frame;
+    private PageFrameCursor pageFrameCursor;
+    private long frameRowCount;
+    private long frameRowLo;
+
+    VectorizedVirtualRecordCursor(ObjList<Function> functions, ObjList<DirectLongList> vectors, int batchSize) {
+        this.functions = functions;
+        this.vectors = vectors;
+        this.batchSize = batchSize;
+        this.kinds = new IntList(functions.size());
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            switch (ColumnType.tagOf(functions.getQuick(i).getType())) {
+                case ColumnType.BOOLEAN:
+                    kinds.add(KIND_BOOL);
+                    break;
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                    kinds.add(KIND_DOUBLE);
+                    break;
+                default:
+                    kinds.add(KIND_LONG);
+                    break;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        pageFrameCursor = Misc.free(pageFrameCursor);
+        frame = null;
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (++batchRow < batchRowCount) {
+            return true;
+        }
+        return nextBatch();
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        pageFrameCursor.toTop();
+        GroupByUtils.toTop(functions);
+        resetBatch();
+    }
+
+    void of(PageFrameCursor pageFrameCursor, SqlExecutionCircuitBreaker circuitBreaker) {
+        this.pageFrameCursor = pageFrameCursor;
+        this.circuitBreaker = circuitBreaker;
+        resetBatch();
+    }
+
+    private boolean nextBatch() {
+        while (frame == null || frameRowLo >= frameRowCount) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            frame = pageFrameCursor.next();
+            if (frame == null) {
+                return false;
+            }
+            frameRowLo = 0;
+            frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+        }
+
+        final long rowHi = Math.min(frameRowLo + batchSize, frameRowCount);
+        for (int i = 0, n = functions.size(); i < n; i++) {
+            final Function function = functions.getQuick(i);
+            final long address = vectors.getQuick(i).getAddress();
+            switch (kinds.getQuick(i)) {
+                case KIND_BOOL:
+                    function.getBoolVector(frame, frameRowLo, rowHi, address);
+                    break;
+                case KIND_DOUBLE:
+                    function.getDoubleVector(frame, frameRowLo, rowHi, address);
+                    break;
+                default:
+                    function.getLongVector(frame, frameRowLo, rowHi, address);
+                    break;
+            }
+        }
+        batchRowCount = rowHi - frameRowLo;
+        batchRow = 0;
+        frameRowLo = rowHi;
+        return true;
+    }
+
+    private void resetBatch() {
+        frame = null;
+        frameRowLo = 0;
+        frameRowCount = 0;
+        batchRow = -1;
+        batchRowCount = 0;
+    }
+
+    private class VectorizedVirtualRecord implements Record {
+
+        @Override
+        public boolean getBool(int col) {
+            return Unsafe.getUnsafe().getByte(vectors.getQuick(col).getAddress() + batchRow) == 1;
+        }
+
+        @Override
+        public byte getByte(int col) {
+            return (byte) getLong(col);
+        }
+
+        @Override
+        public long getDate(int col) {
+            return getLong(col);
+        }
+
+        @Override
+        public double getDouble(int col) {
+            if (kinds.getQuick(col) == KIND_DOUBLE) {
+                return Unsafe.getUnsafe().getDouble(address(col));
+            }
+            final long value = getLong(col);
+            return value != Numbers.LONG_NaN ? value : Double.NaN;
+        }
+
+        @Override
+        public float getFloat(int col) {
+            if (kinds.getQuick(col) == KIND_DOUBLE) {
+                return (float) Unsafe.getUnsafe().getDouble(address(col));
+            }
+            final long value = getLong(col);
+            return value != Numbers.LONG_NaN ? value : Float.NaN;
+        }
+
+        @Override
+        public int getInt(int col) {
+            final long value = getLong(col);
+            return value != Numbers.LONG_NaN ? (int) value : Numbers.INT_NaN;
+        }
+
+        @Override
+        public long getLong(int col) {
+            return Unsafe.getUnsafe().getLong(address(col));
+        }
+
+        @Override
+        public short getShort(int col) {
+            return (short) getLong(col);
+        }
+
+        @Override
+        public long getTimestamp(int col) {
+            return getLong(col);
+        }
+
+        private long address(int col) {
+            return vectors.getQuick(col).getAddress() + (batchRow << 3);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+/**
+ * Projection over page frames that evaluates all functions a batch of rows at a time,
+ * see {@link Function#isVectorized()}. Used instead of {@link VirtualRecordCursorFactory}
+ * when every projected function supports batch evaluation.
+ * <p>
+ * Records are served from per-batch vectors, so the cursor supports neither random access
+ * nor a record B. That's why the factory is only used when vectorized functions are
+ * enabled explicitly, see {@link io.questdb.cairo.CairoConfiguration#isSqlVectorizedFunctionsEnabled()}.
+ */
+public class VectorizedVirtualRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory baseFactory;
+    private final VectorizedVirtualRecordCursor cursor;
+    private final ObjList<Function> functions;
+    private final ObjList<DirectLongList> vectors;
+
+    public VectorizedVirtualRecordCursorFactory(
+            RecordMetadata metadata,
+            ObjList<Function> functions,
+            RecordCursorFactory baseFactory,
+            int batchSize
+    ) {
+        super(metadata);
+        this.functions = functions;
+        this.baseFactory = baseFactory;
+        final int functionCount = functions.size();
+        this.vectors = new ObjList<>(functionCount);
+        try {
+            for (int i = 0; i < functionCount; i++) {
+                vectors.add(new DirectLongList(batchSize, MemoryTag.NATIVE_FUNC_RSS));
+            }
+        } catch (Throwable th) {
+            Misc.freeObjList(vectors);
+            throw th;
+        }
+        this.cursor = new VectorizedVirtualRecordCursor(functions, vectors, batchSize);
+    }
+
+    @Override
+    public RecordCursorFactory getBaseFactory() {
+        return baseFactory;
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        final PageFrameCursor pageFrameCursor = baseFactory.getPageFrameCursor(executionContext, ORDER_ASC);
+        try {
+            Function.init(functions, pageFrameCursor, executionContext);
+            cursor.of(pageFrameCursor, executionContext.getCircuitBreaker());
+            return cursor;
+        } catch (Throwable th) {
+            Misc.free(pageFrameCursor);
+            throw th;
+        }
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return false;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("VirtualRecord");
+        sink.meta("vectorized").val(true);
+        sink.optAttr("functions", functions, true);
+        sink.child(baseFactory);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return baseFactory.usesCompiledFilter();
+    }
+
+    @Override
+    protected void _close() {
+        Misc.freeObjList(functions);
+        Misc.freeObjList(vectors);
+        Misc.free(baseFactory);
+    }
+}
@@ -29,10 +29,24 @@ import io.questdb.std.ObjList;
 import io.questdb.std.ObjectFactory;
 
 public final class AnalyticColumn extends QueryColumn {
+    public static final int CURRENT = 3;
     public final static ObjectFactory<AnalyticColumn> FACTORY = AnalyticColumn::new;
+    public static final int FOLLOWING = 2;
+    public static final int FRAMING_RANGE = 2;
+    public static final int FRAMING_ROWS = 1;
+    public static final int PRECEDING = 1;
     private final ObjList<ExpressionNode> orderBy = new ObjList<>(2);
     private final IntList orderByDirection = new IntList(2);
     private final ObjList<ExpressionNode> partitionBy = new ObjList<>(2);
+    private int framingMode = FRAMING_RANGE;
+    private ExpressionNode rowsHiExpr;
+    private char rowsHiExprTimeUnit;
+    private int rowsHiKind = CURRENT;
+    private int rowsHiKindPos;
+    private ExpressionNode rowsLoExpr;
+    private char rowsLoExprTimeUnit;
+    private int rowsLoKind = PRECEDING;
+    private int rowsLoKindPos;
 
     private AnalyticColumn() {
     }
@@ -48,6 +62,19 @@ public final class AnalyticColumn extends QueryColumn {
         partitionBy.clear();
         orderBy.clear();
         orderByDirection.clear();
+        framingMode = FRAMING_RANGE;
+        rowsLoExpr = null;
+        rowsLoExprTimeUnit = 0;
+        rowsLoKind = PRECEDING;
+        rowsLoKindPos = 0;
+        rowsHiExpr = null;
+        rowsHiExprTimeUnit = 0;
+        rowsHiKind = CURRENT;
+        rowsHiKindPos = 0;
+    }
+
+    public int getFramingMode() {
+        return framingMode;
     }
 
     public ObjList<ExpressionNode> getOrderBy() {
@@ -62,8 +89,66 @@ public final class AnalyticColumn extends QueryColumn {
         return partitionBy;
     }
 
+    public ExpressionNode getRowsHiExpr() {
+        return rowsHiExpr;
+    }
+
+    public char getRowsHiExprTimeUnit() {
+        return rowsHiExprTimeUnit;
+    }
+
+    public int getRowsHiKind() {
+        return rowsHiKind;
+    }
+
+    public int getRowsHiKindPos() {
+        return rowsHiKindPos;
+    }
+
+    public ExpressionNode getRowsLoExpr() {
+        return rowsLoExpr;
+    }
+
+    public char getRowsLoExprTimeUnit() {
+        return rowsLoExprTimeUnit;
+    }
+
+    public int getRowsLoKind() {
+        return rowsLoKind;
+    }
+
+    public int getRowsLoKindPos() {
+        return rowsLoKindPos;
+    }
+
+    /**
+     * @return true when the column has no explicit frame clause or the clause matches the SQL default,
+     * i.e. RANGE BETWEEN UNBOUNDED PRECEDING AND CURRENT ROW
+     */
+    public boolean isDefaultFrame() {
+        return framingMode == FRAMING_RANGE && rowsLoExpr == null && rowsLoKind == PRECEDING && rowsHiKind == CURRENT;
+    }
+
     @Override
     public AnalyticColumn of(CharSequence alias, ExpressionNode ast) {
         return (AnalyticColumn) super.of(alias, ast);
     }
+
+    public void setFramingMode(int framingMode) {
+        this.framingMode = framingMode;
+    }
+
+    public void setRowsHi(ExpressionNode rowsHiExpr, char timeUnit, int rowsHiKind, int rowsHiKindPos) {
+        this.rowsHiExpr = rowsHiExpr;
+        this.rowsHiExprTimeUnit = timeUnit;
+        this.rowsHiKind = rowsHiKind;
+        this.rowsHiKindPos = rowsHiKindPos;
+    }
+
+    public void setRowsLo(ExpressionNode rowsLoExpr, char timeUnit, int rowsLoKind, int rowsLoKindPos) {
+        this.rowsLoExpr = rowsLoExpr;
+        this.rowsLoExprTimeUnit = timeUnit;
+        this.rowsLoKind = rowsLoKind;
+        this.rowsLoKindPos = rowsLoKindPos;
+    }
 }
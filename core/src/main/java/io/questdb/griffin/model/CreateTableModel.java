@@ -35,12 +35,18 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
     public static final ObjectFactory<CreateTableModel> FACTORY = CreateTableModel::new;
     private static final int COLUMN_FLAG_CACHED = 1;
     private static final int COLUMN_FLAG_INDEXED = 2;
+    private static final int COLUMN_FLAG_DEDUP_KEY = 4;
     private final LongList columnBits = new LongList();
     private final CharSequenceObjHashMap<ColumnCastModel> columnCastModels = new CharSequenceObjHashMap<>();
     private final LowerCaseCharSequenceIntHashMap columnNameIndexMap = new LowerCaseCharSequenceIntHashMap();
     private final ObjList<CharSequence> columnNames = new ObjList<>();
     private boolean ignoreIfExists = false;
     private ExpressionNode likeTableName;
+    private ExpressionNode matViewBaseTable;
+    private int matViewBaseTableHi;
+    private int matViewBaseTableLo;
+    private ExpressionNode matViewSampleBy;
+    private CharSequence matViewSql;
     private int maxUncommittedRows;
     private ExpressionNode name;
     private long o3MaxLag;
@@ -95,6 +101,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         columnNames.clear();
         columnNameIndexMap.clear();
         ignoreIfExists = false;
+        matViewBaseTable = null;
+        matViewBaseTableLo = 0;
+        matViewBaseTableHi = 0;
+        matViewSampleBy = null;
+        matViewSql = null;
     }
 
     public CharSequenceObjHashMap<ColumnCastModel> getColumnCastModels() {
@@ -129,6 +140,26 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return likeTableName;
     }
 
+    public ExpressionNode getMatViewBaseTable() {
+        return matViewBaseTable;
+    }
+
+    public int getMatViewBaseTableHi() {
+        return matViewBaseTableHi;
+    }
+
+    public int getMatViewBaseTableLo() {
+        return matViewBaseTableLo;
+    }
+
+    public ExpressionNode getMatViewSampleBy() {
+        return matViewSampleBy;
+    }
+
+    public CharSequence getMatViewSql() {
+        return matViewSql;
+    }
+
     @Override
     public int getMaxUncommittedRows() {
         return maxUncommittedRows;
@@ -183,6 +214,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return timestamp == null ? -1 : getColumnIndex(timestamp.token);
     }
 
+    @Override
+    public boolean isDedupKey(int index) {
+        return (getLowAt(index * 2 + 1) & COLUMN_FLAG_DEDUP_KEY) != 0;
+    }
+
     public boolean isIgnoreIfExists() {
         return ignoreIfExists;
     }
@@ -192,6 +228,10 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return (getLowAt(index * 2 + 1) & COLUMN_FLAG_INDEXED) != 0;
     }
 
+    public boolean isMatView() {
+        return matViewSql != null;
+    }
+
     @Override
     public boolean isSequential(int columnIndex) {
         // todo: expose this flag on CREATE TABLE statement
@@ -203,6 +243,11 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         return walEnabled;
     }
 
+    public void setDedupKeyFlag(int columnIndex) {
+        final int index = columnIndex * 2 + 1;
+        columnBits.setQuick(index, Numbers.encodeLowHighInts(getLowAt(index) | COLUMN_FLAG_DEDUP_KEY, getHighAt(index)));
+    }
+
     public void setIgnoreIfExists(boolean flag) {
         this.ignoreIfExists = flag;
     }
@@ -219,6 +264,23 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         this.likeTableName = tableName;
     }
 
+    /**
+     * Marks this model as materialized view definition.
+     *
+     * @param sql         text of the view query, kept to be re-run against ranges of the base table
+     * @param baseTable   the table view aggregates
+     * @param baseTableLo offset of base table name in the query text, inclusive
+     * @param baseTableHi offset of base table name in the query text, exclusive
+     * @param sampleBy    SAMPLE BY interval of the query
+     */
+    public void setMatView(CharSequence sql, ExpressionNode baseTable, int baseTableLo, int baseTableHi, ExpressionNode sampleBy) {
+        this.matViewSql = sql;
+        this.matViewBaseTable = baseTable;
+        this.matViewBaseTableLo = baseTableLo;
+        this.matViewBaseTableHi = baseTableHi;
+        this.matViewSampleBy = sampleBy;
+    }
+
     public void setMaxUncommittedRows(int maxUncommittedRows) {
         this.maxUncommittedRows = maxUncommittedRows;
     }
@@ -257,7 +319,7 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
 
     @Override
     public void toSink(CharSink sink) {
-        sink.put("create table ");
+        sink.put(isMatView() ? "create materialized view " : "create table ");
         sink.put(getName().token);
         if (getQueryModel() != null) {
             sink.put(" as (");
@@ -342,6 +404,18 @@ public class CreateTableModel implements Mutable, ExecutionModel, Sinkable, Tabl
         if (partitionBy != null) {
             sink.put(" partition by ").put(partitionBy.token);
         }
+
+        boolean dedup = false;
+        for (int i = 0, n = getColumnCount(); i < n; i++) {
+            if (isDedupKey(i)) {
+                sink.put(dedup ? ", " : " dedup upsert keys(");
+                sink.put(getColumnName(i));
+                dedup = true;
+            }
+        }
+        if (dedup) {
+            sink.put(')');
+        }
     }
 
     private int getHighAt(int index) {
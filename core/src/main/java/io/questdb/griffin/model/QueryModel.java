@@ -1182,6 +1182,41 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
         return modelTypeName.get(selectModelType);
     }
 
+    private static void frameBoundToSink(CharSink sink, ExpressionNode expr, char timeUnit, int kind) {
+        if (kind == AnalyticColumn.CURRENT) {
+            sink.put("current row");
+            return;
+        }
+        if (expr == null) {
+            sink.put("unbounded");
+        } else {
+            expr.toSink(sink);
+            switch (timeUnit) {
+                case 'U':
+                    sink.put(" microseconds");
+                    break;
+                case 'T':
+                    sink.put(" milliseconds");
+                    break;
+                case 's':
+                    sink.put(" second");
+                    break;
+                case 'm':
+                    sink.put(" minute");
+                    break;
+                case 'h':
+                    sink.put(" hour");
+                    break;
+                case 'd':
+                    sink.put(" day");
+                    break;
+                default:
+                    break;
+            }
+        }
+        sink.put(kind == AnalyticColumn.PRECEDING ? " preceding" : " following");
+    }
+
     private void sinkColumns(CharSink sink, ObjList<QueryColumn> columns) {
         for (int i = 0, n = columns.size(); i < n; i++) {
             if (i > 0) {
@@ -1229,6 +1264,16 @@ public class QueryModel implements Mutable, ExecutionModel, AliasTranslator, Sin
                             }
                         }
                     }
+
+                    if (!ac.isDefaultFrame()) {
+                        if (partitionBy.size() > 0 || orderBy.size() > 0) {
+                            sink.put(' ');
+                        }
+                        sink.put(ac.getFramingMode() == AnalyticColumn.FRAMING_ROWS ? "rows between " : "range between ");
+                        frameBoundToSink(sink, ac.getRowsLoExpr(), ac.getRowsLoExprTimeUnit(), ac.getRowsLoKind());
+                        sink.put(" and ");
+                        frameBoundToSink(sink, ac.getRowsHiExpr(), ac.getRowsHiExprTimeUnit(), ac.getRowsHiKind());
+                    }
                     sink.put(')');
                 }
             } else {
@@ -34,6 +34,7 @@ import io.questdb.griffin.engine.functions.bind.NamedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.constants.ConstantFunction;
 import io.questdb.griffin.engine.functions.constants.SymbolConstant;
 import io.questdb.griffin.model.ExpressionNode;
+import io.questdb.griffin.model.QueryColumn;
 import io.questdb.std.*;
 
 import java.util.Arrays;
@@ -52,6 +53,9 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
 
     static final int ADD = 14;  // a + b
     static final int AND = 6;   // a && b
+    static final int AVG = 21;  // avg(a)
+    // Aggregates, used by non-keyed GROUP BY only
+    static final int COUNT = 22; // count()
     static final int DIV = 17;  // a / b
     static final int EQ = 8;   // a == b
     static final int F4_TYPE = 3;
@@ -68,8 +72,10 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     static final int IMM = 1;
     static final int LE = 11;  // a <= b
     static final int LT = 10;  // a <  b
+    static final int MAX = 20;  // max(a)
     // Columns
     static final int MEM = 2;
+    static final int MIN = 19;  // min(a)
     static final int MUL = 16;  // a * b
     static final int NE = 9;   // a != b
     // Operator codes
@@ -80,6 +86,7 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     // Return code. Breaks the loop
     static final int RET = 0; // ret
     static final int SUB = 15;  // a - b
+    static final int SUM = 18;  // sum(a)
     // Stub value for opcodes and options
     static final int UNDEFINED_CODE = -1;
     // Bind variables and deferred symbols
@@ -146,6 +153,38 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return this;
     }
 
+    /**
+     * Writes IR of the aggregate functions of a non-keyed GROUP BY to memory.
+     * Each aggregate is written as its argument expression followed by the aggregate
+     * opcode, e.g. sum(a * 2) becomes "IMM 2, MEM a, MUL, SUM". count() has no argument.
+     * Aggregates follow the order of the given columns and are terminated with a single RET.
+     * <p>
+     * Only arithmetic expressions over byte, short, int, long and double columns and numeric
+     * constants are supported. Bind variables, nulls and function calls are rejected.
+     *
+     * @param columns select columns of the GROUP BY model
+     * @throws SqlException thrown when any of the columns can't be serialized.
+     */
+    public void serializeAggregates(ObjList<QueryColumn> columns) throws SqlException {
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            final ExpressionNode node = columns.getQuick(i).getAst();
+            final int opcode = node.type == ExpressionNode.FUNCTION ? aggregateOpcode(node.token) : UNDEFINED_CODE;
+            if (opcode == COUNT && (node.paramCount == 0 || (node.paramCount == 1 && node.rhs.type == ExpressionNode.CONSTANT))) {
+                // count(1) counts all rows, just like count()
+                putOperator(COUNT);
+                continue;
+            }
+            if (opcode == UNDEFINED_CODE || opcode == COUNT || node.paramCount != 1) {
+                throw SqlException.position(node.position)
+                        .put("unsupported aggregate: ")
+                        .put(node.token);
+            }
+            serializeAggregateArg(node.rhs);
+            putOperator(opcode);
+        }
+        putOperator(RET);
+    }
+
     /**
      * Writes IR of the filter described by the given expression tree to memory.
      *
@@ -235,6 +274,25 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         }
     }
 
+    private static int aggregateOpcode(CharSequence token) {
+        if (Chars.equalsLowerCaseAscii(token, "sum")) {
+            return SUM;
+        }
+        if (Chars.equalsLowerCaseAscii(token, "min")) {
+            return MIN;
+        }
+        if (Chars.equalsLowerCaseAscii(token, "max")) {
+            return MAX;
+        }
+        if (Chars.equalsLowerCaseAscii(token, "avg")) {
+            return AVG;
+        }
+        if (SqlKeywords.isCountKeyword(token)) {
+            return COUNT;
+        }
+        return UNDEFINED_CODE;
+    }
+
     private static byte bindVariableTypeCode(int columnTypeTag) {
         switch (columnTypeTag) {
             case ColumnType.BOOLEAN:
@@ -494,6 +552,70 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         memory.putLong(0L);
     }
 
+    private void serializeAggregateArg(final ExpressionNode node) throws SqlException {
+        switch (node.type) {
+            case ExpressionNode.LITERAL:
+                serializeAggregateColumn(node);
+                break;
+            case ExpressionNode.CONSTANT:
+                serializeAggregateConstant(node.position, node.token, false);
+                break;
+            case ExpressionNode.OPERATION:
+                if (node.paramCount == 1 && Chars.equals(node.token, "-")) {
+                    final ExpressionNode argNode = node.rhs != null ? node.rhs : node.lhs;
+                    if (argNode.type == ExpressionNode.CONSTANT) {
+                        serializeAggregateConstant(argNode.position, argNode.token, true);
+                    } else {
+                        serializeAggregateArg(argNode);
+                        putOperator(NEG);
+                    }
+                    break;
+                }
+                if (node.paramCount == 2 && isArithmeticOperation(node)) {
+                    // same order as in post-order traversal used for filters
+                    serializeAggregateArg(node.rhs);
+                    serializeAggregateArg(node.lhs);
+                    serializeOperator(node.position, node.token, 2);
+                    break;
+                }
+                // fall through
+            default:
+                throw SqlException.position(node.position)
+                        .put("unsupported token in aggregate: ")
+                        .put(node.token);
+        }
+    }
+
+    private void serializeAggregateColumn(final ExpressionNode node) throws SqlException {
+        final int index = metadata.getColumnIndexQuiet(node.token);
+        if (index == -1) {
+            throw SqlException.invalidColumn(node.position, node.token);
+        }
+        final int columnTypeTag = ColumnType.tagOf(metadata.getColumnType(index));
+        switch (columnTypeTag) {
+            case ColumnType.BYTE:
+            case ColumnType.SHORT:
+            case ColumnType.INT:
+            case ColumnType.LONG:
+            case ColumnType.DOUBLE:
+                putOperand(MEM, columnTypeCode(columnTypeTag), index);
+                break;
+            default:
+                throw SqlException.position(node.position)
+                        .put("unsupported column type in aggregate: ")
+                        .put(ColumnType.nameOf(columnTypeTag));
+        }
+    }
+
+    private void serializeAggregateConstant(int position, final CharSequence token, boolean negated) throws SqlException {
+        if (SqlKeywords.isNullKeyword(token)) {
+            throw SqlException.position(position).put("null constant in aggregate");
+        }
+        final long offset = memory.getAppendOffset();
+        putOperand(UNDEFINED_CODE, UNDEFINED_CODE, 0);
+        serializeUntypedNumber(offset, position, token, negated);
+    }
+
     private void serializeBindVariable(final ExpressionNode node) throws SqlException {
         if (!predicateContext.isActive()) {
             throw SqlException.position(node.position)
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.jit;
+
+import io.questdb.cairo.map.MapValue;
+
+/**
+ * Aggregation loop of a non-keyed GROUP BY compiled by {@link GroupByCompiler}.
+ * Implementations are stateless, so a single instance may be called by all workers.
+ * <p>
+ * Both methods aggregate rows of a single page frame into the given value. The value
+ * is overwritten with the partial result which uses the same layout as the group by
+ * functions the loop was compiled for, so that it can be merged with
+ * {@link io.questdb.griffin.engine.functions.GroupByFunction#merge(MapValue, MapValue)}.
+ */
+public interface CompiledGroupBy {
+
+    /**
+     * Aggregates all rows of a page frame.
+     *
+     * @param columnsAddress address of the list of frame column addresses
+     * @param rowCount       number of rows in the frame
+     * @param value          value to write the partial result to
+     */
+    void aggregate(long columnsAddress, long rowCount, MapValue value);
+
+    /**
+     * Aggregates the given rows of a page frame, e.g. rows selected by a compiled filter.
+     *
+     * @param columnsAddress address of the list of frame column addresses
+     * @param rowsAddress    address of the list of frame-relative row indexes
+     * @param rowCount       number of row indexes in the list
+     * @param value          value to write the partial result to
+     */
+    void aggregateRows(long columnsAddress, long rowsAddress, long rowCount, MapValue value);
+}
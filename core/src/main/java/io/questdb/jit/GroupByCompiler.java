@@ -0,0 +1,929 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.jit;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.griffin.engine.functions.groupby.*;
+import io.questdb.std.*;
+
+import static io.questdb.jit.CompiledFilterIRSerializer.*;
+
+/**
+ * Compiles the aggregation loop of a non-keyed GROUP BY. The input is the IR written by
+ * {@link CompiledFilterIRSerializer#serializeAggregates(ObjList)}, the output is a
+ * {@link CompiledGroupBy} that evaluates all aggregates in a single pass over the rows
+ * of a page frame, keeping the partial results in local variables.
+ * <p>
+ * The loop is generated as JVM bytecode, so that it is compiled to machine code by the JVM.
+ * Column values are read directly from the frame memory. Arithmetic follows the SQL functions,
+ * i.e. int and long operations return null when any of the operands is null and division
+ * by zero returns null. The generated code is roughly the following:
+ * <pre>
+ * double sum0 = 0; long count0 = 0; long min1 = Numbers.LONG_NaN;
+ * for (long i = 0; i &lt; rowCount; i++) {
+ *     double v = getDouble(col0 + (row(i) &lt;&lt; 3)) * 2.0;
+ *     sum0 = sumDouble(sum0, v);
+ *     count0 += countDouble(v);
+ *     min1 = minLong(min1, getLong(col1 + (row(i) &lt;&lt; 3)));
+ * }
+ * value.putDouble(0, sum0); value.putLong(1, count0); value.putLong(2, min1);
+ * </pre>
+ * Only functions with a known value layout are supported, the compiled code writes
+ * partial results in the same layout, so that they can be merged by the functions.
+ */
+public class GroupByCompiler implements Mutable {
+    private static final int INSTRUCTION_SIZE = 2 * Integer.BYTES + Long.BYTES;
+    private final ObjList<IRNode> aggregates = new ObjList<>();
+    private final IntIntHashMap columnOrdinals = new IntIntHashMap();
+    private final IntList columns = new IntList();
+    private final ObjectPool<IRNode> nodePool = new ObjectPool<>(IRNode::new, 16);
+    private final ObjList<IRNode> stack = new ObjList<>();
+    private int accumulatorSlots;
+    private int doubleNaNIndex;
+    private int getLongIndex;
+    private int intNaNIndex;
+    private int longNaNIndex;
+    private int putDoubleIndex;
+    private int putIntIndex;
+    private int putLongIndex;
+    private int unsafeClassIndex;
+
+    public static int addInt(int l, int r) {
+        return l == Numbers.INT_NaN || r == Numbers.INT_NaN ? Numbers.INT_NaN : l + r;
+    }
+
+    public static long addLong(long l, long r) {
+        return l == Numbers.LONG_NaN || r == Numbers.LONG_NaN ? Numbers.LONG_NaN : l + r;
+    }
+
+    public static long countDouble(double value) {
+        return Numbers.isFinite(value) ? 1 : 0;
+    }
+
+    public static long countInt(int value) {
+        return value != Numbers.INT_NaN ? 1 : 0;
+    }
+
+    public static long countLong(long value) {
+        return value != Numbers.LONG_NaN ? 1 : 0;
+    }
+
+    public static int divInt(int l, int r) {
+        return l == Numbers.INT_NaN || r == Numbers.INT_NaN || r == 0 ? Numbers.INT_NaN : l / r;
+    }
+
+    public static long divLong(long l, long r) {
+        return l == Numbers.LONG_NaN || r == Numbers.LONG_NaN || r == 0 ? Numbers.LONG_NaN : l / r;
+    }
+
+    public static double maxDouble(double max, double value) {
+        return value > max || Double.isNaN(max) ? value : max;
+    }
+
+    public static int maxInt(int max, int value) {
+        return Math.max(value, max);
+    }
+
+    public static long maxLong(long max, long value) {
+        return Math.max(value, max);
+    }
+
+    public static double minDouble(double min, double value) {
+        return value < min || Double.isNaN(min) ? value : min;
+    }
+
+    public static int minInt(int min, int value) {
+        return value != Numbers.INT_NaN && (value < min || min == Numbers.INT_NaN) ? value : min;
+    }
+
+    public static long minLong(long min, long value) {
+        return value != Numbers.LONG_NaN && (value < min || min == Numbers.LONG_NaN) ? value : min;
+    }
+
+    public static int mulInt(int l, int r) {
+        return l == Numbers.INT_NaN || r == Numbers.INT_NaN ? Numbers.INT_NaN : l * r;
+    }
+
+    public static long mulLong(long l, long r) {
+        return l == Numbers.LONG_NaN || r == Numbers.LONG_NaN ? Numbers.LONG_NaN : l * r;
+    }
+
+    public static int subInt(int l, int r) {
+        return l == Numbers.INT_NaN || r == Numbers.INT_NaN ? Numbers.INT_NaN : l - r;
+    }
+
+    public static long subLong(long l, long r) {
+        return l == Numbers.LONG_NaN || r == Numbers.LONG_NaN ? Numbers.LONG_NaN : l - r;
+    }
+
+    public static double sumDouble(double sum, double value) {
+        return Numbers.isFinite(value) ? sum + value : sum;
+    }
+
+    public static long sumInt(long sum, int value) {
+        return value != Numbers.INT_NaN ? sum + value : sum;
+    }
+
+    public static long sumLong(long sum, long value) {
+        return value != Numbers.LONG_NaN ? sum + value : sum;
+    }
+
+    @Override
+    public void clear() {
+        aggregates.clear();
+        columnOrdinals.clear();
+        columns.clear();
+        nodePool.clear();
+        stack.clear();
+        accumulatorSlots = 0;
+    }
+
+    /**
+     * Compiles the aggregation loop for the given group by functions.
+     *
+     * @param asm              bytecode assembler
+     * @param ir               aggregates IR, one aggregate per group by function
+     * @param groupByFunctions group by functions with their value indexes already assigned
+     * @return stateless compiled aggregation loop
+     * @throws SqlException when the IR can't be compiled or doesn't match the functions
+     */
+    public CompiledGroupBy compile(
+            BytecodeAssembler asm,
+            MemoryCARW ir,
+            ObjList<GroupByFunction> groupByFunctions
+    ) throws SqlException {
+        clear();
+        decode(ir);
+        bind(groupByFunctions);
+
+        asm.init(CompiledGroupBy.class);
+        asm.setupPool();
+        final int thisClassIndex = asm.poolClass(asm.poolUtf8("io/questdb/jit/CompiledGroupByAsm"));
+        final int interfaceClassIndex = asm.poolClass(CompiledGroupBy.class);
+        final int mapValueClassIndex = asm.poolClass(MapValue.class);
+        unsafeClassIndex = asm.poolClass(sun.misc.Unsafe.class);
+        final int stackMapTableIndex = asm.poolUtf8("StackMapTable");
+        final int aggregateNameIndex = asm.poolUtf8("aggregate");
+        final int aggregateSigIndex = asm.poolUtf8("(JJLio/questdb/cairo/map/MapValue;)V");
+        final int aggregateRowsNameIndex = asm.poolUtf8("aggregateRows");
+        final int aggregateRowsSigIndex = asm.poolUtf8("(JJJLio/questdb/cairo/map/MapValue;)V");
+        final int getUnsafeIndex = asm.poolMethod(Unsafe.class, "getUnsafe", "()Lsun/misc/Unsafe;");
+        getLongIndex = asm.poolMethod(unsafeClassIndex, "getLong", "(J)J");
+        putDoubleIndex = asm.poolInterfaceMethod(mapValueClassIndex, "putDouble", "(ID)V");
+        putIntIndex = asm.poolInterfaceMethod(mapValueClassIndex, "putInt", "(II)V");
+        putLongIndex = asm.poolInterfaceMethod(mapValueClassIndex, "putLong", "(IJ)V");
+        doubleNaNIndex = asm.poolDoubleConst(Double.NaN);
+        longNaNIndex = asm.poolLongConst(Numbers.LONG_NaN);
+        asm.poolIntConst(Numbers.INT_NaN);
+        intNaNIndex = asm.getPoolCount() - 1;
+        for (int i = 0, n = aggregates.size(); i < n; i++) {
+            prepareAggregate(asm, aggregates.getQuick(i));
+        }
+        asm.finishPool();
+
+        asm.defineClass(thisClassIndex);
+        asm.interfaceCount(1);
+        asm.putShort(interfaceClassIndex);
+        asm.fieldCount(0);
+        asm.methodCount(3);
+        asm.defineDefaultConstructor();
+        generateLoop(asm, aggregateNameIndex, aggregateSigIndex, false, getUnsafeIndex, thisClassIndex, mapValueClassIndex, stackMapTableIndex);
+        generateLoop(asm, aggregateRowsNameIndex, aggregateRowsSigIndex, true, getUnsafeIndex, thisClassIndex, mapValueClassIndex, stackMapTableIndex);
+        // class attribute count
+        asm.putShort(0);
+        return asm.newInstance();
+    }
+
+    private static int arithmeticType(int lhsType, int rhsType) {
+        if (lhsType == ColumnType.DOUBLE || rhsType == ColumnType.DOUBLE) {
+            return ColumnType.DOUBLE;
+        }
+        if (lhsType == ColumnType.LONG || rhsType == ColumnType.LONG) {
+            return ColumnType.LONG;
+        }
+        return ColumnType.INT;
+    }
+
+    private static Class<?> functionClass(int opcode, int type) {
+        switch (opcode) {
+            case SUM:
+                return type == ColumnType.DOUBLE ? SumDoubleGroupByFunction.class
+                        : type == ColumnType.LONG ? SumLongGroupByFunction.class : SumIntGroupByFunction.class;
+            case AVG:
+                return AvgDoubleGroupByFunction.class;
+            case MIN:
+                return type == ColumnType.DOUBLE ? MinDoubleGroupByFunction.class
+                        : type == ColumnType.LONG ? MinLongGroupByFunction.class : MinIntGroupByFunction.class;
+            case MAX:
+                return type == ColumnType.DOUBLE ? MaxDoubleGroupByFunction.class
+                        : type == ColumnType.LONG ? MaxLongGroupByFunction.class : MaxIntGroupByFunction.class;
+            default:
+                return CountLongGroupByFunction.class;
+        }
+    }
+
+    private static boolean isAggregate(int opcode) {
+        return opcode == SUM || opcode == AVG || opcode == MIN || opcode == MAX || opcode == COUNT;
+    }
+
+    private static void load(BytecodeAssembler asm, int type, int local) {
+        switch (type) {
+            case ColumnType.DOUBLE:
+                asm.dload(local);
+                break;
+            case ColumnType.LONG:
+                asm.lload(local);
+                break;
+            default:
+                asm.iload(local);
+                break;
+        }
+    }
+
+    private static String nameOf(int type) {
+        switch (type) {
+            case ColumnType.DOUBLE:
+                return "Double";
+            case ColumnType.LONG:
+                return "Long";
+            default:
+                return "Int";
+        }
+    }
+
+    private static int shiftOf(int type) {
+        switch (type) {
+            case ColumnType.BYTE:
+                return 0;
+            case ColumnType.SHORT:
+                return 1;
+            case ColumnType.INT:
+                return 2;
+            default:
+                return 3;
+        }
+    }
+
+    private static String signatureOf(int type) {
+        switch (type) {
+            case ColumnType.BYTE:
+                return "B";
+            case ColumnType.SHORT:
+                return "S";
+            case ColumnType.DOUBLE:
+                return "D";
+            case ColumnType.LONG:
+                return "J";
+            default:
+                return "I";
+        }
+    }
+
+    private static int slotsOf(int type) {
+        return type == ColumnType.DOUBLE || type == ColumnType.LONG ? 2 : 1;
+    }
+
+    private static int stackSizeOf(IRNode node) {
+        switch (node.opcode) {
+            case MEM:
+                // unsafe, column address, row index and shift
+                return 6;
+            case IMM:
+                return 2;
+            case NEG:
+                return stackSizeOf(node.lhs);
+            default:
+                return Math.max(stackSizeOf(node.lhs), slotsOf(node.type) + stackSizeOf(node.rhs));
+        }
+    }
+
+    private static void store(BytecodeAssembler asm, int type, int local) {
+        switch (type) {
+            case ColumnType.DOUBLE:
+                asm.dstore(local);
+                break;
+            case ColumnType.LONG:
+                asm.lstore(local);
+                break;
+            default:
+                asm.istore(local);
+                break;
+        }
+    }
+
+    private static int typeOf(int typeCode) throws SqlException {
+        switch (typeCode) {
+            case I1_TYPE:
+                return ColumnType.BYTE;
+            case I2_TYPE:
+                return ColumnType.SHORT;
+            case I4_TYPE:
+                return ColumnType.INT;
+            case I8_TYPE:
+                return ColumnType.LONG;
+            case F8_TYPE:
+                return ColumnType.DOUBLE;
+            default:
+                throw SqlException.position(0).put("unsupported aggregate IR type: ").put(typeCode);
+        }
+    }
+
+    private void bind(ObjList<GroupByFunction> groupByFunctions) throws SqlException {
+        if (aggregates.size() != groupByFunctions.size()) {
+            throw SqlException.position(0)
+                    .put("aggregate count mismatch [expected=").put(groupByFunctions.size())
+                    .put(", actual=").put(aggregates.size())
+                    .put(']');
+        }
+        int valueIndex = 0;
+        for (int i = 0, n = aggregates.size(); i < n; i++) {
+            final IRNode node = aggregates.getQuick(i);
+            final GroupByFunction function = groupByFunctions.getQuick(i);
+            final int argType = node.opcode == COUNT ? ColumnType.LONG : node.lhs.type;
+            // byte and short values are aggregated by the int functions, avg() aggregates doubles
+            final int type = node.opcode == AVG ? ColumnType.DOUBLE
+                    : argType == ColumnType.BYTE || argType == ColumnType.SHORT ? ColumnType.INT : argType;
+            if (function.getClass() != functionClass(node.opcode, type)
+                    || (node.opcode != COUNT && ColumnType.tagOf(((UnaryFunction) function).getArg().getType()) != argType)) {
+                throw SqlException.position(0).put("unsupported aggregate function: ").put(function.getName());
+            }
+            node.type = type;
+            node.accumulatorType = node.opcode == SUM && type == ColumnType.INT ? ColumnType.LONG : type;
+            node.accumulatorLocal = accumulatorSlots;
+            node.valueIndex = valueIndex++;
+            accumulatorSlots += slotsOf(node.accumulatorType);
+            if (node.opcode == SUM || node.opcode == AVG) {
+                node.countLocal = accumulatorSlots;
+                accumulatorSlots += 2;
+                valueIndex++;
+            } else {
+                node.countLocal = -1;
+            }
+        }
+    }
+
+    private void decode(MemoryCARW ir) throws SqlException {
+        for (long offset = 0, size = ir.getAppendOffset(); offset < size; offset += INSTRUCTION_SIZE) {
+            final int opcode = ir.getInt(offset);
+            final int typeCode = ir.getInt(offset + Integer.BYTES);
+            final long payloadOffset = offset + 2 * Integer.BYTES;
+            final IRNode node;
+            switch (opcode) {
+                case RET:
+                    for (int i = 0, n = stack.size(); i < n; i++) {
+                        final IRNode aggregate = stack.getQuick(i);
+                        if (!isAggregate(aggregate.opcode)) {
+                            throw SqlException.position(0).put("aggregate expected in IR");
+                        }
+                        aggregates.add(aggregate);
+                    }
+                    stack.clear();
+                    return;
+                case MEM:
+                    node = nextNode(opcode, typeOf(typeCode));
+                    node.payload = ir.getLong(payloadOffset);
+                    break;
+                case IMM:
+                    node = nextNode(opcode, typeOf(typeCode));
+                    if (node.type == ColumnType.DOUBLE) {
+                        node.doublePayload = ir.getDouble(payloadOffset);
+                    } else {
+                        node.payload = ir.getLong(payloadOffset);
+                    }
+                    break;
+                case NEG:
+                case SUM:
+                case AVG:
+                case MIN:
+                case MAX:
+                    node = nextNode(opcode, ColumnType.UNDEFINED);
+                    node.lhs = pop();
+                    node.type = node.lhs.type;
+                    break;
+                case ADD:
+                case SUB:
+                case MUL:
+                case DIV:
+                    node = nextNode(opcode, ColumnType.UNDEFINED);
+                    node.lhs = pop();
+                    node.rhs = pop();
+                    node.type = arithmeticType(node.lhs.type, node.rhs.type);
+                    break;
+                case COUNT:
+                    node = nextNode(opcode, ColumnType.LONG);
+                    break;
+                default:
+                    throw SqlException.position(0).put("unsupported aggregate IR opcode: ").put(opcode);
+            }
+            stack.add(node);
+        }
+        throw SqlException.position(0).put("unterminated aggregate IR");
+    }
+
+    private void emit(BytecodeAssembler asm, IRNode node, int unsafeLocal, int columnsLocal, int rowLocal) {
+        switch (node.opcode) {
+            case MEM:
+                asm.aload(unsafeLocal);
+                asm.lload(columnsLocal + 2 * columnOrdinals.get((int) node.payload));
+                asm.lload(rowLocal);
+                final int shift = shiftOf(node.type);
+                if (shift > 0) {
+                    asm.iconst(shift);
+                    asm.lshl();
+                }
+                asm.ladd();
+                asm.invokeVirtual(node.methodIndex);
+                break;
+            case IMM:
+                // constants are pooled in the type of the enclosing expression
+                emitConstant(asm, node);
+                return;
+            case NEG:
+                emit(asm, node.lhs, unsafeLocal, columnsLocal, rowLocal);
+                switch (node.type) {
+                    case ColumnType.BYTE:
+                        asm.ineg();
+                        asm.i2b();
+                        break;
+                    case ColumnType.SHORT:
+                        asm.ineg();
+                        asm.i2s();
+                        break;
+                    case ColumnType.INT:
+                        // -Numbers.INT_NaN == Numbers.INT_NaN
+                        asm.ineg();
+                        break;
+                    case ColumnType.LONG:
+                        asm.lneg();
+                        break;
+                    default:
+                        asm.dneg();
+                        break;
+                }
+                break;
+            default:
+                emit(asm, node.lhs, unsafeLocal, columnsLocal, rowLocal);
+                emit(asm, node.rhs, unsafeLocal, columnsLocal, rowLocal);
+                if (node.type == ColumnType.DOUBLE) {
+                    switch (node.opcode) {
+                        case ADD:
+                            asm.dadd();
+                            break;
+                        case SUB:
+                            asm.dsub();
+                            break;
+                        case MUL:
+                            asm.dmul();
+                            break;
+                        default:
+                            asm.ddiv();
+                            break;
+                    }
+                } else {
+                    asm.invokeStatic(node.methodIndex);
+                }
+                break;
+        }
+        emitCast(asm, node);
+    }
+
+    private void emitCast(BytecodeAssembler asm, IRNode node) {
+        if (node.castMethodIndex != -1) {
+            asm.invokeStatic(node.castMethodIndex);
+        } else if (node.type == ColumnType.BYTE || node.type == ColumnType.SHORT) {
+            // byte and short are never null
+            if (node.castType == ColumnType.LONG) {
+                asm.i2l();
+            } else if (node.castType == ColumnType.DOUBLE) {
+                asm.i2d();
+            }
+        }
+    }
+
+    private void emitConstant(BytecodeAssembler asm, IRNode node) {
+        switch (node.castType) {
+            case ColumnType.DOUBLE:
+                asm.ldc2_w(node.constIndex);
+                break;
+            case ColumnType.LONG:
+                if (node.payload == 0) {
+                    asm.lconst_0();
+                } else if (node.payload == 1) {
+                    asm.lconst_1();
+                } else {
+                    asm.ldc2_w(node.constIndex);
+                }
+                break;
+            default:
+                if (node.constIndex == -1) {
+                    asm.iconst((int) node.payload);
+                } else {
+                    asm.ldc(node.constIndex);
+                }
+                break;
+        }
+    }
+
+    private void emitInitialValue(BytecodeAssembler asm, IRNode node) {
+        switch (node.accumulatorType) {
+            case ColumnType.DOUBLE:
+                if (node.opcode == MIN || node.opcode == MAX) {
+                    asm.ldc2_w(doubleNaNIndex);
+                } else {
+                    asm.dconst_0();
+                }
+                break;
+            case ColumnType.LONG:
+                if (node.opcode == MIN || node.opcode == MAX) {
+                    asm.ldc2_w(longNaNIndex);
+                } else {
+                    asm.lconst_0();
+                }
+                break;
+            default:
+                asm.ldc(intNaNIndex);
+                break;
+        }
+    }
+
+    private void emitUpdate(
+            BytecodeAssembler asm,
+            IRNode node,
+            int unsafeLocal,
+            int columnsLocal,
+            int rowLocal,
+            int accumulatorLocal,
+            int tempLocal
+    ) {
+        final int local = accumulatorLocal + node.accumulatorLocal;
+        switch (node.opcode) {
+            case COUNT:
+                asm.lload(local);
+                asm.lconst_1();
+                asm.ladd();
+                asm.lstore(local);
+                break;
+            case SUM:
+            case AVG:
+                emit(asm, node.lhs, unsafeLocal, columnsLocal, rowLocal);
+                store(asm, node.type, tempLocal);
+                load(asm, node.accumulatorType, local);
+                load(asm, node.type, tempLocal);
+                asm.invokeStatic(node.methodIndex);
+                store(asm, node.accumulatorType, local);
+                asm.lload(accumulatorLocal + node.countLocal);
+                load(asm, node.type, tempLocal);
+                asm.invokeStatic(node.countMethodIndex);
+                asm.ladd();
+                asm.lstore(accumulatorLocal + node.countLocal);
+                break;
+            default:
+                load(asm, node.accumulatorType, local);
+                emit(asm, node.lhs, unsafeLocal, columnsLocal, rowLocal);
+                asm.invokeStatic(node.methodIndex);
+                store(asm, node.accumulatorType, local);
+                break;
+        }
+    }
+
+    private void generateLoop(
+            BytecodeAssembler asm,
+            int nameIndex,
+            int sigIndex,
+            boolean rows,
+            int getUnsafeIndex,
+            int thisClassIndex,
+            int mapValueClassIndex,
+            int stackMapTableIndex
+    ) {
+        // parameters: this, columnsAddress, [rowsAddress], rowCount, value
+        final int columnsAddressLocal = 1;
+        final int rowsAddressLocal = 3;
+        final int rowCountLocal = rows ? 5 : 3;
+        final int valueLocal = rows ? 7 : 5;
+        final int unsafeLocal = valueLocal + 1;
+        final int indexLocal = unsafeLocal + 1;
+        final int columnsLocal = indexLocal + 2;
+        final int accumulatorLocal = columnsLocal + 2 * columns.size();
+        final int rowLocal = rows ? accumulatorLocal + accumulatorSlots : indexLocal;
+        final int tempLocal = accumulatorLocal + accumulatorSlots + (rows ? 2 : 0);
+
+        int maxStack = 6;
+        for (int i = 0, n = aggregates.size(); i < n; i++) {
+            final IRNode node = aggregates.getQuick(i);
+            if (node.opcode != COUNT) {
+                maxStack = Math.max(maxStack, 4 + stackSizeOf(node.lhs));
+            }
+        }
+
+        asm.startMethod(nameIndex, sigIndex, maxStack, tempLocal + 2);
+
+        asm.invokeStatic(getUnsafeIndex);
+        asm.astore(unsafeLocal);
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            asm.aload(unsafeLocal);
+            asm.lload(columnsAddressLocal);
+            asm.iconst(columns.getQuick(i) * Long.BYTES);
+            asm.i2l();
+            asm.ladd();
+            asm.invokeVirtual(getLongIndex);
+            asm.lstore(columnsLocal + 2 * i);
+        }
+        for (int i = 0, n = aggregates.size(); i < n; i++) {
+            final IRNode node = aggregates.getQuick(i);
+            emitInitialValue(asm, node);
+            store(asm, node.accumulatorType, accumulatorLocal + node.accumulatorLocal);
+            if (node.countLocal != -1) {
+                asm.lconst_0();
+                asm.lstore(accumulatorLocal + node.countLocal);
+            }
+        }
+        asm.lconst_0();
+        asm.lstore(indexLocal);
+        final int gotoCondition = asm.goto_();
+
+        // loop body
+        final int bodyPos = asm.position();
+        if (rows) {
+            asm.aload(unsafeLocal);
+            asm.lload(rowsAddressLocal);
+            asm.lload(indexLocal);
+            asm.iconst(3);
+            asm.lshl();
+            asm.ladd();
+            asm.invokeVirtual(getLongIndex);
+            asm.lstore(rowLocal);
+        }
+        for (int i = 0, n = aggregates.size(); i < n; i++) {
+            emitUpdate(asm, aggregates.getQuick(i), unsafeLocal, columnsLocal, rowLocal, accumulatorLocal, tempLocal);
+        }
+        asm.lload(indexLocal);
+        asm.lconst_1();
+        asm.ladd();
+        asm.lstore(indexLocal);
+
+        // loop condition
+        final int conditionPos = asm.position();
+        asm.setJmp(gotoCondition, conditionPos);
+        asm.lload(indexLocal);
+        asm.lload(rowCountLocal);
+        asm.lcmp();
+        asm.setJmp(asm.iflt(), bodyPos);
+
+        for (int i = 0, n = aggregates.size(); i < n; i++) {
+            final IRNode node = aggregates.getQuick(i);
+            asm.aload(valueLocal);
+            asm.iconst(node.valueIndex);
+            load(asm, node.accumulatorType, accumulatorLocal + node.accumulatorLocal);
+            switch (node.accumulatorType) {
+                case ColumnType.DOUBLE:
+                    asm.invokeInterface(putDoubleIndex, 3);
+                    break;
+                case ColumnType.LONG:
+                    asm.invokeInterface(putLongIndex, 3);
+                    break;
+                default:
+                    asm.invokeInterface(putIntIndex, 2);
+                    break;
+            }
+            if (node.countLocal != -1) {
+                asm.aload(valueLocal);
+                asm.iconst(node.valueIndex + 1);
+                asm.lload(accumulatorLocal + node.countLocal);
+                asm.invokeInterface(putLongIndex, 3);
+            }
+        }
+        asm.return_();
+        asm.endMethodCode();
+
+        // exceptions
+        asm.putShort(0);
+        // attributes
+        asm.putShort(1);
+        asm.startStackMapTables(stackMapTableIndex, 2);
+        // both the loop body and the loop condition see all locals except for the temporary ones
+        putFrame(asm, bodyPos - asm.getCodeStart(), rows, thisClassIndex, mapValueClassIndex);
+        putFrame(asm, conditionPos - bodyPos - 1, rows, thisClassIndex, mapValueClassIndex);
+        asm.endStackMapTables();
+        asm.endMethod();
+    }
+
+    private IRNode nextNode(int opcode, int type) {
+        final IRNode node = nodePool.next();
+        node.opcode = opcode;
+        node.type = type;
+        return node;
+    }
+
+    private IRNode pop() throws SqlException {
+        final int size = stack.size();
+        if (size == 0) {
+            throw SqlException.position(0).put("malformed aggregate IR");
+        }
+        final IRNode node = stack.getQuick(size - 1);
+        if (isAggregate(node.opcode)) {
+            throw SqlException.position(0).put("nested aggregates are not supported");
+        }
+        stack.setPos(size - 1);
+        return node;
+    }
+
+    private void prepare(BytecodeAssembler asm, IRNode node, int castType) {
+        node.castType = castType;
+        switch (node.opcode) {
+            case MEM:
+                final int columnIndex = (int) node.payload;
+                if (columnOrdinals.keyIndex(columnIndex) > -1) {
+                    columnOrdinals.put(columnIndex, columns.size());
+                    columns.add(columnIndex);
+                }
+                node.methodIndex = asm.poolMethod(unsafeClassIndex, "get" + (node.type == ColumnType.BYTE ? "Byte" : node.type == ColumnType.SHORT ? "Short" : nameOf(node.type)), "(J)" + signatureOf(node.type));
+                break;
+            case IMM:
+                prepareConstant(asm, node);
+                return;
+            case NEG:
+                prepare(asm, node.lhs, node.type);
+                break;
+            default:
+                prepare(asm, node.lhs, node.type);
+                prepare(asm, node.rhs, node.type);
+                if (node.type != ColumnType.DOUBLE) {
+                    final String name;
+                    switch (node.opcode) {
+                        case ADD:
+                            name = "add";
+                            break;
+                        case SUB:
+                            name = "sub";
+                            break;
+                        case MUL:
+                            name = "mul";
+                            break;
+                        default:
+                            name = "div";
+                            break;
+                    }
+                    final String sig = signatureOf(node.type);
+                    node.methodIndex = asm.poolMethod(GroupByCompiler.class, name + nameOf(node.type), "(" + sig + sig + ")" + sig);
+                }
+                break;
+        }
+        // int and long nulls are converted to nulls of the wider type
+        if (node.type == ColumnType.INT && castType == ColumnType.LONG) {
+            node.castMethodIndex = asm.poolMethod(Numbers.class, "intToLong", "(I)J");
+        } else if (node.type == ColumnType.INT && castType == ColumnType.DOUBLE) {
+            node.castMethodIndex = asm.poolMethod(Numbers.class, "intToDouble", "(I)D");
+        } else if (node.type == ColumnType.LONG && castType == ColumnType.DOUBLE) {
+            node.castMethodIndex = asm.poolMethod(Numbers.class, "longToDouble", "(J)D");
+        } else {
+            node.castMethodIndex = -1;
+        }
+    }
+
+    private void prepareAggregate(BytecodeAssembler asm, IRNode node) {
+        if (node.opcode == COUNT) {
+            return;
+        }
+        prepare(asm, node.lhs, node.type);
+        final String name = nameOf(node.type);
+        final String sig = signatureOf(node.type);
+        switch (node.opcode) {
+            case SUM:
+            case AVG:
+                final String accumulatorSig = signatureOf(node.accumulatorType);
+                node.methodIndex = asm.poolMethod(GroupByCompiler.class, "sum" + name, "(" + accumulatorSig + sig + ")" + accumulatorSig);
+                node.countMethodIndex = asm.poolMethod(GroupByCompiler.class, "count" + name, "(" + sig + ")J");
+                break;
+            default:
+                node.methodIndex = asm.poolMethod(GroupByCompiler.class, (node.opcode == MIN ? "min" : "max") + name, "(" + sig + sig + ")" + sig);
+                break;
+        }
+    }
+
+    private void prepareConstant(BytecodeAssembler asm, IRNode node) {
+        node.castMethodIndex = -1;
+        switch (node.castType) {
+            case ColumnType.DOUBLE:
+                node.constIndex = asm.poolDoubleConst(node.type == ColumnType.DOUBLE ? node.doublePayload : node.payload);
+                break;
+            case ColumnType.LONG:
+                node.constIndex = asm.poolLongConst(node.payload);
+                break;
+            default:
+                if (node.payload >= Short.MIN_VALUE && node.payload <= Short.MAX_VALUE) {
+                    node.constIndex = -1;
+                } else {
+                    asm.poolIntConst((int) node.payload);
+                    node.constIndex = asm.getPoolCount() - 1;
+                }
+                break;
+        }
+    }
+
+    private void putFrame(BytecodeAssembler asm, int offset, boolean rows, int thisClassIndex, int mapValueClassIndex) {
+        asm.full_frame(offset);
+        int count = 6 + columns.size();
+        if (rows) {
+            count++;
+        }
+        for (int i = 0, n = aggregates.size(); i < n; i++) {
+            count += aggregates.getQuick(i).countLocal != -1 ? 2 : 1;
+        }
+        asm.putShort(count);
+        asm.putITEM_Object(thisClassIndex);
+        // columnsAddress
+        asm.putITEM_Long();
+        if (rows) {
+            // rowsAddress
+            asm.putITEM_Long();
+        }
+        // rowCount
+        asm.putITEM_Long();
+        asm.putITEM_Object(mapValueClassIndex);
+        asm.putITEM_Object(unsafeClassIndex);
+        // row index
+        asm.putITEM_Long();
+        for (int i = 0, n = columns.size(); i < n; i++) {
+            asm.putITEM_Long();
+        }
+        for (int i = 0, n = aggregates.size(); i < n; i++) {
+            final IRNode node = aggregates.getQuick(i);
+            switch (node.accumulatorType) {
+                case ColumnType.DOUBLE:
+                    asm.putITEM_Double();
+                    break;
+                case ColumnType.LONG:
+                    asm.putITEM_Long();
+                    break;
+                default:
+                    asm.putITEM_Integer();
+                    break;
+            }
+            if (node.countLocal != -1) {
+                asm.putITEM_Long();
+            }
+        }
+        // stack
+        asm.putShort(0);
+    }
+
+    private static class IRNode implements Mutable {
+        // relative to the first accumulator local, used by aggregates only
+        int accumulatorLocal;
+        int accumulatorType;
+        int castMethodIndex;
+        // type the value is converted to by the parent node
+        int castType;
+        int constIndex;
+        int countLocal;
+        int countMethodIndex;
+        double doublePayload;
+        IRNode lhs;
+        int methodIndex;
+        int opcode;
+        long payload;
+        IRNode rhs;
+        int type;
+        int valueIndex;
+
+        @Override
+        public void clear() {
+            lhs = null;
+            rhs = null;
+            payload = 0;
+            doublePayload = 0;
+            castMethodIndex = -1;
+            constIndex = -1;
+            countLocal = -1;
+        }
+    }
+}
@@ -41,4 +41,6 @@ public interface MetricsRegistry extends Scrapable {
     Gauge newGauge(int memoryTag);
 
     Gauge newVirtualGauge(CharSequence name, VirtualGauge.StatProvider provider);
+
+    void newVirtualGauge(CharSequence name, CharSequence labelName0, VirtualGaugeWithOneLabel.StatProvider provider);
 }
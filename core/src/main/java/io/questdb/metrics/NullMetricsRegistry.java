@@ -64,6 +64,10 @@ public class NullMetricsRegistry implements MetricsRegistry {
         return NullGauge.INSTANCE;
     }
 
+    @Override
+    public void newVirtualGauge(CharSequence name, CharSequence labelName0, VirtualGaugeWithOneLabel.StatProvider provider) {
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
     }
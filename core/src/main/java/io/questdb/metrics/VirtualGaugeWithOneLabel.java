@@ -0,0 +1,78 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.metrics;
+
+import io.questdb.std.str.CharSink;
+
+/**
+ * Read-only gauge with a single label whose values are not known upfront, e.g. a gauge per table.
+ * Label values and samples are taken from the provider on each scrape.
+ */
+public class VirtualGaugeWithOneLabel implements Scrapable {
+    private final CharSequence labelName0;
+    private final CharSequence name;
+    private final StatProvider provider;
+    private final Sampler sampler = this::appendSample;
+    private CharSink sink;
+
+    VirtualGaugeWithOneLabel(CharSequence name, CharSequence labelName0, StatProvider provider) {
+        this.name = name;
+        this.labelName0 = labelName0;
+        this.provider = provider;
+    }
+
+    @Override
+    public synchronized void scrapeIntoPrometheus(CharSink sink) {
+        sink.put(PrometheusFormatUtils.TYPE_PREFIX);
+        sink.put(name);
+        sink.put(" gauge\n");
+        this.sink = sink;
+        try {
+            provider.sample(sampler);
+        } finally {
+            this.sink = null;
+        }
+        PrometheusFormatUtils.appendNewLine(sink);
+    }
+
+    private void appendSample(CharSequence labelValue0, long value) {
+        sink.put(PrometheusFormatUtils.METRIC_NAME_PREFIX);
+        sink.put(name);
+        sink.put('{');
+        PrometheusFormatUtils.appendLabel(sink, labelName0, labelValue0);
+        sink.put('}');
+        PrometheusFormatUtils.appendSampleLineSuffix(sink, value);
+    }
+
+    @FunctionalInterface
+    public interface Sampler {
+        void sample(CharSequence labelValue0, long value);
+    }
+
+    @FunctionalInterface
+    public interface StatProvider {
+        void sample(Sampler sampler);
+    }
+}
@@ -46,7 +46,22 @@ public class BytecodeAssembler {
     private static final int aload_1 = 0x2b;
     private static final int aload_2 = 0x2c;
     private static final int aload_3 = 0x2d;
+    private static final int astore = 0x3a;
+    private static final int astore_0 = 0x4b;
+    private static final int astore_1 = 0x4c;
+    private static final int astore_2 = 0x4d;
+    private static final int astore_3 = 0x4e;
     private static final int bipush = 0x10;
+    private static final int dload = 0x18;
+    private static final int dload_0 = 0x26;
+    private static final int dload_1 = 0x27;
+    private static final int dload_2 = 0x28;
+    private static final int dload_3 = 0x29;
+    private static final int dstore = 0x39;
+    private static final int dstore_0 = 0x47;
+    private static final int dstore_1 = 0x48;
+    private static final int dstore_2 = 0x49;
+    private static final int dstore_3 = 0x4a;
     private static final int iconst_0 = 3;
     private static final int iconst_m1 = 2;
     private static final int iinc = 0x84;
@@ -101,6 +116,10 @@ public class BytecodeAssembler {
         putShort(offset);
     }
 
+    public void astore(int value) {
+        optimisedIO(astore_0, astore_1, astore_2, astore_3, astore, value);
+    }
+
     @SuppressWarnings("unused")
     public void athrow() {
         putByte(0xbf);
@@ -121,10 +140,22 @@ public class BytecodeAssembler {
         putShort(0x8F);
     }
 
+    public void dadd() {
+        putByte(0x63);
+    }
+
     public void dcmpg() {
         putByte(0x98);
     }
 
+    public void dconst_0() {
+        putByte(0x0e);
+    }
+
+    public void ddiv() {
+        putByte(0x6f);
+    }
+
     public void defineClass(int thisClassIndex) {
         defineClass(thisClassIndex, objectClassIndex);
     }
@@ -179,6 +210,26 @@ public class BytecodeAssembler {
         }
     }
 
+    public void dload(int value) {
+        optimisedIO(dload_0, dload_1, dload_2, dload_3, dload, value);
+    }
+
+    public void dmul() {
+        putByte(0x6b);
+    }
+
+    public void dneg() {
+        putByte(0x77);
+    }
+
+    public void dstore(int value) {
+        optimisedIO(dstore_0, dstore_1, dstore_2, dstore_3, dstore, value);
+    }
+
+    public void dsub() {
+        putByte(0x67);
+    }
+
     public void dup() {
         putByte(0x59);
     }
@@ -392,6 +443,10 @@ public class BytecodeAssembler {
         putShort(0x88);
     }
 
+    public void ladd() {
+        putByte(0x61);
+    }
+
     public void lcmp() {
         putByte(0x94);
     }
@@ -400,6 +455,10 @@ public class BytecodeAssembler {
         putByte(0x09);
     }
 
+    public void lconst_1() {
+        putByte(0x0a);
+    }
+
     public void ldc(int index) {
         if (index < 256) {
             putByte(0x12);
@@ -427,6 +486,10 @@ public class BytecodeAssembler {
         putByte(0x69);
     }
 
+    public void lneg() {
+        putByte(0x75);
+    }
+
     @SuppressWarnings("unchecked")
     @Nullable
     public <T> Class<T> loadClass(Class<?> host) {
@@ -439,6 +502,10 @@ public class BytecodeAssembler {
         putByte(0xad);
     }
 
+    public void lshl() {
+        putByte(0x79);
+    }
+
     public void lstore(int value) {
         optimisedIO(lstore_0, lstore_1, lstore_2, lstore_3, lstore, value);
     }
@@ -604,6 +671,10 @@ public class BytecodeAssembler {
         buf.putDouble(value);
     }
 
+    public void putITEM_Double() {
+        putByte(0x03);
+    }
+
     public void putITEM_Integer() {
         putByte(0x01);
     }
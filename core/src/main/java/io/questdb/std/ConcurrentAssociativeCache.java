@@ -0,0 +1,193 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import io.questdb.metrics.Gauge;
+import io.questdb.metrics.NullGauge;
+
+import java.io.Closeable;
+
+/**
+ * Thread-safe counterpart of {@link AssociativeCache}. Each row is guarded by its own lock,
+ * so threads polling or pushing different keys rarely contend. Values are checked out
+ * exclusively: {@link #poll(CharSequence)} removes the value and the caller is expected
+ * to return it via {@link #put(CharSequence, Object)} once it is done with it.
+ */
+public class ConcurrentAssociativeCache<V> implements Closeable, Mutable {
+
+    private static final int MIN_BLOCKS = 1;
+    private static final int MIN_ROWS = 1;
+    private static final int NOT_FOUND = -1;
+    private final int blocks;
+    private final int bmask;
+    private final int bshift;
+    private final Gauge cachedGauge;
+    private final CharSequence[] keys;
+    private final Object[] locks;
+    private final int rmask;
+    private final V[] values;
+
+    public ConcurrentAssociativeCache(int blocks, int rows) {
+        this(blocks, rows, NullGauge.INSTANCE);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentAssociativeCache(int blocks, int rows, Gauge cachedGauge) {
+        this.blocks = Math.max(MIN_BLOCKS, Numbers.ceilPow2(blocks));
+        rows = Math.max(MIN_ROWS, Numbers.ceilPow2(rows));
+
+        int size = rows * this.blocks;
+        if (size < 0) {
+            throw new OutOfMemoryError();
+        }
+        this.keys = new CharSequence[size];
+        this.values = (V[]) new Object[size];
+        this.locks = new Object[rows];
+        for (int i = 0; i < rows; i++) {
+            locks[i] = new Object();
+        }
+        this.rmask = rows - 1;
+        this.bmask = this.blocks - 1;
+        this.bshift = Numbers.msb(this.blocks);
+        this.cachedGauge = cachedGauge;
+    }
+
+    @Override
+    public void clear() {
+        long freed = 0;
+        for (int row = 0, n = locks.length; row < n; row++) {
+            synchronized (locks[row]) {
+                for (int i = row << bshift, hi = i + blocks; i < hi; i++) {
+                    if (keys[i] != null) {
+                        keys[i] = null;
+                        if (values[i] != null) {
+                            values[i] = Misc.freeIfCloseable(values[i]);
+                            freed++;
+                        }
+                    }
+                }
+            }
+        }
+        cachedGauge.add(-freed);
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    public V poll(CharSequence key) {
+        final int row = row(key);
+        final int lo = row << bshift;
+        final V value;
+        synchronized (locks[row]) {
+            final int index = getIndex(lo, key);
+            if (index == NOT_FOUND) {
+                return null;
+            }
+            value = values[index];
+            // key and value leave the row together, so that the row never holds a key without a value
+            remove(lo, index);
+        }
+        if (value != null) {
+            cachedGauge.dec();
+        }
+        return value;
+    }
+
+    public void put(CharSequence key, V value) {
+        final int row = row(key);
+        final int lo = row << bshift;
+        final V outgoingValue;
+        synchronized (locks[row]) {
+            final int index = getIndex(lo, key);
+            if (index != NOT_FOUND) {
+                // Present entry case, the entry is moved to the head of the row.
+                outgoingValue = values[index];
+                if (outgoingValue == value) {
+                    return;
+                }
+                final CharSequence k = keys[index];
+                remove(lo, index);
+                if (value != null) {
+                    insert(lo, k, value);
+                }
+            } else if (value != null) {
+                // New entry case, the least recently pushed entry of the row is evicted.
+                outgoingValue = values[lo + bmask];
+                insert(lo, Chars.toString(key), value);
+            } else {
+                return;
+            }
+        }
+
+        if (outgoingValue == null) {
+            if (value != null) {
+                cachedGauge.inc();
+            }
+        } else {
+            // Another thread may have pushed its own copy of the value, so the outgoing one is freed.
+            Misc.freeIfCloseable(outgoingValue);
+            if (value == null) {
+                cachedGauge.dec();
+            }
+        }
+    }
+
+    private int getIndex(int lo, CharSequence key) {
+        for (int i = lo, hi = lo + blocks; i < hi; i++) {
+            CharSequence k = keys[i];
+            if (k == null) {
+                return NOT_FOUND;
+            }
+
+            if (Chars.equals(k, key)) {
+                return i;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    // shifts the row right by one entry, dropping its last entry, and puts the given entry at the head
+    private void insert(int lo, CharSequence key, V value) {
+        System.arraycopy(keys, lo, keys, lo + 1, bmask);
+        System.arraycopy(values, lo, values, lo + 1, bmask);
+        keys[lo] = key;
+        values[lo] = value;
+    }
+
+    // removes the entry and shifts the rest of the row left, rows are kept dense for lookups to stop at the first gap
+    private void remove(int lo, int index) {
+        final int hi = lo + bmask;
+        System.arraycopy(keys, index + 1, keys, index, hi - index);
+        System.arraycopy(values, index + 1, values, index, hi - index);
+        keys[hi] = null;
+        values[hi] = null;
+    }
+
+    private int row(CharSequence key) {
+        return Hash.spread(Chars.hashCode(key)) & rmask;
+    }
+}
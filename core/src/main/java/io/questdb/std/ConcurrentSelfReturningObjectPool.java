@@ -0,0 +1,48 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Self-returning object pool that can be shared by threads. Objects taken from this pool
+ * may be closed, and hence returned to the pool, by any thread.
+ */
+public class ConcurrentSelfReturningObjectPool<T extends AbstractSelfReturningObject<?>> extends WeakSelfReturningObjectPool<T> {
+
+    public ConcurrentSelfReturningObjectPool(@NotNull SelfReturningObjectFactory<T> factory, int initSize) {
+        super(factory, initSize);
+    }
+
+    @Override
+    public synchronized T pop() {
+        return super.pop();
+    }
+
+    @Override
+    synchronized boolean push(T obj) {
+        return super.push(obj);
+    }
+}
@@ -595,6 +595,13 @@ public final class Numbers {
         return (value & (value - 1)) == 0;
     }
 
+    public static double longToDouble(long value) {
+        if (value != Numbers.LONG_NaN) {
+            return value;
+        }
+        return Double.NaN;
+    }
+
     public static float longToFloat(long value) {
         if (value != Numbers.LONG_NaN) {
             return value;
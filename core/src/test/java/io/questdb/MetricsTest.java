@@ -180,6 +180,13 @@ public class MetricsTest {
             return delegate.newVirtualGauge(name, provider);
         }
 
+        @Override
+        public void newVirtualGauge(CharSequence name, CharSequence labelName0, VirtualGaugeWithOneLabel.StatProvider provider) {
+            addMetricName(name);
+            addLabelNames(name, Collections.singletonList(labelName0));
+            delegate.newVirtualGauge(name, labelName0, provider);
+        }
+
         @Override
         public void scrapeIntoPrometheus(CharSink sink) {
             delegate.scrapeIntoPrometheus(sink);
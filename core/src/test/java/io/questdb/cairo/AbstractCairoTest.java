@@ -282,6 +282,10 @@ public abstract class AbstractCairoTest {
         });
     }
 
+    protected static void configOverrideBloomFilterEnabled(Boolean bloomFilterEnabled) {
+        node1.getConfigurationOverrides().setBloomFilterEnabled(bloomFilterEnabled);
+    }
+
     protected static void configOverrideColumnPreTouchEnabled(Boolean columnPreTouchEnabled) {
         node1.getConfigurationOverrides().setColumnPreTouchEnabled(columnPreTouchEnabled);
     }
@@ -291,6 +295,11 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setColumnVersionTaskPoolCapacity(columnVersionTaskPoolCapacity);
     }
 
+    @SuppressWarnings("SameParameterValue")
+    protected static void configOverrideCommitMode(int commitMode) {
+        node1.getConfigurationOverrides().setCommitMode(commitMode);
+    }
+
     @SuppressWarnings("SameParameterValue")
     protected static void configOverrideCopyPartitionOnAttach(Boolean copyPartitionOnAttach) {
         node1.getConfigurationOverrides().setCopyPartitionOnAttach(copyPartitionOnAttach);
@@ -304,6 +313,10 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setDefaultTableWriteMode(defaultTableWriteMode);
     }
 
+    protected static void configOverrideGroupCommitEnabled(Boolean groupCommitEnabled) {
+        node1.getConfigurationOverrides().setGroupCommitEnabled(groupCommitEnabled);
+    }
+
     @SuppressWarnings("SameParameterValue")
     protected static void configOverrideHideTelemetryTable(boolean hideTelemetryTable) {
         node1.getConfigurationOverrides().setHideTelemetryTable(hideTelemetryTable);
@@ -314,6 +327,10 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setIoURingEnabled(ioURingEnabled);
     }
 
+    protected static void configOverrideJitGroupByEnabled(Boolean jitGroupByEnabled) {
+        node1.getConfigurationOverrides().setJitGroupByEnabled(jitGroupByEnabled);
+    }
+
     protected static void configOverrideJitMode(int jitMode) {
         node1.getConfigurationOverrides().setJitMode(jitMode);
     }
@@ -331,10 +348,62 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setO3QuickSortEnabled(o3QuickSortEnabled);
     }
 
+    protected static void configOverridePageFrameReadAheadCount(int pageFrameReadAheadCount) {
+        node1.getConfigurationOverrides().setPageFrameReadAheadCount(pageFrameReadAheadCount);
+    }
+
     protected static void configOverrideParallelFilterEnabled(Boolean parallelFilterEnabled) {
         node1.getConfigurationOverrides().setParallelFilterEnabled(parallelFilterEnabled);
     }
 
+    protected static void configOverrideParallelGroupByEnabled(Boolean parallelGroupByEnabled) {
+        node1.getConfigurationOverrides().setParallelGroupByEnabled(parallelGroupByEnabled);
+    }
+
+    protected static void configOverrideParallelSampleByEnabled(Boolean parallelSampleByEnabled) {
+        node1.getConfigurationOverrides().setParallelSampleByEnabled(parallelSampleByEnabled);
+    }
+
+    protected static void configOverrideParallelTopKEnabled(Boolean parallelTopKEnabled) {
+        node1.getConfigurationOverrides().setParallelTopKEnabled(parallelTopKEnabled);
+    }
+
+    protected static void configOverridePartitionTieringRoot(String partitionTieringRoot) {
+        node1.getConfigurationOverrides().setPartitionTieringRoot(partitionTieringRoot);
+    }
+
+    protected static void configOverrideRadixSortEnabled(Boolean radixSortEnabled) {
+        node1.getConfigurationOverrides().setRadixSortEnabled(radixSortEnabled);
+    }
+
+    protected static void configOverrideRadixSortMinRunSize(long radixSortMinRunSize) {
+        node1.getConfigurationOverrides().setRadixSortMinRunSize(radixSortMinRunSize);
+    }
+
+    protected static void configOverrideReaderLazyColumnMappingEnabled(Boolean readerLazyColumnMappingEnabled) {
+        node1.getConfigurationOverrides().setReaderLazyColumnMappingEnabled(readerLazyColumnMappingEnabled);
+    }
+
+    protected static void configOverrideReaderMmapCacheEnabled(Boolean readerMmapCacheEnabled) {
+        node1.getConfigurationOverrides().setReaderMmapCacheEnabled(readerMmapCacheEnabled);
+    }
+
+    protected static void configOverrideResultCacheEnabled(Boolean resultCacheEnabled) {
+        node1.getConfigurationOverrides().setResultCacheEnabled(resultCacheEnabled);
+    }
+
+    protected static void configOverrideResultCacheMemoryLimit(Long resultCacheMemoryLimit) {
+        node1.getConfigurationOverrides().setResultCacheMemoryLimit(resultCacheMemoryLimit);
+    }
+
+    protected static void configOverrideVectorizedFunctionsEnabled(Boolean vectorizedFunctionsEnabled) {
+        node1.getConfigurationOverrides().setVectorizedFunctionsEnabled(vectorizedFunctionsEnabled);
+    }
+
+    protected static void configOverrideSpillMemoryBudget(long spillMemoryBudget) {
+        node1.getConfigurationOverrides().setSpillMemoryBudget(spillMemoryBudget);
+    }
+
     protected static void configOverrideParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays) {
         node1.getConfigurationOverrides().setParallelImportStatusLogKeepNDays(parallelImportStatusLogKeepNDays);
     }
@@ -366,11 +435,42 @@ public abstract class AbstractCairoTest {
         node1.getConfigurationOverrides().setSqlJoinMetadataPageSize(sqlJoinMetadataPageSize);
     }
 
+    @SuppressWarnings("SameParameterValue")
+    protected static void configOverrideSqlMapMaxResizes(int sqlMapMaxResizes) {
+        node1.getConfigurationOverrides().setSqlMapMaxResizes(sqlMapMaxResizes);
+    }
+
+    @SuppressWarnings("SameParameterValue")
+    protected static void configOverrideSqlMapPageSize(int sqlMapPageSize) {
+        node1.getConfigurationOverrides().setSqlMapPageSize(sqlMapPageSize);
+    }
+
     @SuppressWarnings("SameParameterValue")
     protected static void configOverrideWalSegmentRolloverRowCount(long walSegmentRolloverRowCount) {
         node1.getConfigurationOverrides().setWalSegmentRolloverRowCount(walSegmentRolloverRowCount);
     }
 
+    protected static void configOverrideWalApplyTableTimeQuota(long walApplyTableTimeQuota) {
+        node1.getConfigurationOverrides().setWalApplyTableTimeQuota(walApplyTableTimeQuota);
+    }
+
+    protected static void configOverrideWalSquashEnabled(Boolean walSquashEnabled) {
+        node1.getConfigurationOverrides().setWalSquashEnabled(walSquashEnabled);
+    }
+
+    protected static void configOverrideWalSquashMaxRows(long walSquashMaxRows) {
+        node1.getConfigurationOverrides().setWalSquashMaxRows(walSquashMaxRows);
+    }
+
+    @SuppressWarnings("SameParameterValue")
+    protected static void configOverrideZoneMapBlockRowCount(int zoneMapBlockRowCount) {
+        node1.getConfigurationOverrides().setZoneMapBlockRowCount(zoneMapBlockRowCount);
+    }
+
+    protected static void configOverrideZoneMapEnabled(Boolean zoneMapEnabled) {
+        node1.getConfigurationOverrides().setZoneMapEnabled(zoneMapEnabled);
+    }
+
     protected static void configureForBackups() throws IOException {
         backupDir = temp.newFolder().getAbsolutePath();
         backupDirTimestampFormat = new TimestampFormatCompiler().compile("ddMMMyyyy");
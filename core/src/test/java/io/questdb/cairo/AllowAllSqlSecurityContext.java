@@ -49,6 +49,11 @@ public final class AllowAllSqlSecurityContext {
                     @Nullable RecordSink partitionBySink,
                     @Nullable ColumnTypes keyTypes,
                     boolean isOrdered,
+                    @Nullable CharSequence orderBy,
+                    int framingMode,
+                    long rowsLo,
+                    long rowsHi,
+                    int timestampIndex,
                     boolean baseSupportsRandomAccess
             ) {
             }
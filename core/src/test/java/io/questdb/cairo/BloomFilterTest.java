@@ -0,0 +1,208 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.CompiledQuery;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+public class BloomFilterTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        configOverrideBloomFilterEnabled(true);
+    }
+
+    @Test
+    public void testBloomFiltersOfSealedPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertFiles("1970-01-01", "l", true);
+            assertFiles("1970-01-02", "s", true);
+            assertFiles("1970-01-01", "i", false);
+            // last partition is still open for appends
+            assertFiles("1970-01-05", "l", false);
+
+            try (
+                    TableReader reader = getReader("x");
+                    BloomFilter bloomFilter = new BloomFilter()
+            ) {
+                final int l = reader.getMetadata().getColumnIndex("l");
+                Assert.assertTrue(reader.readBloomFilter(0, l, bloomFilter));
+                for (long value = 1; value < 25; value++) {
+                    Assert.assertTrue(bloomFilter.mightContain(BloomFilter.hash(value)));
+                }
+                Assert.assertFalse(bloomFilter.mightContain(BloomFilter.hash(30L)));
+
+                final int s = reader.getMetadata().getColumnIndex("s");
+                Assert.assertTrue(reader.readBloomFilter(1, s, bloomFilter));
+                Assert.assertTrue(bloomFilter.mightContain(BloomFilter.hash("id30")));
+                Assert.assertFalse(bloomFilter.mightContain(BloomFilter.hash("id3")));
+
+                Assert.assertFalse(reader.readBloomFilter(4, l, bloomFilter));
+            }
+        });
+    }
+
+    @Test
+    public void testColumnTopAndOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("alter table x add column k long");
+            executeInsert("insert into x(l, s, i, k, ts) values (1000, 'o3', 1000, 7, '1970-01-01T05:30:00.000000Z')");
+            executeInsert("insert into x(l, s, i, k, ts) values (2000, 'id2', -1000, 8, '1970-01-06T05:30:00.000000Z')");
+            try (
+                    TableReader reader = getReader("x");
+                    BloomFilter bloomFilter = new BloomFilter()
+            ) {
+                final int k = reader.getMetadata().getColumnIndex("k");
+                // column is added after the partition is sealed
+                Assert.assertFalse(reader.readBloomFilter(1, k, bloomFilter));
+                // all rows of the partition are above column top
+                Assert.assertTrue(reader.readBloomFilter(4, k, bloomFilter));
+                Assert.assertFalse(bloomFilter.mightContain(BloomFilter.hash(8L)));
+            }
+            assertQueries(
+                    "x where k = 7",
+                    "x where k = 8",
+                    "x where l = 1000",
+                    "x where s = 'o3'",
+                    "x where s in ('id2', 'id50')"
+            );
+        });
+    }
+
+    @Test
+    public void testFilterResultsMatch() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueries(
+                    "x where l = 30",
+                    "x where 30 = l",
+                    "x where l = -1",
+                    "x where l in (5, 75)",
+                    "x where l in (5, 75, 1000)",
+                    "x where l = 30 and i > 0",
+                    "x where l = 30 or l = 80",
+                    "x where s = 'id42'",
+                    "x where s = null",
+                    "x where s in ('id3', 'id99', 'missing')",
+                    "x where s = 'id42' and l = 43",
+                    "x where s = 'id42' and l = 42",
+                    "x where s != 'id42' and l = 42",
+                    "x where s = 'a'",
+                    "x where ts > '1970-01-02' and s = 'id30'",
+                    "x where l = 30 order by ts desc"
+            );
+        });
+    }
+
+    @Test
+    public void testPartitionsAreSkipped() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertPlan(
+                    "x where s = 'id30'",
+                    "Async Filter\n" +
+                            "  filter: s='id30'\n" +
+                            "  workers: 1\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n" +
+                            "          bloom filter: s\n"
+            );
+            Assert.assertEquals(2, countFrames("x where s = 'id30'"));
+            Assert.assertEquals(3, countFrames("x where l in (-5, 5, 60)"));
+            // each conjunct rules out a different partition
+            Assert.assertEquals(1, countFrames("x where s = 'id30' and l = 5"));
+            // no bloom filter for the column
+            Assert.assertEquals(5, countFrames("x where i = 30"));
+        });
+    }
+
+    @Test
+    public void testUpdatedColumnIsNotSkipped() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeOperation("update x set l = 5000 where l = 5", CompiledQuery.UPDATE);
+            assertSql("select l, ts from x where l = 5000", "l\tts\n5000\t1970-01-01T04:00:00.000000Z\n");
+        });
+    }
+
+    private void assertFiles(String partition, String columnName, boolean exists) {
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(engine.getTableToken("x")).concat(partition);
+            Assert.assertEquals(exists, configuration.getFilesFacade().exists(TableUtils.bfFile(path, columnName, TableUtils.COLUMN_NAME_TXN_NONE)));
+        }
+    }
+
+    private void assertQueries(String... queries) throws Exception {
+        for (String query : queries) {
+            configOverrideBloomFilterEnabled(false);
+            final String expected = printSql(query);
+            configOverrideBloomFilterEnabled(true);
+            TestUtils.assertEquals(query, expected, printSql(query));
+        }
+    }
+
+    private int countFrames(String query) throws Exception {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            int frameCount = 0;
+            try (PageFrameCursor cursor = factory.getBaseFactory().getPageFrameCursor(sqlExecutionContext, ORDER_ASC)) {
+                while (cursor.next() != null) {
+                    frameCount++;
+                }
+            }
+            return frameCount;
+        }
+    }
+
+    private void createTable() throws Exception {
+        compile(
+                "create table x as (" +
+                        "select" +
+                        " x l," +
+                        " case when x % 7 = 0 then null else concat('id', x) end s," +
+                        " rnd_int(-100, 100, 2) i," +
+                        " timestamp_sequence(0, 3600000000) ts" +
+                        " from long_sequence(100)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+    }
+
+    private String printSql(String query) throws Exception {
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
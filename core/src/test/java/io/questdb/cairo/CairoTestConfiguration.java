@@ -88,6 +88,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getColumnVersionTaskPoolCapacity() >= 0 ? overrides.getColumnVersionTaskPoolCapacity() : super.getColumnPurgeTaskPoolCapacity();
     }
 
+    @Override
+    public int getCommitMode() {
+        return overrides.getCommitMode() > -1 ? overrides.getCommitMode() : super.getCommitMode();
+    }
+
     @Override
     public int getCopyPoolCapacity() {
         return overrides.getCapacity() == -1 ? super.getCopyPoolCapacity() : overrides.getCapacity();
@@ -164,6 +169,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return 512;
     }
 
+    @Override
+    public CharSequence getPartitionTieringRoot() {
+        return overrides.getPartitionTieringRoot() != null ? overrides.getPartitionTieringRoot() : super.getPartitionTieringRoot();
+    }
+
     @Override
     public int getQueryCacheEventQueueCapacity() {
         return overrides.getQueryCacheEventQueueCapacity() < 0 ? super.getQueryCacheEventQueueCapacity() : overrides.getQueryCacheEventQueueCapacity();
@@ -234,16 +244,51 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getSqlJoinMetadataPageSize() > -1 ? overrides.getSqlJoinMetadataPageSize() : super.getSqlJoinMetadataPageSize();
     }
 
+    @Override
+    public int getSqlMapMaxResizes() {
+        return overrides.getSqlMapMaxResizes() > -1 ? overrides.getSqlMapMaxResizes() : super.getSqlMapMaxResizes();
+    }
+
+    @Override
+    public int getSqlMapPageSize() {
+        return overrides.getSqlMapPageSize() > -1 ? overrides.getSqlMapPageSize() : super.getSqlMapPageSize();
+    }
+
     @Override
     public int getSqlPageFrameMaxRows() {
         return overrides.getPageFrameMaxRows() < 0 ? super.getSqlPageFrameMaxRows() : overrides.getPageFrameMaxRows();
     }
 
+    @Override
+    public int getSqlPageFrameReadAheadCount() {
+        return overrides.getPageFrameReadAheadCount() < 0 ? super.getSqlPageFrameReadAheadCount() : overrides.getPageFrameReadAheadCount();
+    }
+
+    @Override
+    public long getSqlRadixSortMinRunSize() {
+        return overrides.getRadixSortMinRunSize() != -1 ? overrides.getRadixSortMinRunSize() : super.getSqlRadixSortMinRunSize();
+    }
+
+    @Override
+    public long getSqlResultCacheMemoryLimit() {
+        return overrides.getResultCacheMemoryLimit() != null ? overrides.getResultCacheMemoryLimit() : super.getSqlResultCacheMemoryLimit();
+    }
+
+    @Override
+    public long getSqlSpillMemoryBudget() {
+        return overrides.getSpillMemoryBudget() != -1 ? overrides.getSpillMemoryBudget() : super.getSqlSpillMemoryBudget();
+    }
+
     @Override
     public TelemetryConfiguration getTelemetryConfiguration() {
         return telemetryConfiguration;
     }
 
+    @Override
+    public long getWalApplyTableTimeQuota() {
+        return overrides.getWalApplyTableTimeQuota() < 0 ? super.getWalApplyTableTimeQuota() : overrides.getWalApplyTableTimeQuota();
+    }
+
     @Override
     public boolean getWalEnabledDefault() {
         return overrides.getDefaultTableWriteMode() < 0 ? super.getWalEnabledDefault() : overrides.getDefaultTableWriteMode() == 1;
@@ -259,6 +304,11 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getWalSegmentRolloverRowCount() < 0 ? super.getWalSegmentRolloverRowCount() : overrides.getWalSegmentRolloverRowCount();
     }
 
+    @Override
+    public long getWalSquashMaxRows() {
+        return overrides.getWalSquashMaxRows() < 0 ? super.getWalSquashMaxRows() : overrides.getWalSquashMaxRows();
+    }
+
     @Override
     public int getWalTxnNotificationQueueCapacity() {
         return overrides.getWalTxnNotificationQueueCapacity() > 0 ? overrides.getWalTxnNotificationQueueCapacity() : 256;
@@ -284,6 +334,21 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.getWriterCommandQueueSlotSize();
     }
 
+    @Override
+    public int getZoneMapBlockRowCount() {
+        return overrides.getZoneMapBlockRowCount() > 0 ? overrides.getZoneMapBlockRowCount() : super.getZoneMapBlockRowCount();
+    }
+
+    @Override
+    public boolean isBloomFilterEnabled() {
+        return overrides.isBloomFilterEnabled() != null ? overrides.isBloomFilterEnabled() : super.isBloomFilterEnabled();
+    }
+
+    @Override
+    public boolean isGroupCommitEnabled() {
+        return overrides.isGroupCommitEnabled() != null ? overrides.isGroupCommitEnabled() : super.isGroupCommitEnabled();
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return overrides.isIoURingEnabled() != null ? overrides.isIoURingEnabled() : super.isIOURingEnabled();
@@ -294,11 +359,26 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.isO3QuickSortEnabled();
     }
 
+    @Override
+    public boolean isReaderLazyColumnMappingEnabled() {
+        return overrides.isReaderLazyColumnMappingEnabled() != null ? overrides.isReaderLazyColumnMappingEnabled() : super.isReaderLazyColumnMappingEnabled();
+    }
+
+    @Override
+    public boolean isReaderMmapCacheEnabled() {
+        return overrides.isReaderMmapCacheEnabled() != null ? overrides.isReaderMmapCacheEnabled() : super.isReaderMmapCacheEnabled();
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return overrides.getSnapshotRecoveryEnabled() == null ? super.isSnapshotRecoveryEnabled() : overrides.getSnapshotRecoveryEnabled();
     }
 
+    @Override
+    public boolean isSqlJitGroupByEnabled() {
+        return overrides.isJitGroupByEnabled() != null ? overrides.isJitGroupByEnabled() : super.isSqlJitGroupByEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return overrides.isParallelFilterEnabled() != null ? overrides.isParallelFilterEnabled() : super.isSqlParallelFilterEnabled();
@@ -309,11 +389,51 @@ public class CairoTestConfiguration extends DefaultTestCairoConfiguration {
         return overrides.isColumnPreTouchEnabled() != null ? overrides.isColumnPreTouchEnabled() : super.isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return overrides.isParallelGroupByEnabled() != null ? overrides.isParallelGroupByEnabled() : super.isSqlParallelGroupByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByEnabled() {
+        return overrides.isParallelSampleByEnabled() != null ? overrides.isParallelSampleByEnabled() : super.isSqlParallelSampleByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelTopKEnabled() {
+        return overrides.isParallelTopKEnabled() != null ? overrides.isParallelTopKEnabled() : super.isSqlParallelTopKEnabled();
+    }
+
+    @Override
+    public boolean isSqlRadixSortEnabled() {
+        return overrides.isRadixSortEnabled() != null ? overrides.isRadixSortEnabled() : super.isSqlRadixSortEnabled();
+    }
+
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return overrides.isResultCacheEnabled() != null ? overrides.isResultCacheEnabled() : super.isSqlResultCacheEnabled();
+    }
+
+    @Override
+    public boolean isSqlVectorizedFunctionsEnabled() {
+        return overrides.isVectorizedFunctionsEnabled() != null ? overrides.isVectorizedFunctionsEnabled() : super.isSqlVectorizedFunctionsEnabled();
+    }
+
+    @Override
+    public boolean isWalSquashEnabled() {
+        return overrides.isWalSquashEnabled() != null ? overrides.isWalSquashEnabled() : super.isWalSquashEnabled();
+    }
+
     @Override
     public boolean isWalSupported() {
         return true;
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return overrides.isZoneMapEnabled() != null ? overrides.isZoneMapEnabled() : super.isZoneMapEnabled();
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return overrides.mangleTableDirNames();
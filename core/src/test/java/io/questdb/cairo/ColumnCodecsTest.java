@@ -0,0 +1,139 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Numbers;
+import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ColumnCodecsTest {
+
+    @Test
+    public void testCodecOf() {
+        Assert.assertEquals(ColumnCodecs.CODEC_DELTA_OF_DELTA, ColumnCodecs.codecOf(ColumnType.TIMESTAMP));
+        Assert.assertEquals(ColumnCodecs.CODEC_DELTA_OF_DELTA, ColumnCodecs.codecOf(ColumnType.LONG));
+        Assert.assertEquals(ColumnCodecs.CODEC_XOR, ColumnCodecs.codecOf(ColumnType.DOUBLE));
+        Assert.assertEquals(ColumnCodecs.CODEC_LZ4, ColumnCodecs.codecOf(ColumnType.INT));
+        Assert.assertEquals(ColumnCodecs.CODEC_LZ4, ColumnCodecs.codecOf(ColumnType.SYMBOL));
+        Assert.assertEquals(ColumnCodecs.CODEC_NONE, ColumnCodecs.codecOf(ColumnType.STRING));
+        Assert.assertEquals(ColumnCodecs.CODEC_NONE, ColumnCodecs.codecOf(ColumnType.BINARY));
+    }
+
+    @Test
+    public void testDeltaOfDelta() {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnCodecs.CODEC_DELTA_OF_DELTA, 8 * 100_000, (addr, size) -> {
+            long ts = 1_600_000_000_000_000L;
+            for (long p = 0; p < size; p += 8) {
+                ts += 1_000_000 + rnd.nextInt(10);
+                Unsafe.getUnsafe().putLong(addr + p, p % 800 == 0 ? Numbers.LONG_NaN : ts);
+            }
+        }, true);
+    }
+
+    @Test
+    public void testDeltaOfDeltaRandom() {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnCodecs.CODEC_DELTA_OF_DELTA, 8 * 10_000 + 3, (addr, size) -> fillRandom(rnd, addr, size), false);
+    }
+
+    @Test
+    public void testLz4() {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnCodecs.CODEC_LZ4, 4 * 3_000_000, (addr, size) -> {
+            int value = 0;
+            for (long p = 0; p < size; p += 4) {
+                if (rnd.nextInt(100) == 0) {
+                    value = rnd.nextInt();
+                }
+                Unsafe.getUnsafe().putInt(addr + p, value);
+            }
+        }, true);
+    }
+
+    @Test
+    public void testLz4Random() {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnCodecs.CODEC_LZ4, 10_001, (addr, size) -> fillRandom(rnd, addr, size), false);
+    }
+
+    @Test
+    public void testXor() {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnCodecs.CODEC_XOR, 8 * 100_000, (addr, size) -> {
+            double value = 100;
+            for (long p = 0; p < size; p += 8) {
+                value += rnd.nextBoolean() ? 0.25 : 0;
+                Unsafe.getUnsafe().putDouble(addr + p, p % 1600 == 0 ? Double.NaN : value);
+            }
+        }, true);
+    }
+
+    @Test
+    public void testXorRandom() {
+        final Rnd rnd = new Rnd();
+        assertRoundTrip(ColumnCodecs.CODEC_XOR, 8 * 10_000 + 5, (addr, size) -> fillRandom(rnd, addr, size), false);
+    }
+
+    private static void assertRoundTrip(int codec, long size, DataGenerator generator, boolean compressible) {
+        final long capacity = size * 2 + 1024;
+        final long src = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        final long dst = Unsafe.malloc(capacity, MemoryTag.NATIVE_DEFAULT);
+        final long restored = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+        try {
+            generator.generate(src, size);
+            final long compressedSize = ColumnCodecs.compress(codec, src, size, dst, capacity);
+            Assert.assertTrue(compressedSize > 0);
+            if (compressible) {
+                Assert.assertTrue(compressedSize < size / 2);
+            }
+            ColumnCodecs.decompress(codec, dst, compressedSize, restored, size);
+            for (long p = 0; p < size; p++) {
+                Assert.assertEquals(Unsafe.getUnsafe().getByte(src + p), Unsafe.getUnsafe().getByte(restored + p));
+            }
+
+            // output must not overflow small destination
+            Assert.assertEquals(-1, ColumnCodecs.compress(codec, src, size, dst, compressedSize - 1));
+        } finally {
+            Unsafe.free(src, size, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(dst, capacity, MemoryTag.NATIVE_DEFAULT);
+            Unsafe.free(restored, size, MemoryTag.NATIVE_DEFAULT);
+        }
+    }
+
+    private static void fillRandom(Rnd rnd, long addr, long size) {
+        for (long p = 0; p < size; p++) {
+            Unsafe.getUnsafe().putByte(addr + p, rnd.nextByte());
+        }
+    }
+
+    @FunctionalInterface
+    private interface DataGenerator {
+        void generate(long addr, long size);
+    }
+}
@@ -50,6 +50,8 @@ public interface ConfigurationOverrides {
 
     int getColumnVersionTaskPoolCapacity();
 
+    int getCommitMode();
+
     Boolean getCopyPartitionOnAttach();
 
     long getCurrentMicros();
@@ -76,10 +78,14 @@ public interface ConfigurationOverrides {
 
     int getPageFrameMaxRows();
 
+    int getPageFrameReadAheadCount();
+
     int getPageFrameReduceQueueCapacity();
 
     int getPageFrameReduceShardCount();
 
+    String getPartitionTieringRoot();
+
     int getParallelImportStatusLogKeepNDays();
 
     int getQueryCacheEventQueueCapacity();
@@ -106,10 +112,18 @@ public interface ConfigurationOverrides {
 
     int getSqlJoinMetadataPageSize();
 
+    int getSqlMapMaxResizes();
+
+    int getSqlMapPageSize();
+
     MicrosecondClock getTestMicrosClock();
 
+    long getWalApplyTableTimeQuota();
+
     long getWalSegmentRolloverRowCount();
 
+    long getWalSquashMaxRows();
+
     int getWalTxnNotificationQueueCapacity();
 
     long getWriterAsyncCommandBusyWaitTimeout();
@@ -120,8 +134,14 @@ public interface ConfigurationOverrides {
 
     long getWriterCommandQueueSlotSize();
 
+    int getZoneMapBlockRowCount();
+
+    Boolean isBloomFilterEnabled();
+
     Boolean isColumnPreTouchEnabled();
 
+    Boolean isGroupCommitEnabled();
+
     boolean isHidingTelemetryTable();
 
     Boolean isIoURingEnabled();
@@ -130,6 +150,34 @@ public interface ConfigurationOverrides {
 
     Boolean isParallelFilterEnabled();
 
+    Boolean isParallelGroupByEnabled();
+
+    Boolean isParallelSampleByEnabled();
+
+    Boolean isParallelTopKEnabled();
+
+    Boolean isRadixSortEnabled();
+
+    long getRadixSortMinRunSize();
+
+    Boolean isReaderLazyColumnMappingEnabled();
+
+    Boolean isReaderMmapCacheEnabled();
+
+    Boolean isResultCacheEnabled();
+
+    Long getResultCacheMemoryLimit();
+
+    Boolean isJitGroupByEnabled();
+
+    Boolean isVectorizedFunctionsEnabled();
+
+    Boolean isWalSquashEnabled();
+
+    Boolean isZoneMapEnabled();
+
+    long getSpillMemoryBudget();
+
     boolean mangleTableDirNames();
 
     void reset();
@@ -142,6 +190,8 @@ public interface ConfigurationOverrides {
 
     void setBinaryEncodingMaxLength(int binaryEncodingMaxLength);
 
+    void setBloomFilterEnabled(Boolean bloomFilterEnabled);
+
     void setCapacity(int capacity);
 
     void setCircuitBreakerConfiguration(SqlExecutionCircuitBreakerConfiguration circuitBreakerConfiguration);
@@ -154,6 +204,8 @@ public interface ConfigurationOverrides {
 
     void setColumnVersionTaskPoolCapacity(int columnVersionTaskPoolCapacity);
 
+    void setCommitMode(int commitMode);
+
     void setCopyPartitionOnAttach(Boolean copyPartitionOnAttach);
 
     void setCurrentMicros(long currentMicros);
@@ -166,6 +218,8 @@ public interface ConfigurationOverrides {
 
     void setFilesFacade(FilesFacade ff);
 
+    void setGroupCommitEnabled(Boolean groupCommitEnabled);
+
     void setHideTelemetryTable(boolean hideTelemetryTable);
 
     void setInputRoot(String inputRoot);
@@ -188,12 +242,40 @@ public interface ConfigurationOverrides {
 
     void setPageFrameMaxRows(int pageFrameMaxRows);
 
+    void setPageFrameReadAheadCount(int pageFrameReadAheadCount);
+
     void setPageFrameReduceQueueCapacity(int pageFrameReduceQueueCapacity);
 
     void setPageFrameReduceShardCount(int pageFrameReduceShardCount);
 
     void setParallelFilterEnabled(Boolean parallelFilterEnabled);
 
+    void setPartitionTieringRoot(String partitionTieringRoot);
+
+    void setParallelGroupByEnabled(Boolean parallelGroupByEnabled);
+
+    void setParallelSampleByEnabled(Boolean parallelSampleByEnabled);
+
+    void setParallelTopKEnabled(Boolean parallelTopKEnabled);
+
+    void setRadixSortEnabled(Boolean radixSortEnabled);
+
+    void setRadixSortMinRunSize(long radixSortMinRunSize);
+
+    void setReaderLazyColumnMappingEnabled(Boolean readerLazyColumnMappingEnabled);
+
+    void setReaderMmapCacheEnabled(Boolean readerMmapCacheEnabled);
+
+    void setResultCacheEnabled(Boolean resultCacheEnabled);
+
+    void setResultCacheMemoryLimit(Long resultCacheMemoryLimit);
+
+    void setJitGroupByEnabled(Boolean jitGroupByEnabled);
+
+    void setVectorizedFunctionsEnabled(Boolean vectorizedFunctionsEnabled);
+
+    void setSpillMemoryBudget(long spillMemoryBudget);
+
     void setParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays);
 
     void setQueryCacheEventQueueCapacity(int queryCacheEventQueueCapacity);
@@ -220,10 +302,20 @@ public interface ConfigurationOverrides {
 
     void setSqlJoinMetadataPageSize(int sqlJoinMetadataPageSize);
 
+    void setSqlMapMaxResizes(int sqlMapMaxResizes);
+
+    void setSqlMapPageSize(int sqlMapPageSize);
+
     void setTestMicrosClock(MicrosecondClock testMicrosClock);
 
+    void setWalApplyTableTimeQuota(long walApplyTableTimeQuota);
+
     void setWalSegmentRolloverRowCount(long walSegmentRolloverRowCount);
 
+    void setWalSquashEnabled(Boolean walSquashEnabled);
+
+    void setWalSquashMaxRows(long walSquashMaxRows);
+
     void setWalTxnNotificationQueueCapacity(int walTxnNotificationQueueCapacity);
 
     void setWriterAsyncCommandBusyWaitTimeout(long writerAsyncCommandBusyWaitTimeout);
@@ -233,4 +325,8 @@ public interface ConfigurationOverrides {
     void setWriterCommandQueueCapacity(int writerCommandQueueCapacity);
 
     void setWriterCommandQueueSlotSize(long writerCommandQueueSlotSize);
+
+    void setZoneMapBlockRowCount(int zoneMapBlockRowCount);
+
+    void setZoneMapEnabled(Boolean zoneMapEnabled);
 }
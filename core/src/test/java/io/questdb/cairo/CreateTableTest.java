@@ -82,7 +82,7 @@ public class CreateTableTest extends AbstractGriffinTest {
     public void testCreateTableAsSelectIndexUnsupportedColumnType() throws Exception {
         assertFailure(
                 "CREATE TABLE tab AS (" +
-                        "SELECT x FROM long_sequence(1)" +
+                        "SELECT CAST(x as DOUBLE) x FROM long_sequence(1)" +
                         "), INDEX(x)",
                 0
         );
@@ -680,7 +680,7 @@ public class CreateTableTest extends AbstractGriffinTest {
                 Assert.fail();
             } catch (SqlException e) {
                 Assert.assertEquals(position, e.getPosition());
-                TestUtils.assertContains(e.getFlyweightMessage(), "indexes are supported only for SYMBOL columns: x");
+                TestUtils.assertContains(e.getFlyweightMessage(), "indexes are supported only for SYMBOL, SHORT, INT, LONG and GEOHASH columns: x");
             }
         });
     }
@@ -0,0 +1,343 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.mp.SOCountDownLatch;
+import io.questdb.std.Chars;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.Os;
+import io.questdb.std.TestFilesFacadeImpl;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GroupCommitSyncTest extends AbstractGriffinTest {
+
+    @Test
+    public void testLeaderWaitsForCommittingPeers() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final AtomicInteger fsyncCount = new AtomicInteger();
+            // the window is long enough to fail the test by timeout if the leader doesn't stop waiting
+            final GroupCommitSync groupCommitSync = newGroupCommitSync(new CountingFilesFacade(fsyncCount), 600_000_000L);
+
+            final SOCountDownLatch peerMayJoin = new SOCountDownLatch(1);
+            groupCommitSync.begin();
+            groupCommitSync.begin();
+            final Thread peer = new Thread(() -> {
+                peerMayJoin.await();
+                groupCommitSync.sync(new GroupCommitSync.Member().add(2));
+                groupCommitSync.end();
+            });
+            peer.start();
+            final Thread leader = new Thread(() -> {
+                groupCommitSync.sync(new GroupCommitSync.Member().add(1));
+                groupCommitSync.end();
+            });
+            leader.start();
+
+            // the leader waits for the peer, which is still committing
+            while (groupCommitSync.getPendingCount() < 1) {
+                Os.pause();
+            }
+            peerMayJoin.countDown();
+            leader.join();
+            peer.join();
+
+            // both commits are synced by a single group
+            Assert.assertEquals(1, groupCommitSync.getSyncCount());
+            Assert.assertEquals(2, fsyncCount.get());
+        });
+    }
+
+    @Test
+    public void testMembersSyncGroupInParallel() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final AtomicInteger syncingCount = new AtomicInteger();
+            final AtomicInteger maxSyncingCount = new AtomicInteger();
+            final FilesFacade ff = new TestFilesFacadeImpl() {
+                @Override
+                public int fsync(int fd) {
+                    final int syncing = syncingCount.incrementAndGet();
+                    maxSyncingCount.accumulateAndGet(syncing, Math::max);
+                    // give the other member a chance to pick up the next file meanwhile
+                    final long deadline = System.nanoTime() + 5_000_000_000L;
+                    while (maxSyncingCount.get() < 2 && System.nanoTime() < deadline) {
+                        Os.pause();
+                    }
+                    syncingCount.decrementAndGet();
+                    return 0;
+                }
+            };
+            final GroupCommitSync groupCommitSync = newGroupCommitSync(ff, 600_000_000L);
+
+            groupCommitSync.begin();
+            groupCommitSync.begin();
+            final Thread[] threads = new Thread[2];
+            for (int i = 0; i < threads.length; i++) {
+                final int fd = i + 1;
+                threads[i] = new Thread(() -> {
+                    groupCommitSync.sync(new GroupCommitSync.Member().add(fd));
+                    groupCommitSync.end();
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            Assert.assertEquals(1, groupCommitSync.getSyncCount());
+            Assert.assertEquals(2, maxSyncingCount.get());
+        });
+    }
+
+    @Test
+    public void testNoWaitWithoutPeers() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final AtomicInteger fsyncCount = new AtomicInteger();
+            final GroupCommitSync groupCommitSync = newGroupCommitSync(new CountingFilesFacade(fsyncCount), 600_000_000L);
+            for (int i = 0; i < 3; i++) {
+                // a lone writer doesn't wait out the window
+                groupCommitSync.begin();
+                groupCommitSync.sync(new GroupCommitSync.Member().add(1).add(2));
+                groupCommitSync.end();
+            }
+            Assert.assertEquals(3, groupCommitSync.getSyncCount());
+            Assert.assertEquals(6, fsyncCount.get());
+        });
+    }
+
+    @Test
+    public void testSharedFileSyncedOnce() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final AtomicInteger fsyncCount = new AtomicInteger();
+            final FilesFacade ff = new CountingFilesFacade(fsyncCount) {
+                @Override
+                public int fsync(int fd) {
+                    super.fsync(fd);
+                    return fd == 3 ? -1 : 0;
+                }
+            };
+            final GroupCommitSync groupCommitSync = newGroupCommitSync(ff, 600_000_000L);
+
+            groupCommitSync.begin();
+            groupCommitSync.begin();
+            final AtomicInteger failures = new AtomicInteger();
+            final Thread[] threads = new Thread[2];
+            for (int i = 0; i < threads.length; i++) {
+                final int fd = i + 1;
+                threads[i] = new Thread(() -> {
+                    try {
+                        groupCommitSync.sync(new GroupCommitSync.Member().add(fd).add(3));
+                    } catch (CairoException e) {
+                        if (Chars.contains(e.getFlyweightMessage(), "could not sync [fd=3]")) {
+                            failures.incrementAndGet();
+                        }
+                    } finally {
+                        groupCommitSync.end();
+                    }
+                });
+                threads[i].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // the shared file is synced once, and its failure is reported to both members
+            Assert.assertEquals(1, groupCommitSync.getSyncCount());
+            Assert.assertEquals(2, failures.get());
+            Assert.assertTrue(fsyncCount.get() <= 3);
+        });
+    }
+
+    @Test
+    public void testSyncCommit() throws Exception {
+        final AtomicInteger fsyncCount = new AtomicInteger();
+        ff = new CountingFilesFacade(fsyncCount);
+        configOverrideGroupCommitEnabled(true);
+        assertMemoryLeak(() -> {
+            compile("create table x (l long, s string, ts timestamp) timestamp(ts) partition by day");
+
+            try (TableWriter writer = getWriter("x")) {
+                // table creation syncs the table directory
+                final int createFsyncCount = fsyncCount.get();
+                TableWriter.Row row = writer.newRow(0);
+                row.putLong(0, 1);
+                row.putStr(1, "a");
+                row.append();
+                writer.commit(CommitMode.SYNC);
+                // l, s data and index, ts and the transaction file
+                Assert.assertEquals(createFsyncCount + 5, fsyncCount.get());
+
+                row = writer.newRow(1);
+                row.putLong(0, 2);
+                row.append();
+                writer.commit(CommitMode.NOSYNC);
+                Assert.assertEquals(createFsyncCount + 5, fsyncCount.get());
+            }
+
+            assertSql("select sum(l), count() from x", "sum\tcount\n3\t2\n");
+        });
+    }
+
+    @Test
+    public void testSyncFailureDistressesWriter() throws Exception {
+        final AtomicInteger fsyncCount = new AtomicInteger();
+        ff = new CountingFilesFacade(fsyncCount) {
+            @Override
+            public int fsync(int fd) {
+                super.fsync(fd);
+                return -1;
+            }
+        };
+        configOverrideGroupCommitEnabled(true);
+        assertMemoryLeak(() -> {
+            compile("create table x (l long, ts timestamp) timestamp(ts) partition by day");
+
+            try (TableWriter writer = getWriter("x")) {
+                final int createFsyncCount = fsyncCount.get();
+                TableWriter.Row row = writer.newRow(0);
+                row.putLong(0, 1);
+                row.append();
+                try {
+                    writer.commit(CommitMode.SYNC);
+                    Assert.fail();
+                } catch (CairoError e) {
+                    TestUtils.assertContains(e.getMessage(), "could not sync");
+                }
+                // the column data failed to sync, so the transaction is not written
+                Assert.assertEquals(createFsyncCount + 1, fsyncCount.get());
+                try {
+                    writer.commit(CommitMode.SYNC);
+                    Assert.fail();
+                } catch (CairoError e) {
+                    TestUtils.assertContains(e.getMessage(), "distressed");
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testWalApplyCommit() throws Exception {
+        final AtomicInteger fsyncCount = new AtomicInteger();
+        ff = new CountingFilesFacade(fsyncCount);
+        configOverrideGroupCommitEnabled(true);
+        configOverrideCommitMode(CommitMode.SYNC);
+        assertMemoryLeak(() -> {
+            compile("create table x (l long, ts timestamp) timestamp(ts) partition by day wal");
+            compile("insert into x values (1, 0)");
+            drainWalQueue();
+
+            final int appliedFsyncCount = fsyncCount.get();
+            compile("insert into x values (2, 1)");
+            drainWalQueue();
+            // l, ts and the transaction file are synced by the group
+            Assert.assertEquals(appliedFsyncCount + 3, fsyncCount.get());
+
+            assertSql("select sum(l), count() from x", "sum\tcount\n3\t2\n");
+        });
+    }
+
+    @Test
+    public void testWritersJoinNextGroup() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final SOCountDownLatch syncStarted = new SOCountDownLatch(1);
+            final SOCountDownLatch syncReleased = new SOCountDownLatch(1);
+            final AtomicInteger fsyncCount = new AtomicInteger();
+            final FilesFacade ff = new CountingFilesFacade(fsyncCount) {
+                @Override
+                public int fsync(int fd) {
+                    if (super.fsync(fd) == 0 && fsyncCount.get() == 1) {
+                        syncStarted.countDown();
+                        syncReleased.await();
+                    }
+                    return 0;
+                }
+            };
+            final GroupCommitSync groupCommitSync = newGroupCommitSync(ff, 100);
+
+            final int writerCount = 4;
+            final Thread[] threads = new Thread[writerCount];
+            // the first writer leads the first group and blocks in sync
+            threads[0] = new Thread(() -> groupCommitSync.sync(new GroupCommitSync.Member().add(0)));
+            threads[0].start();
+            syncStarted.await();
+
+            // the rest join the next group while the first one is syncing
+            for (int i = 1; i < writerCount; i++) {
+                final int fd = i;
+                threads[i] = new Thread(() -> groupCommitSync.sync(new GroupCommitSync.Member().add(fd)));
+                threads[i].start();
+            }
+            while (groupCommitSync.getPendingCount() < writerCount - 1) {
+                Os.pause();
+            }
+
+            syncReleased.countDown();
+            for (int i = 0; i < writerCount; i++) {
+                threads[i].join();
+            }
+            // every file is synced once, by two groups
+            Assert.assertEquals(writerCount, fsyncCount.get());
+            Assert.assertEquals(2, groupCommitSync.getSyncCount());
+            Assert.assertEquals(0, groupCommitSync.getPendingCount());
+        });
+    }
+
+    private static GroupCommitSync newGroupCommitSync(FilesFacade ff, long windowMicros) {
+        return new GroupCommitSync(new DefaultCairoConfiguration(root) {
+            @Override
+            public FilesFacade getFilesFacade() {
+                return ff;
+            }
+
+            @Override
+            public long getGroupCommitWindowMicros() {
+                return windowMicros;
+            }
+        });
+    }
+
+    private static class CountingFilesFacade extends TestFilesFacadeImpl {
+        private final AtomicInteger fsyncCount;
+
+        private CountingFilesFacade(AtomicInteger fsyncCount) {
+            this.fsyncCount = fsyncCount;
+        }
+
+        @Override
+        public int fsync(int fd) {
+            fsyncCount.incrementAndGet();
+            return 0;
+        }
+
+        @Override
+        public int sync() {
+            throw new AssertionError("group commit must not sync the whole file system");
+        }
+    }
+}
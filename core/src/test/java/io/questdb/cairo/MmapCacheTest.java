@@ -0,0 +1,179 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.vm.MemoryCMRSharedImpl;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MmapCacheTest extends AbstractGriffinTest {
+
+    @Test
+    public void testExtendAndRelease() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path().of(configuration.getRoot()).concat("x.d").$()) {
+                writeLongs(ff, path, 1024);
+                try (MmapCache cache = new MmapCache()) {
+                    try (
+                            MemoryCMRSharedImpl mem1 = new MemoryCMRSharedImpl(cache);
+                            MemoryCMRSharedImpl mem2 = new MemoryCMRSharedImpl(cache);
+                            MemoryCMRSharedImpl mem3 = new MemoryCMRSharedImpl(cache)
+                    ) {
+                        mem1.ofShared(ff, path, 512 * Long.BYTES, MemoryTag.MMAP_TABLE_READER, 1, 0, 0);
+                        // smaller size is served by the existing mapping
+                        mem2.ofShared(ff, path, 256 * Long.BYTES, MemoryTag.MMAP_TABLE_READER, 1, 0, 0);
+                        Assert.assertEquals(1, cache.getEntryCount());
+                        Assert.assertEquals(mem1.getPageAddress(0), mem2.getPageAddress(0));
+
+                        // shared mapping cannot move, the file is mapped again
+                        mem1.extend(1024 * Long.BYTES);
+                        Assert.assertEquals(1, cache.getEntryCount());
+                        Assert.assertNotEquals(mem1.getPageAddress(0), mem2.getPageAddress(0));
+                        Assert.assertEquals(1023, mem1.getLong(1023 * Long.BYTES));
+                        Assert.assertEquals(255, mem2.getLong(255 * Long.BYTES));
+
+                        // re-created file is mapped afresh and replaces cached mapping
+                        mem3.ofShared(ff, path, 512 * Long.BYTES, MemoryTag.MMAP_TABLE_READER, 1, 1, 0);
+                        Assert.assertEquals(1, cache.getEntryCount());
+                        Assert.assertNotEquals(mem1.getPageAddress(0), mem3.getPageAddress(0));
+
+                        mem1.close();
+                        mem2.close();
+                        Assert.assertEquals(1, cache.getEntryCount());
+                        mem3.close();
+                        Assert.assertEquals(0, cache.getEntryCount());
+                    }
+                    Assert.assertEquals(0, cache.getEntryCount());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testPooledReadersShareMappings() throws Exception {
+        configOverrideReaderMmapCacheEnabled(true);
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x l, timestamp_sequence(0, 3600000000) ts from long_sequence(48)) timestamp(ts) partition by day");
+
+            try (
+                    TableReader reader1 = getReader("x");
+                    TableReader reader2 = getReader("x")
+            ) {
+                Assert.assertNotSame(reader1, reader2);
+                reader1.openPartition(1);
+                reader2.openPartition(1);
+                final int columnIndex = TableReader.getPrimaryColumnIndex(reader1.getColumnBase(1), 0);
+                Assert.assertEquals(25, reader1.getColumn(columnIndex).getLong(0));
+                Assert.assertEquals(
+                        reader1.getColumn(columnIndex).getPageAddress(0),
+                        reader2.getColumn(columnIndex).getPageAddress(0)
+                );
+            }
+
+            compile("truncate table x");
+            executeInsert("insert into x select x * 2, timestamp_sequence(0, 3600000000) from long_sequence(48)");
+
+            try (TableReader reader = getReader("x")) {
+                reader.openPartition(1);
+                final int columnIndex = TableReader.getPrimaryColumnIndex(reader.getColumnBase(1), 0);
+                Assert.assertEquals(50, reader.getColumn(columnIndex).getLong(0));
+            }
+        });
+    }
+
+    @Test
+    public void testReadersWithCacheDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x l, timestamp_sequence(0, 3600000000) ts from long_sequence(48)) timestamp(ts) partition by day");
+
+            try (
+                    TableReader reader1 = getReader("x");
+                    TableReader reader2 = getReader("x")
+            ) {
+                reader1.openPartition(0);
+                reader2.openPartition(0);
+                final int columnIndex = TableReader.getPrimaryColumnIndex(reader1.getColumnBase(0), 0);
+                Assert.assertEquals(1, reader1.getColumn(columnIndex).getLong(0));
+                Assert.assertNotEquals(
+                        reader1.getColumn(columnIndex).getPageAddress(0),
+                        reader2.getColumn(columnIndex).getPageAddress(0)
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testRemapSoleHolder() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final FilesFacade ff = configuration.getFilesFacade();
+            try (Path path = new Path().of(configuration.getRoot()).concat("x.d").$()) {
+                writeLongs(ff, path, 1024);
+                try (
+                        MmapCache cache = new MmapCache();
+                        MemoryCMRSharedImpl mem1 = new MemoryCMRSharedImpl(cache);
+                        MemoryCMRSharedImpl mem2 = new MemoryCMRSharedImpl(cache)
+                ) {
+                    mem1.ofShared(ff, path, 128 * Long.BYTES, MemoryTag.MMAP_TABLE_READER, 1, 0, 0);
+                    mem1.extend(1024 * Long.BYTES);
+                    Assert.assertEquals(1, cache.getEntryCount());
+                    Assert.assertEquals(1023, mem1.getLong(1023 * Long.BYTES));
+
+                    // grown mapping stays cached
+                    mem2.ofShared(ff, path, 1024 * Long.BYTES, MemoryTag.MMAP_TABLE_READER, 1, 0, 0);
+                    Assert.assertEquals(1, cache.getEntryCount());
+                    Assert.assertEquals(mem1.getPageAddress(0), mem2.getPageAddress(0));
+                    mem1.close();
+                    mem2.close();
+                    Assert.assertEquals(0, cache.getEntryCount());
+                }
+            }
+        });
+    }
+
+    private static void writeLongs(FilesFacade ff, Path path, long count) {
+        final int fd = TableUtils.openRW(ff, path, LOG, configuration.getWriterFileOpenOpts());
+        try {
+            final long buf = Unsafe.malloc(Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            try {
+                for (long i = 0; i < count; i++) {
+                    Unsafe.getUnsafe().putLong(buf, i);
+                    Assert.assertEquals(Long.BYTES, ff.write(fd, buf, Long.BYTES, i * Long.BYTES));
+                }
+            } finally {
+                Unsafe.free(buf, Long.BYTES, MemoryTag.NATIVE_DEFAULT);
+            }
+        } finally {
+            ff.close(fd);
+        }
+    }
+}
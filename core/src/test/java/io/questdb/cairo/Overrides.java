@@ -36,12 +36,14 @@ public class Overrides implements ConfigurationOverrides {
     private CharSequence backupDir;
     private DateFormat backupDirTimestampFormat;
     private int binaryEncodingMaxLength = -1;
+    private Boolean bloomFilterEnabled = null;
     private int capacity = -1;
     private SqlExecutionCircuitBreakerConfiguration circuitBreakerConfiguration;
     private Boolean columnPreTouchEnabled = null;
     private long columnPurgeRetryDelay = -1;
     private int columnVersionPurgeQueueCapacity = -1;
     private int columnVersionTaskPoolCapacity = -1;
+    private int commitMode = -1;
     private Boolean copyPartitionOnAttach = null;
     private long currentMicros = -1;
     private final MicrosecondClock defaultMicrosecondClock = () -> currentMicros >= 0 ? currentMicros : MicrosecondClockImpl.INSTANCE.getTicks();
@@ -53,6 +55,7 @@ public class Overrides implements ConfigurationOverrides {
     private boolean hideTelemetryTable = false;
     private String inputRoot = null;
     private String inputWorkRoot = null;
+    private Boolean groupCommitEnabled = null;
     private Boolean ioURingEnabled = null;
     private int jitMode = SqlJitMode.JIT_MODE_ENABLED;
     private boolean mangleTableDirNames = true;
@@ -61,9 +64,23 @@ public class Overrides implements ConfigurationOverrides {
     private long o3MaxLag = -1;
     private boolean o3QuickSortEnabled = false;
     private int pageFrameMaxRows = -1;
+    private int pageFrameReadAheadCount = -1;
     private int pageFrameReduceQueueCapacity = -1;
     private int pageFrameReduceShardCount = -1;
     private Boolean parallelFilterEnabled = null;
+    private Boolean parallelGroupByEnabled = null;
+    private Boolean parallelSampleByEnabled = null;
+    private Boolean parallelTopKEnabled = null;
+    private String partitionTieringRoot = null;
+    private Boolean radixSortEnabled = null;
+    private long radixSortMinRunSize = -1;
+    private Boolean readerLazyColumnMappingEnabled = null;
+    private Boolean readerMmapCacheEnabled = null;
+    private Boolean resultCacheEnabled = null;
+    private Long resultCacheMemoryLimit = null;
+    private Boolean vectorizedFunctionsEnabled = null;
+    private Boolean jitGroupByEnabled = null;
+    private long spillMemoryBudget = -1;
     private int parallelImportStatusLogKeepNDays = -1;
     private int queryCacheEventQueueCapacity = -1;
     private int recreateDistressedSequencerAttempts = 3;
@@ -77,12 +94,19 @@ public class Overrides implements ConfigurationOverrides {
     private int sqlCopyBufferSize = 1024 * 1024;
     private int sqlJoinMetadataMaxResizes = -1;
     private int sqlJoinMetadataPageSize = -1;
+    private int sqlMapMaxResizes = -1;
+    private int sqlMapPageSize = -1;
+    private long walApplyTableTimeQuota = -1;
     private long walSegmentRolloverRowCount = -1;
+    private Boolean walSquashEnabled = null;
+    private long walSquashMaxRows = -1;
     private int walTxnNotificationQueueCapacity = -1;
     private long writerAsyncCommandBusyWaitTimeout = -1;
     private long writerAsyncCommandMaxTimeout = -1;
     private int writerCommandQueueCapacity = 4;
     private long writerCommandQueueSlotSize = 2048L;
+    private int zoneMapBlockRowCount = -1;
+    private Boolean zoneMapEnabled = null;
 
     @Override
     public String getAttachableDirSuffix() {
@@ -129,6 +153,11 @@ public class Overrides implements ConfigurationOverrides {
         return columnVersionTaskPoolCapacity;
     }
 
+    @Override
+    public int getCommitMode() {
+        return commitMode;
+    }
+
     @Override
     public Boolean getCopyPartitionOnAttach() {
         return copyPartitionOnAttach;
@@ -194,6 +223,11 @@ public class Overrides implements ConfigurationOverrides {
         return pageFrameMaxRows;
     }
 
+    @Override
+    public int getPageFrameReadAheadCount() {
+        return pageFrameReadAheadCount;
+    }
+
     @Override
     public int getPageFrameReduceQueueCapacity() {
         return pageFrameReduceQueueCapacity;
@@ -204,6 +238,11 @@ public class Overrides implements ConfigurationOverrides {
         return pageFrameReduceShardCount;
     }
 
+    @Override
+    public String getPartitionTieringRoot() {
+        return partitionTieringRoot;
+    }
+
     @Override
     public int getParallelImportStatusLogKeepNDays() {
         return parallelImportStatusLogKeepNDays;
@@ -269,16 +308,36 @@ public class Overrides implements ConfigurationOverrides {
         return sqlJoinMetadataPageSize;
     }
 
+    @Override
+    public int getSqlMapMaxResizes() {
+        return sqlMapMaxResizes;
+    }
+
+    @Override
+    public int getSqlMapPageSize() {
+        return sqlMapPageSize;
+    }
+
     @Override
     public MicrosecondClock getTestMicrosClock() {
         return testMicrosClock;
     }
 
+    @Override
+    public long getWalApplyTableTimeQuota() {
+        return walApplyTableTimeQuota;
+    }
+
     @Override
     public long getWalSegmentRolloverRowCount() {
         return walSegmentRolloverRowCount;
     }
 
+    @Override
+    public long getWalSquashMaxRows() {
+        return walSquashMaxRows;
+    }
+
     @Override
     public int getWalTxnNotificationQueueCapacity() {
         return walTxnNotificationQueueCapacity;
@@ -304,11 +363,26 @@ public class Overrides implements ConfigurationOverrides {
         return writerCommandQueueSlotSize;
     }
 
+    @Override
+    public int getZoneMapBlockRowCount() {
+        return zoneMapBlockRowCount;
+    }
+
+    @Override
+    public Boolean isBloomFilterEnabled() {
+        return bloomFilterEnabled;
+    }
+
     @Override
     public Boolean isColumnPreTouchEnabled() {
         return columnPreTouchEnabled;
     }
 
+    @Override
+    public Boolean isGroupCommitEnabled() {
+        return groupCommitEnabled;
+    }
+
     @Override
     public boolean isHidingTelemetryTable() {
         return hideTelemetryTable;
@@ -329,6 +403,76 @@ public class Overrides implements ConfigurationOverrides {
         return parallelFilterEnabled;
     }
 
+    @Override
+    public Boolean isParallelGroupByEnabled() {
+        return parallelGroupByEnabled;
+    }
+
+    @Override
+    public Boolean isParallelSampleByEnabled() {
+        return parallelSampleByEnabled;
+    }
+
+    @Override
+    public Boolean isParallelTopKEnabled() {
+        return parallelTopKEnabled;
+    }
+
+    @Override
+    public Boolean isRadixSortEnabled() {
+        return radixSortEnabled;
+    }
+
+    @Override
+    public long getRadixSortMinRunSize() {
+        return radixSortMinRunSize;
+    }
+
+    @Override
+    public Boolean isReaderLazyColumnMappingEnabled() {
+        return readerLazyColumnMappingEnabled;
+    }
+
+    @Override
+    public Boolean isReaderMmapCacheEnabled() {
+        return readerMmapCacheEnabled;
+    }
+
+    @Override
+    public Boolean isResultCacheEnabled() {
+        return resultCacheEnabled;
+    }
+
+    @Override
+    public Long getResultCacheMemoryLimit() {
+        return resultCacheMemoryLimit;
+    }
+
+    @Override
+    public Boolean isJitGroupByEnabled() {
+        return jitGroupByEnabled;
+    }
+
+    @Override
+    public Boolean isVectorizedFunctionsEnabled() {
+        return vectorizedFunctionsEnabled;
+    }
+
+    @Override
+    public Boolean isWalSquashEnabled() {
+        return walSquashEnabled;
+    }
+
+    @Override
+    public Boolean isZoneMapEnabled() {
+        return zoneMapEnabled;
+    }
+
+    @Override
+    public long getSpillMemoryBudget() {
+        return spillMemoryBudget;
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return mangleTableDirNames;
@@ -336,6 +480,7 @@ public class Overrides implements ConfigurationOverrides {
 
     @Override
     public void reset() {
+        bloomFilterEnabled = null;
         hideTelemetryTable = false;
         maxUncommittedRows = -1;
         o3MaxLag = -1;
@@ -346,6 +491,9 @@ public class Overrides implements ConfigurationOverrides {
         writerAsyncCommandBusyWaitTimeout = -1;
         writerAsyncCommandMaxTimeout = -1;
         pageFrameMaxRows = -1;
+        pageFrameReadAheadCount = -1;
+        readerLazyColumnMappingEnabled = null;
+        readerMmapCacheEnabled = null;
         jitMode = SqlJitMode.JIT_MODE_ENABLED;
         rndFunctionMemoryPageSize = -1;
         rndFunctionMemoryMaxPages = -1;
@@ -353,6 +501,17 @@ public class Overrides implements ConfigurationOverrides {
         snapshotInstanceId = null;
         snapshotRecoveryEnabled = null;
         parallelFilterEnabled = null;
+        parallelGroupByEnabled = null;
+        parallelSampleByEnabled = null;
+        parallelTopKEnabled = null;
+        partitionTieringRoot = null;
+        radixSortEnabled = null;
+        radixSortMinRunSize = -1;
+        resultCacheEnabled = null;
+        resultCacheMemoryLimit = null;
+        vectorizedFunctionsEnabled = null;
+        jitGroupByEnabled = null;
+        spillMemoryBudget = -1;
         columnPreTouchEnabled = null;
         writerCommandQueueCapacity = 4;
         queryCacheEventQueueCapacity = -1;
@@ -360,11 +519,15 @@ public class Overrides implements ConfigurationOverrides {
         pageFrameReduceQueueCapacity = -1;
         columnVersionPurgeQueueCapacity = -1;
         columnVersionTaskPoolCapacity = -1;
+        commitMode = -1;
         rostiAllocFacade = null;
         sqlCopyBufferSize = 1024 * 1024;
         sqlJoinMetadataPageSize = -1;
         sqlJoinMetadataMaxResizes = -1;
+        sqlMapMaxResizes = -1;
+        sqlMapPageSize = -1;
         ioURingEnabled = null;
+        groupCommitEnabled = null;
         parallelImportStatusLogKeepNDays = -1;
         defaultTableWriteMode = SqlWalMode.WAL_NOT_SET;
         copyPartitionOnAttach = null;
@@ -373,7 +536,12 @@ public class Overrides implements ConfigurationOverrides {
         dataAppendPageSize = -1;
         o3QuickSortEnabled = false;
         walSegmentRolloverRowCount = -1;
+        walApplyTableTimeQuota = -1;
+        walSquashEnabled = null;
+        walSquashMaxRows = -1;
         mangleTableDirNames = true;
+        zoneMapBlockRowCount = -1;
+        zoneMapEnabled = null;
     }
 
     @Override
@@ -396,6 +564,11 @@ public class Overrides implements ConfigurationOverrides {
         this.binaryEncodingMaxLength = binaryEncodingMaxLength;
     }
 
+    @Override
+    public void setBloomFilterEnabled(Boolean bloomFilterEnabled) {
+        this.bloomFilterEnabled = bloomFilterEnabled;
+    }
+
     @Override
     public void setCapacity(int capacity) {
         this.capacity = capacity;
@@ -426,6 +599,11 @@ public class Overrides implements ConfigurationOverrides {
         this.columnVersionTaskPoolCapacity = columnVersionTaskPoolCapacity;
     }
 
+    @Override
+    public void setCommitMode(int commitMode) {
+        this.commitMode = commitMode;
+    }
+
     @Override
     public void setCopyPartitionOnAttach(Boolean copyPartitionOnAttach) {
         this.copyPartitionOnAttach = copyPartitionOnAttach;
@@ -456,6 +634,11 @@ public class Overrides implements ConfigurationOverrides {
         this.ff = ff;
     }
 
+    @Override
+    public void setGroupCommitEnabled(Boolean groupCommitEnabled) {
+        this.groupCommitEnabled = groupCommitEnabled;
+    }
+
     @Override
     public void setHideTelemetryTable(boolean hideTelemetryTable) {
         this.hideTelemetryTable = hideTelemetryTable;
@@ -511,6 +694,11 @@ public class Overrides implements ConfigurationOverrides {
         this.pageFrameMaxRows = pageFrameMaxRows;
     }
 
+    @Override
+    public void setPageFrameReadAheadCount(int pageFrameReadAheadCount) {
+        this.pageFrameReadAheadCount = pageFrameReadAheadCount;
+    }
+
     @Override
     public void setPageFrameReduceQueueCapacity(int pageFrameReduceQueueCapacity) {
         this.pageFrameReduceQueueCapacity = pageFrameReduceQueueCapacity;
@@ -526,6 +714,71 @@ public class Overrides implements ConfigurationOverrides {
         this.parallelFilterEnabled = parallelFilterEnabled;
     }
 
+    @Override
+    public void setPartitionTieringRoot(String partitionTieringRoot) {
+        this.partitionTieringRoot = partitionTieringRoot;
+    }
+
+    @Override
+    public void setParallelGroupByEnabled(Boolean parallelGroupByEnabled) {
+        this.parallelGroupByEnabled = parallelGroupByEnabled;
+    }
+
+    @Override
+    public void setParallelSampleByEnabled(Boolean parallelSampleByEnabled) {
+        this.parallelSampleByEnabled = parallelSampleByEnabled;
+    }
+
+    @Override
+    public void setParallelTopKEnabled(Boolean parallelTopKEnabled) {
+        this.parallelTopKEnabled = parallelTopKEnabled;
+    }
+
+    @Override
+    public void setRadixSortEnabled(Boolean radixSortEnabled) {
+        this.radixSortEnabled = radixSortEnabled;
+    }
+
+    @Override
+    public void setRadixSortMinRunSize(long radixSortMinRunSize) {
+        this.radixSortMinRunSize = radixSortMinRunSize;
+    }
+
+    @Override
+    public void setReaderLazyColumnMappingEnabled(Boolean readerLazyColumnMappingEnabled) {
+        this.readerLazyColumnMappingEnabled = readerLazyColumnMappingEnabled;
+    }
+
+    @Override
+    public void setReaderMmapCacheEnabled(Boolean readerMmapCacheEnabled) {
+        this.readerMmapCacheEnabled = readerMmapCacheEnabled;
+    }
+
+    @Override
+    public void setResultCacheEnabled(Boolean resultCacheEnabled) {
+        this.resultCacheEnabled = resultCacheEnabled;
+    }
+
+    @Override
+    public void setResultCacheMemoryLimit(Long resultCacheMemoryLimit) {
+        this.resultCacheMemoryLimit = resultCacheMemoryLimit;
+    }
+
+    @Override
+    public void setJitGroupByEnabled(Boolean jitGroupByEnabled) {
+        this.jitGroupByEnabled = jitGroupByEnabled;
+    }
+
+    @Override
+    public void setVectorizedFunctionsEnabled(Boolean vectorizedFunctionsEnabled) {
+        this.vectorizedFunctionsEnabled = vectorizedFunctionsEnabled;
+    }
+
+    @Override
+    public void setSpillMemoryBudget(long spillMemoryBudget) {
+        this.spillMemoryBudget = spillMemoryBudget;
+    }
+
     @Override
     public void setParallelImportStatusLogKeepNDays(int parallelImportStatusLogKeepNDays) {
         this.parallelImportStatusLogKeepNDays = parallelImportStatusLogKeepNDays;
@@ -591,16 +844,41 @@ public class Overrides implements ConfigurationOverrides {
         this.sqlJoinMetadataPageSize = sqlJoinMetadataPageSize;
     }
 
+    @Override
+    public void setSqlMapMaxResizes(int sqlMapMaxResizes) {
+        this.sqlMapMaxResizes = sqlMapMaxResizes;
+    }
+
+    @Override
+    public void setSqlMapPageSize(int sqlMapPageSize) {
+        this.sqlMapPageSize = sqlMapPageSize;
+    }
+
     @Override
     public void setTestMicrosClock(MicrosecondClock testMicrosClock) {
         this.testMicrosClock = testMicrosClock;
     }
 
+    @Override
+    public void setWalApplyTableTimeQuota(long walApplyTableTimeQuota) {
+        this.walApplyTableTimeQuota = walApplyTableTimeQuota;
+    }
+
     @Override
     public void setWalSegmentRolloverRowCount(long walSegmentRolloverRowCount) {
         this.walSegmentRolloverRowCount = walSegmentRolloverRowCount;
     }
 
+    @Override
+    public void setWalSquashEnabled(Boolean walSquashEnabled) {
+        this.walSquashEnabled = walSquashEnabled;
+    }
+
+    @Override
+    public void setWalSquashMaxRows(long walSquashMaxRows) {
+        this.walSquashMaxRows = walSquashMaxRows;
+    }
+
     @Override
     public void setWalTxnNotificationQueueCapacity(int walTxnNotificationQueueCapacity) {
         this.walTxnNotificationQueueCapacity = walTxnNotificationQueueCapacity;
@@ -625,4 +903,14 @@ public class Overrides implements ConfigurationOverrides {
     public void setWriterCommandQueueSlotSize(long writerCommandQueueSlotSize) {
         this.writerCommandQueueSlotSize = writerCommandQueueSlotSize;
     }
+
+    @Override
+    public void setZoneMapBlockRowCount(int zoneMapBlockRowCount) {
+        this.zoneMapBlockRowCount = zoneMapBlockRowCount;
+    }
+
+    @Override
+    public void setZoneMapEnabled(Boolean zoneMapEnabled) {
+        this.zoneMapEnabled = zoneMapEnabled;
+    }
 }
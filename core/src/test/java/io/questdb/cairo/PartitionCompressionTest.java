@@ -0,0 +1,236 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.FilesFacade;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PartitionCompressionTest extends AbstractGriffinTest {
+
+    @Test
+    public void testBusyWriterDropsCompressedCopies() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final long nameTxn = getPartitionNameTxn(0);
+            final PartitionCompressionJob job = new PartitionCompressionJob(engine);
+            try (TableWriter ignored = getWriter("x")) {
+                Assert.assertEquals(0, job.compressPartitions(Long.MAX_VALUE));
+            }
+            Assert.assertEquals(nameTxn, getPartitionNameTxn(0));
+            assertFiles(0, "l", false);
+            try (Path path = new Path()) {
+                TableUtils.setCompressedCopyPath(path.of(configuration.getRoot()).concat(engine.getTableToken("x")), PartitionBy.DAY, 0, nameTxn);
+                Assert.assertFalse(configuration.getFilesFacade().exists(path.$()));
+            }
+
+            engine.releaseAllReaders();
+            Assert.assertEquals(4, job.compressPartitions(Long.MAX_VALUE));
+            assertFiles(0, "l", true);
+        });
+    }
+
+    @Test
+    public void testCompressedPartitionsAreReadable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select * from x";
+            final String expected = printSql(query);
+            final String aggregates = "select sum(l), sum(d), sum(i), count_distinct(s), count_distinct(str) from x";
+            final String expectedAggregates = printSql(aggregates);
+
+            final long nameTxn = getPartitionNameTxn(0);
+            engine.releaseAllReaders();
+            final PartitionCompressionJob job = new PartitionCompressionJob(engine);
+            Assert.assertEquals(4, job.compressPartitions(Long.MAX_VALUE));
+            // partitions are not compressed twice
+            Assert.assertEquals(0, job.compressPartitions(Long.MAX_VALUE));
+            Assert.assertNotEquals(nameTxn, getPartitionNameTxn(0));
+            assertFiles(0, "l", true);
+            assertFiles(0, "d", true);
+            assertFiles(0, "ts", false);
+            assertFiles(4, "l", false);
+            // previous versions are purged straight away without readers
+            try (Path path = new Path()) {
+                Assert.assertFalse(configuration.getFilesFacade().exists(partitionPath(path, 0, nameTxn).$()));
+            }
+
+            TestUtils.assertEquals(expected, printSql(query));
+            TestUtils.assertEquals(expectedAggregates, printSql(aggregates));
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsertIntoCompressedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            Assert.assertEquals(2, new PartitionCompressionJob(engine).compressPartitions(2 * 24 * 3_600_000_000L));
+            assertFiles(1, "i", true);
+
+            final String before = printSql("select l, d, i, ts from x where ts in '1970-01-02T00:00;1h'");
+            executeInsert("insert into x(l, d, i, ts) values (1, 1.5, 1, '1970-01-02T00:30:00.000000Z')");
+            assertSql(
+                    "select l, d, i, ts from x where ts in '1970-01-02T00:00;1h'",
+                    before.substring(0, before.lastIndexOf('\n', before.length() - 2) + 1) +
+                            "1\t1.5\t1\t1970-01-02T00:30:00.000000Z\n" +
+                            before.substring(before.lastIndexOf('\n', before.length() - 2) + 1)
+            );
+            assertSql("select count() from x", "count\n121\n");
+
+            // compressed copies are removed with the column
+            assertFiles(0, "l", true);
+            final long nameTxn = getPartitionNameTxn(0);
+            compile("alter table x drop column l");
+            try (Path path = new Path()) {
+                Assert.assertFalse(configuration.getFilesFacade().exists(TableUtils.zFile(partitionPath(path, 0, nameTxn), "l", TableUtils.COLUMN_NAME_TXN_NONE)));
+            }
+            assertSql("select count() from x", "count\n121\n");
+        });
+    }
+
+    @Test
+    public void testReaderKeepsPartitionVersionDuringCompression() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final long nameTxn = getPartitionNameTxn(0);
+            try (TableReader reader = getReader("x")) {
+                reader.openPartition(0);
+                final int columnIndex = TableReader.getPrimaryColumnIndex(reader.getColumnBase(0), 0);
+                Assert.assertEquals(1000, reader.getColumn(columnIndex).getLong(0));
+
+                Assert.assertEquals(4, new PartitionCompressionJob(engine).compressPartitions(Long.MAX_VALUE));
+
+                // the reader holds previous version of the partition
+                try (Path path = new Path()) {
+                    Assert.assertTrue(configuration.getFilesFacade().exists(partitionPath(path, 0, nameTxn).$()));
+                }
+                Assert.assertEquals(24_000, reader.getColumn(columnIndex).getLong(23 * Long.BYTES));
+
+                Assert.assertTrue(reader.reload());
+                reader.openPartition(0);
+                Assert.assertEquals(24_000, reader.getColumn(TableReader.getPrimaryColumnIndex(reader.getColumnBase(0), 0)).getLong(23 * Long.BYTES));
+            }
+            assertSql("select sum(l) from x where ts < '1970-01-02'", "sum\n300000\n");
+        });
+    }
+
+    @Test
+    public void testReadersShareDecompressedColumns() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            engine.releaseAllReaders();
+            Assert.assertEquals(4, new PartitionCompressionJob(engine).compressPartitions(Long.MAX_VALUE));
+
+            try (
+                    TableReader reader1 = getReader("x");
+                    TableReader reader2 = getReader("x")
+            ) {
+                Assert.assertNotSame(reader1, reader2);
+                reader1.openPartition(1);
+                reader2.openPartition(1);
+                final int columnIndex = TableReader.getPrimaryColumnIndex(reader1.getColumnBase(1), 0);
+                Assert.assertEquals(25_000, reader1.getColumn(columnIndex).getLong(0));
+                Assert.assertEquals(
+                        reader1.getColumn(columnIndex).getPageAddress(0),
+                        reader2.getColumn(columnIndex).getPageAddress(0)
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testRestoredPartitionKeepsCompressedFilesForReaders() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            engine.releaseAllReaders();
+            Assert.assertEquals(4, new PartitionCompressionJob(engine).compressPartitions(Long.MAX_VALUE));
+
+            try (TableReader reader = getReader("x")) {
+                reader.openPartition(0);
+                final int columnIndex = TableReader.getPrimaryColumnIndex(reader.getColumnBase(0), 0);
+
+                compile("update x set i = 0 where ts < '1970-01-02'");
+                // raw files are restored, compressed files stay while the reader may open them
+                assertFiles(0, "l", true, true);
+                Assert.assertEquals(1000, reader.getColumn(columnIndex).getLong(0));
+            }
+
+            executeInsert("insert into x(l, d, i, ts) values (1, 1.5, 1, '1970-01-06T00:00:00.000000Z')");
+            assertFiles(0, "l", false);
+            assertSql("select sum(l) l, sum(i) i from x where ts < '1970-01-02'", "l\ti\n300000\t0\n");
+        });
+    }
+
+    private void assertFiles(int partitionIndex, String columnName, boolean compressed) {
+        assertFiles(partitionIndex, columnName, compressed, !compressed);
+    }
+
+    private void assertFiles(int partitionIndex, String columnName, boolean compressed, boolean raw) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (Path path = new Path()) {
+            partitionPath(path, partitionIndex, getPartitionNameTxn(partitionIndex));
+            final int plen = path.length();
+            Assert.assertEquals(compressed, ff.exists(TableUtils.zFile(path, columnName, TableUtils.COLUMN_NAME_TXN_NONE)));
+            Assert.assertEquals(raw, ff.exists(TableUtils.dFile(path.trimTo(plen), columnName, TableUtils.COLUMN_NAME_TXN_NONE)));
+        }
+    }
+
+    private void createTable() throws Exception {
+        compile(
+                "create table x as (" +
+                        "select" +
+                        " x * 1000 l," +
+                        " (x % 10) * 0.25 d," +
+                        " rnd_int(0, 100, 2) i," +
+                        " rnd_symbol('a', 'b', 'c') s," +
+                        " rnd_str(5, 10, 2) str," +
+                        " timestamp_sequence(0, 3600000000) ts" +
+                        " from long_sequence(120)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+    }
+
+    private long getPartitionNameTxn(int partitionIndex) {
+        try (TableReader reader = getReader("x")) {
+            return reader.getTxFile().getPartitionNameTxn(partitionIndex);
+        }
+    }
+
+    private Path partitionPath(Path path, int partitionIndex, long nameTxn) {
+        path.of(configuration.getRoot()).concat(engine.getTableToken("x"));
+        TableUtils.setPathForPartition(path, PartitionBy.DAY, partitionIndex * 24 * 3_600_000_000L, false);
+        TableUtils.txnPartitionConditionally(path, nameTxn);
+        return path;
+    }
+
+    private String printSql(String query) throws Exception {
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
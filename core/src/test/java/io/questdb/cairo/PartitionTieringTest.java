@@ -0,0 +1,311 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.*;
+import io.questdb.std.str.LPSZ;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+
+public class PartitionTieringTest extends AbstractGriffinTest {
+    private String coldRoot;
+
+    @Before
+    public void setUp() {
+        super.setUp();
+        // cold partitions are soft links, these are not detected on Windows
+        Assume.assumeTrue(Os.type != Os.WINDOWS);
+        try {
+            coldRoot = temp.newFolder().getAbsolutePath();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        configOverridePartitionTieringRoot(coldRoot);
+    }
+
+    @Test
+    public void testBusyTableIsNotMoved() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (TableWriter ignore = getWriter("x")) {
+                movePartitions(Long.MAX_VALUE);
+            }
+            assertPartition(0, false);
+            assertPartition(3, false);
+            // copies made before the writer was found busy are removed
+            assertNoCopies();
+        });
+    }
+
+    @Test
+    public void testChangedPartitionCopyIsDropped() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final FilesFacade ff = configuration.getFilesFacade();
+            final LongList copies = new LongList();
+            long structureVersion;
+            long truncateVersion;
+            try (
+                    TableReader reader = getReader("x");
+                    Path path = new Path()
+            ) {
+                final TxReader txFile = reader.getTxFile();
+                final long partitionTimestamp = txFile.getPartitionTimestamp(0);
+                final long partitionNameTxn = txFile.getPartitionNameTxn(0);
+                path.of(coldRoot).concat(reader.getTableToken());
+                TableUtils.setColdCopyPath(path, PartitionBy.DAY, partitionTimestamp, partitionNameTxn);
+                Assert.assertEquals(0, ff.mkdirs(path.slash$(), configuration.getMkDirMode()));
+                // partition had fewer rows when it was copied
+                copies.add(partitionTimestamp, partitionNameTxn, txFile.getPartitionSize(0) - 1, txFile.getPartitionColumnVersion(0));
+                structureVersion = txFile.getStructureVersion();
+                truncateVersion = txFile.getTruncateVersion();
+            }
+            try (TableWriter writer = getWriter("x")) {
+                Assert.assertEquals(0, writer.attachColdPartitions(copies, structureVersion, truncateVersion));
+            }
+            assertPartition(0, false);
+            assertNoCopies();
+        });
+    }
+
+    @Test
+    public void testCopiesAreSyncedBeforeAttach() throws Exception {
+        final ObjList<String> events = new ObjList<>();
+        ff = new TestFilesFacadeImpl() {
+            private final IntObjHashMap<String> fdPaths = new IntObjHashMap<>();
+
+            @Override
+            public boolean close(int fd) {
+                fdPaths.remove(fd);
+                return super.close(fd);
+            }
+
+            @Override
+            public int fsync(int fd) {
+                final String path = fdPaths.get(fd);
+                if (path != null && path.startsWith(coldRoot)) {
+                    events.add("fsync " + path);
+                }
+                return super.fsync(fd);
+            }
+
+            @Override
+            public int openRO(LPSZ name) {
+                final int fd = super.openRO(name);
+                if (fd > -1) {
+                    fdPaths.put(fd, name.toString());
+                }
+                return fd;
+            }
+
+            @Override
+            public int rename(LPSZ from, LPSZ to) {
+                if (Chars.startsWith(from, coldRoot)) {
+                    events.add("rename " + from);
+                }
+                return super.rename(from, to);
+            }
+        };
+        assertMemoryLeak(() -> {
+            createTable();
+            movePartitions(Long.MAX_VALUE);
+            assertPartition(0, true);
+
+            final String coldTableDir = coldRoot + Files.SEPARATOR + engine.getTableToken("x").getDirName();
+            int firstRename = -1;
+            for (int i = 0, n = events.size(); i < n; i++) {
+                if (events.getQuick(i).startsWith("rename ")) {
+                    firstRename = i;
+                    break;
+                }
+            }
+            Assert.assertTrue(firstRename > 0);
+            // column files, the copy and the cold table directory are synced before the writer attaches the copies
+            boolean columnSynced = false;
+            boolean copySynced = false;
+            boolean tableDirSynced = false;
+            for (int i = 0; i < firstRename; i++) {
+                final String event = events.getQuick(i);
+                columnSynced |= event.endsWith(Files.SEPARATOR + "l.d");
+                copySynced |= event.endsWith(TableUtils.COLD_COPY_SUFFIX);
+                tableDirSynced |= event.equals("fsync " + coldTableDir);
+            }
+            Assert.assertTrue(columnSynced);
+            Assert.assertTrue(copySynced);
+            Assert.assertTrue(tableDirSynced);
+            // the renames are synced before the transaction is committed
+            Assert.assertEquals("fsync " + coldTableDir, events.getQuick(events.size() - 1));
+        });
+    }
+
+    @Test
+    public void testDropTableRemovesColdPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            movePartitions(Long.MAX_VALUE);
+            assertPartition(3, true);
+            final TableToken tableToken = engine.getTableToken("x");
+            try (Path path = new Path()) {
+                path.of(coldRoot).concat(tableToken).$();
+                Assert.assertTrue(configuration.getFilesFacade().exists(path));
+                engine.releaseAllReaders();
+                compile("drop table x");
+                Assert.assertFalse(configuration.getFilesFacade().exists(path));
+            }
+        });
+    }
+
+    @Test
+    public void testMovedPartitionsAreReadable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select * from x";
+            final String expected = printSql(query);
+
+            movePartitions(Long.MAX_VALUE);
+            final long txn = getTxn();
+            // moved partitions are links now and are not moved twice
+            movePartitions(Long.MAX_VALUE);
+            Assert.assertEquals(txn, getTxn());
+            assertPartition(0, true);
+            assertPartition(3, true);
+            assertPartition(4, false);
+
+            TestUtils.assertEquals(expected, printSql(query));
+            assertSql("select count(), sum(l) from x where ts in '1970-01-02'", "count\tsum\n24\t876000\n");
+        });
+    }
+
+    @Test
+    public void testOutOfOrderInsertIntoMovedPartition() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            movePartitions(2 * 24 * 3_600_000_000L);
+            assertPartition(1, true);
+            assertPartition(2, false);
+
+            // merge rewrites the partition on the hot volume and purges the cold copy
+            executeInsert("insert into x(l, d, i, ts) values (1, 1.5, 1, '1970-01-02T00:30:00.000000Z')");
+            assertSql("select count() from x where ts in '1970-01-02'", "count\n25\n");
+            assertSql("select count() from x", "count\n121\n");
+            assertPartition(1, false);
+            movePartitions(2 * 24 * 3_600_000_000L);
+            assertPartition(1, true);
+            assertSql("select count() from x where ts in '1970-01-02'", "count\n25\n");
+        });
+    }
+
+    @Test
+    public void testTierSizes() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final PartitionTieringMetrics tieringMetrics = engine.getMetrics().partitionTiering();
+            movePartitions(0);
+            final long hotBytes = tieringMetrics.getHotBytes();
+            Assert.assertTrue(hotBytes > 0);
+            Assert.assertEquals(0, tieringMetrics.getColdBytes());
+
+            movePartitions(Long.MAX_VALUE);
+            // moved partitions are measured on the next run
+            movePartitions(Long.MAX_VALUE);
+            Assert.assertTrue(tieringMetrics.getColdBytes() > 0);
+            Assert.assertEquals(hotBytes, tieringMetrics.getHotBytes() + tieringMetrics.getColdBytes());
+        });
+    }
+
+    private void assertNoCopies() {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (
+                TableReader reader = getReader("x");
+                Path path = new Path()
+        ) {
+            final TxReader txFile = reader.getTxFile();
+            for (int i = 0, n = txFile.getPartitionCount(); i < n; i++) {
+                path.of(coldRoot).concat(reader.getTableToken());
+                TableUtils.setColdCopyPath(path, reader.getPartitionedBy(), txFile.getPartitionTimestamp(i), txFile.getPartitionNameTxn(i));
+                Assert.assertFalse(ff.exists(path.$()));
+            }
+        }
+    }
+
+    private void assertPartition(int partitionIndex, boolean cold) {
+        final FilesFacade ff = configuration.getFilesFacade();
+        try (
+                TableReader reader = getReader("x");
+                Path path = new Path()
+        ) {
+            final TxReader txFile = reader.getTxFile();
+            path.of(configuration.getRoot()).concat(reader.getTableToken());
+            TableUtils.setPathForPartition(path, reader.getPartitionedBy(), txFile.getPartitionTimestamp(partitionIndex), false);
+            TableUtils.txnPartitionConditionally(path, txFile.getPartitionNameTxn(partitionIndex));
+            Assert.assertTrue(ff.exists(path.$()));
+            Assert.assertEquals(cold, ff.isSoftLink(path));
+
+            path.of(coldRoot).concat(reader.getTableToken());
+            TableUtils.setPathForPartition(path, reader.getPartitionedBy(), txFile.getPartitionTimestamp(partitionIndex), false);
+            TableUtils.txnPartitionConditionally(path, txFile.getPartitionNameTxn(partitionIndex));
+            Assert.assertEquals(cold, ff.exists(path.$()));
+        }
+    }
+
+    private void createTable() throws Exception {
+        compile(
+                "create table x as (" +
+                        "select" +
+                        " x * 1000 l," +
+                        " (x % 10) * 0.25 d," +
+                        " rnd_int(0, 100, 2) i," +
+                        " rnd_symbol('a', 'b', 'c') s," +
+                        " rnd_str(5, 10, 2) str," +
+                        " timestamp_sequence(0, 3600000000) ts" +
+                        " from long_sequence(120)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+    }
+
+    private long getTxn() {
+        try (TableReader reader = getReader("x")) {
+            return reader.getTxn();
+        }
+    }
+
+    private void movePartitions(long timestampHi) {
+        engine.releaseAllReaders();
+        new PartitionTieringJob(engine).movePartitions(timestampHi);
+    }
+
+    private String printSql(String query) throws Exception {
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static io.questdb.cairo.TableUtils.COLUMN_NAME_TXN_NONE;
+
+public class SymbolMapCacheTest extends AbstractGriffinTest {
+    private static final SymbolValueCountCollector NOOP_COLLECTOR = (symbolIndexInTxWriter, count) -> {
+    };
+
+    @Test
+    public void testPooledReadersShareValues() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_symbol('a','b','c') s, timestamp_sequence(0, 1000000) ts from long_sequence(100)) timestamp(ts) partition by day");
+
+            try (
+                    TableReader reader1 = getReader("x");
+                    TableReader reader2 = getReader("x")
+            ) {
+                Assert.assertNotSame(reader1, reader2);
+                final SymbolMapReader symbolMapReader1 = reader1.getSymbolMapReader(0);
+                final SymbolMapReader symbolMapReader2 = reader2.getSymbolMapReader(0);
+                Assert.assertTrue(symbolMapReader1.isCached());
+                for (int key = 0, n = symbolMapReader1.getSymbolCount(); key < n; key++) {
+                    Assert.assertSame(symbolMapReader1.valueOf(key), symbolMapReader2.valueOf(key));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testReaderReleasesEntry() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            try (Path path = new Path().of(configuration.getRoot())) {
+                SymbolMapTest.create(path, "x", 16, true);
+                try (SymbolMapWriter writer = new SymbolMapWriter(configuration, path, "x", COLUMN_NAME_TXN_NONE, 0, -1, NOOP_COLLECTOR)) {
+                    for (int i = 0; i < 16; i++) {
+                        writer.put("key" + i);
+                    }
+                }
+
+                final SymbolMapCache cache = new SymbolMapCache();
+                try (
+                        SymbolMapReaderImpl reader1 = new SymbolMapReaderImpl(configuration, path, "x", COLUMN_NAME_TXN_NONE, 16, cache, 1, 0);
+                        SymbolMapReaderImpl reader2 = new SymbolMapReaderImpl(configuration, path, "x", COLUMN_NAME_TXN_NONE, 16, cache, 1, 0);
+                        SymbolMapReaderImpl reader3 = new SymbolMapReaderImpl(configuration, path, "x", COLUMN_NAME_TXN_NONE, 16, cache, 1, 1)
+                ) {
+                    Assert.assertEquals(2, cache.getEntryCount());
+                    for (int key = 0; key < 16; key++) {
+                        TestUtils.assertEquals("key" + key, reader1.valueOf(key));
+                        Assert.assertSame(reader1.valueOf(key), reader2.valueOf(key));
+                        // different truncate version does not see values of the other one
+                        Assert.assertNotSame(reader1.valueOf(key), reader3.valueOf(key));
+                    }
+
+                    // shrinking symbol count forgets values beyond it
+                    final CharSequence value = reader1.valueOf(10);
+                    reader1.updateSymbolCount(8);
+                    Assert.assertNull(reader1.valueOf(10));
+                    Assert.assertNotSame(value, reader2.valueOf(10));
+
+                    reader1.close();
+                    reader3.close();
+                    Assert.assertEquals(1, cache.getEntryCount());
+                }
+                Assert.assertEquals(0, cache.getEntryCount());
+            }
+        });
+    }
+}
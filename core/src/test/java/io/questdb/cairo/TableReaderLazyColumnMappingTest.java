@@ -0,0 +1,112 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TableReaderLazyColumnMappingTest extends AbstractGriffinTest {
+
+    @Test
+    public void testColumnMappedOnFirstAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            configOverrideReaderLazyColumnMappingEnabled(true);
+            createTable();
+
+            try (TableReader reader = getReader("x")) {
+                reader.openPartition(0);
+                Assert.assertEquals(0, reader.getMappedColumnBytes());
+
+                final int columnIndex = reader.getMetadata().getColumnIndex("l");
+                final int absoluteIndex = TableReader.getPrimaryColumnIndex(reader.getColumnBase(0), columnIndex);
+                Assert.assertEquals(42, reader.getColumn(absoluteIndex).getLong(0));
+                Assert.assertEquals(24 * Long.BYTES, reader.getMappedColumnBytes());
+            }
+        });
+    }
+
+    @Test
+    public void testEagerMapping() throws Exception {
+        assertMemoryLeak(() -> {
+            configOverrideReaderLazyColumnMappingEnabled(false);
+            createTable();
+
+            try (TableReader reader = getReader("x")) {
+                reader.openPartition(0);
+                Assert.assertTrue(reader.getMappedColumnBytes() > 24 * Long.BYTES);
+            }
+        });
+    }
+
+    @Test
+    public void testPartitionGrowsBeforeFirstAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            configOverrideReaderLazyColumnMappingEnabled(true);
+            createTable();
+
+            try (TableReader reader = new TableReader(configuration, engine.getTableToken("x"))) {
+                reader.openPartition(0);
+                executeInsert("insert into x select 43, 'str', 'sym', 1.0, '1970-01-01T23:30' from long_sequence(1)");
+                Assert.assertTrue(reader.reload());
+                Assert.assertEquals(0, reader.getMappedColumnBytes());
+
+                final int columnIndex = reader.getMetadata().getColumnIndex("l");
+                final int absoluteIndex = TableReader.getPrimaryColumnIndex(reader.getColumnBase(0), columnIndex);
+                Assert.assertEquals(43, reader.getColumn(absoluteIndex).getLong(24 * Long.BYTES));
+                Assert.assertEquals(25 * Long.BYTES, reader.getMappedColumnBytes());
+            }
+        });
+    }
+
+    @Test
+    public void testQueryResults() throws Exception {
+        assertMemoryLeak(() -> {
+            configOverrideReaderLazyColumnMappingEnabled(true);
+            createTable();
+            compile("alter table x add column i int");
+            executeInsert("insert into x select 7, 'other', 'b', 2.0, '1970-01-02T00:30', 11 from long_sequence(3)");
+
+            assertSql(
+                    "select l, i, s from x where d > 1.5",
+                    "l\ti\ts\n" +
+                            "7\t11\tother\n" +
+                            "7\t11\tother\n" +
+                            "7\t11\tother\n"
+            );
+            assertSql("select k, count() from x order by k", "k\tcount\na\t24\nb\t3\n");
+        });
+    }
+
+    private void createTable() throws Exception {
+        compile(
+                "create table x as (" +
+                        "select 42L l, 'str' s, cast('a' as symbol) k, 1.0 d, timestamp_sequence(0, 3600000000) ts " +
+                        "from long_sequence(24)" +
+                        ") timestamp(ts) partition by day"
+        );
+    }
+}
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.PageFrameCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.async.ZoneMapFilter;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.CompiledQuery;
+import io.questdb.std.str.Path;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+public class ZoneMapTest extends AbstractGriffinTest {
+
+    @Before
+    public void setUp() {
+        pageFrameMaxRows = 10;
+        super.setUp();
+        configOverrideZoneMapEnabled(true);
+        configOverrideZoneMapBlockRowCount(10);
+    }
+
+    @Test
+    public void testAggregatesMatch() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String[] queries = {
+                    "select count(), min(l), max(l), sum(l), min(i), max(i), sum(i), min(d), max(d) from x",
+                    "select count(), min(ts), max(ts), sum(l) from x where ts in '1970-01-02'",
+                    "select count(), min(l), max(l), sum(i) from x where ts > '1970-01-01T10:00:00.000000Z'",
+                    "select max(i), sum(d) from x"
+            };
+            assertQueries(queries);
+
+            executeInsert("insert into x(l, d, i, ts) values (-7, -7.5, null, '1970-01-02T05:30:00.000000Z')");
+            assertQueries(queries);
+
+            executeOperation("update x set i = 1000, l = null where l = 30", CompiledQuery.UPDATE);
+            try (
+                    TableReader reader = getReader("x");
+                    ZoneMap zoneMap = new ZoneMap()
+            ) {
+                // statistics of the updated partition follow new column version
+                Assert.assertTrue(reader.readZoneMap(1, reader.getMetadata().getColumnIndex("i"), 0, 25, zoneMap));
+                Assert.assertEquals(1000, zoneMap.getMaxLong());
+            }
+            assertQueries(queries);
+        });
+    }
+
+    @Test
+    public void testColumnTopAndOutOfOrderInsert() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("alter table x add column k long");
+            executeInsert("insert into x(l, d, i, k, ts) values (1000, 1000.5, 1000, 7, '1970-01-01T05:30:00.000000Z')");
+            executeInsert("insert into x(l, d, i, k, ts) values (2000, -1000.5, -1000, 8, '1970-01-06T05:30:00.000000Z')");
+            try (
+                    TableReader reader = getReader("x");
+                    ZoneMap zoneMap = new ZoneMap()
+            ) {
+                final int k = reader.getMetadata().getColumnIndex("k");
+                // column is added after the partition is sealed
+                Assert.assertFalse(reader.readZoneMap(1, k, 0, 24, zoneMap));
+                // all rows of the partition are above column top
+                Assert.assertTrue(reader.readZoneMap(4, k, 0, 4, zoneMap));
+                Assert.assertFalse(zoneMap.hasValues());
+            }
+            assertQueries(
+                    "x where k > 0",
+                    "x where k = 8",
+                    "x where l = 1000",
+                    "x where l >= 2000",
+                    "x where d > 999",
+                    "x where d < -999",
+                    "x where i < -999"
+            );
+        });
+    }
+
+    @Test
+    public void testFilterResultsMatch() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertQueries(
+                    "x where l > 50",
+                    "x where l = 30",
+                    "x where 30 >= l",
+                    "x where l > 1.5 and l < 3.5",
+                    "x where l > -1 and i < -5",
+                    "x where d < 10.5 and i > 10",
+                    "x where d = 12.5",
+                    "x where d > -0.5",
+                    "x where -10 > i",
+                    "x where i > 90 or l = 5",
+                    "x where s = 'a' and l <= 24"
+            );
+        });
+    }
+
+    @Test
+    public void testPageFramesAreSkipped() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (
+                    RecordCursorFactory factory = compiler.compile("x", sqlExecutionContext).getRecordCursorFactory();
+                    ZoneMapFilter filter = new ZoneMapFilter()
+            ) {
+                filter.add(factory.getMetadata().getColumnIndex("l"), ZoneMapFilter.OP_GT, 50L);
+                int frameCount = 0;
+                int matchCount = 0;
+                try (PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext, ORDER_ASC)) {
+                    while (cursor.next() != null) {
+                        frameCount++;
+                        if (filter.mayMatch(cursor)) {
+                            matchCount++;
+                        }
+                    }
+                }
+                Assert.assertEquals(13, frameCount);
+                // frames of the first two partitions hold values up to 48
+                Assert.assertEquals(7, matchCount);
+            }
+        });
+    }
+
+    @Test
+    public void testUpdatedColumnIsNotSkipped() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            executeOperation("update x set l = 5000 where l = 5", CompiledQuery.UPDATE);
+            assertSql("select l, ts from x where l = 5000", "l\tts\n5000\t1970-01-01T04:00:00.000000Z\n");
+        });
+    }
+
+    @Test
+    public void testZoneMapsOfSealedPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertFiles("1970-01-01", "l", true);
+            assertFiles("1970-01-04", "d", true);
+            assertFiles("1970-01-04", "i", true);
+            assertFiles("1970-01-01", "s", false);
+            // last partition is still open for appends
+            assertFiles("1970-01-05", "l", false);
+
+            try (
+                    TableReader reader = getReader("x");
+                    ZoneMap zoneMap = new ZoneMap()
+            ) {
+                final int l = reader.getMetadata().getColumnIndex("l");
+                Assert.assertTrue(reader.readZoneMap(0, l, 0, 24, zoneMap));
+                Assert.assertEquals(1, zoneMap.getMinLong());
+                Assert.assertEquals(24, zoneMap.getMaxLong());
+                Assert.assertEquals(0, zoneMap.getNullCount());
+                Assert.assertEquals(300, zoneMap.getSumLong());
+
+                Assert.assertTrue(reader.readZoneMap(1, l, 12, 15, zoneMap));
+                Assert.assertEquals(35, zoneMap.getMinLong());
+                Assert.assertEquals(44, zoneMap.getMaxLong());
+                Assert.assertEquals(10, zoneMap.getRowCount());
+
+                final int d = reader.getMetadata().getColumnIndex("d");
+                Assert.assertTrue(reader.readZoneMap(2, d, 20, 24, zoneMap));
+                Assert.assertTrue(zoneMap.isFloating());
+                Assert.assertEquals(34.5, zoneMap.getMinDouble(), 0.0);
+                Assert.assertEquals(36.0, zoneMap.getMaxDouble(), 0.0);
+                Assert.assertEquals(141.0, zoneMap.getSumDouble(), 0.0);
+
+                Assert.assertFalse(reader.readZoneMap(4, l, 0, 4, zoneMap));
+            }
+        });
+    }
+
+    private void assertFiles(String partition, String columnName, boolean exists) {
+        try (Path path = new Path()) {
+            path.of(configuration.getRoot()).concat(engine.getTableToken("x")).concat(partition);
+            Assert.assertEquals(exists, configuration.getFilesFacade().exists(TableUtils.zmFile(path, columnName, TableUtils.COLUMN_NAME_TXN_NONE)));
+        }
+    }
+
+    private void assertQueries(String... queries) throws Exception {
+        for (String query : queries) {
+            configOverrideZoneMapEnabled(false);
+            final String expected = printSql(query);
+            configOverrideZoneMapEnabled(true);
+            TestUtils.assertEquals(query, expected, printSql(query));
+        }
+    }
+
+    private void createTable() throws Exception {
+        compile(
+                "create table x as (" +
+                        "select" +
+                        " x l," +
+                        " x * 0.5 d," +
+                        " rnd_int(-100, 100, 2) i," +
+                        " rnd_symbol('a', 'b', 'c') s," +
+                        " timestamp_sequence(0, 3600000000) ts" +
+                        " from long_sequence(100)" +
+                        ") timestamp(ts) partition by DAY"
+        );
+    }
+
+    private String printSql(String query) throws Exception {
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
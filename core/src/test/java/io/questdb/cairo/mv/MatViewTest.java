@@ -0,0 +1,243 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo.mv;
+
+import io.questdb.cairo.TableReader;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MatViewTest extends AbstractGriffinTest {
+
+    @Test
+    public void testBaseTableMustBeWal() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table base (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY BYPASS WAL");
+            assertCreateFails(
+                    "create materialized view v as (select ts, sym, sum(price) price from base sample by 1h align to calendar) timestamp(ts) partition by DAY",
+                    "materialized view base table must be a WAL table"
+            );
+        });
+    }
+
+    @Test
+    public void testCalendarAlignmentRequired() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            assertCreateFails(
+                    "create materialized view v as (select ts, sym, sum(price) price from base sample by 1h) timestamp(ts) partition by DAY",
+                    "materialized view requires ALIGN TO CALENDAR without time zone or offset"
+            );
+            assertCreateFails(
+                    "create materialized view v as (select ts, sym, sum(price) price from base sample by 1h fill(prev) align to calendar) timestamp(ts) partition by DAY",
+                    "materialized view does not support FILL"
+            );
+        });
+    }
+
+    @Test
+    public void testFullRefreshRemovesPartitions() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            executeInsert("insert into base values ('a', 1, '2022-01-01T00:10')");
+            executeInsert("insert into base values ('b', 2, '2022-01-02T00:10')");
+            executeInsert("insert into base values ('c', 3, '2022-01-03T00:10')");
+            drainWalQueue();
+            createView();
+
+            // last partition of the view has no rows after refresh
+            compile("alter table base drop partition list '2022-01-03'");
+            drainWalQueueAndRefreshViews();
+            assertSql(
+                    "select min(ts), max(ts), count() from v",
+                    "min\tmax\tcount\n" +
+                            "2022-01-01T00:00:00.000000Z\t2022-01-02T00:00:00.000000Z\t2\n"
+            );
+
+            compile("alter table base drop partition list '2022-01-01'");
+            drainWalQueueAndRefreshViews();
+            assertSql(
+                    "select min(ts), max(ts), count() from v",
+                    "min\tmax\tcount\n" +
+                            "2022-01-02T00:00:00.000000Z\t2022-01-02T00:00:00.000000Z\t1\n"
+            );
+
+            executeInsert("insert into base values ('d', 4, '2022-01-04T00:10')");
+            drainWalQueueAndRefreshViews();
+            assertViewMatchesQuery();
+        });
+    }
+
+    @Test
+    public void testIncrementalRefresh() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            executeInsert("insert into base values ('a', 1, '2022-01-01T00:10')");
+            executeInsert("insert into base values ('b', 2, '2022-01-01T00:20')");
+            executeInsert("insert into base values ('a', 3, '2022-01-01T01:10')");
+            executeInsert("insert into base values ('a', 4, '2022-01-02T00:05')");
+            drainWalQueue();
+
+            createView();
+            assertSql(
+                    "v order by ts, sym",
+                    "ts\tsym\tprice\tcnt\n" +
+                            "2022-01-01T00:00:00.000000Z\ta\t1.0\t1\n" +
+                            "2022-01-01T00:00:00.000000Z\tb\t2.0\t1\n" +
+                            "2022-01-01T01:00:00.000000Z\ta\t3.0\t1\n" +
+                            "2022-01-02T00:00:00.000000Z\ta\t4.0\t1\n"
+            );
+
+            // out-of-order row into the first day and a row into the existing bucket of the last day
+            executeInsert("insert into base values ('b', 5, '2022-01-01T01:30')");
+            executeInsert("insert into base values ('a', 6, '2022-01-02T00:45')");
+            drainWalQueueAndRefreshViews();
+
+            assertSql(
+                    "v order by ts, sym",
+                    "ts\tsym\tprice\tcnt\n" +
+                            "2022-01-01T00:00:00.000000Z\ta\t1.0\t1\n" +
+                            "2022-01-01T00:00:00.000000Z\tb\t2.0\t1\n" +
+                            "2022-01-01T01:00:00.000000Z\ta\t3.0\t1\n" +
+                            "2022-01-01T01:00:00.000000Z\tb\t5.0\t1\n" +
+                            "2022-01-02T00:00:00.000000Z\ta\t10.0\t2\n"
+            );
+            assertViewMatchesQuery();
+        });
+    }
+
+    @Test
+    public void testRefreshAfterRegistryReload() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            executeInsert("insert into base values ('a', 1, '2022-01-01T00:10')");
+            drainWalQueue();
+            createView();
+
+            // definition is read back from the view directory
+            engine.getMatViewRegistry().clear();
+            Assert.assertTrue(engine.getMatViewRegistry().hasViews(engine.getTableToken("base")));
+
+            executeInsert("insert into base values ('a', 2, '2022-01-03T00:10')");
+            drainWalQueueAndRefreshViews();
+            assertSql(
+                    "v order by ts, sym",
+                    "ts\tsym\tprice\tcnt\n" +
+                            "2022-01-01T00:00:00.000000Z\ta\t1.0\t1\n" +
+                            "2022-01-03T00:00:00.000000Z\ta\t2.0\t1\n"
+            );
+        });
+    }
+
+    @Test
+    public void testRefreshIsSingleTransaction() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            executeInsert("insert into base values ('a', 1, '2022-01-01T00:10')");
+            executeInsert("insert into base values ('a', 2, '2022-01-02T00:10')");
+            drainWalQueue();
+            createView();
+
+            try (TableReader reader = engine.getReader(sqlExecutionContext.getCairoSecurityContext(), engine.getTableToken("v"))) {
+                final long txn = reader.getTxn();
+                executeInsert("insert into base values ('b', 3, '2022-01-01T00:20')");
+                executeInsert("insert into base values ('b', 4, '2022-01-02T00:20')");
+                drainWalQueueAndRefreshViews();
+
+                // partitions replaced by refresh stay readable until reader moves on
+                Assert.assertEquals(2, reader.size());
+                Assert.assertTrue(reader.reload());
+                Assert.assertEquals(txn + 1, reader.getTxn());
+                Assert.assertEquals(4, reader.size());
+            }
+            assertViewMatchesQuery();
+        });
+    }
+
+    @Test
+    public void testTruncateBaseTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createBaseTable();
+            executeInsert("insert into base values ('a', 1, '2022-01-01T00:10')");
+            executeInsert("insert into base values ('b', 2, '2022-01-02T00:10')");
+            drainWalQueue();
+            createView();
+            assertSql("select count() from v", "count\n2\n");
+
+            compile("truncate table base");
+            executeInsert("insert into base values ('c', 3, '2022-01-05T00:10')");
+            drainWalQueueAndRefreshViews();
+            assertSql(
+                    "v",
+                    "ts\tsym\tprice\tcnt\n" +
+                            "2022-01-05T00:00:00.000000Z\tc\t3.0\t1\n"
+            );
+        });
+    }
+
+    private void assertCreateFails(String sql, String message) throws Exception {
+        try {
+            compile(sql);
+            Assert.fail();
+        } catch (SqlException e) {
+            TestUtils.assertContains(e.getFlyweightMessage(), message);
+        }
+    }
+
+    private void assertViewMatchesQuery() throws Exception {
+        final String expected = printSql("select ts, sym, sum(price) price, count() cnt from base sample by 1h align to calendar order by ts, sym");
+        TestUtils.assertEquals(expected, printSql("v order by ts, sym"));
+    }
+
+    private static void drainWalQueueAndRefreshViews() {
+        drainWalQueue();
+        try (MatViewRefreshJob refreshJob = new MatViewRefreshJob(engine, 1, 1)) {
+            //noinspection StatementWithEmptyBody
+            while (refreshJob.run(0)) {
+                // run until empty
+            }
+        }
+    }
+
+    private void createBaseTable() throws SqlException {
+        compile("create table base (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY WAL");
+    }
+
+    private void createView() throws SqlException {
+        compile(
+                "create materialized view v as (" +
+                        "select ts, sym, sum(price) price, count() cnt from base sample by 1h align to calendar" +
+                        ") timestamp(ts) partition by DAY"
+        );
+    }
+
+    private String printSql(String query) throws Exception {
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.wal;
+
+import io.questdb.cairo.TableToken;
+import io.questdb.std.ObjList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WalApplySchedulerTest {
+    private final TableToken tableA = new TableToken("a", "a~1", 1, true);
+    private final TableToken tableB = new TableToken("b", "b~2", 2, true);
+    private final TableToken tableC = new TableToken("c", "c~3", 3, true);
+
+    @Test
+    public void testClaimMostLagged() {
+        WalApplyScheduler scheduler = new WalApplyScheduler();
+        Assert.assertNull(scheduler.claim());
+
+        scheduler.notifyCommitted(tableA, 1);
+        scheduler.notifyCommitted(tableB, 1);
+        scheduler.notifyCommitted(tableB, 2);
+        scheduler.notifyCommitted(tableB, 3);
+        scheduler.notifyCommitted(tableC, 1);
+        scheduler.notifyCommitted(tableC, 2);
+
+        Assert.assertEquals(1, scheduler.getLag(tableA));
+        Assert.assertEquals(3, scheduler.getLag(tableB));
+        Assert.assertEquals(2, scheduler.getLag(tableC));
+
+        Assert.assertSame(tableB, scheduler.claim());
+        Assert.assertSame(tableC, scheduler.claim());
+        Assert.assertSame(tableA, scheduler.claim());
+        // all tables are claimed
+        Assert.assertNull(scheduler.claim());
+
+        scheduler.release(tableA, 1, 1);
+        scheduler.release(tableB, 3, 3);
+        scheduler.release(tableC, 2, 2);
+        Assert.assertNull(scheduler.claim());
+        Assert.assertEquals(0, scheduler.getLag(tableB));
+    }
+
+    @Test
+    public void testCopyTo() {
+        WalApplyScheduler scheduler = new WalApplyScheduler();
+        scheduler.notifyCommitted(tableA, 3);
+        scheduler.notifyCommitted(tableB, 1);
+        Assert.assertSame(tableA, scheduler.claim());
+        scheduler.release(tableA, 1, 5);
+        Assert.assertSame(tableB, scheduler.claim());
+
+        ObjList<WalApplyScheduler.TableLag> sink = new ObjList<>();
+        scheduler.copyTo(sink);
+        Assert.assertEquals(2, sink.size());
+
+        WalApplyScheduler.TableLag lag = sink.getQuick(0);
+        Assert.assertSame(tableA, lag.getTableToken());
+        Assert.assertEquals(1, lag.getAppliedTxn());
+        Assert.assertEquals(5, lag.getSequencerTxn());
+        Assert.assertEquals(4, lag.getLag());
+        Assert.assertFalse(lag.isClaimed());
+
+        lag = sink.getQuick(1);
+        Assert.assertSame(tableB, lag.getTableToken());
+        Assert.assertTrue(lag.isClaimed());
+
+        // sink elements are reused
+        scheduler.release(tableB, Long.MAX_VALUE, -1);
+        scheduler.copyTo(sink);
+        Assert.assertEquals(1, sink.size());
+        scheduler.notifyCommitted(tableC, 1);
+        scheduler.copyTo(sink);
+        Assert.assertEquals(2, sink.size());
+        Assert.assertSame(lag, sink.getQuick(1));
+        Assert.assertSame(tableC, lag.getTableToken());
+    }
+
+    @Test
+    public void testDroppedTableIsRemoved() {
+        WalApplyScheduler scheduler = new WalApplyScheduler();
+        scheduler.notifyCommitted(tableA, 1);
+        scheduler.notifyCommitted(tableA, Long.MAX_VALUE);
+        Assert.assertSame(tableA, scheduler.claim());
+        scheduler.release(tableA, Long.MAX_VALUE, -1);
+
+        ObjList<WalApplyScheduler.TableLag> sink = new ObjList<>();
+        scheduler.copyTo(sink);
+        Assert.assertEquals(0, sink.size());
+        Assert.assertNull(scheduler.claim());
+    }
+
+    @Test
+    public void testLaggedTableDoesNotStarveOthers() {
+        WalApplyScheduler scheduler = new WalApplyScheduler();
+        scheduler.notifyCommitted(tableA, 1000);
+        scheduler.notifyCommitted(tableB, 1);
+
+        // table A applies a slice of its backlog per claim
+        Assert.assertSame(tableA, scheduler.claim());
+        scheduler.release(tableA, 100, 1000);
+        Assert.assertSame(tableB, scheduler.claim());
+        scheduler.release(tableB, 1, 1);
+
+        // table B has nothing to apply, the next round starts
+        Assert.assertSame(tableA, scheduler.claim());
+        scheduler.release(tableA, 200, 1000);
+        scheduler.notifyCommitted(tableB, 2);
+        // table B has not been claimed in this round yet
+        Assert.assertSame(tableB, scheduler.claim());
+        scheduler.release(tableB, 2, 2);
+
+        Assert.assertSame(tableA, scheduler.claim());
+        scheduler.release(tableA, 1000, 1000);
+        Assert.assertNull(scheduler.claim());
+    }
+
+    @Test
+    public void testParkedTableNotifiedWhileClaimed() {
+        WalApplyScheduler scheduler = new WalApplyScheduler();
+        scheduler.notifyCommitted(tableA, 1);
+        Assert.assertSame(tableA, scheduler.claim());
+        // the writer may have been released after the job found it busy
+        scheduler.notifyCommitted(tableA, 1);
+        scheduler.release(tableA, -1, -1);
+        Assert.assertSame(tableA, scheduler.claim());
+    }
+
+    @Test
+    public void testParkedTableWaitsForNotification() {
+        WalApplyScheduler scheduler = new WalApplyScheduler();
+        scheduler.notifyCommitted(tableA, 1);
+        Assert.assertSame(tableA, scheduler.claim());
+        // writer is busy
+        scheduler.release(tableA, -1, -1);
+        Assert.assertNull(scheduler.claim());
+        Assert.assertEquals(1, scheduler.getLag(tableA));
+
+        scheduler.notifyCommitted(tableA, 2);
+        Assert.assertSame(tableA, scheduler.claim());
+        scheduler.release(tableA, -1, -1);
+        Assert.assertNull(scheduler.claim());
+
+        // periodic check re-notifies with the txn already known
+        scheduler.notifyCommitted(tableA, 2);
+        Assert.assertSame(tableA, scheduler.claim());
+        scheduler.release(tableA, 2, 2);
+        Assert.assertEquals(0, scheduler.getLag(tableA));
+    }
+
+    @Test
+    public void testSuspendedTableWaitsForResume() {
+        WalApplyScheduler scheduler = new WalApplyScheduler();
+        scheduler.notifyCommitted(tableA, 1);
+        scheduler.notifyCommitted(tableB, 1);
+        Assert.assertSame(tableA, scheduler.claim());
+        scheduler.suspend(tableA);
+
+        scheduler.notifyCommitted(tableA, 2);
+        Assert.assertSame(tableB, scheduler.claim());
+        Assert.assertNull(scheduler.claim());
+        scheduler.release(tableB, 1, 1);
+        Assert.assertNull(scheduler.claim());
+
+        // resume notifies with Long.MAX_VALUE
+        scheduler.notifyCommitted(tableA, Long.MAX_VALUE);
+        Assert.assertSame(tableA, scheduler.claim());
+        scheduler.release(tableA, 2, 2);
+        Assert.assertEquals(0, scheduler.getLag(tableA));
+        Assert.assertNull(scheduler.claim());
+    }
+}
@@ -195,6 +195,7 @@ public class HttpQueryTestBuilder {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
                                 new SqlCompiler(engine),
                                 sqlExecutionContext
                         );
@@ -212,6 +213,7 @@ public class HttpQueryTestBuilder {
                         return new TextQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
                                 workerPool.getWorkerCount()
                         );
                     }
@@ -237,12 +239,10 @@ public class HttpQueryTestBuilder {
 
                     @Override
                     public HttpRequestProcessor newInstance() {
-                        return new JsonQueryProcessor(httpConfiguration.getJsonQueryProcessorConfiguration(), engine, 1);
+                        return new JsonQueryProcessor(httpConfiguration.getJsonQueryProcessorConfiguration(), engine, httpServer.getQueryCache(), 1);
                     }
                 });
 
-                QueryCache.configure(httpConfiguration, metrics);
-
                 workerPool.start(LOG);
 
                 try {
@@ -2481,6 +2481,7 @@ public class IODispatcherTest {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
                                 workerPool.getWorkerCount()
                         );
                     }
@@ -3088,6 +3089,7 @@ public class IODispatcherTest {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
                                 workerPool.getWorkerCount()
                         );
                     }
@@ -4416,6 +4418,7 @@ public class IODispatcherTest {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
                                 workerPool.getWorkerCount()
                         );
                     }
@@ -4692,6 +4695,7 @@ public class IODispatcherTest {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
                                 workerPool.getWorkerCount());
                     }
                 });
@@ -4768,6 +4772,7 @@ public class IODispatcherTest {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
                                 workerPool.getWorkerCount());
                     }
                 });
@@ -4830,7 +4835,6 @@ public class IODispatcherTest {
                     .withHttpProtocolVersion("HTTP/1.1 ")
                     .withOnPeerDisconnect(peerDisconnectLatch::countDown)
                     .build();
-            QueryCache.configure(httpConfiguration, metrics);
 
             WorkerPool workerPool = new TestWorkerPool(1);
 
@@ -4866,6 +4870,7 @@ public class IODispatcherTest {
                         return new JsonQueryProcessor(
                                 httpConfiguration.getJsonQueryProcessorConfiguration(),
                                 engine,
+                                httpServer.getQueryCache(),
                                 workerPool.getWorkerCount()
                         );
                     }
@@ -7649,7 +7654,6 @@ public class IODispatcherTest {
                 .withServerKeepAlive(serverKeepAlive)
                 .withHttpProtocolVersion(httpProtocolVersion)
                 .build();
-        QueryCache.configure(httpConfiguration, metrics);
         return httpConfiguration;
     }
 
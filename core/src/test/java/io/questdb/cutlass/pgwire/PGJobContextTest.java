@@ -2286,14 +2286,13 @@ if __name__ == "__main__":
                 try (ResultSet rs = statement.getResultSet()) {
                     assertResultSet(
                             "QUERY PLAN[VARCHAR]\n" +
-                                    "Sort light lo: 10\n" +
+                                    "Async Top K lo: 10\n" +
                                     "  keys: [str, x]\n" +
-                                    "    Async Filter\n" +
-                                    "      filter: str='\\b\\f\\n\\r\\t\\u0005'\n" +
-                                    "      workers: 2\n" +
-                                    "        DataFrame\n" +
-                                    "            Row forward scan\n" +
-                                    "            Frame forward scan on: xx\n",
+                                    "  filter: str='\\b\\f\\n\\r\\t\\u0005'\n" +
+                                    "  workers: 2\n" +
+                                    "    DataFrame\n" +
+                                    "        Row forward scan\n" +
+                                    "        Frame forward scan on: xx\n",
                             sink,
                             rs
                     );
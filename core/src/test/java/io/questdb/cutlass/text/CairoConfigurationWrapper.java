@@ -97,6 +97,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getBindVariablePoolSize();
     }
 
+    @Override
+    public int getBloomFilterBitsPerValue() {
+        return conf.getBloomFilterBitsPerValue();
+    }
+
     @Override
     public BuildInformation getBuildInformation() {
         return conf.getBuildInformation();
@@ -252,6 +257,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getGroupByPoolCapacity();
     }
 
+    @Override
+    public long getGroupCommitWindowMicros() {
+        return conf.getGroupCommitWindowMicros();
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return conf.getIdleCheckInterval();
@@ -407,11 +417,36 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getParallelIndexThreshold();
     }
 
+    @Override
+    public long getPartitionCompressionInterval() {
+        return conf.getPartitionCompressionInterval();
+    }
+
+    @Override
+    public long getPartitionCompressionMinAge() {
+        return conf.getPartitionCompressionMinAge();
+    }
+
     @Override
     public int getPartitionPurgeListCapacity() {
         return conf.getPartitionPurgeListCapacity();
     }
 
+    @Override
+    public long getPartitionTieringInterval() {
+        return conf.getPartitionTieringInterval();
+    }
+
+    @Override
+    public long getPartitionTieringMinAge() {
+        return conf.getPartitionTieringMinAge();
+    }
+
+    @Override
+    public CharSequence getPartitionTieringRoot() {
+        return conf.getPartitionTieringRoot();
+    }
+
     @Override
     public int getQueryCacheEventQueueCapacity() {
         return conf.getQueryCacheEventQueueCapacity();
@@ -462,6 +497,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSnapshotRoot();
     }
 
+    @Override
+    public int getSortRunQueueCapacity() {
+        return conf.getSortRunQueueCapacity();
+    }
+
     @Override
     public long getSpinLockTimeout() {
         return conf.getSpinLockTimeout();
@@ -687,6 +727,31 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlPageFrameMinRows();
     }
 
+    @Override
+    public int getSqlPageFrameReadAheadCount() {
+        return conf.getSqlPageFrameReadAheadCount();
+    }
+
+    @Override
+    public long getSqlRadixSortMinRunSize() {
+        return conf.getSqlRadixSortMinRunSize();
+    }
+
+    @Override
+    public long getSqlResultCacheMaxEntrySize() {
+        return conf.getSqlResultCacheMaxEntrySize();
+    }
+
+    @Override
+    public long getSqlResultCacheMemoryLimit() {
+        return conf.getSqlResultCacheMemoryLimit();
+    }
+
+    @Override
+    public long getSqlResultCachePageSize() {
+        return conf.getSqlResultCachePageSize();
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return conf.getSqlSmallMapKeyCapacity();
@@ -722,6 +787,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlSortValuePageSize();
     }
 
+    @Override
+    public long getSqlSpillMemoryBudget() {
+        return conf.getSqlSpillMemoryBudget();
+    }
+
+    @Override
+    public int getSqlSpillPartitionCount() {
+        return conf.getSqlSpillPartitionCount();
+    }
+
+    @Override
+    public CharSequence getSqlSpillRoot() {
+        return conf.getSqlSpillRoot();
+    }
+
+    @Override
+    public int getSqlVectorizedBatchSize() {
+        return conf.getSqlVectorizedBatchSize();
+    }
+
     @Override
     public int getStrFunctionMaxBufferLength() {
         return conf.getStrFunctionMaxBufferLength();
@@ -757,6 +842,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getVectorAggregateQueueCapacity();
     }
 
+    @Override
+    public long getWalApplyTableTimeQuota() {
+        return conf.getWalApplyTableTimeQuota();
+    }
+
     @Override
     public boolean getWalEnabledDefault() {
         return conf.getWalEnabledDefault();
@@ -777,6 +867,16 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getWalSegmentRolloverRowCount();
     }
 
+    @Override
+    public long getWalSquashMaxRows() {
+        return conf.getWalSquashMaxRows();
+    }
+
+    @Override
+    public long getWalSquashMaxSize() {
+        return conf.getWalSquashMaxSize();
+    }
+
     @Override
     public int getWalTxnNotificationQueueCapacity() {
         return conf.getWalTxnNotificationQueueCapacity();
@@ -822,6 +922,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getWriterTickRowsCountMod();
     }
 
+    @Override
+    public int getZoneMapBlockRowCount() {
+        return conf.getZoneMapBlockRowCount();
+    }
+
+    @Override
+    public boolean isBloomFilterEnabled() {
+        return conf.isBloomFilterEnabled();
+    }
+
+    @Override
+    public boolean isGroupCommitEnabled() {
+        return conf.isGroupCommitEnabled();
+    }
+
     @Override
     public boolean isIOURingEnabled() {
         return conf.isIOURingEnabled();
@@ -837,11 +952,26 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isParallelIndexingEnabled();
     }
 
+    @Override
+    public boolean isPartitionCompressionEnabled() {
+        return conf.isPartitionCompressionEnabled();
+    }
+
     @Override
     public boolean isReadOnlyInstance() {
         return conf.isReadOnlyInstance();
     }
 
+    @Override
+    public boolean isReaderLazyColumnMappingEnabled() {
+        return conf.isReaderLazyColumnMappingEnabled();
+    }
+
+    @Override
+    public boolean isReaderMmapCacheEnabled() {
+        return conf.isReaderMmapCacheEnabled();
+    }
+
     @Override
     public boolean isSnapshotRecoveryEnabled() {
         return conf.isSnapshotRecoveryEnabled();
@@ -852,6 +982,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isSqlJitDebugEnabled();
     }
 
+    @Override
+    public boolean isSqlJitGroupByEnabled() {
+        return conf.isSqlJitGroupByEnabled();
+    }
+
     @Override
     public boolean isSqlParallelFilterEnabled() {
         return conf.isSqlParallelFilterEnabled();
@@ -862,11 +997,51 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.isSqlParallelFilterPreTouchEnabled();
     }
 
+    @Override
+    public boolean isSqlParallelGroupByEnabled() {
+        return conf.isSqlParallelGroupByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelSampleByEnabled() {
+        return conf.isSqlParallelSampleByEnabled();
+    }
+
+    @Override
+    public boolean isSqlParallelTopKEnabled() {
+        return conf.isSqlParallelTopKEnabled();
+    }
+
+    @Override
+    public boolean isSqlRadixSortEnabled() {
+        return conf.isSqlRadixSortEnabled();
+    }
+
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return conf.isSqlResultCacheEnabled();
+    }
+
+    @Override
+    public boolean isSqlVectorizedFunctionsEnabled() {
+        return conf.isSqlVectorizedFunctionsEnabled();
+    }
+
+    @Override
+    public boolean isWalSquashEnabled() {
+        return conf.isWalSquashEnabled();
+    }
+
     @Override
     public boolean isWalSupported() {
         return conf.isWalSupported();
     }
 
+    @Override
+    public boolean isZoneMapEnabled() {
+        return conf.isZoneMapEnabled();
+    }
+
     @Override
     public boolean mangleTableDirNames() {
         return conf.mangleTableDirNames();
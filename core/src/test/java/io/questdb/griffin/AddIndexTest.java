@@ -109,6 +109,62 @@ public class AddIndexTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testAddIndexToIntegerColumns() throws Exception {
+        assertMemoryLeak(() -> {
+            final String columns = "cast(rnd_int(0, 50, 0) as short) s, " +
+                    "rnd_int(0, 500, 2) i, " +
+                    "rnd_long(0, 1000, 2) l, " +
+                    "rnd_geohash(20) g, ";
+            compile("create table src as (select " + columns + "timestamp_sequence(0, 60000000) ts from long_sequence(2000)) timestamp(ts) partition by HOUR");
+            compile("create table o3 as (select " + columns + "timestamp_sequence(30000000, 60000000) ts from long_sequence(500))");
+            compile("create table x as (select * from src) timestamp(ts) partition by HOUR");
+            compile("create table y as (select * from src) timestamp(ts) partition by HOUR");
+
+            compile("alter table x alter column s add index");
+            compile("alter table x alter column i add index");
+            compile("alter table x alter column l add index");
+            compile("alter table x alter column g add index");
+            assertIndexedIntegerQueries();
+
+            compile("insert into x select * from o3");
+            compile("insert into y select * from o3");
+            assertIndexedIntegerQueries();
+
+            // column top
+            compile("alter table x add column k int");
+            compile("alter table y add column k int");
+            compile("insert into x select s, i, l, g, ts + 10000000, cast(i % 7 as int) from src");
+            compile("insert into y select s, i, l, g, ts + 10000000, cast(i % 7 as int) from src");
+            compile("alter table x alter column k add index");
+            assertIndexedIntegerQueries();
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y where k = 3", "x where k = 3", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y where k in (0, 6)", "x where k in (0, 6)", LOG);
+
+            assertPlan(
+                    "x where i = 42",
+                    "DataFrame\n" +
+                            "    Hashed index forward scan on: i\n" +
+                            "      filter: i=42\n" +
+                            "    Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testAddIndexToIntegerColumnInListWithRepeatedValues() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select cast(x % 5 as int) i, timestamp_sequence(0, 1000000) ts from long_sequence(20)) timestamp(ts)");
+            compile("create table y as (select * from x) timestamp(ts)");
+            compile("alter table x alter column i add index");
+
+            assertSql("select count() from x where i in (1, 1)", "count\n4\n");
+            assertSql("select count() from x where i in (1, 2, 1)", "count\n8\n");
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y where i in (1, 2, 1)", "x where i in (1, 2, 1)", LOG);
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y where i = 1 and i in (1, 1)", "x where i = 1 and i in (1, 1)", LOG);
+        });
+    }
+
     @Test
     public void testAlterTableAlterColumnSyntaxError1() throws Exception {
         assertFailure(
@@ -210,4 +266,23 @@ public class AddIndexTest extends AbstractGriffinTest {
                 true
         );
     }
+
+    private void assertIndexedIntegerQueries() throws SqlException {
+        final String[] filters = {
+                "s = 7",
+                "i = 42",
+                "i = 42 and l > 10",
+                "i in (1, 2, 3, 499)",
+                "i = 42 and i = 43",
+                "l in (500, 100000)",
+                "l = 7 and ts > '1970-01-01T10'",
+                "i = 100000000000",
+                "i = null",
+                "i = '42'",
+                "s = 7 and i = 1",
+        };
+        for (String filter : filters) {
+            TestUtils.assertSqlCursors(compiler, sqlExecutionContext, "y where " + filter, "x where " + filter, LOG);
+        }
+    }
 }
@@ -362,6 +362,57 @@ public class AlterTableAttachPartitionTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testAlterTableAttachPartitionFromSoftLinkThenOutOfOrderIntoTwoPartitions() throws Exception {
+        Assume.assumeTrue(Os.type != Os.WINDOWS);
+        assertMemoryLeak(TestFilesFacadeImpl.INSTANCE, () -> {
+
+            final String tableName = testName.getMethodName();
+            final String partitionName = "2022-10-17";
+
+            try (TableModel src = new TableModel(configuration, tableName, PartitionBy.DAY)) {
+                createPopulateTable(
+                        1,
+                        src.col("l", ColumnType.LONG)
+                                .col("i", ColumnType.INT)
+                                .timestamp("ts"),
+                        15000,
+                        partitionName,
+                        3
+                ); // -> creates partitions 2022-10-17, 2022-10-18 and 2022-10-19 with 5K rows each
+            }
+
+            compile("ALTER TABLE " + tableName + " DETACH PARTITION LIST '" + partitionName + "'", sqlExecutionContext);
+            TableToken tableToken = engine.getTableToken(tableName);
+            copyToDifferentLocationAndMakeAttachableViaSoftLink(tableName, tableToken, partitionName, "ORCA");
+            compile("ALTER TABLE " + tableName + " ATTACH PARTITION LIST '" + partitionName + "'", sqlExecutionContext);
+
+            // version of the next partition, it is replaced by the same commit as the soft link
+            try (TableReader reader = getReader(tableName)) {
+                path.of(configuration.getRoot()).concat(tableToken).concat("2022-10-18");
+                TableUtils.txnPartitionConditionally(path, reader.getTxFile().getPartitionNameTxn(1));
+                path.$();
+            }
+            Assert.assertTrue(ff.exists(path));
+
+            // rows at the beginning of both partitions rewrite them in one commit, which
+            // purges the soft link first and the directory of the next partition after it
+            compile(
+                    "INSERT INTO " + tableName + " (l, i, ts) " +
+                            "SELECT -x, cast(-x AS INT), timestamp_sequence('" + partitionName + "T00:00:00.000001Z', 86400000000) " +
+                            "FROM long_sequence(2)",
+                    sqlExecutionContext
+            );
+            assertSql("SELECT min(ts), max(ts), count() FROM " + tableName,
+                    "min\tmax\tcount\n" +
+                            "2022-10-17T00:00:00.000001Z\t2022-10-19T23:59:59.000000Z\t15002\n");
+
+            Assert.assertFalse(ff.exists(path));
+            // cold storage content is kept
+            Assert.assertTrue(Files.exists(otherPath));
+        });
+    }
+
     @Test
     public void testAlterTableAttachPartitionFromSoftLinkThenUpdate() throws Exception {
         Assume.assumeTrue(Os.type != Os.WINDOWS);
@@ -33,7 +33,8 @@ import io.questdb.cairo.sql.Function;
 import io.questdb.griffin.engine.EmptyTableRecordCursorFactory;
 import io.questdb.griffin.engine.functions.CursorFunction;
 import io.questdb.griffin.engine.functions.NegatableBooleanFunction;
-import io.questdb.griffin.engine.functions.analytic.RowNumberFunctionFactory;
+import io.questdb.griffin.engine.functions.analytic.LagDoubleAnalyticFunctionFactory;
+import io.questdb.griffin.engine.functions.analytic.LeadDoubleAnalyticFunctionFactory;
 import io.questdb.griffin.engine.functions.bool.InCharFunctionFactory;
 import io.questdb.griffin.engine.functions.bool.InTimestampStrFunctionFactory;
 import io.questdb.griffin.engine.functions.bool.InTimestampTimestampFunctionFactory;
@@ -48,12 +49,14 @@ import io.questdb.griffin.engine.functions.date.*;
 import io.questdb.griffin.engine.functions.eq.EqIntStrCFunctionFactory;
 import io.questdb.griffin.engine.functions.rnd.*;
 import io.questdb.griffin.engine.functions.test.TestSumXDoubleGroupByFunctionFactory;
+import io.questdb.griffin.model.AnalyticColumn;
 import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
 import io.questdb.std.str.StringSink;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Ignore;
 import org.junit.Test;
 
@@ -282,6 +285,28 @@ public class ExplainPlanTest extends AbstractGriffinTest {
                         "                Frame forward scan on: t\n");
     }
 
+    @Test
+    public void testAnalytic3() throws Exception {
+        assertPlan("create table t as ( select x l, x::double d, x::timestamp ts from long_sequence(100)) timestamp(ts)",
+                "select ts, l, avg(d) over (partition by l order by ts rows between 10 preceding and current row), lag(d) over (order by ts) from t",
+                "Analytic\n" +
+                        "  functions: [avg(d) over (partition by [l] order by [ts] rows between 10 preceding and current row),lag(d, 1) over (order by [ts])]\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: t\n");
+    }
+
+    @Test
+    public void testAnalytic4() throws Exception {
+        assertPlan("create table t as ( select x l, x::double d, x::timestamp ts from long_sequence(100)) timestamp(ts)",
+                "select ts, sum(d) over (partition by l), count() over (order by d range unbounded preceding) from t",
+                "CachedAnalytic\n" +
+                        "  functions: [count(*) over (order by [d] range between unbounded preceding and current row),sum(d) over (partition by [l] range between unbounded preceding and unbounded following)]\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: t\n");
+    }
+
     @Test
     public void testAsOfJoin0() throws Exception {
         assertMemoryLeak(() -> {
@@ -1132,6 +1157,8 @@ public class ExplainPlanTest extends AbstractGriffinTest {
                             if (isVarArg) {
                                 if (factory instanceof LongSequenceFunctionFactory) {
                                     sigArgType = ColumnType.LONG;
+                                } else if (factory instanceof LagDoubleAnalyticFunctionFactory || factory instanceof LeadDoubleAnalyticFunctionFactory) {
+                                    sigArgType = ColumnType.LONG;
                                 } else if (factory instanceof InCharFunctionFactory) {
                                     sigArgType = ColumnType.CHAR;
                                 } else if (factory instanceof InTimestampTimestampFunctionFactory) {
@@ -1189,11 +1216,17 @@ public class ExplainPlanTest extends AbstractGriffinTest {
 
                         argPositions.setAll(args.size(), 0);
 
-                        if (factory instanceof RowNumberFunctionFactory) {
-                            sqlExecutionContext.configureAnalyticContext(null, null, null, true, true);
+                        Function function;
+                        if (factory.isAnalytic()) {
+                            sqlExecutionContext.configureAnalyticContext(null, null, null, true, null, AnalyticColumn.FRAMING_RANGE, Long.MIN_VALUE, 0, -1, true);
+                            try {
+                                function = factory.newInstance(0, args, argPositions, engine.getConfiguration(), sqlExecutionContext);
+                            } finally {
+                                sqlExecutionContext.clearAnalyticContext();
+                            }
+                        } else {
+                            function = factory.newInstance(0, args, argPositions, engine.getConfiguration(), sqlExecutionContext);
                         }
-
-                        Function function = factory.newInstance(0, args, argPositions, engine.getConfiguration(), sqlExecutionContext);
                         function.toPlan(planSink);
                         goodArgsFound = true;
 
@@ -1228,9 +1261,10 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testGroupByBoolean() throws Exception {
         assertPlan("create table a ( l long, b boolean)",
                 "select b, min(l)  from a group by b",
-                "GroupBy vectorized: false\n" +
+                "Async Group By\n" +
                         "  keys: [b]\n" +
                         "  values: [min(l)]\n" +
+                        "  workers: 1\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n");
@@ -1254,9 +1288,10 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testGroupByDouble() throws Exception {
         assertPlan("create table a ( l long, d double)",
                 "select d, min(l) from a group by d",
-                "GroupBy vectorized: false\n" +
+                "Async Group By\n" +
                         "  keys: [d]\n" +
                         "  values: [min(l)]\n" +
+                        "  workers: 1\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n");
@@ -1266,9 +1301,10 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testGroupByFloat() throws Exception {
         assertPlan("create table a ( l long, f float)",
                 "select f, min(l) from a group by f",
-                "GroupBy vectorized: false\n" +
+                "Async Group By\n" +
                         "  keys: [f]\n" +
                         "  values: [min(l)]\n" +
+                        "  workers: 1\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n");
@@ -1303,9 +1339,10 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     @Test//repeated int key disables vectorized impl
     public void testGroupByInt2() throws Exception {
         assertPlan("create table a ( i int, d double)", "select i, i, min(d) from a group by i, i",
-                "GroupBy vectorized: false\n" +
+                "Async Group By\n" +
                         "  keys: [i,i1]\n" +
                         "  values: [min(d)]\n" +
+                        "  workers: 1\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n");
@@ -1385,9 +1422,10 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testGroupByLong() throws Exception {
         assertPlan("create table a ( l long, d double)",
                 "select l, min(d) from a group by l",
-                "GroupBy vectorized: false\n" +
+                "Async Group By\n" +
                         "  keys: [l]\n" +
                         "  values: [min(d)]\n" +
+                        "  workers: 1\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
                         "        Frame forward scan on: a\n");
@@ -1433,6 +1471,21 @@ public class ExplainPlanTest extends AbstractGriffinTest {
                         "        Frame forward scan on: a\n");
     }
 
+    @Test//aggregates over arithmetic expressions are compiled into a single loop
+    public void testGroupByNotKeyed12() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        configOverrideJitGroupByEnabled(true);
+        assertPlan("create table a ( i int, d double)",
+                "select sum(d*i), count(), max(i) from a where i < 10",
+                "Async JIT Group By\n" +
+                        "  values: [sum(d*i),count(2),max(i)]\n" +
+                        "  filter: i<10\n" +
+                        "  workers: 1\n" +
+                        "    DataFrame\n" +
+                        "        Row forward scan\n" +
+                        "        Frame forward scan on: a\n");
+    }
+
     @Test//expressions in aggregates disable vectorized impl
     public void testGroupByNotKeyed2() throws Exception {
         assertPlan("create table a ( i int, d double)",
@@ -1508,8 +1561,9 @@ public class ExplainPlanTest extends AbstractGriffinTest {
                 "select max(i) from (select * from a order by d limit 10)",
                 "GroupBy vectorized: false\n" +
                         "  values: [max(i)]\n" +
-                        "    Sort light lo: 10\n" +
+                        "    Async Top K lo: 10\n" +
                         "      keys: [d]\n" +
+                        "      workers: 1\n" +
                         "        DataFrame\n" +
                         "            Row forward scan\n" +
                         "            Frame forward scan on: a\n");
@@ -3136,7 +3190,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectCount14() throws Exception {
         assertPlan("create table a ( i int, s symbol index, ts timestamp) timestamp(ts)",
                 "select * from a where s = 'S1' order by ts desc ",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts desc]\n" +
                         "    DeferredSingleSymbolFilterDataFrame\n" +
                         "        Index forward scan on: s deferred: true\n" +
@@ -3283,7 +3337,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectDesc2() throws Exception {
         assertPlan("create table a ( i int, ts timestamp) ;",
                 "select * from a order by ts desc",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -3436,7 +3490,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectDynamicTsInterval6() throws Exception {
         assertPlan("create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where ts > '2022-01-01' and ts > now() order by ts desc",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -3554,7 +3608,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
             compile("create table a ( s1 symbol index, s2 symbol index, ts timestamp) timestamp(ts)");
             compile("insert into a select 'S' || x, 'S' || x, x::timestamp from long_sequence(10)");
             assertPlan("select * from a where s1 in ('S1')  order by ts desc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts desc]\n" +
                             "    DeferredSingleSymbolFilterDataFrame\n" +
                             "        Index forward scan on: s1\n" +
@@ -3569,7 +3623,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
             compile("create table a ( s1 symbol index, ts timestamp) timestamp(ts) partition by year;");
             compile("insert into a select 'S' || x, x::timestamp from long_sequence(10)");
             assertPlan("select * from a where s1 = 'S1'  order by ts desc",
-                    "Sort light\n" +
+                    "Radix sort light\n" +
                             "  keys: [ts desc]\n" +
                             "    DeferredSingleSymbolFilterDataFrame\n" +
                             "        Index forward scan on: s1\n" +
@@ -3785,7 +3839,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectOrderedAsc() throws Exception {
         assertPlan("create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i asc",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [i]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -3796,7 +3850,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectOrderedDesc() throws Exception {
         assertPlan("create table a ( i int, ts timestamp) timestamp(ts) ;",
                 "select * from a order by i desc",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [i desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -3836,7 +3890,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectStaticTsInterval10() throws Exception {
         assertPlan("create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where ts in '2020-01-01T03:00:00;1h;24h;3' order by l desc ",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [l desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
@@ -3933,7 +3987,7 @@ public class ExplainPlanTest extends AbstractGriffinTest {
     public void testSelectStaticTsInterval9() throws Exception {
         assertPlan("create table tab ( l long, ts timestamp) timestamp(ts);",
                 "select * from tab where ts in '2020-01-01T03:00:00;1h;24h;3' order by ts desc ",
-                "Sort light\n" +
+                "Radix sort light\n" +
                         "  keys: [ts desc]\n" +
                         "    DataFrame\n" +
                         "        Row forward scan\n" +
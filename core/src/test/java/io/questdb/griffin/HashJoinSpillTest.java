@@ -0,0 +1,147 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class HashJoinSpillTest extends AbstractGriffinTest {
+
+    @Test
+    public void testSpillFilesRemovedOnClose() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            configOverrideSpillMemoryBudget(1);
+            try (RecordCursorFactory factory = compiler.compile("select m.x, s.y from m join s on k", sqlExecutionContext).getRecordCursorFactory()) {
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        Assert.assertTrue(countSpillFiles() > 0);
+                        long count = 0;
+                        while (cursor.hasNext()) {
+                            count++;
+                        }
+                        Assert.assertTrue(count > 0);
+                    }
+                    Assert.assertEquals(0, countSpillFiles());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSpillFullFatInnerJoin() throws Exception {
+        testFullFat("select m.x, m.k, s.y, s.v, s.sym from m join s on k");
+    }
+
+    @Test
+    public void testSpillFullFatOuterJoin() throws Exception {
+        testFullFat("select m.x, m.k, s.y, s.v, s.sym from m left join s on k");
+    }
+
+    @Test
+    public void testSpillFullFatOuterJoinFiltered() throws Exception {
+        testFullFat("select m.x, m.k, s.y, s.v, s.sym from m left join s on m.k = s.k and s.y % 3 = 0");
+    }
+
+    @Test
+    public void testSpillInnerJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpill("select m.x, m.k, s.y, s.v, s.sym from m join s on k");
+        });
+    }
+
+    @Test
+    public void testSpillOuterJoin() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpill("select m.x, m.k, s.y, s.v, s.sym from m left join s on k");
+        });
+    }
+
+    @Test
+    public void testSpillOuterJoinFiltered() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpill("select m.x, m.k, s.y, s.v, s.sym from m left join s on m.k = s.k and s.y % 3 = 0");
+        });
+    }
+
+    @Test
+    public void testSpillStrKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTables();
+            assertSpill("select m.x, s.y, s.v from m join s on m.ms = s.v");
+        });
+    }
+
+    private static int countSpillFiles() {
+        final String[] files = new File(root.toString()).list((dir, name) -> name.startsWith("hashjoin_spill_"));
+        return files != null ? files.length : 0;
+    }
+
+    private void assertSpill(String query) throws SqlException {
+        configOverrideSpillMemoryBudget(0);
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        final String expected = sink.toString();
+        configOverrideSpillMemoryBudget(1);
+        TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+        Assert.assertEquals(0, countSpillFiles());
+    }
+
+    private void createTables() throws SqlException {
+        compiler.compile(
+                "create table m as (" +
+                        "select x, rnd_int(0, 3000, 0) k, rnd_str(2000, 3, 6, 0) ms " +
+                        "from long_sequence(5000)" +
+                        ")",
+                sqlExecutionContext
+        );
+        compiler.compile(
+                "create table s as (" +
+                        "select x y, rnd_int(0, 3000, 0) k, rnd_str(2000, 3, 6, 0) v, rnd_symbol('p', 'q', 'r', null) sym " +
+                        "from long_sequence(20000)" +
+                        ")",
+                sqlExecutionContext
+        );
+    }
+
+    private void testFullFat(String query) throws Exception {
+        compiler.setFullFatJoins(true);
+        try {
+            assertMemoryLeak(() -> {
+                createTables();
+                assertSpill(query);
+            });
+        } finally {
+            compiler.setFullFatJoins(false);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin;
+
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class O3DedupTest extends AbstractGriffinTest {
+
+    @Test
+    public void testBypassWalReplacesCommittedRows() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol index, price double, s string, ts timestamp) timestamp(ts) partition by DAY BYPASS WAL dedup upsert keys(ts, sym)");
+            assertCommittedRowsReplaced();
+        });
+    }
+
+    @Test
+    public void testBypassWalRetriedBatch() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY BYPASS WAL dedup upsert keys(ts, sym)");
+            insertBatch();
+            insertBatch();
+            // out-of-order retry of the first day and a new row in between
+            executeInsert("insert into x values ('a', 1.0, '2022-01-01T00:00')");
+            executeInsert("insert into x values ('c', 5.0, '2022-01-01T00:00')");
+            assertSql(
+                    "x",
+                    "sym\tprice\tts\n" +
+                            "a\t1.0\t2022-01-01T00:00:00.000000Z\n" +
+                            "b\t2.0\t2022-01-01T00:00:00.000000Z\n" +
+                            "c\t5.0\t2022-01-01T00:00:00.000000Z\n" +
+                            "a\t3.0\t2022-01-01T12:00:00.000000Z\n" +
+                            "a\t4.0\t2022-01-02T00:00:00.000000Z\n"
+            );
+        });
+    }
+
+    @Test
+    public void testBypassWalDuplicatesWithinTransaction() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY BYPASS WAL dedup upsert keys(ts, sym)");
+            assertLastRowWins();
+        });
+    }
+
+    @Test
+    public void testDuplicatesWithinTransaction() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, sym)");
+            assertLastRowWins();
+        });
+    }
+
+    @Test
+    public void testKeysMustBeFixedSize() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compile("create table x (s string, ts timestamp) timestamp(ts) partition by DAY dedup upsert keys(ts, s)");
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "upsert keys are supported only for fixed size columns");
+            }
+        });
+    }
+
+    @Test
+    public void testKeysMustIncludeTimestamp() throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                compile("create table x (sym symbol, ts timestamp) timestamp(ts) partition by DAY dedup upsert keys(sym)");
+                Assert.fail();
+            } catch (SqlException e) {
+                TestUtils.assertContains(e.getFlyweightMessage(), "upsert keys must include designated timestamp");
+            }
+        });
+    }
+
+    @Test
+    public void testWalReplacesCommittedRows() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol index, price double, s string, ts timestamp) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, sym)");
+            assertCommittedRowsReplaced();
+        });
+    }
+
+    @Test
+    public void testWalRetriedBatch() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (sym symbol, price double, ts timestamp) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, sym)");
+            insertBatch();
+            drainWalQueue();
+            insertBatch();
+            executeInsert("insert into x values ('c', 5.0, '2022-01-01T00:00')");
+            drainWalQueue();
+            assertSql(
+                    "x",
+                    "sym\tprice\tts\n" +
+                            "a\t1.0\t2022-01-01T00:00:00.000000Z\n" +
+                            "b\t2.0\t2022-01-01T00:00:00.000000Z\n" +
+                            "c\t5.0\t2022-01-01T00:00:00.000000Z\n" +
+                            "a\t3.0\t2022-01-01T12:00:00.000000Z\n" +
+                            "a\t4.0\t2022-01-02T00:00:00.000000Z\n"
+            );
+        });
+    }
+
+    private void assertCommittedRowsReplaced() throws SqlException {
+        executeInsert("insert into x values ('a', 1.0, 'one', '2022-01-01T00:00')");
+        executeInsert("insert into x values ('b', 2.0, 'two', '2022-01-01T00:00')");
+        drainWalQueue();
+        // last partition
+        executeInsert("insert into x values ('a', 3.0, 'three', '2022-01-01T00:00')");
+        drainWalQueue();
+        executeInsert("insert into x values ('c', 4.0, 'four', '2022-01-02T00:00')");
+        drainWalQueue();
+        compile("alter table x add column n int");
+        drainWalQueue();
+        // older partition with a column top and the last partition in the same transaction
+        compile("insert into x select case when x % 2 = 0 then 'b' else 'c' end, 10 + x, 'v' || x, case when x < 3 then '2022-01-01T00:00'::timestamp else '2022-01-02T00:00'::timestamp end, x::int from long_sequence(4)");
+        drainWalQueue();
+        assertSql(
+                "x",
+                "sym\tprice\ts\tts\tn\n" +
+                        "a\t3.0\tthree\t2022-01-01T00:00:00.000000Z\tNaN\n" +
+                        "c\t11.0\tv1\t2022-01-01T00:00:00.000000Z\t1\n" +
+                        "b\t12.0\tv2\t2022-01-01T00:00:00.000000Z\t2\n" +
+                        "c\t13.0\tv3\t2022-01-02T00:00:00.000000Z\t3\n" +
+                        "b\t14.0\tv4\t2022-01-02T00:00:00.000000Z\t4\n"
+        );
+        assertSql(
+                "x where sym = 'b'",
+                "sym\tprice\ts\tts\tn\n" +
+                        "b\t12.0\tv2\t2022-01-01T00:00:00.000000Z\t2\n" +
+                        "b\t14.0\tv4\t2022-01-02T00:00:00.000000Z\t4\n"
+        );
+    }
+
+    private void assertLastRowWins() throws SqlException {
+        compile("insert into x select case when x % 2 = 0 then 'a' else 'b' end, x, '2022-01-01T00:00' from long_sequence(6)");
+        drainWalQueue();
+        assertSql(
+                "x order by sym",
+                "sym\tprice\tts\n" +
+                        "a\t6.0\t2022-01-01T00:00:00.000000Z\n" +
+                        "b\t5.0\t2022-01-01T00:00:00.000000Z\n"
+        );
+    }
+
+    private static void insertBatch() throws SqlException {
+        executeInsert("insert into x values ('a', 1.0, '2022-01-01T00:00')");
+        executeInsert("insert into x values ('b', 2.0, '2022-01-01T00:00')");
+        executeInsert("insert into x values ('a', 3.0, '2022-01-01T12:00')");
+        executeInsert("insert into x values ('a', 4.0, '2022-01-02T00:00')");
+    }
+}
@@ -73,6 +73,7 @@ public class RecordCursorMemoryUsageTest extends AbstractGriffinTest {
 
     @Test
     public void testSampleByFillNoneRecordCursorReleasesMemoryOnClose() throws Exception {
+        configOverrideParallelSampleByEnabled(false);
         testSampleByCursorReleasesMemoryOnClose("", SampleByFillNoneRecordCursorFactory.class);
     }
 
@@ -97,6 +97,12 @@ public class SecurityTest extends AbstractGriffinTest {
                 return 1024;
             }
 
+            @Override
+            public boolean isSqlParallelSampleByEnabled() {
+                // map limits are asserted for the single-threaded factories
+                return false;
+            }
+
         };
         memoryRestrictedEngine = new CairoEngine(readOnlyConfiguration);
         SqlExecutionCircuitBreaker dummyCircuitBreaker = new SqlExecutionCircuitBreaker() {
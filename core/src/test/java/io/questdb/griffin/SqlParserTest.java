@@ -102,6 +102,67 @@ public class SqlParserTest extends AbstractSqlParserTest {
         );
     }
 
+    @Test
+    public void testAnalyticFrameMissingDirection() throws Exception {
+        assertSyntaxError(
+                "select a, sum(c) over (partition by b order by ts rows between 10 and current row) from xyz",
+                78,
+                "'preceding' or 'following' expected",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.DOUBLE)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameRangeWithTimeUnit() throws Exception {
+        assertQuery(
+                "select-analytic a, avg(c) avg over (partition by b order by ts range between 10 second preceding and current row) from (select [a, c, b, ts] from xyz timestamp (ts))",
+                "select a, avg(c) over (partition by b order by ts range 10 second preceding) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.DOUBLE)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameRowsBetween() throws Exception {
+        assertQuery(
+                "select-analytic a, sum(c) sum over (partition by b order by ts rows between unbounded preceding and current row), lag(c) lag over (order by ts) from (select [a, c, b, ts] from xyz timestamp (ts))",
+                "select a, sum(c) over (partition by b order by ts rows between unbounded preceding and current row), lag(c) over (order by ts) from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.DOUBLE)
+                        .timestamp("ts")
+        );
+    }
+
+    @Test
+    public void testAnalyticFrameRowsWithPluralTimeUnit() throws Exception {
+        assertQuery(
+                "select-analytic a, avg(c) avg over (partition by b order by ts rows between 2 second preceding and current row), " +
+                        "sum(c) sum over (order by ts range between 3 day preceding and 12 hour preceding), " +
+                        "count() count over (order by ts range between 10 minute preceding and 500 milliseconds following), " +
+                        "max(c) max over (order by ts range between 1 microseconds preceding and current row) " +
+                        "from (select [a, c, b, ts] from xyz timestamp (ts))",
+                "select a, avg(c) over (partition by b order by ts rows between 2 seconds preceding and current row), " +
+                        "sum(c) over (order by ts range between 3 days preceding and 12 hours preceding), " +
+                        "count() over (order by ts range between 10 minutes preceding and 500 millisecond following), " +
+                        "max(c) over (order by ts range 1 microsecond preceding) " +
+                        "from xyz",
+                modelOf("xyz")
+                        .col("a", ColumnType.INT)
+                        .col("b", ColumnType.INT)
+                        .col("c", ColumnType.DOUBLE)
+                        .timestamp("ts")
+        );
+    }
+
     @Test
     public void testAnalyticFunctionReferencesSameColumnAsVirtual() throws Exception {
         assertQuery(
@@ -1466,11 +1527,11 @@ public class SqlParserTest extends AbstractSqlParserTest {
                         "b BYTE, " +
                         "c CHAR, " +
                         "t TIMESTAMP), " +
-                        "INDEX (b) " + // INDEX is not supported for non-SYMBOL columns
+                        "INDEX (b) " + // INDEX is not supported for BYTE columns
                         "TIMESTAMP(t) " +
                         "PARTITION BY YEAR",
                 60,
-                "indexes are supported only for SYMBOL columns: b"
+                "indexes are supported only for SYMBOL, SHORT, INT, LONG and GEOHASH columns: b"
         );
     }
 
@@ -4864,7 +4925,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
     @Test
     public void testNonAnalyticFunctionInAnalyticContext() throws Exception {
         assertFailure(
-                "select avg(price) over (partition by symbol) from trades",
+                "select ksum(price) over (partition by symbol) from trades",
                 "create table trades " +
                         "(" +
                         " price double," +
@@ -7358,7 +7419,7 @@ public class SqlParserTest extends AbstractSqlParserTest {
                         " ts timestamp" +
                         ") timestamp(ts) partition by day",
                 7,
-                "too many arguments"
+                "unexpected argument for function: row_number"
         );
     }
 
@@ -2984,7 +2984,7 @@ public class WhereClauseParserTest extends AbstractCairoTest {
                 functionParser,
                 metadata,
                 sqlExecutionContext,
-                false,
+                0,
                 reader
         );
     }
@@ -3000,7 +3000,7 @@ public class WhereClauseParserTest extends AbstractCairoTest {
                 functionParser,
                 metadata,
                 sqlExecutionContext,
-                false,
+                0,
                 noDesignatedTimestampNorIdxReader
         );
     }
@@ -3016,7 +3016,7 @@ public class WhereClauseParserTest extends AbstractCairoTest {
                 functionParser,
                 metadata,
                 sqlExecutionContext,
-                false,
+                0,
                 noTimestampReader
         );
     }
@@ -3032,7 +3032,7 @@ public class WhereClauseParserTest extends AbstractCairoTest {
                 functionParser,
                 metadata,
                 sqlExecutionContext,
-                false,
+                0,
                 nonEmptyReader
         );
     }
@@ -3143,7 +3143,7 @@ public class WhereClauseParserTest extends AbstractCairoTest {
                 functionParser,
                 metadata,
                 sqlExecutionContext,
-                false,
+                0,
                 unindexedReader
         );
     }
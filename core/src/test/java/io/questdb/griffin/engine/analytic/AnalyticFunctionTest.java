@@ -33,6 +33,35 @@ import org.junit.Test;
 
 public class AnalyticFunctionTest extends AbstractGriffinTest {
 
+    @Test
+    public void testAggregatesOverFrames() throws Exception {
+        assertQuery("ts\tsym\tprice\tmn\tmx\tc\n" +
+                        "1970-01-01T00:00:01.000000Z\ta\t1.0\t1.0\t2.0\t1\n" +
+                        "1970-01-01T00:00:02.000000Z\ta\t2.0\t1.0\t2.0\t2\n" +
+                        "1970-01-01T00:00:03.000000Z\tb\t3.0\t1.0\t6.0\t1\n" +
+                        "1970-01-01T00:00:04.000000Z\tb\t4.0\t2.0\t6.0\t2\n" +
+                        "1970-01-01T00:00:05.000000Z\tb\t5.0\t3.0\t6.0\t3\n" +
+                        "1970-01-01T00:00:06.000000Z\tb\t6.0\t4.0\t6.0\t3\n",
+                "select ts, sym, price," +
+                        " min(price) over (order by ts rows 2 preceding) mn," +
+                        " max(price) over (partition by sym) mx," +
+                        " count() over (partition by sym order by ts range between 2 second preceding and current row) c" +
+                        " from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_symbol('a','b') sym," +
+                        " x::double price," +
+                        " (x * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
     @Test
     @Ignore
     public void testAnalyticContextCleanup() throws Exception {
@@ -67,6 +96,219 @@ public class AnalyticFunctionTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testFirstAndLastValue() throws Exception {
+        assertQuery("ts\tprice\tfv\tlv\n" +
+                        "1970-01-01T00:00:01.000000Z\t1.0\t1.0\t2.0\n" +
+                        "1970-01-01T00:00:02.000000Z\t2.0\t1.0\t2.0\n" +
+                        "1970-01-01T00:00:03.000000Z\t3.0\t3.0\t6.0\n" +
+                        "1970-01-01T00:00:04.000000Z\t4.0\t3.0\t6.0\n" +
+                        "1970-01-01T00:00:05.000000Z\t5.0\t3.0\t6.0\n" +
+                        "1970-01-01T00:00:06.000000Z\t6.0\t4.0\t6.0\n",
+                "select ts, price," +
+                        " first_value(price) over (partition by sym order by ts rows 2 preceding) fv," +
+                        " last_value(price) over (partition by sym) lv" +
+                        " from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_symbol('a','b') sym," +
+                        " x::double price," +
+                        " (x * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testFrameEndingAfterCurrentRow() throws Exception {
+        assertFailure(
+                "select ts, sum(price) over (order by ts rows between current row and 1 following) from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_symbol('a','b') sym," +
+                        " x::double price," +
+                        " (x * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                11,
+                "frame must end at the current row or at unbounded following"
+        );
+    }
+
+    @Test
+    public void testFrameStartAfterFrameEnd() throws Exception {
+        assertFailure(
+                "select ts, sum(price) over (order by ts rows between 1 following and 1 preceding) from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_symbol('a','b') sym," +
+                        " x::double price," +
+                        " (x * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                55,
+                "frame start is after frame end"
+        );
+    }
+
+    @Test
+    public void testFrameTimeUnitInRowsMode() throws Exception {
+        assertFailure(
+                "select ts, sum(price) over (order by ts rows 1 second preceding) from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_symbol('a','b') sym," +
+                        " x::double price," +
+                        " (x * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                45,
+                "time unit is only supported in RANGE frames"
+        );
+    }
+
+    @Test
+    public void testLagAndLead() throws Exception {
+        assertQuery("ts\tprice\tlg\tld\tlg2\n" +
+                        "1970-01-01T00:00:01.000000Z\t1.0\tNaN\t3.0\tNaN\n" +
+                        "1970-01-01T00:00:02.000000Z\t2.0\t1.0\t4.0\t1.0\n" +
+                        "1970-01-01T00:00:03.000000Z\t3.0\t2.0\t5.0\tNaN\n" +
+                        "1970-01-01T00:00:04.000000Z\t4.0\t3.0\t6.0\t3.0\n" +
+                        "1970-01-01T00:00:05.000000Z\t5.0\t4.0\t-1.0\t4.0\n" +
+                        "1970-01-01T00:00:06.000000Z\t6.0\t5.0\t-1.0\t5.0\n",
+                "select ts, price," +
+                        " lag(price) over (order by ts) lg," +
+                        " lead(price, 2, -1.0) over (order by ts) ld," +
+                        " lag(price, 1) over (partition by sym order by ts) lg2" +
+                        " from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_symbol('a','b') sym," +
+                        " x::double price," +
+                        " (x * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testMovingAverageIsStreamed() throws Exception {
+        assertQuery("ts\tsym\tprice\ts\ta\n" +
+                        "1970-01-01T00:00:01.000000Z\ta\t1.0\t1.0\t1.0\n" +
+                        "1970-01-01T00:00:02.000000Z\ta\t2.0\t3.0\t1.5\n" +
+                        "1970-01-01T00:00:03.000000Z\tb\t3.0\t6.0\t3.0\n" +
+                        "1970-01-01T00:00:04.000000Z\tb\t4.0\t10.0\t3.5\n" +
+                        "1970-01-01T00:00:05.000000Z\tb\t5.0\t15.0\t4.5\n" +
+                        "1970-01-01T00:00:06.000000Z\tb\t6.0\t21.0\t5.5\n",
+                "select ts, sym, price," +
+                        " sum(price) over (order by ts) s," +
+                        " avg(price) over (partition by sym order by ts rows between 1 preceding and current row) a" +
+                        " from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_symbol('a','b') sym," +
+                        " x::double price," +
+                        " (x * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testRangeFrameIncludesPeers() throws Exception {
+        assertQuery("ts\tprice\ts\tr\tc\tlv\n" +
+                        "1970-01-01T00:00:01.000000Z\t1.0\t3.0\t1.0\t1\t2.0\n" +
+                        "1970-01-01T00:00:01.000000Z\t2.0\t3.0\t3.0\t1\t2.0\n" +
+                        "1970-01-01T00:00:02.000000Z\t3.0\t10.0\t6.0\t2\t4.0\n" +
+                        "1970-01-01T00:00:02.000000Z\t4.0\t10.0\t10.0\t2\t4.0\n" +
+                        "1970-01-01T00:00:03.000000Z\t5.0\t21.0\t15.0\t2\t6.0\n" +
+                        "1970-01-01T00:00:03.000000Z\t6.0\t21.0\t21.0\t2\t6.0\n",
+                "select ts, price," +
+                        " sum(price) over (order by ts) s," +
+                        " sum(price) over (order by ts rows between unbounded preceding and current row) r," +
+                        " count() over (partition by k order by ts range between 1 second preceding and current row) c," +
+                        " last_value(price) over (order by ts range between unbounded preceding and current row) lv" +
+                        " from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " x % 2 k," +
+                        " x::double price," +
+                        " ((x + 1) / 2 * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                "ts",
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testRangeFrameIncludesPeersOfNonTimestampOrder() throws Exception {
+        assertQuery("x\tk\ts\tc\tmx\n" +
+                        "1\t1\t21.0\t2\t5.0\n" +
+                        "2\t0\t12.0\t1\t6.0\n" +
+                        "3\t1\t21.0\t2\t5.0\n" +
+                        "4\t0\t12.0\t1\t6.0\n" +
+                        "5\t1\t21.0\t2\t5.0\n" +
+                        "6\t0\t12.0\t1\t6.0\n",
+                "select x, k," +
+                        " sum(price) over (order by k) s," +
+                        " count() over (partition by ts order by k) c," +
+                        " max(price) over (order by k desc) mx" +
+                        " from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " x," +
+                        " x % 2 k," +
+                        " x::double price," +
+                        " ((x + 1) / 2 * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                null,
+                true,
+                true,
+                false
+        );
+    }
+
+    @Test
+    public void testRangeFrameRequiresTimestampOrder() throws Exception {
+        assertFailure(
+                "select ts, sum(price) over (order by price range 1 preceding) from x",
+                "create table x as " +
+                        "(" +
+                        "select" +
+                        " rnd_symbol('a','b') sym," +
+                        " x::double price," +
+                        " (x * 1000000)::timestamp ts" +
+                        " from long_sequence(6)" +
+                        ") timestamp(ts) partition by day",
+                11,
+                "RANGE frame with an offset requires ORDER BY the designated timestamp"
+        );
+    }
+
     @Test
     @Ignore
     public void testRankFailsInNonAnalyticContext() throws Exception {
@@ -0,0 +1,364 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.cache;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResultCacheTest extends AbstractGriffinTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        configOverrideResultCacheEnabled(true);
+    }
+
+    @Test
+    public void testAllColumnTypes() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select" +
+                    " rnd_boolean() a," +
+                    " rnd_byte() b," +
+                    " rnd_short() c," +
+                    " rnd_char() d," +
+                    " rnd_int(0, 100, 2) e," +
+                    " rnd_long(0, 100, 2) f," +
+                    " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) g," +
+                    " rnd_float(2) h," +
+                    " rnd_double(2) i," +
+                    " rnd_str(3, 5, 2) j," +
+                    " rnd_symbol('aa', 'bb', null) k," +
+                    " rnd_bin(2, 10, 2) l," +
+                    " rnd_long256() m," +
+                    " rnd_geohash(5) n," +
+                    " rnd_geohash(15) o," +
+                    " rnd_geohash(30) p," +
+                    " rnd_geohash(60) q," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(100)" +
+                    ") timestamp(ts)");
+
+            final String query = "select * from x where e > 10";
+            final ResultCacheMetrics metrics = engine.getResultCache().getMetrics();
+            final long hits = metrics.getHitCount();
+            final long misses = metrics.getMissCount();
+
+            final String expected = printSql(query);
+            Assert.assertEquals(misses + 1, metrics.getMissCount());
+            Assert.assertEquals(1, engine.getResultCache().getEntryCount());
+
+            TestUtils.assertEquals(expected, printSql(query));
+            TestUtils.assertEquals(expected, printSql("select  *  from x\n where e > 10;"));
+            Assert.assertEquals(hits + 2, metrics.getHitCount());
+            Assert.assertEquals(misses + 1, metrics.getMissCount());
+        });
+    }
+
+    @Test
+    public void testBindVariables() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            createX();
+            final String query = "select * from x where i > $1";
+            final ResultCacheMetrics metrics = engine.getResultCache().getMetrics();
+            final long hits = metrics.getHitCount();
+
+            bindVariableService.clear();
+            bindVariableService.setInt(0, 3);
+            final String expected3 = printSql(query);
+            bindVariableService.setInt(0, 5);
+            final String expected5 = printSql(query);
+            Assert.assertEquals(2, engine.getResultCache().getEntryCount());
+            Assert.assertEquals(hits, metrics.getHitCount());
+
+            bindVariableService.setInt(0, 3);
+            TestUtils.assertEquals(expected3, printSql(query));
+            bindVariableService.setInt(0, 5);
+            TestUtils.assertEquals(expected5, printSql(query));
+            Assert.assertEquals(hits + 2, metrics.getHitCount());
+        });
+    }
+
+    @Test
+    public void testCommitInvalidatesResult() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            createX();
+            final String query = "select sum(i) from x";
+            final ResultCacheMetrics metrics = engine.getResultCache().getMetrics();
+            final long hits = metrics.getHitCount();
+            final long evictions = metrics.getEvictionCount();
+
+            assertSql(query, "sum\n55\n");
+            assertSql(query, "sum\n55\n");
+            Assert.assertEquals(hits + 1, metrics.getHitCount());
+
+            compile("insert into x values (100, 'c', 1000000000)");
+            assertSql(query, "sum\n155\n");
+            Assert.assertEquals(hits + 1, metrics.getHitCount());
+            Assert.assertEquals(evictions + 1, metrics.getEvictionCount());
+
+            assertSql(query, "sum\n155\n");
+            Assert.assertEquals(hits + 2, metrics.getHitCount());
+        });
+    }
+
+    @Test
+    public void testCommitToJoinedTableInvalidatesResult() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            createX();
+            compile("create table y as (select x::int i, 'y' || x s from long_sequence(3))");
+            final String query = "select x.i, y.s from x join y on (i) order by 1";
+            final String expected = "i\ts\n" +
+                    "1\ty1\n" +
+                    "2\ty2\n" +
+                    "3\ty3\n";
+
+            assertSql(query, expected);
+            assertSql(query, expected);
+            compile("insert into y values (4, 'y4')");
+            assertSql(query, expected + "4\ty4\n");
+        });
+    }
+
+    @Test
+    public void testConcurrentReadersShareResult() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            createX();
+            final String query = "select i, s from x";
+            final String expected = printSql(query);
+            try (
+                    RecordCursorFactory factoryA = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursorFactory factoryB = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursorA = factoryA.getCursor(sqlExecutionContext);
+                    RecordCursor cursorB = factoryB.getCursor(sqlExecutionContext)
+            ) {
+                final Record recordA = cursorA.getRecord();
+                final Record recordB = cursorB.getRecord();
+                long rows = 0;
+                while (cursorA.hasNext()) {
+                    Assert.assertTrue(cursorB.hasNext());
+                    Assert.assertEquals(recordA.getInt(0), recordB.getInt(0));
+                    TestUtils.assertEquals(recordA.getSym(1), recordB.getSym(1));
+                    rows++;
+                }
+                Assert.assertFalse(cursorB.hasNext());
+                Assert.assertEquals(10, rows);
+                Assert.assertEquals(10, cursorA.size());
+
+                // the result stays readable after it has been evicted
+                engine.getResultCache().clear();
+                cursorA.toTop();
+                Assert.assertTrue(cursorA.hasNext());
+                Assert.assertEquals(1, recordA.getInt(0));
+            }
+            TestUtils.assertEquals(expected, printSql(query));
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            configOverrideResultCacheEnabled(false);
+            createX();
+            try (RecordCursorFactory factory = compiler.compile("select * from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof ResultCacheRecordCursorFactory);
+            }
+        });
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            // each result takes one 64KB page
+            configOverrideResultCacheMemoryLimit(128 * 1024L);
+            createX();
+            final ResultCacheMetrics metrics = engine.getResultCache().getMetrics();
+            final long evictions = metrics.getEvictionCount();
+
+            printSql("select * from x where i > 1");
+            printSql("select * from x where i > 2");
+            printSql("select * from x where i > 1");
+            printSql("select * from x where i > 3");
+            Assert.assertEquals(2, engine.getResultCache().getEntryCount());
+            Assert.assertEquals(128 * 1024L, engine.getResultCache().getMemoryUsed());
+            Assert.assertEquals(evictions + 1, metrics.getEvictionCount());
+
+            // the query with i > 2 was the least recently used one
+            final long hits = metrics.getHitCount();
+            printSql("select * from x where i > 1");
+            printSql("select * from x where i > 3");
+            Assert.assertEquals(hits + 2, metrics.getHitCount());
+            printSql("select * from x where i > 2");
+            Assert.assertEquals(hits + 2, metrics.getHitCount());
+        });
+    }
+
+    @Test
+    public void testFlushQueryCacheClearsResults() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            createX();
+            printSql("select * from x");
+            Assert.assertEquals(1, engine.getResultCache().getEntryCount());
+            assertSql("select flush_query_cache()", "flush_query_cache\ntrue\n");
+            Assert.assertEquals(0, engine.getResultCache().getEntryCount());
+            Assert.assertEquals(0, engine.getResultCache().getMemoryUsed());
+        });
+    }
+
+    @Test
+    public void testLargeResultIsNotCached() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            configOverrideResultCacheMemoryLimit(64 * 1024L);
+            compile("create table x as (select x, rnd_str(10, 10, 0) s from long_sequence(10000))");
+            final String expected = printSql("select * from x");
+            Assert.assertEquals(0, engine.getResultCache().getEntryCount());
+            TestUtils.assertEquals(expected, printSql("select * from x"));
+        });
+    }
+
+    @Test
+    public void testNonDeterministicQueriesAreNotWrapped() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            createX();
+            assertNotWrapped("select i, now() from x");
+            assertNotWrapped("select * from x where ts < systimestamp()");
+            assertNotWrapped("select i, rnd_int() from x");
+            assertNotWrapped("select i, current_user() from x");
+            assertNotWrapped("select * from x where s = session_user()");
+            assertNotWrapped("select * from x where s in (select rnd_symbol('a', 'b') from x)");
+            assertNotWrapped("select * from long_sequence(10)");
+            assertNotWrapped("select * from x union all select x, 'a', 0::timestamp from long_sequence(1)");
+            assertNotWrapped("select 1");
+
+            try (RecordCursorFactory factory = compiler.compile("select * from x where s in (select s from x where i > 5)", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertTrue(factory instanceof ResultCacheRecordCursorFactory);
+            }
+        });
+    }
+
+    @Test
+    public void testPartiallyReadResultIsNotCached() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            createX();
+            try (
+                    RecordCursorFactory factory = compiler.compile("select * from x", sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                Assert.assertTrue(cursor.hasNext());
+                Assert.assertTrue(cursor.hasNext());
+            }
+            Assert.assertEquals(0, engine.getResultCache().getEntryCount());
+
+            try (
+                    RecordCursorFactory factory = compiler.compile("select * from x", sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                Assert.assertTrue(cursor.hasNext());
+                cursor.toTop();
+                while (cursor.hasNext()) {
+                    // read the whole result after rewinding
+                }
+            }
+            Assert.assertEquals(0, engine.getResultCache().getEntryCount());
+        });
+    }
+
+    @Test
+    public void testSymbolTablesOfCachedResult() throws Exception {
+        assertCacheMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select x::int i, rnd_symbol('a', 'b', null) s, timestamp_sequence(0, 1000000) ts from long_sequence(20)" +
+                    ") timestamp(ts)");
+            final String query = "select s, i from x";
+            final String expected = printSql(query);
+            Assert.assertEquals(1, engine.getResultCache().getEntryCount());
+
+            try (
+                    RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                Assert.assertTrue(cursor instanceof ResultCacheRecordCursor);
+                final StaticSymbolTable symbolTable = (StaticSymbolTable) cursor.getSymbolTable(0);
+                Assert.assertSame(symbolTable, cursor.newSymbolTable(0));
+                Assert.assertTrue(symbolTable.containsNullValue());
+                Assert.assertEquals(2, symbolTable.getSymbolCount());
+                Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, symbolTable.keyOf("c"));
+
+                final Record record = cursor.getRecord();
+                while (cursor.hasNext()) {
+                    final CharSequence value = record.getSym(0);
+                    final int key = record.getInt(0);
+                    if (value == null) {
+                        Assert.assertEquals(SymbolTable.VALUE_IS_NULL, key);
+                    } else {
+                        TestUtils.assertEquals(value, symbolTable.valueOf(key));
+                        Assert.assertEquals(key, symbolTable.keyOf(value));
+                    }
+                }
+            }
+
+            TestUtils.assertEquals(expected, printSql(query));
+        });
+    }
+
+    private static void assertCacheMemoryLeak(TestUtils.LeakProneCode code) throws Exception {
+        assertMemoryLeak(() -> {
+            try {
+                code.run();
+            } finally {
+                engine.getResultCache().clear();
+            }
+        });
+    }
+
+    private static void assertNotWrapped(String query) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(query, factory instanceof ResultCacheRecordCursorFactory);
+        }
+    }
+
+    private static void createX() throws SqlException {
+        compile("create table x as (" +
+                "select x::int i, rnd_symbol('a', 'b') s, timestamp_sequence(0, 1000000) ts from long_sequence(10)" +
+                ") timestamp(ts)");
+    }
+
+    private static String printSql(String query) throws SqlException {
+        final StringSink sink = new StringSink();
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        return sink.toString();
+    }
+}
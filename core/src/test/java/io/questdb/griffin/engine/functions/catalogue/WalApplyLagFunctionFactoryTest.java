@@ -0,0 +1,79 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.catalogue;
+
+import io.questdb.cairo.wal.ApplyWal2TableJob;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class WalApplyLagFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testLaggedTablesTakeTurns() throws Exception {
+        // every claim applies a single transaction
+        configOverrideWalApplyTableTimeQuota(0);
+        assertMemoryLeak(() -> {
+            createTable("A");
+            createTable("B");
+
+            executeInsert("insert into A values (1, '2022-12-05T01')");
+            executeInsert("insert into A values (2, '2022-12-05T02')");
+            executeInsert("insert into A values (3, '2022-12-05T03')");
+            executeInsert("insert into B values (1, '2022-12-05T01')");
+
+            try (ApplyWal2TableJob walApplyJob = createWalApplyJob()) {
+                // notifications are picked up by the job
+                Assert.assertTrue(walApplyJob.run(0));
+                assertSql("wal_apply_lag() order by name", "name\tsequencerTxn\tappliedTxn\tlag\tapplying\tsuspended\n" +
+                        "A\t3\t1\t2\tfalse\tfalse\n" +
+                        "B\t1\t0\t1\tfalse\tfalse\n");
+
+                // the most lagged table went first but B goes before A is applied again
+                Assert.assertTrue(walApplyJob.run(0));
+                assertSql("wal_apply_lag() order by name", "name\tsequencerTxn\tappliedTxn\tlag\tapplying\tsuspended\n" +
+                        "A\t3\t1\t2\tfalse\tfalse\n" +
+                        "B\t1\t1\t0\tfalse\tfalse\n");
+
+                drainWalQueue(walApplyJob);
+            }
+
+            assertSql("wal_apply_lag() order by name", "name\tsequencerTxn\tappliedTxn\tlag\tapplying\tsuspended\n" +
+                    "A\t3\t3\t0\tfalse\tfalse\n" +
+                    "B\t1\t1\t0\tfalse\tfalse\n");
+            assertSql("select count() from A", "count\n3\n");
+        });
+    }
+
+    @Test
+    public void testNoWalTables() throws Exception {
+        assertMemoryLeak(() -> assertSql("wal_apply_lag()", "name\tsequencerTxn\tappliedTxn\tlag\tapplying\tsuspended\n"));
+    }
+
+    private void createTable(final String tableName) throws SqlException {
+        compile("create table " + tableName + " (x long, ts timestamp) timestamp(ts) partition by DAY WAL");
+    }
+}
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.jit.JitUtil;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class AsyncGroupByNotKeyedRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final int WORKER_COUNT = 4;
+
+    @Test
+    public void testBindVariablesInFilter() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        configOverrideJitGroupByEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            bindVariableService.clear();
+            bindVariableService.setStr("side", "S");
+            bindVariableService.setInt("qty", 500);
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), count(), max(price) from trades where side = :side and qty > :qty",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testColumnTops() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        configOverrideJitGroupByEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            compile("alter table trades add column fee double", sqlExecutionContext);
+            compiler.compile(
+                    "insert into trades select 'B', 1.5, 10, timestamp_sequence(100000000000, 1000000), 0.1 from long_sequence(1000)",
+                    sqlExecutionContext
+            );
+            // frames with column tops are filtered with the Java filter and aggregated row by row
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), count(), sum(fee) from trades where side = 'B' and fee = null",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testEmptyResult() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        configOverrideJitGroupByEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), count(), min(qty), max(price) from trades where qty < 0",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testFallbackToSingleThreadedForJavaFilter() throws Exception {
+        configOverrideJitGroupByEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            // concat() isn't JIT-compatible
+            assertSingleThreadedGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), count() from trades where concat(side, 'x') = 'Bx'"
+            );
+        });
+    }
+
+    @Test
+    public void testFallbackToSingleThreadedForNonCompilableAggregates() throws Exception {
+        configOverrideJitGroupByEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            assertSingleThreadedGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), max(ts) from trades where side = 'B'"
+            );
+            assertSingleThreadedGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), max(length(side)) from trades"
+            );
+        });
+    }
+
+    @Test
+    public void testFallbackToSingleThreadedForNonMergeableFunctions() throws Exception {
+        configOverrideJitGroupByEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            assertSingleThreadedGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select first(price) from trades where side = 'B'"
+            );
+        });
+    }
+
+    @Test
+    public void testFallbackToSingleThreadedWhenJitGroupByDisabled() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            assertSingleThreadedGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), count() from trades where side = 'B'"
+            );
+        });
+    }
+
+    @Test
+    public void testIntegerArithmetic() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        configOverrideJitGroupByEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            // qty has nulls, int and long arithmetic must yield nulls just like the SQL functions
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(qty / 3), sum(qty - 1), sum(qty * 1000000000L), avg(qty), min(-qty), max(qty / 0), sum(price / qty) from trades",
+                    false
+            );
+        });
+    }
+
+    @Test
+    public void testJitFilter() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        configOverrideJitGroupByEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), count(), avg(price), min(qty), max(qty), min(price), max(-price) from trades where side = 'B'",
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testNoFilter() throws Exception {
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        configOverrideJitGroupByEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), count(), min(price * 2) from trades",
+                    false
+            );
+        });
+    }
+
+    private static void assertParallelGroupBy(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query,
+            boolean expectCompiledFilter
+    ) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(AsyncGroupByNotKeyedRecordCursorFactory.class, factory.getClass());
+            Assert.assertEquals(expectCompiledFilter, factory.usesCompiledFilter());
+        }
+
+        // expected results are computed with a single-threaded filter: an open async
+        // filter cursor would hold reduce queue slots for the whole comparison
+        configOverrideParallelGroupByEnabled(false);
+        configOverrideParallelFilterEnabled(false);
+        try (RecordCursorFactory expectedFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(GroupByNotKeyedRecordCursorFactory.class, expectedFactory.getClass());
+            configOverrideParallelGroupByEnabled(true);
+            configOverrideParallelFilterEnabled(null);
+            try (RecordCursorFactory actualFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                // run the query a few times to make sure that the factory is reusable
+                for (int i = 0; i < 3; i++) {
+                    try (
+                            RecordCursor expectedCursor = expectedFactory.getCursor(sqlExecutionContext);
+                            RecordCursor actualCursor = actualFactory.getCursor(sqlExecutionContext)
+                    ) {
+                        TestUtils.assertEquals(expectedCursor, expectedFactory.getMetadata(), actualCursor, actualFactory.getMetadata(), true);
+                    }
+                }
+            }
+        } finally {
+            configOverrideParallelGroupByEnabled(null);
+            configOverrideParallelFilterEnabled(null);
+        }
+    }
+
+    private static void assertSingleThreadedGroupBy(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query
+    ) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(GroupByNotKeyedRecordCursorFactory.class, factory.getClass());
+        }
+    }
+
+    private static void createTrades(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        compiler.compile(
+                "create table trades as (" +
+                        "select rnd_symbol('B','S') side," +
+                        " rnd_double(2) price," +
+                        " rnd_int(0, 1000, 2) qty," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(100000)" +
+                        ") timestamp(ts) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    @Test
+    public void testVectorizedColumnTops() throws Exception {
+        configOverrideVectorizedFunctionsEnabled(true);
+        withPool((compiler, sqlExecutionContext) -> {
+            createTrades(compiler, sqlExecutionContext);
+            compile("alter table trades add column fee double", sqlExecutionContext);
+            compile("alter table trades add column lots long", sqlExecutionContext);
+            compiler.compile(
+                    "insert into trades select 'B', 1.5, 10, timestamp_sequence(100000000000, 1000000), rnd_double(2), rnd_long(0, 100, 2) from long_sequence(1000)",
+                    sqlExecutionContext
+            );
+            // no filter, so frames are aggregated in batches via vector methods
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sum(price * qty), count(), avg(price - fee), sum(lots * 2), min(lots + qty), max(lots - 1), min(fee), max(price / 2) from trades",
+                    false
+            );
+        });
+    }
+
+    private void withPool(GroupByRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new TestWorkerPool(WORKER_COUNT);
+            TestUtils.setupWorkerPool(pool, engine);
+            pool.start();
+            try (SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl(engine, WORKER_COUNT)) {
+                sqlExecutionContext.with(
+                        sqlExecutionContext.getCairoSecurityContext(),
+                        bindVariableService,
+                        null
+                );
+                runnable.run(compiler, sqlExecutionContext);
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface GroupByRunnable {
+        void run(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws Exception;
+    }
+}
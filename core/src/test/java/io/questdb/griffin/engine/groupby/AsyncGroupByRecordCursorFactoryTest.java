@@ -0,0 +1,202 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncGroupByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final int WORKER_COUNT = 4;
+
+    @Test
+    public void testFallbackToSingleThreadedForNonMergeableFunctions() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            compiler.compile("create table x as (select rnd_symbol('a','b','c') s, rnd_double() d, timestamp_sequence(0, 100000000) t from long_sequence(1000)) timestamp(t) partition by hour", sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("select s, first(d) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(GroupByRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testKeyedByMultipleColumns() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select rnd_symbol('AAPL','MSFT','IBM','GOOG') sym," +
+                            " rnd_str('NYSE','NASDAQ','LSE',null) exchange," +
+                            " rnd_int(0, 1000, 2) qty," +
+                            " rnd_long(0, 100000, 2) vol," +
+                            " rnd_double(2) price," +
+                            " rnd_float(2) f," +
+                            " timestamp_sequence(0, 10000000) t" +
+                            " from long_sequence(100000)" +
+                            ") timestamp(t) partition by hour",
+                    sqlExecutionContext
+            );
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sym, exchange, count(), sum(qty), sum(vol), sum(price), sum(f), avg(price), " +
+                            "min(qty), max(qty), min(vol), max(vol), min(price), max(price), min(f), max(f), min(t), max(t) from x",
+                    "sym, exchange"
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedByStringWithIntervalFilter() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select rnd_str(50, 4, 8, 1) k," +
+                            " rnd_long() l," +
+                            " rnd_double() d," +
+                            " timestamp_sequence(0, 1000000) t" +
+                            " from long_sequence(200000)" +
+                            ") timestamp(t) partition by hour",
+                    sqlExecutionContext
+            );
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select k, count(), max(l), min(d), avg(d) from x where t between '1970-01-01T01:00' and '1970-01-02T12:00'",
+                    "k"
+            );
+        });
+    }
+
+    @Test
+    public void testMapResizeLimitExceeded() throws Exception {
+        configOverrideSqlMapMaxResizes(0);
+        configOverrideSqlMapPageSize(1024);
+        withPool((compiler, sqlExecutionContext) -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select x k," +
+                            " rnd_double() d," +
+                            " timestamp_sequence(0, 1000000) t" +
+                            " from long_sequence(100000)" +
+                            ") timestamp(t) partition by hour",
+                    sqlExecutionContext
+            );
+            try (RecordCursorFactory factory = compiler.compile("select k, sum(d) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getClass());
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    // noinspection StatementWithEmptyBody
+                    while (cursor.hasNext()) {
+                    }
+                }
+                Assert.fail();
+            } catch (CairoException e) {
+                // the reduce error must be reported as is rather than as a timeout
+                TestUtils.assertContains(e.getFlyweightMessage(), "limit of 0 resizes exceeded in FastMap");
+            }
+        });
+    }
+
+    @Test
+    public void testNonThreadSafeArguments() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            compiler.compile(
+                    "create table x as (" +
+                            "select rnd_symbol('a','b','c','d') s," +
+                            " rnd_int() i," +
+                            " timestamp_sequence(0, 1000000) t" +
+                            " from long_sequence(100000)" +
+                            ") timestamp(t) partition by hour",
+                    sqlExecutionContext
+            );
+            // concat() is not thread-safe, so each worker must get its own function instances
+            assertParallelGroupBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select s, max(length(concat(s, i))), count() from x",
+                    "s"
+            );
+        });
+    }
+
+    private static void assertParallelGroupBy(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query,
+            String orderBy
+    ) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(AsyncGroupByRecordCursorFactory.class, factory.getClass());
+        }
+
+        final String orderedQuery = "select * from (" + query + ") order by " + orderBy;
+        configOverrideParallelGroupByEnabled(false);
+        try (RecordCursorFactory expectedFactory = compiler.compile(orderedQuery, sqlExecutionContext).getRecordCursorFactory()) {
+            configOverrideParallelGroupByEnabled(true);
+            try (RecordCursorFactory actualFactory = compiler.compile(orderedQuery, sqlExecutionContext).getRecordCursorFactory()) {
+                // run the query a few times to make sure that the factory is reusable
+                for (int i = 0; i < 3; i++) {
+                    try (
+                            RecordCursor expectedCursor = expectedFactory.getCursor(sqlExecutionContext);
+                            RecordCursor actualCursor = actualFactory.getCursor(sqlExecutionContext)
+                    ) {
+                        TestUtils.assertEquals(expectedCursor, expectedFactory.getMetadata(), actualCursor, actualFactory.getMetadata(), true);
+                    }
+                }
+            }
+        } finally {
+            configOverrideParallelGroupByEnabled(null);
+        }
+    }
+
+    private void withPool(GroupByRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new TestWorkerPool(WORKER_COUNT);
+            TestUtils.setupWorkerPool(pool, engine);
+            pool.start();
+            try (SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, WORKER_COUNT)) {
+                runnable.run(compiler, sqlExecutionContext);
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface GroupByRunnable {
+        void run(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws Exception;
+    }
+}
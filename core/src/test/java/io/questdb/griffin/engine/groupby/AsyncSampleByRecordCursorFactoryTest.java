@@ -0,0 +1,180 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncSampleByRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final int WORKER_COUNT = 4;
+
+    @Test
+    public void testAlignToCalendarWithOffset() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallelSampleBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select t, count(), sum(price), max(qty) from x sample by 10m align to calendar with offset '00:03'"
+            );
+        });
+    }
+
+    @Test
+    public void testFallbackToSingleThreaded() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertFactory(compiler, sqlExecutionContext, "select sym, first(price) from x sample by 1h", SampleByFillNoneRecordCursorFactory.class);
+            assertFactory(compiler, sqlExecutionContext, "select sym, sum(price) from x sample by 1h fill(prev)", SampleByFillPrevRecordCursorFactory.class);
+            assertFactory(compiler, sqlExecutionContext, "select sym, sum(price) from x sample by 1M", SampleByFillNoneRecordCursorFactory.class);
+            assertFactory(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sym, sum(price) from x sample by 1h align to calendar time zone 'Europe/Berlin'",
+                    SampleByFillNoneRecordCursorFactory.class
+            );
+        });
+    }
+
+    @Test
+    public void testKeyed() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallelSampleBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sym, exchange, t, count(), sum(qty), sum(vol), avg(price), " +
+                            "min(qty), max(qty), min(vol), max(vol), min(price), max(price), min(t), max(t) from x sample by 1h"
+            );
+        });
+    }
+
+    @Test
+    public void testKeyedWithIntervalFilter() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallelSampleBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select t, sym, count(), avg(price) from x where t between '1970-01-01T01:17' and '1970-01-02T12:00' sample by 17m"
+            );
+        });
+    }
+
+    @Test
+    public void testNonThreadSafeArguments() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            // concat() is not thread-safe, so each worker must get its own function instances
+            assertParallelSampleBy(
+                    compiler,
+                    sqlExecutionContext,
+                    "select sym, max(length(concat(sym, qty))), count() from x sample by 2h"
+            );
+        });
+    }
+
+    private static void assertFactory(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query,
+            Class<?> expectedClass
+    ) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(expectedClass, factory.getClass());
+        }
+    }
+
+    private static void assertParallelSampleBy(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query
+    ) throws SqlException {
+        assertFactory(compiler, sqlExecutionContext, query, AsyncSampleByRecordCursorFactory.class);
+
+        // parallel SAMPLE BY must produce rows in the same order as the single-threaded one
+        configOverrideParallelSampleByEnabled(false);
+        try (RecordCursorFactory expectedFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            configOverrideParallelSampleByEnabled(true);
+            try (RecordCursorFactory actualFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                // run the query a few times to make sure that the factory is reusable
+                for (int i = 0; i < 3; i++) {
+                    try (
+                            RecordCursor expectedCursor = expectedFactory.getCursor(sqlExecutionContext);
+                            RecordCursor actualCursor = actualFactory.getCursor(sqlExecutionContext)
+                    ) {
+                        TestUtils.assertEquals(expectedCursor, expectedFactory.getMetadata(), actualCursor, actualFactory.getMetadata(), true);
+                    }
+                }
+            }
+        } finally {
+            configOverrideParallelSampleByEnabled(null);
+        }
+    }
+
+    private static void createTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select rnd_symbol('AAPL','MSFT','IBM','GOOG') sym," +
+                        " rnd_str('NYSE','NASDAQ','LSE',null) exchange," +
+                        " rnd_int(0, 1000, 2) qty," +
+                        " rnd_long(0, 100000, 2) vol," +
+                        " rnd_double(2) price," +
+                        " timestamp_sequence(1234567, 1000000) t" +
+                        " from long_sequence(200000)" +
+                        ") timestamp(t) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void withPool(SampleByRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new TestWorkerPool(WORKER_COUNT);
+            TestUtils.setupWorkerPool(pool, engine);
+            pool.start();
+            try (SqlExecutionContext sqlExecutionContext = new SqlExecutionContextImpl(engine, WORKER_COUNT)) {
+                runnable.run(compiler, sqlExecutionContext);
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface SampleByRunnable {
+        void run(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws Exception;
+    }
+}
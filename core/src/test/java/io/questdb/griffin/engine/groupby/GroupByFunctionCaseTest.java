@@ -94,6 +94,8 @@ public class GroupByFunctionCaseTest extends AbstractGriffinTest {
 
     @Test
     public void testAggregatesOnColumnWithSingleKeyWorkRegardlessOfCase() throws Exception {
+        // these assert single-threaded (vectorized or not) plans
+        configOverrideParallelGroupByEnabled(false);
         assertMemoryLeak(() -> {
             String[] functions = {"KSum", "NSum", "Sum", "Avg", "Min", "Max"};
             String[][] expectedFunctions = {{"ksum(val)", "nsum(val)", "sum(val)", "avg(val)", "min(val)", "max(val)"},//byte
@@ -148,6 +150,8 @@ public class GroupByFunctionCaseTest extends AbstractGriffinTest {
 
     @Test
     public void testAggregatesOnColumnWithTwoKeysAreNotVectorized() throws Exception {
+        // these assert single-threaded (vectorized or not) plans
+        configOverrideParallelGroupByEnabled(false);
         assertMemoryLeak(() -> {
             String[] functions = {"KSum", "NSum", "Sum", "Avg", "Min", "Max"};
 
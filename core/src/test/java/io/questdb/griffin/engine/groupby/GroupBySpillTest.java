@@ -0,0 +1,122 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class GroupBySpillTest extends AbstractGriffinTest {
+
+    @Test
+    public void testSpillFilesRemovedOnClose() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            configOverrideSpillMemoryBudget(1);
+            try (RecordCursorFactory factory = compiler.compile("select k, count() from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(GroupByRecordCursorFactory.class, factory.getClass());
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        Assert.assertEquals(1000, cursor.size());
+                        // partition files are removed once aggregated, only the result file is left
+                        Assert.assertEquals(1, countSpillFiles());
+                    }
+                    Assert.assertEquals(0, countSpillFiles());
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testSpillIntKey() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSpill("select k, count(), sum(x), min(d), max(d), avg(d), first(x), last(x) from x order by k");
+        });
+    }
+
+    @Test
+    public void testSpillNoRows() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSpill("select k, count() from x where x < 0 order by k");
+        });
+    }
+
+    @Test
+    public void testSpillRandomAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            configOverrideSpillMemoryBudget(1);
+            assertQuery(
+                    "sym\tcount\tlast\n" +
+                            "A\t33359\t99998\n" +
+                            "B\t33067\t99997\n" +
+                            "C\t33574\t100000\n",
+                    "select sym, count(), last(x) from x",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testSpillStrAndSymbolKeys() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSpill("select s, sym, count(), first(d), last(sym), max(x) from x order by s, sym");
+        });
+    }
+
+    private static int countSpillFiles() {
+        final String[] files = new File(root.toString()).list((dir, name) -> name.startsWith("groupby_spill_"));
+        return files != null ? files.length : 0;
+    }
+
+    private void assertSpill(String query) throws SqlException {
+        configOverrideSpillMemoryBudget(0);
+        TestUtils.printSql(compiler, sqlExecutionContext, query, sink);
+        final String expected = sink.toString();
+        configOverrideSpillMemoryBudget(1);
+        TestUtils.assertSql(compiler, sqlExecutionContext, query, sink, expected);
+    }
+
+    private void createTable() throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select x, x % 1000 k, rnd_double() d, rnd_str(100, 1, 4, 1) s, rnd_symbol('A', 'B', 'C') sym " +
+                        "from long_sequence(100000)" +
+                        ")",
+                sqlExecutionContext
+        );
+    }
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlCompiler;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.mp.TestWorkerPool;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AsyncTopKRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    private static final int WORKER_COUNT = 4;
+
+    @Test
+    public void testBindVariableLimit() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            // the same factory must honour the new limit on each execution
+            for (long limit : new long[]{10, 1000, -25, 0, 3}) {
+                sqlExecutionContext.getBindVariableService().clear();
+                sqlExecutionContext.getBindVariableService().setLong(0, limit);
+                assertParallelTopK(compiler, sqlExecutionContext, "select * from x where i > 10 order by i limit $1");
+            }
+        });
+    }
+
+    @Test
+    public void testFallbackToSingleThreaded() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            // lo, hi limit
+            assertFactory(compiler, sqlExecutionContext, "select * from x where i > 10 order by i limit 10, 20", LimitedSizeSortedLightRecordCursorFactory.class);
+            // JIT compiled filter
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_ENABLED);
+            try (RecordCursorFactory factory = compiler.compile("select * from x where i > 10 order by i limit 10", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(factory.getBaseFactory().usesCompiledFilter(), factory.getClass() == LimitedSizeSortedLightRecordCursorFactory.class);
+            } finally {
+                sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            }
+            configOverrideParallelTopKEnabled(false);
+            assertFactory(compiler, sqlExecutionContext, "select * from x where i > 10 order by i limit 10", LimitedSizeSortedLightRecordCursorFactory.class);
+        });
+    }
+
+    @Test
+    public void testFilteredFirstN() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            // few distinct values, so that ties are cut at the limit and frames disagree about them
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x where i > 10 order by i limit 100");
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x where i > 10 order by i desc limit 100");
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x where s = 'c' order by d desc limit 33");
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x where d > 0.5 order by s, i desc limit 57");
+        });
+    }
+
+    @Test
+    public void testFilteredLastN() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x where i > 10 order by i limit -100");
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x where s <> 'a' order by s desc, l limit -42");
+        });
+    }
+
+    @Test
+    public void testLimitLargerThanResult() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x where i = 42 order by l limit 100000");
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x where i < 0 order by l limit 10");
+        });
+    }
+
+    @Test
+    public void testNoFilter() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            createTable(compiler, sqlExecutionContext);
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x order by l limit 20");
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from x order by i, d desc limit -15");
+            assertParallelTopK(compiler, sqlExecutionContext, "select s, i from x order by s desc limit 300");
+        });
+    }
+
+    @Test
+    public void testSymbolOrderWithNewSymbols() throws Exception {
+        withPool((compiler, sqlExecutionContext) -> {
+            compiler.compile(
+                    "create table y as (" +
+                            "select rnd_symbol(1000, 4, 8, 0) s," +
+                            " rnd_int(0, 100, 2) i," +
+                            " timestamp_sequence(0, 1000000) t" +
+                            " from long_sequence(50000)" +
+                            ") timestamp(t) partition by hour",
+                    sqlExecutionContext
+            );
+            // each worker compares symbol values read through its own symbol tables
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from y order by s, i limit 250");
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from y where i > 50 order by s desc limit -120");
+            // symbols added after the first execution must be visible to all of the workers
+            compiler.compile(
+                    "insert into y select rnd_symbol(1000, 9, 12, 0) s," +
+                            " rnd_int(0, 100, 2) i," +
+                            " timestamp_sequence(50000000000, 1000000) t" +
+                            " from long_sequence(50000)",
+                    sqlExecutionContext
+            );
+            assertParallelTopK(compiler, sqlExecutionContext, "select * from y order by s desc, i limit 250");
+        });
+    }
+
+    private static void assertFactory(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query,
+            Class<?> expectedClass
+    ) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(expectedClass, factory.getClass());
+        }
+    }
+
+    private static void assertParallelTopK(
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext,
+            String query
+    ) throws SqlException {
+        assertFactory(compiler, sqlExecutionContext, query, AsyncTopKRecordCursorFactory.class);
+
+        configOverrideParallelTopKEnabled(false);
+        try (RecordCursorFactory expectedFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            configOverrideParallelTopKEnabled(true);
+            try (RecordCursorFactory actualFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                // run the query a few times to make sure that the factory is reusable
+                for (int i = 0; i < 3; i++) {
+                    sink.clear();
+                    try (RecordCursor expectedCursor = expectedFactory.getCursor(sqlExecutionContext)) {
+                        printer.print(expectedCursor, expectedFactory.getMetadata(), true, sink);
+                    }
+                    final String expected = sink.toString();
+                    sink.clear();
+                    try (RecordCursor actualCursor = actualFactory.getCursor(sqlExecutionContext)) {
+                        printer.print(actualCursor, actualFactory.getMetadata(), true, sink);
+                    }
+                    // order of ties must match as well
+                    TestUtils.assertEquals(expected, sink);
+                }
+            }
+        } finally {
+            configOverrideParallelTopKEnabled(null);
+        }
+    }
+
+    private static void createTable(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        compiler.compile(
+                "create table x as (" +
+                        "select rnd_symbol('a','b','c','d') s," +
+                        " rnd_int(0, 100, 2) i," +
+                        " rnd_long(0, 1000, 2) l," +
+                        " rnd_double(2) d," +
+                        " timestamp_sequence(0, 1000000) t" +
+                        " from long_sequence(100000)" +
+                        ") timestamp(t) partition by hour",
+                sqlExecutionContext
+        );
+    }
+
+    private void withPool(TopKRunnable runnable) throws Exception {
+        assertMemoryLeak(() -> {
+            final WorkerPool pool = new TestWorkerPool(WORKER_COUNT);
+            TestUtils.setupWorkerPool(pool, engine);
+            pool.start();
+            try (SqlExecutionContextImpl sqlExecutionContext = new SqlExecutionContextImpl(engine, WORKER_COUNT)) {
+                sqlExecutionContext.with(
+                        sqlExecutionContext.getCairoSecurityContext(),
+                        bindVariableService,
+                        null
+                );
+                // compiled filters are not supported by parallel top K
+                sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+                runnable.run(compiler, sqlExecutionContext);
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface TopKRunnable {
+        void run(SqlCompiler compiler, SqlExecutionContext sqlExecutionContext) throws Exception;
+    }
+}
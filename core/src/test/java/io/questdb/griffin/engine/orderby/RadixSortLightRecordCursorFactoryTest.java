@@ -0,0 +1,206 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.orderby;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.SqlExecutionContextImpl;
+import io.questdb.mp.WorkerPool;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.File;
+
+public class RadixSortLightRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAllTypesAsc() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            for (String column : new String[]{"b", "sh", "c", "i", "l", "d", "ts"}) {
+                assertRadixSort("select * from x order by " + column);
+            }
+        });
+    }
+
+    @Test
+    public void testAllTypesDesc() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            for (String column : new String[]{"b", "sh", "c", "i", "l", "d", "ts"}) {
+                assertRadixSort("select * from x order by " + column + " desc");
+            }
+        });
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertRadixSort("select * from x where k < 0 order by i");
+        });
+    }
+
+    @Test
+    public void testFallbackToTreeSort() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertFactory("select * from x order by i, l", SortedLightRecordCursorFactory.class);
+            assertFactory("select * from x order by s", SortedLightRecordCursorFactory.class);
+            assertFactory("select * from x order by dbl", SortedLightRecordCursorFactory.class);
+            configOverrideRadixSortEnabled(false);
+            assertFactory("select * from x order by i", SortedLightRecordCursorFactory.class);
+        });
+    }
+
+    @Test
+    public void testParallelRuns() throws Exception {
+        configOverrideRadixSortMinRunSize(1000);
+        assertMemoryLeak(() -> {
+            createTable();
+            final WorkerPool pool = new WorkerPool(() -> 3);
+            pool.assign(new SortRunJob(engine.getMessageBus()));
+            pool.start(LOG);
+            try (SqlExecutionContext context = new SqlExecutionContextImpl(engine, 4)) {
+                for (String column : new String[]{"b", "sh", "c", "i", "l", "d", "ts"}) {
+                    assertRadixSort("select * from x order by " + column, context);
+                    assertRadixSort("select * from x order by " + column + " desc", context);
+                }
+            } finally {
+                pool.halt();
+            }
+        });
+    }
+
+    @Test
+    public void testParallelRunsSortedByQueryThread() throws Exception {
+        configOverrideRadixSortMinRunSize(1000);
+        assertMemoryLeak(() -> {
+            createTable();
+            // no workers consume the queue, the query thread sorts all runs
+            try (SqlExecutionContext context = new SqlExecutionContextImpl(engine, 4)) {
+                assertRadixSort("select * from x order by i", context);
+                assertRadixSort("select * from x order by l desc", context);
+
+                // merge starts over on toTop()
+                try (RecordCursorFactory factory = compiler.compile("select * from x order by i", context).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(context)) {
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+                        final String expected = sink.toString();
+                        cursor.toTop();
+                        TestUtils.printCursor(cursor, factory.getMetadata(), true, sink, TestUtils.printer);
+                        TestUtils.assertEquals(expected, sink);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testRandomAccess() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table y as (select x, 5 - x % 3 i from long_sequence(6))", sqlExecutionContext);
+            assertQuery(
+                    "x\ti\n" +
+                            "6\t5\n" +
+                            "3\t5\n" +
+                            "4\t4\n" +
+                            "1\t4\n" +
+                            "5\t3\n" +
+                            "2\t3\n",
+                    "select * from y order by i desc",
+                    null,
+                    true,
+                    true
+            );
+        });
+    }
+
+    @Test
+    public void testSpill() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            configOverrideSpillMemoryBudget(1024);
+            assertRadixSort("select * from x order by l");
+            try (RecordCursorFactory factory = compiler.compile("select * from x order by i desc", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(RadixSortLightRecordCursorFactory.class, factory.getClass());
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        // copy buffer is removed right after sorting, only the index file is left
+                        Assert.assertEquals(1, countSpillFiles());
+                        long count = 0;
+                        while (cursor.hasNext()) {
+                            count++;
+                        }
+                        Assert.assertEquals(10000, count);
+                    }
+                    Assert.assertEquals(0, countSpillFiles());
+                }
+            }
+        });
+    }
+
+    private static int countSpillFiles() {
+        final String[] files = new File(root.toString()).list((dir, name) -> name.startsWith("sort_spill_"));
+        return files != null ? files.length : 0;
+    }
+
+    private void assertFactory(String query, Class<?> expectedClass) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(expectedClass, factory.getClass());
+        }
+    }
+
+    private void assertRadixSort(String query) throws SqlException {
+        assertRadixSort(query, sqlExecutionContext);
+    }
+
+    private void assertRadixSort(String query, SqlExecutionContext context) throws SqlException {
+        configOverrideRadixSortEnabled(false);
+        TestUtils.printSql(compiler, context, query, sink);
+        final String expected = sink.toString();
+        configOverrideRadixSortEnabled(true);
+        assertFactory(query, RadixSortLightRecordCursorFactory.class);
+        TestUtils.assertSql(compiler, context, query, sink, expected);
+    }
+
+    private void createTable() throws SqlException {
+        // small value ranges, nulls and duplicates check that ties come out in the same order as with the tree chain
+        compiler.compile(
+                "create table x as (" +
+                        "select x k, rnd_byte() b, rnd_short(-10, 10) sh, rnd_char() c, rnd_int(-100, 100, 2) i, " +
+                        "rnd_long(-1000, 1000, 2) l, rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) d, " +
+                        "rnd_timestamp(to_timestamp('2015', 'yyyy'), to_timestamp('2016', 'yyyy'), 2) ts, " +
+                        "rnd_str(5, 1, 3, 1) s, rnd_double(2) dbl " +
+                        "from long_sequence(10000)" +
+                        ")",
+                sqlExecutionContext
+        );
+    }
+}
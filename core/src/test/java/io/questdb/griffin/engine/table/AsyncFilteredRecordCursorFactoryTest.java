@@ -33,8 +33,11 @@ import io.questdb.griffin.*;
 import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.jit.JitUtil;
 import io.questdb.mp.*;
+import io.questdb.std.Files;
+import io.questdb.std.FilesFacade;
 import io.questdb.std.Misc;
 import io.questdb.std.Rnd;
+import io.questdb.std.TestFilesFacadeImpl;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.hamcrest.MatcherAssert;
@@ -455,6 +458,69 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testReadAhead() throws Exception {
+        final AtomicInteger willNeedCount = new AtomicInteger();
+        ff = newReadAheadCountingFacade(willNeedCount);
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            configOverridePageFrameReadAheadCount(2);
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+
+            compiler.compile("create table x as (select rnd_double() a, timestamp_sequence(20000000, 100000) t from long_sequence(100000)) timestamp(t) partition by hour", sqlExecutionContext);
+            final String sql = "select 'foobar' as c1, t as c2, a as c3, sqrt(a) as c4 from x where a > 0.345747032 and a < 0.34585 limit 5";
+
+            willNeedCount.set(0);
+            assertQuery(compiler,
+                    "c1\tc2\tc3\tc4\n" +
+                            "foobar\t1970-01-01T00:29:28.300000Z\t0.3458428093770707\t0.5880840155769163\n" +
+                            "foobar\t1970-01-01T00:34:42.600000Z\t0.3457731257014821\t0.5880247662313911\n" +
+                            "foobar\t1970-01-01T00:42:39.700000Z\t0.3457641654104435\t0.5880171472078374\n" +
+                            "foobar\t1970-01-01T00:52:14.800000Z\t0.345765350101064\t0.5880181545675813\n" +
+                            "foobar\t1970-01-01T00:58:31.000000Z\t0.34580598176419974\t0.5880527032198728\n",
+                    sql,
+                    "c2",
+                    sqlExecutionContext,
+                    true,
+                    true,
+                    false,
+                    true
+            );
+            // the table has 3 hourly partitions, so at least the first two frames of each query
+            // run have both of their columns advised as soon as the frames are dispatched
+            Assert.assertTrue("advised pages: " + willNeedCount.get(), willNeedCount.get() >= 2 * 2);
+        });
+    }
+
+    @Test
+    public void testReadAheadDisabled() throws Exception {
+        final AtomicInteger willNeedCount = new AtomicInteger();
+        ff = newReadAheadCountingFacade(willNeedCount);
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            configOverridePageFrameReadAheadCount(0);
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+
+            compiler.compile("create table x as (select rnd_double() a, timestamp_sequence(20000000, 100000) t from long_sequence(100000)) timestamp(t) partition by hour", sqlExecutionContext);
+
+            willNeedCount.set(0);
+            assertQuery(compiler,
+                    "c1\tc2\tc3\tc4\n" +
+                            "foobar\t1970-01-01T00:29:28.300000Z\t0.3458428093770707\t0.5880840155769163\n" +
+                            "foobar\t1970-01-01T00:34:42.600000Z\t0.3457731257014821\t0.5880247662313911\n" +
+                            "foobar\t1970-01-01T00:42:39.700000Z\t0.3457641654104435\t0.5880171472078374\n" +
+                            "foobar\t1970-01-01T00:52:14.800000Z\t0.345765350101064\t0.5880181545675813\n" +
+                            "foobar\t1970-01-01T00:58:31.000000Z\t0.34580598176419974\t0.5880527032198728\n",
+                    "select 'foobar' as c1, t as c2, a as c3, sqrt(a) as c4 from x where a > 0.345747032 and a < 0.34585 limit 5",
+                    "c2",
+                    sqlExecutionContext,
+                    true,
+                    true,
+                    false,
+                    true
+            );
+            Assert.assertEquals(0, willNeedCount.get());
+        });
+    }
+
     @Test
     public void testSymbolEqualsBindVariableFilter() throws Exception {
         testSymbolEqualsBindVariableFilter(SqlJitMode.JIT_MODE_DISABLED, AsyncFilteredRecordCursorFactory.class);
@@ -506,6 +572,21 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         });
     }
 
+    @NotNull
+    private static FilesFacade newReadAheadCountingFacade(AtomicInteger willNeedCount) {
+        // read-ahead advice is defined on Linux only, elsewhere it can't be told apart from other advice
+        Assume.assumeTrue(Files.POSIX_MADV_WILLNEED > -1);
+        return new TestFilesFacadeImpl() {
+            @Override
+            public void madvise(long address, long len, int advise) {
+                if (advise == Files.POSIX_MADV_WILLNEED) {
+                    willNeedCount.incrementAndGet();
+                }
+                super.madvise(address, len, advise);
+            }
+        };
+    }
+
     private void resetTaskCapacities() {
         // Tests that involve LIMIT clause may lead to only a fraction of the page frames being
         // reduced and/or collected before the factory gets closed. When that happens, row id and
@@ -809,9 +890,14 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
                 @Nullable RecordSink partitionBySink,
                 @Nullable ColumnTypes keyTypes,
                 boolean isOrdered,
+                @Nullable CharSequence orderBy,
+                int framingMode,
+                long rowsLo,
+                long rowsHi,
+                int timestampIndex,
                 boolean baseSupportsRandomAccess
         ) {
-            sqlExecutionContext.configureAnalyticContext(partitionByRecord, partitionBySink, keyTypes, isOrdered, baseSupportsRandomAccess);
+            sqlExecutionContext.configureAnalyticContext(partitionByRecord, partitionBySink, keyTypes, isOrdered, orderBy, framingMode, rowsLo, rowsHi, timestampIndex, baseSupportsRandomAccess);
         }
 
         @Override
@@ -0,0 +1,205 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class VectorizedVirtualRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        configOverrideVectorizedFunctionsEnabled(true);
+    }
+
+    @Test
+    public void testArithmetic() throws Exception {
+        assertMemoryLeak(() -> {
+            createNumbers();
+            assertVectorized("select i + j, i - j, i * j, i / j, l + m, l - m, l * m, l / m, d + e, d - e, d * e, d / e from x");
+            assertVectorized("select b + s, s * 2, f + d, f * i, i + l, d * l, abs(d), sqrt(e), floor(d) from x");
+        });
+    }
+
+    @Test
+    public void testBatchesWithinFrame() throws Exception {
+        // frames are larger than the batch, so each frame is evaluated in a few batches
+        pageFrameMaxRows = 10_000;
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_long(-100, 100, 2) l, rnd_double(2) d from long_sequence(25000))");
+            assertVectorized("select l * 3, d - l from x");
+        });
+    }
+
+    @Test
+    public void testCasts() throws Exception {
+        assertMemoryLeak(() -> {
+            createNumbers();
+            assertVectorized("select cast(i as long), cast(i as double), cast(l as double), cast(d as long), cast(l as int), cast(l + m as int) from x");
+        });
+    }
+
+    @Test
+    public void testColumnTops() throws Exception {
+        assertMemoryLeak(() -> {
+            createNumbers();
+            compile("alter table x add column k int");
+            compile("alter table x add column g double");
+            compile("insert into x select rnd_int(), rnd_int(), rnd_long(), rnd_long(), rnd_double(), rnd_double(), rnd_float(), 1, 2, timestamp_sequence(100000000000, 1000000), rnd_int(), rnd_double() from long_sequence(1500)");
+            assertVectorized("select k + i, g * d, k < i, g < d from x");
+        });
+    }
+
+    @Test
+    public void testComparisons() throws Exception {
+        assertMemoryLeak(() -> {
+            createNumbers();
+            assertVectorized("select i < j, i >= j, l < m, l >= m, d < e, d >= e, i + 1 < l from x");
+        });
+    }
+
+    @Test
+    public void testConstants() throws Exception {
+        assertMemoryLeak(() -> {
+            createNumbers();
+            assertVectorized("select i + 42, l * 10000000000L, d / 2.5, l - 7 from x");
+        });
+    }
+
+    @Test
+    public void testDateFunctions() throws Exception {
+        assertMemoryLeak(() -> {
+            createNumbers();
+            assertVectorized("select hour(ts), year(ts), hour(ts) * 60 + i from x");
+        });
+    }
+
+    @Test
+    public void testFallbackToRowByRow() throws Exception {
+        assertMemoryLeak(() -> {
+            createNumbers();
+            try (RecordCursorFactory factory = compiler.compile("select i + j, concat(i, 'x') from x", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(VirtualRecordCursorFactory.class, factory.getClass());
+            }
+            // descending order requires backward page frames
+            try (RecordCursorFactory factory = compiler.compile("select i + j from x order by ts desc", sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertNotEquals(VectorizedVirtualRecordCursorFactory.class, factory.getClass());
+            }
+        });
+    }
+
+    @Test
+    public void testIntOverflow() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_int() i, rnd_int(0, 10, 2) j from long_sequence(3000))");
+            assertVectorized("select i * i, i + i, i - i * 3, i * j from x");
+        });
+    }
+
+    @Test
+    public void testPlan() throws Exception {
+        assertMemoryLeak(() -> {
+            createNumbers();
+            assertPlan(
+                    "select i + j, d * 2 from x",
+                    "VirtualRecord vectorized: true\n" +
+                            "  functions: [i+j,d*2]\n" +
+                            "    DataFrame\n" +
+                            "        Row forward scan\n" +
+                            "        Frame forward scan on: x\n"
+            );
+        });
+    }
+
+    @Test
+    public void testReuseAndToTop() throws Exception {
+        assertMemoryLeak(() -> {
+            createNumbers();
+            final String query = "select l - m, d * e from x where ts in '1970-01-01T00:10'";
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(VectorizedVirtualRecordCursorFactory.class, factory.getClass());
+                for (int i = 0; i < 2; i++) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        long count = 0;
+                        while (cursor.hasNext()) {
+                            count++;
+                        }
+                        cursor.toTop();
+                        long countAfterToTop = 0;
+                        while (cursor.hasNext()) {
+                            countAfterToTop++;
+                        }
+                        Assert.assertEquals(60, count);
+                        Assert.assertEquals(count, countAfterToTop);
+                    }
+                }
+            }
+        });
+    }
+
+    private void assertVectorized(String query) throws SqlException {
+        try (RecordCursorFactory actualFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertEquals(VectorizedVirtualRecordCursorFactory.class, actualFactory.getClass());
+            configOverrideVectorizedFunctionsEnabled(false);
+            try (RecordCursorFactory expectedFactory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertEquals(VirtualRecordCursorFactory.class, expectedFactory.getClass());
+                try (
+                        RecordCursor expectedCursor = expectedFactory.getCursor(sqlExecutionContext);
+                        RecordCursor actualCursor = actualFactory.getCursor(sqlExecutionContext)
+                ) {
+                    TestUtils.assertEquals(expectedCursor, expectedFactory.getMetadata(), actualCursor, actualFactory.getMetadata(), true);
+                }
+            } finally {
+                configOverrideVectorizedFunctionsEnabled(true);
+            }
+        }
+    }
+
+    private void createNumbers() throws SqlException {
+        compile(
+                "create table x as (" +
+                        "select rnd_int(-1000, 1000, 2) i," +
+                        " rnd_int(-10, 10, 2) j," +
+                        " rnd_long(-100000, 100000, 2) l," +
+                        " rnd_long(-10, 10, 2) m," +
+                        " rnd_double(2) d," +
+                        " rnd_double(2) e," +
+                        " rnd_float(2) f," +
+                        " rnd_byte() b," +
+                        " rnd_short() s," +
+                        " timestamp_sequence(0, 1000000) ts" +
+                        " from long_sequence(5000)" +
+                        ") timestamp(ts) partition by hour"
+        );
+    }
+}
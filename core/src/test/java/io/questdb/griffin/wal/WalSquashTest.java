@@ -0,0 +1,127 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.wal;
+
+import io.questdb.cairo.TableWriter;
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class WalSquashTest extends AbstractGriffinTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        configOverrideWalSquashEnabled(true);
+    }
+
+    @Test
+    public void testSquashDedup() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (i int, sym symbol, ts timestamp) timestamp(ts) partition by DAY WAL dedup upsert keys(ts, sym)");
+            executeInsert("insert into x values (1, 'a', '2022-02-24T01'), (2, 'b', '2022-02-24T01')");
+            executeInsert("insert into x values (3, 'a', '2022-02-24T01'), (4, 'c', '2022-02-24T00')");
+
+            drainWalQueue();
+
+            assertSql("x", "i\tsym\tts\n" +
+                    "4\tc\t2022-02-24T00:00:00.000000Z\n" +
+                    "2\tb\t2022-02-24T01:00:00.000000Z\n" +
+                    "3\ta\t2022-02-24T01:00:00.000000Z\n");
+            assertTxn(1);
+        });
+    }
+
+    @Test
+    public void testSquashFlushedOnMaxRows() throws Exception {
+        configOverrideWalSquashMaxRows(2);
+        assertMemoryLeak(() -> {
+            compile("create table x (i int, sym symbol, ts timestamp) timestamp(ts) partition by DAY WAL");
+            executeInsert("insert into x values (1, 'a', '2022-02-24T01')");
+            executeInsert("insert into x values (2, 'b', '2022-02-24T02')");
+            executeInsert("insert into x values (3, 'c', '2022-02-24T03')");
+
+            drainWalQueue();
+
+            assertSql("x", "i\tsym\tts\n" +
+                    "1\ta\t2022-02-24T01:00:00.000000Z\n" +
+                    "2\tb\t2022-02-24T02:00:00.000000Z\n" +
+                    "3\tc\t2022-02-24T03:00:00.000000Z\n");
+            assertTxn(2);
+        });
+    }
+
+    @Test
+    public void testSquashFlushedOnStructureChange() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (i int, sym symbol, ts timestamp) timestamp(ts) partition by DAY WAL");
+            executeInsert("insert into x values (1, 'a', '2022-02-24T01')");
+            executeInsert("insert into x values (2, 'b', '2022-02-24T02')");
+            compile("alter table x add column j int");
+            executeInsert("insert into x values (3, 'c', '2022-02-24T00', 30)");
+
+            drainWalQueue();
+
+            assertSql("x", "i\tsym\tts\tj\n" +
+                    "3\tc\t2022-02-24T00:00:00.000000Z\t30\n" +
+                    "1\ta\t2022-02-24T01:00:00.000000Z\tNaN\n" +
+                    "2\tb\t2022-02-24T02:00:00.000000Z\tNaN\n");
+            // squashed inserts, column add and the last insert applied on its own
+            assertTxn(3);
+        });
+    }
+
+    @Test
+    public void testSquashOutOfOrderWithNewSymbols() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (i int, sym symbol, s string, ts timestamp) timestamp(ts) partition by DAY WAL");
+            executeInsert("insert into x values (1, 'a', 'x1', '2022-02-24T02')");
+            executeInsert("insert into x values (2, 'b', 'x2', '2022-02-24T01'), (3, 'a', null, '2022-02-25T01')");
+            executeInsert("insert into x values (4, 'c', 'x4', '2022-02-23T23'), (5, 'b', 'x5', '2022-02-24T01')");
+
+            drainWalQueue();
+
+            assertSql("x", "i\tsym\ts\tts\n" +
+                    "4\tc\tx4\t2022-02-23T23:00:00.000000Z\n" +
+                    "2\tb\tx2\t2022-02-24T01:00:00.000000Z\n" +
+                    "5\tb\tx5\t2022-02-24T01:00:00.000000Z\n" +
+                    "1\ta\tx1\t2022-02-24T02:00:00.000000Z\n" +
+                    "3\ta\t\t2022-02-25T01:00:00.000000Z\n");
+            assertSql("select sym, count() from x order by sym", "sym\tcount\n" +
+                    "a\t2\n" +
+                    "b\t2\n" +
+                    "c\t1\n");
+            assertTxn(1);
+        });
+    }
+
+    private static void assertTxn(long expected) {
+        try (TableWriter writer = getWriter("x")) {
+            Assert.assertEquals(expected, writer.getTxn());
+        }
+    }
+}
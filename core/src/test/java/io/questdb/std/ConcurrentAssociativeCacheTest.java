@@ -0,0 +1,209 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import io.questdb.metrics.Gauge;
+import io.questdb.metrics.GaugeImpl;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentAssociativeCacheTest {
+
+    @Test
+    public void testBasic() {
+        ConcurrentAssociativeCache<String> cache = new ConcurrentAssociativeCache<>(8, 64);
+        cache.put("X", "1");
+        cache.put("Y", "2");
+        cache.put("Z", "3");
+        Assert.assertEquals("1", cache.poll("X"));
+        Assert.assertEquals("2", cache.poll("Y"));
+        Assert.assertEquals("3", cache.poll("Z"));
+        Assert.assertNull(cache.poll("X"));
+        Assert.assertNull(cache.poll("Y"));
+        Assert.assertNull(cache.poll("Z"));
+    }
+
+    @Test
+    public void testConcurrentCheckout() throws Exception {
+        final int threadCount = 4;
+        final int iterations = 10_000;
+        final Gauge gauge = new GaugeImpl("foobar");
+        final ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(2, 2, gauge);
+        final AtomicInteger open = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final Thread[] threads = new Thread[threadCount];
+
+        for (int t = 0; t < threadCount; t++) {
+            final int seed = t;
+            threads[t] = new Thread(() -> {
+                try {
+                    final Rnd rnd = new Rnd(seed, seed);
+                    barrier.await();
+                    for (int i = 0; i < iterations; i++) {
+                        final String key = "q" + rnd.nextInt(8);
+                        Value value = cache.poll(key);
+                        if (value == null) {
+                            value = new Value(open);
+                        }
+                        // values must never be handed out to two threads at the same time
+                        if (value.users.incrementAndGet() != 1) {
+                            errors.incrementAndGet();
+                        }
+                        value.users.decrementAndGet();
+                        cache.put(key, value);
+                    }
+                } catch (Throwable e) {
+                    errors.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+
+        for (int t = 0; t < threadCount; t++) {
+            threads[t].join();
+        }
+        Assert.assertEquals(0, errors.get());
+        Assert.assertEquals(open.get(), gauge.getValue());
+
+        cache.close();
+        Assert.assertEquals(0, open.get());
+        Assert.assertEquals(0, gauge.getValue());
+    }
+
+    @Test
+    public void testEvictedValuesAreClosed() {
+        final AtomicInteger open = new AtomicInteger();
+        final ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(1, 1);
+        final Value first = new Value(open);
+        cache.put("X", first);
+        cache.put("X", first);
+        Assert.assertEquals(1, open.get());
+
+        cache.put("X", new Value(open));
+        Assert.assertEquals(1, open.get());
+        Assert.assertTrue(first.closed);
+
+        cache.put("Y", new Value(open));
+        Assert.assertEquals(1, open.get());
+        Assert.assertNull(cache.poll("X"));
+
+        cache.clear();
+        Assert.assertEquals(0, open.get());
+    }
+
+    @Test
+    public void testGaugeUpdates() {
+        Gauge gauge = new GaugeImpl("foobar");
+        ConcurrentAssociativeCache<String> cache = new ConcurrentAssociativeCache<>(8, 64, gauge);
+        Assert.assertEquals(0, gauge.getValue());
+        for (int i = 0; i < 10; i++) {
+            cache.put(Integer.toString(i), Integer.toString(i));
+            Assert.assertEquals(i + 1, gauge.getValue());
+        }
+
+        cache.poll("0");
+        Assert.assertEquals(9, gauge.getValue());
+        // Second poll() on the same key should be ignored.
+        cache.poll("0");
+        Assert.assertEquals(9, gauge.getValue());
+        // put() should insert value for key-value pair cleared by poll().
+        cache.put("0", "42");
+        Assert.assertEquals(10, gauge.getValue());
+
+        cache.clear();
+        Assert.assertEquals(0, gauge.getValue());
+    }
+
+    @Test
+    public void testKeyIsRemovedWithValue() {
+        final AtomicInteger open = new AtomicInteger();
+        final ConcurrentAssociativeCache<Value> cache = new ConcurrentAssociativeCache<>(2, 1);
+        final Value x = new Value(open);
+        final Value y = new Value(open);
+        cache.put("X", x);
+        cache.put("Y", y);
+        Assert.assertSame(x, cache.poll("X"));
+        Assert.assertNull(cache.poll("X"));
+
+        // entries are found anywhere in the row, not only at its head
+        final Value z = new Value(open);
+        cache.put("Z", z);
+        Assert.assertSame(y, cache.poll("Y"));
+        cache.put("Y", y);
+        cache.put("Z", z);
+        Assert.assertFalse(z.closed);
+        Assert.assertSame(z, cache.poll("Z"));
+        Assert.assertSame(y, cache.poll("Y"));
+        Assert.assertNull(cache.poll("Z"));
+
+        // a key that is pushed twice occupies a single entry
+        final Value y2 = new Value(open);
+        cache.put("Y", y);
+        cache.put("X", x);
+        cache.put("Y", y2);
+        Assert.assertTrue(y.closed);
+        Assert.assertSame(x, cache.poll("X"));
+        Assert.assertSame(y2, cache.poll("Y"));
+
+        Misc.free(x);
+        Misc.free(y2);
+        Misc.free(z);
+        Assert.assertEquals(0, open.get());
+    }
+
+    @Test
+    public void testMinSize() {
+        ConcurrentAssociativeCache<String> cache = new ConcurrentAssociativeCache<>(1, 1);
+        cache.put("X", "1");
+        cache.put("Y", "2");
+        cache.put("Z", "3");
+        Assert.assertNull(cache.poll("X"));
+        Assert.assertNull(cache.poll("Y"));
+        Assert.assertEquals("3", cache.poll("Z"));
+    }
+
+    private static class Value implements Closeable {
+        private final AtomicInteger open;
+        private final AtomicInteger users = new AtomicInteger();
+        private boolean closed;
+
+        private Value(AtomicInteger open) {
+            this.open = open;
+            open.incrementAndGet();
+        }
+
+        @Override
+        public void close() {
+            Assert.assertFalse(closed);
+            closed = true;
+            open.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.std;
+
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentClosableObjectPoolTest {
+    private static final int initSize = 4;
+
+    @Test
+    public void testConcurrentPopPush() throws Exception {
+        final int threadCount = 4;
+        final int iterations = 10_000;
+        final AtomicInteger errors = new AtomicInteger();
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final Thread[] threads = new Thread[threadCount];
+
+        try (
+                ConcurrentClosableObjectPool<ClosablePoolElement> pool = new ConcurrentClosableObjectPool<>(ClosablePoolElement::new, initSize)
+        ) {
+            for (int t = 0; t < threadCount; t++) {
+                threads[t] = new Thread(() -> {
+                    try {
+                        barrier.await();
+                        for (int i = 0; i < iterations; i++) {
+                            final ClosablePoolElement element = pool.pop();
+                            // elements must never be handed out to two threads at the same time
+                            if (element.users.incrementAndGet() != 1 || element.closed) {
+                                errors.incrementAndGet();
+                            }
+                            element.users.decrementAndGet();
+                            pool.push(element);
+                        }
+                    } catch (Throwable e) {
+                        errors.incrementAndGet();
+                    }
+                });
+                threads[t].start();
+            }
+
+            for (int t = 0; t < threadCount; t++) {
+                threads[t].join();
+            }
+            assertEquals(0, errors.get());
+            assertTrue(pool.cache.size() <= 2 * initSize);
+        }
+    }
+
+    @Test
+    public void testPushAfterClose() {
+        final ConcurrentClosableObjectPool<ClosablePoolElement> pool = new ConcurrentClosableObjectPool<>(ClosablePoolElement::new, initSize);
+        final ClosablePoolElement element = pool.pop();
+        assertFalse(element.closed);
+
+        pool.close();
+        assertEquals(0, pool.cache.size());
+
+        // element outlived the pool, it is freed on return
+        assertFalse(pool.push(element));
+        assertTrue(element.closed);
+        assertEquals(0, pool.cache.size());
+    }
+
+    private static class ClosablePoolElement implements Closeable {
+        private final AtomicInteger users = new AtomicInteger();
+        private volatile boolean closed = false;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}